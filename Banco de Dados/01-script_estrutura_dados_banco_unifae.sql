@@ -18,7 +18,7 @@ CREATE TABLE `avaliacoes_preenchidas` (`id_avaliacao_preenchida` int(11) NOT NUL
 CREATE TABLE `competencias_questionario` (`id_competencia_questionario` int(11) NOT NULL,`id_questionario` int(11) NOT NULL,`nome_competencia` varchar(255) NOT NULL,`tipo_item` enum('escala_numerica','texto_livre','multipla_escolha','checkbox') DEFAULT 'escala_numerica',`descricao_prompt` text DEFAULT NULL,`ordem_exibicao` int(11) DEFAULT 0,`obrigatorio` tinyint(1) DEFAULT 1,`ativo` tinyint(1) DEFAULT 1,`data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),`data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp()) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 CREATE TABLE `disciplinas` (`id_disciplina` int(11) NOT NULL,`nome_disciplina` varchar(255) NOT NULL,`codigo_disciplina` varchar(20) NOT NULL,`descricao` text DEFAULT NULL,`carga_horaria` int(11) DEFAULT 0,`ativo` tinyint(1) DEFAULT 1,`data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),`data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),`ativa` bit(1) NOT NULL,`sigla_disciplina` varchar(10) DEFAULT NULL) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 CREATE TABLE `disciplinas_turmas` (`id_disciplina_turma` int(11) NOT NULL,`id_disciplina` int(11) NOT NULL,`id_turma` int(11) NOT NULL,`id_professor` int(11) DEFAULT NULL,`data_vinculacao` timestamp NOT NULL DEFAULT current_timestamp(),`ativo` tinyint(1) DEFAULT 1) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
-CREATE TABLE `eventos_agenda` (`id_evento` int(11) NOT NULL,`titulo` varchar(255) NOT NULL,`descricao` text DEFAULT NULL,`data_inicio` datetime NOT NULL,`data_fim` datetime DEFAULT NULL,`id_local_evento` int(11) DEFAULT NULL,`id_disciplina` int(11) DEFAULT NULL,`id_turma` int(11) DEFAULT NULL,`id_responsavel` int(11) DEFAULT NULL,`tipo_evento` enum('AULA','PROVA','SEMINARIO','AVALIACAO','REUNIAO','EVENTO') DEFAULT 'AULA',`status_evento` enum('AGENDADO','EM_ANDAMENTO','CONCLUIDO','CANCELADO') DEFAULT 'AGENDADO',`data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),`data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp()) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+CREATE TABLE `eventos_agenda` (`id_evento` int(11) NOT NULL,`titulo` varchar(255) NOT NULL,`descricao` text DEFAULT NULL,`data_inicio` datetime NOT NULL,`data_fim` datetime DEFAULT NULL,`id_local_evento` int(11) DEFAULT NULL,`id_disciplina` int(11) DEFAULT NULL,`id_turma` int(11) DEFAULT NULL,`id_responsavel` int(11) DEFAULT NULL,`tipo_evento` enum('AULA','PROVA','SEMINARIO','AVALIACAO','REUNIAO','EVENTO') DEFAULT 'AULA',`status_evento` enum('AGENDADO','EM_ANDAMENTO','CONCLUIDO','CANCELADO') DEFAULT 'AGENDADO',`regra_recorrencia` varchar(255) DEFAULT NULL,`data_fim_recorrencia` datetime DEFAULT NULL,`data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),`data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp()) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 CREATE TABLE `locais_eventos` (`id_local_evento` int(11) NOT NULL,`nome_local` varchar(255) NOT NULL,`descricao` text DEFAULT NULL,`endereco` varchar(500) DEFAULT NULL,`capacidade` int(11) DEFAULT 0,`ativo` tinyint(1) DEFAULT 1,`data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),`data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),`cidade` varchar(100) NOT NULL,`estado` varchar(2) NOT NULL,`tipo_local` varchar(100) NOT NULL) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 CREATE TABLE `log_acoes` (`id_log` int(11) NOT NULL,`id_usuario` int(11) DEFAULT NULL,`acao` varchar(100) NOT NULL,`tabela_afetada` varchar(100) DEFAULT NULL,`id_registro_afetado` int(11) DEFAULT NULL,`dados_anteriores` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_bin DEFAULT NULL CHECK (json_valid(`dados_anteriores`)),`dados_novos` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_bin DEFAULT NULL CHECK (json_valid(`dados_novos`)),`ip_usuario` varchar(45) DEFAULT NULL,`user_agent` text DEFAULT NULL,`data_acao` timestamp NOT NULL DEFAULT current_timestamp()) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 CREATE TABLE `participantes_eventos` (`id_participante_evento` int(11) NOT NULL,`id_evento` int(11) NOT NULL,`id_usuario` int(11) NOT NULL,`papel_participante` enum('ORGANIZADOR','PARTICIPANTE','CONVIDADO') DEFAULT 'PARTICIPANTE',`confirmado` tinyint(1) DEFAULT 0,`data_confirmacao` timestamp NULL DEFAULT NULL,`observacoes` text DEFAULT NULL,`data_criacao` timestamp NOT NULL DEFAULT current_timestamp()) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -46,7 +46,115 @@ CREATE TABLE `notas` (
   `ativo` tinyint(1) NOT NULL DEFAULT 1,
   `data_criacao` timestamp NOT NULL DEFAULT current_timestamp(),
   `data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
-  PRIMARY KEY (`id_nota`)
+  PRIMARY KEY (`id_nota`),
+  KEY `idx_notas_data_avaliacao` (`data_avaliacao`),
+  KEY `idx_notas_aluno_disciplina` (`id_aluno`, `id_disciplina`, `ativo`),
+  KEY `idx_notas_aluno_data` (`id_aluno`, `ativo`, `data_avaliacao`),
+  KEY `idx_notas_turma_disciplina` (`id_turma`, `id_disciplina`, `ativo`),
+  KEY `idx_notas_data_atualizacao` (`data_atualizacao`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Médias das notas ativas mantidas pela aplicação (NotaAgregadoDAO) na mesma
+-- transação de cada gravação em `notas`. id_referencia é o aluno (escopos ALUNO e
+-- ALUNO_DISCIPLINA) ou a turma (TURMA_DISCIPLINA); id_disciplina é 0 no escopo ALUNO.
+CREATE TABLE `notas_agregados` (
+  `id_agregado` int(11) NOT NULL AUTO_INCREMENT,
+  `escopo` enum('ALUNO','ALUNO_DISCIPLINA','TURMA_DISCIPLINA') NOT NULL,
+  `id_referencia` int(11) NOT NULL,
+  `id_disciplina` int(11) NOT NULL DEFAULT 0,
+  `quantidade` int(11) NOT NULL DEFAULT 0,
+  `soma_valores` decimal(12,2) NOT NULL DEFAULT 0.00,
+  `soma_ponderada` decimal(14,4) NOT NULL DEFAULT 0.0000,
+  `soma_pesos` decimal(12,2) NOT NULL DEFAULT 0.00,
+  `nota_minima` decimal(4,2) DEFAULT NULL,
+  `nota_maxima` decimal(4,2) DEFAULT NULL,
+  `data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
+  PRIMARY KEY (`id_agregado`),
+  UNIQUE KEY `uk_notas_agregados_grupo` (`escopo`, `id_referencia`, `id_disciplina`),
+  KEY `idx_notas_agregados_disciplina` (`escopo`, `id_disciplina`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Distribuição das notas ativas (quantidade de notas com cada valor) mantida pela
+-- aplicação (NotaDistribuicaoDAO) junto com notas_agregados, para medianas e percentis
+-- exatos sem ordenar as notas. id_turma é 0 para notas sem turma.
+CREATE TABLE `notas_distribuicoes` (
+  `id_disciplina` int(11) NOT NULL,
+  `id_turma` int(11) NOT NULL DEFAULT 0,
+  `valor_nota` decimal(4,2) NOT NULL,
+  `quantidade` int(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id_disciplina`, `id_turma`, `valor_nota`),
+  KEY `idx_notas_distribuicoes_turma` (`id_turma`, `valor_nota`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Tarefas em segundo plano de instância única (AgendadorTarefas / TarefaAgendadaDAO): com
+-- vários servidores, só executa quem grava seu nome em `instancia` com o lease livre ou
+-- vencido (`lease_ate`). `execucao_prevista` guarda o último horário já executado, para que
+-- outro servidor não o repita depois que o lease for liberado.
+CREATE TABLE `tarefas_agendadas` (
+  `nome_tarefa` varchar(100) NOT NULL,
+  `instancia` varchar(255) DEFAULT NULL,
+  `execucao_prevista` datetime DEFAULT NULL,
+  `lease_ate` datetime DEFAULT NULL,
+  `data_atualizacao` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
+  PRIMARY KEY (`nome_tarefa`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Histórico das execuções das tarefas em segundo plano (GET /api/tarefas/{nome}/execucoes).
+-- execucao_prevista é nula nas execuções manuais.
+CREATE TABLE `execucoes_tarefas` (
+  `id_execucao` bigint(20) NOT NULL AUTO_INCREMENT,
+  `nome_tarefa` varchar(100) NOT NULL,
+  `instancia` varchar(255) NOT NULL,
+  `execucao_prevista` datetime DEFAULT NULL,
+  `data_inicio` datetime(3) NOT NULL,
+  `data_fim` datetime(3) DEFAULT NULL,
+  `status` enum('EXECUTANDO','SUCESSO','FALHA','TEMPO_ESGOTADO','INTERROMPIDA') NOT NULL,
+  `mensagem` varchar(1000) DEFAULT NULL,
+  PRIMARY KEY (`id_execucao`),
+  KEY `idx_execucoes_tarefas_nome_inicio` (`nome_tarefa`, `data_inicio`),
+  KEY `idx_execucoes_tarefas_inicio` (`data_inicio`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Uma linha por local com eventos, travada (SELECT ... FOR UPDATE) pelo EventoAgendaDAO ao
+-- gravar um evento que ocupa ou libera o local: reservas no mesmo local, mesmo em servidores
+-- diferentes, ficam em fila e não gravam dois eventos no mesmo horário. `versao` conta as
+-- gravações; o índice de conflitos em memória (IndiceConflitosAgenda) relê os eventos do
+-- local quando está em outra versão.
+CREATE TABLE `locais_eventos_versoes` (
+  `id_local_evento` int(11) NOT NULL,
+  `versao` bigint(20) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id_local_evento`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Versão dos dados de origem dos caches em memória (VersoesDados), por área e referência
+-- (ex: area 'avaliacoes_aluno' e o ID do aluno; area 'agenda_mes' e ano * 100 + mês). Incrementada na transação de cada gravação;
+-- cada servidor compara a versão com a do valor em cache antes de servi-lo, e uma gravação
+-- feita em outro servidor também desatualiza o cache. Sem linha, a versão é 0.
+CREATE TABLE `versoes_dados` (
+  `area` varchar(40) NOT NULL,
+  `id_referencia` int(11) NOT NULL,
+  `versao` bigint(20) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`area`, `id_referencia`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Exceções das séries de eventos (eventos_agenda com regra_recorrencia): uma linha por
+-- ocorrência cancelada ou alterada, identificada pelo início original (`data_ocorrencia`).
+-- Os demais campos são opcionais: NULL mantém o valor da série. As ocorrências sem exceção
+-- não são gravadas; o EventoAgendaDAO as gera a partir da regra para o período consultado.
+CREATE TABLE `eventos_agenda_excecoes` (
+  `id_excecao` int(11) NOT NULL AUTO_INCREMENT,
+  `id_evento` int(11) NOT NULL,
+  `data_ocorrencia` datetime NOT NULL,
+  `cancelada` tinyint(1) NOT NULL DEFAULT 0,
+  `data_inicio` datetime DEFAULT NULL,
+  `data_fim` datetime DEFAULT NULL,
+  `id_local_evento` int(11) DEFAULT NULL,
+  `titulo` varchar(255) DEFAULT NULL,
+  `descricao` text DEFAULT NULL,
+  `data_atualizacao` datetime NOT NULL DEFAULT current_timestamp(),
+  PRIMARY KEY (`id_excecao`),
+  UNIQUE KEY `uk_eventos_excecoes_ocorrencia` (`id_evento`, `data_ocorrencia`),
+  KEY `idx_eventos_excecoes_local` (`id_local_evento`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- --------------------------------------------------------
@@ -100,6 +208,20 @@ INSERT INTO `notas` (
 (29, 15, 9, 18, 9.0, 4.0, 'ESTAGIO', 'Internato em Cirurgia', '2025-03-21', 'Muito bom em procedimentos cirúrgicos'),
 (30, 14, 9, 17, 8.0, 4.0, 'ESTAGIO', 'Internato em Clínica Médica', '2025-03-14', 'Bom desempenho, demonstra maturidade profissional'),
 (30, 15, 9, 18, 8.5, 4.0, 'ESTAGIO', 'Internato em Cirurgia', '2025-03-21', 'Boa evolução técnica');
+
+-- Agregados iniciais das notas acima (mesmo cálculo de NotaAgregadoDAO.reconstruir())
+INSERT INTO `notas_agregados` (`escopo`, `id_referencia`, `id_disciplina`, `quantidade`, `soma_valores`, `soma_ponderada`, `soma_pesos`, `nota_minima`, `nota_maxima`)
+SELECT 'ALUNO', n.id_aluno, 0, COUNT(*), SUM(n.valor_nota), COALESCE(SUM(n.valor_nota * n.peso_nota), 0), COALESCE(SUM(n.peso_nota), 0), MIN(n.valor_nota), MAX(n.valor_nota)
+FROM `notas` n WHERE n.ativo = 1 GROUP BY n.id_aluno;
+INSERT INTO `notas_agregados` (`escopo`, `id_referencia`, `id_disciplina`, `quantidade`, `soma_valores`, `soma_ponderada`, `soma_pesos`, `nota_minima`, `nota_maxima`)
+SELECT 'ALUNO_DISCIPLINA', n.id_aluno, n.id_disciplina, COUNT(*), SUM(n.valor_nota), COALESCE(SUM(n.valor_nota * n.peso_nota), 0), COALESCE(SUM(n.peso_nota), 0), MIN(n.valor_nota), MAX(n.valor_nota)
+FROM `notas` n WHERE n.ativo = 1 GROUP BY n.id_aluno, n.id_disciplina;
+INSERT INTO `notas_agregados` (`escopo`, `id_referencia`, `id_disciplina`, `quantidade`, `soma_valores`, `soma_ponderada`, `soma_pesos`, `nota_minima`, `nota_maxima`)
+SELECT 'TURMA_DISCIPLINA', n.id_turma, n.id_disciplina, COUNT(*), SUM(n.valor_nota), COALESCE(SUM(n.valor_nota * n.peso_nota), 0), COALESCE(SUM(n.peso_nota), 0), MIN(n.valor_nota), MAX(n.valor_nota)
+FROM `notas` n WHERE n.ativo = 1 AND n.id_turma IS NOT NULL GROUP BY n.id_turma, n.id_disciplina;
+INSERT INTO `notas_distribuicoes` (`id_disciplina`, `id_turma`, `valor_nota`, `quantidade`)
+SELECT n.id_disciplina, COALESCE(n.id_turma, 0), n.valor_nota, COUNT(*)
+FROM `notas` n WHERE n.ativo = 1 GROUP BY n.id_disciplina, COALESCE(n.id_turma, 0), n.valor_nota;
 -- <<< FIM DA SEÇÃO ADICIONADA DO SCRIPT DE NOTAS >>>
 
 -- --------------------------------------------------------
@@ -236,19 +358,19 @@ ORDER BY media_geral DESC;
 -- --------------------------------------------------------
 
 ALTER TABLE `agenda_disciplinas_vinculadas` ADD PRIMARY KEY (`id_agenda_disciplina`), ADD UNIQUE KEY `uk_evento_disciplina` (`id_evento`,`id_disciplina`), ADD KEY `idx_agenda_evento` (`id_evento`), ADD KEY `idx_agenda_disciplina` (`id_disciplina`);
-ALTER TABLE `avaliacoes_preenchidas` ADD PRIMARY KEY (`id_avaliacao_preenchida`), ADD KEY `idx_avaliacao_questionario` (`id_questionario`), ADD KEY `idx_avaliacao_aluno` (`id_aluno_avaliado`), ADD KEY `idx_avaliacao_avaliador` (`id_avaliador`), ADD KEY `idx_avaliacao_disciplina` (`id_disciplina`), ADD KEY `idx_avaliacao_turma` (`id_turma`), ADD KEY `idx_avaliacao_data` (`data_realizacao`), ADD KEY `idx_avaliacao_status` (`status_avaliacao`), ADD KEY `id_local_evento` (`id_local_evento`), ADD KEY `idx_avaliacoes_data_status` (`data_realizacao`,`status_avaliacao`), ADD KEY `idx_avaliacoes_aluno_data` (`id_aluno_avaliado`,`data_realizacao`), ADD KEY `idx_avaliacoes_avaliador_data` (`id_avaliador`,`data_realizacao`);
+ALTER TABLE `avaliacoes_preenchidas` ADD PRIMARY KEY (`id_avaliacao_preenchida`), ADD KEY `idx_avaliacao_questionario` (`id_questionario`), ADD KEY `idx_avaliacao_aluno` (`id_aluno_avaliado`), ADD KEY `idx_avaliacao_avaliador` (`id_avaliador`), ADD KEY `idx_avaliacao_disciplina` (`id_disciplina`), ADD KEY `idx_avaliacao_turma` (`id_turma`), ADD KEY `idx_avaliacao_data` (`data_realizacao`), ADD KEY `idx_avaliacao_status` (`status_avaliacao`), ADD KEY `id_local_evento` (`id_local_evento`), ADD KEY `idx_avaliacoes_data_status` (`data_realizacao`,`status_avaliacao`), ADD KEY `idx_avaliacoes_aluno_data` (`id_aluno_avaliado`,`data_realizacao`), ADD KEY `idx_avaliacoes_avaliador_data` (`id_avaliador`,`data_realizacao`), ADD KEY `idx_avaliacoes_data_atualizacao` (`data_atualizacao`);
 ALTER TABLE `competencias_questionario` ADD PRIMARY KEY (`id_competencia_questionario`), ADD KEY `idx_competencia_questionario` (`id_questionario`), ADD KEY `idx_competencia_nome` (`nome_competencia`), ADD KEY `idx_competencia_ordem` (`ordem_exibicao`), ADD KEY `idx_competencia_ativo` (`ativo`);
 ALTER TABLE `disciplinas` ADD PRIMARY KEY (`id_disciplina`), ADD UNIQUE KEY `codigo_disciplina` (`codigo_disciplina`), ADD UNIQUE KEY `UK_o5w330o6es8py0adahujjc83s` (`sigla_disciplina`), ADD KEY `idx_disciplina_codigo` (`codigo_disciplina`), ADD KEY `idx_disciplina_nome` (`nome_disciplina`), ADD KEY `idx_disciplina_ativo` (`ativo`);
 ALTER TABLE `disciplinas_turmas` ADD PRIMARY KEY (`id_disciplina_turma`), ADD UNIQUE KEY `uk_disciplina_turma` (`id_disciplina`,`id_turma`), ADD KEY `idx_disciplina_turma_disciplina` (`id_disciplina`), ADD KEY `idx_disciplina_turma_turma` (`id_turma`), ADD KEY `idx_disciplina_turma_professor` (`id_professor`);
-ALTER TABLE `eventos_agenda` ADD PRIMARY KEY (`id_evento`), ADD KEY `idx_evento_data_inicio` (`data_inicio`), ADD KEY `idx_evento_data_fim` (`data_fim`), ADD KEY `idx_evento_local` (`id_local_evento`), ADD KEY `idx_evento_disciplina` (`id_disciplina`), ADD KEY `idx_evento_turma` (`id_turma`), ADD KEY `idx_evento_responsavel` (`id_responsavel`), ADD KEY `idx_evento_tipo` (`tipo_evento`), ADD KEY `idx_evento_status` (`status_evento`), ADD KEY `idx_eventos_data_tipo` (`data_inicio`,`tipo_evento`);
+ALTER TABLE `eventos_agenda` ADD PRIMARY KEY (`id_evento`), ADD KEY `idx_evento_data_inicio` (`data_inicio`), ADD KEY `idx_evento_data_fim` (`data_fim`), ADD KEY `idx_evento_local` (`id_local_evento`), ADD KEY `idx_evento_disciplina` (`id_disciplina`), ADD KEY `idx_evento_turma` (`id_turma`), ADD KEY `idx_evento_responsavel` (`id_responsavel`), ADD KEY `idx_evento_tipo` (`tipo_evento`), ADD KEY `idx_evento_status` (`status_evento`), ADD KEY `idx_eventos_data_tipo` (`data_inicio`,`tipo_evento`), ADD KEY `idx_eventos_turma_data` (`id_turma`,`data_inicio`), ADD KEY `idx_eventos_fim_recorrencia` (`data_fim_recorrencia`);
 ALTER TABLE `locais_eventos` ADD PRIMARY KEY (`id_local_evento`), ADD KEY `idx_local_nome` (`nome_local`), ADD KEY `idx_local_ativo` (`ativo`);
 ALTER TABLE `log_acoes` ADD PRIMARY KEY (`id_log`), ADD KEY `idx_log_usuario` (`id_usuario`), ADD KEY `idx_log_acao` (`acao`), ADD KEY `idx_log_tabela` (`tabela_afetada`), ADD KEY `idx_log_data` (`data_acao`);
 ALTER TABLE `participantes_eventos` ADD PRIMARY KEY (`id_participante_evento`), ADD UNIQUE KEY `uk_evento_usuario` (`id_evento`,`id_usuario`), ADD KEY `idx_participante_evento` (`id_evento`), ADD KEY `idx_participante_usuario` (`id_usuario`), ADD KEY `idx_participante_papel` (`papel_participante`), ADD KEY `idx_participante_confirmado` (`confirmado`);
 ALTER TABLE `permissoes` ADD PRIMARY KEY (`id_permissao`), ADD UNIQUE KEY `nome_permissao` (`nome_permissao`), ADD KEY `idx_permissao_nome` (`nome_permissao`), ADD KEY `idx_permissao_ativo` (`ativo`);
 ALTER TABLE `questionarios` ADD PRIMARY KEY (`id_questionario`), ADD KEY `idx_questionario_tipo` (`tipo_avaliacao`), ADD KEY `idx_questionario_nome` (`nome_modelo`), ADD KEY `idx_questionario_ativo` (`ativo`);
-ALTER TABLE `respostas_itens_avaliacao` ADD PRIMARY KEY (`id_resposta_avaliacao`), ADD UNIQUE KEY `uk_resposta_avaliacao_competencia` (`id_avaliacao_preenchida`,`id_competencia_questionario`), ADD KEY `idx_resposta_avaliacao` (`id_avaliacao_preenchida`), ADD KEY `idx_resposta_competencia` (`id_competencia_questionario`), ADD KEY `idx_resposta_valor` (`resposta_valor_numerico`), ADD KEY `idx_resposta_nao_avaliado` (`nao_avaliado`), ADD KEY `idx_respostas_valor_competencia` (`resposta_valor_numerico`,`id_competencia_questionario`);
+ALTER TABLE `respostas_itens_avaliacao` ADD PRIMARY KEY (`id_resposta_avaliacao`), ADD UNIQUE KEY `uk_resposta_avaliacao_competencia` (`id_avaliacao_preenchida`,`id_competencia_questionario`), ADD KEY `idx_resposta_avaliacao` (`id_avaliacao_preenchida`), ADD KEY `idx_resposta_competencia` (`id_competencia_questionario`), ADD KEY `idx_resposta_valor` (`resposta_valor_numerico`), ADD KEY `idx_resposta_nao_avaliado` (`nao_avaliado`), ADD KEY `idx_respostas_valor_competencia` (`resposta_valor_numerico`,`id_competencia_questionario`), ADD KEY `idx_respostas_data_atualizacao` (`data_atualizacao`);
 ALTER TABLE `turmas` ADD PRIMARY KEY (`id_turma`), ADD UNIQUE KEY `UK_79r9a4uhk2o7i4cvfel5bfdq` (`codigo_turma`), ADD KEY `idx_turma_ano_semestre` (`ano_letivo`,`semestre`), ADD KEY `idx_turma_nome` (`nome_turma`), ADD KEY `idx_turma_ativo` (`ativo`);
-ALTER TABLE `usuarios` ADD PRIMARY KEY (`id_usuario`), ADD UNIQUE KEY `email` (`email`), ADD UNIQUE KEY `matricula_RA` (`matricula_RA`), ADD KEY `idx_usuario_email` (`email`), ADD KEY `idx_usuario_tipo` (`tipo_usuario`), ADD KEY `idx_usuario_ativo` (`ativo`), ADD KEY `idx_usuario_matricula` (`matricula_RA`), ADD KEY `id_permissao` (`id_permissao`), ADD KEY `idx_usuarios_tipo_ativo` (`tipo_usuario`,`ativo`);
+ALTER TABLE `usuarios` ADD PRIMARY KEY (`id_usuario`), ADD UNIQUE KEY `email` (`email`), ADD UNIQUE KEY `matricula_RA` (`matricula_RA`), ADD KEY `idx_usuario_email` (`email`), ADD KEY `idx_usuario_tipo` (`tipo_usuario`), ADD KEY `idx_usuario_ativo` (`ativo`), ADD KEY `idx_usuario_matricula` (`matricula_RA`), ADD KEY `id_permissao` (`id_permissao`), ADD KEY `idx_usuarios_tipo_ativo` (`tipo_usuario`,`ativo`), ADD KEY `idx_usuarios_data_atualizacao` (`data_atualizacao`);
 ALTER TABLE `usuarios_permissoes` ADD PRIMARY KEY (`id_usuario_permissao`), ADD UNIQUE KEY `uk_usuario_permissao` (`id_usuario`,`id_permissao`), ADD KEY `idx_usuario_permissao_usuario` (`id_usuario`), ADD KEY `idx_usuario_permissao_permissao` (`id_permissao`);
 ALTER TABLE `usuarios_turmas` ADD PRIMARY KEY (`id_usuario_turma`), ADD UNIQUE KEY `uk_usuario_turma_papel` (`id_usuario`,`id_turma`,`papel`), ADD KEY `idx_usuario_turma_usuario` (`id_usuario`), ADD KEY `idx_usuario_turma_turma` (`id_turma`), ADD KEY `idx_usuario_turma_papel` (`papel`);
 ALTER TABLE `agenda_disciplinas_vinculadas` MODIFY `id_agenda_disciplina` int(11) NOT NULL AUTO_INCREMENT;
@@ -272,6 +394,7 @@ ALTER TABLE `avaliacoes_preenchidas` ADD CONSTRAINT `avaliacoes_preenchidas_ibfk
 ALTER TABLE `competencias_questionario` ADD CONSTRAINT `competencias_questionario_ibfk_1` FOREIGN KEY (`id_questionario`) REFERENCES `questionarios` (`id_questionario`) ON DELETE CASCADE ON UPDATE CASCADE;
 ALTER TABLE `disciplinas_turmas` ADD CONSTRAINT `disciplinas_turmas_ibfk_1` FOREIGN KEY (`id_disciplina`) REFERENCES `disciplinas` (`id_disciplina`) ON DELETE CASCADE ON UPDATE CASCADE, ADD CONSTRAINT `disciplinas_turmas_ibfk_2` FOREIGN KEY (`id_turma`) REFERENCES `turmas` (`id_turma`) ON DELETE CASCADE ON UPDATE CASCADE, ADD CONSTRAINT `disciplinas_turmas_ibfk_3` FOREIGN KEY (`id_professor`) REFERENCES `usuarios` (`id_usuario`) ON DELETE SET NULL ON UPDATE CASCADE;
 ALTER TABLE `eventos_agenda` ADD CONSTRAINT `eventos_agenda_ibfk_1` FOREIGN KEY (`id_local_evento`) REFERENCES `locais_eventos` (`id_local_evento`) ON DELETE SET NULL ON UPDATE CASCADE, ADD CONSTRAINT `eventos_agenda_ibfk_2` FOREIGN KEY (`id_disciplina`) REFERENCES `disciplinas` (`id_disciplina`) ON DELETE SET NULL ON UPDATE CASCADE, ADD CONSTRAINT `eventos_agenda_ibfk_3` FOREIGN KEY (`id_turma`) REFERENCES `turmas` (`id_turma`) ON DELETE SET NULL ON UPDATE CASCADE, ADD CONSTRAINT `eventos_agenda_ibfk_4` FOREIGN KEY (`id_responsavel`) REFERENCES `usuarios` (`id_usuario`) ON DELETE SET NULL ON UPDATE CASCADE;
+ALTER TABLE `eventos_agenda_excecoes` ADD CONSTRAINT `eventos_agenda_excecoes_ibfk_1` FOREIGN KEY (`id_evento`) REFERENCES `eventos_agenda` (`id_evento`) ON DELETE CASCADE ON UPDATE CASCADE, ADD CONSTRAINT `eventos_agenda_excecoes_ibfk_2` FOREIGN KEY (`id_local_evento`) REFERENCES `locais_eventos` (`id_local_evento`) ON DELETE SET NULL ON UPDATE CASCADE;
 ALTER TABLE `log_acoes` ADD CONSTRAINT `log_acoes_ibfk_1` FOREIGN KEY (`id_usuario`) REFERENCES `usuarios` (`id_usuario`) ON DELETE SET NULL ON UPDATE CASCADE;
 ALTER TABLE `participantes_eventos` ADD CONSTRAINT `participantes_eventos_ibfk_1` FOREIGN KEY (`id_evento`) REFERENCES `eventos_agenda` (`id_evento`) ON DELETE CASCADE ON UPDATE CASCADE, ADD CONSTRAINT `participantes_eventos_ibfk_2` FOREIGN KEY (`id_usuario`) REFERENCES `usuarios` (`id_usuario`) ON DELETE CASCADE ON UPDATE CASCADE;
 ALTER TABLE `respostas_itens_avaliacao` ADD CONSTRAINT `respostas_itens_avaliacao_ibfk_1` FOREIGN KEY (`id_avaliacao_preenchida`) REFERENCES `avaliacoes_preenchidas` (`id_avaliacao_preenchida`) ON DELETE CASCADE ON UPDATE CASCADE, ADD CONSTRAINT `respostas_itens_avaliacao_ibfk_2` FOREIGN KEY (`id_competencia_questionario`) REFERENCES `competencias_questionario` (`id_competencia_questionario`) ON DELETE CASCADE ON UPDATE CASCADE;
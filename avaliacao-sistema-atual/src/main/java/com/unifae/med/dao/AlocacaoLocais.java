@@ -0,0 +1,473 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.TipoEvento;
+import com.unifae.med.rest.dto.AtribuicaoLocalDTO;
+import com.unifae.med.rest.dto.PropostaAlocacaoDTO;
+import com.unifae.med.util.ArvoreIntervalos;
+import com.unifae.med.util.RegraRecorrencia;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * ALOCACAO LOCAIS - ALOCAÇÃO AUTOMÁTICA DOS LOCAIS DE UM PERÍODO
+ * ==============================================================
+ *
+ * Propõe um local para cada evento sem local de um período (em geral, o
+ * semestre), sem conflito de horário com os eventos que já têm local nem
+ * entre os eventos da própria proposta. A proposta não grava nada: o
+ * coordenador a revisa e a aplica com EventoAgendaDAO.aplicarAlocacaoLocais(),
+ * numa única transação que reserva os locais como save() (um conflito
+ * criado depois da proposta desfaz tudo).
+ *
+ * DADOS:
+ * - Eventos: sem local, não CANCELADOS, com duração, que começam no período
+ *   ou são séries com ocorrências nele. Uma série recebe um único local para
+ *   todas as ocorrências (a série inteira é verificada, como ao gravar);
+ *   ocorrências canceladas ou remarcadas para outro local não contam
+ * - Demanda: estudantes ativos da turma do evento (usuarios_turmas); evento
+ *   sem turma tem demanda 0
+ * - Locais: os ativos de locais_eventos, com capacidade e tipo_local. Um
+ *   local serve ao evento se comporta a demanda e se o tipo do local está
+ *   entre os permitidos para o tipo do evento (tiposLocal; um tipo de
+ *   evento fora do mapa aceita qualquer local)
+ * - Ocupação gravada: IndiceConflitosAgenda (em memória)
+ *
+ * ALGORITMO (GULOSO COM REPARO):
+ * 1. Os eventos são ordenados do mais restrito ao menos: menos locais
+ *    possíveis, depois mais horas ocupadas, depois maior demanda
+ * 2. Cada evento recebe, entre os locais possíveis em ordem de capacidade,
+ *    o primeiro livre em todos os seus horários: o menor que comporta a
+ *    turma, deixando os maiores para as turmas maiores
+ * 3. Reparo: se nenhum está livre, tenta cada local ocupado apenas por
+ *    eventos da proposta (no máximo MAX_BLOQUEIOS): retira-os, coloca o
+ *    evento e leva os retirados para outro local livre; se algum não
+ *    couber, desfaz e tenta o próximo local
+ * O que continua sem local vai para a lista de não alocados, com o motivo.
+ *
+ * DESEMPENHO:
+ * Cada verificação de horário é uma busca O(log n) numa ArvoreIntervalos
+ * (a ocupação gravada no índice de conflitos e a proposta numa árvore por
+ * local); os locais de cada evento são percorridos em ordem e a busca para
+ * no primeiro livre. A leitura é feita com quatro consultas nativas, sem
+ * montar entidades.
+ *
+ * Não é thread-safe: uma instância por proposta.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgendaDAO.java: proporAlocacaoLocais() e aplicarAlocacaoLocais()
+ * - IndiceConflitosAgenda.java: Ocupação gravada dos locais
+ * - OcorrenciasAgenda.java: Ocorrências das séries
+ * - AlocacaoLocaisResource.java: POST /api/agenda/alocacao-locais
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class AlocacaoLocais {
+
+    /**
+     * Eventos da proposta que o reparo aceita retirar de um local.
+     */
+    private static final int MAX_BLOQUEIOS = 3;
+
+    /**
+     * Local provisório da série na expansão: separa as ocorrências que
+     * seguem o local da série das remarcadas para outro local.
+     */
+    private static final Integer LOCAL_DA_SERIE = -1;
+
+    private static final String EVENTOS_SQL = "SELECT e.id_evento, e.titulo, e.data_inicio, e.data_fim, "
+            + "e.regra_recorrencia, e.tipo_evento, e.id_turma FROM eventos_agenda e "
+            + "WHERE e.id_local_evento IS NULL AND e.status_evento <> 'CANCELADO' AND e.data_fim > e.data_inicio "
+            + "AND e.data_inicio < ?2 AND (e.data_fim > ?1 OR e.data_fim_recorrencia > ?1)";
+
+    private static final String EXCECOES_SQL = "SELECT id_evento, data_ocorrencia, cancelada, data_inicio, data_fim, "
+            + "id_local_evento FROM eventos_agenda_excecoes WHERE id_evento IN (?1)";
+
+    /**
+     * Estudantes ativos por turma (usuarios_turmas não tem entidade
+     * mapeada).
+     */
+    private static final String DEMANDA_SQL = "SELECT ut.id_turma, COUNT(*) FROM usuarios_turmas ut "
+            + "WHERE ut.papel = 'ESTUDANTE' AND ut.ativo = 1 GROUP BY ut.id_turma";
+
+    /**
+     * Locais ativos (capacidade e ativo não estão mapeados em LocalEvento).
+     */
+    private static final String LOCAIS_SQL = "SELECT id_local_evento, nome_local, tipo_local, capacidade "
+            + "FROM locais_eventos WHERE ativo = 1";
+
+    private final LocalDateTime de;
+    private final LocalDateTime ate;
+    private final Map<TipoEvento, Set<String>> tiposLocal = new EnumMap<>(TipoEvento.class);
+    private final List<Sala> salas = new ArrayList<>();
+    private final List<Pedido> pedidos = new ArrayList<>();
+
+    private AlocacaoLocais(LocalDateTime de, LocalDateTime ate, Map<TipoEvento, ? extends Set<String>> tiposLocal) {
+        this.de = de;
+        this.ate = ate;
+        tiposLocal.forEach((tipo, locais) -> this.tiposLocal.put(tipo,
+                locais.stream().map(AlocacaoLocais::normalizar).collect(Collectors.toSet())));
+    }
+
+    /**
+     * PROPOR A ALOCAÇÃO
+     * =================
+     * @param em EntityManager de leitura
+     * @param de Início do período
+     * @param ate Fim do período (exclusivo)
+     * @param tiposLocal Tipos de local permitidos por tipo de evento
+     *        (comparados sem diferenciar maiúsculas); vazio aceita qualquer
+     *        local
+     * @return Locais propostos e eventos que ficaram sem local
+     */
+    static PropostaAlocacaoDTO propor(EntityManager em, LocalDateTime de, LocalDateTime ate,
+            Map<TipoEvento, ? extends Set<String>> tiposLocal) {
+        long inicio = System.nanoTime();
+        AlocacaoLocais alocacao = new AlocacaoLocais(de, ate, tiposLocal);
+        alocacao.ler(em);
+        alocacao.resolver();
+        return alocacao.proposta(Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+    }
+
+    // ========================================
+    // LEITURA
+    // ========================================
+
+    private void ler(EntityManager em) {
+        for (Object[] linha : linhas(em, LOCAIS_SQL)) {
+            salas.add(new Sala(((Number) linha[0]).intValue(), (String) linha[1], (String) linha[2],
+                    linha[3] == null ? 0 : ((Number) linha[3]).intValue()));
+        }
+        salas.sort(Comparator.comparingInt((Sala sala) -> sala.capacidade).thenComparing(sala -> sala.idLocal));
+
+        Map<Integer, Integer> demandas = new HashMap<>();
+        for (Object[] linha : linhas(em, DEMANDA_SQL)) {
+            demandas.put(((Number) linha[0]).intValue(), ((Number) linha[1]).intValue());
+        }
+
+        List<Object[]> eventos = linhas(em, EVENTOS_SQL, de, ate);
+        List<Integer> series = eventos.stream()
+                .filter(linha -> linha[4] != null)
+                .map(linha -> ((Number) linha[0]).intValue())
+                .toList();
+        Map<Integer, List<OcorrenciasAgenda.Alteracao>> alteracoes = new HashMap<>();
+        if (!series.isEmpty()) {
+            for (Object[] excecao : linhas(em, EXCECOES_SQL, series)) {
+                alteracoes.computeIfAbsent(((Number) excecao[0]).intValue(), id -> new ArrayList<>())
+                        .add(new OcorrenciasAgenda.Alteracao(dataHora(excecao[1]), verdadeiro(excecao[2]),
+                                dataHora(excecao[3]), dataHora(excecao[4]),
+                                excecao[5] == null ? null : ((Number) excecao[5]).intValue()));
+            }
+        }
+
+        for (Object[] linha : eventos) {
+            Integer idEvento = ((Number) linha[0]).intValue();
+            TipoEvento tipo = linha[5] == null ? null : TipoEvento.valueOf((String) linha[5]);
+            int demanda = linha[6] == null ? 0 : demandas.getOrDefault(((Number) linha[6]).intValue(), 0);
+            Pedido pedido = new Pedido(idEvento, (String) linha[1], dataHora(linha[2]), linha[4] != null, tipo,
+                    demanda);
+            try {
+                pedido.horarios.addAll(horarios(dataHora(linha[2]), dataHora(linha[3]), (String) linha[4],
+                        alteracoes.getOrDefault(idEvento, List.of())));
+            } catch (IllegalArgumentException e) {
+                pedido.motivo = "Regra de recorrência inválida: " + e.getMessage();
+            }
+            for (Horario horario : pedido.horarios) {
+                pedido.minutos += Duration.between(horario.inicio, horario.fim).toMinutes();
+            }
+            pedidos.add(pedido);
+        }
+    }
+
+    /**
+     * Horários em que o evento precisa do local: o do evento ou, numa série,
+     * os das ocorrências não canceladas que seguem o local da série.
+     */
+    private static List<Horario> horarios(LocalDateTime inicio, LocalDateTime fim, String regra,
+            List<OcorrenciasAgenda.Alteracao> alteracoes) {
+        if (regra == null) {
+            return List.of(new Horario(inicio, fim));
+        }
+        List<Horario> horarios = new ArrayList<>();
+        for (OcorrenciasAgenda.Ocorrencia ocorrencia : OcorrenciasAgenda.expandir(inicio, fim, LOCAL_DA_SERIE,
+                RegraRecorrencia.of(regra), OcorrenciasAgenda.porOcorrencia(alteracoes), null, null)) {
+            if (ocorrencia.ocupa() && LOCAL_DA_SERIE.equals(ocorrencia.idLocal)) {
+                horarios.add(new Horario(ocorrencia.inicio, ocorrencia.fim));
+            }
+        }
+        return horarios;
+    }
+
+    // ========================================
+    // ALGORITMO
+    // ========================================
+
+    private void resolver() {
+        for (Pedido pedido : pedidos) {
+            if (pedido.motivo == null) {
+                pedido.possiveis = salas.stream().filter(sala -> serve(sala, pedido)).toList();
+                pedido.motivo = pedido.possiveis.isEmpty() ? semLocalPossivel(pedido) : null;
+            }
+        }
+        List<Pedido> ordem = pedidos.stream()
+                .filter(pedido -> pedido.motivo == null)
+                .sorted(Comparator.comparingInt((Pedido pedido) -> pedido.possiveis.size())
+                        .thenComparing(Comparator.comparingLong((Pedido pedido) -> pedido.minutos).reversed())
+                        .thenComparing(Comparator.comparingInt((Pedido pedido) -> pedido.demanda).reversed())
+                        .thenComparing(pedido -> pedido.idEvento))
+                .toList();
+        Map<Integer, Pedido> porId = new HashMap<>(pedidos.size() * 2);
+        pedidos.forEach(pedido -> porId.put(pedido.idEvento, pedido));
+
+        for (Pedido pedido : ordem) {
+            Sala sala = primeiraLivre(pedido, null);
+            if (sala != null) {
+                colocar(pedido, sala);
+            } else if (!reparar(pedido, porId)) {
+                pedido.motivo = pedido.possiveis.size() == 1
+                        ? "O único local possível está ocupado em algum horário do evento."
+                        : "Todos os " + pedido.possiveis.size()
+                                + " locais possíveis estão ocupados em algum horário do evento.";
+            }
+        }
+    }
+
+    private boolean serve(Sala sala, Pedido pedido) {
+        if (sala.capacidade < pedido.demanda) {
+            return false;
+        }
+        Set<String> permitidos = pedido.tipoEvento == null ? null : tiposLocal.get(pedido.tipoEvento);
+        return permitidos == null || permitidos.contains(normalizar(sala.tipo));
+    }
+
+    private String semLocalPossivel(Pedido pedido) {
+        Set<String> permitidos = pedido.tipoEvento == null ? null : tiposLocal.get(pedido.tipoEvento);
+        boolean algumDoTipo = permitidos == null
+                || salas.stream().anyMatch(sala -> permitidos.contains(normalizar(sala.tipo)));
+        if (!algumDoTipo) {
+            return "Nenhum local ativo do tipo permitido para " + pedido.tipoEvento + ".";
+        }
+        return "Nenhum local permitido comporta " + pedido.demanda + " estudantes.";
+    }
+
+    /**
+     * @param ignorar Local que não deve ser escolhido, ou null
+     * @return O primeiro local possível livre em todos os horários, ou null
+     */
+    private static Sala primeiraLivre(Pedido pedido, Sala ignorar) {
+        for (Sala sala : pedido.possiveis) {
+            if (sala != ignorar && livre(pedido, sala)) {
+                return sala;
+            }
+        }
+        return null;
+    }
+
+    private static boolean livre(Pedido pedido, Sala sala) {
+        for (Horario horario : pedido.horarios) {
+            if (sala.propostos.existeSobreposto(horario.inicio, horario.fim, id -> true)) {
+                return false;
+            }
+        }
+        return semConflitoGravado(pedido, sala);
+    }
+
+    /**
+     * Ocupação gravada (índice de conflitos), consultada uma vez por evento e
+     * local.
+     */
+    private static boolean semConflitoGravado(Pedido pedido, Sala sala) {
+        return pedido.semConflitoGravado.computeIfAbsent(sala.idLocal, idLocal -> {
+            for (Horario horario : pedido.horarios) {
+                if (IndiceConflitosAgenda.temConflito(idLocal, horario.inicio, horario.fim, pedido.idEvento)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Tenta os locais em que o evento só encontra eventos da proposta:
+     * retira esses eventos, coloca o evento e leva os retirados para outro
+     * local livre. Se algum retirado não couber em outro local, desfaz.
+     */
+    private static boolean reparar(Pedido pedido, Map<Integer, Pedido> porId) {
+        for (Sala sala : pedido.possiveis) {
+            if (!semConflitoGravado(pedido, sala)) {
+                continue;
+            }
+            Set<Integer> bloqueios = new TreeSet<>();
+            for (Horario horario : pedido.horarios) {
+                bloqueios.addAll(sala.propostos.sobrepostos(horario.inicio, horario.fim));
+                if (bloqueios.size() > MAX_BLOQUEIOS) {
+                    break;
+                }
+            }
+            if (bloqueios.size() > MAX_BLOQUEIOS) {
+                continue;
+            }
+            List<Pedido> retirados = bloqueios.stream().map(porId::get).toList();
+            retirados.forEach(AlocacaoLocais::retirar);
+            colocar(pedido, sala);
+            List<Pedido> realocados = new ArrayList<>();
+            for (Pedido retirado : retirados) {
+                Sala outra = primeiraLivre(retirado, sala);
+                if (outra == null) {
+                    break;
+                }
+                colocar(retirado, outra);
+                realocados.add(retirado);
+            }
+            if (realocados.size() == retirados.size()) {
+                return true;
+            }
+            realocados.forEach(AlocacaoLocais::retirar);
+            retirar(pedido);
+            retirados.forEach(retirado -> colocar(retirado, sala));
+        }
+        return false;
+    }
+
+    private static void colocar(Pedido pedido, Sala sala) {
+        pedido.sala = sala;
+        pedido.horarios.forEach(horario -> sala.propostos.inserir(horario.inicio, horario.fim, pedido.idEvento));
+    }
+
+    private static void retirar(Pedido pedido) {
+        Sala sala = pedido.sala;
+        pedido.horarios.forEach(horario -> sala.propostos.remover(horario.inicio, horario.fim, pedido.idEvento));
+        pedido.sala = null;
+    }
+
+    // ========================================
+    // RESULTADO
+    // ========================================
+
+    private PropostaAlocacaoDTO proposta(long duracaoMs) {
+        List<AtribuicaoLocalDTO> atribuicoes = new ArrayList<>();
+        List<AtribuicaoLocalDTO> naoAlocados = new ArrayList<>();
+        pedidos.sort(Comparator.comparing((Pedido pedido) -> pedido.dataInicio).thenComparing(pedido -> pedido.idEvento));
+        for (Pedido pedido : pedidos) {
+            AtribuicaoLocalDTO dto = new AtribuicaoLocalDTO(pedido.idEvento, pedido.sala == null ? null
+                    : pedido.sala.idLocal);
+            dto.setTitulo(pedido.titulo);
+            dto.setDataInicio(pedido.dataInicio);
+            dto.setRecorrente(pedido.recorrente);
+            dto.setEstudantes(pedido.demanda);
+            if (pedido.sala != null) {
+                dto.setNomeLocal(pedido.sala.nome);
+                dto.setCapacidadeLocal(pedido.sala.capacidade);
+                atribuicoes.add(dto);
+            } else {
+                dto.setMotivo(pedido.motivo);
+                naoAlocados.add(dto);
+            }
+        }
+        return new PropostaAlocacaoDTO(de, ate, atribuicoes, naoAlocados, salas.size(), duracaoMs);
+    }
+
+    // ========================================
+    // AUXILIARES
+    // ========================================
+
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> linhas(EntityManager em, String sql, Object... parametros) {
+        Query query = em.createNativeQuery(sql);
+        for (int i = 0; i < parametros.length; i++) {
+            query.setParameter(i + 1, parametros[i]);
+        }
+        return query.getResultList();
+    }
+
+    private static String normalizar(String tipo) {
+        return tipo == null ? "" : tipo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+
+    private static boolean verdadeiro(Object valor) {
+        return valor instanceof Boolean booleano ? booleano : ((Number) valor).intValue() != 0;
+    }
+
+    // ========================================
+    // ESTRUTURAS
+    // ========================================
+
+    /**
+     * Um horário em que o evento precisa do local.
+     */
+    private static final class Horario {
+
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+
+        private Horario(LocalDateTime inicio, LocalDateTime fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    /**
+     * Um local ativo e os eventos propostos para ele.
+     */
+    private static final class Sala {
+
+        private final Integer idLocal;
+        private final String nome;
+        private final String tipo;
+        private final int capacidade;
+        private final ArvoreIntervalos<Integer> propostos = new ArvoreIntervalos<>(Comparator.naturalOrder());
+
+        private Sala(Integer idLocal, String nome, String tipo, int capacidade) {
+            this.idLocal = idLocal;
+            this.nome = nome;
+            this.tipo = tipo;
+            this.capacidade = capacidade;
+        }
+    }
+
+    /**
+     * Um evento sem local, os locais que o servem e o local proposto.
+     */
+    private static final class Pedido {
+
+        private final Integer idEvento;
+        private final String titulo;
+        private final LocalDateTime dataInicio;
+        private final boolean recorrente;
+        private final TipoEvento tipoEvento;
+        private final int demanda;
+        private final List<Horario> horarios = new ArrayList<>();
+        private final Map<Integer, Boolean> semConflitoGravado = new HashMap<>();
+        private long minutos;
+        private List<Sala> possiveis = List.of();
+        private Sala sala;
+        private String motivo;
+
+        private Pedido(Integer idEvento, String titulo, LocalDateTime dataInicio, boolean recorrente,
+                TipoEvento tipoEvento, int demanda) {
+            this.idEvento = idEvento;
+            this.titulo = titulo;
+            this.dataInicio = dataInicio;
+            this.recorrente = recorrente;
+            this.tipoEvento = tipoEvento;
+            this.demanda = demanda;
+        }
+    }
+}
@@ -3,18 +3,282 @@ package com.unifae.med.dao;
 import com.unifae.med.entity.AvaliacaoPreenchida;
 import com.unifae.med.entity.Usuario;
 import com.unifae.med.entity.Questionario;
+import com.unifae.med.rest.dto.AvaliacaoPreenchidaDTO;
+import com.unifae.med.rest.dto.AvaliacaoResumoDTO;
+import com.unifae.med.rest.dto.EvolucaoAlunoDTO;
+import com.unifae.med.rest.dto.RelatorioFeedback360DTO;
+import com.unifae.med.util.CacheLimitado;
+import com.unifae.med.util.SerieTemporal;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Clob;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 public class AvaliacaoPreenchidaDAO extends GenericDAO<AvaliacaoPreenchida, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new AvaliacaoPreenchidaDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + AvaliacaoPreenchidaDTO.class.getName()
+            + "(e.idAvaliacaoPreenchida, e.questionario.idQuestionario, "
+            + "e.alunoAvaliado.idUsuario, e.avaliador.idUsuario, e.tipoAvaliadorNaoUsuario, "
+            + "e.nomeAvaliadorNaoUsuario, e.dataRealizacao, e.horarioInicio, e.horarioFim, "
+            + "e.localRealizacao, e.feedbackPositivo, e.feedbackMelhoria, "
+            + "e.contratoAprendizagem)";
+
+    /**
+     * Projeção das linhas da listagem (SELECT new AvaliacaoResumoDTO) com os
+     * nomes exibidos e a quantidade de respostas; cada consulta completa o WHERE.
+     */
+    private static final String RESUMO_SELECT = "SELECT new " + AvaliacaoResumoDTO.class.getName()
+            + "(a.idAvaliacaoPreenchida, q.nomeModelo, al.nomeCompleto, av.nomeCompleto, "
+            + "a.nomeAvaliadorNaoUsuario, a.tipoAvaliadorNaoUsuario, a.dataRealizacao, "
+            + "(SELECT COUNT(r) FROM RespostaItemAvaliacao r WHERE r.avaliacaoPreenchida = a)) "
+            + "FROM AvaliacaoPreenchida a "
+            + "LEFT JOIN a.questionario q "
+            + "LEFT JOIN a.alunoAvaliado al "
+            + "LEFT JOIN a.avaliador av ";
+
+    /**
+     * Avaliações do aluno ainda em rascunho. status_avaliacao não é mapeado
+     * na entidade, por isso os IDs vêm de SQL nativo (índice
+     * idx_avaliacoes_aluno_data).
+     */
+    private static final String PENDENTES_DO_ALUNO_SQL = "SELECT a.id_avaliacao_preenchida "
+            + "FROM avaliacoes_preenchidas a "
+            + "WHERE a.id_aluno_avaliado = ?1 AND a.status_avaliacao = 'RASCUNHO' "
+            + "ORDER BY a.data_realizacao DESC, a.id_avaliacao_preenchida DESC";
+
+    /**
+     * Tipos de questionário (questionarios.tipo_avaliacao, não mapeado na
+     * entidade) que compõem a avaliação 360°, na ordem do relatório. A fonte
+     * exibida é o nome sem o prefixo (PROFESSOR, PARES, EQUIPE, PACIENTE).
+     */
+    private static final List<String> QUESTIONARIOS_360 = List.of("AVALIACAO_360_PROFESSOR",
+            "AVALIACAO_360_PARES", "AVALIACAO_360_EQUIPE", "AVALIACAO_360_PACIENTE");
+
+    private static final String PREFIXO_360 = "AVALIACAO_360_";
+
+    /**
+     * Avaliações 360° do aluno (não canceladas); cada consulta do relatório
+     * completa com o período e as colunas.
+     */
+    private static final String FILTRO_360 = "FROM avaliacoes_preenchidas a "
+            + "JOIN questionarios q ON q.id_questionario = a.id_questionario ";
+
+    private static final String CONDICAO_360 = "WHERE a.id_aluno_avaliado = ?1 "
+            + "AND a.status_avaliacao <> 'CANCELADA' "
+            + "AND q.tipo_avaliacao IN ('" + String.join("', '", QUESTIONARIOS_360) + "')";
+
+    /**
+     * Área de VersoesDados com a versão das avaliações de cada aluno,
+     * incrementada por invalidarCachesDoAluno().
+     */
+    private static final String VERSAO_ALUNO = "avaliacoes_aluno";
+
+    /**
+     * Relatórios 360° já montados, por (aluno, período). Invalidados pelas
+     * gravações de avaliações e respostas do aluno (ver
+     * invalidarCachesDoAluno()) e, quando a gravação foi feita em outro
+     * servidor, pela versão do aluno em versoes_dados.
+     */
+    private static final CacheLimitado<ChaveRelatorio, RelatorioFeedback360DTO> RELATORIOS_360 =
+            new CacheLimitado<>("relatorios360", "FEEDBACK_REPORT_CACHE_SIZE", 500);
+
+    /**
+     * Questionários com séries de evolução do aluno: Mini-CEX e os da 360°,
+     * nesta ordem.
+     */
+    private static final List<String> QUESTIONARIOS_EVOLUCAO = List.of("MINI_CEX", "AVALIACAO_360_PROFESSOR",
+            "AVALIACAO_360_PARES", "AVALIACAO_360_EQUIPE", "AVALIACAO_360_PACIENTE");
+
+    /**
+     * Notas do aluno agregadas por competência e dia, base de todas as
+     * séries de evolução (qualquer agrupamento e período). Invalidadas junto
+     * com os relatórios 360° e, como eles, conferidas com a versão do aluno
+     * em versoes_dados.
+     */
+    private static final CacheLimitado<Integer, List<NotasDoDia>> EVOLUCOES =
+            new CacheLimitado<>("evolucaoAlunos", "PROGRESSION_CACHE_SIZE", 500);
+
     public AvaliacaoPreenchidaDAO() {
         super(AvaliacaoPreenchida.class);
     }
 
+    // ========================================
+    // GRAVAÇÃO (COM INVALIDAÇÃO DOS CACHES)
+    // ========================================
+
+    /**
+     * Igual ao GenericDAO.save(), invalidando os caches (relatórios 360° e
+     * evolução) do aluno avaliado (e do anterior, se a avaliação mudou de
+     * aluno).
+     */
+    @Override
+    public AvaliacaoPreenchida save(AvaliacaoPreenchida avaliacao) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            AvaliacaoPreenchida salva = gravar(em, avaliacao);
+            commitTransaction(em, ownTransaction);
+            return salva;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar avaliação: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<AvaliacaoPreenchida> saveAll(Collection<? extends AvaliacaoPreenchida> avaliacoes) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            List<AvaliacaoPreenchida> salvas = new ArrayList<>(avaliacoes.size());
+            for (AvaliacaoPreenchida avaliacao : avaliacoes) {
+                salvas.add(gravar(em, avaliacao));
+                if (salvas.size() % BATCH_SIZE == 0) {
+                    em.flush();
+                }
+            }
+            commitTransaction(em, ownTransaction);
+            return salvas;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar avaliações: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Igual ao GenericDAO.delete() (deleteById() também passa por aqui); as
+     * respostas saem em cascata e os caches do aluno são invalidados.
+     */
+    @Override
+    public void delete(AvaliacaoPreenchida avaliacao) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            Integer idAluno = idAlunoGravado(em, avaliacao.getIdAvaliacaoPreenchida());
+            em.remove(em.merge(avaliacao));
+            invalidarCachesDoAluno(em, idAluno);
+            commitTransaction(em, ownTransaction);
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao deletar avaliação: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private AvaliacaoPreenchida gravar(EntityManager em, AvaliacaoPreenchida avaliacao) {
+        Integer alunoAnterior = idAlunoGravado(em, avaliacao.getIdAvaliacaoPreenchida());
+        AvaliacaoPreenchida salva = em.merge(avaliacao);
+        invalidarCachesDoAluno(em, alunoAnterior,
+                salva.getAlunoAvaliado() != null ? salva.getAlunoAvaliado().getIdUsuario() : null);
+        return salva;
+    }
+
+    /**
+     * Aluno avaliado gravado no banco, ignorando alterações ainda não
+     * enviadas (a entidade pode já estar alterada em memória).
+     *
+     * @return ID do aluno, ou null se a avaliação é nova ou não existe
+     */
+    static Integer idAlunoGravado(EntityManager em, Integer idAvaliacao) {
+        if (idAvaliacao == null) {
+            return null;
+        }
+        List<Integer> alunos = em.createNamedQuery("AvaliacaoPreenchida.findIdAluno", Integer.class)
+                .setParameter("id", idAvaliacao)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        return alunos.isEmpty() ? null : alunos.get(0);
+    }
+
+    /**
+     * Aluno de uma avaliação recebida por parâmetro: o da associação, se
+     * carregada, senão o gravado no banco.
+     */
+    static Integer idAlunoAvaliado(EntityManager em, AvaliacaoPreenchida avaliacao) {
+        if (avaliacao.getAlunoAvaliado() != null && avaliacao.getAlunoAvaliado().getIdUsuario() != null) {
+            return avaliacao.getAlunoAvaliado().getIdUsuario();
+        }
+        return idAlunoGravado(em, avaliacao.getIdAvaliacaoPreenchida());
+    }
+
+    /**
+     * Remove do cache os relatórios 360° e as séries de evolução dos alunos,
+     * agora e ao fim da transação de em, e incrementa a versão dos alunos na
+     * mesma transação (para os caches dos outros servidores). Chamado por
+     * toda gravação de avaliação ou resposta.
+     *
+     * @param em EntityManager da gravação
+     * @param idsAluno Alunos afetados (nulos são ignorados)
+     */
+    static void invalidarCachesDoAluno(EntityManager em, Integer... idsAluno) {
+        SortedSet<Integer> alunos = new TreeSet<>();
+        for (Integer idAluno : idsAluno) {
+            if (idAluno != null) {
+                alunos.add(idAluno);
+            }
+        }
+        if (!alunos.isEmpty()) {
+            RELATORIOS_360.invalidarAposCommit(em, chave -> alunos.contains(chave.idAluno));
+            EVOLUCOES.invalidarAposCommit(em, alunos::contains);
+            VersoesDados.incrementar(em, VERSAO_ALUNO, alunos);
+        }
+    }
+
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("dataRealizacao");
+    }
+
+    /**
+     * Página de avaliações já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<AvaliacaoPreenchidaDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, AvaliacaoPreenchidaDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca o DTO pelo ID sem carregar a entidade.
+     *
+     * @param id ID do registro.
+     * @return Optional com o DTO, vazio se não existir.
+     */
+    public Optional<AvaliacaoPreenchidaDTO> findDTOById(Integer id) {
+        return findProjectionById(id, AvaliacaoPreenchidaDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Sobrescreve findAll() para usar eager loading e evitar
      * LazyInitializationException
@@ -23,18 +287,12 @@ public class AvaliacaoPreenchidaDAO extends GenericDAO<AvaliacaoPreenchida, Inte
     public List<AvaliacaoPreenchida> findAll() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "LEFT JOIN FETCH a.respostasItens "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findAllComAssociacoes", AvaliacaoPreenchida.class);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar todas as avaliações: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -45,150 +303,534 @@ public class AvaliacaoPreenchidaDAO extends GenericDAO<AvaliacaoPreenchida, Inte
     public Optional<AvaliacaoPreenchida> findById(Integer id) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "LEFT JOIN FETCH a.respostasItens "
-                    + "WHERE a.idAvaliacaoPreenchida = :id";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByIdComAssociacoes", AvaliacaoPreenchida.class);
             query.setParameter("id", id);
             List<AvaliacaoPreenchida> results = query.getResultList();
             return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliação por ID: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByAlunoAvaliado(Usuario alunoAvaliado) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.alunoAvaliado = :alunoAvaliado "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByAlunoAvaliado", AvaliacaoPreenchida.class);
             query.setParameter("alunoAvaliado", alunoAvaliado);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por aluno avaliado: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByAvaliador(Usuario avaliador) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.avaliador = :avaliador "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByAvaliador", AvaliacaoPreenchida.class);
             query.setParameter("avaliador", avaliador);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por avaliador: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByQuestionario(Questionario questionario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.questionario = :questionario "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByQuestionario", AvaliacaoPreenchida.class);
             query.setParameter("questionario", questionario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por questionário: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByDataRealizacao(LocalDate dataInicio, LocalDate dataFim) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.dataRealizacao BETWEEN :dataInicio AND :dataFim "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByDataRealizacao", AvaliacaoPreenchida.class);
             query.setParameter("dataInicio", dataInicio);
             query.setParameter("dataFim", dataFim);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por período: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByAlunoAvaliadoAndQuestionario(Usuario alunoAvaliado, Questionario questionario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.alunoAvaliado = :alunoAvaliado AND a.questionario = :questionario "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByAlunoAvaliadoAndQuestionario", AvaliacaoPreenchida.class);
             query.setParameter("alunoAvaliado", alunoAvaliado);
             query.setParameter("questionario", questionario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por aluno e questionário: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<AvaliacaoPreenchida> findByTipoAvaliadorNaoUsuario(String tipoAvaliadorNaoUsuario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
-                    + "LEFT JOIN FETCH a.questionario "
-                    + "LEFT JOIN FETCH a.alunoAvaliado "
-                    + "LEFT JOIN FETCH a.avaliador "
-                    + "WHERE a.tipoAvaliadorNaoUsuario = :tipoAvaliadorNaoUsuario "
-                    + "ORDER BY a.idAvaliacaoPreenchida DESC";
-            TypedQuery<AvaliacaoPreenchida> query = em.createQuery(jpql, AvaliacaoPreenchida.class);
+            TypedQuery<AvaliacaoPreenchida> query = em.createNamedQuery("AvaliacaoPreenchida.findByTipoAvaliadorNaoUsuario", AvaliacaoPreenchida.class);
             query.setParameter("tipoAvaliadorNaoUsuario", tipoAvaliadorNaoUsuario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar avaliações por tipo de avaliador não usuário: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public long countByAlunoAvaliado(Usuario alunoAvaliado) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(a) FROM AvaliacaoPreenchida a WHERE a.alunoAvaliado = :alunoAvaliado";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("AvaliacaoPreenchida.countByAlunoAvaliado", Long.class);
             query.setParameter("alunoAvaliado", alunoAvaliado);
             return query.getSingleResult();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao contar avaliações por aluno: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Linhas da listagem de avaliações (/avaliacoes), projetadas direto em
+     * AvaliacaoResumoDTO: só os nomes exibidos na tabela e a quantidade de
+     * respostas, sem carregar avaliações, usuários, questionários e respostas.
+     * Filtros nulos são ignorados.
+     *
+     * @param alunoId Filtro opcional pelo ID do aluno avaliado.
+     * @param questionarioId Filtro opcional pelo ID do questionário.
+     * @param avaliadorId Filtro opcional pelo ID do avaliador.
+     * @return Avaliações da mais recente para a mais antiga.
+     */
+    public List<AvaliacaoResumoDTO> findResumos(Integer alunoId, Integer questionarioId, Integer avaliadorId) {
+        EntityManager em = getEntityManager();
+        try {
+            StringBuilder jpql = new StringBuilder(RESUMO_SELECT).append("WHERE ");
+            // Compara as chaves estrangeiras da própria tabela (índices idx_avaliacao_*), sem JOIN
+            QueryFilter filter = new QueryFilter()
+                    .equal("alunoAvaliado.idUsuario", alunoId)
+                    .equal("questionario.idQuestionario", questionarioId)
+                    .equal("avaliador.idUsuario", avaliadorId);
+            jpql.append(filter.toJpql("a")).append(" ORDER BY a.idAvaliacaoPreenchida DESC");
+
+            TypedQuery<AvaliacaoResumoDTO> query = filter.applyTo(em.createQuery(jpql.toString(), AvaliacaoResumoDTO.class));
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar resumo das avaliações: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Avaliações pendentes (em rascunho) do aluno, como linhas da listagem.
+     * Os IDs são lidos por SQL nativo e as linhas pela mesma projeção de
+     * findResumos().
+     *
+     * @param alunoId ID do aluno avaliado.
+     * @param limite Quantidade máxima de avaliações.
+     * @return Avaliações da mais recente para a mais antiga.
+     */
+    public List<AvaliacaoResumoDTO> findPendentesByAluno(Integer alunoId, int limite) {
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (Object id : em.createNativeQuery(PENDENTES_DO_ALUNO_SQL)
+                    .setParameter(1, alunoId)
+                    .setMaxResults(limite)
+                    .getResultList()) {
+                ids.add(((Number) id).intValue());
+            }
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            return em.createQuery(RESUMO_SELECT + "WHERE a.idAvaliacaoPreenchida IN :ids "
+                    + "ORDER BY a.dataRealizacao DESC, a.idAvaliacaoPreenchida DESC", AvaliacaoResumoDTO.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar avaliações pendentes do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    // ========================================
+    // RELATÓRIO 360°
+    // ========================================
+
+    /**
+     * RELATÓRIO 360° DO ALUNO
+     * =======================
+     * Médias por fonte e competência, taxas de "não avaliado" e os textos
+     * das avaliações 360° do aluno no período. Montado com três consultas
+     * agregadas na primeira chamada e servido do cache nas seguintes, até
+     * uma avaliação ou resposta do aluno ser gravada ou excluída (neste ou
+     * em outro servidor: cada chamada confere a versão do aluno em
+     * versoes_dados). As consultas vão sempre ao primário, mesmo em
+     * requisições GET: montado da réplica logo após a invalidação, o
+     * relatório antigo voltaria ao cache.
+     *
+     * @param idAluno ID do aluno avaliado
+     * @param de Data inicial (inclusiva), ou null
+     * @param ate Data final (inclusiva), ou null
+     * @return Relatório (sem fontes se o aluno não tem avaliações 360°)
+     */
+    public RelatorioFeedback360DTO gerarRelatorio360(Integer idAluno, LocalDate de, LocalDate ate) {
+        return RELATORIOS_360.obter(new ChaveRelatorio(idAluno, de, ate), versaoDoAluno(idAluno),
+                () -> montarRelatorio360(idAluno, de, ate));
+    }
+
+    /**
+     * Versão das avaliações do aluno, lida no primário antes de consultar o
+     * cache (ver VersoesDados).
+     */
+    private long versaoDoAluno(Integer idAluno) {
+        EntityManager em = getPrimaryReadEntityManager();
+        try {
+            return VersoesDados.ler(em, VERSAO_ALUNO, idAluno);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler a versão das avaliações do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * @return Estatísticas dos caches de relatórios 360° e de evolução dos
+     *         alunos (ver CacheLimitado)
+     */
+    public static List<Map<String, Object>> getEstatisticasCaches() {
+        return List.of(RELATORIOS_360.getEstatisticas(), EVOLUCOES.getEstatisticas());
+    }
+
+    private RelatorioFeedback360DTO montarRelatorio360(Integer idAluno, LocalDate de, LocalDate ate) {
+        // No primário: o relatório vai para o cache (ver getPrimaryReadEntityManager())
+        EntityManager em = getPrimaryReadEntityManager();
+        try {
+            String periodo = (de != null ? " AND a.data_realizacao >= ?2" : "")
+                    + (ate != null ? " AND a.data_realizacao <= ?3" : "");
+
+            // Textos livres por avaliação
+            Map<Integer, List<String>> comentarios = new HashMap<>();
+            for (Object[] linha : linhas(em, "SELECT r.id_avaliacao_preenchida, c.nome_competencia, r.resposta_texto "
+                    + "FROM respostas_itens_avaliacao r "
+                    + "JOIN avaliacoes_preenchidas a ON a.id_avaliacao_preenchida = r.id_avaliacao_preenchida "
+                    + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+                    + "JOIN competencias_questionario c ON c.id_competencia_questionario = r.id_competencia_questionario "
+                    + CONDICAO_360 + periodo + " AND r.resposta_texto IS NOT NULL "
+                    + "ORDER BY r.id_avaliacao_preenchida, c.ordem_exibicao", idAluno, de, ate)) {
+                String texto = texto(linha[2]);
+                if (texto != null) {
+                    comentarios.computeIfAbsent(((Number) linha[0]).intValue(), id -> new ArrayList<>())
+                            .add(linha[1] + ": " + texto);
+                }
+            }
+
+            // Avaliações (mais recentes primeiro) e quantidade por fonte
+            List<RelatorioFeedback360DTO.Feedback> feedbacks = new ArrayList<>();
+            Map<String, Integer> avaliacoesPorFonte = new HashMap<>();
+            for (Object[] linha : linhas(em, "SELECT a.id_avaliacao_preenchida, a.data_realizacao, q.tipo_avaliacao, "
+                    + "COALESCE(u.nome_completo, a.nome_avaliador_nao_usuario), a.feedback_positivo, "
+                    + "a.feedback_melhoria, a.contrato_aprendizagem " + FILTRO_360
+                    + "LEFT JOIN usuarios u ON u.id_usuario = a.id_avaliador "
+                    + CONDICAO_360 + periodo
+                    + " ORDER BY a.data_realizacao DESC, a.id_avaliacao_preenchida DESC", idAluno, de, ate)) {
+                Integer idAvaliacao = ((Number) linha[0]).intValue();
+                String fonte = fonte(linha[2]);
+                avaliacoesPorFonte.merge(fonte, 1, Integer::sum);
+                feedbacks.add(new RelatorioFeedback360DTO.Feedback(idAvaliacao, data(linha[1]), fonte,
+                        texto(linha[3]), texto(linha[4]), texto(linha[5]), texto(linha[6]),
+                        comentarios.getOrDefault(idAvaliacao, List.of())));
+            }
+
+            // Notas por fonte e competência, somadas no banco
+            Map<String, List<RelatorioFeedback360DTO.Competencia>> competencias = new LinkedHashMap<>();
+            Map<String, BigDecimal[]> totais = new HashMap<>();
+            for (Object[] linha : linhas(em, "SELECT q.tipo_avaliacao, c.id_competencia_questionario, c.nome_competencia, "
+                    + "SUM(CASE WHEN r.nao_avaliado = FALSE AND r.resposta_valor_numerico IS NOT NULL THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN r.nao_avaliado = FALSE THEN r.resposta_valor_numerico END), "
+                    + "SUM(CASE WHEN r.nao_avaliado = TRUE THEN 1 ELSE 0 END) "
+                    + "FROM respostas_itens_avaliacao r "
+                    + "JOIN avaliacoes_preenchidas a ON a.id_avaliacao_preenchida = r.id_avaliacao_preenchida "
+                    + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+                    + "JOIN competencias_questionario c ON c.id_competencia_questionario = r.id_competencia_questionario "
+                    + CONDICAO_360 + periodo
+                    + " GROUP BY q.tipo_avaliacao, c.id_competencia_questionario, c.nome_competencia, c.ordem_exibicao "
+                    + "ORDER BY c.ordem_exibicao, c.id_competencia_questionario", idAluno, de, ate)) {
+                long notas = ((Number) linha[3]).longValue();
+                long naoAvaliados = ((Number) linha[5]).longValue();
+                if (notas == 0 && naoAvaliados == 0) {
+                    continue; // Itens só de texto livre: aparecem nos comentários
+                }
+                String fonte = fonte(linha[0]);
+                BigDecimal soma = linha[4] == null ? BigDecimal.ZERO : new BigDecimal(linha[4].toString());
+                competencias.computeIfAbsent(fonte, f -> new ArrayList<>())
+                        .add(new RelatorioFeedback360DTO.Competencia(((Number) linha[1]).intValue(), (String) linha[2],
+                                media(soma, notas), notas, naoAvaliados, percentual(naoAvaliados, notas + naoAvaliados)));
+                BigDecimal[] total = totais.computeIfAbsent(fonte,
+                        f -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+                total[0] = total[0].add(soma);
+                total[1] = total[1].add(BigDecimal.valueOf(notas));
+                total[2] = total[2].add(BigDecimal.valueOf(naoAvaliados));
+            }
+
+            List<RelatorioFeedback360DTO.Fonte> fontes = new ArrayList<>();
+            for (String questionario : QUESTIONARIOS_360) {
+                String fonte = fonte(questionario);
+                Integer avaliacoes = avaliacoesPorFonte.get(fonte);
+                if (avaliacoes == null) {
+                    continue;
+                }
+                BigDecimal[] total = totais.getOrDefault(fonte,
+                        new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+                long notas = total[1].longValue();
+                long naoAvaliados = total[2].longValue();
+                fontes.add(new RelatorioFeedback360DTO.Fonte(fonte, avaliacoes, media(total[0], notas), notas,
+                        naoAvaliados, percentual(naoAvaliados, notas + naoAvaliados),
+                        competencias.getOrDefault(fonte, List.of())));
+            }
+            return new RelatorioFeedback360DTO(idAluno, de, ate, LocalDateTime.now(), feedbacks.size(), fontes,
+                    feedbacks);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao gerar relatório 360° do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    // ========================================
+    // EVOLUÇÃO DO ALUNO
+    // ========================================
+
+    /**
+     * EVOLUÇÃO DO ALUNO POR COMPETÊNCIA
+     * =================================
+     * Uma série por competência do Mini-CEX e da 360° com quantidade, média,
+     * mínima, máxima e média acumulada das notas em cada período (semana,
+     * mês ou semestre), reduzida a no máximo pontosMaximos pontos.
+     *
+     * As notas do aluno são lidas uma vez, já somadas por competência e dia
+     * (uma consulta pelo índice idx_avaliacoes_aluno_data, sempre no
+     * primário), e ficam em cache até uma avaliação ou resposta do aluno ser
+     * gravada ou excluída, neste ou em outro servidor (a versão do aluno é
+     * conferida a cada chamada). Trocar
+     * o agrupamento, o período ou os questionários só reagrupa esses totais
+     * em memória.
+     *
+     * @param idAluno ID do aluno avaliado
+     * @param periodo Agrupamento dos pontos
+     * @param pontosMaximos Pontos por série (ver SerieTemporal.reduzir())
+     * @param tipos Tipos de questionário (ex: MINI_CEX), ou vazio para todos
+     * @param de Data inicial (inclusiva), ou null
+     * @param ate Data final (inclusiva), ou null
+     * @return Séries na ordem dos questionários e das competências (vazia se
+     *         o aluno não tem notas no período)
+     */
+    public EvolucaoAlunoDTO gerarEvolucao(Integer idAluno, SerieTemporal.Periodo periodo, int pontosMaximos,
+            Collection<String> tipos, LocalDate de, LocalDate ate) {
+        Map<Integer, List<NotasDoDia>> porCompetencia = new LinkedHashMap<>();
+        for (NotasDoDia dia : EVOLUCOES.obter(idAluno, versaoDoAluno(idAluno), () -> carregarNotasDoDia(idAluno))) {
+            if ((tipos.isEmpty() || tipos.contains(dia.tipoQuestionario))
+                    && (de == null || !dia.data.isBefore(de)) && (ate == null || !dia.data.isAfter(ate))) {
+                porCompetencia.computeIfAbsent(dia.idCompetencia, id -> new ArrayList<>()).add(dia);
+            }
+        }
+
+        List<EvolucaoAlunoDTO.Serie> series = new ArrayList<>(porCompetencia.size());
+        for (List<NotasDoDia> dias : porCompetencia.values()) {
+            // Dias em ordem de data: cada período é uma sequência de dias com o mesmo início
+            List<EvolucaoAlunoDTO.Ponto> pontos = new ArrayList<>();
+            long quantidadeTotal = 0;
+            BigDecimal somaTotal = BigDecimal.ZERO;
+            int i = 0;
+            while (i < dias.size()) {
+                LocalDate inicio = periodo.inicio(dias.get(i).data);
+                long quantidade = 0;
+                BigDecimal soma = BigDecimal.ZERO;
+                BigDecimal minimo = null;
+                BigDecimal maximo = null;
+                for (; i < dias.size() && periodo.inicio(dias.get(i).data).equals(inicio); i++) {
+                    NotasDoDia dia = dias.get(i);
+                    quantidade += dia.quantidade;
+                    soma = soma.add(dia.soma);
+                    minimo = minimo == null || dia.minimo.compareTo(minimo) < 0 ? dia.minimo : minimo;
+                    maximo = maximo == null || dia.maximo.compareTo(maximo) > 0 ? dia.maximo : maximo;
+                }
+                quantidadeTotal += quantidade;
+                somaTotal = somaTotal.add(soma);
+                pontos.add(new EvolucaoAlunoDTO.Ponto(inicio, quantidade, media(soma, quantidade), minimo, maximo,
+                        media(somaTotal, quantidadeTotal)));
+            }
+
+            double[] x = new double[pontos.size()];
+            double[] y = new double[pontos.size()];
+            for (int p = 0; p < pontos.size(); p++) {
+                x[p] = pontos.get(p).getInicio().toEpochDay();
+                y[p] = pontos.get(p).getMedia().doubleValue();
+            }
+            List<EvolucaoAlunoDTO.Ponto> mantidos = new ArrayList<>();
+            for (int indice : SerieTemporal.reduzir(x, y, pontosMaximos)) {
+                mantidos.add(pontos.get(indice));
+            }
+            NotasDoDia primeiro = dias.get(0);
+            series.add(new EvolucaoAlunoDTO.Serie(primeiro.idCompetencia, primeiro.nomeCompetencia,
+                    primeiro.tipoQuestionario, pontos.size(), mantidos));
+        }
+        return new EvolucaoAlunoDTO(idAluno, periodo.name(), pontosMaximos, series);
+    }
+
+    /**
+     * @return Tipos de questionário aceitos por gerarEvolucao()
+     */
+    public static List<String> getQuestionariosEvolucao() {
+        return QUESTIONARIOS_EVOLUCAO;
+    }
+
+    private List<NotasDoDia> carregarNotasDoDia(Integer idAluno) {
+        // No primário: as notas vão para o cache (ver getPrimaryReadEntityManager())
+        EntityManager em = getPrimaryReadEntityManager();
+        try {
+            List<NotasDoDia> dias = new ArrayList<>();
+            for (Object[] linha : linhas(em, "SELECT q.tipo_avaliacao, r.id_competencia_questionario, c.nome_competencia, "
+                    + "a.data_realizacao, COUNT(*), SUM(r.resposta_valor_numerico), "
+                    + "MIN(r.resposta_valor_numerico), MAX(r.resposta_valor_numerico) "
+                    + "FROM respostas_itens_avaliacao r "
+                    + "JOIN avaliacoes_preenchidas a ON a.id_avaliacao_preenchida = r.id_avaliacao_preenchida "
+                    + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+                    + "JOIN competencias_questionario c ON c.id_competencia_questionario = r.id_competencia_questionario "
+                    + "WHERE a.id_aluno_avaliado = ?1 AND a.status_avaliacao <> 'CANCELADA' "
+                    + "AND q.tipo_avaliacao IN ('" + String.join("', '", QUESTIONARIOS_EVOLUCAO) + "') "
+                    + "AND r.nao_avaliado = FALSE AND r.resposta_valor_numerico IS NOT NULL "
+                    + "GROUP BY q.tipo_avaliacao, c.ordem_exibicao, r.id_competencia_questionario, c.nome_competencia, "
+                    + "a.data_realizacao "
+                    + "ORDER BY c.ordem_exibicao, r.id_competencia_questionario, a.data_realizacao", idAluno, null, null)) {
+                dias.add(new NotasDoDia((String) linha[0], ((Number) linha[1]).intValue(), (String) linha[2],
+                        data(linha[3]), ((Number) linha[4]).longValue(), new BigDecimal(linha[5].toString()),
+                        new BigDecimal(linha[6].toString()), new BigDecimal(linha[7].toString())));
+            }
+            // Questionários na ordem de QUESTIONARIOS_EVOLUCAO (a ordenação é estável)
+            dias.sort(Comparator.comparingInt(dia -> QUESTIONARIOS_EVOLUCAO.indexOf(dia.tipoQuestionario)));
+            return List.copyOf(dias);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao carregar evolução do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Executa uma consulta do relatório: ?1 é o aluno, ?2 e ?3 o período
+     * (só vinculados quando informados).
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> linhas(EntityManager em, String sql, Integer idAluno, LocalDate de, LocalDate ate) {
+        Query query = em.createNativeQuery(sql).setParameter(1, idAluno);
+        if (de != null) {
+            query.setParameter(2, de);
+        }
+        if (ate != null) {
+            query.setParameter(3, ate);
+        }
+        return query.getResultList();
+    }
+
+    private static String fonte(Object tipoQuestionario) {
+        return tipoQuestionario.toString().substring(PREFIXO_360.length());
+    }
+
+    private static BigDecimal media(BigDecimal soma, long quantidade) {
+        return quantidade == 0 ? null : soma.divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal percentual(long parte, long total) {
+        return total == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(100 * parte).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDate data(Object valor) {
+        return valor instanceof java.sql.Date data ? data.toLocalDate() : (LocalDate) valor;
+    }
+
+    /**
+     * Colunas TEXT podem vir como Clob conforme o driver; vazio vira null.
+     */
+    private static String texto(Object valor) throws java.sql.SQLException {
+        String texto = valor instanceof Clob clob ? clob.getSubString(1, (int) clob.length()) : (String) valor;
+        return texto == null || texto.isBlank() ? null : texto;
+    }
+
+    /**
+     * Notas numéricas de um aluno em uma competência em um dia: quantidade,
+     * soma, mínima e máxima. Imutável (compartilhada pelo cache).
+     */
+    private static final class NotasDoDia {
+
+        private final String tipoQuestionario;
+        private final Integer idCompetencia;
+        private final String nomeCompetencia;
+        private final LocalDate data;
+        private final long quantidade;
+        private final BigDecimal soma;
+        private final BigDecimal minimo;
+        private final BigDecimal maximo;
+
+        private NotasDoDia(String tipoQuestionario, Integer idCompetencia, String nomeCompetencia, LocalDate data,
+                long quantidade, BigDecimal soma, BigDecimal minimo, BigDecimal maximo) {
+            this.tipoQuestionario = tipoQuestionario;
+            this.idCompetencia = idCompetencia;
+            this.nomeCompetencia = nomeCompetencia;
+            this.data = data;
+            this.quantidade = quantidade;
+            this.soma = soma;
+            this.minimo = minimo;
+            this.maximo = maximo;
+        }
+    }
+
+    /**
+     * Chave do cache de relatórios: aluno e período.
+     */
+    private static final class ChaveRelatorio {
+
+        private final Integer idAluno;
+        private final LocalDate de;
+        private final LocalDate ate;
+
+        private ChaveRelatorio(Integer idAluno, LocalDate de, LocalDate ate) {
+            this.idAluno = idAluno;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChaveRelatorio)) {
+                return false;
+            }
+            ChaveRelatorio outra = (ChaveRelatorio) o;
+            return idAluno.equals(outra.idAluno) && Objects.equals(de, outra.de) && Objects.equals(ate, outra.ate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAluno, de, ate);
         }
     }
 }
@@ -0,0 +1,205 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.NotaAgregado;
+import com.unifae.med.entity.Turma;
+import com.unifae.med.rest.dto.BoletimTurmaDTO;
+import com.unifae.med.rest.dto.BoletimTurmaDTO.AlunoLinha;
+import com.unifae.med.rest.dto.BoletimTurmaDTO.DisciplinaResumo;
+import com.unifae.med.rest.dto.BoletimTurmaDTO.MediaDisciplina;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * BOLETIM TURMA ACUMULADOR - MONTAGEM DO BOLETIM EM UMA PASSADA
+ * =============================================================
+ *
+ * Recebe as notas ativas de uma turma (consulta Nota.boletimTurma), uma a
+ * uma, já ordenadas por aluno e disciplina, e calcula durante a leitura:
+ * - Média ponderada e situação de cada aluno em cada disciplina
+ * - Média simples e quantidade de notas de cada aluno
+ * - Alunos, aprovados e média simples de cada disciplina
+ *
+ * Como as notas de um mesmo aluno × disciplina chegam em sequência, só a
+ * célula atual fica aberta: ao mudar de disciplina ou de aluno ela é
+ * fechada e somada aos totais. Nenhuma nota é guardada; a memória é
+ * proporcional a alunos × disciplinas, não ao número de notas.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaDAO.gerarBoletimTurma(): Executa a consulta e alimenta este acumulador
+ * - BoletimTurmaDTO.java: Resultado montado por concluir()
+ * - NotaAgregado.java: Regra de aprovação (isAprovado())
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class BoletimTurmaAcumulador {
+
+    private final Turma turma;
+    private final BigDecimal mediaAprovacao;
+
+    private final Map<Integer, DisciplinaTotal> disciplinas = new HashMap<>();
+    private final List<AlunoParcial> alunos = new ArrayList<>();
+    private long quantidadeNotas;
+
+    private AlunoParcial alunoAtual;
+    private Celula celulaAtual;
+
+    BoletimTurmaAcumulador(Turma turma, BigDecimal mediaAprovacao) {
+        this.turma = turma;
+        this.mediaAprovacao = mediaAprovacao;
+    }
+
+    /**
+     * Soma uma nota. As notas devem chegar ordenadas por aluno e, dentro do
+     * aluno, por disciplina.
+     *
+     * @param linha idAluno, nomeAluno, matriculaRA, idDisciplina,
+     *        nomeDisciplina, codigoDisciplina, valorNota, pesoNota
+     */
+    void adicionar(Object[] linha) {
+        Integer idAluno = (Integer) linha[0];
+        Integer idDisciplina = (Integer) linha[3];
+        BigDecimal valor = (BigDecimal) linha[6];
+        BigDecimal peso = (BigDecimal) linha[7];
+
+        if (alunoAtual == null || !alunoAtual.idAluno.equals(idAluno)) {
+            fecharCelula();
+            alunoAtual = new AlunoParcial(idAluno, (String) linha[1], (String) linha[2]);
+            alunos.add(alunoAtual);
+        } else if (!celulaAtual.idDisciplina.equals(idDisciplina)) {
+            fecharCelula();
+        }
+        if (celulaAtual == null) {
+            celulaAtual = new Celula(idDisciplina);
+            disciplinas.computeIfAbsent(idDisciplina,
+                    id -> new DisciplinaTotal(id, (String) linha[4], (String) linha[5]));
+        }
+
+        celulaAtual.quantidade++;
+        if (peso != null) {
+            celulaAtual.somaPonderada = celulaAtual.somaPonderada.add(valor.multiply(peso));
+            celulaAtual.somaPesos = celulaAtual.somaPesos.add(peso);
+        }
+        alunoAtual.quantidade++;
+        alunoAtual.somaValores = alunoAtual.somaValores.add(valor);
+        DisciplinaTotal disciplina = disciplinas.get(idDisciplina);
+        disciplina.quantidadeNotas++;
+        disciplina.somaValores = disciplina.somaValores.add(valor);
+        quantidadeNotas++;
+    }
+
+    /**
+     * Fecha a última célula e monta o boletim, com as disciplinas em ordem
+     * de nome e as médias de cada aluno alinhadas a elas.
+     */
+    BoletimTurmaDTO concluir() {
+        fecharCelula();
+
+        List<DisciplinaTotal> colunas = new ArrayList<>(disciplinas.values());
+        colunas.sort(Comparator.comparing((DisciplinaTotal d) -> d.nomeDisciplina,
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(d -> d.idDisciplina));
+
+        List<DisciplinaResumo> resumos = new ArrayList<>(colunas.size());
+        for (DisciplinaTotal d : colunas) {
+            resumos.add(new DisciplinaResumo(d.idDisciplina, d.nomeDisciplina, d.codigoDisciplina,
+                    d.quantidadeAlunos, d.quantidadeAprovados, media(d.somaValores, d.quantidadeNotas)));
+        }
+
+        List<AlunoLinha> linhas = new ArrayList<>(alunos.size());
+        for (AlunoParcial a : alunos) {
+            List<MediaDisciplina> medias = new ArrayList<>(colunas.size());
+            for (DisciplinaTotal d : colunas) {
+                medias.add(a.medias.get(d.idDisciplina));
+            }
+            linhas.add(new AlunoLinha(a.idAluno, a.nomeAluno, a.matriculaRA, a.quantidade,
+                    media(a.somaValores, a.quantidade), a.aprovadas, medias));
+        }
+
+        return new BoletimTurmaDTO(turma.getIdTurma(), turma.getNomeTurma(), turma.getCodigoTurma(),
+                mediaAprovacao, quantidadeNotas, resumos, linhas);
+    }
+
+    private void fecharCelula() {
+        if (celulaAtual == null) {
+            return;
+        }
+        Celula c = celulaAtual;
+        celulaAtual = null;
+
+        // Média como NotaAgregado.getMediaPonderada() (sem pesos, zero) e a
+        // situação pela regra de NotaAgregado.isAprovado()
+        BigDecimal media = c.somaPesos.signum() != 0
+                ? c.somaPonderada.divide(c.somaPesos, 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        boolean aprovado = NotaAgregado.isAprovado(c.somaPonderada, c.somaPesos, mediaAprovacao);
+        alunoAtual.medias.put(c.idDisciplina, new MediaDisciplina(c.idDisciplina, media, c.quantidade, aprovado));
+
+        DisciplinaTotal disciplina = disciplinas.get(c.idDisciplina);
+        disciplina.quantidadeAlunos++;
+        if (aprovado) {
+            disciplina.quantidadeAprovados++;
+            alunoAtual.aprovadas++;
+        }
+    }
+
+    private static BigDecimal media(BigDecimal soma, long quantidade) {
+        if (quantidade == 0) {
+            return BigDecimal.ZERO;
+        }
+        return soma.divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_UP);
+    }
+
+    private static final class Celula {
+
+        private final Integer idDisciplina;
+        private int quantidade;
+        private BigDecimal somaPonderada = BigDecimal.ZERO;
+        private BigDecimal somaPesos = BigDecimal.ZERO;
+
+        private Celula(Integer idDisciplina) {
+            this.idDisciplina = Objects.requireNonNull(idDisciplina);
+        }
+    }
+
+    private static final class AlunoParcial {
+
+        private final Integer idAluno;
+        private final String nomeAluno;
+        private final String matriculaRA;
+        private final Map<Integer, MediaDisciplina> medias = new LinkedHashMap<>();
+        private int quantidade;
+        private int aprovadas;
+        private BigDecimal somaValores = BigDecimal.ZERO;
+
+        private AlunoParcial(Integer idAluno, String nomeAluno, String matriculaRA) {
+            this.idAluno = idAluno;
+            this.nomeAluno = nomeAluno;
+            this.matriculaRA = matriculaRA;
+        }
+    }
+
+    private static final class DisciplinaTotal {
+
+        private final Integer idDisciplina;
+        private final String nomeDisciplina;
+        private final String codigoDisciplina;
+        private int quantidadeAlunos;
+        private int quantidadeAprovados;
+        private long quantidadeNotas;
+        private BigDecimal somaValores = BigDecimal.ZERO;
+
+        private DisciplinaTotal(Integer idDisciplina, String nomeDisciplina, String codigoDisciplina) {
+            this.idDisciplina = idDisciplina;
+            this.nomeDisciplina = nomeDisciplina;
+            this.codigoDisciplina = codigoDisciplina;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.StatusEvento;
+import com.unifae.med.entity.TipoEvento;
+import com.unifae.med.rest.dto.EventoAgendaResumoDTO;
+import com.unifae.med.util.AsyncQueryExecutor;
+import com.unifae.med.util.CacheLimitado;
+import com.unifae.med.util.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * CALENDARIO MENSAL AGENDA - CACHE DOS MESES DO CALENDÁRIO
+ * ========================================================
+ *
+ * Guarda, por mês e filtros, os eventos do calendário da agenda já
+ * agrupados por dia (a página mais acessada da agenda, que muda pouco).
+ * Cada mês custava a consulta do mês inteiro, a expansão das séries e o
+ * agrupamento por dia a cada acesso.
+ *
+ * INVALIDAÇÃO POR MÊS:
+ * Um evento aparece nos meses entre o seu início e o fim da recorrência
+ * (data_fim_recorrencia, que já considera as ocorrências remarcadas); um
+ * evento simples, só no mês do início. Ao gravar, excluir ou mudar o status
+ * de um evento, ou alterar uma ocorrência, o EventoAgendaDAO remove apenas
+ * esses meses, como estavam gravados e como ficaram, com todos os filtros
+ * (um filtro pode deixar de valer para o evento). Os demais meses continuam
+ * no cache. A remoção é repetida ao fim da transação (ver CacheLimitado).
+ *
+ * VÁRIOS SERVIDORES:
+ * A remoção só alcança o cache do servidor que gravou. Por isso a mesma
+ * gravação incrementa, na sua transação, a versão desses meses em
+ * versoes_dados (área "agenda_mes", referência ano * 100 + mês, num único
+ * comando em ordem). Cada mês fica no cache com a versão lida antes de
+ * montá-lo e, a cada acesso, a versão do banco é conferida (uma consulta
+ * pela chave primária): alterado em outro servidor, o mês é montado de
+ * novo. Uma série que passa de LIMITE_MESES meses incrementa a versão
+ * geral (referência 0, somada à de cada mês) em vez de uma linha por mês.
+ *
+ * PRÉ-CARGA:
+ * Depois de obter um mês, o anterior e o seguinte (os links da página) são
+ * montados em segundo plano se ainda não estão no cache (um vizinho
+ * guardado e alterado em outro servidor é montado de novo no acesso)
+ * (AsyncQueryExecutor.submitBackground(): sem vaga no limite de consultas
+ * paralelas, a pré-carga é descartada).
+ *
+ * ORIGEM DOS DADOS:
+ * Os meses são montados sempre no primário, inclusive a pré-carga (que
+ * herda o roteamento da requisição GET): lido da réplica atrasada logo
+ * após a invalidação, o mês antigo ficaria no cache até a próxima gravação.
+ *
+ * LIMITAÇÃO:
+ * Os nomes de local, responsável, disciplina e turma dos resumos não são
+ * acompanhados (a página do calendário não os exibe); renomear um deles
+ * não invalida o cache. Alterações feitas fora do EventoAgendaDAO (SQL
+ * manual) aparecem quando a entrada sai do cache.
+ *
+ * CONFIGURAÇÃO:
+ * - AGENDA_CALENDAR_CACHE_SIZE (240): Meses (com filtros) no cache; 0
+ *   desliga o cache e a pré-carga
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgendaDAO.java: findCalendarioMes() e invalidação nas gravações
+ * - CacheLimitado.java: Cache LRU com invalidação após o commit
+ * - VersoesDados.java: Versão de cada mês (tabela versoes_dados)
+ * - AsyncQueryExecutor.java: Pré-carga em segundo plano
+ * - AgendaServlet.java: Página do calendário (showCalendar)
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class CalendarioMensalAgenda {
+
+    private static final String VERSAO_MES = "agenda_mes";
+
+    /**
+     * Referência da versão geral (todos os meses).
+     */
+    private static final int TODOS_OS_MESES = 0;
+
+    /**
+     * Séries mais longas incrementam a versão geral.
+     */
+    private static final int LIMITE_MESES = 60;
+
+    private static final CacheLimitado<Chave, Map<LocalDate, List<EventoAgendaResumoDTO>>> MESES =
+            new CacheLimitado<>("calendarioAgenda", "AGENDA_CALENDAR_CACHE_SIZE", 240);
+
+    /**
+     * Meses sendo pré-carregados (evita montar o mesmo mês duas vezes).
+     */
+    private static final Set<Chave> EM_PRE_CARGA = ConcurrentHashMap.newKeySet();
+
+    private CalendarioMensalAgenda() {
+    }
+
+    /**
+     * OBTER UM MÊS
+     * ============
+     * Devolve o mês do cache ou o monta e, em seguida, pré-carrega o mês
+     * anterior e o seguinte.
+     *
+     * @param chave Mês e filtros
+     * @param montar Monta os eventos por dia de um mês (consulta ao banco)
+     * @return Eventos por dia, em ordem de dia (imutável)
+     */
+    static Map<LocalDate, List<EventoAgendaResumoDTO>> obter(Chave chave,
+            Function<Chave, Map<LocalDate, List<EventoAgendaResumoDTO>>> montar) {
+        Map<LocalDate, List<EventoAgendaResumoDTO>> mes = MESES.obter(chave, versao(chave.mes),
+                () -> montar.apply(chave));
+        preCarregar(chave.vizinho(-1), montar);
+        preCarregar(chave.vizinho(1), montar);
+        return mes;
+    }
+
+    private static void preCarregar(Chave chave,
+            Function<Chave, Map<LocalDate, List<EventoAgendaResumoDTO>>> montar) {
+        if (MESES.getCapacidade() == 0 || MESES.contem(chave) || !EM_PRE_CARGA.add(chave)) {
+            return;
+        }
+        boolean iniciada = AsyncQueryExecutor.submitBackground(() -> {
+            try {
+                MESES.obter(chave, versao(chave.mes), () -> montar.apply(chave));
+            } finally {
+                EM_PRE_CARGA.remove(chave);
+            }
+        });
+        if (!iniciada) {
+            EM_PRE_CARGA.remove(chave);
+        }
+    }
+
+    /**
+     * Versão do mês no primário (a réplica pode estar atrasada). Sem cache
+     * (capacidade 0) não há o que conferir.
+     */
+    private static long versao(YearMonth mes) {
+        if (MESES.getCapacidade() == 0) {
+            return 0;
+        }
+        EntityManager em = JPAUtil.getPrimaryReadEntityManager();
+        try {
+            return VersoesDados.somar(em, VERSAO_MES, TODOS_OS_MESES, mes.getYear() * 100 + mes.getMonthValue());
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler a versão do mês do calendário: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Remove os meses em que o evento aparece como está gravado (antes da
+     * alteração), agora e ao fim da transação.
+     *
+     * @param em EntityManager da gravação
+     * @param idEvento ID do evento, ou null se é novo
+     * @return Versões desses meses, a incrementar com invalidar() ou
+     * versionar() depois que a gravação for enviada
+     */
+    static SortedSet<Integer> invalidarGravado(EntityManager em, Integer idEvento) {
+        SortedSet<Integer> versoes = new TreeSet<>();
+        if (idEvento == null) {
+            return versoes;
+        }
+        List<Object[]> linhas = em.createNamedQuery("EventoAgenda.periodoCalendario", Object[].class)
+                .setParameter("id", idEvento)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        if (!linhas.isEmpty()) {
+            invalidar(em, (LocalDateTime) linhas.get(0)[0], (LocalDateTime) linhas.get(0)[1], versoes);
+        }
+        return versoes;
+    }
+
+    /**
+     * Remove os meses em que o evento aparece como ficou, agora e ao fim da
+     * transação, e incrementa a versão desses meses e dos gravados.
+     *
+     * @param em EntityManager da gravação
+     * @param evento Evento gravado
+     * @param gravados Versões devolvidas por invalidarGravado()
+     */
+    static void invalidar(EntityManager em, EventoAgenda evento, SortedSet<Integer> gravados) {
+        SortedSet<Integer> versoes = new TreeSet<>(gravados);
+        invalidar(em, evento.getDataInicio(), evento.getFimRecorrencia(), versoes);
+        versionar(em, versoes);
+    }
+
+    /**
+     * Incrementa a versão dos meses na transação de em (um único comando,
+     * em ordem): os outros servidores montam esses meses de novo depois do
+     * commit.
+     *
+     * @param em EntityManager da gravação
+     * @param versoes Versões devolvidas por invalidarGravado()
+     */
+    static void versionar(EntityManager em, SortedSet<Integer> versoes) {
+        VersoesDados.incrementar(em, VERSAO_MES, versoes);
+    }
+
+    private static void invalidar(EntityManager em, LocalDateTime inicio, LocalDateTime fimRecorrencia,
+            SortedSet<Integer> versoes) {
+        if (inicio == null) {
+            return;
+        }
+        YearMonth de = YearMonth.from(inicio);
+        YearMonth ate = fimRecorrencia != null && fimRecorrencia.isAfter(inicio) ? YearMonth.from(fimRecorrencia) : de;
+        MESES.invalidarAposCommit(em, chave -> !chave.mes.isBefore(de) && !chave.mes.isAfter(ate));
+        if (de.plusMonths(LIMITE_MESES).isBefore(ate)) {
+            versoes.add(TODOS_OS_MESES);
+            return;
+        }
+        for (YearMonth mes = de; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            versoes.add(mes.getYear() * 100 + mes.getMonthValue());
+        }
+    }
+
+    /**
+     * @return Estatísticas do cache (ver CacheLimitado)
+     */
+    static Map<String, Object> getEstatisticas() {
+        return MESES.getEstatisticas();
+    }
+
+    // ========================================
+    // ESTRUTURAS
+    // ========================================
+
+    /**
+     * Mês e filtros opcionais (nulo: sem filtro) do calendário.
+     */
+    static final class Chave {
+
+        final YearMonth mes;
+        final TipoEvento tipoEvento;
+        final StatusEvento statusEvento;
+        final Integer responsavelId;
+        final Integer disciplinaId;
+        final Integer turmaId;
+
+        Chave(YearMonth mes, TipoEvento tipoEvento, StatusEvento statusEvento, Integer responsavelId,
+                Integer disciplinaId, Integer turmaId) {
+            this.mes = mes;
+            this.tipoEvento = tipoEvento;
+            this.statusEvento = statusEvento;
+            this.responsavelId = responsavelId;
+            this.disciplinaId = disciplinaId;
+            this.turmaId = turmaId;
+        }
+
+        private Chave vizinho(int meses) {
+            return new Chave(mes.plusMonths(meses), tipoEvento, statusEvento, responsavelId, disciplinaId, turmaId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return mes.equals(outra.mes) && tipoEvento == outra.tipoEvento && statusEvento == outra.statusEvento
+                    && Objects.equals(responsavelId, outra.responsavelId)
+                    && Objects.equals(disciplinaId, outra.disciplinaId) && Objects.equals(turmaId, outra.turmaId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mes, tipoEvento, statusEvento, responsavelId, disciplinaId, turmaId);
+        }
+    }
+}
@@ -21,6 +21,8 @@
  * - `findByQuestionario`: Busca todos os itens de um questionário específico.
  * - `findByQuestionarioAndFilters`: Método principal, usado pela camada de controle
  * (Servlet), para buscar itens de um questionário com um filtro de texto dinâmico.
+ * - `findDTOPageByQuestionario`: Mesma busca por questionário, paginada por cursor e
+ * projetada direto no DTO (API REST).
  * - `findByIdWithQuestionario`: Resolve o problema comum de `LazyInitializationException`
  * ao carregar a competência e seu questionário associado em uma única consulta
  * usando `JOIN FETCH`.
@@ -32,14 +34,17 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.CompetenciaQuestionario;
+import com.unifae.med.entity.Questionario;
+import com.unifae.med.rest.dto.CompetenciaQuestionarioDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.NoResultException;
 import java.util.Optional;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Classe DAO para a entidade CompetenciaQuestionario. Contém métodos para
@@ -48,6 +53,14 @@ import java.util.Map;
  */
 public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionario, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new CompetenciaQuestionarioDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + CompetenciaQuestionarioDTO.class.getName()
+            + "(e.idCompetenciaQuestionario, e.nomeCompetencia, e.tipoItem, e.descricaoPrompt, "
+            + "e.ordemExibicao, e.obrigatorio, e.ativo, e.questionario.idQuestionario)";
+
     /**
      * Construtor que passa a classe da entidade para o GenericDAO.
      */
@@ -56,27 +69,49 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
     }
 
     /**
-     * Busca competências específicas de um questionário
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomeCompetencia");
+    }
+
+    /**
+     * Página de competências já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<CompetenciaQuestionarioDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, CompetenciaQuestionarioDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca competências específicas de um questionário. Lê a coleção
+     * `Questionario.competencias`, que fica no cache de segundo nível: com o
+     * cache aquecido, nenhuma consulta é enviada ao banco.
      *
      * @param questionarioId ID do questionário
-     * @return Lista de competências do questionário específico
+     * @return Lista de competências do questionário específico (ordenada por ID)
      */
     public List<CompetenciaQuestionario> findByQuestionario(Integer questionarioId) {
         EntityManager em = getEntityManager();
         try {
-            // JPQL para selecionar competências (cq) onde o ID do questionário associado é igual ao parâmetro.
-            String jpql = "SELECT cq FROM CompetenciaQuestionario cq "
-                    + "WHERE cq.questionario.idQuestionario = :questionarioId "
-                    + "ORDER BY cq.idCompetenciaQuestionario";
-            TypedQuery<CompetenciaQuestionario> query = em.createQuery(jpql, CompetenciaQuestionario.class);
-            query.setParameter("questionarioId", questionarioId);
-            return query.getResultList();
+            Questionario questionario = em.find(Questionario.class, questionarioId);
+            if (questionario == null || questionario.getCompetencias() == null) {
+                return new ArrayList<>();
+            }
+            // Cópia: a coleção gerenciada não deve ser alterada por quem chama.
+            List<CompetenciaQuestionario> competencias = new ArrayList<>(questionario.getCompetencias());
+            competencias.sort(Comparator.comparing(CompetenciaQuestionario::getIdCompetenciaQuestionario));
+            return competencias;
         } catch (Exception e) {
             // Encapsula exceções de persistência em uma RuntimeException.
             throw new RuntimeException("Erro ao buscar competências por questionário: " + e.getMessage(), e);
         } finally {
-            // Garante que o EntityManager seja fechado, mesmo se ocorrer um erro.
-            em.close();
+            // Libera o EntityManager, mesmo se ocorrer um erro.
+            closeEntityManager(em);
         }
     }
 
@@ -92,35 +127,36 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
     public List<CompetenciaQuestionario> findByQuestionarioAndFilters(Integer questionarioId, String search) {
         EntityManager em = getEntityManager();
         try {
-            // Usa StringBuilder para construir a consulta dinamicamente.
-            // A consulta base sempre filtra pelo ID do questionário pai.
-            StringBuilder jpql = new StringBuilder("SELECT c FROM CompetenciaQuestionario c WHERE c.questionario.idQuestionario = :questionarioId");
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("questionarioId", questionarioId);
-
-            // Adiciona a condição de busca (search) se ela for fornecida e não estiver vazia.
-            if (search != null && !search.trim().isEmpty()) {
-                // Adiciona a cláusula AND para filtrar por nome ou descrição, usando LOWER para busca case-insensitive.
-                jpql.append(" AND (LOWER(c.nomeCompetencia) LIKE LOWER(:search) OR LOWER(c.descricaoPrompt) LIKE LOWER(:search))");
-                parameters.put("search", "%" + search + "%");
-            }
+            // A consulta sempre filtra pelo ID do questionário pai (idx_competencia_questionario);
+            // o trecho de busca em nome ou descrição é opcional.
+            QueryFilter filter = new QueryFilter()
+                    .equal("questionario.idQuestionario", questionarioId)
+                    .contains(search, "nomeCompetencia", "descricaoPrompt");
 
             // Ordena os resultados pela ordem de exibição e, em seguida, pelo nome para consistência.
-            jpql.append(" ORDER BY c.ordemExibicao, c.nomeCompetencia");
-
-            TypedQuery<CompetenciaQuestionario> query = em.createQuery(jpql.toString(), CompetenciaQuestionario.class);
-
-            // Define os parâmetros na query a partir do mapa.
-            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-                query.setParameter(entry.getKey(), entry.getValue());
-            }
+            TypedQuery<CompetenciaQuestionario> query = filter.applyTo(em.createQuery(
+                    "SELECT c FROM CompetenciaQuestionario c WHERE " + filter.toJpql("c")
+                    + " ORDER BY c.ordemExibicao, c.nomeCompetencia", CompetenciaQuestionario.class));
 
             return query.getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
+    /**
+     * Página de competências de um questionário, usando paginação por cursor
+     * (ver GenericDAO.findPage).
+     *
+     * @param questionarioId O ID do questionário pai.
+     * @param request Parâmetros da página.
+     * @return Página de competências (DTO) e cursor da próxima.
+     */
+    public KeysetPage<CompetenciaQuestionarioDTO> findDTOPageByQuestionario(Integer questionarioId, KeysetPageRequest request) {
+        return findPage(request, CompetenciaQuestionarioDTO.class, DTO_SELECTION,
+                new QueryFilter().equal("questionario.idQuestionario", questionarioId));
+    }
+
     /**
      * Busca todas as competências de um determinado tipo.
      *
@@ -130,14 +166,13 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
     public List<CompetenciaQuestionario> findByTipoItem(String tipoItem) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT c FROM CompetenciaQuestionario c WHERE c.tipoItem = :tipoItem ORDER BY c.nomeCompetencia";
-            TypedQuery<CompetenciaQuestionario> query = em.createQuery(jpql, CompetenciaQuestionario.class);
+            TypedQuery<CompetenciaQuestionario> query = em.createNamedQuery("CompetenciaQuestionario.findByTipoItem", CompetenciaQuestionario.class);
             query.setParameter("tipoItem", tipoItem);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar competências por tipo de item: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -150,14 +185,13 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
     public List<CompetenciaQuestionario> findByNomeCompetenciaContaining(String nome) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT c FROM CompetenciaQuestionario c WHERE LOWER(c.nomeCompetencia) LIKE LOWER(:nome) ORDER BY c.nomeCompetencia";
-            TypedQuery<CompetenciaQuestionario> query = em.createQuery(jpql, CompetenciaQuestionario.class);
+            TypedQuery<CompetenciaQuestionario> query = em.createNamedQuery("CompetenciaQuestionario.findByNomeCompetenciaContaining", CompetenciaQuestionario.class);
             query.setParameter("nome", "%" + nome + "%");
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar competências por nome: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -170,15 +204,14 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
     public boolean existsByNomeCompetencia(String nomeCompetencia) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(c) FROM CompetenciaQuestionario c WHERE c.nomeCompetencia = :nomeCompetencia";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("CompetenciaQuestionario.existsByNomeCompetencia", Long.class);
             query.setParameter("nomeCompetencia", nomeCompetencia);
             // Retorna true se a contagem for maior que 0.
             return query.getSingleResult() > 0;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao verificar existência de competência: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -195,8 +228,7 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
         EntityManager em = getEntityManager();
         try {
             // "JOIN FETCH c.questionario" força a inicialização da propriedade 'questionario'.
-            String jpql = "SELECT c FROM CompetenciaQuestionario c JOIN FETCH c.questionario WHERE c.idCompetenciaQuestionario = :id";
-            TypedQuery<CompetenciaQuestionario> query = em.createQuery(jpql, CompetenciaQuestionario.class);
+            TypedQuery<CompetenciaQuestionario> query = em.createNamedQuery("CompetenciaQuestionario.findByIdWithQuestionario", CompetenciaQuestionario.class);
             query.setParameter("id", id);
             // Usa Optional para encapsular o resultado, que pode existir ou não.
             return Optional.of(query.getSingleResult());
@@ -204,7 +236,7 @@ public class CompetenciaQuestionarioDAO extends GenericDAO<CompetenciaQuestionar
             // Se nenhum resultado for encontrado, retorna um Optional vazio.
             return Optional.empty();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
@@ -1,18 +1,47 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.Disciplina;
+import com.unifae.med.rest.dto.DisciplinaDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class DisciplinaDAO extends GenericDAO<Disciplina, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new DisciplinaDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + DisciplinaDTO.class.getName()
+            + "(e.idDisciplina, e.nomeDisciplina, e.codigoDisciplina, e.siglaDisciplina, "
+            + "e.ativa)";
+
     public DisciplinaDAO() {
         super(Disciplina.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomeDisciplina", "codigoDisciplina");
+    }
+
+    /**
+     * Página de disciplinas já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<DisciplinaDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, DisciplinaDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Busca uma disciplina pelo seu nome exato.
      *
@@ -22,14 +51,13 @@ public class DisciplinaDAO extends GenericDAO<Disciplina, Integer> {
     public Optional<Disciplina> findByNomeDisciplina(String nomeDisciplina) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT d FROM Disciplina d WHERE d.nomeDisciplina = :nomeDisciplina";
-            TypedQuery<Disciplina> query = em.createQuery(jpql, Disciplina.class);
+            TypedQuery<Disciplina> query = em.createNamedQuery("Disciplina.findByNomeDisciplina", Disciplina.class);
             query.setParameter("nomeDisciplina", nomeDisciplina);
             return Optional.of(query.getSingleResult());
         } catch (NoResultException e) {
             return Optional.empty();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -42,14 +70,13 @@ public class DisciplinaDAO extends GenericDAO<Disciplina, Integer> {
     public Optional<Disciplina> findBySiglaDisciplina(String sigla) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT d FROM Disciplina d WHERE d.siglaDisciplina = :sigla";
-            TypedQuery<Disciplina> query = em.createQuery(jpql, Disciplina.class);
+            TypedQuery<Disciplina> query = em.createNamedQuery("Disciplina.findBySiglaDisciplina", Disciplina.class);
             query.setParameter("sigla", sigla);
             return Optional.of(query.getSingleResult());
         } catch (NoResultException e) {
             return Optional.empty();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -61,11 +88,10 @@ public class DisciplinaDAO extends GenericDAO<Disciplina, Integer> {
     public List<Disciplina> findAtivas() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT d FROM Disciplina d WHERE d.ativa = true ORDER BY d.nomeDisciplina";
-            TypedQuery<Disciplina> query = em.createQuery(jpql, Disciplina.class);
+            TypedQuery<Disciplina> query = cacheable(em.createNamedQuery("Disciplina.findAtivas", Disciplina.class));
             return query.getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -73,9 +99,9 @@ public class DisciplinaDAO extends GenericDAO<Disciplina, Integer> {
     public List<Disciplina> findAll() {
         EntityManager em = getEntityManager();
         try {
-            return em.createQuery("SELECT d FROM Disciplina d ORDER BY d.nomeDisciplina", Disciplina.class).getResultList();
+            return cacheable(em.createNamedQuery("Disciplina.findAllOrderByNome", Disciplina.class)).getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
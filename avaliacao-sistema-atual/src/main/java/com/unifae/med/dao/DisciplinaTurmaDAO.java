@@ -21,16 +21,12 @@ public class DisciplinaTurmaDAO extends GenericDAO<DisciplinaTurma, Integer> {
     public List<DisciplinaTurma> findByTurmaId(Integer turmaId) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT dt FROM DisciplinaTurma dt "
-                    + "JOIN FETCH dt.disciplina d "
-                    + "LEFT JOIN FETCH dt.professor p "
-                    + "WHERE dt.turma.idTurma = :turmaId ORDER BY d.nomeDisciplina";
-
-            TypedQuery<DisciplinaTurma> query = em.createQuery(jpql, DisciplinaTurma.class);
+            
+            TypedQuery<DisciplinaTurma> query = em.createNamedQuery("DisciplinaTurma.findByTurmaId", DisciplinaTurma.class);
             query.setParameter("turmaId", turmaId);
             return query.getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
@@ -1,19 +1,39 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.EventoAgendaExcecao;
 import com.unifae.med.entity.TipoEvento;
 import com.unifae.med.entity.StatusEvento;
 import com.unifae.med.entity.Usuario;
 import com.unifae.med.entity.Disciplina;
 import com.unifae.med.entity.Turma;
 import com.unifae.med.entity.LocalEvento;
+import com.unifae.med.rest.dto.EventoAgendaDTO;
+import com.unifae.med.rest.dto.EventoAgendaResumoDTO;
+import com.unifae.med.rest.dto.PropostaAlocacaoDTO;
+import com.unifae.med.util.CalendarioICS;
+import com.unifae.med.util.JPAUtil;
+import com.unifae.med.util.RegraRecorrencia;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * EVENTO_AGENDA_DAO - DAO (Data Access Object) PARA EVENTOS DA AGENDA
@@ -27,9 +47,72 @@ import java.util.Optional;
  * --------------------------------------- É um padrão de projeto que separa a
  * lógica de negócio da lógica de persistência de dados. Isso torna o código
  * mais organizado, testável e fácil de manter.
+ *
+ * Conceito Chave: Eventos Recorrentes
+ * ----------------------------------- Um evento com regra de recorrência
+ * (ex: aula toda segunda até o fim do semestre) é gravado uma única vez; as
+ * ocorrências são geradas (OcorrenciasAgenda) apenas para o período
+ * consultado em findByPeriodo(), findResumosWithFilters() e
+ * findDTOsByPeriodo(). Ocorrências canceladas ou alteradas ficam em
+ * EventoAgendaExcecao (salvarOcorrencia(), cancelarOcorrencia()). As demais
+ * consultas devolvem a série como gravada (a primeira ocorrência).
+ *
+ * O calendário mensal (findCalendarioMes()) fica em cache por mês; cada
+ * gravação, exclusão ou alteração de ocorrência remove só os meses do
+ * evento e incrementa a versão deles, para os outros servidores (ver
+ * CalendarioMensalAgenda).
+ *
+ * Os feeds ".ics" (versaoFeed(), escreverFeed()) leem da réplica e escrevem
+ * os eventos direto na resposta, sem montar entidades (ver FeedAgenda).
+ *
+ * A alocação automática de locais (proporAlocacaoLocais(),
+ * aplicarAlocacaoLocais()) propõe um local para os eventos sem local de um
+ * período e aplica a proposta numa única transação (ver AlocacaoLocais).
  */
 public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new EventoAgendaDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + EventoAgendaDTO.class.getName()
+            + "(e.idEvento, e.titulo, e.descricao, e.dataInicio, e.dataFim, "
+            + "e.localEvento.idLocalEvento, e.disciplina.idDisciplina, e.turma.idTurma, "
+            + "e.responsavel.idUsuario, e.tipoEvento, e.statusEvento, e.regraRecorrencia)";
+
+    /**
+     * Séries (com as associações exibidas) para expandir em ocorrências;
+     * cada consulta completa o WHERE.
+     */
+    private static final String SERIES_SELECT = """
+            SELECT e FROM EventoAgenda e
+            LEFT JOIN FETCH e.localEvento
+            LEFT JOIN FETCH e.responsavel
+            LEFT JOIN FETCH e.disciplina
+            LEFT JOIN FETCH e.turma
+            WHERE e.regraRecorrencia IS NOT NULL AND\s""";
+
+    /**
+     * Projeção das linhas da listagem (SELECT new EventoAgendaResumoDTO) com
+     * os LEFT JOINs dos nomes exibidos; cada consulta completa o WHERE.
+     */
+    private static final String RESUMO_SELECT = "SELECT new " + EventoAgendaResumoDTO.class.getName() + """
+            (e.idEvento, e.titulo, e.descricao, e.dataInicio, e.dataFim, e.tipoEvento, e.statusEvento,
+             l.nomeLocal, r.nomeCompleto, d.nomeDisciplina, t.nomeTurma)
+            FROM EventoAgenda e
+            LEFT JOIN e.localEvento l
+            LEFT JOIN e.responsavel r
+            LEFT JOIN e.disciplina d
+            LEFT JOIN e.turma t
+            """;
+
+    /**
+     * Turmas em que o usuário está vinculado como estudante (usuarios_turmas
+     * não tem entidade mapeada).
+     */
+    private static final String TURMAS_DO_ALUNO_SQL = "SELECT ut.id_turma FROM usuarios_turmas ut "
+            + "WHERE ut.id_usuario = ?1 AND ut.papel = 'ESTUDANTE' AND ut.ativo = 1";
+
     /**
      * CONSTRUTOR ========== Inicializa o DAO informando à classe pai
      * (GenericDAO) que esta classe irá gerenciar a entidade `EventoAgenda`.
@@ -38,6 +121,306 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
         super(EventoAgenda.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("dataInicio");
+    }
+
+    // ========================================
+    // GRAVAÇÃO (COM RESERVA DO LOCAL)
+    // ========================================
+
+    /**
+     * SALVAR EVENTO ============= Igual ao GenericDAO.save(), reservando o
+     * local na mesma transação (ver IndiceConflitosAgenda): se o novo horário
+     * do local está ocupado por outro evento não cancelado, nada é gravado.
+     * Eventos sem local ou sem data de fim não são verificados. Numa série,
+     * todas as ocorrências são verificadas.
+     *
+     * @throws IllegalStateException se houver conflito de horário no local
+     * @throws IllegalArgumentException se a regra de recorrência é inválida
+     */
+    @Override
+    public EventoAgenda save(EventoAgenda evento) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            EventoAgenda salvo = gravar(em, evento);
+            commitTransaction(em, ownTransaction);
+            return salvo;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            rollbackTransaction(em, ownTransaction);
+            throw e;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar evento: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * SALVAR VÁRIOS EVENTOS ===================== Uma transação para todos os
+     * eventos: um conflito (inclusive entre eventos da própria lista) desfaz
+     * todos.
+     *
+     * @throws IllegalStateException se houver conflito de horário em um local
+     * @throws IllegalArgumentException se uma regra de recorrência é inválida
+     */
+    @Override
+    public List<EventoAgenda> saveAll(Collection<? extends EventoAgenda> eventos) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            List<EventoAgenda> salvos = new ArrayList<>(eventos.size());
+            for (EventoAgenda evento : eventos) {
+                salvos.add(gravar(em, evento));
+            }
+            commitTransaction(em, ownTransaction);
+            return salvos;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            rollbackTransaction(em, ownTransaction);
+            throw e;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar eventos: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * EXCLUIR EVENTO ============== Igual ao GenericDAO.delete(), liberando o
+     * horário do local na mesma transação (deleteById() também passa por
+     * aqui). Numa série, exclui também as exceções das ocorrências.
+     */
+    @Override
+    public void delete(EventoAgenda evento) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            IndiceConflitosAgenda.Ocupacao antes = IndiceConflitosAgenda.ocupacaoGravada(em, evento.getIdEvento());
+            IndiceConflitosAgenda.Reserva reserva = IndiceConflitosAgenda.reservar(em, evento.getIdEvento(), antes, null);
+            CalendarioMensalAgenda.versionar(em, CalendarioMensalAgenda.invalidarGravado(em, evento.getIdEvento()));
+            em.createNamedQuery("EventoAgendaExcecao.deleteBySerie")
+                    .setParameter("id", evento.getIdEvento())
+                    .executeUpdate();
+            em.remove(em.merge(evento));
+            em.flush();
+            reserva.confirmar(em, evento.getIdEvento());
+            commitTransaction(em, ownTransaction);
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao deletar evento: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Reserva o local (antes de enviar o evento ao banco, com o estado
+     * gravado lido sem flush) e grava o evento. Numa série, valida a regra,
+     * calcula o fim da recorrência e remove as exceções de ocorrências que
+     * a regra deixou de gerar.
+     */
+    private EventoAgenda gravar(EntityManager em, EventoAgenda evento) {
+        IndiceConflitosAgenda.Ocupacao antes = IndiceConflitosAgenda.ocupacaoGravada(em, evento.getIdEvento());
+        List<EventoAgendaExcecao> excecoes = evento.getIdEvento() == null ? List.of()
+                : excecoesGravadas(em, evento.getIdEvento());
+        List<EventoAgendaExcecao> validas = new ArrayList<>();
+        List<EventoAgendaExcecao> invalidas = new ArrayList<>();
+        if (evento.getRegraRecorrencia() == null || evento.getRegraRecorrencia().isBlank()) {
+            evento.setRegraRecorrencia(null);
+            evento.setFimRecorrencia(null);
+            invalidas.addAll(excecoes);
+        } else if (evento.getDataInicio() != null) {
+            RegraRecorrencia regra = RegraRecorrencia.of(evento.getRegraRecorrencia());
+            regra.ultimoInicio(evento.getDataInicio()); // Valida o início e a quantidade de ocorrências
+            evento.setRegraRecorrencia(regra.toString());
+            for (EventoAgendaExcecao excecao : excecoes) {
+                (regra.ocorre(evento.getDataInicio(), excecao.getDataOcorrencia()) ? validas : invalidas).add(excecao);
+            }
+            evento.setFimRecorrencia(fimRecorrencia(evento, regra, alteracoes(validas)));
+        }
+        IndiceConflitosAgenda.Reserva reserva = IndiceConflitosAgenda.reservar(em, evento.getIdEvento(), antes,
+                IndiceConflitosAgenda.Ocupacao.of(evento, alteracoes(validas)));
+        SortedSet<Integer> mesesGravados = CalendarioMensalAgenda.invalidarGravado(em, evento.getIdEvento());
+        invalidas.forEach(em::remove);
+        EventoAgenda salvo = em.merge(evento);
+        em.flush();
+        reserva.confirmar(em, salvo.getIdEvento());
+        CalendarioMensalAgenda.invalidar(em, salvo, mesesGravados);
+        return salvo;
+    }
+
+    // ========================================
+    // OCORRÊNCIAS DE EVENTOS RECORRENTES
+    // ========================================
+
+    /**
+     * ALTERAR UMA OCORRÊNCIA ====================== Grava a exceção de uma
+     * ocorrência da série: os campos preenchidos em dados (início, fim,
+     * local, título, descrição, cancelada) substituem os da série só nesta
+     * ocorrência. Um novo horário ou local é reservado como em save().
+     *
+     * @param idEvento ID da série.
+     * @param dados Exceção com dataOcorrencia (início original da
+     * ocorrência) e os campos alterados.
+     * @return A exceção gravada.
+     * @throws IllegalArgumentException se o evento não existe, não é
+     * recorrente, a data não é de uma ocorrência ou o novo horário é inválido
+     * @throws IllegalStateException se houver conflito de horário no local
+     */
+    public EventoAgendaExcecao salvarOcorrencia(Integer idEvento, EventoAgendaExcecao dados) {
+        return alterarOcorrencia(idEvento, dados.getDataOcorrencia(), excecao -> {
+            excecao.setCancelada(dados.isCancelada());
+            excecao.setDataInicio(dados.getDataInicio());
+            excecao.setDataFim(dados.getDataFim());
+            excecao.setLocalEvento(dados.getLocalEvento());
+            excecao.setTitulo(dados.getTitulo());
+            excecao.setDescricao(dados.getDescricao());
+        });
+    }
+
+    /**
+     * CANCELAR UMA OCORRÊNCIA ======================= Cancela só esta
+     * ocorrência da série (ex: feriado), liberando o local no horário dela.
+     *
+     * @param idEvento ID da série.
+     * @param dataOcorrencia Início original da ocorrência.
+     * @return A exceção gravada.
+     * @throws IllegalArgumentException se o evento não existe, não é
+     * recorrente ou a data não é de uma ocorrência
+     */
+    public EventoAgendaExcecao cancelarOcorrencia(Integer idEvento, LocalDateTime dataOcorrencia) {
+        return alterarOcorrencia(idEvento, dataOcorrencia, excecao -> excecao.setCancelada(true));
+    }
+
+    private EventoAgendaExcecao alterarOcorrencia(Integer idEvento, LocalDateTime dataOcorrencia,
+            Consumer<EventoAgendaExcecao> alteracao) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            EventoAgenda serie = em.find(EventoAgenda.class, idEvento);
+            if (serie == null || !serie.isRecorrente()) {
+                throw new IllegalArgumentException("O evento " + idEvento + " não existe ou não é recorrente.");
+            }
+            RegraRecorrencia regra = RegraRecorrencia.of(serie.getRegraRecorrencia());
+            if (dataOcorrencia == null || !regra.ocorre(serie.getDataInicio(), dataOcorrencia)) {
+                throw new IllegalArgumentException(dataOcorrencia + " não é uma ocorrência do evento " + idEvento + ".");
+            }
+            IndiceConflitosAgenda.Ocupacao antes = IndiceConflitosAgenda.ocupacaoGravada(em, idEvento);
+            List<EventoAgendaExcecao> excecoes = new ArrayList<>(excecoesGravadas(em, idEvento));
+            EventoAgendaExcecao excecao = excecoes.stream()
+                    .filter(x -> x.getDataOcorrencia().equals(dataOcorrencia))
+                    .findFirst()
+                    .orElse(null);
+            if (excecao == null) {
+                excecao = new EventoAgendaExcecao();
+                excecao.setEvento(serie);
+                excecao.setDataOcorrencia(dataOcorrencia);
+                excecoes.add(excecao);
+            }
+            alteracao.accept(excecao);
+            validarRemarcacao(serie, excecao);
+
+            List<OcorrenciasAgenda.Alteracao> alteracoes = alteracoes(excecoes);
+            IndiceConflitosAgenda.Reserva reserva = IndiceConflitosAgenda.reservar(em, idEvento, antes,
+                    IndiceConflitosAgenda.Ocupacao.of(serie, alteracoes));
+            if (excecao.getIdExcecao() == null) {
+                em.persist(excecao);
+            }
+            SortedSet<Integer> mesesGravados = CalendarioMensalAgenda.invalidarGravado(em, idEvento);
+            // Atualiza também a série (data_atualizacao): a agenda mudou
+            serie.setFimRecorrencia(fimRecorrencia(serie, regra, alteracoes));
+            serie.setDataAtualizacao(LocalDateTime.now());
+            em.flush();
+            reserva.confirmar(em, idEvento);
+            CalendarioMensalAgenda.invalidar(em, serie, mesesGravados);
+            commitTransaction(em, ownTransaction);
+            return excecao;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            rollbackTransaction(em, ownTransaction);
+            throw e;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao alterar ocorrência: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Uma ocorrência não pode ser remarcada para antes do início da série
+     * (as consultas por período buscam as séries pelo início) nem terminar
+     * antes de começar.
+     */
+    private static void validarRemarcacao(EventoAgenda serie, EventoAgendaExcecao excecao) {
+        LocalDateTime inicio = excecao.getDataInicio() != null ? excecao.getDataInicio() : excecao.getDataOcorrencia();
+        if (inicio.isBefore(serie.getDataInicio())) {
+            throw new IllegalArgumentException("A ocorrência não pode ser remarcada para antes do início da série ("
+                    + serie.getDataInicio() + ").");
+        }
+        if (excecao.getDataFim() != null && excecao.getDataFim().isBefore(inicio)) {
+            throw new IllegalArgumentException("Data de fim deve ser posterior à data de início.");
+        }
+    }
+
+    /**
+     * Exceções gravadas da série, sem enviar alterações pendentes.
+     */
+    private static List<EventoAgendaExcecao> excecoesGravadas(EntityManager em, Integer idEvento) {
+        return em.createNamedQuery("EventoAgendaExcecao.findBySeries", EventoAgendaExcecao.class)
+                .setParameter("ids", List.of(idEvento))
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+    }
+
+    private static List<OcorrenciasAgenda.Alteracao> alteracoes(List<EventoAgendaExcecao> excecoes) {
+        return excecoes.stream().map(OcorrenciasAgenda.Alteracao::of).toList();
+    }
+
+    /**
+     * Fim da última ocorrência da série, considerando as remarcadas.
+     */
+    private static LocalDateTime fimRecorrencia(EventoAgenda serie, RegraRecorrencia regra,
+            List<OcorrenciasAgenda.Alteracao> alteracoes) {
+        LocalDateTime fim = serie.getDataFim() != null ? serie.getDataFim() : serie.getDataInicio();
+        for (OcorrenciasAgenda.Ocorrencia ocorrencia : OcorrenciasAgenda.expandir(serie.getDataInicio(),
+                serie.getDataFim(), OcorrenciasAgenda.idLocal(serie), regra,
+                OcorrenciasAgenda.porOcorrencia(alteracoes), null, null)) {
+            LocalDateTime termino = ocorrencia.fim != null ? ocorrencia.fim : ocorrencia.inicio;
+            if (termino.isAfter(fim)) {
+                fim = termino;
+            }
+        }
+        return fim;
+    }
+
+    /**
+     * Página de eventos já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<EventoAgendaDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, EventoAgendaDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca o DTO pelo ID sem carregar a entidade.
+     *
+     * @param id ID do registro.
+     * @return Optional com o DTO, vazio se não existir.
+     */
+    public Optional<EventoAgendaDTO> findDTOById(Integer id) {
+        return findProjectionById(id, EventoAgendaDTO.class, DTO_SELECTION);
+    }
+
     /**
      * BUSCAR EVENTOS POR PERÍODO ========================== Busca todos os
      * eventos cuja data de início esteja dentro de um intervalo específico.
@@ -60,6 +443,10 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
      * JOIN` para garantir que, se um evento não tiver um local ou disciplina,
      * ele ainda seja retornado.
      *
+     * Eventos recorrentes entram como uma cópia por ocorrência do período
+     * (com dataOcorrencia preenchida), já com as exceções aplicadas; as
+     * ocorrências canceladas vêm com status CANCELADO.
+     *
      * @param dataInicio A data e hora de início do intervalo da busca.
      * @param dataFim A data e hora de fim do intervalo da busca.
      * @return Uma lista de eventos encontrados no período, já com suas
@@ -68,32 +455,36 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim) {
         EntityManager em = getEntityManager();
         try {
-            // Consulta JPQL (Java Persistence Query Language) para buscar os eventos.
-            // A cláusula "LEFT JOIN FETCH" é a chave para evitar a LazyInitializationException.
-            String jpql = """
-            SELECT e FROM EventoAgenda e 
-            LEFT JOIN FETCH e.localEvento
-            LEFT JOIN FETCH e.disciplina
-            LEFT JOIN FETCH e.turma
-            LEFT JOIN FETCH e.responsavel
-            WHERE FUNCTION('DATE', e.dataInicio) BETWEEN :dataInicioDia AND :dataFimDia
-            ORDER BY e.dataInicio ASC
-            """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            // Compara apenas as datas, ignorando a hora: do início do primeiro dia até antes
+            // do início do dia seguinte ao último. O intervalo sobre a própria coluna (em vez
+            // de FUNCTION('DATE', e.dataInicio)) permite usar o índice idx_evento_data_inicio.
+            LocalDateTime inicioPrimeiroDia = dataInicio.toLocalDate().atStartOfDay();
+            LocalDateTime inicioDiaSeguinte = dataFim.toLocalDate().plusDays(1).atStartOfDay();
 
-            // Define os parâmetros da consulta. Usamos toLocalDate() para comparar apenas a data,
-            // ignorando a hora, conforme a lógica da cláusula WHERE.
-            query.setParameter("dataInicioDia", dataInicio.toLocalDate());
-            query.setParameter("dataFimDia", dataFim.toLocalDate());
+            // Consulta nomeada declarada na entidade EventoAgenda (@NamedQuery).
+            // A cláusula "LEFT JOIN FETCH" é a chave para evitar a LazyInitializationException.
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByPeriodo", EventoAgenda.class);
+            query.setParameter("inicioPrimeiroDia", inicioPrimeiroDia);
+            query.setParameter("inicioDiaSeguinte", inicioDiaSeguinte);
+            List<EventoAgenda> eventos = new ArrayList<>(query.getResultList());
 
-            return query.getResultList();
+            // Séries que têm ocorrências no período, expandidas só para ele
+            List<EventoAgenda> series = em.createNamedQuery("EventoAgenda.findSeriesByPeriodo", EventoAgenda.class)
+                    .setParameter("inicioPrimeiroDia", inicioPrimeiroDia)
+                    .setParameter("inicioDiaSeguinte", inicioDiaSeguinte)
+                    .getResultList();
+            if (!series.isEmpty()) {
+                eventos.addAll(OcorrenciasAgenda.copias(em, series, inicioPrimeiroDia, inicioDiaSeguinte));
+                eventos.sort(Comparator.comparing(EventoAgenda::getDataInicio));
+            }
+            return eventos;
         } catch (Exception e) {
             // Em caso de erro, lança uma exceção mais genérica para a camada de serviço/servlet tratar.
             throw new RuntimeException("Erro ao buscar eventos por período: " + e.getMessage(), e);
         } finally {
             // Bloco 'finally' garante que o EntityManager (conexão com o banco) seja sempre fechado,
             // mesmo que ocorra um erro, evitando vazamento de recursos.
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -121,18 +512,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByTipoEvento(TipoEvento tipoEvento) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.tipoEvento = :tipoEvento 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByTipoEvento", EventoAgenda.class);
             query.setParameter("tipoEvento", tipoEvento);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por tipo: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -147,18 +533,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByStatusEvento(StatusEvento statusEvento) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.statusEvento = :statusEvento 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByStatusEvento", EventoAgenda.class);
             query.setParameter("statusEvento", statusEvento);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por status: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -172,18 +553,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByResponsavel(Usuario responsavel) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.responsavel = :responsavel 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByResponsavel", EventoAgenda.class);
             query.setParameter("responsavel", responsavel);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por responsável: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -197,18 +573,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByDisciplina(Disciplina disciplina) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.disciplina = :disciplina 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByDisciplina", EventoAgenda.class);
             query.setParameter("disciplina", disciplina);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por disciplina: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -222,18 +593,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByTurma(Turma turma) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.turma = :turma 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByTurma", EventoAgenda.class);
             query.setParameter("turma", turma);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por turma: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -247,18 +613,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findByLocal(LocalEvento localEvento) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.localEvento = :localEvento 
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByLocal", EventoAgenda.class);
             query.setParameter("localEvento", localEvento);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos por local: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -268,107 +629,348 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
      * filtros que foram fornecidos (não nulos). Essencial para a tela de
      * listagem de eventos.
      *
-     * Ponto Didático: Construção Dinâmica de Query
-     * --------------------------------------------- Usamos um `StringBuilder`
-     * para montar a string da consulta passo a passo. Começamos com uma
-     * consulta base (`WHERE 1=1`) que é sempre verdadeira, facilitando a adição
-     * das próximas cláusulas com `AND` sem nos preocuparmos se é a primeira ou
-     * não. Para cada filtro que não for nulo, adicionamos a condição
-     * correspondente na query.
+     * Ponto Didático: Filtros Dinâmicos com QueryFilter
+     * -------------------------------------------------- Os filtros não nulos
+     * são adicionados a um `QueryFilter`, que escreve as condições sempre na
+     * mesma ordem (igualdades e depois o intervalo de datas). Assim cada
+     * combinação de filtros gera um único JPQL, independentemente de quais
+     * vieram preenchidos primeiro, e o Hibernate reaproveita o plano em cache.
+     * O período é um intervalo sobre a coluna `data_inicio` (sem funções),
+     * que junto com o tipo de evento usa o índice `idx_eventos_data_tipo`.
+     *
+     * Ponto Didático: Projeção em DTO
+     * -------------------------------- A lista só exibe nomes e datas, então a
+     * consulta seleciona direto em `EventoAgendaResumoDTO` (`SELECT new`) com
+     * LEFT JOINs para os nomes de local, responsável, disciplina e turma. Nenhuma
+     * entidade é carregada: não há `LazyInitializationException` possível, nem
+     * `DISTINCT` ou snapshots para dirty checking. Os filtros por responsável,
+     * disciplina e turma recebem apenas o ID e comparam a chave estrangeira.
      *
-     * Também aplicamos a correção com `LEFT JOIN FETCH` aqui, para garantir que
-     * os dados relacionados sejam carregados e evitar a
-     * `LazyInitializationException` na página de lista. O `DISTINCT` é usado
-     * para evitar duplicatas que podem surgir devido aos JOINs.
+     * Ponto Didático: Eventos Recorrentes
+     * ------------------------------------ Com período informado, as séries
+     * são lidas à parte (pelo início e pelo fim da recorrência) e expandidas
+     * só para o período; o status é filtrado depois da expansão, porque uma
+     * ocorrência pode ter sido cancelada. Sem período, cada série aparece uma
+     * vez, como gravada.
      *
      * @param dataInicio Filtro opcional por data de início.
      * @param dataFim Filtro opcional por data de fim.
      * @param tipoEvento Filtro opcional por tipo de evento.
      * @param statusEvento Filtro opcional por status.
-     * @param responsavel Filtro opcional por responsável.
-     * @param disciplina Filtro opcional por disciplina.
-     * @param turma Filtro opcional por turma.
-     * @return Uma lista de eventos que correspondem a todos os filtros
+     * @param responsavelId Filtro opcional pelo ID do responsável.
+     * @param disciplinaId Filtro opcional pelo ID da disciplina.
+     * @param turmaId Filtro opcional pelo ID da turma.
+     * @return Linhas da listagem que correspondem a todos os filtros
      * fornecidos.
      */
-    public List<EventoAgenda> findWithFilters(LocalDateTime dataInicio, LocalDateTime dataFim,
+    public List<EventoAgendaResumoDTO> findResumosWithFilters(LocalDateTime dataInicio, LocalDateTime dataFim,
             TipoEvento tipoEvento, StatusEvento statusEvento,
-            Usuario responsavel, Disciplina disciplina, Turma turma) {
+            Integer responsavelId, Integer disciplinaId, Integer turmaId) {
         EntityManager em = getEntityManager();
         try {
-            // Inicia a construção da query com JOIN FETCH para carregar os dados relacionados
-            StringBuilder jpql = new StringBuilder("""
-                SELECT DISTINCT e FROM EventoAgenda e 
-                LEFT JOIN FETCH e.localEvento
-                LEFT JOIN FETCH e.disciplina
-                LEFT JOIN FETCH e.turma
-                LEFT JOIN FETCH e.responsavel
-                WHERE 1=1 
-                """);
-
-            // Adiciona as condições à query dinamicamente
-            if (dataInicio != null) {
-                jpql.append(" AND e.dataInicio >= :dataInicio");
-            }
-            if (dataFim != null) {
-                jpql.append(" AND e.dataInicio <= :dataFim");
-            }
-            if (tipoEvento != null) {
-                jpql.append(" AND e.tipoEvento = :tipoEvento");
-            }
-            if (statusEvento != null) {
-                jpql.append(" AND e.statusEvento = :statusEvento");
-            }
-            if (responsavel != null) {
-                jpql.append(" AND e.responsavel = :responsavel");
-            }
-            if (disciplina != null) {
-                jpql.append(" AND e.disciplina = :disciplina");
-            }
-            if (turma != null) {
-                jpql.append(" AND e.turma = :turma");
-            }
+            return buscarResumos(em, dataInicio, dataFim, tipoEvento, statusEvento, responsavelId, disciplinaId,
+                    turmaId);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar eventos com filtros: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
 
-            jpql.append(" ORDER BY e.dataInicio ASC");
+    private List<EventoAgendaResumoDTO> buscarResumos(EntityManager em, LocalDateTime dataInicio,
+            LocalDateTime dataFim, TipoEvento tipoEvento, StatusEvento statusEvento,
+            Integer responsavelId, Integer disciplinaId, Integer turmaId) {
+        boolean porPeriodo = dataInicio != null || dataFim != null;
+        QueryFilter filter = new QueryFilter()
+                .range("dataInicio", dataInicio, dataFim)
+                .equal("tipoEvento", tipoEvento)
+                .equal("statusEvento", statusEvento)
+                .equal("responsavel.idUsuario", responsavelId)
+                .equal("disciplina.idDisciplina", disciplinaId)
+                .equal("turma.idTurma", turmaId);
 
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql.toString(), EventoAgenda.class);
+        // Projeção com os LEFT JOINs dos nomes exibidos; os filtros usam as colunas de eventos_agenda
+        String jpql = RESUMO_SELECT + "WHERE " + filter.toJpql("e")
+                + (porPeriodo ? " AND e.regraRecorrencia IS NULL" : "") + " ORDER BY e.dataInicio ASC";
 
-            // Define os parâmetros apenas para os filtros que foram fornecidos
-            if (dataInicio != null) {
-                query.setParameter("dataInicio", dataInicio);
-            }
-            if (dataFim != null) {
-                query.setParameter("dataFim", dataFim);
-            }
-            if (tipoEvento != null) {
-                query.setParameter("tipoEvento", tipoEvento);
-            }
-            if (statusEvento != null) {
-                query.setParameter("statusEvento", statusEvento);
-            }
-            if (responsavel != null) {
-                query.setParameter("responsavel", responsavel);
+        TypedQuery<EventoAgendaResumoDTO> query = filter.applyTo(em.createQuery(jpql, EventoAgendaResumoDTO.class));
+        List<EventoAgendaResumoDTO> resumos = query.getResultList();
+        if (!porPeriodo) {
+            return resumos;
+        }
+
+        // dataFim é inclusiva, como no range() acima
+        QueryFilter filtroSeries = new QueryFilter()
+                .range("dataInicio", null, dataFim)
+                .range("fimRecorrencia", dataInicio, null)
+                .equal("tipoEvento", tipoEvento)
+                .equal("responsavel.idUsuario", responsavelId)
+                .equal("disciplina.idDisciplina", disciplinaId)
+                .equal("turma.idTurma", turmaId);
+        List<EventoAgenda> series = filtroSeries.applyTo(em.createQuery(
+                SERIES_SELECT + filtroSeries.toJpql("e"), EventoAgenda.class)).getResultList();
+        if (series.isEmpty()) {
+            return resumos;
+        }
+        List<EventoAgendaResumoDTO> todos = new ArrayList<>(resumos);
+        for (EventoAgenda ocorrencia : OcorrenciasAgenda.copias(em, series, dataInicio,
+                dataFim == null ? null : dataFim.plusNanos(1))) {
+            if (statusEvento == null || statusEvento == ocorrencia.getStatusEvento()) {
+                todos.add(toResumo(ocorrencia));
             }
-            if (disciplina != null) {
-                query.setParameter("disciplina", disciplina);
+        }
+        todos.sort(Comparator.comparing(EventoAgendaResumoDTO::getDataInicio));
+        return todos;
+    }
+
+    /**
+     * BUSCAR DTOs POR PERÍODO ======================= Os eventos que começam
+     * no período, já em DTO para a API REST, com as séries expandidas como
+     * em findByPeriodo() (cada ocorrência com dataOcorrencia preenchida).
+     *
+     * @param de Início do período.
+     * @param ate Fim do período (exclusivo).
+     * @return DTOs em ordem de início.
+     */
+    public List<EventoAgendaDTO> findDTOsByPeriodo(LocalDateTime de, LocalDateTime ate) {
+        EntityManager em = getEntityManager();
+        try {
+            List<EventoAgendaDTO> dtos = new ArrayList<>(em.createQuery("SELECT " + DTO_SELECTION
+                    + " FROM EventoAgenda e WHERE e.dataInicio >= :de AND e.dataInicio < :ate"
+                    + " AND e.regraRecorrencia IS NULL ORDER BY e.dataInicio ASC", EventoAgendaDTO.class)
+                    .setParameter("de", de)
+                    .setParameter("ate", ate)
+                    .getResultList());
+            List<EventoAgenda> series = em.createNamedQuery("EventoAgenda.findSeriesByPeriodo", EventoAgenda.class)
+                    .setParameter("inicioPrimeiroDia", de)
+                    .setParameter("inicioDiaSeguinte", ate)
+                    .getResultList();
+            if (!series.isEmpty()) {
+                for (EventoAgenda ocorrencia : OcorrenciasAgenda.copias(em, series, de, ate)) {
+                    dtos.add(toDTO(ocorrencia));
+                }
+                dtos.sort(Comparator.comparing(EventoAgendaDTO::getDataInicio));
             }
-            if (turma != null) {
-                query.setParameter("turma", turma);
+            return dtos;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar eventos por período: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * BUSCAR O CALENDÁRIO DE UM MÊS ============================= Eventos que
+     * começam no mês (com as séries expandidas, como em
+     * findResumosWithFilters()) agrupados por dia, para a página do
+     * calendário. O resultado fica em cache por mês e filtros, e o mês
+     * anterior e o seguinte são montados em segundo plano; as gravações deste
+     * DAO removem do cache só os meses do evento alterado e incrementam a
+     * versão deles, conferida a cada acesso (ver CalendarioMensalAgenda). Os meses são lidos sempre no primário, mesmo
+     * em requisições GET: montado da réplica logo após a invalidação, o mês
+     * antigo voltaria ao cache.
+     *
+     * @param mes Mês exibido.
+     * @param tipoEvento Filtro opcional por tipo de evento.
+     * @param statusEvento Filtro opcional por status.
+     * @param responsavelId Filtro opcional pelo ID do responsável.
+     * @param disciplinaId Filtro opcional pelo ID da disciplina.
+     * @param turmaId Filtro opcional pelo ID da turma.
+     * @return Eventos de cada dia do mês que tem eventos, em ordem de dia e
+     * de início (mapa e listas imutáveis).
+     */
+    public Map<LocalDate, List<EventoAgendaResumoDTO>> findCalendarioMes(YearMonth mes, TipoEvento tipoEvento,
+            StatusEvento statusEvento, Integer responsavelId, Integer disciplinaId, Integer turmaId) {
+        return CalendarioMensalAgenda.obter(new CalendarioMensalAgenda.Chave(mes, tipoEvento, statusEvento,
+                responsavelId, disciplinaId, turmaId), this::montarCalendarioMes);
+    }
+
+    private Map<LocalDate, List<EventoAgendaResumoDTO>> montarCalendarioMes(CalendarioMensalAgenda.Chave chave) {
+        // No primário: o mês vai para o cache (ver getPrimaryReadEntityManager())
+        EntityManager em = getPrimaryReadEntityManager();
+        try {
+            Map<LocalDate, List<EventoAgendaResumoDTO>> porDia = new TreeMap<>();
+            for (EventoAgendaResumoDTO resumo : buscarResumos(em, chave.mes.atDay(1).atStartOfDay(),
+                    chave.mes.atEndOfMonth().atTime(23, 59, 59), chave.tipoEvento, chave.statusEvento,
+                    chave.responsavelId, chave.disciplinaId, chave.turmaId)) {
+                porDia.computeIfAbsent(resumo.getDataInicio().toLocalDate(), dia -> new ArrayList<>()).add(resumo);
             }
+            porDia.replaceAll((dia, resumos) -> List.copyOf(resumos));
+            return Collections.unmodifiableMap(porDia);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao montar calendário do mês: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
 
-            return query.getResultList();
+    /**
+     * @return Estatísticas do cache de meses do calendário (ver
+     * CacheLimitado).
+     */
+    public static Map<String, Object> getEstatisticasCalendario() {
+        return CalendarioMensalAgenda.getEstatisticas();
+    }
+
+    /**
+     * VERSÃO DE UM FEED ICS ================== Identifica o conteúdo do feed
+     * (maior data_atualizacao dos eventos e dos nomes exibidos, e quantidade
+     * de eventos) com uma consulta de agregação, sem ler os eventos: se o
+     * aplicativo de calendário já tem a versão, o feed não precisa ser
+     * escrito.
+     *
+     * @param escopo De quem é o feed (usuário, turma, disciplina ou local).
+     * @param id ID do dono do feed.
+     * @return A versão, com isExiste() false se o dono não existe.
+     */
+    public FeedAgenda.Versao versaoFeed(FeedAgenda.Escopo escopo, Integer id) {
+        EntityManager em = JPAUtil.createReadOnlyEntityManager();
+        try {
+            return FeedAgenda.versao(em, escopo, id,
+                    LocalDate.now().minusDays(CalendarioICS.diasAnteriores()).atStartOfDay());
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao buscar eventos com filtros: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao consultar versão do feed da agenda: " + e.getMessage(), e);
         } finally {
-            em.close();
+            JPAUtil.closeEntityManager(em);
         }
     }
 
+    /**
+     * ESCREVER UM FEED ICS ==================== Escreve o calendário da versão
+     * em destino, evento a evento, à medida que são lidos do banco (ver
+     * FeedAgenda).
+     *
+     * @param versao Versão obtida em versaoFeed().
+     * @param nome Nome do calendário exibido pelos aplicativos.
+     * @param destino Onde escrever (não é fechado).
+     * @throws IOException se a escrita em destino falhar (ex: o cliente
+     * desconectou).
+     */
+    public void escreverFeed(FeedAgenda.Versao versao, String nome, Writer destino) throws IOException {
+        EntityManager em = JPAUtil.createReadOnlyEntityManager();
+        try {
+            FeedAgenda.escrever(em, versao, nome, destino);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao escrever feed da agenda: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * PROPOR ALOCAÇÃO DE LOCAIS ========================= Calcula um local
+     * para cada evento sem local do período, sem conflitos de horário e com
+     * capacidade para a turma (ver AlocacaoLocais). Lê da réplica e não grava
+     * nada.
+     *
+     * @param de Início do período.
+     * @param ate Fim do período (exclusivo).
+     * @param tiposLocal Tipos de local (tipo_local) permitidos por tipo de
+     * evento; tipos de evento fora do mapa aceitam qualquer local.
+     * @return A proposta, com os eventos que ficaram sem local.
+     * @throws IllegalArgumentException se o período é inválido
+     */
+    public PropostaAlocacaoDTO proporAlocacaoLocais(LocalDateTime de, LocalDateTime ate,
+            Map<TipoEvento, ? extends Set<String>> tiposLocal) {
+        if (de == null || ate == null || !ate.isAfter(de)) {
+            throw new IllegalArgumentException("Período inválido: o fim deve ser posterior ao início.");
+        }
+        EntityManager em = JPAUtil.createReadOnlyEntityManager();
+        try {
+            return AlocacaoLocais.propor(em, de, ate, tiposLocal);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao propor alocação de locais: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * APLICAR ALOCAÇÃO DE LOCAIS ========================== Grava o local de
+     * cada evento numa única transação, reservando os locais como save(): um
+     * conflito (de um evento gravado depois da proposta ou entre os próprios
+     * itens) ou um evento que já recebeu outro local desfaz todos. Os eventos
+     * são gravados na ordem dos locais, para que aplicações simultâneas
+     * travem os locais na mesma ordem.
+     *
+     * @param locaisPorEvento ID do local de cada evento (pelo ID do evento).
+     * @return Os eventos gravados.
+     * @throws IllegalArgumentException se um evento ou local não existe
+     * @throws IllegalStateException se houver conflito de horário em um local
+     * ou um evento já tiver outro local
+     */
+    public List<EventoAgenda> aplicarAlocacaoLocais(Map<Integer, Integer> locaisPorEvento) {
+        List<Map.Entry<Integer, Integer>> ordem = new ArrayList<>(locaisPorEvento.entrySet());
+        ordem.sort(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            List<EventoAgenda> salvos = new ArrayList<>(ordem.size());
+            for (Map.Entry<Integer, Integer> item : ordem) {
+                EventoAgenda evento = em.find(EventoAgenda.class, item.getKey());
+                if (evento == null) {
+                    throw new IllegalArgumentException("O evento " + item.getKey() + " não existe.");
+                }
+                LocalEvento local = em.find(LocalEvento.class, item.getValue());
+                if (local == null) {
+                    throw new IllegalArgumentException("O local " + item.getValue() + " não existe.");
+                }
+                Integer atual = OcorrenciasAgenda.idLocal(evento);
+                if (atual != null && !atual.equals(item.getValue())) {
+                    throw new IllegalStateException("O evento " + item.getKey() + " já tem outro local ("
+                            + atual + "). Gere uma nova proposta.");
+                }
+                evento.setLocalEvento(local);
+                salvos.add(gravar(em, evento));
+            }
+            commitTransaction(em, ownTransaction);
+            return salvos;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            rollbackTransaction(em, ownTransaction);
+            throw e;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao aplicar alocação de locais: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private static EventoAgendaDTO toDTO(EventoAgenda ocorrencia) {
+        EventoAgendaDTO dto = new EventoAgendaDTO(ocorrencia.getIdEvento(), ocorrencia.getTitulo(),
+                ocorrencia.getDescricao(), ocorrencia.getDataInicio(), ocorrencia.getDataFim(),
+                OcorrenciasAgenda.idLocal(ocorrencia),
+                ocorrencia.getDisciplina() == null ? null : ocorrencia.getDisciplina().getIdDisciplina(),
+                ocorrencia.getTurma() == null ? null : ocorrencia.getTurma().getIdTurma(),
+                ocorrencia.getResponsavel() == null ? null : ocorrencia.getResponsavel().getIdUsuario(),
+                ocorrencia.getTipoEvento(), ocorrencia.getStatusEvento(), ocorrencia.getRegraRecorrencia());
+        dto.setDataOcorrencia(ocorrencia.getDataOcorrencia());
+        return dto;
+    }
+
+    private static EventoAgendaResumoDTO toResumo(EventoAgenda ocorrencia) {
+        return new EventoAgendaResumoDTO(ocorrencia.getIdEvento(), ocorrencia.getTitulo(), ocorrencia.getDescricao(),
+                ocorrencia.getDataInicio(), ocorrencia.getDataFim(), ocorrencia.getTipoEvento(),
+                ocorrencia.getStatusEvento(),
+                ocorrencia.getLocalEvento() == null ? null : ocorrencia.getLocalEvento().getNomeLocal(),
+                ocorrencia.getResponsavel() == null ? null : ocorrencia.getResponsavel().getNomeCompleto(),
+                ocorrencia.getDisciplina() == null ? null : ocorrencia.getDisciplina().getNomeDisciplina(),
+                ocorrencia.getTurma() == null ? null : ocorrencia.getTurma().getNomeTurma(),
+                ocorrencia.getDataOcorrencia());
+    }
+
     /**
      * VERIFICAR CONFLITO DE HORÁRIO ============================= Verifica se
      * já existe outro evento (que não seja o próprio evento sendo editado)
      * agendado para o mesmo local e com sobreposição de horário.
      *
+     * A verificação é feita em memória (IndiceConflitosAgenda), sem consulta
+     * ao banco depois da carga do local. Serve para avisar o usuário: a
+     * garantia contra dois eventos no mesmo horário é a reserva feita em
+     * save().
+     *
      * @param localEvento O local onde se deseja agendar o evento.
      * @param dataInicio A data e hora de início do novo evento.
      * @param dataFim A data e hora de fim do novo evento.
@@ -378,43 +980,57 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
      */
     public boolean hasConflito(LocalEvento localEvento, LocalDateTime dataInicio,
             LocalDateTime dataFim, Integer idEvento) {
+        if (localEvento == null || dataFim == null || !dataFim.isAfter(dataInicio)) {
+            return false;
+        }
+        return IndiceConflitosAgenda.temConflito(localEvento.getIdLocalEvento(), dataInicio, dataFim, idEvento);
+    }
+
+    /**
+     * LISTAR EVENTOS EM CONFLITO ========================== Os eventos não
+     * cancelados do local que ocupam parte do horário. Os IDs vêm do índice
+     * em memória; os DTOs, de uma consulta pela chave primária.
+     *
+     * @param idLocal O ID do local.
+     * @param dataInicio Início do horário.
+     * @param dataFim Fim do horário.
+     * @param idEvento Evento a ignorar (o próprio evento na edição), ou null.
+     * @return Eventos em conflito, do primeiro ao último início.
+     */
+    public List<EventoAgendaDTO> findConflitos(Integer idLocal, LocalDateTime dataInicio,
+            LocalDateTime dataFim, Integer idEvento) {
+        if (!dataFim.isAfter(dataInicio)) {
+            return List.of();
+        }
+        List<Integer> ids = IndiceConflitosAgenda.conflitos(idLocal, dataInicio, dataFim, idEvento);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
         EntityManager em = getEntityManager();
         try {
-            StringBuilder jpql = new StringBuilder("""
-                SELECT COUNT(e) FROM EventoAgenda e 
-                WHERE e.localEvento = :localEvento 
-                AND e.statusEvento != :statusCancelado
-                AND (
-                    (e.dataInicio <= :dataInicio AND e.dataFim > :dataInicio) OR
-                    (e.dataInicio < :dataFim AND e.dataFim >= :dataFim) OR
-                    (e.dataInicio >= :dataInicio AND e.dataFim <= :dataFim)
-                )
-                """);
-
-            // Se estivermos editando um evento, devemos excluí-lo da verificação de conflito.
-            if (idEvento != null) {
-                jpql.append(" AND e.idEvento != :idEvento");
-            }
-
-            TypedQuery<Long> query = em.createQuery(jpql.toString(), Long.class);
-            query.setParameter("localEvento", localEvento);
-            query.setParameter("dataInicio", dataInicio);
-            query.setParameter("dataFim", dataFim);
-            query.setParameter("statusCancelado", StatusEvento.CANCELADO);
-
-            if (idEvento != null) {
-                query.setParameter("idEvento", idEvento);
-            }
-
-            // Se a contagem de eventos conflitantes for maior que 0, retorna true.
-            return query.getSingleResult() > 0;
+            return em.createQuery("SELECT " + DTO_SELECTION + " FROM EventoAgenda e "
+                    + "WHERE e.idEvento IN :ids ORDER BY e.dataInicio ASC, e.idEvento ASC", EventoAgendaDTO.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao verificar conflito de horário: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao listar eventos em conflito: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
+    /**
+     * DESCARTAR O ÍNDICE DE CONFLITOS =============================== Esquece
+     * a ocupação dos locais em memória neste servidor; cada local é relido na
+     * próxima verificação. Traz para o índice alterações feitas fora deste
+     * DAO (SQL manual, exclusão de locais).
+     *
+     * @return Quantidade de locais descartados.
+     */
+    public int descartarIndiceConflitos() {
+        return IndiceConflitosAgenda.descartar();
+    }
+
     /**
      * BUSCAR PRÓXIMOS EVENTOS ======================= Retorna uma lista
      * limitada dos próximos eventos que ainda não ocorreram. Útil para painéis
@@ -426,13 +1042,7 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findProximosEventos(int limite) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.dataInicio >= :agora 
-                AND e.statusEvento = :statusAgendado
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findProximosEventos", EventoAgenda.class);
             query.setParameter("agora", LocalDateTime.now());
             query.setParameter("statusAgendado", StatusEvento.AGENDADO);
             query.setMaxResults(limite);
@@ -440,7 +1050,46 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar próximos eventos: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * BUSCAR PRÓXIMOS EVENTOS DO ALUNO ================================ Os
+     * próximos eventos agendados das turmas em que o aluno está vinculado
+     * (usuarios_turmas), já como linhas de listagem. As turmas são lidas
+     * primeiro; a consulta dos eventos compara turma e data de início, que
+     * usam o índice idx_eventos_turma_data.
+     *
+     * @param idAluno O ID do aluno.
+     * @param limite O número máximo de eventos a serem retornados.
+     * @return Eventos a partir de agora, do mais próximo para o mais
+     * distante; vazio se o aluno não está em nenhuma turma.
+     */
+    public List<EventoAgendaResumoDTO> findProximosResumosByAluno(Integer idAluno, int limite) {
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> turmas = new ArrayList<>();
+            for (Object idTurma : em.createNativeQuery(TURMAS_DO_ALUNO_SQL)
+                    .setParameter(1, idAluno)
+                    .getResultList()) {
+                turmas.add(((Number) idTurma).intValue());
+            }
+            if (turmas.isEmpty()) {
+                return List.of();
+            }
+            String jpql = RESUMO_SELECT + "WHERE e.turma.idTurma IN :turmas AND e.dataInicio >= :agora "
+                    + "AND e.statusEvento = :statusAgendado ORDER BY e.dataInicio ASC, e.idEvento ASC";
+            return em.createQuery(jpql, EventoAgendaResumoDTO.class)
+                    .setParameter("turmas", turmas)
+                    .setParameter("agora", LocalDateTime.now())
+                    .setParameter("statusAgendado", StatusEvento.AGENDADO)
+                    .setMaxResults(limite)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar próximos eventos do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
@@ -453,18 +1102,13 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public List<EventoAgenda> findEventosEmAndamento() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = """
-                SELECT e FROM EventoAgenda e 
-                WHERE e.statusEvento = :statusEmAndamento
-                ORDER BY e.dataInicio ASC
-                """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findEventosEmAndamento", EventoAgenda.class);
             query.setParameter("statusEmAndamento", StatusEvento.EM_ANDAMENTO);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar eventos em andamento: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
     
@@ -483,16 +1127,8 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
     public Optional<EventoAgenda> findById(Integer id) {
         EntityManager em = getEntityManager();
         try {
-            // Consulta JPQL que usa LEFT JOIN FETCH para carregar todos os dados necessários de uma só vez.
-            String jpql = """
-                SELECT e FROM EventoAgenda e
-                LEFT JOIN FETCH e.localEvento
-                LEFT JOIN FETCH e.disciplina
-                LEFT JOIN FETCH e.turma
-                LEFT JOIN FETCH e.responsavel
-                WHERE e.idEvento = :id
-            """;
-            TypedQuery<EventoAgenda> query = em.createQuery(jpql, EventoAgenda.class);
+            // Consulta nomeada que usa LEFT JOIN FETCH para carregar todos os dados necessários de uma só vez.
+            TypedQuery<EventoAgenda> query = em.createNamedQuery("EventoAgenda.findByIdComAssociacoes", EventoAgenda.class);
             query.setParameter("id", id);
 
             // Usa getSingleResult, mas dentro de um bloco try-catch para NoResultException,
@@ -505,7 +1141,7 @@ public class EventoAgendaDAO extends GenericDAO<EventoAgenda, Integer> {
             throw new RuntimeException("Erro ao buscar evento por ID com relacionamentos: " + e.getMessage(), e);
         } finally {
             // Garante que o EntityManager seja sempre fechado.
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
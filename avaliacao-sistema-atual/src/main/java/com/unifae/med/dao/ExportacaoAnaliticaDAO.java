@@ -0,0 +1,301 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.rest.dto.ExportacaoAnaliticaDTO;
+import com.unifae.med.util.ExportadorColunar;
+import com.unifae.med.util.ExportadorColunar.Coluna;
+import com.unifae.med.util.ExportadorColunar.Tipo;
+import com.unifae.med.util.JPAUtil;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * EXPORTACAO ANALITICA DAO - NOTAS E AVALIAÇÕES EM ARQUIVOS COLUNARES
+ * ===================================================================
+ *
+ * Exporta notas, avaliacoes_preenchidas e respostas_itens_avaliacao, já
+ * com os nomes das dimensões (aluno, disciplina, turma, questionário,
+ * competência), para arquivos Arrow particionados por ano letivo e
+ * semestre (ver ExportadorColunar). Substitui os dumps CSV pelo Adminer
+ * feitos pela equipe de pesquisa institucional:
+ *   <ANALYTICS_EXPORT_DIR>/notas/ano_letivo=2025/semestre=2/notas-20251218T020000.arrow
+ *
+ * LEITURA:
+ * - Uma única consulta por tabela, percorrida com cursor somente para
+ *   frente (ScrollMode.FORWARD_ONLY, fetch size de 1000 linhas):
+ *   o driver do MariaDB entrega as linhas em blocos conforme são lidas,
+ *   sem materializar o resultado. Com o lote do ExportadorColunar, a
+ *   memória usada não depende do tamanho da tabela
+ * - Sem ORDER BY (evita ordenar a tabela inteira no servidor); as linhas
+ *   vão para a partição certa conforme chegam
+ * - EntityManager avulso somente leitura, na réplica se configurada (ver
+ *   JPAUtil.createReadOnlyEntityManager()): a exportação não concorre com
+ *   as requisições no primário
+ *
+ * PARTIÇÃO:
+ * ano_letivo/semestre da turma; sem turma, o ano da data da nota ou da
+ * avaliação e o semestre pelo mês (1 até junho, 2 depois).
+ *
+ * EXPORTAÇÃO INCREMENTAL:
+ * Cada exportação grava em <tabela>/_ultima_atualizacao o maior
+ * data_atualizacao exportado. Com incremental, a próxima leva só as linhas
+ * com data_atualizacao a partir desse valor menos SOBREPOSICAO_SEGUNDOS
+ * (índices idx_*_data_atualizacao), em arquivos novos ao lado dos
+ * anteriores. A margem cobre transações que gravaram data_atualizacao
+ * antes da leitura da exportação e confirmaram depois (ou que ainda não
+ * tinham chegado à réplica): sem ela, essas linhas ficariam de fora para
+ * sempre. Linhas dentro da margem se repetem entre duas exportações; quem
+ * lê mantém a versão mais recente de cada ID. Uma transação aberta por mais
+ * tempo que a margem ainda pode ser perdida; POST com desde refaz um
+ * período. Exclusões não aparecem em exportações incrementais.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - ExportadorColunar.java: Arquivos Arrow e lotes
+ * - ExportacaoAnaliticaResource.java: POST /api/exportacoes/{tabela}
+ * - 01-script_estrutura_dados_banco_unifae.sql: Índices de data_atualizacao
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class ExportacaoAnaliticaDAO {
+
+    /**
+     * Linhas trazidas do banco a cada ida ao servidor durante a leitura.
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String ARQUIVO_MARCA = "_ultima_atualizacao";
+
+    /**
+     * Margem relida antes da marca da exportação anterior (a mesma do
+     * CuboCompetencias).
+     */
+    private static final long SOBREPOSICAO_SEGUNDOS = 120;
+
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * Tabelas com exportação em andamento: duas exportações da mesma tabela
+     * disputariam a marca e os nomes de arquivo.
+     */
+    private static final Set<Tabela> EM_ANDAMENTO = EnumSet.noneOf(Tabela.class);
+
+    /**
+     * Tabelas exportadas. Cada consulta começa pelas colunas da partição
+     * (ano_letivo, semestre), seguidas das colunas do arquivo (a última é
+     * data_atualizacao); o WHERE da exportação incremental é acrescentado
+     * ao final.
+     */
+    public enum Tabela {
+
+        NOTAS("notas", "SELECT COALESCE(t.ano_letivo, YEAR(n.data_avaliacao)), "
+                + "COALESCE(t.semestre, CASE WHEN MONTH(n.data_avaliacao) <= 6 THEN 1 ELSE 2 END), "
+                + "n.id_nota, n.id_aluno, al.nome_completo, al.matricula_RA, n.id_disciplina, d.codigo_disciplina, "
+                + "d.nome_disciplina, n.id_turma, t.nome_turma, n.id_professor, p.nome_completo, n.valor_nota, "
+                + "n.peso_nota, n.tipo_avaliacao, n.descricao_avaliacao, n.data_avaliacao, n.data_lancamento, "
+                + "n.ativo, n.data_atualizacao "
+                + "FROM notas n "
+                + "JOIN usuarios al ON al.id_usuario = n.id_aluno "
+                + "JOIN disciplinas d ON d.id_disciplina = n.id_disciplina "
+                + "LEFT JOIN turmas t ON t.id_turma = n.id_turma "
+                + "LEFT JOIN usuarios p ON p.id_usuario = n.id_professor ", "n.data_atualizacao",
+                List.of(Coluna.of("id_nota", Tipo.INTEIRO), Coluna.of("id_aluno", Tipo.INTEIRO),
+                        Coluna.of("nome_aluno", Tipo.TEXTO), Coluna.of("matricula_ra", Tipo.TEXTO),
+                        Coluna.of("id_disciplina", Tipo.INTEIRO), Coluna.of("codigo_disciplina", Tipo.TEXTO),
+                        Coluna.of("nome_disciplina", Tipo.TEXTO), Coluna.of("id_turma", Tipo.INTEIRO),
+                        Coluna.of("nome_turma", Tipo.TEXTO), Coluna.of("id_professor", Tipo.INTEIRO),
+                        Coluna.of("nome_professor", Tipo.TEXTO), Coluna.decimal("valor_nota", 2),
+                        Coluna.decimal("peso_nota", 2), Coluna.of("tipo_avaliacao", Tipo.TEXTO),
+                        Coluna.of("descricao_avaliacao", Tipo.TEXTO), Coluna.of("data_avaliacao", Tipo.DATA),
+                        Coluna.of("data_lancamento", Tipo.DATA), Coluna.of("ativo", Tipo.LOGICO),
+                        Coluna.of("data_atualizacao", Tipo.DATA_HORA))),
+
+        AVALIACOES("avaliacoes_preenchidas", "SELECT COALESCE(t.ano_letivo, YEAR(a.data_realizacao)), "
+                + "COALESCE(t.semestre, CASE WHEN MONTH(a.data_realizacao) <= 6 THEN 1 ELSE 2 END), "
+                + "a.id_avaliacao_preenchida, a.id_questionario, q.tipo_avaliacao, q.nome_modelo, a.id_aluno_avaliado, "
+                + "al.nome_completo, al.matricula_RA, a.id_avaliador, av.nome_completo, a.tipo_avaliador_nao_usuario, "
+                + "a.id_disciplina, d.nome_disciplina, a.id_turma, t.nome_turma, a.data_realizacao, a.status_avaliacao, "
+                + "a.feedback_positivo, a.feedback_melhoria, a.contrato_aprendizagem, a.data_atualizacao "
+                + "FROM avaliacoes_preenchidas a "
+                + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+                + "JOIN usuarios al ON al.id_usuario = a.id_aluno_avaliado "
+                + "LEFT JOIN usuarios av ON av.id_usuario = a.id_avaliador "
+                + "LEFT JOIN disciplinas d ON d.id_disciplina = a.id_disciplina "
+                + "LEFT JOIN turmas t ON t.id_turma = a.id_turma ", "a.data_atualizacao",
+                List.of(Coluna.of("id_avaliacao_preenchida", Tipo.INTEIRO), Coluna.of("id_questionario", Tipo.INTEIRO),
+                        Coluna.of("tipo_questionario", Tipo.TEXTO), Coluna.of("nome_questionario", Tipo.TEXTO),
+                        Coluna.of("id_aluno", Tipo.INTEIRO), Coluna.of("nome_aluno", Tipo.TEXTO),
+                        Coluna.of("matricula_ra", Tipo.TEXTO), Coluna.of("id_avaliador", Tipo.INTEIRO),
+                        Coluna.of("nome_avaliador", Tipo.TEXTO), Coluna.of("tipo_avaliador_nao_usuario", Tipo.TEXTO),
+                        Coluna.of("id_disciplina", Tipo.INTEIRO), Coluna.of("nome_disciplina", Tipo.TEXTO),
+                        Coluna.of("id_turma", Tipo.INTEIRO), Coluna.of("nome_turma", Tipo.TEXTO),
+                        Coluna.of("data_realizacao", Tipo.DATA), Coluna.of("status_avaliacao", Tipo.TEXTO),
+                        Coluna.of("feedback_positivo", Tipo.TEXTO), Coluna.of("feedback_melhoria", Tipo.TEXTO),
+                        Coluna.of("contrato_aprendizagem", Tipo.TEXTO), Coluna.of("data_atualizacao", Tipo.DATA_HORA))),
+
+        RESPOSTAS("respostas_itens_avaliacao", "SELECT COALESCE(t.ano_letivo, YEAR(a.data_realizacao)), "
+                + "COALESCE(t.semestre, CASE WHEN MONTH(a.data_realizacao) <= 6 THEN 1 ELSE 2 END), "
+                + "r.id_resposta_avaliacao, r.id_avaliacao_preenchida, a.id_aluno_avaliado, q.tipo_avaliacao, "
+                + "a.data_realizacao, r.id_competencia_questionario, c.nome_competencia, c.tipo_item, "
+                + "r.resposta_valor_numerico, r.nao_avaliado, r.resposta_multipla_escolha, r.resposta_texto, "
+                + "r.data_atualizacao "
+                + "FROM respostas_itens_avaliacao r "
+                + "JOIN avaliacoes_preenchidas a ON a.id_avaliacao_preenchida = r.id_avaliacao_preenchida "
+                + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+                + "JOIN competencias_questionario c ON c.id_competencia_questionario = r.id_competencia_questionario "
+                + "LEFT JOIN turmas t ON t.id_turma = a.id_turma ", "r.data_atualizacao",
+                List.of(Coluna.of("id_resposta_avaliacao", Tipo.INTEIRO),
+                        Coluna.of("id_avaliacao_preenchida", Tipo.INTEIRO), Coluna.of("id_aluno", Tipo.INTEIRO),
+                        Coluna.of("tipo_questionario", Tipo.TEXTO), Coluna.of("data_realizacao", Tipo.DATA),
+                        Coluna.of("id_competencia", Tipo.INTEIRO), Coluna.of("nome_competencia", Tipo.TEXTO),
+                        Coluna.of("tipo_item", Tipo.TEXTO), Coluna.decimal("resposta_valor_numerico", 1),
+                        Coluna.of("nao_avaliado", Tipo.LOGICO), Coluna.of("resposta_multipla_escolha", Tipo.TEXTO),
+                        Coluna.of("resposta_texto", Tipo.TEXTO), Coluna.of("data_atualizacao", Tipo.DATA_HORA)));
+
+        private final String nome;
+        private final String sql;
+        private final String colunaAtualizacao;
+        private final List<Coluna> colunas;
+
+        Tabela(String nome, String sql, String colunaAtualizacao, List<Coluna> colunas) {
+            this.nome = nome;
+            this.sql = sql;
+            this.colunaAtualizacao = colunaAtualizacao;
+            this.colunas = colunas;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * @param valor Nome da tabela (ex: "notas") ou da constante
+         * @throws IllegalArgumentException se não é uma tabela exportada
+         */
+        public static Tabela of(String valor) {
+            String nome = valor.trim().toLowerCase(Locale.ROOT);
+            for (Tabela tabela : values()) {
+                if (tabela.nome.equals(nome) || tabela.name().equalsIgnoreCase(nome)) {
+                    return tabela;
+                }
+            }
+            throw new IllegalArgumentException("Tabela não exportada: " + valor
+                    + " (use notas, avaliacoes_preenchidas ou respostas_itens_avaliacao)");
+        }
+    }
+
+    /**
+     * EXPORTAR TABELA
+     * ===============
+     * @param tabela Tabela exportada
+     * @param desde Só linhas com data_atualizacao a partir deste momento; se
+     *        null e incremental, o valor gravado pela exportação anterior
+     *        menos SOBREPOSICAO_SEGUNDOS
+     * @param incremental Usar a marca da exportação anterior quando desde é
+     *        null (sem marca, exporta tudo)
+     * @return Arquivos gravados e a nova marca
+     * @throws IllegalStateException se a tabela já está sendo exportada
+     */
+    public ExportacaoAnaliticaDTO exportar(Tabela tabela, LocalDateTime desde, boolean incremental) {
+        synchronized (EM_ANDAMENTO) {
+            if (!EM_ANDAMENTO.add(tabela)) {
+                throw new IllegalStateException("Exportação de " + tabela.nome + " já em andamento");
+            }
+        }
+        try {
+            return gravarArquivos(tabela, desde, incremental);
+        } finally {
+            synchronized (EM_ANDAMENTO) {
+                EM_ANDAMENTO.remove(tabela);
+            }
+        }
+    }
+
+    private ExportacaoAnaliticaDTO gravarArquivos(Tabela tabela, LocalDateTime desde, boolean incremental) {
+        Path diretorio = ExportadorColunar.diretorioPadrao().resolve(tabela.nome);
+        LocalDateTime inicio = LocalDateTime.now();
+        long relogio = System.nanoTime();
+        EntityManager em = JPAUtil.createReadOnlyEntityManager();
+        try {
+            LocalDateTime marcaAnterior = lerMarca(diretorio);
+            LocalDateTime aPartirDe = desde != null ? desde
+                    : incremental && marcaAnterior != null ? marcaAnterior.minusSeconds(SOBREPOSICAO_SEGUNDOS) : null;
+            String nomeArquivo = tabela.nome + "-" + FORMATO_ARQUIVO.format(inicio);
+
+            NativeQuery<Object[]> consulta = em.unwrap(Session.class).createNativeQuery(tabela.sql
+                    + (aPartirDe != null ? "WHERE " + tabela.colunaAtualizacao + " >= ?1" : ""), Object[].class);
+            if (aPartirDe != null) {
+                consulta.setParameter(1, Timestamp.valueOf(aPartirDe));
+            }
+            consulta.setFetchSize(FETCH_SIZE).setReadOnly(true);
+
+            long linhas = 0;
+            LocalDateTime ultimaAtualizacao = marcaAnterior;
+            List<ExportadorColunar.Arquivo> arquivos;
+            try (ExportadorColunar exportador = new ExportadorColunar(diretorio, nomeArquivo, tabela.colunas,
+                    Map.of("tabela", tabela.nome, "exportado_em", inicio.toString(),
+                            "desde", aPartirDe != null ? aPartirDe.toString() : ""));
+                    ScrollableResults<Object[]> cursor = consulta.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    Object[] linha = cursor.get();
+                    exportador.adicionar("ano_letivo=" + linha[0] + "/semestre=" + linha[1], linha, 2);
+                    LocalDateTime atualizacao = dataHora(linha[linha.length - 1]);
+                    if (atualizacao != null && (ultimaAtualizacao == null || atualizacao.isAfter(ultimaAtualizacao))) {
+                        ultimaAtualizacao = atualizacao;
+                    }
+                    linhas++;
+                }
+                arquivos = exportador.concluir();
+            }
+            if (ultimaAtualizacao != null) {
+                gravarMarca(diretorio, ultimaAtualizacao);
+            }
+
+            List<ExportacaoAnaliticaDTO.Arquivo> gravados = new ArrayList<>(arquivos.size());
+            for (ExportadorColunar.Arquivo arquivo : arquivos) {
+                gravados.add(new ExportacaoAnaliticaDTO.Arquivo(arquivo.getParticao(),
+                        ExportadorColunar.diretorioPadrao().relativize(arquivo.getCaminho()).toString(),
+                        arquivo.getLinhas(), arquivo.getBytes()));
+            }
+            return new ExportacaoAnaliticaDTO(tabela.nome, aPartirDe, ultimaAtualizacao, linhas,
+                    (System.nanoTime() - relogio) / 1_000_000, gravados);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao exportar " + tabela.nome + ": " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    private static LocalDateTime lerMarca(Path diretorio) throws IOException {
+        Path marca = diretorio.resolve(ARQUIVO_MARCA);
+        return Files.exists(marca) ? LocalDateTime.parse(Files.readString(marca, StandardCharsets.UTF_8).trim()) : null;
+    }
+
+    private static void gravarMarca(Path diretorio, LocalDateTime ultimaAtualizacao) throws IOException {
+        Files.createDirectories(diretorio);
+        Path temporario = diretorio.resolve(ARQUIVO_MARCA + ".tmp");
+        Files.writeString(temporario, ultimaAtualizacao.toString(), StandardCharsets.UTF_8);
+        Files.move(temporario, diretorio.resolve(ARQUIVO_MARCA), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+}
@@ -0,0 +1,402 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.StatusEvento;
+import com.unifae.med.entity.TipoEvento;
+import com.unifae.med.util.CalendarioICS;
+import com.unifae.med.util.RegraRecorrencia;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * FEED AGENDA - CALENDÁRIOS ICS POR USUÁRIO, TURMA, DISCIPLINA E LOCAL
+ * ===================================================================
+ *
+ * Monta os feeds ".ics" assinados pelos aplicativos de calendário. Os
+ * aplicativos consultam o feed com frequência (de minutos a horas), quase
+ * sempre sem nada novo; por isso cada consulta é feita em duas etapas:
+ *
+ * VERSÃO (versao()):
+ * Uma única consulta de agregação (MAX(data_atualizacao) e COUNT(*) dos
+ * eventos do feed, mais a existência do dono) sem carregar nenhum evento.
+ * A tag (ETag forte) é o resumo do escopo, da janela, do maior
+ * data_atualizacao e da quantidade: muda quando um evento do feed é criado,
+ * alterado ou excluído, e quando um evento entra ou sai do feed. Alterar ou
+ * cancelar uma ocorrência também atualiza a série (ver
+ * EventoAgendaDAO.salvarOcorrencia). Se o aplicativo já tem essa versão, a
+ * resposta é 304 e a etapa seguinte não roda.
+ *
+ * O feed exibe também nomes de outras tabelas (local, disciplina, turma e
+ * responsável do evento, e o local das ocorrências remarcadas). A mesma
+ * consulta lê o maior data_atualizacao dessas linhas (a coluna é
+ * atualizada pelo banco a cada alteração), e o maior de todos entra na
+ * tag: renomear um local, por exemplo, muda a versão dos feeds que o
+ * exibem.
+ *
+ * ESCRITA (escrever()):
+ * Consulta nativa só com as colunas exibidas, percorrida com cursor
+ * somente para frente (fetch size de 500 linhas), escrevendo cada VEVENT
+ * na resposta conforme chega (ver CalendarioICS): nenhuma entidade é
+ * montada e a memória não depende do tamanho do feed. As exceções das
+ * séries (poucas) são lidas antes, numa consulta.
+ *
+ * SÉRIES:
+ * Um evento recorrente é um único VEVENT com RRULE; as ocorrências
+ * canceladas vão em EXDATE e as alteradas em VEVENTs com o mesmo UID e
+ * RECURRENCE-ID (o início original), como o iCalendar prevê. Os
+ * aplicativos expandem a série. O feed de um local segue o local da série:
+ * uma ocorrência remarcada para outra sala aparece nele com o novo LOCATION.
+ *
+ * JANELA:
+ * Ficam de fora eventos (e séries inteiras) que terminaram há mais de
+ * AGENDA_FEED_PAST_DAYS dias (ver CalendarioICS). O início da janela muda
+ * uma vez por dia e entra na tag.
+ *
+ * Leituras em EntityManager somente leitura, na réplica se configurada
+ * (JPAUtil.createReadOnlyEntityManager()), feitas pelo EventoAgendaDAO.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgendaDAO.java: versaoFeed() e escreverFeed()
+ * - CalendarioICS.java: Formato iCalendar
+ * - AgendaFeedResource.java: GET /api/agenda/{escopo}/{id}.ics
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class FeedAgenda {
+
+    /**
+     * Linhas trazidas do banco a cada ida ao servidor durante a escrita.
+     */
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Entra na tag: mudar o que é escrito em cada VEVENT invalida os feeds
+     * já baixados.
+     */
+    private static final String VERSAO_FORMATO = "2";
+
+    private static final String JANELA = "COALESCE(e.data_fim_recorrencia, e.data_fim, e.data_inicio) >= ?2";
+
+    private static final String EVENTOS_SQL = "SELECT e.id_evento, e.titulo, e.descricao, e.data_inicio, e.data_fim, "
+            + "l.nome_local, e.tipo_evento, e.status_evento, e.regra_recorrencia, e.data_criacao, e.data_atualizacao, "
+            + "d.nome_disciplina, t.nome_turma, r.nome_completo "
+            + "FROM eventos_agenda e ";
+
+    /**
+     * Tabelas dos nomes exibidos em cada evento (ver EVENTOS_SQL).
+     */
+    private static final String NOMES = "LEFT JOIN locais_eventos l ON l.id_local_evento = e.id_local_evento "
+            + "LEFT JOIN disciplinas d ON d.id_disciplina = e.id_disciplina "
+            + "LEFT JOIN turmas t ON t.id_turma = e.id_turma "
+            + "LEFT JOIN usuarios r ON r.id_usuario = e.id_responsavel ";
+
+    private static final String VERSAO_SQL = "SELECT (%s), MAX(e.data_atualizacao), COUNT(*), "
+            + "MAX(l.data_atualizacao), MAX(d.data_atualizacao), MAX(t.data_atualizacao), MAX(r.data_atualizacao), "
+            + "(SELECT MAX(lx.data_atualizacao) FROM eventos_agenda_excecoes x "
+            + "JOIN eventos_agenda e ON e.id_evento = x.id_evento "
+            + "JOIN locais_eventos lx ON lx.id_local_evento = x.id_local_evento "
+            + "WHERE e.regra_recorrencia IS NOT NULL AND %s AND " + JANELA + ") "
+            + "FROM eventos_agenda e " + NOMES + "WHERE %s AND " + JANELA;
+
+    private static final String EXCECOES_SQL = "SELECT x.id_evento, x.data_ocorrencia, x.cancelada, x.data_inicio, "
+            + "x.data_fim, l.nome_local, x.titulo, x.descricao, x.data_atualizacao "
+            + "FROM eventos_agenda_excecoes x "
+            + "JOIN eventos_agenda e ON e.id_evento = x.id_evento "
+            + "LEFT JOIN locais_eventos l ON l.id_local_evento = x.id_local_evento "
+            + "WHERE e.regra_recorrencia IS NOT NULL AND ";
+
+    private FeedAgenda() {
+    }
+
+    /**
+     * De quem é o feed. Cada escopo tem a tabela do dono (para responder 404)
+     * e o filtro dos eventos (?1 é o ID do dono).
+     */
+    public enum Escopo {
+        USUARIO("usuarios", "SELECT COUNT(*) FROM usuarios WHERE id_usuario = ?1",
+                "(e.id_responsavel = ?1"
+                + " OR e.id_turma IN (SELECT ut.id_turma FROM usuarios_turmas ut WHERE ut.id_usuario = ?1 AND ut.ativo = 1)"
+                + " OR e.id_evento IN (SELECT pe.id_evento FROM participantes_eventos pe WHERE pe.id_usuario = ?1))"),
+        TURMA("turmas", "SELECT COUNT(*) FROM turmas WHERE id_turma = ?1", "e.id_turma = ?1"),
+        DISCIPLINA("disciplinas", "SELECT COUNT(*) FROM disciplinas WHERE id_disciplina = ?1", "e.id_disciplina = ?1"),
+        LOCAL("locais", "SELECT COUNT(*) FROM locais_eventos WHERE id_local_evento = ?1", "e.id_local_evento = ?1");
+
+        private final String nome;
+        private final String donoSql;
+        private final String filtro;
+
+        Escopo(String nome, String donoSql, String filtro) {
+            this.nome = nome;
+            this.donoSql = donoSql;
+            this.filtro = filtro;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * @param nome Nome do escopo na URL (usuarios, turmas, disciplinas,
+         *        locais)
+         * @throws IllegalArgumentException se o nome não é de um escopo
+         */
+        public static Escopo of(String nome) {
+            for (Escopo escopo : values()) {
+                if (escopo.nome.equalsIgnoreCase(nome)) {
+                    return escopo;
+                }
+            }
+            throw new IllegalArgumentException("Escopo de agenda desconhecido: " + nome);
+        }
+    }
+
+    /**
+     * Versão de um feed: o que identifica o conteúdo sem lê-lo.
+     */
+    public static final class Versao {
+
+        private final Escopo escopo;
+        private final Integer id;
+        private final LocalDateTime desde;
+        private final boolean existe;
+        private final LocalDateTime ultimaAtualizacao;
+        private final long quantidade;
+        private final String tag;
+
+        Versao(Escopo escopo, Integer id, LocalDateTime desde, boolean existe, LocalDateTime ultimaAtualizacao,
+                long quantidade) {
+            this.escopo = escopo;
+            this.id = id;
+            this.desde = desde;
+            this.existe = existe;
+            this.ultimaAtualizacao = ultimaAtualizacao;
+            this.quantidade = quantidade;
+            this.tag = resumo(VERSAO_FORMATO + "|" + escopo + "|" + id + "|" + desde + "|" + ultimaAtualizacao
+                    + "|" + quantidade + "|" + CalendarioICS.fuso().getId());
+        }
+
+        public Escopo getEscopo() {
+            return escopo;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        /**
+         * @return Início da janela do feed
+         */
+        public LocalDateTime getDesde() {
+            return desde;
+        }
+
+        /**
+         * @return false se o usuário, turma, disciplina ou local não existe
+         */
+        public boolean isExiste() {
+            return existe;
+        }
+
+        /**
+         * @return Maior data_atualizacao dos eventos do feed e dos nomes que
+         *         eles exibem, ou null se vazio
+         */
+        public LocalDateTime getUltimaAtualizacao() {
+            return ultimaAtualizacao;
+        }
+
+        public long getQuantidade() {
+            return quantidade;
+        }
+
+        /**
+         * @return Valor do ETag (forte) desta versão
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        private static String resumo(String conteudo) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo.getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponível", e);
+            }
+        }
+    }
+
+    /**
+     * Versão do feed, com uma consulta de agregação.
+     */
+    static Versao versao(EntityManager em, Escopo escopo, Integer id, LocalDateTime desde) {
+        Object[] linha = (Object[]) em.createNativeQuery(String.format(VERSAO_SQL, escopo.donoSql, escopo.filtro,
+                escopo.filtro))
+                .setParameter(1, id)
+                .setParameter(2, Timestamp.valueOf(desde))
+                .getSingleResult();
+        LocalDateTime ultimaAtualizacao = dataHora(linha[1]);
+        for (int i = 3; i < linha.length; i++) {
+            LocalDateTime atualizacao = dataHora(linha[i]);
+            if (atualizacao != null && (ultimaAtualizacao == null || atualizacao.isAfter(ultimaAtualizacao))) {
+                ultimaAtualizacao = atualizacao;
+            }
+        }
+        return new Versao(escopo, id, desde, ((Number) linha[0]).longValue() > 0, ultimaAtualizacao,
+                ((Number) linha[2]).longValue());
+    }
+
+    /**
+     * Escreve o calendário da versão informada (mesmo escopo e janela).
+     */
+    static void escrever(EntityManager em, Versao versao, String nomeCalendario, Writer destino) throws IOException {
+        Map<Integer, List<Object[]>> excecoes = new HashMap<>();
+        for (Object[] excecao : consulta(em, EXCECOES_SQL + versao.escopo.filtro + " AND " + JANELA, versao)
+                .getResultList()) {
+            excecoes.computeIfAbsent(((Number) excecao[0]).intValue(), id -> new ArrayList<>()).add(excecao);
+        }
+
+        CalendarioICS calendario = new CalendarioICS(destino, nomeCalendario);
+        NativeQuery<Object[]> eventos = consulta(em,
+                EVENTOS_SQL + NOMES + "WHERE " + versao.escopo.filtro + " AND " + JANELA, versao);
+        eventos.setFetchSize(FETCH_SIZE).setReadOnly(true);
+        try (ScrollableResults<Object[]> cursor = eventos.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (cursor.next()) {
+                Object[] evento = cursor.get();
+                escreverEvento(calendario, evento, excecoes.getOrDefault(((Number) evento[0]).intValue(), List.of()));
+            }
+        }
+        calendario.concluir();
+    }
+
+    private static NativeQuery<Object[]> consulta(EntityManager em, String sql, Versao versao) {
+        NativeQuery<Object[]> consulta = em.unwrap(Session.class).createNativeQuery(sql, Object[].class);
+        consulta.setParameter(1, versao.id);
+        consulta.setParameter(2, Timestamp.valueOf(versao.desde));
+        return consulta;
+    }
+
+    /**
+     * Um evento (ou a série, com EXDATE e os VEVENTs das ocorrências
+     * alteradas).
+     */
+    private static void escreverEvento(CalendarioICS calendario, Object[] evento, List<Object[]> excecoes)
+            throws IOException {
+        String uid = "evento-" + evento[0] + "@sistema-avaliacao-unifae";
+        String titulo = texto(evento[1]);
+        LocalDateTime inicio = dataHora(evento[3]);
+        LocalDateTime fim = dataHora(evento[4]);
+        String local = texto(evento[5]);
+        String descricao = descricao(texto(evento[2]), texto(evento[11]), texto(evento[12]), texto(evento[13]));
+        String categoria = evento[6] == null ? null : TipoEvento.valueOf(evento[6].toString()).getDescricao();
+        String status = StatusEvento.CANCELADO.name().equals(String.valueOf(evento[7])) ? "CANCELLED" : "CONFIRMED";
+        LocalDateTime atualizacao = dataHora(evento[10]);
+
+        calendario.iniciarEvento(uid, atualizacao);
+        calendario.dataHora("DTSTART", inicio);
+        calendario.dataHora("DTEND", fim);
+        calendario.texto("SUMMARY", titulo);
+        calendario.texto("DESCRIPTION", descricao);
+        calendario.texto("LOCATION", local);
+        calendario.texto("CATEGORIES", categoria);
+        calendario.valor("STATUS", status);
+        calendario.dataHoraUtc("CREATED", dataHora(evento[9]));
+        calendario.dataHoraUtc("LAST-MODIFIED", atualizacao);
+        if (evento[8] == null) {
+            calendario.terminarEvento();
+            return;
+        }
+        calendario.valor("RRULE", RegraRecorrencia.of(evento[8].toString()).paraICalendar());
+        List<LocalDateTime> canceladas = new ArrayList<>();
+        for (Object[] excecao : excecoes) {
+            if (verdadeiro(excecao[2])) {
+                canceladas.add(dataHora(excecao[1]));
+            }
+        }
+        calendario.datasHoras("EXDATE", canceladas);
+        calendario.terminarEvento();
+
+        Duration duracao = fim == null ? null : Duration.between(inicio, fim);
+        for (Object[] excecao : excecoes) {
+            if (verdadeiro(excecao[2])) {
+                continue;
+            }
+            LocalDateTime ocorrencia = dataHora(excecao[1]);
+            LocalDateTime novoInicio = excecao[3] != null ? dataHora(excecao[3]) : ocorrencia;
+            LocalDateTime novoFim = excecao[4] != null ? dataHora(excecao[4])
+                    : duracao == null ? null : novoInicio.plus(duracao);
+            LocalDateTime alteracao = dataHora(excecao[8]);
+            calendario.iniciarEvento(uid, atualizacao == null || alteracao != null && alteracao.isAfter(atualizacao)
+                    ? alteracao : atualizacao);
+            calendario.dataHora("RECURRENCE-ID", ocorrencia);
+            calendario.dataHora("DTSTART", novoInicio);
+            calendario.dataHora("DTEND", novoFim);
+            calendario.texto("SUMMARY", excecao[6] != null ? texto(excecao[6]) : titulo);
+            calendario.texto("DESCRIPTION", excecao[7] != null
+                    ? descricao(texto(excecao[7]), texto(evento[11]), texto(evento[12]), texto(evento[13]))
+                    : descricao);
+            calendario.texto("LOCATION", excecao[5] != null ? texto(excecao[5]) : local);
+            calendario.texto("CATEGORIES", categoria);
+            calendario.valor("STATUS", status);
+            calendario.terminarEvento();
+        }
+    }
+
+    /**
+     * Descrição do evento seguida da disciplina, turma e responsável (os
+     * aplicativos não têm campos próprios para eles).
+     */
+    private static String descricao(String descricao, String disciplina, String turma, String responsavel) {
+        StringJoiner texto = new StringJoiner("\n");
+        if (descricao != null && !descricao.isBlank()) {
+            texto.add(descricao.strip());
+        }
+        if (disciplina != null) {
+            texto.add("Disciplina: " + disciplina);
+        }
+        if (turma != null) {
+            texto.add("Turma: " + turma);
+        }
+        if (responsavel != null) {
+            texto.add("Responsável: " + responsavel);
+        }
+        return texto.toString();
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+
+    private static String texto(Object valor) {
+        try {
+            return valor instanceof Clob clob ? clob.getSubString(1, (int) clob.length())
+                    : valor == null ? null : valor.toString();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao ler texto: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean verdadeiro(Object valor) {
+        return valor instanceof Boolean b ? b : valor instanceof Number n && n.intValue() != 0;
+    }
+}
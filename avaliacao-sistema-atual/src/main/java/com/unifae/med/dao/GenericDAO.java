@@ -1,11 +1,20 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.util.JPAUtil;
+import com.unifae.med.util.NamedQueryRegistry;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * GENERICDAO - CLASSE BASE PARA ACESSO A DADOS
@@ -48,6 +57,14 @@ import java.util.Optional;
  */
 public abstract class GenericDAO<T, ID> {
 
+    /**
+     * TAMANHO DO LOTE DE ESCRITA
+     * ==========================
+     * Mesmo valor de hibernate.jdbc.batch_size (persistence.xml): saveAll()
+     * descarrega o contexto a cada BATCH_SIZE entidades.
+     */
+    protected static final int BATCH_SIZE = 20;
+
     /**
      * CLASSE DA ENTIDADE GERENCIADA
      * ==============================
@@ -82,38 +99,73 @@ public abstract class GenericDAO<T, ID> {
      * - Retorna entidade gerenciada (attached)
      * 
      * TRATAMENTO DE TRANSAÇÃO:
-     * 1. Inicia transação
+     * 1. Inicia transação (ou participa da transação já ativa da requisição)
      * 2. Executa merge()
-     * 3. Commit se sucesso
+     * 3. Commit se sucesso (apenas se a transação foi aberta aqui)
      * 4. Rollback se erro
-     * 5. Sempre fecha EntityManager
+     * 5. Sempre libera EntityManager
      * 
      * @param entity Entidade a ser salva
      * @return Entidade salva e gerenciada pelo JPA
      * @throws RuntimeException se erro na operação
      */
     public T save(T entity) {
-        EntityManager em = JPAUtil.getEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
 
         try {
-            transaction.begin();
-            
             // merge() funciona para INSERT e UPDATE
             // Retorna entidade gerenciada (attached ao contexto)
             T savedEntity = em.merge(entity);
             
-            transaction.commit();
+            commitTransaction(em, ownTransaction);
             return savedEntity;
         } catch (Exception e) {
             // Rollback em caso de erro
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
+            rollbackTransaction(em, ownTransaction);
             throw new RuntimeException("Erro ao salvar entidade: " + e.getMessage(), e);
         } finally {
-            // Sempre fecha EntityManager para liberar recursos
-            em.close();
+            // Libera EntityManager (mantido aberto se for o da requisição)
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * SALVAR VÁRIAS ENTIDADES (CREATE/UPDATE EM LOTE)
+     * ================================================
+     * Salva todas as entidades em uma única transação: ou todas são gravadas,
+     * ou nenhuma. Equivale a chamar save() para cada item, mas sem abrir um
+     * EntityManager e uma transação por entidade.
+     *
+     * LOTES JDBC:
+     * Um flush() a cada BATCH_SIZE entidades envia os comandos pendentes
+     * agrupados (hibernate.jdbc.batch_size). UPDATEs e DELETEs são agrupados;
+     * INSERTs de entidades com IDENTITY são executados um a um, pois o
+     * Hibernate precisa do ID gerado pelo banco logo após cada inserção.
+     *
+     * @param entities Entidades a serem salvas
+     * @return Entidades salvas e gerenciadas, na mesma ordem
+     * @throws RuntimeException se erro na operação (nada é gravado)
+     */
+    public List<T> saveAll(Collection<? extends T> entities) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+
+        try {
+            List<T> savedEntities = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                savedEntities.add(em.merge(entity));
+                if (savedEntities.size() % BATCH_SIZE == 0) {
+                    em.flush();
+                }
+            }
+            commitTransaction(em, ownTransaction);
+            return savedEntities;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar entidades: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
@@ -151,7 +203,7 @@ public abstract class GenericDAO<T, ID> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar entidade por ID: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -159,36 +211,260 @@ public abstract class GenericDAO<T, ID> {
      * BUSCAR TODAS AS ENTIDADES (READ ALL)
      * =====================================
      * Retorna lista com todas as instâncias da entidade no banco.
-     * Usa JPQL dinâmico baseado no nome da classe.
+     * Usa a consulta nomeada "Entidade.findAll", registrada e compilada na
+     * inicialização pelo NamedQueryRegistry.
      * 
      * ATENÇÃO:
      * - Pode retornar muitos registros
-     * - Considere paginação para tabelas grandes
+     * - Para tabelas grandes use findPage() (paginação por cursor)
      * - Útil para listas de seleção e relatórios pequenos
      * 
      * JPQL GERADO:
      * Para Usuario.class: "SELECT e FROM Usuario e"
      * Para Questionario.class: "SELECT e FROM Questionario e"
      * 
+     * CACHE:
+     * Para entidades @Cacheable o resultado vai para o cache de consultas.
+     * 
      * @return Lista com todas as entidades (pode ser vazia)
      * @throws RuntimeException se erro na operação
      */
     public List<T> findAll() {
         EntityManager em = JPAUtil.getEntityManager();
         try {
-            // Constrói JPQL dinâmico usando nome da classe
-            String jpql = "SELECT e FROM " + entityClass.getSimpleName() + " e";
-            TypedQuery<T> query = em.createQuery(jpql, entityClass);
+            // Consulta genérica registrada para cada entidade (ver NamedQueryRegistry)
+            String name = entityClass.getSimpleName() + NamedQueryRegistry.FIND_ALL;
+            TypedQuery<T> query = cacheableIfReference(em.createNamedQuery(name, entityClass));
             
             // getResultList() nunca retorna null (lista vazia se nenhum resultado)
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar todas as entidades: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * BUSCAR PÁGINA (PAGINAÇÃO POR CURSOR / KEYSET)
+     * ==============================================
+     * Retorna no máximo request.getLimit() entidades, ordenadas pelo atributo
+     * request.getSort() com a chave primária como desempate, começando depois
+     * do cursor request.getAfter().
+     *
+     * POR QUE NÃO OFFSET:
+     * "LIMIT 50 OFFSET 100000" obriga o banco a ler e descartar 100 mil linhas;
+     * o custo cresce a cada página. Aqui a página seguinte é localizada pelo
+     * índice a partir dos valores do último registro entregue:
+     *   WHERE (sort, id) > (:valor, :id) ORDER BY sort, id LIMIT n+1
+     * e o custo é o mesmo na primeira ou na milésima página.
+     *
+     * REQUISITOS:
+     * - O atributo de ordenação deve estar em sortableAttributes() (lista
+     *   permitida de cada DAO: colunas NOT NULL e indexadas)
+     * - O cursor só vale para a mesma ordenação em que foi gerado
+     *
+     * @param request Parâmetros da página
+     * @return Página com as entidades e o cursor da próxima (null na última)
+     * @throws IllegalArgumentException se ordenação ou cursor forem inválidos
+     * @throws RuntimeException se erro na operação
+     */
+    public KeysetPage<T> findPage(KeysetPageRequest request) {
+        return findPage(request, new QueryFilter());
+    }
+
+    /**
+     * BUSCAR PÁGINA COM FILTRO (MÉTODO PROTEGIDO)
+     * ============================================
+     * Variante de findPage() para os DAOs filhos: os filtros do QueryFilter
+     * (sobre o alias "e") são combinados com AND ao critério do cursor.
+     *
+     * @param request Parâmetros da página
+     * @param filter Filtros opcionais (vazio = sem filtro)
+     * @return Página com as entidades e o cursor da próxima
+     * @throws IllegalArgumentException se ordenação ou cursor forem inválidos
+     * @throws RuntimeException se erro na operação
+     */
+    protected KeysetPage<T> findPage(KeysetPageRequest request, QueryFilter filter) {
+        return findPage(request, entityClass, "e", filter);
+    }
+
+    /**
+     * Variante de findPage() com projeção e sem filtro.
+     *
+     * @param request Parâmetros da página
+     * @param resultType Classe do resultado da projeção
+     * @param selection Expressão do SELECT sobre o alias "e"
+     * @return Página com os resultados e o cursor da próxima
+     */
+    protected <R> KeysetPage<R> findPage(KeysetPageRequest request, Class<R> resultType, String selection) {
+        return findPage(request, resultType, selection, new QueryFilter());
+    }
+
+    /**
+     * BUSCAR PÁGINA DE PROJEÇÕES (MÉTODO PROTEGIDO)
+     * ==============================================
+     * Mesma paginação por cursor de findPage(), mas selecionando direto no
+     * tipo de saída (normalmente um DTO) com uma expressão construtora:
+     *   "new com.unifae.med.rest.dto.NotaDTO(e.idNota, e.aluno.idUsuario, ...)"
+     *
+     * POR QUE PROJEÇÃO:
+     * - O banco devolve apenas as colunas que a tela/API usa
+     * - Nenhuma entidade é montada nem registrada no contexto de persistência
+     *   (sem snapshot para dirty checking, sem proxies de associações)
+     * - Ler o ID de uma associação ToOne (e.aluno.idUsuario) usa a chave
+     *   estrangeira da própria tabela, sem JOIN
+     *
+     * TOTAL SEM SEGUNDA CONSULTA:
+     * Se request.isIncludeTotal(), a primeira página (sem cursor) traz também
+     * o total de registros que atendem ao filtro, calculado na mesma consulta
+     * com COUNT(e) OVER (): o filtro é avaliado uma única vez, sem um SELECT
+     * COUNT separado. Nas páginas seguintes o total não é recalculado.
+     *
+     * @param request Parâmetros da página
+     * @param resultType Classe do resultado da projeção
+     * @param selection Expressão do SELECT sobre o alias "e"
+     * @param filter Filtros opcionais (vazio = sem filtro)
+     * @return Página com os resultados e o cursor da próxima
+     * @throws IllegalArgumentException se ordenação ou cursor forem inválidos
+     * @throws RuntimeException se erro na operação
+     */
+    protected <R> KeysetPage<R> findPage(KeysetPageRequest request, Class<R> resultType, String selection,
+            QueryFilter filter) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            EntityType<T> type = em.getMetamodel().entity(entityClass);
+            SingularAttribute<? super T, ?> idAttribute = type.getId(type.getIdType().getJavaType());
+            String idName = idAttribute.getName();
+
+            // Validação antes de acessar o banco: erros do cliente não viram erro 500
+            String sortName = KeysetPageRequest.SORT_ID.equals(request.getSort()) ? idName : request.getSort();
+            if (!sortName.equals(idName) && !sortableAttributes().contains(sortName)) {
+                throw new IllegalArgumentException("Ordenação não permitida: " + request.getSort());
+            }
+            Class<?> sortType = type.getAttribute(sortName).getJavaType();
+            boolean descending = request.isDescending();
+
+            KeysetCursor cursor = null;
+            if (request.getAfter() != null) {
+                cursor = KeysetCursor.decode(request.getAfter());
+                if (!cursor.matches(request.getSort(), descending)) {
+                    throw new IllegalArgumentException("Cursor gerado com outra ordenação");
+                }
+            }
+
+            boolean withTotal = request.isIncludeTotal() && cursor == null;
+            StringBuilder jpql = new StringBuilder("SELECT ").append(selection)
+                    .append(", e.").append(sortName)
+                    .append(", e.").append(idName);
+            if (withTotal) {
+                jpql.append(", COUNT(e) OVER ()");
+            }
+            jpql.append(" FROM ").append(entityClass.getSimpleName()).append(" e WHERE ")
+                    .append(filter.toJpql("e"));
+            String comparison = descending ? " < " : " > ";
+            if (cursor != null) {
+                if (sortName.equals(idName)) {
+                    jpql.append(" AND e.").append(idName).append(comparison).append(":keysetId");
+                } else {
+                    // A primeira condição (>= / <=) permite ao banco usar o índice do atributo
+                    jpql.append(" AND e.").append(sortName).append(descending ? " <= " : " >= ").append(":keysetValue")
+                            .append(" AND (e.").append(sortName).append(comparison).append(":keysetValue")
+                            .append(" OR e.").append(idName).append(comparison).append(":keysetId)");
+                }
+            }
+            String direction = descending ? " DESC" : " ASC";
+            jpql.append(" ORDER BY e.").append(sortName).append(direction);
+            if (!sortName.equals(idName)) {
+                jpql.append(", e.").append(idName).append(direction);
+            }
+
+            TypedQuery<Object[]> query = filter.applyTo(em.createQuery(jpql.toString(), Object[].class));
+            if (cursor != null) {
+                query.setParameter("keysetId", cursor.idAs(idAttribute.getJavaType()));
+                if (!sortName.equals(idName)) {
+                    query.setParameter("keysetValue", cursor.valueAs(sortType));
+                }
+            }
+            // Um registro a mais indica se existe próxima página
+            query.setMaxResults(request.getLimit() + 1);
+
+            List<Object[]> rows;
+            try {
+                rows = query.getResultList();
+            } catch (Exception e) {
+                throw new RuntimeException("Erro ao buscar página de entidades: " + e.getMessage(), e);
+            }
+
+            boolean hasNext = rows.size() > request.getLimit();
+            List<Object[]> pageRows = hasNext ? rows.subList(0, request.getLimit()) : rows;
+            List<R> items = new ArrayList<>(pageRows.size());
+            for (Object[] row : pageRows) {
+                items.add(resultType.cast(row[0]));
+            }
+
+            String nextCursor = null;
+            if (hasNext) {
+                Object[] last = pageRows.get(pageRows.size() - 1);
+                nextCursor = KeysetCursor.encode(request.getSort(), descending, last[2], last[1]);
+            }
+            Long total = null;
+            if (withTotal) {
+                total = rows.isEmpty() ? 0L : ((Number) rows.get(0)[3]).longValue();
+            }
+            return new KeysetPage<>(items, nextCursor, total);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * BUSCAR PROJEÇÃO POR ID (MÉTODO PROTEGIDO)
+     * ==========================================
+     * Equivalente a findById() para leituras que só precisam de um DTO:
+     * seleciona as colunas da projeção sem carregar a entidade.
+     *
+     * Não use em entidades @Cacheable: em.find() delas costuma ser atendido
+     * pelo cache de segundo nível, sem ir ao banco.
+     *
+     * @param id Chave primária da entidade
+     * @param resultType Classe do resultado da projeção
+     * @param selection Expressão do SELECT sobre o alias "e"
+     * @return Optional com a projeção, vazio se o ID não existir
+     * @throws RuntimeException se erro na operação
+     */
+    protected <R> Optional<R> findProjectionById(ID id, Class<R> resultType, String selection) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            EntityType<T> type = em.getMetamodel().entity(entityClass);
+            String idName = type.getId(type.getIdType().getJavaType()).getName();
+            String jpql = "SELECT " + selection + " FROM " + entityClass.getSimpleName()
+                    + " e WHERE e." + idName + " = :id";
+            return em.createQuery(jpql, resultType)
+                    .setParameter("id", id)
+                    .getResultStream()
+                    .findFirst();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar projeção por ID: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
+    /**
+     * ATRIBUTOS PERMITIDOS PARA ORDENAÇÃO NA PAGINAÇÃO
+     * =================================================
+     * DAOs filhos sobrescrevem para liberar ordenações além da chave primária
+     * (sempre permitida). Use apenas atributos NOT NULL com índice no banco:
+     * com valores nulos a comparação do cursor pula registros, e sem índice
+     * cada página vira uma varredura com ordenação da tabela inteira.
+     *
+     * @return Nomes dos atributos da entidade liberados para ordenação
+     */
+    protected Set<String> sortableAttributes() {
+        return Collections.emptySet();
+    }
+
     /**
      * DELETAR ENTIDADE (DELETE)
      * ==========================
@@ -209,26 +485,22 @@ public abstract class GenericDAO<T, ID> {
      * @throws RuntimeException se erro na operação
      */
     public void delete(T entity) {
-        EntityManager em = JPAUtil.getEntityManager();
-        EntityTransaction transaction = em.getTransaction();
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
 
         try {
-            transaction.begin();
-            
             // merge() garante que entidade está gerenciada
             T managedEntity = em.merge(entity);
             
             // remove() só funciona com entidades gerenciadas
             em.remove(managedEntity);
             
-            transaction.commit();
+            commitTransaction(em, ownTransaction);
         } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
-            }
+            rollbackTransaction(em, ownTransaction);
             throw new RuntimeException("Erro ao deletar entidade: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -239,7 +511,8 @@ public abstract class GenericDAO<T, ID> {
      * Conveniência para quando só temos a chave primária.
      * 
      * PROCESSO:
-     * 1. Busca entidade por ID
+     * 1. Busca entidade por ID (no primário: a réplica de leitura pode
+     *    ainda não ter recebido a linha)
      * 2. Se encontrada, deleta
      * 3. Se não encontrada, lança exceção
      * 
@@ -247,11 +520,15 @@ public abstract class GenericDAO<T, ID> {
      * @throws RuntimeException se entidade não encontrada ou erro na operação
      */
     public void deleteById(ID id) {
-        Optional<T> entity = findById(id);
-        if (entity.isPresent()) {
-            delete(entity.get());
-        } else {
-            throw new RuntimeException("Entidade não encontrada para o ID: " + id);
+        EntityManager em = getWriteEntityManager();
+        try {
+            T entity = em.find(entityClass, id);
+            if (entity == null) {
+                throw new RuntimeException("Entidade não encontrada para o ID: " + id);
+            }
+            delete(entity);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
@@ -260,6 +537,7 @@ public abstract class GenericDAO<T, ID> {
      * =========================
      * Retorna número total de registros da entidade no banco.
      * Útil para paginação e estatísticas.
+     * Usa a consulta nomeada "Entidade.count" (ver NamedQueryRegistry).
      * 
      * JPQL GERADO:
      * Para Usuario.class: "SELECT COUNT(e) FROM Usuario e"
@@ -274,15 +552,15 @@ public abstract class GenericDAO<T, ID> {
     public long count() {
         EntityManager em = JPAUtil.getEntityManager();
         try {
-            String jpql = "SELECT COUNT(e) FROM " + entityClass.getSimpleName() + " e";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            String name = entityClass.getSimpleName() + NamedQueryRegistry.COUNT;
+            TypedQuery<Long> query = cacheableIfReference(em.createNamedQuery(name, Long.class));
             
             // getSingleResult() para queries que retornam um único valor
             return query.getSingleResult();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao contar entidades: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -293,8 +571,9 @@ public abstract class GenericDAO<T, ID> {
      * Útil para queries específicas que não estão no GenericDAO.
      * 
      * RESPONSABILIDADE:
-     * - Classes filhas devem fechar o EntityManager
-     * - Usar em métodos específicos dos DAOs filhos
+     * - Classes filhas devem liberar o EntityManager com closeEntityManager()
+     * - Nunca chamar em.close() diretamente: durante uma requisição web o
+     *   EntityManager é compartilhado por todos os DAOs (ver JPAUtil)
      * 
      * EXEMPLO DE USO EM DAO FILHO:
      * public List<Usuario> findByNome(String nome) {
@@ -302,14 +581,141 @@ public abstract class GenericDAO<T, ID> {
      *     try {
      *         // query específica
      *     } finally {
-     *         em.close();
+     *         closeEntityManager(em);
      *     }
      * }
      * 
-     * @return EntityManager novo para operações customizadas
+     * @return EntityManager da requisição ou novo para operações customizadas
      */
     protected EntityManager getEntityManager() {
         return JPAUtil.getEntityManager();
     }
-}
 
+    /**
+     * OBTER ENTITYMANAGER PARA ESCRITA (MÉTODO PROTEGIDO)
+     * ====================================================
+     * Igual a getEntityManager(), mas sempre no banco primário. Todo método
+     * que abre transação (beginTransaction) deve usar este: em requisições de
+     * leitura getEntityManager() pode devolver o EntityManager da réplica,
+     * cujas conexões são somente leitura (ver JPAUtil).
+     * 
+     * @return EntityManager do primário (o da requisição, se houver escopo)
+     */
+    protected EntityManager getWriteEntityManager() {
+        return JPAUtil.getWriteEntityManager();
+    }
+
+    /**
+     * OBTER ENTITYMANAGER DE LEITURA NO PRIMÁRIO (MÉTODO PROTEGIDO)
+     * ==============================================================
+     * Leitura sempre no banco primário, sem desviar o restante da requisição
+     * da réplica. Usado pelas leituras que preenchem caches da aplicação
+     * (CacheLimitado), que não podem guardar dados da réplica atrasada (ver
+     * JPAUtil.getPrimaryReadEntityManager()).
+     * 
+     * @return EntityManager do primário (o da requisição, se houver escopo)
+     */
+    protected EntityManager getPrimaryReadEntityManager() {
+        return JPAUtil.getPrimaryReadEntityManager();
+    }
+
+    /**
+     * MARCAR CONSULTA COMO CACHEÁVEL (MÉTODO PROTEGIDO)
+     * ==================================================
+     * Guarda o resultado no cache de consultas do Hibernate. O resultado é
+     * invalidado automaticamente quando qualquer tabela envolvida é alterada,
+     * portanto só compensa em consultas sobre dados que mudam pouco
+     * (entidades de referência: disciplinas, turmas, locais, questionários...).
+     * 
+     * @param query Consulta a ser marcada
+     * @return A mesma consulta, para encadeamento
+     */
+    protected <R> TypedQuery<R> cacheable(TypedQuery<R> query) {
+        return query.setHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    /**
+     * Aplica cacheable() apenas quando a entidade gerenciada é @Cacheable.
+     * Usado pelas consultas genéricas (findAll, count) desta classe.
+     */
+    private <R> TypedQuery<R> cacheableIfReference(TypedQuery<R> query) {
+        return entityClass.isAnnotationPresent(Cacheable.class) ? cacheable(query) : query;
+    }
+
+    /**
+     * LIBERAR ENTITYMANAGER (MÉTODO PROTEGIDO)
+     * =========================================
+     * Fecha EntityManagers avulsos e mantém aberto o da requisição.
+     * 
+     * @param em EntityManager obtido via getEntityManager()
+     */
+    protected void closeEntityManager(EntityManager em) {
+        JPAUtil.closeEntityManager(em);
+    }
+
+    /**
+     * INICIAR TRANSAÇÃO (MÉTODO PROTEGIDO)
+     * =====================================
+     * Abre uma transação apenas se ainda não houver uma ativa no EntityManager.
+     * Com o EntityManager da requisição isso permite que várias chamadas de DAO
+     * participem da mesma transação (ver JPAUtil.executeInTransaction).
+     * 
+     * Recusa o EntityManager da réplica de leitura: quem escreve deve obtê-lo
+     * com getWriteEntityManager().
+     * 
+     * @param em EntityManager da operação
+     * @return true se a transação foi aberta por esta chamada (e deve ser
+     *         confirmada/desfeita por ela)
+     * @throws IllegalStateException se em for o EntityManager da réplica
+     */
+    protected boolean beginTransaction(EntityManager em) {
+        if (JPAUtil.isReadReplica(em)) {
+            throw new IllegalStateException("Escrita no EntityManager da réplica de leitura; use getWriteEntityManager()");
+        }
+        EntityTransaction transaction = em.getTransaction();
+        if (transaction.isActive()) {
+            return false;
+        }
+        transaction.begin();
+        return true;
+    }
+
+    /**
+     * CONFIRMAR TRANSAÇÃO (MÉTODO PROTEGIDO)
+     * =======================================
+     * @param em EntityManager da operação
+     * @param ownTransaction valor devolvido por beginTransaction()
+     */
+    protected void commitTransaction(EntityManager em, boolean ownTransaction) {
+        if (ownTransaction) {
+            em.getTransaction().commit();
+        }
+    }
+
+    /**
+     * DESFAZER TRANSAÇÃO (MÉTODO PROTEGIDO)
+     * ======================================
+     * Transação própria: rollback imediato. No EntityManager da requisição o
+     * contexto também é limpo, pois pode conter alterações que não chegaram ao
+     * banco e seriam enviadas no próximo commit.
+     * Transação externa: apenas marca para rollback; quem a abriu decide.
+     * 
+     * @param em EntityManager da operação
+     * @param ownTransaction valor devolvido por beginTransaction()
+     */
+    protected void rollbackTransaction(EntityManager em, boolean ownTransaction) {
+        EntityTransaction transaction = em.getTransaction();
+        if (!ownTransaction) {
+            if (transaction.isActive()) {
+                transaction.setRollbackOnly();
+            }
+            return;
+        }
+        if (transaction.isActive()) {
+            transaction.rollback();
+        }
+        if (JPAUtil.isRequestScoped(em)) {
+            em.clear();
+        }
+    }
+}
@@ -0,0 +1,607 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.StatusEvento;
+import com.unifae.med.util.ArvoreIntervalos;
+import com.unifae.med.util.JPAUtil;
+import com.unifae.med.util.RegraRecorrencia;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * INDICE CONFLITOS AGENDA - OCUPAÇÃO DOS LOCAIS, EM MEMÓRIA
+ * ========================================================
+ *
+ * Mantém, para cada local, os horários ocupados pelos eventos que não
+ * foram cancelados, numa ArvoreIntervalos. Verificar conflito e listar os
+ * eventos sobrepostos a um horário não consulta o banco.
+ *
+ * Um evento ocupa o local de data_inicio até data_fim (intervalo
+ * semiaberto: pode começar outro evento no horário em que ele termina).
+ * Eventos sem local, sem data de fim ou CANCELADOS não ocupam.
+ *
+ * SÉRIES:
+ * Um evento recorrente ocupa um intervalo por ocorrência (expandidas por
+ * OcorrenciasAgenda, com as exceções): a série inteira é verificada ao
+ * gravar, e ocorrências canceladas não ocupam. Uma ocorrência remarcada
+ * para outro local ocupa esse local.
+ *
+ * CARGA:
+ * Cada local é carregado na primeira consulta, com uma leitura dos seus
+ * eventos (índice idx_evento_local), das séries com ocorrências remarcadas
+ * para ele e das exceções dessas séries.
+ *
+ * RESERVA ATÔMICA:
+ * O EventoAgendaDAO chama reservar() na transação de cada gravação que
+ * muda a ocupação de um local. A reserva trava a linha do local em
+ * locais_eventos_versoes (SELECT ... FOR UPDATE): duas gravações no mesmo
+ * local, mesmo em servidores diferentes, ficam em fila até o commit da
+ * primeira, e a verificação e a gravação acontecem sem que outra reserva
+ * passe entre elas.
+ * A linha guarda um número de versão, incrementado a cada gravação no
+ * local. Com a trava, se a versão do banco é a mesma do índice, o índice
+ * está completo e a verificação é feita em memória; se não (outro
+ * servidor gravou), os eventos do local são relidos antes da verificação.
+ * Depois do commit a alteração entra no índice; rollback não altera nada.
+ *
+ * Gravações feitas fora do EventoAgendaDAO (SQL manual, exclusão de um
+ * local, que limpa o local dos eventos) não mudam a versão: aparecem após
+ * descartar() (tarefa descartar-indice-conflitos, ver AgendadorListener).
+ *
+ * CONCORRÊNCIA:
+ * Cada local é protegido pelo próprio objeto (synchronized); a leitura do
+ * banco acontece fora dele.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgendaDAO.java: Chama reservar() ao gravar e expõe as consultas
+ * - ArvoreIntervalos.java: Horários ocupados de um local
+ * - OcorrenciasAgenda.java: Ocorrências das séries
+ * - 01-script_estrutura_dados_banco_unifae.sql: Tabela locais_eventos_versoes
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class IndiceConflitosAgenda {
+
+    private static final String TABELA_VERSOES = "locais_eventos_versoes";
+
+    /**
+     * Versão de um local não carregado ou carregado durante uma alteração.
+     */
+    private static final long DESCONHECIDA = -1;
+
+    private static final int MAX_TENTATIVAS = 3;
+
+    private static final String CRIAR_VERSAO_SQL = "INSERT IGNORE INTO locais_eventos_versoes (id_local_evento) VALUES (?1)";
+
+    private static final String TRAVAR_VERSAO_SQL = "SELECT versao FROM locais_eventos_versoes "
+            + "WHERE id_local_evento = ?1 FOR UPDATE";
+
+    private static final String LER_VERSAO_SQL = "SELECT versao FROM locais_eventos_versoes WHERE id_local_evento = ?1";
+
+    private static final String INCREMENTAR_VERSAO_SQL = "UPDATE locais_eventos_versoes SET versao = versao + 1 "
+            + "WHERE id_local_evento = ?1";
+
+    private static final String EVENTOS_SQL = "SELECT id_evento, data_inicio, data_fim, regra_recorrencia, "
+            + "id_local_evento FROM eventos_agenda "
+            + "WHERE id_local_evento = ?1 AND status_evento <> 'CANCELADO' AND data_fim > data_inicio";
+
+    /**
+     * Séries com ocorrências remarcadas para o local.
+     */
+    private static final String SERIES_REMARCADAS_SQL = "SELECT e.id_evento, e.data_inicio, e.data_fim, "
+            + "e.regra_recorrencia, e.id_local_evento FROM eventos_agenda e "
+            + "WHERE e.id_evento IN (SELECT x.id_evento FROM eventos_agenda_excecoes x WHERE x.id_local_evento = ?1) "
+            + "AND e.status_evento <> 'CANCELADO' AND e.data_fim > e.data_inicio";
+
+    private static final String EXCECOES_SQL = "SELECT id_evento, data_ocorrencia, cancelada, data_inicio, data_fim, "
+            + "id_local_evento FROM eventos_agenda_excecoes WHERE id_evento IN (?1)";
+
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final Map<Integer, Local> LOCAIS = new ConcurrentHashMap<>();
+
+    private IndiceConflitosAgenda() {
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    /**
+     * @param idLocal Local
+     * @param inicio Início do horário
+     * @param fim Fim do horário
+     * @param idEvento Evento ignorado (o próprio evento na edição), ou null
+     * @return true se outro evento ocupa o local em parte do horário
+     */
+    static boolean temConflito(Integer idLocal, LocalDateTime inicio, LocalDateTime fim, Integer idEvento) {
+        Local local = carregado(idLocal);
+        synchronized (local) {
+            return local.arvore.existeSobreposto(inicio, fim, id -> !id.equals(idEvento));
+        }
+    }
+
+    /**
+     * @return IDs dos eventos que ocupam o local em parte do horário, na
+     *         ordem de início, sem idEvento
+     */
+    static List<Integer> conflitos(Integer idLocal, LocalDateTime inicio, LocalDateTime fim, Integer idEvento) {
+        Local local = carregado(idLocal);
+        synchronized (local) {
+            return conflitos(local.arvore, inicio, fim, idEvento);
+        }
+    }
+
+    /**
+     * Uma série tem um intervalo por ocorrência, todos com o ID dela: cada
+     * evento aparece uma vez, na posição da primeira ocorrência do horário,
+     * e idEvento sai com todas as ocorrências.
+     *
+     * @return IDs distintos dos eventos sobrepostos, na ordem de início, sem
+     *         idEvento
+     */
+    static List<Integer> conflitos(ArvoreIntervalos<Integer> arvore, LocalDateTime inicio, LocalDateTime fim,
+            Integer idEvento) {
+        Set<Integer> ids = new LinkedHashSet<>(arvore.sobrepostos(inicio, fim));
+        ids.remove(idEvento);
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * DESCARTAR O ÍNDICE
+     * ==================
+     * Esquece todos os locais; cada um é recarregado na próxima consulta.
+     *
+     * @return Quantidade de locais descartados
+     */
+    static int descartar() {
+        int locais = LOCAIS.size();
+        LOCAIS.clear();
+        return locais;
+    }
+
+    // ========================================
+    // GRAVAÇÃO (CHAMADA PELO EVENTOAGENDADAO)
+    // ========================================
+
+    /**
+     * OCUPAÇÃO GRAVADA DO EVENTO
+     * ==========================
+     * Lê do banco local, horário, status e regra (e as exceções, se for
+     * uma série), ignorando alterações ainda não enviadas
+     * (FlushModeType.COMMIT): com o EntityManager da requisição a entidade
+     * pode já estar alterada em memória.
+     *
+     * @param em EntityManager da transação de escrita
+     * @param idEvento ID do evento (null para evento novo)
+     * @return Ocupação atual no banco, ou null se o evento não existe
+     */
+    static Ocupacao ocupacaoGravada(EntityManager em, Integer idEvento) {
+        if (idEvento == null) {
+            return null;
+        }
+        List<Object[]> linhas = em.createNamedQuery("EventoAgenda.ocupacao", Object[].class)
+                .setParameter("id", idEvento)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        if (linhas.isEmpty()) {
+            return null;
+        }
+        Object[] linha = linhas.get(0);
+        List<OcorrenciasAgenda.Alteracao> alteracoes = new ArrayList<>();
+        if (linha[4] != null) {
+            for (Object[] excecao : em.createNamedQuery("EventoAgendaExcecao.alteracoes", Object[].class)
+                    .setParameter("id", idEvento)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getResultList()) {
+                alteracoes.add(new OcorrenciasAgenda.Alteracao((LocalDateTime) excecao[0], (Boolean) excecao[1],
+                        (LocalDateTime) excecao[2], (LocalDateTime) excecao[3], (Integer) excecao[4]));
+            }
+        }
+        return Ocupacao.calcular((Integer) linha[0], (LocalDateTime) linha[1], (LocalDateTime) linha[2],
+                (StatusEvento) linha[3], (String) linha[4], alteracoes);
+    }
+
+    /**
+     * RESERVAR
+     * ========
+     * Trava os locais cuja ocupação muda (em ordem de ID: duas reservas
+     * que mudam os mesmos dois locais não travam um cada e esperam pelo
+     * outro) e verifica se os novos horários estão livres. Horários que o
+     * evento já ocupava não são verificados de novo: editar o título de uma
+     * série não verifica todas as ocorrências. Deve ser chamado antes de
+     * gravar o evento; depois do flush(), Reserva.confirmar().
+     *
+     * @param em EntityManager da transação de escrita
+     * @param idEvento ID do evento (null para evento novo)
+     * @param antes Ocupação gravada (null para evento novo)
+     * @param depois Nova ocupação (null para exclusão)
+     * @return Reserva a confirmar depois da gravação
+     * @throws IllegalStateException se um horário está ocupado por outro
+     *         evento
+     */
+    static Reserva reservar(EntityManager em, Integer idEvento, Ocupacao antes, Ocupacao depois) {
+        Reserva reserva = new Reserva(depois);
+        Map<Integer, List<Intervalo>> anteriores = antes == null ? Map.of() : antes.porLocal;
+        Map<Integer, List<Intervalo>> novos = depois == null ? Map.of() : depois.porLocal;
+        Set<Integer> locais = new TreeSet<>(anteriores.keySet());
+        locais.addAll(novos.keySet());
+        for (Integer idLocal : locais) {
+            if (!Objects.equals(anteriores.get(idLocal), novos.get(idLocal))) {
+                reserva.versoes.put(idLocal, null);
+            }
+        }
+        for (Integer idLocal : reserva.versoes.keySet()) {
+            executar(em, CRIAR_VERSAO_SQL, idLocal);
+            long versao = ((Number) nativa(em, TRAVAR_VERSAO_SQL, idLocal).getSingleResult()).longValue();
+            reserva.versoes.put(idLocal, versao);
+            Local local = sincronizar(em, idLocal, versao);
+            Set<Intervalo> jaOcupados = new HashSet<>(anteriores.getOrDefault(idLocal, List.of()));
+            for (Intervalo intervalo : novos.getOrDefault(idLocal, List.of())) {
+                if (jaOcupados.contains(intervalo)) {
+                    continue;
+                }
+                List<Integer> conflitos;
+                synchronized (local) {
+                    conflitos = local.arvore.sobrepostos(intervalo.inicio, intervalo.fim);
+                }
+                conflitos.removeIf(id -> id.equals(idEvento));
+                if (!conflitos.isEmpty()) {
+                    throw new IllegalStateException("Conflito de horário: já existe evento agendado para este local "
+                            + "no período especificado ("
+                            + (depois.serie ? "ocorrência de " + intervalo.inicio.format(DATA_HORA) + "; " : "")
+                            + "eventos " + conflitos + ").");
+                }
+            }
+        }
+        return reserva;
+    }
+
+    /**
+     * Com a trava do local: relê os eventos se o índice não está na versão
+     * do banco. A leitura também trava (FOR UPDATE) para ver o último
+     * commit, e não a fotografia da transação.
+     */
+    private static Local sincronizar(EntityManager em, Integer idLocal, long versao) {
+        Local local = LOCAIS.computeIfAbsent(idLocal, id -> new Local());
+        synchronized (local) {
+            if (local.versao == versao) {
+                return local;
+            }
+        }
+        Map<Integer, List<Intervalo>> eventos = lerEventos(em, idLocal, true);
+        synchronized (local) {
+            local.instalar(eventos, versao);
+        }
+        return local;
+    }
+
+    /**
+     * Reserva de uma gravação: locais travados e a versão lida de cada um.
+     */
+    static final class Reserva {
+
+        private final Ocupacao depois;
+        private final Map<Integer, Long> versoes = new TreeMap<>();
+
+        private Reserva(Ocupacao depois) {
+            this.depois = depois;
+        }
+
+        /**
+         * Incrementa a versão dos locais travados e agenda a atualização
+         * do índice para depois do commit.
+         *
+         * @param em EntityManager da transação de escrita
+         * @param idEvento ID do evento gravado ou excluído
+         */
+        void confirmar(EntityManager em, Integer idEvento) {
+            if (versoes.isEmpty()) {
+                return;
+            }
+            versoes.keySet().forEach(idLocal -> executar(em, INCREMENTAR_VERSAO_SQL, idLocal));
+            Transaction transacao = em.unwrap(Session.class).getTransaction();
+            if (!transacao.isActive()) {
+                aplicar(idEvento);
+                return;
+            }
+            transacao.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        aplicar(idEvento);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Aplica a alteração nos locais que o índice tem na versão lida na
+         * reserva. Um local em outra versão já inclui a alteração (foi
+         * relido depois do commit) ou está atrasado e é descartado.
+         */
+        private void aplicar(Integer idEvento) {
+            versoes.forEach((idLocal, versao) -> {
+                Local local = LOCAIS.get(idLocal);
+                if (local == null) {
+                    return;
+                }
+                synchronized (local) {
+                    local.alteracoes++;
+                    if (local.versao == versao) {
+                        local.remover(idEvento);
+                        List<Intervalo> intervalos = depois == null ? null : depois.porLocal.get(idLocal);
+                        if (intervalos != null) {
+                            local.incluir(idEvento, intervalos);
+                        }
+                        local.versao = versao + 1;
+                    } else if (local.versao != DESCONHECIDA && local.versao <= versao) {
+                        local.versao = DESCONHECIDA;
+                    }
+                }
+            });
+        }
+    }
+
+    // ========================================
+    // CARGA
+    // ========================================
+
+    /**
+     * Local pronto para consulta. Sem trava no banco: lê a versão e depois
+     * os eventos (os eventos são tão ou mais novos que a versão; a próxima
+     * reserva corrige a diferença). Se uma alteração do local é aplicada
+     * durante a leitura, a carga é refeita.
+     */
+    private static Local carregado(Integer idLocal) {
+        Local local = LOCAIS.computeIfAbsent(idLocal, id -> new Local());
+        for (int tentativa = 1; ; tentativa++) {
+            long alteracoes;
+            synchronized (local) {
+                if (local.versao != DESCONHECIDA) {
+                    return local;
+                }
+                alteracoes = local.alteracoes;
+            }
+            EntityManager em = JPAUtil.getWriteEntityManager();
+            try {
+                List<?> versoes = nativa(em, LER_VERSAO_SQL, idLocal).getResultList();
+                long versao = versoes.isEmpty() ? 0 : ((Number) versoes.get(0)).longValue();
+                Map<Integer, List<Intervalo>> eventos = lerEventos(em, idLocal, false);
+                synchronized (local) {
+                    boolean estavel = local.alteracoes == alteracoes;
+                    if (estavel || tentativa == MAX_TENTATIVAS) {
+                        local.instalar(eventos, estavel ? versao : DESCONHECIDA);
+                        return local;
+                    }
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Erro ao carregar a ocupação do local " + idLocal + ": " + e.getMessage(), e);
+            } finally {
+                JPAUtil.closeEntityManager(em);
+            }
+        }
+    }
+
+    /**
+     * Horários ocupados no local por evento: os eventos do local e as
+     * séries com ocorrências remarcadas para ele, com as exceções.
+     */
+    private static Map<Integer, List<Intervalo>> lerEventos(EntityManager em, Integer idLocal, boolean travar) {
+        String travaSql = travar ? " FOR UPDATE" : "";
+        Map<Integer, Object[]> linhas = new HashMap<>();
+        for (String sql : new String[]{EVENTOS_SQL, SERIES_REMARCADAS_SQL}) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> lidas = nativa(em, sql + travaSql, idLocal).getResultList();
+            lidas.forEach(linha -> linhas.put(((Number) linha[0]).intValue(), linha));
+        }
+        Map<Integer, List<OcorrenciasAgenda.Alteracao>> alteracoes = new HashMap<>();
+        List<Integer> series = new ArrayList<>();
+        linhas.forEach((idEvento, linha) -> {
+            if (linha[3] != null) {
+                series.add(idEvento);
+            }
+        });
+        if (!series.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> excecoes = nativa(em, EXCECOES_SQL + travaSql, series).getResultList();
+            for (Object[] excecao : excecoes) {
+                alteracoes.computeIfAbsent(((Number) excecao[0]).intValue(), id -> new ArrayList<>())
+                        .add(new OcorrenciasAgenda.Alteracao(dataHora(excecao[1]), verdadeiro(excecao[2]),
+                                dataHora(excecao[3]), dataHora(excecao[4]),
+                                excecao[5] == null ? null : ((Number) excecao[5]).intValue()));
+            }
+        }
+        Map<Integer, List<Intervalo>> eventos = new HashMap<>(linhas.size() * 2);
+        linhas.forEach((idEvento, linha) -> {
+            Ocupacao ocupacao = Ocupacao.calcular(linha[4] == null ? null : ((Number) linha[4]).intValue(),
+                    dataHora(linha[1]), dataHora(linha[2]), StatusEvento.AGENDADO, (String) linha[3],
+                    alteracoes.getOrDefault(idEvento, List.of()));
+            List<Intervalo> intervalos = ocupacao.porLocal.get(idLocal);
+            if (intervalos != null) {
+                eventos.put(idEvento, intervalos);
+            }
+        });
+        return eventos;
+    }
+
+    /**
+     * Comandos nativos sem enviar alterações pendentes da entidade e sem
+     * invalidar o cache de segundo nível (declaram a própria tabela).
+     */
+    private static Query nativa(EntityManager em, String sql, Object... parametros) {
+        Query query = em.createNativeQuery(sql).setFlushMode(FlushModeType.COMMIT);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABELA_VERSOES);
+        for (int i = 0; i < parametros.length; i++) {
+            query.setParameter(i + 1, parametros[i]);
+        }
+        return query;
+    }
+
+    private static void executar(EntityManager em, String sql, Object... parametros) {
+        nativa(em, sql, parametros).executeUpdate();
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+
+    private static boolean verdadeiro(Object valor) {
+        return valor instanceof Boolean booleano ? booleano : ((Number) valor).intValue() != 0;
+    }
+
+    // ========================================
+    // ESTRUTURAS
+    // ========================================
+
+    /**
+     * Eventos de um local: a árvore de horários e, por evento, os horários
+     * ocupados (para retirá-los da árvore).
+     */
+    private static final class Local {
+
+        private ArvoreIntervalos<Integer> arvore = new ArvoreIntervalos<>(Comparator.naturalOrder());
+        private final Map<Integer, List<Intervalo>> eventos = new HashMap<>();
+        private long versao = DESCONHECIDA;
+        private long alteracoes;
+
+        private void instalar(Map<Integer, List<Intervalo>> lidos, long novaVersao) {
+            arvore = new ArvoreIntervalos<>(Comparator.naturalOrder());
+            eventos.clear();
+            lidos.forEach(this::incluir);
+            versao = novaVersao;
+        }
+
+        private void incluir(Integer idEvento, List<Intervalo> intervalos) {
+            eventos.put(idEvento, intervalos);
+            intervalos.forEach(intervalo -> arvore.inserir(intervalo.inicio, intervalo.fim, idEvento));
+        }
+
+        private void remover(Integer idEvento) {
+            List<Intervalo> intervalos = eventos.remove(idEvento);
+            if (intervalos != null) {
+                intervalos.forEach(intervalo -> arvore.remover(intervalo.inicio, intervalo.fim, idEvento));
+            }
+        }
+    }
+
+    /**
+     * Um horário ocupado.
+     */
+    static final class Intervalo {
+
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+
+        private Intervalo(LocalDateTime inicio, LocalDateTime fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Intervalo)) {
+                return false;
+            }
+            Intervalo outro = (Intervalo) o;
+            return inicio.equals(outro.inicio) && fim.equals(outro.fim);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(inicio, fim);
+        }
+    }
+
+    /**
+     * O que do evento decide a ocupação dos locais: os horários ocupados em
+     * cada local (um por ocorrência, numa série).
+     */
+    static final class Ocupacao {
+
+        private final Map<Integer, List<Intervalo>> porLocal;
+        private final boolean serie;
+
+        private Ocupacao(Map<Integer, List<Intervalo>> porLocal, boolean serie) {
+            this.porLocal = porLocal;
+            this.serie = serie;
+        }
+
+        /**
+         * @param evento Evento a gravar
+         * @param alteracoes Exceções da série (vazio em eventos simples)
+         */
+        static Ocupacao of(EventoAgenda evento, Collection<OcorrenciasAgenda.Alteracao> alteracoes) {
+            return calcular(OcorrenciasAgenda.idLocal(evento), evento.getDataInicio(), evento.getDataFim(),
+                    evento.getStatusEvento(), evento.getRegraRecorrencia(), alteracoes);
+        }
+
+        static Ocupacao calcular(Integer idLocal, LocalDateTime inicio, LocalDateTime fim, StatusEvento status,
+                String regra, Collection<OcorrenciasAgenda.Alteracao> alteracoes) {
+            Map<Integer, List<Intervalo>> porLocal = new TreeMap<>();
+            if (status == StatusEvento.CANCELADO || inicio == null) {
+                return new Ocupacao(porLocal, regra != null);
+            }
+            if (regra == null) {
+                if (idLocal != null && fim != null && fim.isAfter(inicio)) {
+                    porLocal.put(idLocal, List.of(new Intervalo(inicio, fim)));
+                }
+                return new Ocupacao(porLocal, false);
+            }
+            for (OcorrenciasAgenda.Ocorrencia ocorrencia : OcorrenciasAgenda.expandir(inicio, fim, idLocal,
+                    RegraRecorrencia.of(regra), OcorrenciasAgenda.porOcorrencia(alteracoes), null, null)) {
+                if (ocorrencia.ocupa()) {
+                    porLocal.computeIfAbsent(ocorrencia.idLocal, id -> new ArrayList<>())
+                            .add(new Intervalo(ocorrencia.inicio, ocorrencia.fim));
+                }
+            }
+            return new Ocupacao(porLocal, true);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Ocupacao)) {
+                return false;
+            }
+            return porLocal.equals(((Ocupacao) o).porLocal);
+        }
+
+        @Override
+        public int hashCode() {
+            return porLocal.hashCode();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.unifae.med.dao;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * KEYSETCURSOR - CURSOR OPACO DA PAGINAÇÃO
+ * =========================================
+ *
+ * Guarda a posição do último registro entregue: valor do atributo de
+ * ordenação + chave primária (desempate). Também registra a ordenação usada,
+ * para rejeitar um cursor reaproveitado com outra ordenação.
+ *
+ * FORMATO (antes do Base64 URL-safe, sem padding):
+ *   v1|<sort>|<a|d>|<id>|<valor>
+ * O valor fica por último porque pode conter "|".
+ *
+ * O cliente não deve interpretar o conteúdo: o formato pode mudar
+ * (por isso o prefixo de versão).
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final boolean descending;
+    private final String id;
+    private final String value;
+
+    private KeysetCursor(String sort, boolean descending, String id, String value) {
+        this.sort = sort;
+        this.descending = descending;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Gera o cursor que aponta para depois do registro informado.
+     *
+     * @param sort Chave de ordenação da página
+     * @param descending Direção da ordenação
+     * @param id Chave primária do último registro
+     * @param value Valor do atributo de ordenação no último registro
+     * @return Cursor codificado
+     */
+    static String encode(String sort, boolean descending, Object id, Object value) {
+        String raw = String.join(SEPARATOR, VERSION, sort, descending ? "d" : "a",
+                toText(id), toText(value));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     *
+     * @param cursor Texto recebido no parâmetro "after"
+     * @return Cursor decodificado
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+            return new KeysetCursor(parts[1], "d".equals(parts[2]), parts[3], parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+
+    /**
+     * @return true se o cursor foi gerado com a mesma ordenação
+     */
+    boolean matches(String sort, boolean descending) {
+        return this.sort.equals(sort) && this.descending == descending;
+    }
+
+    Object idAs(Class<?> type) {
+        return parse(id, type);
+    }
+
+    Object valueAs(Class<?> type) {
+        return parse(value, type);
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return String.valueOf(value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(String text, Class<?> type) {
+        try {
+            if (type == String.class) {
+                return text;
+            }
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(text);
+            }
+            if (type == Long.class || type == long.class) {
+                return Long.valueOf(text);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(text);
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(text);
+            }
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(text);
+            }
+            if (type == LocalTime.class) {
+                return LocalTime.parse(text);
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, text);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+        throw new IllegalArgumentException("Tipo de ordenação não suportado: " + type.getSimpleName());
+    }
+}
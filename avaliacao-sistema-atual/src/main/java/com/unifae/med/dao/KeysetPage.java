@@ -0,0 +1,71 @@
+package com.unifae.med.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * KEYSETPAGE - RESULTADO DE UMA PÁGINA (PAGINAÇÃO POR CURSOR)
+ * ============================================================
+ *
+ * Contém os registros da página e o cursor opaco para buscar a próxima.
+ * Quando nextCursor é null não há mais páginas.
+ *
+ * Não há número de página de propósito. O total de registros só vem
+ * preenchido quando pedido explicitamente (KeysetPageRequest.isIncludeTotal())
+ * e apenas na primeira página; nas demais é null. Recalcular o total a cada
+ * página exigiria percorrer o filtro inteiro a cada requisição, e é
+ * exatamente esse custo crescente que a paginação por cursor evita.
+ *
+ * @param <T> Tipo dos itens da página (entidade ou DTO)
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.1
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final Long total;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+
+    public KeysetPage(List<T> items, String nextCursor, Long total) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return Total de registros do filtro, ou null se não foi calculado
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Converte os itens mantendo o mesmo cursor e total (ex: entidade → DTO).
+     *
+     * @param mapper Função de conversão
+     * @return Nova página com os itens convertidos
+     */
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().map(mapper).collect(Collectors.toList());
+        return new KeysetPage<>(mapped, nextCursor, total);
+    }
+}
@@ -0,0 +1,78 @@
+package com.unifae.med.dao;
+
+/**
+ * KEYSETPAGEREQUEST - PARÂMETROS DE UMA PÁGINA (PAGINAÇÃO POR CURSOR)
+ * ====================================================================
+ *
+ * Descreve qual página buscar em GenericDAO.findPage():
+ * - sort: atributo de ordenação (deve estar na lista permitida do DAO; padrão "id")
+ * - descending: direção da ordenação
+ * - after: cursor opaco devolvido na página anterior (null = primeira página)
+ * - limit: quantidade máxima de registros na página
+ * - includeTotal: se a primeira página deve trazer o total de registros
+ *   (calculado na mesma consulta da página; ignorado quando há cursor)
+ *
+ * Imutável. Criado normalmente pela camada REST a partir dos parâmetros
+ * de consulta (?limit=&after=&sort=&order=&total=).
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.1
+ */
+public final class KeysetPageRequest {
+
+    /**
+     * Chave de ordenação padrão: a chave primária da entidade.
+     */
+    public static final String SORT_ID = "id";
+
+    private final String sort;
+    private final boolean descending;
+    private final String after;
+    private final int limit;
+    private final boolean includeTotal;
+
+    public KeysetPageRequest(String sort, boolean descending, String after, int limit) {
+        this(sort, descending, after, limit, false);
+    }
+
+    public KeysetPageRequest(String sort, boolean descending, String after, int limit, boolean includeTotal) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Tamanho de página deve ser maior que zero: " + limit);
+        }
+        this.sort = (sort == null || sort.isBlank()) ? SORT_ID : sort.trim();
+        this.descending = descending;
+        this.after = (after == null || after.isBlank()) ? null : after.trim();
+        this.limit = limit;
+        this.includeTotal = includeTotal;
+    }
+
+    /**
+     * Primeira página ordenada pela chave primária.
+     *
+     * @param limit Tamanho da página
+     * @return Requisição da primeira página
+     */
+    public static KeysetPageRequest first(int limit) {
+        return new KeysetPageRequest(SORT_ID, false, null, limit);
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isIncludeTotal() {
+        return includeTotal;
+    }
+}
@@ -1,16 +1,44 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.LocalEvento;
+import com.unifae.med.rest.dto.LocalEventoDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
+import java.util.Set;
 
 public class LocalEventoDAO extends GenericDAO<LocalEvento, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new LocalEventoDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + LocalEventoDTO.class.getName()
+            + "(e.idLocalEvento, e.nomeLocal, e.tipoLocal, e.endereco, e.cidade, e.estado)";
+
     public LocalEventoDAO() {
         super(LocalEvento.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomeLocal");
+    }
+
+    /**
+     * Página de locais já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<LocalEventoDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, LocalEventoDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Busca todos os locais de eventos ordenados por nome
      */
@@ -18,13 +46,12 @@ public class LocalEventoDAO extends GenericDAO<LocalEvento, Integer> {
     public List<LocalEvento> findAll() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT l FROM LocalEvento l ORDER BY l.nomeLocal";
-            TypedQuery<LocalEvento> query = em.createQuery(jpql, LocalEvento.class);
+            TypedQuery<LocalEvento> query = cacheable(em.createNamedQuery("LocalEvento.findAllOrderByNome", LocalEvento.class));
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar todos os locais de eventos: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -34,14 +61,13 @@ public class LocalEventoDAO extends GenericDAO<LocalEvento, Integer> {
     public List<LocalEvento> findByTipo(String tipoLocal) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT l FROM LocalEvento l WHERE l.tipoLocal = :tipoLocal ORDER BY l.nomeLocal";
-            TypedQuery<LocalEvento> query = em.createQuery(jpql, LocalEvento.class);
+            TypedQuery<LocalEvento> query = em.createNamedQuery("LocalEvento.findByTipo", LocalEvento.class);
             query.setParameter("tipoLocal", tipoLocal);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar locais por tipo: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -51,14 +77,13 @@ public class LocalEventoDAO extends GenericDAO<LocalEvento, Integer> {
     public List<LocalEvento> findByCidade(String cidade) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT l FROM LocalEvento l WHERE l.cidade = :cidade ORDER BY l.nomeLocal";
-            TypedQuery<LocalEvento> query = em.createQuery(jpql, LocalEvento.class);
+            TypedQuery<LocalEvento> query = em.createNamedQuery("LocalEvento.findByCidade", LocalEvento.class);
             query.setParameter("cidade", cidade);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar locais por cidade: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -68,14 +93,13 @@ public class LocalEventoDAO extends GenericDAO<LocalEvento, Integer> {
     public List<LocalEvento> findByNomeContaining(String nome) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT l FROM LocalEvento l WHERE LOWER(l.nomeLocal) LIKE LOWER(:nome) ORDER BY l.nomeLocal";
-            TypedQuery<LocalEvento> query = em.createQuery(jpql, LocalEvento.class);
+            TypedQuery<LocalEvento> query = em.createNamedQuery("LocalEvento.findByNomeContaining", LocalEvento.class);
             query.setParameter("nome", "%" + nome + "%");
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar locais por nome: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
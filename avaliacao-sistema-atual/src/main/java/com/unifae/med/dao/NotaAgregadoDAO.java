@@ -0,0 +1,471 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.EscopoAgregado;
+import com.unifae.med.entity.Nota;
+import com.unifae.med.entity.NotaAgregado;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * NOTA AGREGADO DAO - MANUTENÇÃO INCREMENTAL DAS MÉDIAS DE NOTAS
+ * ==============================================================
+ *
+ * Mantém a tabela notas_agregados (ver NotaAgregado) sempre igual ao que
+ * os SUM/AVG sobre notas devolveriam, e lê as médias em uma única linha.
+ *
+ * MANUTENÇÃO INCREMENTAL:
+ * O NotaDAO chama aplicar() dentro da transação de cada gravação de Nota,
+ * com o estado da nota antes (lido do banco) e depois da alteração:
+ * - A contribuição antiga é subtraída e a nova somada em cada grupo
+ *   (aluno, aluno × disciplina, turma × disciplina). Notas inativas não
+ *   contribuem: inativar equivale a remover, reativar a incluir
+ * - Cada grupo é atualizado com um único INSERT ... ON DUPLICATE KEY
+ *   UPDATE atômico no banco (quantidade = quantidade + delta), sem ler a
+ *   linha antes: gravações concorrentes no mesmo grupo não perdem valores
+ * - Nota mínima/máxima: somar uma nota só compara com o extremo atual; ao
+ *   remover uma nota igual ao extremo, ele é recalculado (MIN/MAX no grupo)
+ * - Como é a mesma transação, um rollback desfaz nota e agregados juntos
+ *
+ * Gravações feitas fora do NotaDAO (SQL manual, scripts) não atualizam os
+ * agregados: reconstruir() refaz a tabela (e notas_distribuicoes, ver
+ * NotaDistribuicaoDAO) a partir de notas
+ * (POST /api/notas/agregados/reconstruir).
+ *
+ * CACHE:
+ * Os comandos nativos declaram apenas NotaAgregado como espaço afetado;
+ * sem isso o Hibernate invalidaria todo o cache de segundo nível a cada
+ * nota gravada.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaAgregado.java / EscopoAgregado.java: Entidade e grupos
+ * - NotaDAO.java: Chama aplicar() ao gravar e lê as médias por aqui
+ * - 01-script_estrutura_dados_banco_unifae.sql: Tabela notas_agregados
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class NotaAgregadoDAO extends GenericDAO<NotaAgregado, Integer> {
+
+    /**
+     * Soma o delta de um grupo, criando a linha se ainda não existir. A
+     * menor/maior nota só é comparada com o valor incluído (nulo quando o
+     * grupo apenas perdeu notas; LEAST/GREATEST com nulo devolvem nulo, por
+     * isso o COALESCE).
+     */
+    private static final String UPSERT_SQL = "INSERT INTO notas_agregados "
+            + "(escopo, id_referencia, id_disciplina, quantidade, soma_valores, soma_ponderada, soma_pesos, "
+            + "nota_minima, nota_maxima) VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?8) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "quantidade = quantidade + VALUES(quantidade), "
+            + "soma_valores = soma_valores + VALUES(soma_valores), "
+            + "soma_ponderada = soma_ponderada + VALUES(soma_ponderada), "
+            + "soma_pesos = soma_pesos + VALUES(soma_pesos), "
+            + "nota_minima = COALESCE(LEAST(nota_minima, VALUES(nota_minima)), nota_minima, VALUES(nota_minima)), "
+            + "nota_maxima = COALESCE(GREATEST(nota_maxima, VALUES(nota_maxima)), nota_maxima, VALUES(nota_maxima))";
+
+    /**
+     * Condição de cada escopo sobre a tabela notas (apenas notas ativas).
+     */
+    private static final Map<EscopoAgregado, String> FILTRO_GRUPO = Map.of(
+            EscopoAgregado.ALUNO, "n.id_aluno = ?1",
+            EscopoAgregado.ALUNO_DISCIPLINA, "n.id_aluno = ?1 AND n.id_disciplina = ?2",
+            EscopoAgregado.TURMA_DISCIPLINA, "n.id_turma = ?1 AND n.id_disciplina = ?2");
+
+    /**
+     * Recalcula menor e maior nota do grupo, apenas se o valor removido era
+     * um dos extremos.
+     */
+    private static String recalcularExtremosSql(EscopoAgregado escopo) {
+        String filtro = FILTRO_GRUPO.get(escopo);
+        return "UPDATE notas_agregados SET "
+                + "nota_minima = (SELECT MIN(n.valor_nota) FROM notas n WHERE " + filtro + " AND n.ativo = 1), "
+                + "nota_maxima = (SELECT MAX(n.valor_nota) FROM notas n WHERE " + filtro + " AND n.ativo = 1) "
+                + "WHERE escopo = ?3 AND id_referencia = ?1 AND id_disciplina = ?2 "
+                + "AND (nota_minima >= ?4 OR nota_maxima <= ?4)";
+    }
+
+    /**
+     * Reconstrução de um escopo: o mesmo SUM/COUNT/MIN/MAX que o
+     * incremental mantém, agrupado sobre todas as notas ativas.
+     */
+    private static final Map<EscopoAgregado, String> RECONSTRUIR_SQL = Map.of(
+            EscopoAgregado.ALUNO, reconstruirSql(EscopoAgregado.ALUNO,
+                    "n.id_aluno", String.valueOf(NotaAgregado.TODAS_DISCIPLINAS), "", "n.id_aluno"),
+            EscopoAgregado.ALUNO_DISCIPLINA, reconstruirSql(EscopoAgregado.ALUNO_DISCIPLINA,
+                    "n.id_aluno", "n.id_disciplina", "", "n.id_aluno, n.id_disciplina"),
+            EscopoAgregado.TURMA_DISCIPLINA, reconstruirSql(EscopoAgregado.TURMA_DISCIPLINA,
+                    "n.id_turma", "n.id_disciplina", " AND n.id_turma IS NOT NULL", "n.id_turma, n.id_disciplina"));
+
+    private static String reconstruirSql(EscopoAgregado escopo, String referencia, String disciplina,
+            String filtro, String agrupamento) {
+        return "INSERT INTO notas_agregados "
+                + "(escopo, id_referencia, id_disciplina, quantidade, soma_valores, soma_ponderada, soma_pesos, "
+                + "nota_minima, nota_maxima) "
+                + "SELECT '" + escopo.name() + "', " + referencia + ", " + disciplina + ", COUNT(*), "
+                + "SUM(n.valor_nota), COALESCE(SUM(n.valor_nota * n.peso_nota), 0), COALESCE(SUM(n.peso_nota), 0), "
+                + "MIN(n.valor_nota), MAX(n.valor_nota) "
+                + "FROM notas n WHERE n.ativo = 1" + filtro + " GROUP BY " + agrupamento;
+    }
+
+    public NotaAgregadoDAO() {
+        super(NotaAgregado.class);
+    }
+
+    // ========================================
+    // LEITURA
+    // ========================================
+
+    /**
+     * BUSCAR AGREGADO DE UM GRUPO
+     * ===========================
+     * Leitura de uma linha pela chave única (escopo, referência, disciplina).
+     *
+     * @param escopo Grupo
+     * @param idReferencia Aluno ou turma, conforme o escopo
+     * @param idDisciplina Disciplina (NotaAgregado.TODAS_DISCIPLINAS no escopo ALUNO)
+     * @return Agregado, vazio se o grupo nunca teve notas
+     */
+    public Optional<NotaAgregado> findByGrupo(EscopoAgregado escopo, Integer idReferencia, Integer idDisciplina) {
+        EntityManager em = getEntityManager();
+        try {
+            return Optional.of(em.createNamedQuery("NotaAgregado.findByGrupo", NotaAgregado.class)
+                    .setParameter("escopo", escopo)
+                    .setParameter("idReferencia", idReferencia)
+                    .setParameter("idDisciplina", idDisciplina)
+                    .getSingleResult());
+        } catch (NoResultException e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar agregado de notas: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * CONTAR APROVADOS NA DISCIPLINA
+     * ==============================
+     * Alunos cuja média simples na disciplina é ao menos mediaAprovacao.
+     *
+     * @param idDisciplina Disciplina
+     * @param mediaAprovacao Média mínima (ex: 6.0)
+     * @return Quantidade de alunos aprovados
+     */
+    public Long contarAprovadosDisciplina(Integer idDisciplina, BigDecimal mediaAprovacao) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createNamedQuery("NotaAgregado.contarAprovadosDisciplina", Long.class)
+                    .setParameter("idDisciplina", idDisciplina)
+                    .setParameter("mediaAprovacao", mediaAprovacao)
+                    .getSingleResult();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao contar alunos aprovados: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * AGREGADOS DE UM ALUNO
+     * =====================
+     * Linha ALUNO (média geral) e linhas ALUNO_DISCIPLINA do aluno em uma
+     * consulta pela chave única, com o nome da disciplina (nulo na linha
+     * ALUNO). Grupos sem notas ativas ficam de fora.
+     *
+     * @param idAluno Aluno
+     * @return Pares [NotaAgregado, nome da disciplina], em ordem de disciplina
+     */
+    public List<Object[]> findByAluno(Integer idAluno) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createNamedQuery("NotaAgregado.findByAluno", Object[].class)
+                    .setParameter("idAluno", idAluno)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao buscar agregados do aluno: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    // ========================================
+    // MANUTENÇÃO (CHAMADA PELO NOTADAO)
+    // ========================================
+
+    /**
+     * ESTADO GRAVADO DA NOTA
+     * ======================
+     * Lê do banco os campos que afetam os agregados, ignorando alterações
+     * ainda não enviadas (FlushModeType.COMMIT): com o EntityManager da
+     * requisição a entidade pode já estar alterada em memória.
+     *
+     * @param em EntityManager da transação de escrita
+     * @param idNota ID da nota (null para nota nova)
+     * @return Estado atual no banco, ou null se a nota não existe
+     */
+    EstadoNota estadoGravado(EntityManager em, Integer idNota) {
+        if (idNota == null) {
+            return null;
+        }
+        List<Object[]> linhas = em.createNamedQuery("Nota.estadoAgregado", Object[].class)
+                .setParameter("id", idNota)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        if (linhas.isEmpty()) {
+            return null;
+        }
+        Object[] linha = linhas.get(0);
+        return new EstadoNota((Integer) linha[0], (Integer) linha[1], (Integer) linha[2],
+                (BigDecimal) linha[3], (BigDecimal) linha[4], Boolean.TRUE.equals(linha[5]));
+    }
+
+    /**
+     * APLICAR ALTERAÇÃO DE UMA NOTA
+     * =============================
+     * Deve ser chamado na transação que gravou a nota, depois do flush().
+     *
+     * @param em EntityManager da transação de escrita
+     * @param antes Estado anterior (null para inclusão)
+     * @param depois Estado novo (null para exclusão)
+     */
+    void aplicar(EntityManager em, EstadoNota antes, EstadoNota depois) {
+        if (Objects.equals(antes, depois)) {
+            return;
+        }
+        Map<Grupo, Delta> deltas = new LinkedHashMap<>();
+        if (antes != null && antes.ativo) {
+            for (Grupo grupo : antes.grupos()) {
+                deltas.computeIfAbsent(grupo, g -> new Delta()).remover(antes);
+            }
+        }
+        if (depois != null && depois.ativo) {
+            for (Grupo grupo : depois.grupos()) {
+                deltas.computeIfAbsent(grupo, g -> new Delta()).incluir(depois);
+            }
+        }
+        deltas.forEach((grupo, delta) -> aplicarDelta(em, grupo, delta));
+    }
+
+    private void aplicarDelta(EntityManager em, Grupo grupo, Delta delta) {
+        if (delta.isNulo()) {
+            return;
+        }
+        executar(em, UPSERT_SQL, grupo.escopo.name(), grupo.idReferencia, grupo.idDisciplina,
+                delta.quantidade, delta.somaValores, delta.somaPonderada, delta.somaPesos, delta.incluido);
+        if (delta.removido != null) {
+            executar(em, recalcularExtremosSql(grupo.escopo), grupo.idReferencia, grupo.idDisciplina,
+                    grupo.escopo.name(), delta.removido);
+        }
+    }
+
+    /**
+     * RECONSTRUIR TODOS OS AGREGADOS
+     * ==============================
+     * Apaga e recalcula a tabela inteira a partir das notas ativas, em uma
+     * única transação. Para reparo (ex: notas alteradas por SQL manual). As
+     * distribuições das notas (notas_distribuicoes) são refeitas junto.
+     *
+     * @return Quantidade de grupos gravados em notas_agregados
+     */
+    public int reconstruir() {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            em.flush();
+            executar(em, "DELETE FROM notas_agregados");
+            int grupos = 0;
+            for (EscopoAgregado escopo : EscopoAgregado.values()) {
+                grupos += executar(em, RECONSTRUIR_SQL.get(escopo));
+            }
+            NotaDistribuicaoDAO.reconstruir(em);
+            commitTransaction(em, ownTransaction);
+            return grupos;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao reconstruir agregados de notas: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private static int executar(EntityManager em, String sql, Object... parametros) {
+        Query query = em.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(NotaAgregado.class);
+        for (int i = 0; i < parametros.length; i++) {
+            query.setParameter(i + 1, parametros[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Campos de uma nota que afetam os agregados.
+     */
+    static final class EstadoNota {
+
+        private final Integer idAluno;
+        private final Integer idDisciplina;
+        private final Integer idTurma;
+        private final BigDecimal valor;
+        private final BigDecimal peso;
+        private final boolean ativo;
+
+        EstadoNota(Integer idAluno, Integer idDisciplina, Integer idTurma, BigDecimal valor, BigDecimal peso,
+                boolean ativo) {
+            this.idAluno = idAluno;
+            this.idDisciplina = idDisciplina;
+            this.idTurma = idTurma;
+            this.valor = valor;
+            this.peso = peso;
+            this.ativo = ativo;
+        }
+
+        /**
+         * Estado de uma nota gerenciada (após merge). Os IDs das associações
+         * LAZY são lidos do proxy, sem consulta.
+         */
+        static EstadoNota of(Nota nota) {
+            return new EstadoNota(nota.getAluno().getIdUsuario(), nota.getDisciplina().getIdDisciplina(),
+                    nota.getTurma() != null ? nota.getTurma().getIdTurma() : null,
+                    nota.getValorNota(), nota.getPesoNota(), Boolean.TRUE.equals(nota.getAtivo()));
+        }
+
+        Integer getIdAluno() {
+            return idAluno;
+        }
+
+        Integer getIdDisciplina() {
+            return idDisciplina;
+        }
+
+        Integer getIdTurma() {
+            return idTurma;
+        }
+
+        BigDecimal getValor() {
+            return valor;
+        }
+
+        BigDecimal getPeso() {
+            return peso;
+        }
+
+        boolean isAtivo() {
+            return ativo;
+        }
+
+        private List<Grupo> grupos() {
+            List<Grupo> grupos = new ArrayList<>(3);
+            grupos.add(new Grupo(EscopoAgregado.ALUNO, idAluno, NotaAgregado.TODAS_DISCIPLINAS));
+            grupos.add(new Grupo(EscopoAgregado.ALUNO_DISCIPLINA, idAluno, idDisciplina));
+            if (idTurma != null) {
+                grupos.add(new Grupo(EscopoAgregado.TURMA_DISCIPLINA, idTurma, idDisciplina));
+            }
+            return grupos;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof EstadoNota)) {
+                return false;
+            }
+            EstadoNota outro = (EstadoNota) o;
+            return ativo == outro.ativo && Objects.equals(idAluno, outro.idAluno)
+                    && Objects.equals(idDisciplina, outro.idDisciplina) && Objects.equals(idTurma, outro.idTurma)
+                    && compareNullable(valor, outro.valor) && compareNullable(peso, outro.peso);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAluno, idDisciplina, idTurma, ativo);
+        }
+
+        private static boolean compareNullable(BigDecimal a, BigDecimal b) {
+            return a == null ? b == null : b != null && a.compareTo(b) == 0;
+        }
+    }
+
+    /**
+     * Chave de uma linha de notas_agregados.
+     */
+    private static final class Grupo {
+
+        private final EscopoAgregado escopo;
+        private final Integer idReferencia;
+        private final Integer idDisciplina;
+
+        private Grupo(EscopoAgregado escopo, Integer idReferencia, Integer idDisciplina) {
+            this.escopo = escopo;
+            this.idReferencia = idReferencia;
+            this.idDisciplina = idDisciplina;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Grupo)) {
+                return false;
+            }
+            Grupo outro = (Grupo) o;
+            return escopo == outro.escopo && idReferencia.equals(outro.idReferencia)
+                    && idDisciplina.equals(outro.idDisciplina);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(escopo, idReferencia, idDisciplina);
+        }
+    }
+
+    /**
+     * Diferença a aplicar em um grupo: remoção da contribuição antiga e/ou
+     * inclusão da nova.
+     */
+    private static final class Delta {
+
+        private int quantidade;
+        private BigDecimal somaValores = BigDecimal.ZERO;
+        private BigDecimal somaPonderada = BigDecimal.ZERO;
+        private BigDecimal somaPesos = BigDecimal.ZERO;
+        private BigDecimal incluido;
+        private BigDecimal removido;
+
+        private void incluir(EstadoNota nota) {
+            quantidade++;
+            somaValores = somaValores.add(nota.valor);
+            if (nota.peso != null) {
+                somaPonderada = somaPonderada.add(nota.valor.multiply(nota.peso));
+                somaPesos = somaPesos.add(nota.peso);
+            }
+            incluido = nota.valor;
+        }
+
+        private void remover(EstadoNota nota) {
+            quantidade--;
+            somaValores = somaValores.subtract(nota.valor);
+            if (nota.peso != null) {
+                somaPonderada = somaPonderada.subtract(nota.valor.multiply(nota.peso));
+                somaPesos = somaPesos.subtract(nota.peso);
+            }
+            removido = nota.valor;
+        }
+
+        /**
+         * A mesma nota saiu e entrou sem mudar valor nem peso no grupo (ex:
+         * troca de turma vista do grupo do aluno).
+         */
+        private boolean isNulo() {
+            return quantidade == 0 && somaValores.signum() == 0 && somaPonderada.signum() == 0
+                    && somaPesos.signum() == 0 && (incluido == null || removido == null
+                    || incluido.compareTo(removido) == 0);
+        }
+    }
+}
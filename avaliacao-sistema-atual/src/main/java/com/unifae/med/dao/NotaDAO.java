@@ -1,17 +1,32 @@
 package com.unifae.med.dao;
 
+import com.unifae.med.entity.EscopoAgregado;
 import com.unifae.med.entity.Nota;
+import com.unifae.med.entity.NotaAgregado;
 import com.unifae.med.entity.Usuario;
 import com.unifae.med.entity.Disciplina;
 import com.unifae.med.entity.Turma;
 import com.unifae.med.entity.TipoAvaliacao;
+import com.unifae.med.rest.dto.BoletimTurmaDTO;
+import com.unifae.med.rest.dto.DashboardAlunoDTO;
+import com.unifae.med.rest.dto.NotaDTO;
+import com.unifae.med.rest.dto.RankingTurmaDTO;
+import com.unifae.med.util.DistribuicaoValores;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 
 /**
  * NOTA DAO - DATA ACCESS OBJECT PARA NOTAS (CORRIGIDO)
@@ -25,20 +40,54 @@ import java.util.Optional;
  * FUNCIONALIDADES:
  * - CRUD básico de notas
  * - Busca por aluno, disciplina, turma
- * - Cálculo de médias
+ * - Cálculo de médias (lidas de notas_agregados, ver NotaAgregadoDAO)
  * - Filtros por tipo de avaliação
  * - Relatórios e estatísticas
+ * - Boletim da turma em uma consulta (ver BoletimTurmaAcumulador)
+ * - Notas recentes e resumo das médias do painel do aluno
+ * - Distribuição das notas (medianas e percentis, ver NotaDistribuicaoDAO)
+ * - Ranking dos alunos da turma por média (ver RankingNotas)
  * 
  * RELACIONAMENTO COM OUTROS ARQUIVOS:
  * - GenericDAO.java: Classe pai com operações básicas
  * - Nota.java: Entidade JPA manipulada
+ * - NotaAgregadoDAO.java: Médias mantidas na mesma transação de cada gravação
+ * - NotaDistribuicaoDAO.java: Contagem por valor mantida junto com as médias
+ * - RankingNotas.java: Rankings em memória, atualizados após o commit
  * - NotaServlet.java: Controlador que usa este DAO
  * 
+ * MÉDIAS E CONTAGENS:
+ * save(), saveAll() e delete() atualizam notas_agregados e
+ * notas_distribuicoes na mesma transação da nota (inclusão, alteração, inativação pelo campo ativo e exclusão). As
+ * médias e contagens são lidas de uma única linha dessa tabela, em vez de
+ * SUM/AVG sobre todas as notas do aluno, disciplina ou turma.
+ * 
  * @author Sistema de Avaliação UNIFAE
- * @version 1.1 - Corrigido LazyInitializationException
+ * @version 1.2 - Médias mantidas em notas_agregados
  */
 public class NotaDAO extends GenericDAO<Nota, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new NotaDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + NotaDTO.class.getName()
+            + "(e.idNota, e.aluno.idUsuario, e.disciplina.idDisciplina, e.turma.idTurma, "
+            + "e.professor.idUsuario, e.valorNota, e.pesoNota, e.tipoAvaliacao, "
+            + "e.descricaoAvaliacao, e.dataAvaliacao, e.dataLancamento, e.observacoes, e.ativo)";
+
+    /**
+     * Média mínima para aprovação na disciplina.
+     */
+    private static final BigDecimal MEDIA_APROVACAO = new BigDecimal("6.0");
+
+    /**
+     * Linhas buscadas por ida ao banco ao ler as notas do boletim.
+     */
+    private static final int BOLETIM_FETCH_SIZE = 500;
+
+    private final NotaAgregadoDAO agregados = new NotaAgregadoDAO();
+
     /**
      * CONSTRUTOR
      * ==========
@@ -48,6 +97,128 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
         super(Nota.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("dataAvaliacao");
+    }
+
+    /**
+     * Página de notas já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<NotaDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, NotaDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca o DTO pelo ID sem carregar a entidade.
+     *
+     * @param id ID do registro.
+     * @return Optional com o DTO, vazio se não existir.
+     */
+    public Optional<NotaDTO> findDTOById(Integer id) {
+        return findProjectionById(id, NotaDTO.class, DTO_SELECTION);
+    }
+
+    // ========================================
+    // GRAVAÇÃO (COM ATUALIZAÇÃO DOS AGREGADOS)
+    // ========================================
+
+    /**
+     * SALVAR NOTA
+     * ===========
+     * Igual ao GenericDAO.save(), atualizando notas_agregados na mesma
+     * transação. Inativar (ativo = false) retira a nota das médias.
+     */
+    @Override
+    public Nota save(Nota nota) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            Nota salva = gravar(em, nota);
+            commitTransaction(em, ownTransaction);
+            return salva;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar nota: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * SALVAR VÁRIAS NOTAS
+     * ===================
+     * Uma transação para todas as notas e seus agregados. Cada nota é
+     * enviada ao banco antes de atualizar os agregados, por isso os lotes
+     * JDBC do GenericDAO.saveAll() não se aplicam aqui.
+     */
+    @Override
+    public List<Nota> saveAll(Collection<? extends Nota> notas) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            List<Nota> salvas = new ArrayList<>(notas.size());
+            for (Nota nota : notas) {
+                salvas.add(gravar(em, nota));
+            }
+            commitTransaction(em, ownTransaction);
+            return salvas;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar notas: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * EXCLUIR NOTA
+     * ============
+     * Igual ao GenericDAO.delete(), retirando a nota dos agregados na mesma
+     * transação (deleteById() também passa por aqui).
+     */
+    @Override
+    public void delete(Nota nota) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            NotaAgregadoDAO.EstadoNota antes = agregados.estadoGravado(em, nota.getIdNota());
+            em.remove(em.merge(nota));
+            em.flush();
+            agregados.aplicar(em, antes, null);
+            NotaDistribuicaoDAO.aplicar(em, antes, null);
+            RankingNotas.aplicar(em, antes, null);
+            commitTransaction(em, ownTransaction);
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao deletar nota: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Grava a nota e aplica a diferença entre o estado anterior (lido do
+     * banco) e o novo nos agregados e nas distribuições.
+     */
+    private Nota gravar(EntityManager em, Nota nota) {
+        NotaAgregadoDAO.EstadoNota antes = agregados.estadoGravado(em, nota.getIdNota());
+        Nota salva = em.merge(nota);
+        em.flush();
+        NotaAgregadoDAO.EstadoNota depois = NotaAgregadoDAO.EstadoNota.of(salva);
+        agregados.aplicar(em, antes, depois);
+        NotaDistribuicaoDAO.aplicar(em, antes, depois);
+        RankingNotas.aplicar(em, antes, depois);
+        return salva;
+    }
+
     // ========================================
     // MÉTODOS DE BUSCA POR RELACIONAMENTOS
     // ========================================
@@ -61,20 +232,13 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByAluno(Usuario aluno) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.aluno = :aluno AND n.ativo = true " +
-                         "ORDER BY n.dataAvaliacao DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByAluno", Nota.class);
             query.setParameter("aluno", aluno);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por aluno: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -87,21 +251,14 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByAlunoAndDisciplina(Usuario aluno, Disciplina disciplina) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.aluno = :aluno AND n.disciplina = :disciplina AND n.ativo = true " +
-                         "ORDER BY n.dataAvaliacao DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByAlunoAndDisciplina", Nota.class);
             query.setParameter("aluno", aluno);
             query.setParameter("disciplina", disciplina);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por aluno e disciplina: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -114,20 +271,13 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByDisciplina(Disciplina disciplina) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.disciplina = :disciplina AND n.ativo = true " +
-                         "ORDER BY n.aluno.nomeCompleto, n.dataAvaliacao DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByDisciplina", Nota.class);
             query.setParameter("disciplina", disciplina);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por disciplina: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -140,20 +290,13 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByTurma(Turma turma) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.turma = :turma AND n.ativo = true " +
-                         "ORDER BY n.disciplina.nomeDisciplina, n.aluno.nomeCompleto";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByTurma", Nota.class);
             query.setParameter("turma", turma);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por turma: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -166,20 +309,13 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByProfessor(Usuario professor) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.professor = :professor AND n.ativo = true " +
-                         "ORDER BY n.dataLancamento DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByProfessor", Nota.class);
             query.setParameter("professor", professor);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por professor: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -196,20 +332,13 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByTipoAvaliacao(TipoAvaliacao tipoAvaliacao) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.tipoAvaliacao = :tipoAvaliacao AND n.ativo = true " +
-                         "ORDER BY n.dataAvaliacao DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByTipoAvaliacao", Nota.class);
             query.setParameter("tipoAvaliacao", tipoAvaliacao);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por tipo de avaliação: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -222,21 +351,14 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findByPeriodo(LocalDate dataInicio, LocalDate dataFim) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.dataAvaliacao BETWEEN :dataInicio AND :dataFim AND n.ativo = true " +
-                         "ORDER BY n.dataAvaliacao DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByPeriodo", Nota.class);
             query.setParameter("dataInicio", dataInicio);
             query.setParameter("dataFim", dataFim);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas por período: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -247,115 +369,275 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     /**
      * CALCULAR MÉDIA DO ALUNO NA DISCIPLINA
      * =====================================
-     * Calcula a média ponderada de um aluno em uma disciplina.
+     * Média ponderada de um aluno em uma disciplina, calculada com as somas
+     * do agregado ALUNO_DISCIPLINA. Sem arredondar, como o antigo
+     * SUM(valor * peso) / SUM(peso); o agregado arredonda só para exibição
+     * (NotaAgregado.getMediaPonderada()).
      */
     public BigDecimal calcularMediaAlunoDisciplina(Usuario aluno, Disciplina disciplina) {
-        EntityManager em = getEntityManager();
-        try {
-            String jpql = "SELECT SUM(n.valorNota * n.pesoNota) / SUM(n.pesoNota) FROM Nota n " +
-                         "WHERE n.aluno = :aluno AND n.disciplina = :disciplina AND n.ativo = true";
-            TypedQuery<BigDecimal> query = em.createQuery(jpql, BigDecimal.class);
-            query.setParameter("aluno", aluno);
-            query.setParameter("disciplina", disciplina);
-            
-            BigDecimal media = query.getSingleResult();
-            return media != null ? media : BigDecimal.ZERO;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao calcular média do aluno na disciplina: " + e.getMessage(), e);
-        } finally {
-            em.close();
-        }
+        return agregados.findByGrupo(EscopoAgregado.ALUNO_DISCIPLINA, aluno.getIdUsuario(), disciplina.getIdDisciplina())
+                .map(agregado -> quociente(agregado.getSomaPonderada(), agregado.getSomaPesos()))
+                .orElse(BigDecimal.ZERO);
     }
 
     /**
      * CALCULAR MÉDIA GERAL DO ALUNO
      * =============================
-     * Calcula a média geral de um aluno em todas as disciplinas.
+     * Média simples de um aluno em todas as disciplinas, calculada com as
+     * somas do agregado ALUNO (sem arredondar, como o antigo AVG).
      */
     public BigDecimal calcularMediaGeralAluno(Usuario aluno) {
-        EntityManager em = getEntityManager();
-        try {
-            String jpql = "SELECT AVG(n.valorNota) FROM Nota n WHERE n.aluno = :aluno AND n.ativo = true";
-            TypedQuery<BigDecimal> query = em.createQuery(jpql, BigDecimal.class);
-            query.setParameter("aluno", aluno);
-            
-            BigDecimal media = query.getSingleResult();
-            return media != null ? media : BigDecimal.ZERO;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao calcular média geral do aluno: " + e.getMessage(), e);
-        } finally {
-            em.close();
-        }
+        return agregados.findByGrupo(EscopoAgregado.ALUNO, aluno.getIdUsuario(), NotaAgregado.TODAS_DISCIPLINAS)
+                .map(agregado -> quociente(agregado.getSomaValores(), BigDecimal.valueOf(agregado.getQuantidade())))
+                .orElse(BigDecimal.ZERO);
     }
 
     /**
      * CALCULAR MÉDIA DA TURMA NA DISCIPLINA
      * =====================================
-     * Calcula a média da turma em uma disciplina específica.
+     * Média simples da turma em uma disciplina, calculada com as somas do
+     * agregado TURMA_DISCIPLINA (sem arredondar, como o antigo AVG).
      */
     public BigDecimal calcularMediaTurmaDisciplina(Turma turma, Disciplina disciplina) {
+        return agregados.findByGrupo(EscopoAgregado.TURMA_DISCIPLINA, turma.getIdTurma(), disciplina.getIdDisciplina())
+                .map(agregado -> quociente(agregado.getSomaValores(), BigDecimal.valueOf(agregado.getQuantidade())))
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Divisão das somas de um agregado com a precisão de DECIMAL128 (sem
+     * fixar casas decimais); zero sem divisor, como o antigo resultado nulo.
+     */
+    private static BigDecimal quociente(BigDecimal soma, BigDecimal divisor) {
+        if (divisor == null || divisor.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return soma.divide(divisor, MathContext.DECIMAL128);
+    }
+
+    // ========================================
+    // MÉTODOS DE ESTATÍSTICAS
+    // ========================================
+
+    /**
+     * CONTAR NOTAS POR ALUNO
+     * ======================
+     * Número de notas ativas de um aluno, lido do agregado ALUNO.
+     */
+    public Long contarNotasAluno(Usuario aluno) {
+        return agregados.findByGrupo(EscopoAgregado.ALUNO, aluno.getIdUsuario(), NotaAgregado.TODAS_DISCIPLINAS)
+                .map(agregado -> agregado.getQuantidade().longValue())
+                .orElse(0L);
+    }
+
+    /**
+     * CONTAR ALUNOS APROVADOS NA DISCIPLINA
+     * =====================================
+     * Conta quantos alunos estão aprovados (média >= 6.0) em uma disciplina,
+     * a partir dos agregados ALUNO_DISCIPLINA (uma linha por aluno).
+     */
+    public Long contarAlunosAprovadosDisciplina(Disciplina disciplina) {
+        return agregados.contarAprovadosDisciplina(disciplina.getIdDisciplina(), MEDIA_APROVACAO);
+    }
+
+    /**
+     * DISTRIBUIÇÃO DAS NOTAS
+     * ======================
+     * Contagem das notas ativas por valor, lida de notas_distribuicoes (no
+     * máximo uma linha por valor possível), para medianas, percentis e
+     * posição percentual exatos (ver DistribuicaoValores).
+     *
+     * @param idDisciplina Disciplina, ou null para todas
+     * @param idsTurma Turmas somadas, ou vazio para todas
+     * @return Distribuição (vazia se não há notas no grupo)
+     */
+    public DistribuicaoValores calcularDistribuicao(Integer idDisciplina, Collection<Integer> idsTurma) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT AVG(n.valorNota) FROM Nota n " +
-                         "WHERE n.turma = :turma AND n.disciplina = :disciplina AND n.ativo = true";
-            TypedQuery<BigDecimal> query = em.createQuery(jpql, BigDecimal.class);
-            query.setParameter("turma", turma);
-            query.setParameter("disciplina", disciplina);
-            
-            BigDecimal media = query.getSingleResult();
-            return media != null ? media : BigDecimal.ZERO;
+            return NotaDistribuicaoDAO.ler(em, idDisciplina, idsTurma);
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao calcular média da turma na disciplina: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao calcular distribuição das notas: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     // ========================================
-    // MÉTODOS DE ESTATÍSTICAS
+    // RANKING DA TURMA
     // ========================================
 
     /**
-     * CONTAR NOTAS POR ALUNO
+     * PRIMEIROS DO RANKING
+     * ====================
+     * Os alunos de maior média ponderada na turma, lidos do ranking em
+     * memória (ver RankingNotas), com os nomes em uma consulta.
+     *
+     * @param idTurma Turma
+     * @param idDisciplina Disciplina, ou null para a média na turma toda
+     * @param limite Quantidade de alunos
+     * @return Ranking (sem posições se a turma não tem notas)
+     */
+    public RankingTurmaDTO rankingTurma(Integer idTurma, Integer idDisciplina, int limite) {
+        RankingNotas.Janela janela = RankingNotas.topo(idTurma, idDisciplina(idDisciplina), limite);
+        return rankingDTO(idTurma, idDisciplina, janela);
+    }
+
+    /**
+     * POSIÇÃO DO ALUNO NO RANKING
+     * ===========================
+     * @param idTurma Turma
+     * @param idDisciplina Disciplina, ou null para a média na turma toda
+     * @param idAluno Aluno
+     * @param vizinhos Alunos listados antes e depois dele
+     * @return Posição e vizinhos, vazio se o aluno não tem notas ativas no
+     *         ranking
+     */
+    public Optional<RankingTurmaDTO> posicaoNoRanking(Integer idTurma, Integer idDisciplina, Integer idAluno,
+            int vizinhos) {
+        RankingNotas.Janela janela = RankingNotas.vizinhanca(idTurma, idDisciplina(idDisciplina), idAluno, vizinhos);
+        return Optional.ofNullable(janela).map(j -> rankingDTO(idTurma, idDisciplina, j));
+    }
+
+    /**
+     * Recarrega os rankings a partir das notas (ex: após notas alteradas
+     * por SQL manual).
+     *
+     * @return Quantidade de rankings (turma × disciplina e turma) carregados
+     */
+    public int reconstruirRanking() {
+        return RankingNotas.reconstruir();
+    }
+
+    private static Integer idDisciplina(Integer idDisciplina) {
+        return idDisciplina != null ? idDisciplina : RankingNotas.GERAL;
+    }
+
+    private RankingTurmaDTO rankingDTO(Integer idTurma, Integer idDisciplina, RankingNotas.Janela janela) {
+        List<Integer> ids = new ArrayList<>();
+        janela.getLinhas().forEach(linha -> ids.add(linha.getIdAluno()));
+        Map<Integer, String> nomes = new HashMap<>();
+        if (!ids.isEmpty()) {
+            EntityManager em = getEntityManager();
+            try {
+                em.createNamedQuery("Usuario.findNomesByIds", Object[].class)
+                        .setParameter("ids", ids)
+                        .getResultList()
+                        .forEach(linha -> nomes.put((Integer) linha[0], (String) linha[1]));
+            } catch (Exception e) {
+                throw new RuntimeException("Erro ao buscar nomes do ranking: " + e.getMessage(), e);
+            } finally {
+                closeEntityManager(em);
+            }
+        }
+        List<RankingTurmaDTO.Posicao> posicoes = new ArrayList<>(janela.getLinhas().size());
+        for (RankingNotas.Linha linha : janela.getLinhas()) {
+            posicoes.add(posicao(linha, nomes));
+        }
+        return new RankingTurmaDTO(idTurma, idDisciplina, janela.getTotal(),
+                janela.getAluno() == null ? null : posicao(janela.getAluno(), nomes), posicoes);
+    }
+
+    private static RankingTurmaDTO.Posicao posicao(RankingNotas.Linha linha, Map<Integer, String> nomes) {
+        return new RankingTurmaDTO.Posicao(linha.getPosicao(), linha.getIdAluno(), nomes.get(linha.getIdAluno()),
+                linha.getMedia(), linha.getQuantidadeNotas());
+    }
+
+    // ========================================
+    // BOLETIM DA TURMA
+    // ========================================
+
+    /**
+     * GERAR BOLETIM DA TURMA
      * ======================
-     * Conta o número de notas de um aluno.
+     * Médias de todos os alunos da turma em todas as disciplinas, situação
+     * e aprovados por disciplina, com uma única consulta: as notas ativas
+     * da turma são lidas em fluxo, ordenadas por aluno e disciplina, e
+     * somadas pelo BoletimTurmaAcumulador durante a leitura (sem uma
+     * consulta de média por aluno × disciplina).
+     *
+     * @param turma Turma do boletim
+     * @return Boletim; sem alunos nem disciplinas se a turma não tem notas
      */
-    public Long contarNotasAluno(Usuario aluno) {
+    public BoletimTurmaDTO gerarBoletimTurma(Turma turma) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(n) FROM Nota n WHERE n.aluno = :aluno AND n.ativo = true";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
-            query.setParameter("aluno", aluno);
-            return query.getSingleResult();
+            BoletimTurmaAcumulador boletim = new BoletimTurmaAcumulador(turma, MEDIA_APROVACAO);
+            try (Stream<Object[]> linhas = em.createNamedQuery("Nota.boletimTurma", Object[].class)
+                    .setParameter("idTurma", turma.getIdTurma())
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, BOLETIM_FETCH_SIZE)
+                    .getResultStream()) {
+                linhas.forEach(boletim::adicionar);
+            }
+            return boletim.concluir();
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao contar notas do aluno: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao gerar boletim da turma: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
+    // ========================================
+    // PAINEL DO ALUNO
+    // ========================================
+
     /**
-     * CONTAR ALUNOS APROVADOS NA DISCIPLINA
-     * =====================================
-     * Conta quantos alunos estão aprovados (média >= 6.0) em uma disciplina.
+     * NOTAS RECENTES DO ALUNO
+     * =======================
+     * Últimas notas ativas do aluno, projetadas com o nome da disciplina
+     * (sem montar as entidades). Usa o índice idx_notas_aluno_data.
+     *
+     * @param idAluno Aluno
+     * @param limite Quantidade máxima de notas
+     * @return Notas da mais recente para a mais antiga
      */
-    public Long contarAlunosAprovadosDisciplina(Disciplina disciplina) {
+    public List<DashboardAlunoDTO.NotaRecente> findRecentesByAluno(Integer idAluno, int limite) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(DISTINCT n.aluno) FROM Nota n " +
-                         "WHERE n.disciplina = :disciplina AND n.ativo = true " +
-                         "GROUP BY n.aluno " +
-                         "HAVING AVG(n.valorNota) >= 6.0";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
-            query.setParameter("disciplina", disciplina);
-            
-            List<Long> resultados = query.getResultList();
-            return (long) resultados.size();
+            List<Object[]> linhas = em.createNamedQuery("Nota.findRecentesByAluno", Object[].class)
+                    .setParameter("idAluno", idAluno)
+                    .setMaxResults(limite)
+                    .getResultList();
+            List<DashboardAlunoDTO.NotaRecente> notas = new ArrayList<>(linhas.size());
+            for (Object[] linha : linhas) {
+                notas.add(new DashboardAlunoDTO.NotaRecente((Integer) linha[0], (Integer) linha[1],
+                        (String) linha[2], (TipoAvaliacao) linha[3], (String) linha[4],
+                        (BigDecimal) linha[5], (BigDecimal) linha[6], (LocalDate) linha[7]));
+            }
+            return notas;
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao contar alunos aprovados na disciplina: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao buscar notas recentes do aluno: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * RESUMO DAS MÉDIAS DO ALUNO
+     * ==========================
+     * Média geral e médias ponderadas por disciplina, lidas dos agregados
+     * ALUNO e ALUNO_DISCIPLINA em uma consulta. A situação segue a regra do
+     * boletim, NotaAgregado.isAprovado(): média ponderada sem arredondar ao
+     * menos MEDIA_APROVACAO; disciplina sem pesos tem média zero e não conta
+     * como aprovada.
+     *
+     * @param idAluno Aluno
+     * @return Resumo; média zero e sem disciplinas se o aluno não tem notas
+     */
+    public DashboardAlunoDTO.ResumoNotas resumirNotasAluno(Integer idAluno) {
+        BigDecimal mediaGeral = BigDecimal.ZERO;
+        int quantidadeNotas = 0;
+        List<DashboardAlunoDTO.MediaDisciplina> disciplinas = new ArrayList<>();
+        for (Object[] linha : agregados.findByAluno(idAluno)) {
+            NotaAgregado agregado = (NotaAgregado) linha[0];
+            if (agregado.getEscopo() == EscopoAgregado.ALUNO) {
+                mediaGeral = agregado.getMediaSimples();
+                quantidadeNotas = agregado.getQuantidade();
+                continue;
+            }
+            disciplinas.add(new DashboardAlunoDTO.MediaDisciplina(agregado.getIdDisciplina(), (String) linha[1],
+                    agregado.getMediaPonderada(), agregado.getQuantidade(), agregado.isAprovado(MEDIA_APROVACAO)));
         }
+        return new DashboardAlunoDTO.ResumoNotas(MEDIA_APROVACAO, mediaGeral, quantidadeNotas, disciplinas);
     }
 
     /**
@@ -367,19 +649,12 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findAtivas() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.ativo = true " +
-                         "ORDER BY n.dataLancamento DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findAtivas", Nota.class);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar notas ativas: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -392,18 +667,12 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public List<Nota> findAll() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "ORDER BY n.dataLancamento DESC";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findAllComAssociacoes", Nota.class);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar todas as notas: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -416,13 +685,7 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public Optional<Nota> findById(Integer id) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT n FROM Nota n " +
-                         "LEFT JOIN FETCH n.aluno " +
-                         "LEFT JOIN FETCH n.disciplina " +
-                         "LEFT JOIN FETCH n.turma " +
-                         "LEFT JOIN FETCH n.professor " +
-                         "WHERE n.idNota = :id";
-            TypedQuery<Nota> query = em.createQuery(jpql, Nota.class);
+            TypedQuery<Nota> query = em.createNamedQuery("Nota.findByIdComAssociacoes", Nota.class);
             query.setParameter("id", id);
             
             try {
@@ -433,7 +696,7 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar nota por ID: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -445,9 +708,7 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
     public boolean existeNota(Usuario aluno, Disciplina disciplina, TipoAvaliacao tipoAvaliacao, LocalDate dataAvaliacao) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(n) FROM Nota n WHERE n.aluno = :aluno AND n.disciplina = :disciplina " +
-                         "AND n.tipoAvaliacao = :tipoAvaliacao AND n.dataAvaliacao = :dataAvaliacao AND n.ativo = true";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("Nota.existeNota", Long.class);
             query.setParameter("aluno", aluno);
             query.setParameter("disciplina", disciplina);
             query.setParameter("tipoAvaliacao", tipoAvaliacao);
@@ -456,7 +717,7 @@ public class NotaDAO extends GenericDAO<Nota, Integer> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao verificar existência de nota: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
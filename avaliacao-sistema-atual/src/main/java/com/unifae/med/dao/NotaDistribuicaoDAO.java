@@ -0,0 +1,186 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.util.DistribuicaoValores;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * NOTA DISTRIBUICAO DAO - CONTAGEM DAS NOTAS POR VALOR
+ * ====================================================
+ *
+ * Mantém a tabela notas_distribuicoes: quantas notas ativas existem com
+ * cada valor, por disciplina × turma (turma 0 para notas sem turma). É a
+ * forma persistida de DistribuicaoValores: ler as linhas de uma
+ * disciplina, de uma turma ou de um conjunto de turmas (no máximo 1001
+ * valores possíveis de 0.00 a 10.00 por grupo) dá medianas e percentis
+ * exatos sem ler nem ordenar as notas.
+ *
+ * MANUTENÇÃO INCREMENTAL:
+ * Igual a notas_agregados (ver NotaAgregadoDAO): o NotaDAO chama
+ * aplicar() na transação de cada gravação, com o estado antes e depois da
+ * nota. O valor antigo perde uma unidade e o novo ganha uma, cada um com
+ * um INSERT ... ON DUPLICATE KEY UPDATE atômico. Linhas que chegam a zero
+ * ficam na tabela e são ignoradas na leitura.
+ * NotaAgregadoDAO.reconstruir() refaz também esta tabela.
+ *
+ * Sem entidade JPA: os comandos nativos declaram a própria tabela como
+ * espaço afetado, para não invalidar o cache de segundo nível.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaDAO.java: Chama aplicar() ao gravar e lê as distribuições
+ * - NotaAgregadoDAO.java: Estado da nota e reconstrução
+ * - DistribuicaoValores.java: Percentis sobre as contagens lidas
+ * - 01-script_estrutura_dados_banco_unifae.sql: Tabela notas_distribuicoes
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class NotaDistribuicaoDAO {
+
+    private static final String TABELA = "notas_distribuicoes";
+
+    /**
+     * Valor de id_turma para notas sem turma.
+     */
+    private static final int SEM_TURMA = 0;
+
+    private static final String UPSERT_SQL = "INSERT INTO notas_distribuicoes "
+            + "(id_disciplina, id_turma, valor_nota, quantidade) VALUES (?1, ?2, ?3, ?4) "
+            + "ON DUPLICATE KEY UPDATE quantidade = quantidade + VALUES(quantidade)";
+
+    private static final String RECONSTRUIR_SQL = "INSERT INTO notas_distribuicoes "
+            + "(id_disciplina, id_turma, valor_nota, quantidade) "
+            + "SELECT n.id_disciplina, COALESCE(n.id_turma, 0), n.valor_nota, COUNT(*) "
+            + "FROM notas n WHERE n.ativo = 1 GROUP BY n.id_disciplina, COALESCE(n.id_turma, 0), n.valor_nota";
+
+    private NotaDistribuicaoDAO() {
+    }
+
+    /**
+     * APLICAR ALTERAÇÃO DE UMA NOTA
+     * =============================
+     * Deve ser chamado na transação que gravou a nota, depois do flush().
+     *
+     * @param em EntityManager da transação de escrita
+     * @param antes Estado anterior (null para inclusão)
+     * @param depois Estado novo (null para exclusão)
+     */
+    static void aplicar(EntityManager em, NotaAgregadoDAO.EstadoNota antes, NotaAgregadoDAO.EstadoNota depois) {
+        Map<Posicao, Integer> deltas = new LinkedHashMap<>();
+        if (antes != null && antes.isAtivo()) {
+            deltas.merge(Posicao.of(antes), -1, Integer::sum);
+        }
+        if (depois != null && depois.isAtivo()) {
+            deltas.merge(Posicao.of(depois), 1, Integer::sum);
+        }
+        deltas.forEach((posicao, delta) -> {
+            if (delta != 0) {
+                executar(em, UPSERT_SQL, posicao.idDisciplina, posicao.idTurma, posicao.valor, delta);
+            }
+        });
+    }
+
+    /**
+     * Apaga e recalcula a tabela a partir das notas ativas, na transação
+     * aberta pelo chamador.
+     *
+     * @return Quantidade de linhas gravadas
+     */
+    static int reconstruir(EntityManager em) {
+        executar(em, "DELETE FROM notas_distribuicoes");
+        return executar(em, RECONSTRUIR_SQL);
+    }
+
+    /**
+     * LER DISTRIBUIÇÃO
+     * ================
+     * Soma as contagens das linhas da disciplina e/ou das turmas.
+     *
+     * @param em EntityManager de leitura
+     * @param idDisciplina Disciplina, ou null para todas
+     * @param idsTurma Turmas, ou vazio para todas (incluindo notas sem turma)
+     * @return Distribuição das notas ativas do grupo (vazia se não há notas)
+     */
+    static DistribuicaoValores ler(EntityManager em, Integer idDisciplina, Collection<Integer> idsTurma) {
+        List<String> condicoes = new ArrayList<>(2);
+        List<Object> parametros = new ArrayList<>(2);
+        if (idDisciplina != null) {
+            parametros.add(idDisciplina);
+            condicoes.add("d.id_disciplina = ?" + parametros.size());
+        }
+        if (idsTurma != null && !idsTurma.isEmpty()) {
+            parametros.add(idsTurma);
+            condicoes.add("d.id_turma IN (?" + parametros.size() + ")");
+        }
+        String sql = "SELECT d.valor_nota, SUM(d.quantidade) FROM notas_distribuicoes d"
+                + (condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes))
+                + " GROUP BY d.valor_nota HAVING SUM(d.quantidade) > 0";
+        Query query = em.createNativeQuery(sql);
+        for (int i = 0; i < parametros.size(); i++) {
+            query.setParameter(i + 1, parametros.get(i));
+        }
+
+        DistribuicaoValores distribuicao = new DistribuicaoValores(2);
+        @SuppressWarnings("unchecked")
+        List<Object[]> linhas = query.getResultList();
+        for (Object[] linha : linhas) {
+            distribuicao.adicionar(new BigDecimal(linha[0].toString()), ((Number) linha[1]).longValue());
+        }
+        return distribuicao;
+    }
+
+    private static int executar(EntityManager em, String sql, Object... parametros) {
+        Query query = em.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABELA);
+        for (int i = 0; i < parametros.length; i++) {
+            query.setParameter(i + 1, parametros[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Chave de uma linha de notas_distribuicoes. O valor é arredondado a 2
+     * casas como o banco faz ao gravar valor_nota.
+     */
+    private static final class Posicao {
+
+        private final Integer idDisciplina;
+        private final int idTurma;
+        private final BigDecimal valor;
+
+        private Posicao(Integer idDisciplina, int idTurma, BigDecimal valor) {
+            this.idDisciplina = idDisciplina;
+            this.idTurma = idTurma;
+            this.valor = valor;
+        }
+
+        private static Posicao of(NotaAgregadoDAO.EstadoNota nota) {
+            return new Posicao(nota.getIdDisciplina(), nota.getIdTurma() != null ? nota.getIdTurma() : SEM_TURMA,
+                    nota.getValor().setScale(2, RoundingMode.HALF_UP));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Posicao)) {
+                return false;
+            }
+            Posicao outra = (Posicao) o;
+            return idTurma == outra.idTurma && idDisciplina.equals(outra.idDisciplina)
+                    && valor.equals(outra.valor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idDisciplina, idTurma, valor);
+        }
+    }
+}
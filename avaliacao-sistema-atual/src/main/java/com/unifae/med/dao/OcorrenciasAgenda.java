@@ -0,0 +1,258 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.EventoAgendaExcecao;
+import com.unifae.med.entity.StatusEvento;
+import com.unifae.med.util.RegraRecorrencia;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OCORRENCIAS AGENDA - EXPANSÃO DAS SÉRIES DE EVENTOS
+ * ==================================================
+ *
+ * Gera as ocorrências de um evento recorrente (EventoAgenda com regra de
+ * recorrência) numa janela de tempo, aplicando as exceções da série
+ * (EventoAgendaExcecao): ocorrências canceladas saem com status CANCELADO
+ * e as alteradas com o novo horário, local, título ou descrição.
+ *
+ * As ocorrências não são gravadas: cada consulta por período gera apenas
+ * as da sua janela (RegraRecorrencia.inicios()). Uma ocorrência remarcada
+ * para dentro da janela aparece mesmo que o início original esteja fora.
+ *
+ * Usado pelo EventoAgendaDAO (calendário, listagem e API por período) e
+ * pelo IndiceConflitosAgenda, que expande a série inteira para ocupar o
+ * local em todas as ocorrências.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - RegraRecorrencia.java: Inícios das ocorrências pela regra
+ * - EventoAgendaDAO.java: Consultas por período
+ * - IndiceConflitosAgenda.java: Ocupação dos locais pelas séries
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class OcorrenciasAgenda {
+
+    private OcorrenciasAgenda() {
+    }
+
+    /**
+     * OCORRÊNCIAS DE UMA SÉRIE
+     * ========================
+     * @param inicio Início da primeira ocorrência
+     * @param fim Fim da primeira ocorrência (define a duração), ou null
+     * @param idLocal Local da série, ou null
+     * @param regra Regra da série
+     * @param alteracoes Exceções, pelo início original da ocorrência
+     * @param de Início da janela, ou null desde a primeira ocorrência
+     * @param ate Fim da janela (exclusivo), ou null até a última
+     * @return Ocorrências (inclusive canceladas) que ocupam parte da janela,
+     *         na ordem de início
+     */
+    static List<Ocorrencia> expandir(LocalDateTime inicio, LocalDateTime fim, Integer idLocal,
+            RegraRecorrencia regra, Map<LocalDateTime, Alteracao> alteracoes, LocalDateTime de, LocalDateTime ate) {
+        Duration duracao = fim == null ? Duration.ZERO : Duration.between(inicio, fim);
+        List<Ocorrencia> ocorrencias = new ArrayList<>();
+        // Ocorrências que começam antes da janela e ainda não terminaram também a ocupam
+        for (LocalDateTime original : regra.inicios(inicio, de == null ? null : de.minus(duracao), ate)) {
+            if (!alteracoes.containsKey(original)) {
+                Ocorrencia ocorrencia = new Ocorrencia(original, original,
+                        fim == null ? null : original.plus(duracao), idLocal, false);
+                if (ocorrencia.naJanela(de, ate)) {
+                    ocorrencias.add(ocorrencia);
+                }
+            }
+        }
+        for (Alteracao alteracao : alteracoes.values()) {
+            if (!regra.ocorre(inicio, alteracao.dataOcorrencia)) {
+                continue; // Exceção de uma ocorrência que a regra atual não gera
+            }
+            LocalDateTime novoInicio = alteracao.inicio != null ? alteracao.inicio : alteracao.dataOcorrencia;
+            LocalDateTime novoFim = alteracao.fim != null ? alteracao.fim
+                    : fim == null ? null : novoInicio.plus(duracao);
+            Ocorrencia ocorrencia = new Ocorrencia(alteracao.dataOcorrencia, novoInicio, novoFim,
+                    alteracao.idLocal != null ? alteracao.idLocal : idLocal, alteracao.cancelada);
+            if (ocorrencia.naJanela(de, ate)) {
+                ocorrencias.add(ocorrencia);
+            }
+        }
+        ocorrencias.sort(Comparator.comparing((Ocorrencia o) -> o.inicio).thenComparing(o -> o.dataOcorrencia));
+        return ocorrencias;
+    }
+
+    /**
+     * OCORRÊNCIAS DAS SÉRIES DE UM PERÍODO
+     * ====================================
+     * Lê as exceções das séries (uma consulta) e gera uma cópia da série
+     * (não gerenciada) para cada ocorrência que começa no período, com
+     * dataOcorrencia preenchida.
+     *
+     * @param em EntityManager aberto (as associações das séries devem estar
+     *        carregadas)
+     * @param series Eventos recorrentes
+     * @param de Início do período, ou null
+     * @param ate Fim do período (exclusivo), ou null
+     * @return Ocorrências, série a série
+     */
+    static List<EventoAgenda> copias(EntityManager em, List<EventoAgenda> series, LocalDateTime de,
+            LocalDateTime ate) {
+        if (series.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Map<LocalDateTime, EventoAgendaExcecao>> excecoes = new HashMap<>();
+        List<Integer> ids = series.stream().map(EventoAgenda::getIdEvento).toList();
+        for (EventoAgendaExcecao excecao : em.createNamedQuery("EventoAgendaExcecao.findBySeries",
+                EventoAgendaExcecao.class).setParameter("ids", ids).getResultList()) {
+            excecoes.computeIfAbsent(excecao.getEvento().getIdEvento(), id -> new HashMap<>())
+                    .put(excecao.getDataOcorrencia(), excecao);
+        }
+        List<EventoAgenda> copias = new ArrayList<>();
+        for (EventoAgenda serie : series) {
+            Map<LocalDateTime, EventoAgendaExcecao> daSerie = excecoes.getOrDefault(serie.getIdEvento(), Map.of());
+            Map<LocalDateTime, Alteracao> alteracoes = new HashMap<>();
+            daSerie.forEach((data, excecao) -> alteracoes.put(data, Alteracao.of(excecao)));
+            for (Ocorrencia ocorrencia : expandir(serie.getDataInicio(), serie.getDataFim(), idLocal(serie),
+                    RegraRecorrencia.of(serie.getRegraRecorrencia()), alteracoes, de, ate)) {
+                if (de == null || !ocorrencia.inicio.isBefore(de)) {
+                    copias.add(copia(serie, ocorrencia, daSerie.get(ocorrencia.dataOcorrencia)));
+                }
+            }
+        }
+        return copias;
+    }
+
+    private static EventoAgenda copia(EventoAgenda serie, Ocorrencia ocorrencia, EventoAgendaExcecao excecao) {
+        EventoAgenda copia = new EventoAgenda();
+        copia.setIdEvento(serie.getIdEvento());
+        copia.setTitulo(serie.getTitulo());
+        copia.setDescricao(serie.getDescricao());
+        copia.setDataInicio(ocorrencia.inicio);
+        copia.setDataFim(ocorrencia.fim);
+        copia.setDataOcorrencia(ocorrencia.dataOcorrencia);
+        copia.setLocalEvento(serie.getLocalEvento());
+        copia.setDisciplina(serie.getDisciplina());
+        copia.setTurma(serie.getTurma());
+        copia.setResponsavel(serie.getResponsavel());
+        copia.setTipoEvento(serie.getTipoEvento());
+        copia.setStatusEvento(serie.getStatusEvento());
+        copia.setRegraRecorrencia(serie.getRegraRecorrencia());
+        copia.setFimRecorrencia(serie.getFimRecorrencia());
+        copia.setDataCriacao(serie.getDataCriacao());
+        copia.setDataAtualizacao(serie.getDataAtualizacao());
+        if (excecao != null) {
+            if (excecao.getTitulo() != null) {
+                copia.setTitulo(excecao.getTitulo());
+            }
+            if (excecao.getDescricao() != null) {
+                copia.setDescricao(excecao.getDescricao());
+            }
+            if (excecao.getLocalEvento() != null) {
+                copia.setLocalEvento(excecao.getLocalEvento());
+            }
+            if (excecao.isCancelada()) {
+                copia.setStatusEvento(StatusEvento.CANCELADO);
+            }
+            if (excecao.getDataAtualizacao() != null && (copia.getDataAtualizacao() == null
+                    || excecao.getDataAtualizacao().isAfter(copia.getDataAtualizacao()))) {
+                copia.setDataAtualizacao(excecao.getDataAtualizacao());
+            }
+        }
+        return copia;
+    }
+
+    static Integer idLocal(EventoAgenda evento) {
+        return evento.getLocalEvento() == null ? null : evento.getLocalEvento().getIdLocalEvento();
+    }
+
+    /**
+     * @return Exceções indexadas pelo início original da ocorrência
+     */
+    static Map<LocalDateTime, Alteracao> porOcorrencia(Collection<Alteracao> alteracoes) {
+        Map<LocalDateTime, Alteracao> mapa = new HashMap<>(alteracoes.size() * 2);
+        alteracoes.forEach(alteracao -> mapa.put(alteracao.dataOcorrencia, alteracao));
+        return mapa;
+    }
+
+    // ========================================
+    // ESTRUTURAS
+    // ========================================
+
+    /**
+     * O que uma exceção muda no horário e no local de uma ocorrência (os
+     * campos nulos mantêm os da série).
+     */
+    static final class Alteracao {
+
+        private final LocalDateTime dataOcorrencia;
+        private final boolean cancelada;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+        private final Integer idLocal;
+
+        Alteracao(LocalDateTime dataOcorrencia, boolean cancelada, LocalDateTime inicio, LocalDateTime fim,
+                Integer idLocal) {
+            this.dataOcorrencia = dataOcorrencia;
+            this.cancelada = cancelada;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.idLocal = idLocal;
+        }
+
+        static Alteracao of(EventoAgendaExcecao excecao) {
+            return new Alteracao(excecao.getDataOcorrencia(), excecao.isCancelada(), excecao.getDataInicio(),
+                    excecao.getDataFim(),
+                    excecao.getLocalEvento() == null ? null : excecao.getLocalEvento().getIdLocalEvento());
+        }
+    }
+
+    /**
+     * Uma ocorrência gerada: início original e horário e local efetivos.
+     */
+    static final class Ocorrencia {
+
+        final LocalDateTime dataOcorrencia;
+        final LocalDateTime inicio;
+        final LocalDateTime fim;
+        final Integer idLocal;
+        final boolean cancelada;
+
+        private Ocorrencia(LocalDateTime dataOcorrencia, LocalDateTime inicio, LocalDateTime fim, Integer idLocal,
+                boolean cancelada) {
+            this.dataOcorrencia = dataOcorrencia;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.idLocal = idLocal;
+            this.cancelada = cancelada;
+        }
+
+        /**
+         * @return true se ocupa um local (tem local e duração e não foi
+         *         cancelada)
+         */
+        boolean ocupa() {
+            return idLocal != null && fim != null && fim.isAfter(inicio) && !cancelada;
+        }
+
+        /**
+         * Ocorrências com duração estão na janela se a sobrepõem; as sem
+         * duração, se começam nela.
+         */
+        private boolean naJanela(LocalDateTime de, LocalDateTime ate) {
+            if (ate != null && !inicio.isBefore(ate)) {
+                return false;
+            }
+            if (de == null) {
+                return true;
+            }
+            return fim != null && fim.isAfter(inicio) ? fim.isAfter(de) : !inicio.isBefore(de);
+        }
+    }
+}
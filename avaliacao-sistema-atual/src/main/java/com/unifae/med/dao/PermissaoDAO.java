@@ -1,6 +1,7 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.Permissao;
+import com.unifae.med.rest.dto.PermissaoDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
@@ -9,6 +10,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * PERMISSAODAO - DATA ACCESS OBJECT PARA A ENTIDADE PERMISSAO
@@ -21,6 +23,13 @@ import java.util.Optional;
  */
 public class PermissaoDAO extends GenericDAO<Permissao, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new PermissaoDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + PermissaoDTO.class.getName()
+            + "(e.idPermissao, e.nomePermissao, e.descricaoPermissao)";
+
     /**
      * Construtor padrão que define a classe da entidade para o GenericDAO.
      */
@@ -28,6 +37,25 @@ public class PermissaoDAO extends GenericDAO<Permissao, Integer> {
         super(Permissao.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomePermissao");
+    }
+
+    /**
+     * Página de permissões já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<PermissaoDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, PermissaoDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Busca permissões com filtros dinâmicos e retorna estatísticas para a
      * listagem.
@@ -40,23 +68,13 @@ public class PermissaoDAO extends GenericDAO<Permissao, Integer> {
         EntityManager em = getEntityManager();
         try {
             // 1. Consulta principal para a lista filtrada
-            StringBuilder jpql = new StringBuilder("SELECT p FROM Permissao p WHERE 1=1");
-            Map<String, Object> parameters = new HashMap<>();
-
-            if (search != null && !search.trim().isEmpty()) {
-                jpql.append(" AND (LOWER(p.nomePermissao) LIKE LOWER(:search) OR LOWER(p.descricaoPermissao) LIKE LOWER(:search))");
-                parameters.put("search", "%" + search + "%");
-            }
-            jpql.append(" ORDER BY p.nomePermissao");
-
-            TypedQuery<Permissao> query = em.createQuery(jpql.toString(), Permissao.class);
-            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-                query.setParameter(entry.getKey(), entry.getValue());
-            }
-            List<Permissao> list = query.getResultList();
+            QueryFilter filter = new QueryFilter().contains(search, "nomePermissao", "descricaoPermissao");
+            TypedQuery<Permissao> query = em.createQuery("SELECT p FROM Permissao p WHERE " + filter.toJpql("p")
+                    + " ORDER BY p.nomePermissao", Permissao.class);
+            List<Permissao> list = filter.applyTo(query).getResultList();
 
             // 2. Consulta para estatísticas
-            Long totalPermissoes = em.createQuery("SELECT COUNT(p) FROM Permissao p", Long.class).getSingleResult();
+            Long totalPermissoes = em.createNamedQuery("Permissao.count", Long.class).getSingleResult();
 
             Map<String, Long> stats = new HashMap<>();
             stats.put("totalPermissoes", totalPermissoes);
@@ -68,10 +86,23 @@ public class PermissaoDAO extends GenericDAO<Permissao, Integer> {
 
             return result;
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
+    /**
+     * Página de permissões com o mesmo filtro de findWithFiltersAndStats(),
+     * usando paginação por cursor (ver GenericDAO.findPage).
+     *
+     * @param search Termo de busca para nome ou descrição.
+     * @param request Parâmetros da página.
+     * @return Página de permissões (DTO) e cursor da próxima.
+     */
+    public KeysetPage<PermissaoDTO> findDTOPageWithFilters(String search, KeysetPageRequest request) {
+        return findPage(request, PermissaoDTO.class, DTO_SELECTION,
+                new QueryFilter().contains(search, "nomePermissao", "descricaoPermissao"));
+    }
+
     /**
      * Busca uma permissão pelo seu nome exato.
      *
@@ -81,14 +112,13 @@ public class PermissaoDAO extends GenericDAO<Permissao, Integer> {
     public Optional<Permissao> findByNome(String nomePermissao) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT p FROM Permissao p WHERE p.nomePermissao = :nomePermissao";
-            TypedQuery<Permissao> query = em.createQuery(jpql, Permissao.class);
+            TypedQuery<Permissao> query = em.createNamedQuery("Permissao.findByNome", Permissao.class);
             query.setParameter("nomePermissao", nomePermissao);
             return Optional.of(query.getSingleResult());
         } catch (NoResultException e) {
             return Optional.empty();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
@@ -0,0 +1,254 @@
+package com.unifae.med.dao;
+
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * QUERYFILTER - FILTROS DINÂMICOS DAS CONSULTAS DOS DAOS
+ * =======================================================
+ *
+ * Monta o trecho WHERE das buscas com filtros opcionais, no lugar do
+ * "WHERE 1=1" + StringBuilder repetido em cada DAO. Filtros com valor nulo
+ * ou texto vazio são ignorados.
+ *
+ * EXEMPLO:
+ *   QueryFilter filtro = new QueryFilter()
+ *       .equal("tipoEvento", tipo)
+ *       .range("dataInicio", inicio, fim)
+ *       .contains(busca, "titulo");
+ *   "SELECT e FROM EventoAgenda e WHERE " + filtro.toJpql("e")
+ *
+ * FORMA CANÔNICA (UM PLANO POR CONJUNTO DE FILTROS):
+ * As condições são escritas sempre na mesma ordem (igualdades, depois
+ * intervalos, depois textos; dentro de cada grupo, pelo nome do atributo)
+ * e os parâmetros têm nomes derivados do atributo. Assim os mesmos filtros
+ * geram o mesmo JPQL independentemente da ordem em que o DAO os adicionou,
+ * e o Hibernate reaproveita o plano em cache.
+ *
+ * FORMAS INDEXÁVEIS (SARGABLE):
+ * - Nenhuma função é aplicada à coluna: LOWER(coluna) impede o uso do
+ *   índice e é desnecessário, pois as tabelas usam collation
+ *   utf8mb4_unicode_ci (comparações já ignoram maiúsculas/minúsculas)
+ * - Datas são filtradas por intervalo (coluna >= :de AND coluna <= :ate),
+ *   nunca por FUNCTION('DATE', coluna); com igualdades na mesma consulta o
+ *   banco combina os dois em índices compostos como idx_eventos_data_tipo
+ * - Associações são filtradas pelo ID (chave estrangeira, sem JOIN)
+ * - contains() ('%texto%') não usa índice: é o único filtro que percorre a
+ *   tabela, e por isso vem por último, depois dos filtros indexados
+ * - Curingas digitados pelo usuário (% e _) são escapados
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class QueryFilter {
+
+    /**
+     * Caractere de escape dos curingas nas condições LIKE.
+     */
+    private static final char LIKE_ESCAPE = '!';
+
+    /**
+     * Grupos de condição, na ordem em que aparecem no JPQL.
+     */
+    private enum Kind {
+        EQUAL, RANGE, CONTAINS
+    }
+
+    /**
+     * Uma condição: atributo(s), tipo e os valores já prontos para os parâmetros.
+     */
+    private static final class Condition {
+
+        private final Kind kind;
+        private final List<String> paths;
+        private final Object[] values;
+
+        private Condition(Kind kind, List<String> paths, Object... values) {
+            this.kind = kind;
+            this.paths = paths;
+            this.values = values;
+        }
+
+        /**
+         * Chave de ordenação: grupo e depois atributos. Também identifica o
+         * filtro, de modo que repeti-lo substitui o anterior.
+         */
+        private String key() {
+            return kind.ordinal() + ":" + String.join(",", paths);
+        }
+
+        /**
+         * Nome base do parâmetro, derivado dos atributos (ex: "f_responsavel_idUsuario").
+         */
+        private String parameterName() {
+            return "f_" + String.join("_", paths).replace('.', '_');
+        }
+    }
+
+    /**
+     * Condições indexadas por Condition.key(); o TreeMap mantém a ordem canônica.
+     */
+    private final Map<String, Condition> conditions = new TreeMap<>();
+
+    /**
+     * Igualdade: alias.path = :valor. Ignorado se o valor for nulo.
+     * Para associações, use o ID (ex: "responsavel.idUsuario"): a comparação
+     * usa a chave estrangeira da própria tabela, sem JOIN.
+     *
+     * @param path Caminho do atributo a partir do alias
+     * @param value Valor comparado
+     * @return Este filtro
+     */
+    public QueryFilter equal(String path, Object value) {
+        if (value != null) {
+            add(new Condition(Kind.EQUAL, List.of(path), value));
+        }
+        return this;
+    }
+
+    /**
+     * Intervalo fechado: alias.path >= :de AND alias.path <= :ate. Cada
+     * limite é opcional; sem nenhum dos dois o filtro é ignorado.
+     *
+     * @param path Caminho do atributo a partir do alias
+     * @param from Limite inferior (inclusive) ou null
+     * @param to Limite superior (inclusive) ou null
+     * @return Este filtro
+     */
+    public QueryFilter range(String path, Comparable<?> from, Comparable<?> to) {
+        if (from != null || to != null) {
+            add(new Condition(Kind.RANGE, List.of(path), from, to));
+        }
+        return this;
+    }
+
+    /**
+     * Trecho: alias.path LIKE '%texto%' em um ou mais atributos (com OR).
+     * Sem LOWER(): a collation da coluna já ignora maiúsculas/minúsculas.
+     *
+     * @param text Texto digitado (ignorado se vazio)
+     * @param paths Atributos pesquisados
+     * @return Este filtro
+     */
+    public QueryFilter contains(String text, String... paths) {
+        if (text != null && !text.isBlank()) {
+            add(new Condition(Kind.CONTAINS, sorted(paths), "%" + escapeLike(text.trim()) + "%"));
+        }
+        return this;
+    }
+
+    /**
+     * @return true se nenhum filtro foi informado
+     */
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    /**
+     * Trecho JPQL do WHERE na forma canônica. Sem filtros devolve "1 = 1",
+     * para poder ser concatenado diretamente após WHERE.
+     *
+     * @param alias Alias da entidade na consulta (ex: "e")
+     * @return Condições unidas por AND
+     */
+    public String toJpql(String alias) {
+        if (conditions.isEmpty()) {
+            return "1 = 1";
+        }
+        List<String> parts = new ArrayList<>();
+        for (Condition condition : conditions.values()) {
+            String column = alias + "." + condition.paths.get(0);
+            String param = condition.parameterName();
+            switch (condition.kind) {
+                case EQUAL:
+                    parts.add(column + " = :" + param);
+                    break;
+                case RANGE:
+                    if (condition.values[0] != null) {
+                        parts.add(column + " >= :" + param + "_de");
+                    }
+                    if (condition.values[1] != null) {
+                        parts.add(column + " <= :" + param + "_ate");
+                    }
+                    break;
+                default:
+                    List<String> likes = new ArrayList<>();
+                    for (String path : condition.paths) {
+                        likes.add(alias + "." + path + " LIKE :" + param + " ESCAPE '" + LIKE_ESCAPE + "'");
+                    }
+                    parts.add(likes.size() == 1 ? likes.get(0) : "(" + String.join(" OR ", likes) + ")");
+                    break;
+            }
+        }
+        return String.join(" AND ", parts);
+    }
+
+    /**
+     * Valores dos parâmetros usados em toJpql(), pelos mesmos nomes.
+     *
+     * @return Mapa nome → valor
+     */
+    public Map<String, Object> parameters() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (Condition condition : conditions.values()) {
+            String param = condition.parameterName();
+            switch (condition.kind) {
+                case EQUAL:
+                    params.put(param, condition.values[0]);
+                    break;
+                case RANGE:
+                    if (condition.values[0] != null) {
+                        params.put(param + "_de", condition.values[0]);
+                    }
+                    if (condition.values[1] != null) {
+                        params.put(param + "_ate", condition.values[1]);
+                    }
+                    break;
+                default:
+                    params.put(param, condition.values[0]);
+                    break;
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Define na consulta os parâmetros dos filtros.
+     *
+     * @param query Consulta criada a partir de toJpql()
+     * @return A mesma consulta
+     */
+    public <Q extends Query> Q applyTo(Q query) {
+        parameters().forEach(query::setParameter);
+        return query;
+    }
+
+    private void add(Condition condition) {
+        conditions.put(condition.key(), condition);
+    }
+
+    private static List<String> sorted(String... paths) {
+        if (paths.length == 0) {
+            throw new IllegalArgumentException("Informe ao menos um atributo para a busca");
+        }
+        String[] copy = paths.clone();
+        Arrays.sort(copy);
+        return List.of(copy);
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.Questionario;
+import com.unifae.med.rest.dto.QuestionarioDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
@@ -9,13 +10,40 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class QuestionarioDAO extends GenericDAO<Questionario, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new QuestionarioDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + QuestionarioDTO.class.getName()
+            + "(e.idQuestionario, e.nomeModelo, e.descricao)";
+
     public QuestionarioDAO() {
         super(Questionario.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomeModelo");
+    }
+
+    /**
+     * Página de questionários já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<QuestionarioDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, QuestionarioDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Busca questionários com filtros dinâmicos e retorna estatísticas.
      *
@@ -27,23 +55,13 @@ public class QuestionarioDAO extends GenericDAO<Questionario, Integer> {
         EntityManager em = getEntityManager();
         try {
             // 1. Consulta principal para a lista filtrada
-            StringBuilder jpql = new StringBuilder("SELECT q FROM Questionario q WHERE 1=1");
-            Map<String, Object> parameters = new HashMap<>();
-
-            if (search != null && !search.trim().isEmpty()) {
-                jpql.append(" AND (LOWER(q.nomeModelo) LIKE LOWER(:search) OR LOWER(q.descricao) LIKE LOWER(:search))");
-                parameters.put("search", "%" + search + "%");
-            }
-            jpql.append(" ORDER BY q.nomeModelo");
-
-            TypedQuery<Questionario> query = em.createQuery(jpql.toString(), Questionario.class);
-            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-                query.setParameter(entry.getKey(), entry.getValue());
-            }
-            List<Questionario> list = query.getResultList();
+            QueryFilter filter = new QueryFilter().contains(search, "nomeModelo", "descricao");
+            TypedQuery<Questionario> query = em.createQuery("SELECT q FROM Questionario q WHERE " + filter.toJpql("q")
+                    + " ORDER BY q.nomeModelo", Questionario.class);
+            List<Questionario> list = filter.applyTo(query).getResultList();
 
             // 2. Consulta para estatísticas
-            Long totalQuestionarios = em.createQuery("SELECT COUNT(q) FROM Questionario q", Long.class).getSingleResult();
+            Long totalQuestionarios = em.createNamedQuery("Questionario.count", Long.class).getSingleResult();
 
             Map<String, Long> stats = new HashMap<>();
             stats.put("totalQuestionarios", totalQuestionarios);
@@ -55,7 +73,7 @@ public class QuestionarioDAO extends GenericDAO<Questionario, Integer> {
 
             return result;
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -63,14 +81,13 @@ public class QuestionarioDAO extends GenericDAO<Questionario, Integer> {
     public Optional<Questionario> findByNomeModelo(String nomeModelo) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT q FROM Questionario q WHERE q.nomeModelo = :nomeModelo";
-            TypedQuery<Questionario> query = em.createQuery(jpql, Questionario.class);
+            TypedQuery<Questionario> query = em.createNamedQuery("Questionario.findByNomeModelo", Questionario.class);
             query.setParameter("nomeModelo", nomeModelo);
             return Optional.of(query.getSingleResult());
         } catch (NoResultException e) {
             return Optional.empty();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
@@ -0,0 +1,616 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.util.ArvoreOrdenada;
+import com.unifae.med.util.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RANKING NOTAS - CLASSIFICAÇÃO DOS ALUNOS DA TURMA POR MÉDIA, EM MEMÓRIA
+ * =======================================================================
+ *
+ * Mantém, para cada turma × disciplina e para cada turma no geral (todas
+ * as disciplinas), os alunos ordenados pela média ponderada das notas
+ * ativas da turma. Responde os k primeiros, a posição de um aluno e os
+ * vizinhos dele sem calcular a média de cada aluno e ordenar a turma.
+ *
+ * ESTRUTURA:
+ * Cada ranking é uma ArvoreOrdenada de entradas (média, aluno), da maior
+ * para a menor média e, no empate, pelo ID do aluno; ao lado, as somas de
+ * cada aluno (quantidade, soma de valor × peso e soma dos pesos). A média
+ * segue NotaAgregado.getMediaPonderada(): notas sem peso ficam de fora e a
+ * média é zero se nenhuma nota tem peso. Alunos com a mesma média (2
+ * casas) dividem a posição (1, 2, 2, 4).
+ *
+ * ATUALIZAÇÃO INCREMENTAL:
+ * O NotaDAO chama aplicar() na transação de cada gravação, com o estado
+ * da nota antes e depois (o mesmo de notas_agregados). Depois do commit, a
+ * contribuição antiga sai e a nova entra nos rankings da turma × disciplina
+ * e da turma: o aluno é retirado da árvore e recolocado com a nova média,
+ * O(log n). Rollback não altera nada. Notas sem turma não entram.
+ *
+ * VÁRIOS SERVIDORES:
+ * Cada servidor tem os seus rankings. Na mesma transação da gravação, o
+ * aplicar() incrementa a versão da turma em versoes_dados (área
+ * "notas_turma", ver VersoesDados) e guarda a nova versão; depois do
+ * commit, a turma em memória passa a essa versão se estava na anterior
+ * (senão fica com a versão desconhecida). Cada consulta lê a versão da
+ * turma no primário (uma consulta pela chave primária) e, se é outra, o
+ * servidor recarrega só os rankings daquela turma: uma nota gravada em
+ * outro servidor aparece na consulta seguinte.
+ *
+ * CARGA E RECONSTRUÇÃO:
+ * A primeira consulta carrega todos os rankings com uma consulta agrupada
+ * sobre notas, com as versões das turmas lidas antes. Gravações feitas
+ * fora do NotaDAO (SQL manual) só aparecem após reconstruir()
+ * (POST /api/notas/ranking/reconstruir). Se uma gravação é confirmada
+ * durante a leitura, a carga é refeita (até MAX_TENTATIVAS vezes; depois
+ * disso o resultado é publicado e a consulta seguinte recarrega), para
+ * que uma nota nunca seja contada duas vezes ou esquecida.
+ *
+ * CONCORRÊNCIA:
+ * Rankings, somas e contadores são protegidos por TRAVA; cada operação
+ * segura a trava por O(log n + k). A leitura do banco na carga acontece
+ * fora da trava; só uma carga roda por vez.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaDAO.java: Chama aplicar() ao gravar e expõe as consultas
+ * - NotaAgregadoDAO.java: Estado da nota antes/depois da gravação
+ * - ArvoreOrdenada.java: Posição e faixa de posições em O(log n)
+ * - VersoesDados.java: Versão das notas de cada turma
+ * - TurmaResource.java / NotaResource.java: API REST
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class RankingNotas {
+
+    /**
+     * Valor de idDisciplina do ranking geral da turma.
+     */
+    static final int GERAL = 0;
+
+    private static final int MAX_TENTATIVAS = 3;
+
+    private static final String VERSAO_TURMA = "notas_turma";
+
+    /**
+     * Versão de uma turma cujos rankings podem não corresponder a nenhuma
+     * versão do banco (recarregados na próxima consulta).
+     */
+    private static final long DESCONHECIDA = -1;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String CARGA_SQL = "SELECT n.id_turma, n.id_disciplina, n.id_aluno, COUNT(*), "
+            + "COALESCE(SUM(n.valor_nota * n.peso_nota), 0), COALESCE(SUM(n.peso_nota), 0) "
+            + "FROM notas n WHERE n.ativo = 1 AND n.id_turma IS NOT NULL "
+            + "%s GROUP BY n.id_turma, n.id_disciplina, n.id_aluno";
+
+    /**
+     * Da maior para a menor média; no empate, pelo ID do aluno.
+     */
+    private static final Comparator<Entrada> ORDEM = Comparator
+            .comparing((Entrada e) -> e.media, Comparator.reverseOrder())
+            .thenComparing(e -> e.idAluno);
+
+    private static final Object TRAVA = new Object();
+    private static final ReentrantLock CARGA = new ReentrantLock();
+
+    // Protegidos por TRAVA
+    private static Map<Chave, Ranking> rankings;
+    private static Map<Integer, Long> versoes;
+    private static boolean desatualizado;
+    private static long alteracoes;
+    private static int commitsEmAndamento;
+
+    private RankingNotas() {
+    }
+
+    // ========================================
+    // MANUTENÇÃO (CHAMADA PELO NOTADAO)
+    // ========================================
+
+    /**
+     * APLICAR ALTERAÇÃO DE UMA NOTA
+     * =============================
+     * Registra na transação de em a alteração, aplicada aos rankings só
+     * se a transação for confirmada.
+     *
+     * @param em EntityManager da transação de escrita
+     * @param antes Estado anterior (null para inclusão)
+     * @param depois Estado novo (null para exclusão)
+     */
+    static void aplicar(EntityManager em, NotaAgregadoDAO.EstadoNota antes, NotaAgregadoDAO.EstadoNota depois) {
+        if (Objects.equals(antes, depois)) {
+            return;
+        }
+        Transaction transacao = em.unwrap(Session.class).getTransaction();
+        if (!transacao.isActive()) {
+            aplicarConfirmada(antes, depois, Map.of());
+            return;
+        }
+        Map<Integer, Long> novasVersoes = versionar(em, antes, depois);
+        transacao.registerSynchronization(new Synchronization() {
+            private boolean contada;
+
+            @Override
+            public void beforeCompletion() {
+                // A carga que ler o banco a partir daqui pode já ver a nota
+                synchronized (TRAVA) {
+                    commitsEmAndamento++;
+                    contada = true;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (TRAVA) {
+                    if (contada) {
+                        commitsEmAndamento--;
+                    }
+                    if (status == Status.STATUS_COMMITTED) {
+                        aplicarConfirmada(antes, depois, novasVersoes);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Incrementa, na transação de em, a versão das turmas da nota (antes e
+     * depois, em ordem) e devolve as novas versões: a linha fica travada
+     * até o commit, então são as versões que os outros servidores verão.
+     */
+    private static Map<Integer, Long> versionar(EntityManager em, NotaAgregadoDAO.EstadoNota antes,
+            NotaAgregadoDAO.EstadoNota depois) {
+        SortedSet<Integer> turmas = new TreeSet<>();
+        for (NotaAgregadoDAO.EstadoNota nota : Arrays.asList(antes, depois)) {
+            if (nota != null && nota.getIdTurma() != null) {
+                turmas.add(nota.getIdTurma());
+            }
+        }
+        VersoesDados.incrementar(em, VERSAO_TURMA, turmas);
+        Map<Integer, Long> novas = new HashMap<>();
+        for (Integer idTurma : turmas) {
+            novas.put(idTurma, VersoesDados.ler(em, VERSAO_TURMA, idTurma));
+        }
+        return novas;
+    }
+
+    private static void aplicarConfirmada(NotaAgregadoDAO.EstadoNota antes, NotaAgregadoDAO.EstadoNota depois,
+            Map<Integer, Long> novasVersoes) {
+        synchronized (TRAVA) {
+            alteracoes++;
+            if (rankings == null) {
+                return; // A carga lerá a nota do banco
+            }
+            // Só a versão seguinte à conhecida corresponde à memória após somar
+            novasVersoes.forEach((idTurma, versao) -> versoes.put(idTurma,
+                    versoes.getOrDefault(idTurma, 0L) == versao - 1 ? versao : DESCONHECIDA));
+            if (antes != null && antes.isAtivo() && antes.getIdTurma() != null) {
+                somar(antes, -1);
+            }
+            if (depois != null && depois.isAtivo() && depois.getIdTurma() != null) {
+                somar(depois, 1);
+            }
+        }
+    }
+
+    private static void somar(NotaAgregadoDAO.EstadoNota nota, int sinal) {
+        BigDecimal ponderada = nota.getPeso() == null ? BigDecimal.ZERO : nota.getValor().multiply(nota.getPeso());
+        BigDecimal peso = nota.getPeso() == null ? BigDecimal.ZERO : nota.getPeso();
+        if (sinal < 0) {
+            ponderada = ponderada.negate();
+            peso = peso.negate();
+        }
+        for (Chave chave : List.of(new Chave(nota.getIdTurma(), nota.getIdDisciplina()),
+                new Chave(nota.getIdTurma(), GERAL))) {
+            rankings.computeIfAbsent(chave, c -> new Ranking()).somar(nota.getIdAluno(), sinal, ponderada, peso);
+        }
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    /**
+     * PRIMEIROS DO RANKING
+     * ====================
+     * @param idTurma Turma
+     * @param idDisciplina Disciplina, ou GERAL
+     * @param limite Quantidade de alunos
+     * @return Os primeiros alunos (vazio se a turma não tem notas)
+     */
+    static Janela topo(Integer idTurma, Integer idDisciplina, int limite) {
+        garantirCarga(idTurma);
+        synchronized (TRAVA) {
+            Ranking ranking = rankings.get(new Chave(idTurma, idDisciplina));
+            if (ranking == null) {
+                return new Janela(0, List.of(), null);
+            }
+            return new Janela(ranking.arvore.tamanho(), ranking.linhas(0, limite), null);
+        }
+    }
+
+    /**
+     * POSIÇÃO DE UM ALUNO
+     * ===================
+     * @param idTurma Turma
+     * @param idDisciplina Disciplina, ou GERAL
+     * @param idAluno Aluno
+     * @param vizinhos Alunos antes e depois dele na lista
+     * @return Posição do aluno e vizinhos, ou null se ele não está no ranking
+     */
+    static Janela vizinhanca(Integer idTurma, Integer idDisciplina, Integer idAluno, int vizinhos) {
+        garantirCarga(idTurma);
+        synchronized (TRAVA) {
+            Ranking ranking = rankings.get(new Chave(idTurma, idDisciplina));
+            Entrada entrada = ranking == null ? null : ranking.entradas.get(idAluno);
+            if (entrada == null) {
+                return null;
+            }
+            int indice = ranking.arvore.contarAntes(entrada);
+            return new Janela(ranking.arvore.tamanho(), ranking.linhas(indice - vizinhos, indice + vizinhos + 1),
+                    ranking.linha(entrada, ranking.posicao(entrada)));
+        }
+    }
+
+    // ========================================
+    // CARGA
+    // ========================================
+
+    /**
+     * RECONSTRUIR RANKINGS
+     * ====================
+     * Descarta os rankings e os recarrega a partir de notas.
+     *
+     * @return Quantidade de rankings carregados
+     */
+    static int reconstruir() {
+        CARGA.lock();
+        try {
+            return carregar(null);
+        } finally {
+            CARGA.unlock();
+        }
+    }
+
+    /**
+     * Carrega os rankings na primeira consulta e recarrega os da turma se a
+     * versão dela no banco não é a da memória (gravação em outro servidor).
+     */
+    private static void garantirCarga(Integer idTurma) {
+        boolean carregados;
+        synchronized (TRAVA) {
+            carregados = rankings != null && !desatualizado;
+        }
+        if (!carregados) {
+            carregarComTrava(null, 0);
+        }
+        long versao = lerVersao(idTurma);
+        synchronized (TRAVA) {
+            if (versoes.getOrDefault(idTurma, 0L) == versao) {
+                return;
+            }
+        }
+        carregarComTrava(idTurma, versao);
+    }
+
+    /**
+     * Uma carga por vez. Refeita só se continua necessária depois de
+     * esperar (feita por outra thread).
+     *
+     * @param idTurma Turma a recarregar, ou null para todas
+     * @param versao Versão da turma que motivou a recarga
+     */
+    private static void carregarComTrava(Integer idTurma, long versao) {
+        CARGA.lock();
+        try {
+            synchronized (TRAVA) {
+                boolean necessaria = idTurma == null ? rankings == null || desatualizado
+                        : versoes.getOrDefault(idTurma, 0L) != versao;
+                if (!necessaria) {
+                    return;
+                }
+            }
+            carregar(idTurma);
+        } finally {
+            CARGA.unlock();
+        }
+    }
+
+    private static int carregar(Integer idTurma) {
+        for (int tentativa = 1; ; tentativa++) {
+            long inicio;
+            synchronized (TRAVA) {
+                inicio = alteracoes;
+            }
+            Carga carga = ler(idTurma);
+            synchronized (TRAVA) {
+                boolean estavel = alteracoes == inicio && commitsEmAndamento == 0;
+                if (estavel || tentativa == MAX_TENTATIVAS) {
+                    if (idTurma == null) {
+                        rankings = carga.rankings;
+                        versoes = carga.versoes;
+                        desatualizado = !estavel;
+                    } else {
+                        rankings.keySet().removeIf(chave -> chave.idTurma.equals(idTurma));
+                        rankings.putAll(carga.rankings);
+                        versoes.put(idTurma, estavel ? carga.versoes.getOrDefault(idTurma, 0L) : DESCONHECIDA);
+                    }
+                    return carga.rankings.size();
+                }
+            }
+        }
+    }
+
+    private static long lerVersao(Integer idTurma) {
+        EntityManager em = JPAUtil.getPrimaryReadEntityManager();
+        try {
+            return VersoesDados.ler(em, VERSAO_TURMA, idTurma);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler a versão do ranking da turma: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Lê as versões e, depois, as somas por turma × disciplina × aluno no
+     * primário: a réplica pode ainda não ter notas cujas alterações já
+     * foram aplicadas. As somas são no mínimo tão novas quanto as versões.
+     *
+     * @param turma Turma, ou null para todas
+     */
+    private static Carga ler(Integer turma) {
+        EntityManager em = JPAUtil.getPrimaryReadEntityManager();
+        try {
+            Map<Integer, Long> versoesLidas = turma == null ? VersoesDados.lerArea(em, VERSAO_TURMA)
+                    : new HashMap<>(Map.of(turma, VersoesDados.ler(em, VERSAO_TURMA, turma)));
+            Query consulta = em.createNativeQuery(String.format(CARGA_SQL, turma == null ? "" : "AND n.id_turma = ?1"))
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+            if (turma != null) {
+                consulta.setParameter(1, turma);
+            }
+            @SuppressWarnings("unchecked")
+            List<Object[]> linhas = consulta.getResultList();
+            Map<Chave, Ranking> lidos = new HashMap<>();
+            for (Object[] linha : linhas) {
+                Integer idTurma = ((Number) linha[0]).intValue();
+                Integer idDisciplina = ((Number) linha[1]).intValue();
+                Integer idAluno = ((Number) linha[2]).intValue();
+                int quantidade = ((Number) linha[3]).intValue();
+                BigDecimal ponderada = new BigDecimal(linha[4].toString());
+                BigDecimal pesos = new BigDecimal(linha[5].toString());
+                lidos.computeIfAbsent(new Chave(idTurma, idDisciplina), c -> new Ranking())
+                        .somar(idAluno, quantidade, ponderada, pesos);
+                lidos.computeIfAbsent(new Chave(idTurma, GERAL), c -> new Ranking())
+                        .somar(idAluno, quantidade, ponderada, pesos);
+            }
+            return new Carga(lidos, versoesLidas);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao carregar ranking das notas: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    // ========================================
+    // ESTRUTURAS
+    // ========================================
+
+    /**
+     * Rankings lidos do banco e as versões das turmas lidas antes deles.
+     */
+    private static final class Carga {
+
+        private final Map<Chave, Ranking> rankings;
+        private final Map<Integer, Long> versoes;
+
+        private Carga(Map<Chave, Ranking> rankings, Map<Integer, Long> versoes) {
+            this.rankings = rankings;
+            this.versoes = versoes;
+        }
+    }
+
+    /**
+     * Alunos de uma turma × disciplina (ou da turma no geral).
+     */
+    private static final class Ranking {
+
+        private final ArvoreOrdenada<Entrada> arvore = new ArvoreOrdenada<>(ORDEM);
+        private final Map<Integer, Entrada> entradas = new HashMap<>();
+
+        /**
+         * Soma (ou subtrai) notas do aluno e o recoloca na árvore com a nova
+         * média; sai do ranking quando não sobra nota.
+         */
+        private void somar(Integer idAluno, int quantidade, BigDecimal ponderada, BigDecimal pesos) {
+            Entrada anterior = entradas.remove(idAluno);
+            Entrada nova;
+            if (anterior == null) {
+                nova = new Entrada(idAluno, quantidade, ponderada, pesos);
+            } else {
+                arvore.remover(anterior);
+                nova = new Entrada(idAluno, anterior.quantidade + quantidade,
+                        anterior.somaPonderada.add(ponderada), anterior.somaPesos.add(pesos));
+            }
+            if (nova.quantidade > 0) {
+                entradas.put(idAluno, nova);
+                arvore.inserir(nova);
+            }
+        }
+
+        /**
+         * Posição no ranking (1 = maior média): 1 + alunos com média maior.
+         */
+        private int posicao(Entrada entrada) {
+            return arvore.contarAntes(new Entrada(Integer.MIN_VALUE, entrada.media)) + 1;
+        }
+
+        private List<Linha> linhas(int inicio, int fim) {
+            int de = Math.max(0, inicio);
+            List<Entrada> faixa = arvore.listar(de, fim);
+            List<Linha> linhas = new ArrayList<>(faixa.size());
+            Entrada anterior = null;
+            int posicao = 0;
+            for (int i = 0; i < faixa.size(); i++) {
+                Entrada entrada = faixa.get(i);
+                if (anterior == null) {
+                    posicao = posicao(entrada);
+                } else if (entrada.media.compareTo(anterior.media) != 0) {
+                    posicao = de + i + 1;
+                }
+                linhas.add(linha(entrada, posicao));
+                anterior = entrada;
+            }
+            return linhas;
+        }
+
+        private Linha linha(Entrada entrada, int posicao) {
+            return new Linha(posicao, entrada.idAluno, entrada.media, entrada.quantidade);
+        }
+    }
+
+    /**
+     * Aluno dentro de um ranking: somas e média. Imutável, pois é a chave
+     * da árvore: alterar as notas troca a entrada.
+     */
+    private static final class Entrada {
+
+        private final Integer idAluno;
+        private final int quantidade;
+        private final BigDecimal somaPonderada;
+        private final BigDecimal somaPesos;
+        private final BigDecimal media;
+
+        private Entrada(Integer idAluno, int quantidade, BigDecimal somaPonderada, BigDecimal somaPesos) {
+            this.idAluno = idAluno;
+            this.quantidade = quantidade;
+            this.somaPonderada = somaPonderada;
+            this.somaPesos = somaPesos;
+            this.media = somaPesos.signum() == 0 ? BigDecimal.ZERO.setScale(2)
+                    : somaPonderada.divide(somaPesos, 2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Sentinela de busca: vem antes de todos os alunos com a média.
+         */
+        private Entrada(Integer idAluno, BigDecimal media) {
+            this.idAluno = idAluno;
+            this.quantidade = 0;
+            this.somaPonderada = BigDecimal.ZERO;
+            this.somaPesos = BigDecimal.ZERO;
+            this.media = media;
+        }
+    }
+
+    /**
+     * Chave de um ranking: turma e disciplina (GERAL para a turma toda).
+     */
+    private static final class Chave {
+
+        private final Integer idTurma;
+        private final Integer idDisciplina;
+
+        private Chave(Integer idTurma, Integer idDisciplina) {
+            this.idTurma = idTurma;
+            this.idDisciplina = idDisciplina;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return idTurma.equals(outra.idTurma) && idDisciplina.equals(outra.idDisciplina);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idTurma, idDisciplina);
+        }
+    }
+
+    /**
+     * Um aluno na resposta: posição, média e quantidade de notas.
+     */
+    static final class Linha {
+
+        private final int posicao;
+        private final Integer idAluno;
+        private final BigDecimal media;
+        private final int quantidadeNotas;
+
+        private Linha(int posicao, Integer idAluno, BigDecimal media, int quantidadeNotas) {
+            this.posicao = posicao;
+            this.idAluno = idAluno;
+            this.media = media;
+            this.quantidadeNotas = quantidadeNotas;
+        }
+
+        int getPosicao() {
+            return posicao;
+        }
+
+        Integer getIdAluno() {
+            return idAluno;
+        }
+
+        BigDecimal getMedia() {
+            return media;
+        }
+
+        int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+    }
+
+    /**
+     * Resultado de uma consulta: total de alunos do ranking, faixa de
+     * linhas e, na consulta de um aluno, a linha dele.
+     */
+    static final class Janela {
+
+        private final int total;
+        private final List<Linha> linhas;
+        private final Linha aluno;
+
+        private Janela(int total, List<Linha> linhas, Linha aluno) {
+            this.total = total;
+            this.linhas = linhas;
+            this.aluno = aluno;
+        }
+
+        int getTotal() {
+            return total;
+        }
+
+        List<Linha> getLinhas() {
+            return linhas;
+        }
+
+        Linha getAluno() {
+            return aluno;
+        }
+    }
+}
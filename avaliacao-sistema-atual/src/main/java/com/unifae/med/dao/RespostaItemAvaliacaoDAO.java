@@ -3,44 +3,161 @@ package com.unifae.med.dao;
 import com.unifae.med.entity.RespostaItemAvaliacao;
 import com.unifae.med.entity.AvaliacaoPreenchida;
 import com.unifae.med.entity.CompetenciaQuestionario;
+import com.unifae.med.util.JPAUtil;
+import com.unifae.med.rest.dto.RespostaItemAvaliacaoDTO;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
 import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class RespostaItemAvaliacaoDAO extends GenericDAO<RespostaItemAvaliacao, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new RespostaItemAvaliacaoDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + RespostaItemAvaliacaoDTO.class.getName()
+            + "(e.idRespostaAvaliacao, e.avaliacaoPreenchida.idAvaliacaoPreenchida, "
+            + "e.competenciaQuestionario.idCompetenciaQuestionario, e.respostaValorNumerico, "
+            + "e.respostaTexto, e.naoAvaliado)";
+
     public RespostaItemAvaliacaoDAO() {
         super(RespostaItemAvaliacao.class);
     }
 
+    // ========================================
+    // GRAVAÇÃO (COM INVALIDAÇÃO DOS CACHES)
+    // ========================================
+    // Toda gravação de resposta invalida os relatórios 360° e a evolução do aluno
+    // avaliado (ver AvaliacaoPreenchidaDAO.invalidarCachesDoAluno()).
+
+    @Override
+    public RespostaItemAvaliacao save(RespostaItemAvaliacao resposta) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            RespostaItemAvaliacao salva = gravar(em, resposta);
+            commitTransaction(em, ownTransaction);
+            return salva;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar resposta: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<RespostaItemAvaliacao> saveAll(Collection<? extends RespostaItemAvaliacao> respostas) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            List<RespostaItemAvaliacao> salvas = new ArrayList<>(respostas.size());
+            for (RespostaItemAvaliacao resposta : respostas) {
+                salvas.add(gravar(em, resposta));
+                if (salvas.size() % BATCH_SIZE == 0) {
+                    em.flush();
+                }
+            }
+            commitTransaction(em, ownTransaction);
+            return salvas;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao salvar respostas: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public void delete(RespostaItemAvaliacao resposta) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            Integer idAluno = idAlunoGravado(em, resposta.getIdRespostaAvaliacao());
+            em.remove(em.merge(resposta));
+            AvaliacaoPreenchidaDAO.invalidarCachesDoAluno(em, idAluno);
+            commitTransaction(em, ownTransaction);
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao deletar resposta: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
+        }
+    }
+
+    private RespostaItemAvaliacao gravar(EntityManager em, RespostaItemAvaliacao resposta) {
+        Integer alunoAnterior = idAlunoGravado(em, resposta.getIdRespostaAvaliacao());
+        RespostaItemAvaliacao salva = em.merge(resposta);
+        Integer alunoNovo = salva.getAvaliacaoPreenchida() != null
+                ? AvaliacaoPreenchidaDAO.idAlunoAvaliado(em, salva.getAvaliacaoPreenchida()) : null;
+        AvaliacaoPreenchidaDAO.invalidarCachesDoAluno(em, alunoAnterior, alunoNovo);
+        return salva;
+    }
+
+    /**
+     * Aluno avaliado da resposta gravada no banco (null se nova).
+     */
+    private static Integer idAlunoGravado(EntityManager em, Integer idResposta) {
+        if (idResposta == null) {
+            return null;
+        }
+        List<Integer> alunos = em.createNamedQuery("RespostaItemAvaliacao.findIdAluno", Integer.class)
+                .setParameter("id", idResposta)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        return alunos.isEmpty() ? null : alunos.get(0);
+    }
+
+    /**
+     * Página de respostas já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<RespostaItemAvaliacaoDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, RespostaItemAvaliacaoDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca o DTO pelo ID sem carregar a entidade.
+     *
+     * @param id ID do registro.
+     * @return Optional com o DTO, vazio se não existir.
+     */
+    public Optional<RespostaItemAvaliacaoDTO> findDTOById(Integer id) {
+        return findProjectionById(id, RespostaItemAvaliacaoDTO.class, DTO_SELECTION);
+    }
+
     public List<RespostaItemAvaliacao> findByAvaliacaoPreenchida(AvaliacaoPreenchida avaliacaoPreenchida) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT r FROM RespostaItemAvaliacao r "
-                    + "LEFT JOIN FETCH r.competenciaQuestionario "
-                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida "
-                    + "ORDER BY r.competenciaQuestionario.nomeCompetencia";
-            TypedQuery<RespostaItemAvaliacao> query = em.createQuery(jpql, RespostaItemAvaliacao.class);
+            TypedQuery<RespostaItemAvaliacao> query = em.createNamedQuery("RespostaItemAvaliacao.findByAvaliacaoPreenchida", RespostaItemAvaliacao.class);
             query.setParameter("avaliacaoPreenchida", avaliacaoPreenchida);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar respostas por avaliação preenchida: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<RespostaItemAvaliacao> findByCompetenciaQuestionario(CompetenciaQuestionario competenciaQuestionario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT r FROM RespostaItemAvaliacao r WHERE r.competenciaQuestionario = :competenciaQuestionario ORDER BY r.avaliacaoPreenchida.dataRealizacao DESC";
-            TypedQuery<RespostaItemAvaliacao> query = em.createQuery(jpql, RespostaItemAvaliacao.class);
+            TypedQuery<RespostaItemAvaliacao> query = em.createNamedQuery("RespostaItemAvaliacao.findByCompetenciaQuestionario", RespostaItemAvaliacao.class);
             query.setParameter("competenciaQuestionario", competenciaQuestionario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar respostas por competência: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -48,61 +165,134 @@ public class RespostaItemAvaliacaoDAO extends GenericDAO<RespostaItemAvaliacao,
             AvaliacaoPreenchida avaliacaoPreenchida, CompetenciaQuestionario competenciaQuestionario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT r FROM RespostaItemAvaliacao r WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida AND r.competenciaQuestionario = :competenciaQuestionario";
-            TypedQuery<RespostaItemAvaliacao> query = em.createQuery(jpql, RespostaItemAvaliacao.class);
+            TypedQuery<RespostaItemAvaliacao> query = em.createNamedQuery("RespostaItemAvaliacao.findByAvaliacaoPreenchidaAndCompetenciaQuestionario", RespostaItemAvaliacao.class);
             query.setParameter("avaliacaoPreenchida", avaliacaoPreenchida);
             query.setParameter("competenciaQuestionario", competenciaQuestionario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar resposta específica: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<RespostaItemAvaliacao> findNaoAvaliadas() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT r FROM RespostaItemAvaliacao r WHERE r.naoAvaliado = true ORDER BY r.avaliacaoPreenchida.dataRealizacao DESC";
-            TypedQuery<RespostaItemAvaliacao> query = em.createQuery(jpql, RespostaItemAvaliacao.class);
+            TypedQuery<RespostaItemAvaliacao> query = em.createNamedQuery("RespostaItemAvaliacao.findNaoAvaliadas", RespostaItemAvaliacao.class);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar respostas não avaliadas: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public long countByAvaliacaoPreenchida(AvaliacaoPreenchida avaliacaoPreenchida) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(r) FROM RespostaItemAvaliacao r WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("RespostaItemAvaliacao.countByAvaliacaoPreenchida", Long.class);
             query.setParameter("avaliacaoPreenchida", avaliacaoPreenchida);
             return query.getSingleResult();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao contar respostas por avaliação: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Sincroniza as respostas de uma avaliação com as respostas submetidas no
+     * formulário, usando a chave única (avaliação, competência)
+     * uk_resposta_avaliacao_competencia:
+     * - resposta já existente para a competência: atualizada (sem UPDATE se
+     * os valores não mudaram)
+     * - competência sem resposta: inserida
+     * - resposta existente que não veio no formulário: removida
+     *
+     * Substitui o "apaga tudo e insere de novo" na edição: as linhas mantêm o
+     * ID e só as alteradas geram escrita. Tudo acontece em uma transação (ou
+     * participa da transação já ativa da requisição).
+     *
+     * LOTES JDBC (como em saveAll()):
+     * Respostas novas entram com persist() (sem a cópia do merge()) e o
+     * contexto é descarregado a cada BATCH_SIZE respostas: os UPDATEs das
+     * alteradas e os DELETEs das removidas saem agrupados
+     * (hibernate.jdbc.batch_size). Os INSERTs continuam um por resposta,
+     * pois o ID é IDENTITY e o Hibernate precisa lê-lo após cada inserção.
+     *
+     * @param avaliacaoPreenchida Avaliação já salva (com ID)
+     * @param respostas Respostas desejadas, uma por competência
+     * @return Respostas gravadas, na ordem recebida
+     */
+    public List<RespostaItemAvaliacao> sincronizarRespostas(AvaliacaoPreenchida avaliacaoPreenchida,
+            List<RespostaItemAvaliacao> respostas) {
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
+        try {
+            Map<Integer, RespostaItemAvaliacao> existentes = new HashMap<>();
+            em.createNamedQuery("RespostaItemAvaliacao.findParaSincronizacao", RespostaItemAvaliacao.class)
+                    .setParameter("avaliacaoPreenchida", avaliacaoPreenchida)
+                    .getResultList()
+                    .forEach(r -> existentes.put(r.getCompetenciaQuestionario().getIdCompetenciaQuestionario(), r));
+
+            List<RespostaItemAvaliacao> gravadas = new ArrayList<>(respostas.size());
+            for (RespostaItemAvaliacao resposta : respostas) {
+                Integer competenciaId = resposta.getCompetenciaQuestionario().getIdCompetenciaQuestionario();
+                RespostaItemAvaliacao existente = existentes.remove(competenciaId);
+                if (existente != null) {
+                    existente.setRespostaValorNumerico(resposta.getRespostaValorNumerico());
+                    existente.setRespostaTexto(resposta.getRespostaTexto());
+                    existente.setNaoAvaliado(resposta.getNaoAvaliado());
+                    gravadas.add(existente);
+                } else {
+                    resposta.setAvaliacaoPreenchida(avaliacaoPreenchida);
+                    em.persist(resposta);
+                    gravadas.add(resposta);
+                }
+                if (gravadas.size() % BATCH_SIZE == 0) {
+                    em.flush();
+                }
+            }
+            // Sobraram apenas respostas de competências que não vieram no formulário
+            for (RespostaItemAvaliacao removida : existentes.values()) {
+                em.remove(removida);
+            }
+            AvaliacaoPreenchidaDAO.invalidarCachesDoAluno(em,
+                    AvaliacaoPreenchidaDAO.idAlunoAvaliado(em, avaliacaoPreenchida));
+
+            commitTransaction(em, ownTransaction);
+            return gravadas;
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
+            throw new RuntimeException("Erro ao sincronizar respostas da avaliação: " + e.getMessage(), e);
+        } finally {
+            closeEntityManager(em);
         }
     }
 
     public void deleteByAvaliacaoPreenchida(AvaliacaoPreenchida avaliacaoPreenchida) {
-        EntityManager em = getEntityManager();
+        EntityManager em = getWriteEntityManager();
+        boolean ownTransaction = beginTransaction(em);
         try {
-            em.getTransaction().begin();
-            String jpql = "DELETE FROM RespostaItemAvaliacao r WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida";
-            em.createQuery(jpql)
+            // DELETE em lote ignora o contexto de persistência: envia antes as
+            // alterações pendentes e depois descarta as respostas já carregadas,
+            // que passariam a representar linhas inexistentes.
+            Integer idAluno = AvaliacaoPreenchidaDAO.idAlunoAvaliado(em, avaliacaoPreenchida);
+            em.flush();
+            em.createNamedQuery("RespostaItemAvaliacao.deleteByAvaliacaoPreenchida")
                     .setParameter("avaliacaoPreenchida", avaliacaoPreenchida)
                     .executeUpdate();
-            em.getTransaction().commit();
-        } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
+            if (JPAUtil.isRequestScoped(em)) {
+                em.clear();
             }
+            AvaliacaoPreenchidaDAO.invalidarCachesDoAluno(em, idAluno);
+            commitTransaction(em, ownTransaction);
+        } catch (Exception e) {
+            rollbackTransaction(em, ownTransaction);
             throw new RuntimeException("Erro ao deletar respostas por avaliação: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
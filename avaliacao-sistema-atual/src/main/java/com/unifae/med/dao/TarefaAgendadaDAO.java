@@ -0,0 +1,229 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.rest.dto.ExecucaoTarefaDTO;
+import com.unifae.med.util.AgendadorTarefas;
+import com.unifae.med.util.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * TAREFA AGENDADA DAO - LEASE E HISTÓRICO DAS TAREFAS EM SEGUNDO PLANO
+ * ====================================================================
+ *
+ * Grava no banco o que o AgendadorTarefas precisa compartilhar entre os
+ * servidores:
+ * - tarefas_agendadas: uma linha por tarefa de instância única, usada como
+ *   lease (servidor que executa e validade) e com o último horário já
+ *   executado
+ * - execucoes_tarefas: histórico de cada execução
+ *
+ * LEASE:
+ * adquirir() é um único UPDATE condicional: só altera a linha se o lease
+ * estiver livre ou vencido e, no disparo automático, se o horário ainda não
+ * foi executado por outro servidor. O banco serializa os UPDATEs da mesma
+ * linha, então apenas um servidor recebe "1 linha alterada". A validade é
+ * calculada com o relógio do banco (CURRENT_TIMESTAMP), não com o de cada
+ * servidor. A linha é criada na primeira vez (INSERT IGNORE).
+ *
+ * Cada chamada usa um EntityManager e uma transação próprios, fora do
+ * escopo da requisição: o lease e o histórico são gravados mesmo que a
+ * tarefa falhe e desfaça a sua transação.
+ *
+ * CACHE:
+ * Sem a tabela informada, um UPDATE nativo faz o Hibernate descartar todo
+ * o cache de segundo nível e de consultas. Cada comando declara a tabela
+ * que altera (addSynchronizedQuerySpace), e os disparos das tarefas e as
+ * tentativas de lease de cada servidor não apagam o cache das entidades.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - AgendadorTarefas.java: Chama os métodos de RegistroExecucoes
+ * - TarefaAgendadaResource.java: GET /api/tarefas/{nome}/execucoes
+ * - 01-script_estrutura_dados_banco_unifae.sql: Tabelas tarefas_agendadas
+ *   e execucoes_tarefas
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class TarefaAgendadaDAO implements AgendadorTarefas.RegistroExecucoes {
+
+    private static final String TAREFAS = "tarefas_agendadas";
+
+    private static final String EXECUCOES = "execucoes_tarefas";
+
+    private static final String CRIAR_LINHA_SQL = "INSERT IGNORE INTO tarefas_agendadas (nome_tarefa) VALUES (?1)";
+
+    private static final String ADQUIRIR_SQL = "UPDATE tarefas_agendadas "
+            + "SET instancia = ?1, lease_ate = TIMESTAMPADD(SECOND, ?2, CURRENT_TIMESTAMP), execucao_prevista = ?3 "
+            + "WHERE nome_tarefa = ?4 AND (lease_ate IS NULL OR lease_ate < CURRENT_TIMESTAMP) "
+            + "AND (execucao_prevista IS NULL OR execucao_prevista < ?3)";
+
+    private static final String ADQUIRIR_MANUAL_SQL = "UPDATE tarefas_agendadas "
+            + "SET instancia = ?1, lease_ate = TIMESTAMPADD(SECOND, ?2, CURRENT_TIMESTAMP) "
+            + "WHERE nome_tarefa = ?3 AND (lease_ate IS NULL OR lease_ate < CURRENT_TIMESTAMP)";
+
+    /**
+     * Com o lease na mão, execuções da tarefa ainda "em execução" são de um
+     * servidor que parou sem concluir.
+     */
+    private static final String ENCERRAR_ORFAS_SQL = "UPDATE execucoes_tarefas "
+            + "SET status = 'INTERROMPIDA', mensagem = 'Servidor encerrado sem concluir a execução' "
+            + "WHERE nome_tarefa = ?1 AND status = 'EXECUTANDO'";
+
+    /**
+     * Mantém execucao_prevista: o horário continua marcado como executado.
+     */
+    private static final String LIBERAR_SQL = "UPDATE tarefas_agendadas SET lease_ate = NULL "
+            + "WHERE nome_tarefa = ?1 AND instancia = ?2";
+
+    private static final String INICIADA_SQL = "INSERT INTO execucoes_tarefas "
+            + "(nome_tarefa, instancia, execucao_prevista, data_inicio, status) VALUES (?1, ?2, ?3, ?4, 'EXECUTANDO')";
+
+    private static final String CONCLUIDA_SQL = "UPDATE execucoes_tarefas SET data_fim = ?1, status = ?2, mensagem = ?3 "
+            + "WHERE nome_tarefa = ?4 AND instancia = ?5 AND data_inicio = ?6";
+
+    @Override
+    public boolean adquirir(String tarefa, String instancia, LocalDateTime prevista, long segundosLease) {
+        EntityManager em = JPAUtil.getWriteEntityManager();
+        EntityTransaction transacao = em.getTransaction();
+        try {
+            transacao.begin();
+            parametros(atualizacao(em, CRIAR_LINHA_SQL, TAREFAS), tarefa).executeUpdate();
+            int alteradas = prevista != null
+                    ? parametros(atualizacao(em, ADQUIRIR_SQL, TAREFAS), instancia, segundosLease, prevista, tarefa)
+                            .executeUpdate()
+                    : parametros(atualizacao(em, ADQUIRIR_MANUAL_SQL, TAREFAS), instancia, segundosLease, tarefa)
+                            .executeUpdate();
+            if (alteradas > 0) {
+                parametros(atualizacao(em, ENCERRAR_ORFAS_SQL, EXECUCOES), tarefa).executeUpdate();
+            }
+            transacao.commit();
+            return alteradas > 0;
+        } catch (Exception e) {
+            if (transacao.isActive()) {
+                transacao.rollback();
+            }
+            throw new RuntimeException("Erro ao obter o lease da tarefa " + tarefa + ": " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public void liberar(String tarefa, String instancia) {
+        executar("liberar o lease da tarefa " + tarefa, LIBERAR_SQL, TAREFAS, tarefa, instancia);
+    }
+
+    @Override
+    public void iniciada(String tarefa, String instancia, LocalDateTime prevista, LocalDateTime inicio) {
+        executar("registrar o início da tarefa " + tarefa, INICIADA_SQL, EXECUCOES, tarefa, instancia, prevista, inicio);
+    }
+
+    @Override
+    public void concluida(String tarefa, String instancia, LocalDateTime inicio, LocalDateTime fim,
+            AgendadorTarefas.Status status, String mensagem) {
+        executar("registrar o fim da tarefa " + tarefa, CONCLUIDA_SQL, EXECUCOES, fim, status.name(), mensagem, tarefa,
+                instancia, inicio);
+    }
+
+    /**
+     * REMOVER HISTÓRICO ANTIGO
+     * ========================
+     * @param limite Remove as execuções concluídas iniciadas antes deste
+     *        momento
+     * @return Quantidade de execuções removidas
+     */
+    public int removerHistoricoAnteriorA(LocalDateTime limite) {
+        return executar("remover o histórico de tarefas",
+                "DELETE FROM execucoes_tarefas WHERE data_inicio < ?1 AND status <> 'EXECUTANDO'", EXECUCOES, limite);
+    }
+
+    /**
+     * HISTÓRICO DE UMA TAREFA
+     * =======================
+     * @param tarefa Nome da tarefa
+     * @param limite Quantidade máxima de execuções
+     * @return Execuções mais recentes primeiro
+     */
+    public List<ExecucaoTarefaDTO> listarExecucoes(String tarefa, int limite) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> linhas = em.createNativeQuery("SELECT id_execucao, nome_tarefa, instancia, "
+                    + "execucao_prevista, data_inicio, data_fim, status, mensagem FROM execucoes_tarefas "
+                    + "WHERE nome_tarefa = ?1 ORDER BY data_inicio DESC, id_execucao DESC", Object[].class)
+                    .setParameter(1, tarefa)
+                    .setMaxResults(limite)
+                    .getResultList();
+            List<ExecucaoTarefaDTO> execucoes = new ArrayList<>(linhas.size());
+            for (Object[] linha : linhas) {
+                execucoes.add(new ExecucaoTarefaDTO(((Number) linha[0]).longValue(), (String) linha[1],
+                        (String) linha[2], dataHora(linha[3]), dataHora(linha[4]), dataHora(linha[5]),
+                        String.valueOf(linha[6]), (String) linha[7]));
+            }
+            return execucoes;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao listar execuções da tarefa " + tarefa + ": " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    private int executar(String descricao, String sql, String tabela, Object... valores) {
+        EntityManager em = JPAUtil.getWriteEntityManager();
+        EntityTransaction transacao = em.getTransaction();
+        try {
+            transacao.begin();
+            int alteradas = parametros(atualizacao(em, sql, tabela), valores).executeUpdate();
+            transacao.commit();
+            return alteradas;
+        } catch (Exception e) {
+            if (transacao.isActive()) {
+                transacao.rollback();
+            }
+            throw new RuntimeException("Erro ao " + descricao + ": " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Comando nativo que altera só a tabela informada: o Hibernate invalida
+     * apenas as consultas em cache dessa tabela.
+     */
+    private static Query atualizacao(EntityManager em, String sql, String tabela) {
+        Query query = em.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(tabela);
+        return query;
+    }
+
+    /**
+     * Nulos (horário previsto da execução manual, mensagem) precisam de um
+     * tipo explícito para o Hibernate; NULL como texto serve para qualquer
+     * coluna.
+     */
+    @SuppressWarnings("unchecked")
+    private static Query parametros(Query query, Object... valores) {
+        NativeQuery<Object> nativa = query.unwrap(NativeQuery.class);
+        for (int i = 0; i < valores.length; i++) {
+            Object valor = valores[i];
+            if (valor == null) {
+                nativa.setParameter(i + 1, null, String.class);
+            } else if (valor instanceof LocalDateTime dataHora) {
+                nativa.setParameter(i + 1, Timestamp.valueOf(dataHora), Timestamp.class);
+            } else {
+                nativa.setParameter(i + 1, valor);
+            }
+        }
+        return query;
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+}
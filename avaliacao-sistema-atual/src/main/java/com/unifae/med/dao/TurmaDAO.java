@@ -1,19 +1,47 @@
 package com.unifae.med.dao;
 
 import com.unifae.med.entity.Turma;
+import com.unifae.med.rest.dto.TurmaDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class TurmaDAO extends GenericDAO<Turma, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new TurmaDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + TurmaDTO.class.getName()
+            + "(e.idTurma, e.nomeTurma, e.codigoTurma, e.anoLetivo, e.semestre, e.ativo)";
+
     public TurmaDAO() {
         super(Turma.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("nomeTurma", "anoLetivo");
+    }
+
+    /**
+     * Página de turmas já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<TurmaDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, TurmaDTO.class, DTO_SELECTION);
+    }
+
     /**
      * Busca turmas com filtros dinâmicos de texto e status, e também retorna
      * estatísticas. Necessário para popular a nova listagem padronizada.
@@ -27,34 +55,15 @@ public class TurmaDAO extends GenericDAO<Turma, Integer> {
         EntityManager em = getEntityManager();
         try {
             // 1. Consulta principal para a lista filtrada
-            StringBuilder jpql = new StringBuilder("SELECT t FROM Turma t WHERE 1=1");
-            Map<String, Object> parameters = new HashMap<>();
-
-            if (search != null && !search.trim().isEmpty()) {
-                jpql.append(" AND (LOWER(t.nomeTurma) LIKE LOWER(:search) OR LOWER(t.codigoTurma) LIKE LOWER(:search))");
-                parameters.put("search", "%" + search + "%");
-            }
-
-            if (status != null && !status.trim().isEmpty()) {
-                if ("ativo".equalsIgnoreCase(status)) {
-                    jpql.append(" AND t.ativo = :status");
-                    parameters.put("status", true);
-                } else if ("inativo".equalsIgnoreCase(status)) {
-                    jpql.append(" AND t.ativo = :status");
-                    parameters.put("status", false);
-                }
-            }
-            jpql.append(" ORDER BY t.anoLetivo DESC, t.nomeTurma");
-
-            TypedQuery<Turma> query = em.createQuery(jpql.toString(), Turma.class);
-            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-                query.setParameter(entry.getKey(), entry.getValue());
-            }
-            List<Turma> list = query.getResultList();
-
-            // 2. Consultas para estatísticas
-            Long totalTurmas = em.createQuery("SELECT COUNT(t) FROM Turma t", Long.class).getSingleResult();
-            Long turmasAtivas = em.createQuery("SELECT COUNT(t) FROM Turma t WHERE t.ativo = true", Long.class).getSingleResult();
+            QueryFilter filter = filtros(search, status);
+            TypedQuery<Turma> query = em.createQuery("SELECT t FROM Turma t WHERE " + filter.toJpql("t")
+                    + " ORDER BY t.anoLetivo DESC, t.nomeTurma", Turma.class);
+            List<Turma> list = filter.applyTo(query).getResultList();
+
+            // 2. Estatísticas: total e ativas em uma única passada pela tabela
+            Object[] contagens = em.createNamedQuery("Turma.countTotalEAtivas", Object[].class).getSingleResult();
+            Long totalTurmas = ((Number) contagens[0]).longValue();
+            Long turmasAtivas = ((Number) contagens[1]).longValue();
 
             Map<String, Long> stats = new HashMap<>();
             stats.put("totalTurmas", totalTurmas);
@@ -67,8 +76,37 @@ public class TurmaDAO extends GenericDAO<Turma, Integer> {
 
             return result;
         } finally {
-            em.close();
+            closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Página de turmas com os mesmos filtros de findWithFiltersAndStats(),
+     * usando paginação por cursor (ver GenericDAO.findPage).
+     *
+     * @param search Termo de busca para nome ou código.
+     * @param status Filtro de status ("ativo" ou "inativo").
+     * @param request Parâmetros da página.
+     * @return Página de turmas (DTO) e cursor da próxima.
+     */
+    public KeysetPage<TurmaDTO> findDTOPageWithFilters(String search, String status, KeysetPageRequest request) {
+        return findPage(request, TurmaDTO.class, DTO_SELECTION, filtros(search, status));
+    }
+
+    /**
+     * Filtros comuns da listagem: trecho em nome ou código e status
+     * ("ativo"/"inativo"; outros valores são ignorados).
+     */
+    private static QueryFilter filtros(String search, String status) {
+        Boolean ativo = null;
+        if ("ativo".equalsIgnoreCase(status)) {
+            ativo = true;
+        } else if ("inativo".equalsIgnoreCase(status)) {
+            ativo = false;
         }
+        return new QueryFilter()
+                .equal("ativo", ativo)
+                .contains(search, "nomeTurma", "codigoTurma");
     }
 
     /**
@@ -79,11 +117,10 @@ public class TurmaDAO extends GenericDAO<Turma, Integer> {
     public List<Turma> findAtivas() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT t FROM Turma t WHERE t.ativo = true ORDER BY t.anoLetivo DESC, t.nomeTurma";
-            TypedQuery<Turma> query = em.createQuery(jpql, Turma.class);
+            TypedQuery<Turma> query = cacheable(em.createNamedQuery("Turma.findAtivas", Turma.class));
             return query.getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -91,9 +128,9 @@ public class TurmaDAO extends GenericDAO<Turma, Integer> {
     public List<Turma> findAll() {
         EntityManager em = getEntityManager();
         try {
-            return em.createQuery("SELECT t FROM Turma t ORDER BY t.anoLetivo DESC, t.nomeTurma", Turma.class).getResultList();
+            return cacheable(em.createNamedQuery("Turma.findAllOrderByAnoLetivo", Turma.class)).getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
@@ -2,23 +2,61 @@ package com.unifae.med.dao;
 
 import com.unifae.med.entity.Usuario;
 import com.unifae.med.entity.TipoUsuario;
+import com.unifae.med.rest.dto.UsuarioDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class UsuarioDAO extends GenericDAO<Usuario, Integer> {
 
+    /**
+     * Projeção das leituras da API REST (SELECT new UsuarioDTO): apenas as
+     * colunas do DTO, sem montar a entidade.
+     */
+    private static final String DTO_SELECTION = "new " + UsuarioDTO.class.getName()
+            + "(e.idUsuario, e.nomeCompleto, e.email, e.telefone, e.matriculaRA, e.tipoUsuario, "
+            + "e.ativo)";
+
     public UsuarioDAO() {
         super(Usuario.class);
     }
 
+    /**
+     * Atributos liberados para ordenação em findPage() (colunas indexadas).
+     */
+    @Override
+    protected Set<String> sortableAttributes() {
+        return Set.of("email");
+    }
+
+    /**
+     * Página de usuários já convertida em DTO, com a mesma paginação por cursor
+     * de findPage().
+     *
+     * @param request Parâmetros da página.
+     * @return Página de DTOs e cursor da próxima.
+     */
+    public KeysetPage<UsuarioDTO> findDTOPage(KeysetPageRequest request) {
+        return findPage(request, UsuarioDTO.class, DTO_SELECTION);
+    }
+
+    /**
+     * Busca o DTO pelo ID sem carregar a entidade.
+     *
+     * @param id ID do registro.
+     * @return Optional com o DTO, vazio se não existir.
+     */
+    public Optional<UsuarioDTO> findDTOById(Integer id) {
+        return findProjectionById(id, UsuarioDTO.class, DTO_SELECTION);
+    }
+
     public Optional<Usuario> findByEmail(String email) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE u.email = :email";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findByEmail", Usuario.class);
             query.setParameter("email", email);
             Usuario usuario = query.getSingleResult();
             return Optional.of(usuario);
@@ -27,15 +65,14 @@ public class UsuarioDAO extends GenericDAO<Usuario, Integer> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar usuário por email: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public Optional<Usuario> findByMatriculaRA(String matriculaRA) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE u.matriculaRA = :matriculaRA";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findByMatriculaRA", Usuario.class);
             query.setParameter("matriculaRA", matriculaRA);
             Usuario usuario = query.getSingleResult();
             return Optional.of(usuario);
@@ -44,76 +81,71 @@ public class UsuarioDAO extends GenericDAO<Usuario, Integer> {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar usuário por matrícula/RA: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<Usuario> findByTipoUsuario(TipoUsuario tipoUsuario) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE u.tipoUsuario = :tipoUsuario AND u.ativo = true";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findByTipoUsuario", Usuario.class);
             query.setParameter("tipoUsuario", tipoUsuario);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar usuários por tipo: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<Usuario> findAtivos() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE u.ativo = true ORDER BY u.nomeCompleto";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findAtivos", Usuario.class);
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar usuários ativos: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public List<Usuario> findByNomeContaining(String nome) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE LOWER(u.nomeCompleto) LIKE LOWER(:nome) AND u.ativo = true ORDER BY u.nomeCompleto";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findByNomeContaining", Usuario.class);
             query.setParameter("nome", "%" + nome + "%");
             return query.getResultList();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao buscar usuários por nome: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public boolean existsByEmail(String email) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(u) FROM Usuario u WHERE u.email = :email";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("Usuario.existsByEmail", Long.class);
             query.setParameter("email", email);
             return query.getSingleResult() > 0;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao verificar existência de email: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
     public boolean existsByMatriculaRA(String matriculaRA) {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT COUNT(u) FROM Usuario u WHERE u.matriculaRA = :matriculaRA";
-            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            TypedQuery<Long> query = em.createNamedQuery("Usuario.existsByMatriculaRA", Long.class);
             query.setParameter("matriculaRA", matriculaRA);
             return query.getSingleResult() > 0;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao verificar existência de matrícula/RA: " + e.getMessage(), e);
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -122,9 +154,9 @@ public class UsuarioDAO extends GenericDAO<Usuario, Integer> {
         EntityManager em = getEntityManager();
         try {
             // Usando JOIN FETCH para carregar a permissão e evitar N+1 queries na listagem
-            return em.createQuery("SELECT u FROM Usuario u LEFT JOIN FETCH u.permissao ORDER BY u.nomeCompleto", Usuario.class).getResultList();
+            return em.createNamedQuery("Usuario.findAllComPermissao", Usuario.class).getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 
@@ -136,12 +168,11 @@ public class UsuarioDAO extends GenericDAO<Usuario, Integer> {
     public List<Usuario> findProfessoresAtivos() {
         EntityManager em = getEntityManager();
         try {
-            String jpql = "SELECT u FROM Usuario u WHERE u.tipoUsuario = :tipo AND u.ativo = true ORDER BY u.nomeCompleto";
-            TypedQuery<Usuario> query = em.createQuery(jpql, Usuario.class);
+            TypedQuery<Usuario> query = em.createNamedQuery("Usuario.findProfessoresAtivos", Usuario.class);
             query.setParameter("tipo", TipoUsuario.PROFESSOR);
             return query.getResultList();
         } finally {
-            em.close();
+            closeEntityManager(em);
         }
     }
 }
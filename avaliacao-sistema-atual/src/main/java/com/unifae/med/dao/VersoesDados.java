@@ -0,0 +1,153 @@
+package com.unifae.med.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.StringJoiner;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * VERSOES DADOS - VERSÕES COMPARTILHADAS DOS CACHES EM MEMÓRIA
+ * ============================================================
+ *
+ * Contador por área e referência (ex: avaliações de um aluno, mês da
+ * agenda) na tabela versoes_dados. Quem grava os dados incrementa a versão
+ * na mesma transação; quem guarda um resultado em memória anota a versão
+ * lida antes de montá-lo e, antes de servi-lo de novo, compara com a do
+ * banco. Assim uma gravação feita em outro servidor também deixa o valor
+ * em cache desatualizado (a invalidação do CacheLimitado só alcança o
+ * servidor que gravou).
+ *
+ * É o mesmo mecanismo de locais_eventos_versoes (IndiceConflitosAgenda),
+ * para os caches que não têm uma linha de trava própria.
+ *
+ * CUSTO:
+ * A leitura é uma consulta pela chave primária no primário (a réplica pode
+ * estar atrasada em relação à versão). O incremento trava a linha até o
+ * fim da transação: gravações da mesma referência ficam em fila, como já
+ * acontece com as linhas de notas_agregados e locais_eventos_versoes.
+ * Várias referências são incrementadas num único comando, em ordem, para
+ * que duas transações não se travem em ordem inversa.
+ *
+ * Uma referência sem linha está na versão 0; a linha é criada no primeiro
+ * incremento. Uma área pode ter também uma referência geral (ex: todos os
+ * meses da agenda), somada à da referência (somar()): como as versões só
+ * crescem, a soma muda sempre que uma das duas é incrementada.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - AvaliacaoPreenchidaDAO.java: Versão das avaliações de cada aluno
+ *   (relatórios 360° e evolução)
+ * - CalendarioMensalAgenda.java: Versão de cada mês do calendário da agenda
+ * - RankingNotas.java: Versão das notas de cada turma
+ * - 01-script_estrutura_dados_banco_unifae.sql: Tabela versoes_dados
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+final class VersoesDados {
+
+    private static final String TABELA = "versoes_dados";
+
+    private static final String LER_SQL = "SELECT versao FROM versoes_dados WHERE area = ?1 AND id_referencia = ?2";
+
+    private static final String LER_AREA_SQL = "SELECT id_referencia, versao FROM versoes_dados WHERE area = ?1";
+
+    private VersoesDados() {
+    }
+
+    /**
+     * VERSÃO ATUAL
+     * ============
+     * @param em EntityManager do primário
+     * @param area Área (ex: "avaliacoes_aluno")
+     * @param idReferencia Referência dentro da área
+     * @return Versão gravada (0 se ainda não há linha)
+     */
+    static long ler(EntityManager em, String area, int idReferencia) {
+        List<?> versoes = nativa(em, LER_SQL, area, idReferencia).getResultList();
+        return versoes.isEmpty() ? 0 : ((Number) versoes.get(0)).longValue();
+    }
+
+    /**
+     * VERSÕES DE UMA ÁREA
+     * ===================
+     * @param em EntityManager do primário
+     * @param area Área
+     * @return Versão de cada referência que tem linha (as demais estão na 0)
+     */
+    static Map<Integer, Long> lerArea(EntityManager em, String area) {
+        Map<Integer, Long> versoes = new HashMap<>();
+        for (Object linha : nativa(em, LER_AREA_SQL, area).getResultList()) {
+            Object[] colunas = (Object[]) linha;
+            versoes.put(((Number) colunas[0]).intValue(), ((Number) colunas[1]).longValue());
+        }
+        return versoes;
+    }
+
+    /**
+     * SOMA DAS VERSÕES
+     * ================
+     * Versão de um valor que depende de várias referências (ex: o mês e a
+     * referência geral da área), numa única consulta.
+     *
+     * @param em EntityManager do primário
+     * @param area Área
+     * @param idsReferencia Referências dentro da área
+     * @return Soma das versões gravadas (0 se não há nenhuma linha)
+     */
+    static long somar(EntityManager em, String area, int... idsReferencia) {
+        StringJoiner ids = new StringJoiner(", ", "(", ")");
+        Object[] parametros = new Object[idsReferencia.length + 1];
+        parametros[0] = area;
+        for (int i = 0; i < idsReferencia.length; i++) {
+            ids.add("?" + (i + 2));
+            parametros[i + 1] = idsReferencia[i];
+        }
+        Object soma = nativa(em, "SELECT COALESCE(SUM(versao), 0) FROM versoes_dados WHERE area = ?1"
+                + " AND id_referencia IN " + ids, parametros).getSingleResult();
+        return ((Number) soma).longValue();
+    }
+
+    /**
+     * INCREMENTAR VERSÕES
+     * ===================
+     * Na transação ativa de em: a nova versão só é vista pelos outros
+     * servidores depois do commit.
+     *
+     * @param em EntityManager da gravação
+     * @param area Área
+     * @param idsReferencia Referências alteradas (em ordem)
+     */
+    static void incrementar(EntityManager em, String area, SortedSet<Integer> idsReferencia) {
+        if (idsReferencia.isEmpty()) {
+            return;
+        }
+        StringJoiner valores = new StringJoiner(", ");
+        Object[] parametros = new Object[idsReferencia.size() + 1];
+        parametros[0] = area;
+        int i = 1;
+        for (Integer idReferencia : idsReferencia) {
+            valores.add("(?1, ?" + (i + 1) + ", 1)");
+            parametros[i++] = idReferencia;
+        }
+        nativa(em, "INSERT INTO versoes_dados (area, id_referencia, versao) VALUES " + valores
+                + " ON DUPLICATE KEY UPDATE versao = versao + 1", parametros).executeUpdate();
+    }
+
+    /**
+     * Comandos nativos sem enviar alterações pendentes da entidade e sem
+     * invalidar o cache de segundo nível (declaram a própria tabela).
+     */
+    private static Query nativa(EntityManager em, String sql, Object... parametros) {
+        Query query = em.createNativeQuery(sql).setFlushMode(FlushModeType.COMMIT);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABELA);
+        for (int i = 0; i < parametros.length; i++) {
+            query.setParameter(i + 1, parametros[i]);
+        }
+        return query;
+    }
+}
@@ -9,6 +9,70 @@ import java.util.List;
 
 @Entity
 @Table(name = "avaliacoes_preenchidas")
+@NamedQueries({
+    @NamedQuery(name = "AvaliacaoPreenchida.findAllComAssociacoes",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "LEFT JOIN FETCH a.respostasItens "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByIdComAssociacoes",
+            query = "SELECT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "LEFT JOIN FETCH a.respostasItens "
+                    + "WHERE a.idAvaliacaoPreenchida = :id"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByAlunoAvaliado",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.alunoAvaliado = :alunoAvaliado "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByAvaliador",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.avaliador = :avaliador "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByQuestionario",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.questionario = :questionario "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByDataRealizacao",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.dataRealizacao BETWEEN :dataInicio AND :dataFim "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByAlunoAvaliadoAndQuestionario",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.alunoAvaliado = :alunoAvaliado AND a.questionario = :questionario "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findByTipoAvaliadorNaoUsuario",
+            query = "SELECT DISTINCT a FROM AvaliacaoPreenchida a "
+                    + "LEFT JOIN FETCH a.questionario "
+                    + "LEFT JOIN FETCH a.alunoAvaliado "
+                    + "LEFT JOIN FETCH a.avaliador "
+                    + "WHERE a.tipoAvaliadorNaoUsuario = :tipoAvaliadorNaoUsuario "
+                    + "ORDER BY a.idAvaliacaoPreenchida DESC"),
+    @NamedQuery(name = "AvaliacaoPreenchida.countByAlunoAvaliado",
+            query = "SELECT COUNT(a) FROM AvaliacaoPreenchida a "
+                    + "WHERE a.alunoAvaliado = :alunoAvaliado"),
+    @NamedQuery(name = "AvaliacaoPreenchida.findIdAluno",
+            query = "SELECT a.alunoAvaliado.idUsuario FROM AvaliacaoPreenchida a "
+                    + "WHERE a.idAvaliacaoPreenchida = :id")
+})
 public class AvaliacaoPreenchida {
 
     @Id
@@ -35,6 +35,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 /**
@@ -43,6 +45,25 @@ import java.util.List;
  */
 @Entity
 @Table(name = "competencias_questionario")
+@NamedQueries({
+    @NamedQuery(name = "CompetenciaQuestionario.findByTipoItem",
+            query = "SELECT c FROM CompetenciaQuestionario c "
+                    + "WHERE c.tipoItem = :tipoItem "
+                    + "ORDER BY c.nomeCompetencia"),
+    @NamedQuery(name = "CompetenciaQuestionario.findByNomeCompetenciaContaining",
+            query = "SELECT c FROM CompetenciaQuestionario c "
+                    + "WHERE LOWER(c.nomeCompetencia) LIKE LOWER(:nome) "
+                    + "ORDER BY c.nomeCompetencia"),
+    @NamedQuery(name = "CompetenciaQuestionario.existsByNomeCompetencia",
+            query = "SELECT COUNT(c) FROM CompetenciaQuestionario c "
+                    + "WHERE c.nomeCompetencia = :nomeCompetencia"),
+    @NamedQuery(name = "CompetenciaQuestionario.findByIdWithQuestionario",
+            query = "SELECT c FROM CompetenciaQuestionario c "
+                    + "JOIN FETCH c.questionario "
+                    + "WHERE c.idCompetenciaQuestionario = :id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class CompetenciaQuestionario {
 
     // Chave primária da tabela, gerada automaticamente.
@@ -3,9 +3,28 @@ package com.unifae.med.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "disciplinas")
+@NamedQueries({
+    @NamedQuery(name = "Disciplina.findByNomeDisciplina",
+            query = "SELECT d FROM Disciplina d "
+                    + "WHERE d.nomeDisciplina = :nomeDisciplina"),
+    @NamedQuery(name = "Disciplina.findBySiglaDisciplina",
+            query = "SELECT d FROM Disciplina d "
+                    + "WHERE d.siglaDisciplina = :sigla"),
+    @NamedQuery(name = "Disciplina.findAtivas",
+            query = "SELECT d FROM Disciplina d "
+                    + "WHERE d.ativa = true "
+                    + "ORDER BY d.nomeDisciplina"),
+    @NamedQuery(name = "Disciplina.findAllOrderByNome",
+            query = "SELECT d FROM Disciplina d "
+                    + "ORDER BY d.nomeDisciplina")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Disciplina {
 
     @Id
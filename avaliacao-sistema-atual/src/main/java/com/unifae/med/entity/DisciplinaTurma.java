@@ -4,6 +4,14 @@ import jakarta.persistence.*;
 
 @Entity
 @Table(name = "disciplinas_turmas")
+@NamedQueries({
+    @NamedQuery(name = "DisciplinaTurma.findByTurmaId",
+            query = "SELECT dt FROM DisciplinaTurma dt "
+                    + "JOIN FETCH dt.disciplina d "
+                    + "LEFT JOIN FETCH dt.professor p "
+                    + "WHERE dt.turma.idTurma = :turmaId "
+                    + "ORDER BY d.nomeDisciplina")
+})
 public class DisciplinaTurma {
 
     @Id
@@ -0,0 +1,44 @@
+package com.unifae.med.entity;
+
+/**
+ * ESCOPO AGREGADO - ENUM PARA OS GRUPOS DE NOTAS AGREGADAS
+ * ========================================================
+ *
+ * Define o grupo de notas que cada linha de notas_agregados resume.
+ *
+ * ESCOPOS DISPONÍVEIS:
+ * - ALUNO: Todas as notas ativas do aluno (idReferencia = aluno, idDisciplina = 0)
+ * - ALUNO_DISCIPLINA: Notas do aluno em uma disciplina (idReferencia = aluno)
+ * - TURMA_DISCIPLINA: Notas da turma em uma disciplina (idReferencia = turma;
+ *   notas sem turma não entram neste escopo)
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaAgregado.java: Entidade que usa este enum
+ * - NotaAgregadoDAO.java: Mantém e consulta os agregados
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public enum EscopoAgregado {
+
+    /**
+     * ALUNO
+     * =====
+     * Média geral e quantidade de notas do aluno.
+     */
+    ALUNO,
+
+    /**
+     * ALUNO NA DISCIPLINA
+     * ===================
+     * Média ponderada do aluno em uma disciplina.
+     */
+    ALUNO_DISCIPLINA,
+
+    /**
+     * TURMA NA DISCIPLINA
+     * ===================
+     * Média da turma em uma disciplina.
+     */
+    TURMA_DISCIPLINA
+}
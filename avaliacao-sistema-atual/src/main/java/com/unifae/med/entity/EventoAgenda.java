@@ -22,6 +22,71 @@ import java.time.LocalDateTime;
  */
 @Entity                           // Anotação que marca esta classe como uma entidade gerenciável pelo JPA.
 @Table(name = "eventos_agenda")   // Especifica que esta entidade está mapeada para a tabela chamada "eventos_agenda".
+@NamedQueries({
+    @NamedQuery(name = "EventoAgenda.findByPeriodo",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "LEFT JOIN FETCH e.localEvento "
+                    + "LEFT JOIN FETCH e.disciplina "
+                    + "LEFT JOIN FETCH e.turma "
+                    + "LEFT JOIN FETCH e.responsavel "
+                    + "WHERE e.dataInicio >= :inicioPrimeiroDia AND e.dataInicio < :inicioDiaSeguinte "
+                    + "AND e.regraRecorrencia IS NULL "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findSeriesByPeriodo",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "LEFT JOIN FETCH e.localEvento "
+                    + "LEFT JOIN FETCH e.disciplina "
+                    + "LEFT JOIN FETCH e.turma "
+                    + "LEFT JOIN FETCH e.responsavel "
+                    + "WHERE e.regraRecorrencia IS NOT NULL "
+                    + "AND e.dataInicio < :inicioDiaSeguinte AND e.fimRecorrencia >= :inicioPrimeiroDia"),
+    @NamedQuery(name = "EventoAgenda.findByTipoEvento",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.tipoEvento = :tipoEvento "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByStatusEvento",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.statusEvento = :statusEvento "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByResponsavel",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.responsavel = :responsavel "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByDisciplina",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.disciplina = :disciplina "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByTurma",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.turma = :turma "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByLocal",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.localEvento = :localEvento "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findProximosEventos",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.dataInicio >= :agora AND e.statusEvento = :statusAgendado "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findEventosEmAndamento",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "WHERE e.statusEvento = :statusEmAndamento "
+                    + "ORDER BY e.dataInicio ASC"),
+    @NamedQuery(name = "EventoAgenda.findByIdComAssociacoes",
+            query = "SELECT e FROM EventoAgenda e "
+                    + "LEFT JOIN FETCH e.localEvento "
+                    + "LEFT JOIN FETCH e.disciplina "
+                    + "LEFT JOIN FETCH e.turma "
+                    + "LEFT JOIN FETCH e.responsavel "
+                    + "WHERE e.idEvento = :id"),
+    @NamedQuery(name = "EventoAgenda.ocupacao",
+            query = "SELECT l.idLocalEvento, e.dataInicio, e.dataFim, e.statusEvento, e.regraRecorrencia "
+                    + "FROM EventoAgenda e "
+                    + "LEFT JOIN e.localEvento l "
+                    + "WHERE e.idEvento = :id"),
+    @NamedQuery(name = "EventoAgenda.periodoCalendario",
+            query = "SELECT e.dataInicio, e.fimRecorrencia FROM EventoAgenda e WHERE e.idEvento = :id")
+})
 public class EventoAgenda {
 
     /**
@@ -179,6 +244,35 @@ public class EventoAgenda {
     @Column(name = "status_evento", nullable = false)
     private StatusEvento statusEvento = StatusEvento.AGENDADO; // Valor padrão
 
+    /**
+     * REGRA DE RECORRÊNCIA ==================== Preenchida quando o evento é
+     * uma série (ex: aula toda segunda e quarta até o fim do semestre), no
+     * formato RRULE (ver RegraRecorrencia). A série é gravada uma única vez:
+     * dataInicio e dataFim são o horário da primeira ocorrência, e as demais
+     * ocorrências são geradas apenas para o período consultado. Ocorrências
+     * canceladas ou alteradas ficam em EventoAgendaExcecao.
+     */
+    @Column(name = "regra_recorrencia", length = 255)
+    private String regraRecorrencia;
+
+    /**
+     * FIM DA RECORRÊNCIA ================== Fim da última ocorrência da
+     * série (nulo em eventos simples). Calculado pelo EventoAgendaDAO ao
+     * gravar; permite buscar as séries de um período pelo índice, sem
+     * expandir todas.
+     */
+    @Column(name = "data_fim_recorrencia")
+    private LocalDateTime fimRecorrencia;
+
+    /**
+     * DATA DA OCORRÊNCIA ================== Não é gravada. Nas cópias
+     * geradas para cada ocorrência de uma série (calendário e listagem), é o
+     * início original da ocorrência, que a identifica mesmo quando ela foi
+     * remarcada. Nula nos eventos lidos do banco.
+     */
+    @Transient
+    private LocalDateTime dataOcorrencia;
+
     /**
      * DATA DE CRIAÇÃO =============== Armazena o timestamp de quando o registro
      * do evento foi criado.
@@ -332,6 +426,37 @@ public class EventoAgenda {
         this.statusEvento = statusEvento;
     }
 
+    public String getRegraRecorrencia() {
+        return regraRecorrencia;
+    }
+
+    public void setRegraRecorrencia(String regraRecorrencia) {
+        this.regraRecorrencia = regraRecorrencia;
+    }
+
+    public LocalDateTime getFimRecorrencia() {
+        return fimRecorrencia;
+    }
+
+    public void setFimRecorrencia(LocalDateTime fimRecorrencia) {
+        this.fimRecorrencia = fimRecorrencia;
+    }
+
+    public LocalDateTime getDataOcorrencia() {
+        return dataOcorrencia;
+    }
+
+    public void setDataOcorrencia(LocalDateTime dataOcorrencia) {
+        this.dataOcorrencia = dataOcorrencia;
+    }
+
+    /**
+     * @return true se o evento é uma série com regra de recorrência
+     */
+    public boolean isRecorrente() {
+        return regraRecorrencia != null;
+    }
+
     public LocalDateTime getDataCriacao() {
         return dataCriacao;
     }
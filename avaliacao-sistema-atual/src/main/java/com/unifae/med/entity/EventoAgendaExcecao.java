@@ -0,0 +1,197 @@
+package com.unifae.med.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+/**
+ * EVENTO AGENDA EXCECAO - ENTIDADE JPA PARA AS EXCEÇÕES DAS SÉRIES DA AGENDA
+ * =========================================================================
+ *
+ * Uma ocorrência de um evento recorrente (ver EventoAgenda.regraRecorrencia)
+ * que foge da regra: cancelada (ex: feriado) ou alterada (outro horário,
+ * local, título ou descrição). As ocorrências sem exceção não têm linha:
+ * são geradas pela regra.
+ *
+ * MAPEAMENTO DE BANCO:
+ * - Tabela: eventos_agenda_excecoes
+ * - Chave primária: id_excecao (auto incremento)
+ * - Chave única: (id_evento, data_ocorrencia)
+ *
+ * IDENTIFICAÇÃO DA OCORRÊNCIA:
+ * dataOcorrencia é o início original da ocorrência, pela regra; continua o
+ * mesmo quando a ocorrência é remarcada. Os campos alterados são opcionais:
+ * nulo mantém o valor da série.
+ *
+ * As exceções são gravadas pelo EventoAgendaDAO (salvarOcorrencia), que
+ * reserva o local do novo horário como em qualquer gravação de evento.
+ * Excluir a série exclui as exceções; exceções que deixam de corresponder
+ * a uma ocorrência quando a regra muda são removidas ao gravar a série.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgenda.java: A série
+ * - EventoAgendaDAO.java: Gravação e aplicação das exceções na expansão
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+@Entity
+@Table(name = "eventos_agenda_excecoes", uniqueConstraints = @UniqueConstraint(name = "uk_eventos_excecoes_ocorrencia",
+        columnNames = {"id_evento", "data_ocorrencia"}))
+@NamedQueries({
+    @NamedQuery(name = "EventoAgendaExcecao.findBySeries",
+            query = "SELECT x FROM EventoAgendaExcecao x "
+                    + "LEFT JOIN FETCH x.localEvento "
+                    + "WHERE x.evento.idEvento IN :ids "
+                    + "ORDER BY x.dataOcorrencia ASC"),
+    @NamedQuery(name = "EventoAgendaExcecao.findByOcorrencia",
+            query = "SELECT x FROM EventoAgendaExcecao x "
+                    + "WHERE x.evento.idEvento = :id AND x.dataOcorrencia = :dataOcorrencia"),
+    @NamedQuery(name = "EventoAgendaExcecao.alteracoes",
+            query = "SELECT x.dataOcorrencia, x.cancelada, x.dataInicio, x.dataFim, l.idLocalEvento "
+                    + "FROM EventoAgendaExcecao x "
+                    + "LEFT JOIN x.localEvento l "
+                    + "WHERE x.evento.idEvento = :id"),
+    @NamedQuery(name = "EventoAgendaExcecao.deleteBySerie",
+            query = "DELETE FROM EventoAgendaExcecao x WHERE x.evento.idEvento = :id")
+})
+public class EventoAgendaExcecao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_excecao")
+    private Integer idExcecao;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_evento", nullable = false, updatable = false)
+    private EventoAgenda evento;
+
+    /**
+     * Início original da ocorrência, pela regra da série.
+     */
+    @Column(name = "data_ocorrencia", nullable = false, updatable = false)
+    private LocalDateTime dataOcorrencia;
+
+    @Column(name = "cancelada", nullable = false, columnDefinition = "tinyint(1) default 0")
+    private boolean cancelada;
+
+    /**
+     * Novo início, ou nulo para manter o da regra.
+     */
+    @Column(name = "data_inicio")
+    private LocalDateTime dataInicio;
+
+    /**
+     * Novo fim, ou nulo para manter a duração da série.
+     */
+    @Column(name = "data_fim")
+    private LocalDateTime dataFim;
+
+    /**
+     * Outro local, ou nulo para manter o da série.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_local_evento")
+    private LocalEvento localEvento;
+
+    @Size(max = 255, message = "Título deve ter no máximo 255 caracteres")
+    @Column(name = "titulo", length = 255)
+    private String titulo;
+
+    @Column(name = "descricao", columnDefinition = "TEXT")
+    private String descricao;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+
+    public EventoAgendaExcecao() {
+    }
+
+    public Integer getIdExcecao() {
+        return idExcecao;
+    }
+
+    public EventoAgenda getEvento() {
+        return evento;
+    }
+
+    public void setEvento(EventoAgenda evento) {
+        this.evento = evento;
+    }
+
+    public LocalDateTime getDataOcorrencia() {
+        return dataOcorrencia;
+    }
+
+    public void setDataOcorrencia(LocalDateTime dataOcorrencia) {
+        this.dataOcorrencia = dataOcorrencia;
+    }
+
+    public boolean isCancelada() {
+        return cancelada;
+    }
+
+    public void setCancelada(boolean cancelada) {
+        this.cancelada = cancelada;
+    }
+
+    public LocalDateTime getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDateTime dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDateTime getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDateTime dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public LocalEvento getLocalEvento() {
+        return localEvento;
+    }
+
+    public void setLocalEvento(LocalEvento localEvento) {
+        this.localEvento = localEvento;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+
+    @Override
+    public String toString() {
+        return "EventoAgendaExcecao{"
+                + "idExcecao=" + idExcecao
+                + ", dataOcorrencia=" + dataOcorrencia
+                + ", cancelada=" + cancelada
+                + ", dataInicio=" + dataInicio
+                + '}';
+    }
+}
@@ -3,9 +3,30 @@ package com.unifae.med.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "locais_eventos")
+@NamedQueries({
+    @NamedQuery(name = "LocalEvento.findAllOrderByNome",
+            query = "SELECT l FROM LocalEvento l "
+                    + "ORDER BY l.nomeLocal"),
+    @NamedQuery(name = "LocalEvento.findByTipo",
+            query = "SELECT l FROM LocalEvento l "
+                    + "WHERE l.tipoLocal = :tipoLocal "
+                    + "ORDER BY l.nomeLocal"),
+    @NamedQuery(name = "LocalEvento.findByCidade",
+            query = "SELECT l FROM LocalEvento l "
+                    + "WHERE l.cidade = :cidade "
+                    + "ORDER BY l.nomeLocal"),
+    @NamedQuery(name = "LocalEvento.findByNomeContaining",
+            query = "SELECT l FROM LocalEvento l "
+                    + "WHERE LOWER(l.nomeLocal) LIKE LOWER(:nome) "
+                    + "ORDER BY l.nomeLocal")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class LocalEvento {
 
     @Id
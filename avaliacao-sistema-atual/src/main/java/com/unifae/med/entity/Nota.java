@@ -43,6 +43,8 @@ import java.time.LocalDate;
  * - Disciplina.java: Entidade relacionada
  * - Turma.java: Entidade relacionada
  * - NotaDAO.java: DAO para operações de banco
+ * - NotaAgregado.java: Médias mantidas a cada gravação de nota
+ * - BoletimTurmaDTO.java: Boletim da turma montado a partir das notas
  * - NotaServlet.java: Controlador web
  * 
  * @author Sistema de Avaliação UNIFAE
@@ -50,6 +52,108 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "notas")
+@NamedQueries({
+    @NamedQuery(name = "Nota.findByAluno",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.aluno = :aluno AND n.ativo = true "
+                    + "ORDER BY n.dataAvaliacao DESC"),
+    @NamedQuery(name = "Nota.findByAlunoAndDisciplina",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.aluno = :aluno AND n.disciplina = :disciplina AND n.ativo = true "
+                    + "ORDER BY n.dataAvaliacao DESC"),
+    @NamedQuery(name = "Nota.findByDisciplina",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.disciplina = :disciplina AND n.ativo = true "
+                    + "ORDER BY n.aluno.nomeCompleto, n.dataAvaliacao DESC"),
+    @NamedQuery(name = "Nota.findByTurma",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.turma = :turma AND n.ativo = true "
+                    + "ORDER BY n.disciplina.nomeDisciplina, n.aluno.nomeCompleto"),
+    @NamedQuery(name = "Nota.findByProfessor",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.professor = :professor AND n.ativo = true "
+                    + "ORDER BY n.dataLancamento DESC"),
+    @NamedQuery(name = "Nota.findByTipoAvaliacao",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.tipoAvaliacao = :tipoAvaliacao AND n.ativo = true "
+                    + "ORDER BY n.dataAvaliacao DESC"),
+    @NamedQuery(name = "Nota.findByPeriodo",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.dataAvaliacao BETWEEN :dataInicio AND :dataFim AND n.ativo = true "
+                    + "ORDER BY n.dataAvaliacao DESC"),
+    @NamedQuery(name = "Nota.boletimTurma",
+            query = "SELECT a.idUsuario, a.nomeCompleto, a.matriculaRA, "
+                    + "d.idDisciplina, d.nomeDisciplina, d.codigoDisciplina, n.valorNota, n.pesoNota "
+                    + "FROM Nota n JOIN n.aluno a JOIN n.disciplina d "
+                    + "WHERE n.turma.idTurma = :idTurma AND n.ativo = true "
+                    + "ORDER BY a.nomeCompleto, a.idUsuario, d.nomeDisciplina, d.idDisciplina"),
+    @NamedQuery(name = "Nota.findRecentesByAluno",
+            query = "SELECT n.idNota, d.idDisciplina, d.nomeDisciplina, n.tipoAvaliacao, "
+                    + "n.descricaoAvaliacao, n.valorNota, n.pesoNota, n.dataAvaliacao "
+                    + "FROM Nota n JOIN n.disciplina d "
+                    + "WHERE n.aluno.idUsuario = :idAluno AND n.ativo = true "
+                    + "ORDER BY n.dataAvaliacao DESC, n.idNota DESC"),
+    @NamedQuery(name = "Nota.estadoAgregado",
+            query = "SELECT n.aluno.idUsuario, n.disciplina.idDisciplina, t.idTurma, "
+                    + "n.valorNota, n.pesoNota, n.ativo "
+                    + "FROM Nota n LEFT JOIN n.turma t "
+                    + "WHERE n.idNota = :id"),
+    @NamedQuery(name = "Nota.findAtivas",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.ativo = true "
+                    + "ORDER BY n.dataLancamento DESC"),
+    @NamedQuery(name = "Nota.findAllComAssociacoes",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "ORDER BY n.dataLancamento DESC"),
+    @NamedQuery(name = "Nota.findByIdComAssociacoes",
+            query = "SELECT n FROM Nota n "
+                    + "LEFT JOIN FETCH n.aluno "
+                    + "LEFT JOIN FETCH n.disciplina "
+                    + "LEFT JOIN FETCH n.turma "
+                    + "LEFT JOIN FETCH n.professor "
+                    + "WHERE n.idNota = :id"),
+    @NamedQuery(name = "Nota.existeNota",
+            query = "SELECT COUNT(n) FROM Nota n "
+                    + "WHERE n.aluno = :aluno AND n.disciplina = :disciplina "
+                    + "AND n.tipoAvaliacao = :tipoAvaliacao AND n.dataAvaliacao = :dataAvaliacao "
+                    + "AND n.ativo = true")
+})
 public class Nota {
 
     /**
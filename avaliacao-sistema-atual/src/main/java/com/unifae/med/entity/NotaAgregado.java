@@ -0,0 +1,224 @@
+package com.unifae.med.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * NOTA AGREGADO - ENTIDADE JPA PARA AS MÉDIAS MANTIDAS DAS NOTAS
+ * ==============================================================
+ *
+ * Resumo pré-calculado das notas ativas de um grupo (ver EscopoAgregado):
+ * quantidade, soma dos valores, soma ponderada, soma dos pesos, menor e
+ * maior nota. As médias do NotaDAO são lidas daqui em uma única linha, sem
+ * percorrer a tabela notas.
+ *
+ * MAPEAMENTO DE BANCO:
+ * - Tabela: notas_agregados
+ * - Chave primária: id_agregado (auto incremento)
+ * - Chave única: (escopo, id_referencia, id_disciplina)
+ *
+ * MANUTENÇÃO:
+ * As linhas são alteradas apenas pelo NotaAgregadoDAO, com SQL nativo, na
+ * mesma transação de cada inclusão, alteração, inativação ou exclusão de
+ * Nota. Por isso a entidade não tem setters: é somente leitura na aplicação.
+ * NotaAgregadoDAO.reconstruir() recalcula tudo a partir de notas.
+ *
+ * MÉDIAS:
+ * - getMediaPonderada(): soma(valor × peso) / soma(peso), notas sem peso
+ *   ficam de fora (mesma regra do antigo SUM(valor * peso) / SUM(peso))
+ * - getMediaSimples(): soma(valor) / quantidade
+ * Ambas com 2 casas decimais; zero quando não há notas.
+ *
+ * APROVAÇÃO (boletim e painel do aluno):
+ * Aprovado na disciplina quando a média ponderada, sem arredondar, é ao
+ * menos a média de aprovação: soma(valor × peso) >= média × soma(peso).
+ * Sem pesos não há média e não há aprovação. É a média exibida no boletim
+ * e no painel do aluno (e a de NotaDAO.calcularMediaAlunoDisciplina()),
+ * por isso a situação também a usa. Aplicada em isAprovado() e no
+ * BoletimTurmaAcumulador. A consulta NotaAgregado.contarAprovadosDisciplina
+ * (NotaDAO.contarAlunosAprovadosDisciplina()) mantém a regra original da
+ * estatística da disciplina: média simples ao menos a de aprovação.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EscopoAgregado.java: Grupo resumido pela linha
+ * - NotaAgregadoDAO.java: Manutenção e leitura
+ * - NotaDAO.java: Atualiza os agregados ao gravar notas e lê as médias
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+@Entity
+@Table(name = "notas_agregados", uniqueConstraints = @UniqueConstraint(name = "uk_notas_agregados_grupo",
+        columnNames = {"escopo", "id_referencia", "id_disciplina"}))
+@NamedQueries({
+    @NamedQuery(name = "NotaAgregado.findByGrupo",
+            query = "SELECT a FROM NotaAgregado a "
+                    + "WHERE a.escopo = :escopo AND a.idReferencia = :idReferencia "
+                    + "AND a.idDisciplina = :idDisciplina"),
+    @NamedQuery(name = "NotaAgregado.contarAprovadosDisciplina",
+            query = "SELECT COUNT(a) FROM NotaAgregado a "
+                    + "WHERE a.escopo = com.unifae.med.entity.EscopoAgregado.ALUNO_DISCIPLINA "
+                    + "AND a.idDisciplina = :idDisciplina AND a.quantidade > 0 "
+                    + "AND a.somaValores >= :mediaAprovacao * a.quantidade"),
+    @NamedQuery(name = "NotaAgregado.findByAluno",
+            query = "SELECT a, d.nomeDisciplina FROM NotaAgregado a "
+                    + "LEFT JOIN Disciplina d ON d.idDisciplina = a.idDisciplina "
+                    + "WHERE a.escopo IN (com.unifae.med.entity.EscopoAgregado.ALUNO, "
+                    + "com.unifae.med.entity.EscopoAgregado.ALUNO_DISCIPLINA) "
+                    + "AND a.idReferencia = :idAluno AND a.quantidade > 0 "
+                    + "ORDER BY d.nomeDisciplina, a.idDisciplina")
+})
+public class NotaAgregado {
+
+    /**
+     * Valor de idDisciplina nas linhas do escopo ALUNO (todas as disciplinas).
+     */
+    public static final int TODAS_DISCIPLINAS = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_agregado")
+    private Integer idAgregado;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "escopo", nullable = false, updatable = false)
+    private EscopoAgregado escopo;
+
+    /**
+     * Aluno (escopos ALUNO e ALUNO_DISCIPLINA) ou turma (TURMA_DISCIPLINA).
+     */
+    @Column(name = "id_referencia", nullable = false, updatable = false)
+    private Integer idReferencia;
+
+    @Column(name = "id_disciplina", nullable = false, updatable = false)
+    private Integer idDisciplina;
+
+    @Column(name = "quantidade", nullable = false)
+    private Integer quantidade;
+
+    @Column(name = "soma_valores", nullable = false, precision = 12, scale = 2)
+    private BigDecimal somaValores;
+
+    @Column(name = "soma_ponderada", nullable = false, precision = 14, scale = 4)
+    private BigDecimal somaPonderada;
+
+    @Column(name = "soma_pesos", nullable = false, precision = 12, scale = 2)
+    private BigDecimal somaPesos;
+
+    @Column(name = "nota_minima", precision = 4, scale = 2)
+    private BigDecimal notaMinima;
+
+    @Column(name = "nota_maxima", precision = 4, scale = 2)
+    private BigDecimal notaMaxima;
+
+    @Column(name = "data_atualizacao", insertable = false, updatable = false)
+    private LocalDateTime dataAtualizacao;
+
+    // Construtor exigido pelo JPA
+    public NotaAgregado() {
+    }
+
+    /**
+     * MÉDIA PONDERADA
+     * ===============
+     * @return soma(valor × peso) / soma(peso), ou zero sem pesos
+     */
+    public BigDecimal getMediaPonderada() {
+        if (somaPesos == null || somaPesos.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return somaPonderada.divide(somaPesos, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * MÉDIA SIMPLES
+     * =============
+     * @return soma(valor) / quantidade, ou zero sem notas
+     */
+    public BigDecimal getMediaSimples() {
+        if (quantidade == null || quantidade == 0) {
+            return BigDecimal.ZERO;
+        }
+        return somaValores.divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * SITUAÇÃO NA DISCIPLINA
+     * ======================
+     * @param somaPonderada soma(valor × peso) das notas com peso
+     * @param somaPesos soma(peso) das mesmas notas
+     * @param mediaAprovacao Média mínima (ex: 6.0)
+     * @return true se a média ponderada sem arredondar é ao menos
+     *         mediaAprovacao; false sem pesos
+     */
+    public static boolean isAprovado(BigDecimal somaPonderada, BigDecimal somaPesos, BigDecimal mediaAprovacao) {
+        return somaPesos != null && somaPesos.signum() > 0
+                && somaPonderada.compareTo(mediaAprovacao.multiply(somaPesos)) >= 0;
+    }
+
+    /**
+     * @param mediaAprovacao Média mínima (ex: 6.0)
+     * @return Situação deste agregado (ver isAprovado(BigDecimal, BigDecimal, BigDecimal))
+     */
+    public boolean isAprovado(BigDecimal mediaAprovacao) {
+        return isAprovado(somaPonderada, somaPesos, mediaAprovacao);
+    }
+
+    // Getters
+    public Integer getIdAgregado() {
+        return idAgregado;
+    }
+
+    public EscopoAgregado getEscopo() {
+        return escopo;
+    }
+
+    public Integer getIdReferencia() {
+        return idReferencia;
+    }
+
+    public Integer getIdDisciplina() {
+        return idDisciplina;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public BigDecimal getSomaValores() {
+        return somaValores;
+    }
+
+    public BigDecimal getSomaPonderada() {
+        return somaPonderada;
+    }
+
+    public BigDecimal getSomaPesos() {
+        return somaPesos;
+    }
+
+    public BigDecimal getNotaMinima() {
+        return notaMinima;
+    }
+
+    public BigDecimal getNotaMaxima() {
+        return notaMaxima;
+    }
+
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+
+    @Override
+    public String toString() {
+        return "NotaAgregado{"
+                + "escopo=" + escopo
+                + ", idReferencia=" + idReferencia
+                + ", idDisciplina=" + idDisciplina
+                + ", quantidade=" + quantidade
+                + ", mediaPonderada=" + getMediaPonderada()
+                + '}';
+    }
+}
@@ -3,9 +3,18 @@ package com.unifae.med.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "permissoes")
+@NamedQueries({
+    @NamedQuery(name = "Permissao.findByNome",
+            query = "SELECT p FROM Permissao p "
+                    + "WHERE p.nomePermissao = :nomePermissao")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Permissao {
 
     @Id
@@ -18,8 +18,10 @@
  * - `@OneToMany`: Define a relação com `AvaliacaoPreenchida`. Um único modelo de
  * questionário (`Questionario`) pode ser preenchido várias vezes, gerando
  * múltiplas instâncias de `AvaliacaoPreenchida`.
- * - A relação com `CompetenciaQuestionario` é implícita aqui, mas é definida
- * na classe `CompetenciaQuestionario` através do atributo `mappedBy`.
+ * - `@OneToMany` (somente leitura): `competencias`, lado inverso da relação
+ * definida em `CompetenciaQuestionario.questionario`. É a única coleção guardada
+ * no cache de segundo nível; `avaliacoesPreenchidas` fica de fora de propósito,
+ * pois cresce a cada avaliação preenchida.
  * 3.  **Validação:** Anotações como `@NotBlank` e `@Size` garantem que os dados
  * sejam válidos antes da persistência.
  * 4.  **Estrutura:** A classe segue o padrão JavaBean com construtores, getters,
@@ -31,6 +33,8 @@ package com.unifae.med.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 /**
@@ -39,6 +43,13 @@ import java.util.List;
  */
 @Entity
 @Table(name = "questionarios")
+@NamedQueries({
+    @NamedQuery(name = "Questionario.findByNomeModelo",
+            query = "SELECT q FROM Questionario q "
+                    + "WHERE q.nomeModelo = :nomeModelo")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Questionario {
 
     // Chave primária da tabela, gerada automaticamente.
@@ -63,6 +74,14 @@ public class Questionario {
     @OneToMany(mappedBy = "questionario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AvaliacaoPreenchida> avaliacoesPreenchidas;
 
+    // Relacionamento: Um Questionário possui várias Competências (itens do formulário).
+    // Lado inverso (mappedBy), sem cascade: competências são gravadas pelo CompetenciaQuestionarioDAO.
+    // @Cache: a lista de IDs fica no cache de segundo nível, evitando consulta a cada formulário.
+    @OneToMany(mappedBy = "questionario", fetch = FetchType.LAZY)
+    @OrderBy("ordemExibicao ASC, idCompetenciaQuestionario ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private List<CompetenciaQuestionario> competencias;
+
     // Construtores
     /**
      * Construtor padrão sem argumentos, exigido pelo JPA.
@@ -114,6 +133,14 @@ public class Questionario {
         this.avaliacoesPreenchidas = avaliacoesPreenchidas;
     }
 
+    public List<CompetenciaQuestionario> getCompetencias() {
+        return competencias;
+    }
+
+    public void setCompetencias(List<CompetenciaQuestionario> competencias) {
+        this.competencias = competencias;
+    }
+
     /**
      * Retorna uma representação em String do objeto para fins de logging e
      * depuração.
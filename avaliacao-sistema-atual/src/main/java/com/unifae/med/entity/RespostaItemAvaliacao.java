@@ -6,6 +6,37 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "respostas_itens_avaliacao")
+@NamedQueries({
+    @NamedQuery(name = "RespostaItemAvaliacao.findByAvaliacaoPreenchida",
+            query = "SELECT r FROM RespostaItemAvaliacao r "
+                    + "LEFT JOIN FETCH r.competenciaQuestionario "
+                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida "
+                    + "ORDER BY r.competenciaQuestionario.nomeCompetencia"),
+    @NamedQuery(name = "RespostaItemAvaliacao.findByCompetenciaQuestionario",
+            query = "SELECT r FROM RespostaItemAvaliacao r "
+                    + "WHERE r.competenciaQuestionario = :competenciaQuestionario "
+                    + "ORDER BY r.avaliacaoPreenchida.dataRealizacao DESC"),
+    @NamedQuery(name = "RespostaItemAvaliacao.findByAvaliacaoPreenchidaAndCompetenciaQuestionario",
+            query = "SELECT r FROM RespostaItemAvaliacao r "
+                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida "
+                    + "AND r.competenciaQuestionario = :competenciaQuestionario"),
+    @NamedQuery(name = "RespostaItemAvaliacao.findNaoAvaliadas",
+            query = "SELECT r FROM RespostaItemAvaliacao r "
+                    + "WHERE r.naoAvaliado = true "
+                    + "ORDER BY r.avaliacaoPreenchida.dataRealizacao DESC"),
+    @NamedQuery(name = "RespostaItemAvaliacao.countByAvaliacaoPreenchida",
+            query = "SELECT COUNT(r) FROM RespostaItemAvaliacao r "
+                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida"),
+    @NamedQuery(name = "RespostaItemAvaliacao.deleteByAvaliacaoPreenchida",
+            query = "DELETE FROM RespostaItemAvaliacao r "
+                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida"),
+    @NamedQuery(name = "RespostaItemAvaliacao.findParaSincronizacao",
+            query = "SELECT r FROM RespostaItemAvaliacao r "
+                    + "WHERE r.avaliacaoPreenchida = :avaliacaoPreenchida"),
+    @NamedQuery(name = "RespostaItemAvaliacao.findIdAluno",
+            query = "SELECT r.avaliacaoPreenchida.alunoAvaliado.idUsuario FROM RespostaItemAvaliacao r "
+                    + "WHERE r.idRespostaAvaliacao = :id")
+})
 public class RespostaItemAvaliacao {
 
     @Id
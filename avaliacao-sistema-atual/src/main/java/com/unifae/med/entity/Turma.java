@@ -3,10 +3,26 @@ package com.unifae.med.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 // <<< MUDANÇA: Removido import java.time.Year >>>
 
 @Entity
 @Table(name = "turmas")
+@NamedQueries({
+    @NamedQuery(name = "Turma.findAtivas",
+            query = "SELECT t FROM Turma t "
+                    + "WHERE t.ativo = true "
+                    + "ORDER BY t.anoLetivo DESC, t.nomeTurma"),
+    @NamedQuery(name = "Turma.countTotalEAtivas",
+            query = "SELECT COUNT(t), COALESCE(SUM(CASE WHEN t.ativo = true THEN 1 ELSE 0 END), 0) "
+                    + "FROM Turma t"),
+    @NamedQuery(name = "Turma.findAllOrderByAnoLetivo",
+            query = "SELECT t FROM Turma t "
+                    + "ORDER BY t.anoLetivo DESC, t.nomeTurma")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Turma {
 
     @Id
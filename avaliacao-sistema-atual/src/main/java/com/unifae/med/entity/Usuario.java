@@ -46,6 +46,41 @@ import java.time.LocalDate;
  */
 @Entity                           // Marca como entidade JPA
 @Table(name = "usuarios")         // Mapeia para tabela 'usuarios'
+@NamedQueries({
+    @NamedQuery(name = "Usuario.findByEmail",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE u.email = :email"),
+    @NamedQuery(name = "Usuario.findByMatriculaRA",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE u.matriculaRA = :matriculaRA"),
+    @NamedQuery(name = "Usuario.findByTipoUsuario",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE u.tipoUsuario = :tipoUsuario AND u.ativo = true"),
+    @NamedQuery(name = "Usuario.findAtivos",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE u.ativo = true "
+                    + "ORDER BY u.nomeCompleto"),
+    @NamedQuery(name = "Usuario.findByNomeContaining",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE LOWER(u.nomeCompleto) LIKE LOWER(:nome) AND u.ativo = true "
+                    + "ORDER BY u.nomeCompleto"),
+    @NamedQuery(name = "Usuario.existsByEmail",
+            query = "SELECT COUNT(u) FROM Usuario u "
+                    + "WHERE u.email = :email"),
+    @NamedQuery(name = "Usuario.existsByMatriculaRA",
+            query = "SELECT COUNT(u) FROM Usuario u "
+                    + "WHERE u.matriculaRA = :matriculaRA"),
+    @NamedQuery(name = "Usuario.findProfessoresAtivos",
+            query = "SELECT u FROM Usuario u "
+                    + "WHERE u.tipoUsuario = :tipo AND u.ativo = true "
+                    + "ORDER BY u.nomeCompleto"),
+    @NamedQuery(name = "Usuario.findAllComPermissao",
+            query = "SELECT u FROM Usuario u "
+                    + "LEFT JOIN FETCH u.permissao "
+                    + "ORDER BY u.nomeCompleto"),
+    @NamedQuery(name = "Usuario.findNomesByIds",
+            query = "SELECT u.idUsuario, u.nomeCompleto FROM Usuario u WHERE u.idUsuario IN :ids")
+})
 public class Usuario {
 
     /**
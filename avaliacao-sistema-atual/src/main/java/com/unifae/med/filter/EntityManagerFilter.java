@@ -0,0 +1,114 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `EntityManagerFilter`, implementa o padrão "Open EntityManager in View"
+ * (unidade de trabalho por requisição). Antes dela, cada chamada de DAO abria e fechava
+ * seu próprio EntityManager: um único `AvaliacaoFormServlet.doPost` chegava a abrir
+ * mais de uma dúzia de contextos de persistência, cada um com sua retirada de conexão
+ * do pool e seu próprio flush.
+ *
+ * Funcionamento:
+ * 1.  **Abertura do escopo:** Antes de repassar a requisição, o filtro chama
+ * `JPAUtil.beginRequestScope()`. Nenhuma conexão é aberta neste momento; o
+ * EntityManager só é criado no primeiro acesso ao banco feito por um DAO.
+ *
+ * 2.  **Reutilização:** Servlets, recursos REST (o Jersey roda como servlet em `/api/*`,
+ * portanto também passa por este filtro) e JSPs compartilham o mesmo EntityManager.
+ * Entidades carregadas por `findById` continuam gerenciadas e associações LAZY podem
+ * ser navegadas sem `LazyInitializationException`.
+ *
+ * 3.  **Encerramento:** No `finally`, `JPAUtil.endRequestScope()` desfaz qualquer
+ * transação esquecida aberta e fecha o EntityManager, devolvendo a conexão ao pool.
+ *
+ * 4.  **Réplica de leitura:** Com `DB_REPLICA_URL` configurada, requisições de leitura
+ * abrem o escopo com `beginRequestScope(true)` e os DAOs leem da réplica (ver JPAUtil).
+ * São de leitura as requisições GET/HEAD, exceto:
+ * - links que gravam via GET (`action=delete`, `toggle`, `changeStatus` e as URLs
+ * terminadas em `/delete`), que vão direto ao primário;
+ * - requisições de uma sessão que gravou há menos de `DB_REPLICA_STICKY_MS`: após o
+ * POST → redirect → GET o usuário lê do primário e vê o que acabou de salvar, mesmo
+ * que a réplica ainda não tenha recebido a alteração.
+ * Ao final de uma requisição que gravou, o horário da escrita é guardado na sessão.
+ *
+ * Registrado no web.xml logo após o filtro de encoding, mapeado para `/*`.
+ * =================================================================================================
+ */
+package com.unifae.med.filter;
+
+import com.unifae.med.util.JPAUtil;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.util.Set;
+
+public class EntityManagerFilter implements Filter {
+
+    /**
+     * Atributo de sessão com o horário (ms) da última escrita da sessão.
+     */
+    private static final String ATRIBUTO_ULTIMA_ESCRITA = "jpa.ultimaEscritaMs";
+
+    /**
+     * Valores do parâmetro "action" que gravam mesmo chegando por GET.
+     */
+    private static final Set<String> ACOES_DE_ESCRITA = Set.of("delete", "toggle", "changeStatus");
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        // Se o escopo já estiver aberto (ex: dispatch interno), apenas segue a cadeia:
+        // quem abriu o escopo é responsável por encerrá-lo.
+        boolean openedHere = JPAUtil.beginRequestScope(isLeitura(httpRequest));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (openedHere) {
+                if (JPAUtil.hasWrittenInRequestScope() && JPAUtil.isReadReplicaConfigured()) {
+                    HttpSession session = httpRequest.getSession(false);
+                    if (session != null) {
+                        session.setAttribute(ATRIBUTO_ULTIMA_ESCRITA, System.currentTimeMillis());
+                    }
+                }
+                JPAUtil.endRequestScope();
+            }
+        }
+    }
+
+    /**
+     * Decide se a requisição pode ler da réplica.
+     *
+     * @param request Requisição HTTP.
+     * @return true para GET/HEAD que não gravam e não vêm logo após uma escrita da sessão.
+     */
+    private boolean isLeitura(HttpServletRequest request) {
+        if (!JPAUtil.isReadReplicaConfigured()) {
+            return false;
+        }
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+        String action = request.getParameter("action");
+        if ((action != null && ACOES_DE_ESCRITA.contains(action)) || request.getRequestURI().endsWith("/delete")) {
+            return false;
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            Object ultimaEscrita = session.getAttribute(ATRIBUTO_ULTIMA_ESCRITA);
+            if (ultimaEscrita instanceof Long
+                    && System.currentTimeMillis() - (Long) ultimaEscrita < JPAUtil.getReplicaStickyMillis()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
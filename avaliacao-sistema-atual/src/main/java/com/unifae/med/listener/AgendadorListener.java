@@ -0,0 +1,91 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AgendadorListener`, acompanha o ciclo de vida da aplicação no Tomcat: registra
+ * e inicia as tarefas em segundo plano (ver `AgendadorTarefas`) quando a aplicação sobe e, ao
+ * parar, espera as tarefas em andamento e fecha o EntityManagerFactory e os pools de conexão.
+ *
+ * Tarefas registradas (horário padrão, trocado por `JOB_<NOME>_CRON`; "off" desliga):
+ * - `reconstruir-agregados-notas` (02:30): Refaz `notas_agregados` e `notas_distribuicoes` a
+ * partir das notas, corrigindo alterações feitas fora da aplicação (o mesmo que
+ * `POST /api/notas/agregados/reconstruir`). Um servidor por noite.
+ * - `reconstruir-rankings` (02:45): Recarrega os rankings das turmas. Os rankings ficam na
+ * memória de cada servidor, por isso roda em todos.
+ * - `exportacao-analitica` (03:00): Exportação incremental das notas e avaliações para a
+ * pesquisa institucional (ver `ExportacaoAnaliticaDAO`). Um servidor por noite.
+ * - `descartar-indice-conflitos` (03:15): Descarta a ocupação dos locais mantida em memória
+ * para a verificação de conflitos de horário (ver `EventoAgendaDAO.hasConflito`), trazendo
+ * alterações feitas fora da aplicação. Roda em todos os servidores.
+ * - `limpar-historico-tarefas` (domingo, 04:00): Remove o histórico de execuções com mais de
+ * `JOBS_HISTORY_DAYS` dias.
+ *
+ * Principais aspectos:
+ * 1.  **Inicialização:** Usar o agendador inicializa o `JPAUtil`: a factory passa a ser criada
+ * (e as consultas nomeadas compiladas) na subida da aplicação, e não na primeira requisição.
+ * 2.  **Encerramento:** Antes deste listener nada fechava a factory; os pools do HikariCP
+ * ficavam abertos até a JVM terminar (e vazavam a cada redeploy).
+ *
+ * Registrado no web.xml.
+ * =================================================================================================
+ */
+package com.unifae.med.listener;
+
+import com.unifae.med.dao.EventoAgendaDAO;
+import com.unifae.med.dao.ExportacaoAnaliticaDAO;
+import com.unifae.med.dao.NotaAgregadoDAO;
+import com.unifae.med.dao.NotaDAO;
+import com.unifae.med.dao.TarefaAgendadaDAO;
+import com.unifae.med.rest.dto.ExportacaoAnaliticaDTO;
+import com.unifae.med.util.AgendadorTarefas;
+import com.unifae.med.util.JPAUtil;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+public class AgendadorListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        TarefaAgendadaDAO tarefaDAO = new TarefaAgendadaDAO();
+        NotaAgregadoDAO notaAgregadoDAO = new NotaAgregadoDAO();
+        NotaDAO notaDAO = new NotaDAO();
+        ExportacaoAnaliticaDAO exportacaoDAO = new ExportacaoAnaliticaDAO();
+        EventoAgendaDAO eventoAgendaDAO = new EventoAgendaDAO();
+
+        AgendadorTarefas.registrar("reconstruir-agregados-notas", "30 2 * * *", TimeUnit.MINUTES.toMillis(30), true,
+                () -> notaAgregadoDAO.reconstruir() + " grupos recalculados");
+
+        AgendadorTarefas.registrar("reconstruir-rankings", "45 2 * * *", TimeUnit.MINUTES.toMillis(10), false,
+                () -> notaDAO.reconstruirRanking() + " rankings carregados");
+
+        AgendadorTarefas.registrar("exportacao-analitica", "0 3 * * *", TimeUnit.HOURS.toMillis(2), true, () -> {
+            StringJoiner resumo = new StringJoiner("; ");
+            for (ExportacaoAnaliticaDAO.Tabela tabela : ExportacaoAnaliticaDAO.Tabela.values()) {
+                ExportacaoAnaliticaDTO exportacao = exportacaoDAO.exportar(tabela, null, true);
+                resumo.add(exportacao.getTabela() + ": " + exportacao.getLinhas() + " linhas");
+            }
+            return resumo.toString();
+        });
+
+        AgendadorTarefas.registrar("descartar-indice-conflitos", "15 3 * * *", TimeUnit.MINUTES.toMillis(1), false,
+                () -> eventoAgendaDAO.descartarIndiceConflitos() + " locais descartados");
+
+        AgendadorTarefas.registrar("limpar-historico-tarefas", "0 4 * * 0", TimeUnit.MINUTES.toMillis(10), true,
+                () -> tarefaDAO.removerHistoricoAnteriorA(
+                        LocalDateTime.now().minusDays(AgendadorTarefas.getDiasHistorico())) + " execuções removidas");
+
+        AgendadorTarefas.iniciar(tarefaDAO);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        try {
+            AgendadorTarefas.encerrar();
+        } finally {
+            JPAUtil.closeEntityManagerFactory();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AgendaFeedResource`, é um recurso JAX-RS somente de consulta no caminho base
+ * "/agenda" com os feeds iCalendar (".ics") da agenda, para alunos e professores assinarem
+ * no Google Agenda, Outlook ou no calendário do celular.
+ *
+ * Endpoints:
+ * - `GET /agenda/usuarios/{id}.ics`: Eventos de que o usuário é responsável ou participante
+ * e os das turmas em que está vinculado.
+ * - `GET /agenda/turmas/{id}.ics`, `GET /agenda/disciplinas/{id}.ics` e
+ * `GET /agenda/locais/{id}.ics`: Eventos da turma, da disciplina ou do local.
+ *
+ * Principais aspectos:
+ * 1.  **GET condicional:** Os aplicativos consultam o feed a cada poucos minutos ou horas.
+ * Antes de ler qualquer evento, uma consulta de agregação calcula a versão do feed (maior
+ * `data_atualizacao` e quantidade de eventos, ver `FeedAgenda`), que vira um `ETag` forte.
+ * Se o aplicativo reenviar o valor em `If-None-Match` e nada mudou, a resposta é 304 Not
+ * Modified sem ler os eventos. `Last-Modified` é informativo: a validação é só pelo
+ * `ETag`, que também muda quando um evento é excluído ou sai do feed.
+ * 2.  **Streaming:** Os eventos são escritos na resposta à medida que são lidos do banco
+ * (cursor somente para frente, na réplica de leitura se configurada), sem montar o arquivo
+ * nem as entidades em memória.
+ * 3.  **Séries:** Eventos recorrentes vão como um único evento com regra (RRULE), com as
+ * ocorrências canceladas e alteradas, e são expandidos pelo aplicativo.
+ * 4.  **Erros:** 404 Not Found se o usuário, turma, disciplina ou local não existe e 500
+ * Internal Server Error se a consulta falhar.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.EventoAgendaDAO;
+import com.unifae.med.dao.FeedAgenda;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Date;
+
+@Path("/agenda")
+public class AgendaFeedResource {
+
+    private static final String TEXT_CALENDAR = "text/calendar; charset=utf-8";
+
+    private final EventoAgendaDAO eventoDAO = new EventoAgendaDAO();
+
+    /**
+     * Endpoint dos feeds da agenda. Mapeado para: GET
+     * /agenda/{escopo}/{id}.ics
+     *
+     * @param nomeEscopo usuarios, turmas, disciplinas ou locais.
+     * @param id O ID do usuário, turma, disciplina ou local.
+     * @param request Requisição, para avaliar o If-None-Match.
+     * @return Resposta 200 OK com o calendário e ETag, 304 Not Modified se o
+     * ETag informado ainda vale, 404 Not Found ou 500 Internal Server Error.
+     */
+    @GET
+    @Path("/{escopo: usuarios|turmas|disciplinas|locais}/{id: \\d+}.ics")
+    public Response getFeed(@PathParam("escopo") String nomeEscopo,
+            @PathParam("id") Integer id,
+            @Context Request request) {
+        FeedAgenda.Escopo escopo = FeedAgenda.Escopo.of(nomeEscopo);
+        FeedAgenda.Versao versao;
+        try {
+            versao = eventoDAO.versaoFeed(escopo, id);
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao consultar feed da agenda: " + e.getMessage()).build();
+        }
+        if (!versao.isExiste()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        EntityTag etag = new EntityTag(versao.getTag());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if (naoModificado != null) {
+            return naoModificado.cacheControl(cacheControl).build();
+        }
+
+        String nome = "Agenda UNIFAE - " + escopo.getNome() + " " + id;
+        StreamingOutput calendario = saida -> {
+            Writer destino = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            eventoDAO.escreverFeed(versao, nome, destino);
+            destino.flush();
+        };
+        Response.ResponseBuilder resposta = Response.ok(calendario, TEXT_CALENDAR)
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "inline; filename=\"" + escopo.getNome() + "-" + id + ".ics\"");
+        if (versao.getUltimaAtualizacao() != null) {
+            resposta.lastModified(Date.from(versao.getUltimaAtualizacao().atZone(ZoneId.systemDefault()).toInstant()));
+        }
+        return resposta.build();
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AlocacaoLocaisResource`, é um recurso JAX-RS no caminho base
+ * "/agenda/alocacao-locais" com a alocação automática de locais: em vez de escolher à mão
+ * o local de centenas de eventos do semestre (e descobrir os conflitos um a um), o
+ * coordenador pede uma proposta para o período, revisa e aplica.
+ *
+ * Endpoints:
+ * - `POST /agenda/alocacao-locais/proposta?inicio=&fim=`: Calcula um local para cada evento
+ * sem local do período, sem conflito de horário e com capacidade para a turma (ver
+ * `AlocacaoLocais`). O corpo, opcional, restringe os tipos de local por tipo de evento, ex:
+ * `{"AULA": ["Sala de Aula", "Laboratório"], "PROVA": ["Auditório"]}`. Nada é gravado.
+ * - `POST /agenda/alocacao-locais/aplicacao`: Recebe os itens da proposta (`idEvento` e
+ * `idLocalEvento`, podendo ter sido editados) e grava todos numa única transação.
+ *
+ * Principais aspectos:
+ * 1.  **Tudo ou nada:** A aplicação reserva cada local como a gravação de um evento. Se
+ * outro evento ocupou um dos horários depois da proposta, ou se um evento já recebeu outro
+ * local, nada é gravado e a resposta é 409 Conflict: basta pedir uma nova proposta.
+ * 2.  **Erros:** 400 Bad Request para período, tipo de evento, item ou local inválido e 500
+ * Internal Server Error se a consulta falhar.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.EventoAgendaDAO;
+import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.TipoEvento;
+import com.unifae.med.rest.dto.AtribuicaoLocalDTO;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Path("/agenda/alocacao-locais")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AlocacaoLocaisResource {
+
+    /**
+     * Maior período aceito (um ano letivo).
+     */
+    private static final Duration PERIODO_MAXIMO = Duration.ofDays(366);
+
+    private final EventoAgendaDAO eventoDAO = new EventoAgendaDAO();
+
+    /**
+     * Endpoint da proposta de alocação. Mapeado para: POST
+     * /agenda/alocacao-locais/proposta
+     *
+     * @param inicio Início do período (yyyy-MM-ddTHH:mm[:ss]).
+     * @param fim Fim do período, exclusivo (yyyy-MM-ddTHH:mm[:ss]).
+     * @param tiposLocal Tipos de local permitidos por tipo de evento
+     * (opcional).
+     * @return Resposta 200 OK com a PropostaAlocacaoDTO, 400 Bad Request
+     * (período ou tipo de evento inválido) ou 500 Internal Server Error.
+     */
+    @POST
+    @Path("/proposta")
+    public Response proporAlocacao(@QueryParam("inicio") String inicio, @QueryParam("fim") String fim,
+            Map<String, List<String>> tiposLocal) {
+        if (inicio == null || fim == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("inicio e fim são obrigatórios.").build();
+        }
+        LocalDateTime dataInicio;
+        LocalDateTime dataFim;
+        try {
+            dataInicio = LocalDateTime.parse(inicio);
+            dataFim = LocalDateTime.parse(fim);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("inicio e fim devem estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        }
+        if (!dataFim.isAfter(dataInicio) || Duration.between(dataInicio, dataFim).compareTo(PERIODO_MAXIMO) > 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("fim deve ser posterior a inicio, em no máximo 366 dias.").build();
+        }
+
+        Map<TipoEvento, Set<String>> tipos = new EnumMap<>(TipoEvento.class);
+        if (tiposLocal != null) {
+            for (Map.Entry<String, List<String>> tipo : tiposLocal.entrySet()) {
+                try {
+                    tipos.put(TipoEvento.valueOf(tipo.getKey().trim().toUpperCase(Locale.ROOT)),
+                            tipo.getValue() == null ? Set.of() : new HashSet<>(tipo.getValue()));
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity("Tipo de evento inválido: " + tipo.getKey()).build();
+                }
+            }
+        }
+
+        try {
+            return Response.ok(eventoDAO.proporAlocacaoLocais(dataInicio, dataFim, tipos)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao propor alocação de locais: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint da aplicação de uma proposta. Mapeado para: POST
+     * /agenda/alocacao-locais/aplicacao
+     *
+     * @param itens Os itens da proposta a gravar (idEvento e idLocalEvento).
+     * @return Resposta 200 OK com a quantidade de eventos atualizados, 400
+     * Bad Request (item, evento ou local inválido) ou 409 Conflict (local
+     * ocupado no horário ou evento que já recebeu outro local; nada é
+     * gravado).
+     */
+    @POST
+    @Path("/aplicacao")
+    public Response aplicarAlocacao(List<AtribuicaoLocalDTO> itens) {
+        if (itens == null || itens.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Informe ao menos um item da proposta.").build();
+        }
+        Map<Integer, Integer> locaisPorEvento = new HashMap<>(itens.size() * 2);
+        for (AtribuicaoLocalDTO item : itens) {
+            if (item == null || item.getIdEvento() == null || item.getIdLocalEvento() == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Cada item deve ter idEvento e idLocalEvento.").build();
+            }
+            Integer anterior = locaisPorEvento.put(item.getIdEvento(), item.getIdLocalEvento());
+            if (anterior != null && !anterior.equals(item.getIdLocalEvento())) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("O evento " + item.getIdEvento() + " aparece com dois locais.").build();
+            }
+        }
+
+        List<EventoAgenda> atualizados;
+        try {
+            atualizados = eventoDAO.aplicarAlocacaoLocais(locaisPorEvento);
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        return Response.ok(Map.of("eventosAtualizados", atualizados.size())).build();
+    }
+}
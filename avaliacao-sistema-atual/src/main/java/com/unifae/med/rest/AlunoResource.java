@@ -0,0 +1,289 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AlunoResource`, é um recurso JAX-RS somente de consulta com as visões do
+ * próprio aluno, no caminho base "/alunos": o painel usado pelo aplicativo
+ * `painel_academico` na abertura, o relatório da avaliação 360° e a evolução das notas.
+ *
+ * Endpoints:
+ * - `GET /alunos/{id}/dashboard`: `DashboardAlunoDTO` com médias (geral e por disciplina),
+ * notas recentes, próximos eventos das turmas do aluno e avaliações pendentes. Os
+ * parâmetros opcionais `notas`, `eventos` e `avaliacoes` limitam cada lista (padrão 10,
+ * máximo 50).
+ * - `GET /alunos/{id}/relatorio-360`: `RelatorioFeedback360DTO` com as médias por fonte e
+ * competência e os comentários das avaliações 360° do aluno. `de` e `ate` (yyyy-MM-dd,
+ * opcionais e inclusivos) limitam o período.
+ * - `GET /alunos/{id}/evolucao`: `EvolucaoAlunoDTO` com uma série por competência do
+ * Mini-CEX e da 360°, agrupada por `agrupamento` (semana, mes ou semestre; padrão mes) e
+ * reduzida a `pontos` pontos por série (padrão 60, máximo 500) para os gráficos do
+ * aplicativo. `tipo` (repetível, ex: MINI_CEX) filtra os questionários; `de` e `ate`
+ * limitam o período.
+ *
+ * Principais aspectos:
+ * 1.  **Consultas em paralelo:** O aluno e as quatro partes do painel são consultas
+ * independentes; rodam ao mesmo tempo pelo `AsyncQueryExecutor` e a resposta espera
+ * apenas a mais lenta.
+ * 2.  **GET condicional:** A resposta leva um `ETag` calculado sobre o JSON. Se o
+ * aplicativo reenviar o valor em `If-None-Match` e nada mudou, a resposta é 304 Not
+ * Modified sem corpo: as consultas rodam, mas o painel não trafega de novo pela rede.
+ * `Cache-Control: private, no-cache` impede caches compartilhados e obriga a revalidação.
+ * 3.  **Relatório 360° em cache:** O relatório é guardado por aluno e período e só volta
+ * ao banco quando uma avaliação ou resposta do aluno é gravada (ver
+ * `AvaliacaoPreenchidaDAO.gerarRelatorio360`). A evolução usa as notas diárias do aluno,
+ * guardadas e invalidadas da mesma forma (ver `AvaliacaoPreenchidaDAO.gerarEvolucao`).
+ * 4.  **Erros:** 404 Not Found se o ID não é de um estudante, 400 Bad Request para
+ * limites ou datas inválidos e 500 Internal Server Error se uma consulta falhar.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unifae.med.dao.AvaliacaoPreenchidaDAO;
+import com.unifae.med.dao.EventoAgendaDAO;
+import com.unifae.med.dao.NotaDAO;
+import com.unifae.med.dao.UsuarioDAO;
+import com.unifae.med.entity.TipoUsuario;
+import com.unifae.med.entity.Usuario;
+import com.unifae.med.rest.dto.AvaliacaoResumoDTO;
+import com.unifae.med.rest.dto.DashboardAlunoDTO;
+import com.unifae.med.rest.dto.EventoAgendaResumoDTO;
+import com.unifae.med.rest.dto.EvolucaoAlunoDTO;
+import com.unifae.med.rest.dto.RelatorioFeedback360DTO;
+import com.unifae.med.util.AsyncQueryExecutor;
+import com.unifae.med.util.SerieTemporal;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Providers;
+
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+@Path("/alunos")
+@Produces(MediaType.APPLICATION_JSON)
+public class AlunoResource {
+
+    private static final int LIMITE_MAXIMO = 50;
+    private static final int PONTOS_MAXIMOS = 500;
+
+    // DAOs consultados para montar o painel do aluno.
+    private final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    private final NotaDAO notaDAO = new NotaDAO();
+    private final EventoAgendaDAO eventoAgendaDAO = new EventoAgendaDAO();
+    private final AvaliacaoPreenchidaDAO avaliacaoDAO = new AvaliacaoPreenchidaDAO();
+
+    // Acesso ao ObjectMapper configurado da API (ObjectMapperContextResolver).
+    @Context
+    private Providers providers;
+
+    /**
+     * Endpoint do painel do aluno. Mapeado para: GET /alunos/{id}/dashboard
+     *
+     * @param id O ID do aluno.
+     * @param limiteNotas Quantidade de notas recentes.
+     * @param limiteEventos Quantidade de próximos eventos.
+     * @param limiteAvaliacoes Quantidade de avaliações pendentes.
+     * @param request Requisição, para avaliar o If-None-Match.
+     * @return Resposta 200 OK com o DashboardAlunoDTO e ETag, 304 Not Modified
+     * se o ETag informado ainda vale, 400 Bad Request, 404 Not Found ou 500
+     * Internal Server Error.
+     */
+    @GET
+    @Path("/{id}/dashboard")
+    public Response getDashboard(@PathParam("id") Integer id,
+            @QueryParam("notas") @DefaultValue("10") int limiteNotas,
+            @QueryParam("eventos") @DefaultValue("10") int limiteEventos,
+            @QueryParam("avaliacoes") @DefaultValue("10") int limiteAvaliacoes,
+            @Context Request request) {
+        if (!limiteValido(limiteNotas) || !limiteValido(limiteEventos) || !limiteValido(limiteAvaliacoes)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Os limites devem estar entre 1 e " + LIMITE_MAXIMO + ".").build();
+        }
+
+        DashboardAlunoDTO dashboard;
+        try (AsyncQueryExecutor.Batch lote = AsyncQueryExecutor.newBatch()) {
+            Future<Optional<Usuario>> alunoFuture = lote.submit(() -> usuarioDAO.findById(id));
+            Future<DashboardAlunoDTO.ResumoNotas> notasFuture = lote.submit(() -> notaDAO.resumirNotasAluno(id));
+            Future<List<DashboardAlunoDTO.NotaRecente>> recentesFuture = lote.submit(() -> notaDAO.findRecentesByAluno(id, limiteNotas));
+            Future<List<EventoAgendaResumoDTO>> eventosFuture = lote.submit(() -> eventoAgendaDAO.findProximosResumosByAluno(id, limiteEventos));
+            Future<List<AvaliacaoResumoDTO>> pendentesFuture = lote.submit(() -> avaliacaoDAO.findPendentesByAluno(id, limiteAvaliacoes));
+            lote.join();
+
+            Usuario aluno = alunoFuture.resultNow().orElse(null);
+            if (aluno == null || aluno.getTipoUsuario() != TipoUsuario.ESTUDANTE) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            dashboard = new DashboardAlunoDTO(aluno.getIdUsuario(), aluno.getNomeCompleto(), aluno.getMatriculaRA(),
+                    notasFuture.resultNow(), recentesFuture.resultNow(), eventosFuture.resultNow(),
+                    pendentesFuture.resultNow());
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao montar painel do aluno: " + e.getMessage()).build();
+        }
+
+        try {
+            // O JSON é gerado aqui (e não pelo Jersey) para calcular o ETag sobre os mesmos bytes enviados
+            byte[] json = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE)
+                    .getContext(DashboardAlunoDTO.class)
+                    .writeValueAsBytes(dashboard);
+            EntityTag etag = new EntityTag(resumo(json));
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setPrivate(true);
+            cacheControl.setNoCache(true);
+
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.cacheControl(cacheControl).build();
+            }
+            return Response.ok(json, MediaType.APPLICATION_JSON_TYPE).tag(etag).cacheControl(cacheControl).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao gerar painel do aluno: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint do relatório 360° do aluno. Mapeado para: GET
+     * /alunos/{id}/relatorio-360
+     *
+     * @param id O ID do aluno.
+     * @param de Data inicial (yyyy-MM-dd, opcional).
+     * @param ate Data final (yyyy-MM-dd, opcional).
+     * @return Resposta 200 OK com o RelatorioFeedback360DTO, 400 Bad Request,
+     * 404 Not Found ou 500 Internal Server Error.
+     */
+    @GET
+    @Path("/{id}/relatorio-360")
+    public Response getRelatorio360(@PathParam("id") Integer id,
+            @QueryParam("de") String de,
+            @QueryParam("ate") String ate) {
+        LocalDate inicio;
+        LocalDate fim;
+        try {
+            inicio = data(de);
+            fim = data(ate);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Datas devem estar no formato yyyy-MM-dd.").build();
+        }
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("A data inicial não pode ser posterior à final.").build();
+        }
+
+        try {
+            Usuario aluno = usuarioDAO.findById(id).orElse(null);
+            if (aluno == null || aluno.getTipoUsuario() != TipoUsuario.ESTUDANTE) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            RelatorioFeedback360DTO relatorio = avaliacaoDAO.gerarRelatorio360(id, inicio, fim);
+            return Response.ok(relatorio).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao gerar relatório 360° do aluno: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint da evolução do aluno por competência. Mapeado para: GET
+     * /alunos/{id}/evolucao
+     *
+     * @param id O ID do aluno.
+     * @param agrupamento semana, mes ou semestre (padrão mes).
+     * @param pontos Máximo de pontos por série (2 a 500, padrão 60).
+     * @param tipos Tipos de questionário (ex: MINI_CEX; pode repetir, padrão
+     * todos).
+     * @param de Data inicial (yyyy-MM-dd, opcional).
+     * @param ate Data final (yyyy-MM-dd, opcional).
+     * @return Resposta 200 OK com o EvolucaoAlunoDTO, 400 Bad Request, 404
+     * Not Found ou 500 Internal Server Error.
+     */
+    @GET
+    @Path("/{id}/evolucao")
+    public Response getEvolucao(@PathParam("id") Integer id,
+            @QueryParam("agrupamento") @DefaultValue("mes") String agrupamento,
+            @QueryParam("pontos") @DefaultValue("60") int pontos,
+            @QueryParam("tipo") List<String> tipos,
+            @QueryParam("de") String de,
+            @QueryParam("ate") String ate) {
+        SerieTemporal.Periodo periodo;
+        try {
+            periodo = SerieTemporal.Periodo.of(agrupamento);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        if (pontos < 2 || pontos > PONTOS_MAXIMOS) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("pontos deve estar entre 2 e " + PONTOS_MAXIMOS + ".").build();
+        }
+        Set<String> questionarios = new LinkedHashSet<>();
+        for (String tipo : tipos) {
+            String nome = tipo.trim().toUpperCase(Locale.ROOT);
+            if (!AvaliacaoPreenchidaDAO.getQuestionariosEvolucao().contains(nome)) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Tipo de questionário inválido: " + tipo
+                        + " (use " + String.join(", ", AvaliacaoPreenchidaDAO.getQuestionariosEvolucao()) + ")").build();
+            }
+            questionarios.add(nome);
+        }
+        LocalDate inicio;
+        LocalDate fim;
+        try {
+            inicio = data(de);
+            fim = data(ate);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Datas devem estar no formato yyyy-MM-dd.").build();
+        }
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("A data inicial não pode ser posterior à final.").build();
+        }
+
+        try {
+            Usuario aluno = usuarioDAO.findById(id).orElse(null);
+            if (aluno == null || aluno.getTipoUsuario() != TipoUsuario.ESTUDANTE) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            EvolucaoAlunoDTO evolucao = avaliacaoDAO.gerarEvolucao(id, periodo, pontos, questionarios, inicio, fim);
+            return Response.ok(evolucao).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao gerar evolução do aluno: " + e.getMessage()).build();
+        }
+    }
+
+    private static LocalDate data(String valor) {
+        return valor == null || valor.isBlank() ? null : LocalDate.parse(valor.trim());
+    }
+
+    private static boolean limiteValido(int limite) {
+        return limite >= 1 && limite <= LIMITE_MAXIMO;
+    }
+
+    /**
+     * Primeiros 128 bits do SHA-256 do conteúdo, em Base64 URL.
+     */
+    private static String resumo(byte[] conteudo) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+    }
+}
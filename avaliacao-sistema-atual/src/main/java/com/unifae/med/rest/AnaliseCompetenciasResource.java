@@ -0,0 +1,154 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AnaliseCompetenciasResource`, é um recurso JAX-RS somente de consulta que
+ * expõe a distribuição das notas das competências para a coordenação, no caminho base
+ * "/analises/competencias". Os cálculos são feitos em memória pelo `CuboCompetencias`,
+ * sem consultas ao banco por requisição.
+ *
+ * Endpoints:
+ * - `GET /analises/competencias`: Quantidade, não avaliados, média, desvio padrão, mínimo,
+ * máximo e (opcionais) histograma, percentis e posição de uma nota, agrupados e filtrados
+ * pelos parâmetros:
+ *   - `agrupar`: dimensões separadas por vírgula (COMPETENCIA, TIPO_AVALIACAO, TURMA,
+ *   TIPO_AVALIADOR, MES, SEMESTRE, ANO); sem `agrupar`, um único grupo com o total
+ *   - `competencia`, `turma`: IDs (parâmetro repetido para vários valores)
+ *   - `tipoAvaliacao`, `tipoAvaliador`: nomes (ex: MINI_CEX, PROFESSOR, PACIENTE)
+ *   - `de`, `ate`: período da data de realização (yyyy-MM-dd, inclusivo)
+ *   - `faixa`: largura das faixas do histograma (ex: 1 ou 0.5); sem `faixa`, sem histograma
+ *   - `percentis`: percentis separados por vírgula (ex: 25,50,75; 50 é a mediana). Valores
+ *   exatos (iguais ao PERCENTILE_DISC do banco), sem erro de aproximação
+ *   - `valor`: nota cuja posição percentual em cada grupo é devolvida em `percentilDoValor`
+ *   Exemplo: `/analises/competencias?agrupar=COMPETENCIA,TIPO_AVALIADOR&turma=3&de=2025-01-01&faixa=1&percentis=50,90`
+ * - `GET /analises/competencias/estado`: Linhas em memória e dados da última carga.
+ * - `POST /analises/competencias/atualizar?completa=true|false`: Aplica as alterações do banco
+ * imediatamente (por padrão só as alterações; `completa=true` recarrega tudo).
+ *
+ * Parâmetros inválidos resultam em 400 Bad Request.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.util.ConsultaCubo;
+import com.unifae.med.util.CuboCompetencias;
+import com.unifae.med.util.DimensaoCubo;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Path("/analises/competencias")
+@Produces(MediaType.APPLICATION_JSON)
+public class AnaliseCompetenciasResource {
+
+    /**
+     * Endpoint de consulta dos agregados. Mapeado para: GET
+     * /analises/competencias
+     *
+     * @return Resposta 200 OK com os grupos e metadados da consulta, 400 Bad
+     * Request se um parâmetro for inválido, ou 500 Internal Server Error se o
+     * cubo não puder ser carregado.
+     */
+    @GET
+    public Response consultar(@QueryParam("agrupar") String agrupar,
+            @QueryParam("competencia") List<Integer> competencias,
+            @QueryParam("tipoAvaliacao") List<String> tiposAvaliacao,
+            @QueryParam("turma") List<Integer> turmas,
+            @QueryParam("tipoAvaliador") List<String> tiposAvaliador,
+            @QueryParam("de") String de,
+            @QueryParam("ate") String ate,
+            @QueryParam("faixa") String faixa,
+            @QueryParam("percentis") String percentis,
+            @QueryParam("valor") String valor) {
+        ConsultaCubo consulta;
+        try {
+            consulta = new ConsultaCubo()
+                    .filtrar(DimensaoCubo.COMPETENCIA, competencias)
+                    .filtrar(DimensaoCubo.TIPO_AVALIACAO, tiposAvaliacao)
+                    .filtrar(DimensaoCubo.TURMA, turmas)
+                    .filtrar(DimensaoCubo.TIPO_AVALIADOR, tiposAvaliador)
+                    .periodo(data(de), data(ate))
+                    .histograma(faixa == null || faixa.isBlank() ? null : new BigDecimal(faixa.trim()))
+                    .percentis(percentis(percentis))
+                    .posicaoDe(valor == null || valor.isBlank() ? null : new BigDecimal(valor.trim()));
+            if (agrupar != null) {
+                for (String dimensao : agrupar.split(",")) {
+                    if (!dimensao.isBlank()) {
+                        consulta.agrupar(DimensaoCubo.valueOf(dimensao.trim().toUpperCase(Locale.ROOT)));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de análise inválidos: " + e.getMessage()).build();
+        }
+
+        try {
+            return Response.ok(CuboCompetencias.consultar(consulta)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de análise inválidos: " + e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao consultar análise de competências: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint com o estado do cubo em memória. Mapeado para: GET
+     * /analises/competencias/estado
+     *
+     * @return Mapa com linhas carregadas e dados da última carga.
+     */
+    @GET
+    @Path("/estado")
+    public Map<String, Object> getEstado() {
+        return CuboCompetencias.getEstado();
+    }
+
+    /**
+     * Endpoint para atualizar o cubo imediatamente. Mapeado para: POST
+     * /analises/competencias/atualizar
+     *
+     * @param completa true para recarregar tudo em vez de só as alterações.
+     * @return Resposta 200 OK com o estado após a atualização, ou 500
+     * Internal Server Error em caso de erro (o cubo anterior é mantido).
+     */
+    @POST
+    @Path("/atualizar")
+    public Response atualizar(@QueryParam("completa") @DefaultValue("false") boolean completa) {
+        try {
+            return Response.ok(CuboCompetencias.atualizar(completa)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao atualizar análise de competências: " + e.getMessage()).build();
+        }
+    }
+
+    private static LocalDate data(String valor) {
+        return valor == null || valor.isBlank() ? null : LocalDate.parse(valor.trim());
+    }
+
+    private static double[] percentis(String valores) {
+        if (valores == null || valores.isBlank()) {
+            return new double[0];
+        }
+        return Arrays.stream(valores.split(","))
+                .filter(p -> !p.isBlank())
+                .mapToDouble(p -> Double.parseDouble(p.trim()))
+                .toArray();
+    }
+}
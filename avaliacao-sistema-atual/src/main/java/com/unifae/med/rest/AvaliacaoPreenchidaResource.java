@@ -28,8 +28,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Define o caminho base para todos os endpoints nesta classe. Todas as
@@ -49,16 +47,21 @@ public class AvaliacaoPreenchidaResource {
      * Endpoint para listar todas as avaliações preenchidas. Mapeado para: GET
      * /avaliacoes
      *
-     * @return Uma lista de AvaliacaoPreenchidaDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de AvaliacaoPreenchidaDTO, ou 400
+     * Bad Request se a paginação for inválida.
      */
     @GET
-    public List<AvaliacaoPreenchidaDTO> getAllAvaliacoes() {
-        // Busca todas as entidades do banco
-        return avaliacaoDAO.findAll().stream()
-                // Mapeia cada entidade para seu respectivo DTO
-                .map(this::toDTO)
-                // Coleta os DTOs em uma lista
-                .collect(Collectors.toList());
+    public Response getAllAvaliacoes(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(avaliacaoDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -72,8 +75,7 @@ public class AvaliacaoPreenchidaResource {
     @GET
     @Path("/{id}")
     public Response getAvaliacaoById(@PathParam("id") Integer id) {
-        return avaliacaoDAO.findById(id)
-                .map(this::toDTO) // Converte a entidade para DTO
+        return avaliacaoDAO.findDTOById(id) // Projeção direto no DTO
                 .map(dto -> Response.ok(dto).build()) // Cria uma resposta 200 OK com o DTO
                 .orElse(Response.status(Response.Status.NOT_FOUND).build()); // Cria uma resposta 404
     }
@@ -9,9 +9,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/questionarios/{questionarioId}/competencias")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -20,11 +17,27 @@ public class CompetenciaQuestionarioResource {
     private final CompetenciaQuestionarioDAO competenciaDAO = new CompetenciaQuestionarioDAO();
     private final QuestionarioDAO questionarioDAO = new QuestionarioDAO();
 
+    /**
+     * Lista as competências do questionário. Mapeado para: GET
+     * /questionarios/{questionarioId}/competencias
+     *
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param questionarioId O ID do questionário.
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de CompetenciaQuestionarioDTO, ou
+     * 400 Bad Request se a paginação for inválida.
+     */
     @GET
-    public List<CompetenciaQuestionarioDTO> listarCompetenciasPorQuestionario(@PathParam("questionarioId") Integer questionarioId) {
-        return competenciaDAO.findByQuestionarioAndFilters(questionarioId, null).stream()
-                .map(CompetenciaQuestionarioDTO::new)
-                .collect(Collectors.toList());
+    public Response listarCompetenciasPorQuestionario(@PathParam("questionarioId") Integer questionarioId,
+            @BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(competenciaDAO.findDTOPageByQuestionario(questionarioId, paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     @GET
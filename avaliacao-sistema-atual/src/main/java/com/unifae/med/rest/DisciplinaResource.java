@@ -27,8 +27,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Define o caminho (path) base para todos os endpoints desta classe. Indica
@@ -47,13 +45,21 @@ public class DisciplinaResource {
      * Endpoint para listar todas as disciplinas cadastradas. Mapeado para: GET
      * /disciplinas
      *
-     * @return Uma lista contendo todas as disciplinas como DTOs.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de disciplinas como DTOs, ou 400
+     * Bad Request se a paginação for inválida.
      */
     @GET
-    public List<DisciplinaDTO> getAllDisciplinas() {
-        return disciplinaDAO.findAll().stream()
-                .map(this::toDTO) // Converte cada entidade para DTO
-                .collect(Collectors.toList());
+    public Response getAllDisciplinas(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(disciplinaDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -22,19 +22,31 @@
  *
  * Este padrão de "montagem" e "desmontagem" de objetos é central para manter a API
  * desacoplada e eficiente, evitando que dados desnecessários trafeguem pela rede.
+ *
+ * 3.  **Conflitos de Horário:** Criar ou atualizar um evento em um local e horário já
+ * ocupados por outro evento não cancelado responde 409 Conflict (a reserva do local é
+ * feita pelo `EventoAgendaDAO.save`, na mesma transação). `GET /eventos/conflitos`
+ * lista os eventos que ocupam um local em um horário, sem gravar nada.
+ *
+ * 4.  **Eventos Recorrentes:** Um evento com `regraRecorrencia` é gravado uma vez, como
+ * série (regra inválida responde 400). `GET /eventos/periodo` devolve cada ocorrência do
+ * período como um DTO com `dataOcorrencia`; `PUT` e `DELETE` em
+ * `/eventos/{id}/ocorrencias/{dataOcorrencia}` alteram ou cancelam só uma ocorrência.
  * =================================================================================================
  */
 package com.unifae.med.rest;
 
 import com.unifae.med.dao.*;
 import com.unifae.med.entity.EventoAgenda;
+import com.unifae.med.entity.EventoAgendaExcecao;
+import com.unifae.med.entity.StatusEvento;
 import com.unifae.med.rest.dto.EventoAgendaDTO;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.format.DateTimeParseException;
 
 @Path("/eventos")
 @Produces(MediaType.APPLICATION_JSON)
@@ -48,17 +60,98 @@ public class EventoAgendaResource {
     private final TurmaDAO turmaDAO = new TurmaDAO();
     private final UsuarioDAO usuarioDAO = new UsuarioDAO();
 
+    /**
+     * Maior período aceito por GET /eventos/periodo (as séries são expandidas
+     * em memória).
+     */
+    private static final Duration PERIODO_MAXIMO = Duration.ofDays(366);
+
     /**
      * Endpoint para listar todos os eventos da agenda. Mapeado para: GET
      * /eventos
      *
-     * @return Uma lista de EventoAgendaDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de EventoAgendaDTO, ou 400 Bad
+     * Request se a paginação for inválida.
      */
     @GET
-    public List<EventoAgendaDTO> getAllEventos() {
-        return eventoDAO.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllEventos(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(eventoDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
+    }
+
+    /**
+     * Endpoint para listar os eventos que ocupam um local em um horário.
+     * Mapeado para: GET /eventos/conflitos
+     *
+     * @param idLocal O ID do local.
+     * @param inicio Início do horário (yyyy-MM-ddTHH:mm[:ss]).
+     * @param fim Fim do horário (yyyy-MM-ddTHH:mm[:ss]).
+     * @param ignorar ID de um evento a desconsiderar (o próprio evento na
+     * edição), opcional.
+     * @return Resposta 200 OK com a lista de EventoAgendaDTO (vazia se o
+     * horário está livre), ou 400 Bad Request.
+     */
+    @GET
+    @Path("/conflitos")
+    public Response getConflitos(@QueryParam("idLocal") Integer idLocal, @QueryParam("inicio") String inicio,
+            @QueryParam("fim") String fim, @QueryParam("ignorar") Integer ignorar) {
+        if (idLocal == null || inicio == null || fim == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("idLocal, inicio e fim são obrigatórios.").build();
+        }
+        LocalDateTime dataInicio;
+        LocalDateTime dataFim;
+        try {
+            dataInicio = LocalDateTime.parse(inicio);
+            dataFim = LocalDateTime.parse(fim);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("inicio e fim devem estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        }
+        if (!dataFim.isAfter(dataInicio)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("fim deve ser posterior a inicio.").build();
+        }
+        return Response.ok(eventoDAO.findConflitos(idLocal, dataInicio, dataFim, ignorar)).build();
+    }
+
+    /**
+     * Endpoint para listar os eventos de um período, com os eventos
+     * recorrentes expandidos em ocorrências. Mapeado para: GET
+     * /eventos/periodo
+     *
+     * @param inicio Início do período (yyyy-MM-ddTHH:mm[:ss]).
+     * @param fim Fim do período, exclusivo (yyyy-MM-ddTHH:mm[:ss]).
+     * @return Resposta 200 OK com os EventoAgendaDTO em ordem de início, ou
+     * 400 Bad Request (período ausente, inválido ou maior que 366 dias).
+     */
+    @GET
+    @Path("/periodo")
+    public Response getEventosPorPeriodo(@QueryParam("inicio") String inicio, @QueryParam("fim") String fim) {
+        if (inicio == null || fim == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("inicio e fim são obrigatórios.").build();
+        }
+        LocalDateTime dataInicio;
+        LocalDateTime dataFim;
+        try {
+            dataInicio = LocalDateTime.parse(inicio);
+            dataFim = LocalDateTime.parse(fim);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("inicio e fim devem estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        }
+        if (!dataFim.isAfter(dataInicio) || Duration.between(dataInicio, dataFim).compareTo(PERIODO_MAXIMO) > 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("fim deve ser posterior a inicio, em no máximo 366 dias.").build();
+        }
+        return Response.ok(eventoDAO.findDTOsByPeriodo(dataInicio, dataFim)).build();
     }
 
     /**
@@ -72,8 +165,7 @@ public class EventoAgendaResource {
     @GET
     @Path("/{id}")
     public Response getEventoById(@PathParam("id") Integer id) {
-        return eventoDAO.findById(id)
-                .map(this::toDTO)
+        return eventoDAO.findDTOById(id)
                 .map(dto -> Response.ok(dto).build())
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
@@ -82,7 +174,9 @@ public class EventoAgendaResource {
      * Endpoint para criar um novo evento. Mapeado para: POST /eventos
      *
      * @param dto O DTO com os dados do evento a ser criado.
-     * @return Resposta 201 Created com o DTO do evento recém-criado.
+     * @return Resposta 201 Created com o DTO do evento recém-criado, 400 Bad
+     * Request se a regra de recorrência for inválida, ou 409 Conflict se o
+     * local está ocupado no horário (em alguma ocorrência, numa série).
      */
     @POST
     public Response createEvento(EventoAgendaDTO dto) {
@@ -93,8 +187,15 @@ public class EventoAgendaResource {
         // Converte o DTO recebido para uma nova entidade JPA, buscando os objetos relacionados.
         EventoAgenda evento = fromDTO(new EventoAgenda(), dto);
 
-        // Salva a nova entidade no banco.
-        EventoAgenda novoEvento = eventoDAO.save(evento);
+        // Salva a nova entidade no banco (recusada se o local estiver ocupado no horário).
+        EventoAgenda novoEvento;
+        try {
+            novoEvento = eventoDAO.save(evento);
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
 
         // Retorna o status 201 e o DTO do objeto criado.
         return Response.status(Response.Status.CREATED).entity(toDTO(novoEvento)).build();
@@ -106,8 +207,9 @@ public class EventoAgendaResource {
      *
      * @param id O ID do evento a ser atualizado.
      * @param dto O DTO com os novos dados do evento.
-     * @return Resposta 200 OK com o DTO atualizado, ou 404 Not Found se o
-     * evento não existir.
+     * @return Resposta 200 OK com o DTO atualizado, 404 Not Found se o
+     * evento não existir, 400 Bad Request se a regra de recorrência for
+     * inválida, ou 409 Conflict se o local está ocupado no horário.
      */
     @PUT
     @Path("/{id}")
@@ -127,7 +229,14 @@ public class EventoAgendaResource {
         EventoAgenda eventoParaAtualizar = fromDTO(eventoExistente, dto);
 
         // Salva as alterações.
-        EventoAgenda eventoAtualizado = eventoDAO.save(eventoParaAtualizar);
+        EventoAgenda eventoAtualizado;
+        try {
+            eventoAtualizado = eventoDAO.save(eventoParaAtualizar);
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
 
         return Response.ok(toDTO(eventoAtualizado)).build();
     }
@@ -149,6 +258,89 @@ public class EventoAgendaResource {
         return Response.noContent().build();
     }
 
+    /**
+     * Endpoint para alterar uma ocorrência de um evento recorrente. Mapeado
+     * para: PUT /eventos/{id}/ocorrencias/{dataOcorrencia}
+     *
+     * Os campos preenchidos no corpo (data e horário, local, título,
+     * descrição) valem só para esta ocorrência; statusEvento CANCELADO a
+     * cancela.
+     *
+     * @param id O ID da série.
+     * @param dataOcorrencia Início original da ocorrência
+     * (yyyy-MM-ddTHH:mm[:ss]).
+     * @param dto Os novos dados da ocorrência.
+     * @return Resposta 200 OK com a ocorrência, 400 Bad Request se a
+     * ocorrência ou os dados forem inválidos, ou 409 Conflict se o local
+     * está ocupado no novo horário.
+     */
+    @PUT
+    @Path("/{id}/ocorrencias/{dataOcorrencia}")
+    public Response updateOcorrencia(@PathParam("id") Integer id, @PathParam("dataOcorrencia") String dataOcorrencia,
+            EventoAgendaDTO dto) {
+        if (dto == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("O corpo da requisição não pode ser vazio.").build();
+        }
+        EventoAgendaExcecao dados = new EventoAgendaExcecao();
+        try {
+            dados.setDataOcorrencia(LocalDateTime.parse(dataOcorrencia));
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("dataOcorrencia deve estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        }
+        dados.setCancelada(dto.getStatusEvento() == StatusEvento.CANCELADO);
+        if (dto.getDataInicio() != null && dto.getHorarioInicio() != null) {
+            dados.setDataInicio(LocalDateTime.of(dto.getDataInicio(), dto.getHorarioInicio()));
+        }
+        if (dto.getDataFim() != null && dto.getHorarioFim() != null) {
+            dados.setDataFim(LocalDateTime.of(dto.getDataFim(), dto.getHorarioFim()));
+        }
+        if (dto.getIdLocal() != null) {
+            localDAO.findById(dto.getIdLocal()).ifPresent(dados::setLocalEvento);
+        }
+        dados.setTitulo(dto.getTitulo());
+        dados.setDescricao(dto.getDescricao());
+        try {
+            eventoDAO.salvarOcorrencia(id, dados);
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+
+        // Relê a ocorrência como GET /eventos/periodo a devolve, expandindo só o instante do novo início
+        LocalDateTime inicio = dados.getDataInicio() != null ? dados.getDataInicio() : dados.getDataOcorrencia();
+        return Response.ok(eventoDAO.findDTOsByPeriodo(inicio, inicio.plusNanos(1)).stream()
+                .filter(ocorrencia -> id.equals(ocorrencia.getIdEvento())
+                        && dados.getDataOcorrencia().equals(ocorrencia.getDataOcorrencia()))
+                .findFirst()
+                .orElse(null)).build();
+    }
+
+    /**
+     * Endpoint para cancelar uma ocorrência de um evento recorrente (a série
+     * continua). Mapeado para: DELETE /eventos/{id}/ocorrencias/{dataOcorrencia}
+     *
+     * @param id O ID da série.
+     * @param dataOcorrencia Início original da ocorrência
+     * (yyyy-MM-ddTHH:mm[:ss]).
+     * @return Resposta 204 No Content, ou 400 Bad Request se a data não é de
+     * uma ocorrência do evento.
+     */
+    @DELETE
+    @Path("/{id}/ocorrencias/{dataOcorrencia}")
+    public Response cancelOcorrencia(@PathParam("id") Integer id, @PathParam("dataOcorrencia") String dataOcorrencia) {
+        try {
+            eventoDAO.cancelarOcorrencia(id, LocalDateTime.parse(dataOcorrencia));
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("dataOcorrencia deve estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        return Response.noContent().build();
+    }
+
     /**
      * Converte uma entidade EventoAgenda para seu respectivo DTO. Este método
      * "desmonta" a entidade para uma representação segura e simplificada para a
@@ -193,6 +385,7 @@ public class EventoAgendaResource {
 
         dto.setTipoEvento(evento.getTipoEvento());
         dto.setStatusEvento(evento.getStatusEvento());
+        dto.setRegraRecorrencia(evento.getRegraRecorrencia());
 
         return dto;
     }
@@ -247,6 +440,8 @@ public class EventoAgendaResource {
 
         evento.setTipoEvento(dto.getTipoEvento());
         evento.setStatusEvento(dto.getStatusEvento());
+        evento.setRegraRecorrencia(dto.getRegraRecorrencia() == null || dto.getRegraRecorrencia().isBlank()
+                ? null : dto.getRegraRecorrencia());
 
         return evento;
     }
@@ -0,0 +1,120 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `ExportacaoAnaliticaResource`, é um recurso JAX-RS no caminho base
+ * "/exportacoes" que dispara a exportação das notas e avaliações para arquivos colunares
+ * (Apache Arrow, ".arrow") usados pela equipe de pesquisa institucional no lugar dos
+ * dumps CSV pelo Adminer.
+ *
+ * Endpoints:
+ * - `POST /exportacoes/{tabela}`: Exporta `notas`, `avaliacoes_preenchidas` ou
+ * `respostas_itens_avaliacao` e devolve um `ExportacaoAnaliticaDTO`. Parâmetros
+ * opcionais: `desde` (yyyy-MM-ddTHH:mm:ss, só linhas com `data_atualizacao` a partir
+ * dele) e `incremental` (true: continua de onde a exportação anterior parou).
+ * - `POST /exportacoes`: Exporta as três tabelas, com os mesmos parâmetros.
+ *
+ * Principais aspectos:
+ * 1.  **Arquivos:** Gravados no diretório `ANALYTICS_EXPORT_DIR` do servidor, um por
+ * tabela e partição (`ano_letivo=.../semestre=...`); a resposta lista os caminhos.
+ * 2.  **Leitura:** Cursor somente para frente na réplica de leitura (se configurada), com
+ * memória constante qualquer que seja o tamanho da tabela (ver `ExportacaoAnaliticaDAO`).
+ * 3.  **Erros:** 400 Bad Request para tabela ou data inválida, 409 Conflict se a tabela já
+ * está sendo exportada e 500 Internal Server Error se a exportação falhar (nenhum
+ * arquivo parcial fica visível).
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.ExportacaoAnaliticaDAO;
+import com.unifae.med.rest.dto.ExportacaoAnaliticaDTO;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Path("/exportacoes")
+@Produces(MediaType.APPLICATION_JSON)
+public class ExportacaoAnaliticaResource {
+
+    private final ExportacaoAnaliticaDAO exportacaoDAO = new ExportacaoAnaliticaDAO();
+
+    /**
+     * Endpoint de exportação de uma tabela. Mapeado para: POST
+     * /exportacoes/{tabela}
+     *
+     * @param nome Nome da tabela.
+     * @param desde Início do período por data_atualizacao (opcional).
+     * @param incremental Continuar da exportação anterior quando desde não é
+     * informado.
+     * @return Resposta 200 OK com o ExportacaoAnaliticaDTO, 400 Bad Request,
+     * 409 Conflict ou 500 Internal Server Error.
+     */
+    @POST
+    @Path("/{tabela}")
+    public Response exportar(@PathParam("tabela") String nome,
+            @QueryParam("desde") String desde,
+            @QueryParam("incremental") @DefaultValue("false") boolean incremental) {
+        ExportacaoAnaliticaDAO.Tabela tabela;
+        LocalDateTime inicio;
+        try {
+            tabela = ExportacaoAnaliticaDAO.Tabela.of(nome);
+            inicio = dataHora(desde);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        return executar(List.of(tabela), inicio, incremental, false);
+    }
+
+    /**
+     * Endpoint de exportação das três tabelas. Mapeado para: POST
+     * /exportacoes
+     *
+     * @param desde Início do período por data_atualizacao (opcional).
+     * @param incremental Continuar da exportação anterior quando desde não é
+     * informado.
+     * @return Resposta 200 OK com a lista de ExportacaoAnaliticaDTO, 400 Bad
+     * Request, 409 Conflict ou 500 Internal Server Error.
+     */
+    @POST
+    public Response exportarTodas(@QueryParam("desde") String desde,
+            @QueryParam("incremental") @DefaultValue("false") boolean incremental) {
+        LocalDateTime inicio;
+        try {
+            inicio = dataHora(desde);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("desde deve estar no formato yyyy-MM-ddTHH:mm:ss.").build();
+        }
+        return executar(List.of(ExportacaoAnaliticaDAO.Tabela.values()), inicio, incremental, true);
+    }
+
+    private Response executar(List<ExportacaoAnaliticaDAO.Tabela> tabelas, LocalDateTime desde, boolean incremental,
+            boolean lista) {
+        try {
+            List<ExportacaoAnaliticaDTO> exportacoes = new ArrayList<>(tabelas.size());
+            for (ExportacaoAnaliticaDAO.Tabela tabela : tabelas) {
+                exportacoes.add(exportacaoDAO.exportar(tabela, desde, incremental));
+            }
+            return Response.ok(lista ? exportacoes : exportacoes.get(0)).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao exportar: " + e.getMessage()).build();
+        }
+    }
+
+    private static LocalDateTime dataHora(String valor) {
+        return valor == null || valor.isBlank() ? null : LocalDateTime.parse(valor.trim());
+    }
+}
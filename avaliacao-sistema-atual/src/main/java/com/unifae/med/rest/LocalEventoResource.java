@@ -32,9 +32,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/locais")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -46,13 +43,21 @@ public class LocalEventoResource {
     /**
      * Endpoint para listar todos os locais de evento. Mapeado para: GET /locais
      *
-     * @return Uma lista de LocalEventoDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de LocalEventoDTO, ou 400 Bad
+     * Request se a paginação for inválida.
      */
     @GET
-    public List<LocalEventoDTO> getAllLocais() {
-        return localEventoDAO.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllLocais(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(localEventoDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
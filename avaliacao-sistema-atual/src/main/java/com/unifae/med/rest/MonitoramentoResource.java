@@ -0,0 +1,82 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `MonitoramentoResource`, é um recurso JAX-RS somente leitura que expõe
+ * métricas internas da aplicação para monitoramento operacional (painéis, scripts de
+ * verificação, etc.).
+ *
+ * Endpoints:
+ * - `GET /monitoramento/pool`: Estado do pool de conexões HikariCP (conexões ativas,
+ * ociosas, threads aguardando conexão, latência de aquisição e timeouts). Permite
+ * identificar, por exemplo, quando as requisições estão enfileirando à espera de
+ * conexão nos períodos de fechamento de semestre. Com réplica de leitura configurada
+ * (`DB_REPLICA_URL`), o campo `replica` traz as mesmas métricas para o pool da réplica.
+ * - `GET /monitoramento/consultas`: Consultas nomeadas compiladas na inicialização
+ * (quantidade, tempo de criação da factory, tempo de compilação e as mais lentas) e
+ * a taxa de acerto do cache de planos do Hibernate.
+ * - `GET /monitoramento/caches`: Caches de resultados montados pela aplicação (hoje, os
+ * relatórios 360°, as notas diárias da evolução de cada aluno e os meses do calendário da
+ * agenda): capacidade, entradas, acertos, falhas, taxa de acerto e invalidações.
+ *
+ * Os valores vêm de `JPAUtil.getPoolStatistics()`, `JPAUtil.getQueryStatistics()`,
+ * `AvaliacaoPreenchidaDAO.getEstatisticasCaches()` e
+ * `EventoAgendaDAO.getEstatisticasCalendario()`; este recurso não acessa o banco.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.AvaliacaoPreenchidaDAO;
+import com.unifae.med.dao.EventoAgendaDAO;
+import com.unifae.med.util.JPAUtil;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Path("/monitoramento")
+@Produces(MediaType.APPLICATION_JSON)
+public class MonitoramentoResource {
+
+    /**
+     * Endpoint com as estatísticas do pool de conexões. Mapeado para: GET
+     * /monitoramento/pool
+     *
+     * @return Mapa com as métricas atuais do pool.
+     */
+    @GET
+    @Path("/pool")
+    public Map<String, Object> getPoolStatistics() {
+        return JPAUtil.getPoolStatistics();
+    }
+
+    /**
+     * Endpoint com as estatísticas das consultas nomeadas e do cache de
+     * planos. Mapeado para: GET /monitoramento/consultas
+     *
+     * @return Mapa com as métricas de compilação e do cache de planos.
+     */
+    @GET
+    @Path("/consultas")
+    public Map<String, Object> getQueryStatistics() {
+        return JPAUtil.getQueryStatistics();
+    }
+
+    /**
+     * Endpoint com as estatísticas dos caches de resultados da aplicação.
+     * Mapeado para: GET /monitoramento/caches
+     *
+     * @return Lista com as métricas de cada cache.
+     */
+    @GET
+    @Path("/caches")
+    public List<Map<String, Object>> getCacheStatistics() {
+        List<Map<String, Object>> caches = new ArrayList<>(AvaliacaoPreenchidaDAO.getEstatisticasCaches());
+        caches.add(EventoAgendaDAO.getEstatisticasCalendario());
+        return caches;
+    }
+}
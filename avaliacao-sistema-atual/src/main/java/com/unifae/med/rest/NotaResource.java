@@ -24,23 +24,39 @@
  *
  * Este padrão de conversão e validação de relacionamentos é crucial para o correto
  * funcionamento de uma entidade que depende de muitas outras.
+ *
+ * 3.  **Reparo das Médias:** `POST /notas/agregados/reconstruir` recalcula a tabela
+ * `notas_agregados` (médias mantidas pelo `NotaDAO` a cada gravação) a partir das notas,
+ * para quando notas forem alteradas fora da aplicação (refaz também `notas_distribuicoes`).
+ * `POST /notas/ranking/reconstruir` faz o mesmo para os rankings das turmas, mantidos em
+ * memória (ver `GET /turmas/{id}/ranking`).
+ *
+ * 4.  **Distribuição das Notas:** `GET /notas/distribuicao` devolve mediana, percentis e a
+ * posição percentual de uma nota entre as notas ativas de uma disciplina e/ou turmas
+ * (`DistribuicaoNotasDTO`). Parâmetros opcionais: `disciplina` (ID), `turma` (ID, repetido
+ * para somar turmas), `percentis` (ex: 25,50,75) e `valor` (nota a posicionar). Os valores
+ * são exatos: vêm da contagem de notas por valor mantida a cada gravação, sem ler as notas.
  * =================================================================================================
  */
 package com.unifae.med.rest;
 
 import com.unifae.med.dao.DisciplinaDAO;
+import com.unifae.med.dao.NotaAgregadoDAO;
 import com.unifae.med.dao.NotaDAO;
 import com.unifae.med.dao.TurmaDAO;
 import com.unifae.med.dao.UsuarioDAO;
 import com.unifae.med.entity.Nota;
+import com.unifae.med.rest.dto.DistribuicaoNotasDTO;
 import com.unifae.med.rest.dto.NotaDTO;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Path("/notas")
 @Produces(MediaType.APPLICATION_JSON)
@@ -52,17 +68,26 @@ public class NotaResource {
     private final UsuarioDAO usuarioDAO = new UsuarioDAO();
     private final DisciplinaDAO disciplinaDAO = new DisciplinaDAO();
     private final TurmaDAO turmaDAO = new TurmaDAO();
+    private final NotaAgregadoDAO notaAgregadoDAO = new NotaAgregadoDAO();
 
     /**
      * Endpoint para listar todas as notas. Mapeado para: GET /notas
      *
-     * @return Uma lista de NotaDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de NotaDTO, ou 400 Bad Request se
+     * a paginação for inválida.
      */
     @GET
-    public List<NotaDTO> getAllNotas() {
-        return notaDAO.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllNotas(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(notaDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -75,8 +100,7 @@ public class NotaResource {
     @GET
     @Path("/{id}")
     public Response getNotaById(@PathParam("id") Integer id) {
-        return notaDAO.findById(id)
-                .map(this::toDTO)
+        return notaDAO.findDTOById(id)
                 .map(dto -> Response.ok(dto).build())
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
@@ -149,6 +173,86 @@ public class NotaResource {
         return Response.noContent().build();
     }
 
+    /**
+     * Endpoint para reconstruir as médias mantidas das notas. Mapeado para:
+     * POST /notas/agregados/reconstruir
+     *
+     * @return Resposta 200 OK com a quantidade de grupos recalculados, ou 500
+     * Internal Server Error em caso de erro (nada é alterado).
+     */
+    @POST
+    @Path("/agregados/reconstruir")
+    public Response reconstruirAgregados() {
+        try {
+            int grupos = notaAgregadoDAO.reconstruir();
+            return Response.ok(Map.of("gruposReconstruidos", grupos)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao reconstruir médias: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint para recarregar os rankings das turmas a partir das notas.
+     * Mapeado para: POST /notas/ranking/reconstruir
+     *
+     * @return Resposta 200 OK com a quantidade de rankings carregados, ou 500
+     * Internal Server Error em caso de erro.
+     */
+    @POST
+    @Path("/ranking/reconstruir")
+    public Response reconstruirRanking() {
+        try {
+            int rankings = notaDAO.reconstruirRanking();
+            return Response.ok(Map.of("rankingsReconstruidos", rankings)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao reconstruir ranking: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint da distribuição das notas. Mapeado para: GET /notas/distribuicao
+     *
+     * @param idDisciplina Disciplina (opcional; sem ela, todas).
+     * @param turmas Turmas somadas (opcional; sem elas, todas).
+     * @param percentis Percentis separados por vírgula, entre 0 e 100.
+     * @param valor Nota cuja posição percentual é calculada (opcional).
+     * @return Resposta 200 OK com o DistribuicaoNotasDTO, 400 Bad Request se um
+     * parâmetro for inválido, ou 500 Internal Server Error.
+     */
+    @GET
+    @Path("/distribuicao")
+    public Response getDistribuicao(@QueryParam("disciplina") Integer idDisciplina,
+            @QueryParam("turma") List<Integer> turmas,
+            @QueryParam("percentis") String percentis,
+            @QueryParam("valor") BigDecimal valor) {
+        double[] pedidos;
+        try {
+            pedidos = percentis == null || percentis.isBlank() ? new double[0]
+                    : Arrays.stream(percentis.split(","))
+                            .filter(p -> !p.isBlank())
+                            .mapToDouble(p -> Double.parseDouble(p.trim()))
+                            .toArray();
+            for (double p : pedidos) {
+                if (Double.isNaN(p) || p < 0 || p > 100) {
+                    throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + p);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Percentis inválidos: " + e.getMessage()).build();
+        }
+
+        try {
+            return Response.ok(new DistribuicaoNotasDTO(idDisciplina, turmas,
+                    notaDAO.calcularDistribuicao(idDisciplina, turmas), pedidos, valor)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao calcular distribuição das notas: " + e.getMessage()).build();
+        }
+    }
+
     /**
      * Converte uma entidade Nota para seu DTO correspondente.
      *
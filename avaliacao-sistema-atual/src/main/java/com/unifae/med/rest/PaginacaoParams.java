@@ -0,0 +1,131 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `PaginacaoParams`, agrupa os parâmetros de paginação por cursor aceitos por
+ * todos os endpoints de listagem da API. É injetada nos métodos `@GET` via `@BeanParam`.
+ *
+ * Parâmetros de consulta:
+ * - `limit`: Tamanho da página (padrão 50, máximo 500).
+ * - `after`: Cursor opaco devolvido pela página anterior (ausente = primeira página).
+ * - `sort`: Atributo de ordenação (padrão "id"; cada DAO define quais são permitidos).
+ * - `order`: "asc" (padrão) ou "desc".
+ * - `total`: "true" para receber o total de registros na primeira página (padrão false).
+ *
+ * Resposta (`toResponse`):
+ * - Corpo: o array JSON com os DTOs da página (mesmo formato de antes da paginação), já
+ * projetados pelo DAO direto da consulta, sem carregar entidades.
+ * - Cabeçalho `Link: <...>; rel="next"` com a URL completa da próxima página e
+ * `X-Next-Cursor` com o cursor, ambos ausentes na última página.
+ * - Cabeçalho `X-Total-Count` com o total de registros do filtro, apenas na primeira página e
+ * quando pedido com `total=true`. O total vem da mesma consulta da página (COUNT(*) OVER ()),
+ * sem executar o filtro duas vezes.
+ *
+ * Parâmetros inválidos (ordenação não permitida, cursor adulterado, limite fora da faixa)
+ * resultam em 400 Bad Request (`badRequest`).
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.KeysetPage;
+import com.unifae.med.dao.KeysetPageRequest;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.net.URI;
+
+public class PaginacaoParams {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Cabeçalho com o cursor da próxima página, para clientes que não
+     * interpretam o cabeçalho Link.
+     */
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    /**
+     * Cabeçalho com o total de registros (só na primeira página, com total=true).
+     */
+    public static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+
+    @QueryParam("limit")
+    @DefaultValue("50")
+    private int limit;
+
+    @QueryParam("after")
+    private String after;
+
+    @QueryParam("sort")
+    private String sort;
+
+    @QueryParam("order")
+    @DefaultValue("asc")
+    private String order;
+
+    @QueryParam("total")
+    @DefaultValue("false")
+    private boolean total;
+
+    @Context
+    private UriInfo uriInfo;
+
+    /**
+     * Converte os parâmetros de consulta na requisição de página do DAO.
+     *
+     * @return Requisição de página validada.
+     * @throws IllegalArgumentException se limit ou order forem inválidos.
+     */
+    public KeysetPageRequest toPageRequest() {
+        if (limit < 1 || limit > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("O parâmetro 'limit' deve estar entre 1 e " + LIMITE_MAXIMO + ".");
+        }
+        boolean descending;
+        if ("desc".equalsIgnoreCase(order)) {
+            descending = true;
+        } else if ("asc".equalsIgnoreCase(order)) {
+            descending = false;
+        } else {
+            throw new IllegalArgumentException("O parâmetro 'order' deve ser 'asc' ou 'desc'.");
+        }
+        return new KeysetPageRequest(sort, descending, after, limit, total);
+    }
+
+    /**
+     * Monta a resposta 200 OK de uma página e adiciona os cabeçalhos da
+     * próxima página e do total (quando calculado).
+     *
+     * @param page Página de DTOs devolvida pelo DAO (projeção).
+     * @return Resposta com o array de DTOs no corpo.
+     */
+    public Response toResponse(KeysetPage<?> page) {
+        Response.ResponseBuilder response = Response.ok(page.getItems());
+        if (page.hasNext()) {
+            URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", limit)
+                    .build();
+            response.link(next, "next");
+            response.header(HEADER_NEXT_CURSOR, page.getNextCursor());
+        }
+        if (page.getTotal() != null) {
+            response.header(HEADER_TOTAL_COUNT, page.getTotal());
+        }
+        return response.build();
+    }
+
+    /**
+     * Resposta 400 Bad Request para parâmetros de paginação inválidos.
+     *
+     * @param e Exceção de validação lançada por toPageRequest() ou pelo DAO.
+     * @return Resposta com a mensagem de erro.
+     */
+    public static Response badRequest(IllegalArgumentException e) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Parâmetros de paginação inválidos: " + e.getMessage()).build();
+    }
+}
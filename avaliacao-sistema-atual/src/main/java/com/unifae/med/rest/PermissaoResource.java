@@ -27,9 +27,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/permissoes")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -42,17 +39,22 @@ public class PermissaoResource {
      * Endpoint para listar todas as permissões, com suporte a filtro. Mapeado
      * para: GET /permissoes e GET /permissoes?search=termo
      *
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
      * @param search Um termo opcional de busca para filtrar as permissões.
-     * @return Uma lista de PermissaoDTO.
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de PermissaoDTO, ou 400 Bad
+     * Request se a paginação for inválida.
      */
     @GET
-    public List<PermissaoDTO> getAllPermissoes(@QueryParam("search") String search) {
-        // Delega a lógica de busca para o DAO e extrai a lista do resultado.
-        // O cast para (List<Permissao>) é necessário pois o método do DAO retorna um Map.
-        return ((List<Permissao>) permissaoDAO.findWithFiltersAndStats(search).get("list"))
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllPermissoes(@QueryParam("search") String search, @BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(permissaoDAO.findDTOPageWithFilters(search, paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
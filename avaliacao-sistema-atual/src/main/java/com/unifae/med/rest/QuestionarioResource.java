@@ -30,9 +30,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/questionarios")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -45,13 +42,21 @@ public class QuestionarioResource {
      * Endpoint para listar todos os modelos de questionário. Mapeado para: GET
      * /questionarios
      *
-     * @return Uma lista de QuestionarioDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de QuestionarioDTO, ou 400 Bad
+     * Request se a paginação for inválida.
      */
     @GET
-    public List<QuestionarioDTO> getAllQuestionarios() {
-        return questionarioDAO.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllQuestionarios(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(questionarioDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
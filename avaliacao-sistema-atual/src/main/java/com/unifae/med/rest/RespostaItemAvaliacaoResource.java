@@ -32,9 +32,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/respostas-avaliacao")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -49,13 +46,21 @@ public class RespostaItemAvaliacaoResource {
      * Endpoint para listar todas as respostas de itens de avaliação. Mapeado
      * para: GET /respostas-avaliacao
      *
-     * @return Uma lista de RespostaItemAvaliacaoDTO.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de RespostaItemAvaliacaoDTO, ou
+     * 400 Bad Request se a paginação for inválida.
      */
     @GET
-    public List<RespostaItemAvaliacaoDTO> getAllRespostas() {
-        return respostaDAO.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllRespostas(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(respostaDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -69,8 +74,7 @@ public class RespostaItemAvaliacaoResource {
     @GET
     @Path("/{id}")
     public Response getRespostaById(@PathParam("id") Integer id) {
-        return respostaDAO.findById(id)
-                .map(this::toDTO)
+        return respostaDAO.findDTOById(id)
                 .map(dto -> Response.ok(dto).build())
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
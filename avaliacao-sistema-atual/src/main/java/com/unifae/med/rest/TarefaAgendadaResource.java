@@ -0,0 +1,111 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `TarefaAgendadaResource`, é um recurso JAX-RS no caminho base "/tarefas" para
+ * acompanhar e disparar as tarefas em segundo plano (ver `AgendadorTarefas` e
+ * `AgendadorListener`).
+ *
+ * Endpoints:
+ * - `GET /tarefas`: Configuração do agendador e, para cada tarefa, horário, prazo, próxima
+ * execução e contadores deste servidor (execuções, sucessos, falhas, prazos esgotados,
+ * duração média e máxima, última execução).
+ * - `GET /tarefas/{nome}/execucoes`: Histórico da tarefa em todos os servidores, mais
+ * recentes primeiro (`ExecucaoTarefaDTO`). Parâmetro opcional `limite` (padrão 20, até 200).
+ * - `POST /tarefas/{nome}/executar`: Dispara a tarefa agora, em segundo plano. Responde
+ * 202 Accepted; o resultado aparece no histórico.
+ *
+ * Principais aspectos:
+ * 1.  **Instância única:** Uma tarefa de instância única disparada aqui enquanto outro
+ * servidor a executa não roda (contador `emOutraInstancia`).
+ * 2.  **Erros:** 404 Not Found para tarefa inexistente, 409 Conflict se a tarefa já está em
+ * execução neste servidor, 503 Service Unavailable se o agendador está parado e 500
+ * Internal Server Error para falhas ao ler o histórico.
+ * =================================================================================================
+ */
+package com.unifae.med.rest;
+
+import com.unifae.med.dao.TarefaAgendadaDAO;
+import com.unifae.med.util.AgendadorTarefas;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.Map;
+
+@Path("/tarefas")
+@Produces(MediaType.APPLICATION_JSON)
+public class TarefaAgendadaResource {
+
+    private static final int LIMITE_MAXIMO = 200;
+
+    private final TarefaAgendadaDAO tarefaDAO = new TarefaAgendadaDAO();
+
+    /**
+     * Endpoint com as tarefas e seus contadores. Mapeado para: GET /tarefas
+     *
+     * @return Mapa com a configuração do agendador e a lista de tarefas.
+     */
+    @GET
+    public Map<String, Object> getTarefas() {
+        return AgendadorTarefas.getEstatisticas();
+    }
+
+    /**
+     * Endpoint com o histórico de uma tarefa. Mapeado para: GET
+     * /tarefas/{nome}/execucoes
+     *
+     * @param nome Nome da tarefa.
+     * @param limite Quantidade máxima de execuções (1 a 200).
+     * @return Resposta 200 OK com a lista de ExecucaoTarefaDTO, 400 Bad
+     * Request, 404 Not Found ou 500 Internal Server Error.
+     */
+    @GET
+    @Path("/{nome}/execucoes")
+    public Response getExecucoes(@PathParam("nome") String nome,
+            @QueryParam("limite") @DefaultValue("20") int limite) {
+        if (!AgendadorTarefas.existe(nome)) {
+            return Response.status(Response.Status.NOT_FOUND).entity("Tarefa não encontrada: " + nome).build();
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limite deve estar entre 1 e " + LIMITE_MAXIMO + ".").build();
+        }
+        try {
+            return Response.ok(tarefaDAO.listarExecucoes(nome, limite)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro ao listar execuções: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Endpoint para disparar uma tarefa fora do horário. Mapeado para: POST
+     * /tarefas/{nome}/executar
+     *
+     * @param nome Nome da tarefa.
+     * @return Resposta 202 Accepted, 404 Not Found, 409 Conflict ou 503
+     * Service Unavailable.
+     */
+    @POST
+    @Path("/{nome}/executar")
+    public Response executar(@PathParam("nome") String nome) {
+        try {
+            if (!AgendadorTarefas.executarAgora(nome)) {
+                return Response.status(Response.Status.CONFLICT)
+                        .entity("Tarefa já em execução neste servidor: " + nome).build();
+            }
+            return Response.accepted(Map.of("tarefa", nome)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(e.getMessage()).build();
+        }
+    }
+}
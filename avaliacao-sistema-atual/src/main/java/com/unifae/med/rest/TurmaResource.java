@@ -22,10 +22,21 @@
  * persistência (`Turma`) e o objeto de transferência de dados (`TurmaDTO`) é
  * centralizada em métodos privados, o que promove código limpo, reutilizável e
  * um claro desacoplamento entre as camadas da aplicação.
+ *
+ * 4.  **Boletim:** `GET /turmas/{id}/boletim` devolve as médias de todos os alunos da
+ * turma em todas as disciplinas, com situação e aprovados por disciplina, montadas pelo
+ * `NotaDAO` com uma única consulta às notas da turma.
+ *
+ * 5.  **Ranking:** `GET /turmas/{id}/ranking?disciplina=&limite=` devolve os alunos de maior
+ * média ponderada (na disciplina, ou na turma toda sem `disciplina`) e
+ * `GET /turmas/{id}/ranking/alunos/{idAluno}?disciplina=&vizinhos=` a posição de um aluno
+ * com os vizinhos. Os rankings ficam em memória e são atualizados a cada nota gravada pelo
+ * `NotaDAO`, sem recalcular as médias da turma.
  * =================================================================================================
  */
 package com.unifae.med.rest;
 
+import com.unifae.med.dao.NotaDAO;
 import com.unifae.med.dao.TurmaDAO;
 import com.unifae.med.entity.Turma;
 import com.unifae.med.rest.dto.TurmaDTO;
@@ -33,10 +44,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 @Path("/turmas")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -44,26 +51,36 @@ public class TurmaResource {
 
     // Instância do DAO para interagir com a tabela de turmas no banco de dados.
     private final TurmaDAO turmaDAO = new TurmaDAO();
+    // DAO de notas, usado para montar o boletim e o ranking da turma.
+    private final NotaDAO notaDAO = new NotaDAO();
+
+    private static final int LIMITE_RANKING = 100;
+    private static final int LIMITE_VIZINHOS = 20;
 
     /**
      * Endpoint para listar todas as turmas, com suporte a filtros de busca e
      * status. Mapeado para: GET /turmas?search=termo&status=ativo
      *
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
      * @param search Um termo opcional de busca para filtrar por nome ou código
      * da turma.
      * @param status Um filtro opcional para o status da turma (ex: "ativo",
      * "inativo").
-     * @return Uma lista de TurmaDTO.
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de TurmaDTO, ou 400 Bad Request
+     * se a paginação for inválida.
      */
     @GET
-    public List<TurmaDTO> getAllTurmas(@QueryParam("search") String search, @QueryParam("status") String status) {
-        // Delega a lógica de filtragem para o método do DAO.
-        Map<String, Object> result = turmaDAO.findWithFiltersAndStats(search, status);
-        // Extrai a lista de entidades do mapa retornado pelo DAO.
-        List<Turma> turmas = (List<Turma>) result.get("list");
-        return turmas.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Response getAllTurmas(@QueryParam("search") String search, @QueryParam("status") String status,
+            @BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(turmaDAO.findDTOPageWithFilters(search, status, paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -83,6 +100,94 @@ public class TurmaResource {
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
 
+    /**
+     * Endpoint para o boletim de uma turma. Mapeado para: GET /turmas/{id}/boletim
+     *
+     * @param id O ID da turma.
+     * @return Resposta 200 OK com o BoletimTurmaDTO, 404 Not Found se a turma
+     * não existir, ou 500 Internal Server Error em caso de erro.
+     */
+    @GET
+    @Path("/{id}/boletim")
+    public Response getBoletim(@PathParam("id") Integer id) {
+        return turmaDAO.findById(id)
+                .map(turma -> {
+                    try {
+                        return Response.ok(notaDAO.gerarBoletimTurma(turma)).build();
+                    } catch (Exception e) {
+                        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                                .entity("Erro ao gerar boletim: " + e.getMessage()).build();
+                    }
+                })
+                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    /**
+     * Endpoint com os primeiros do ranking da turma. Mapeado para: GET
+     * /turmas/{id}/ranking?disciplina=&limite=
+     *
+     * @param id O ID da turma.
+     * @param idDisciplina Disciplina (opcional; sem ela, a média na turma toda).
+     * @param limite Quantidade de alunos (1 a 100, padrão 10).
+     * @return Resposta 200 OK com o RankingTurmaDTO, 400 Bad Request se o limite
+     * for inválido, 404 Not Found se a turma não existir, ou 500 Internal Server
+     * Error em caso de erro.
+     */
+    @GET
+    @Path("/{id}/ranking")
+    public Response getRanking(@PathParam("id") Integer id, @QueryParam("disciplina") Integer idDisciplina,
+            @QueryParam("limite") @DefaultValue("10") int limite) {
+        if (limite < 1 || limite > LIMITE_RANKING) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("O limite deve estar entre 1 e " + LIMITE_RANKING + ".").build();
+        }
+        return turmaDAO.findById(id)
+                .map(turma -> {
+                    try {
+                        return Response.ok(notaDAO.rankingTurma(id, idDisciplina, limite)).build();
+                    } catch (Exception e) {
+                        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                                .entity("Erro ao consultar ranking: " + e.getMessage()).build();
+                    }
+                })
+                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    /**
+     * Endpoint com a posição de um aluno no ranking da turma. Mapeado para:
+     * GET /turmas/{id}/ranking/alunos/{idAluno}?disciplina=&vizinhos=
+     *
+     * @param id O ID da turma.
+     * @param idAluno O ID do aluno.
+     * @param idDisciplina Disciplina (opcional; sem ela, a média na turma toda).
+     * @param vizinhos Alunos listados antes e depois dele (0 a 20, padrão 2).
+     * @return Resposta 200 OK com o RankingTurmaDTO, 400 Bad Request se vizinhos
+     * for inválido, 404 Not Found se a turma não existir ou o aluno não tiver
+     * notas no ranking, ou 500 Internal Server Error em caso de erro.
+     */
+    @GET
+    @Path("/{id}/ranking/alunos/{idAluno}")
+    public Response getPosicaoRanking(@PathParam("id") Integer id, @PathParam("idAluno") Integer idAluno,
+            @QueryParam("disciplina") Integer idDisciplina,
+            @QueryParam("vizinhos") @DefaultValue("2") int vizinhos) {
+        if (vizinhos < 0 || vizinhos > LIMITE_VIZINHOS) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Vizinhos deve estar entre 0 e " + LIMITE_VIZINHOS + ".").build();
+        }
+        return turmaDAO.findById(id)
+                .map(turma -> {
+                    try {
+                        return notaDAO.posicaoNoRanking(id, idDisciplina, idAluno, vizinhos)
+                                .map(ranking -> Response.ok(ranking).build())
+                                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+                    } catch (Exception e) {
+                        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                                .entity("Erro ao consultar ranking: " + e.getMessage()).build();
+                    }
+                })
+                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    }
+
     /**
      * Endpoint para criar uma nova turma. Mapeado para: POST /turmas
      *
@@ -29,9 +29,6 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Path("/usuarios")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -43,14 +40,21 @@ public class UsuarioResource {
     /**
      * Endpoint para listar todos os usuários. Mapeado para: GET /usuarios
      *
-     * @return Uma lista de UsuarioDTO, que representa uma visão segura dos
-     * usuários.
+     * Paginado por cursor: ?limit=&after=&sort=&order= (ver PaginacaoParams).
+     * A próxima página é informada nos cabeçalhos Link (rel="next") e
+     * X-Next-Cursor.
+     *
+     * @param paginacao Parâmetros de paginação.
+     * @return Resposta 200 OK com uma página de UsuarioDTO (visão segura dos
+     * usuários), ou 400 Bad Request se a paginação for inválida.
      */
     @GET
-    public List<UsuarioDTO> getAllUsuarios() {
-        return usuarioDAO.findAll().stream()
-                .map(this::toDTO) // Converte cada entidade para um DTO seguro
-                .collect(Collectors.toList());
+    public Response getAllUsuarios(@BeanParam PaginacaoParams paginacao) {
+        try {
+            return paginacao.toResponse(usuarioDAO.findDTOPage(paginacao.toPageRequest()));
+        } catch (IllegalArgumentException e) {
+            return PaginacaoParams.badRequest(e);
+        }
     }
 
     /**
@@ -64,8 +68,7 @@ public class UsuarioResource {
     @GET
     @Path("/{id}")
     public Response getUsuarioById(@PathParam("id") Integer id) {
-        return usuarioDAO.findById(id)
-                .map(this::toDTO)
+        return usuarioDAO.findDTOById(id)
                 .map(dto -> Response.ok(dto).build())
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
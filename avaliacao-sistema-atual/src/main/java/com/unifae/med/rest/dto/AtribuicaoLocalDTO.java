@@ -0,0 +1,146 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AtribuicaoLocalDTO`, é um item da proposta de alocação automática de locais
+ * (`PropostaAlocacaoDTO`): um evento sem local e o local proposto para ele.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Aplicação:** Para aplicar a proposta (`POST /agenda/alocacao-locais/aplicacao`) bastam
+ * `idEvento` e `idLocalEvento` de cada item; o coordenador pode remover itens ou trocar o
+ * local antes de aplicar. Os demais campos são informativos e ignorados na aplicação.
+ * 2.  **Não alocados:** Nos eventos que ficaram sem local, `idLocalEvento` é null e `motivo`
+ * explica por quê (nenhum local comporta a turma, nenhum local do tipo permitido ou todos
+ * ocupados no horário).
+ * 3.  **Séries:** Num evento recorrente (`recorrente`), o local vale para todas as ocorrências
+ * que não foram remarcadas para outro local.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.time.LocalDateTime;
+
+public class AtribuicaoLocalDTO {
+
+    // ============================================================================================
+    // ATRIBUTOS
+    // ============================================================================================
+    /**
+     * ID do evento sem local.
+     */
+    private Integer idEvento;
+
+    /**
+     * ID do local proposto (null se o evento não foi alocado).
+     */
+    private Integer idLocalEvento;
+
+    private String titulo;
+
+    /**
+     * Início do evento (a primeira ocorrência, numa série).
+     */
+    private LocalDateTime dataInicio;
+
+    private boolean recorrente;
+
+    /**
+     * Estudantes ativos da turma do evento (0 se o evento não tem turma).
+     */
+    private int estudantes;
+
+    private String nomeLocal;
+
+    private Integer capacidadeLocal;
+
+    /**
+     * Por que o evento ficou sem local (null se foi alocado).
+     */
+    private String motivo;
+
+    /**
+     * Construtor padrão sem argumentos, para a desserialização do JSON.
+     */
+    public AtribuicaoLocalDTO() {
+    }
+
+    public AtribuicaoLocalDTO(Integer idEvento, Integer idLocalEvento) {
+        this.idEvento = idEvento;
+        this.idLocalEvento = idLocalEvento;
+    }
+
+    // ============================================================================================
+    // GETTERS E SETTERS
+    // ============================================================================================
+    public Integer getIdEvento() {
+        return idEvento;
+    }
+
+    public void setIdEvento(Integer idEvento) {
+        this.idEvento = idEvento;
+    }
+
+    public Integer getIdLocalEvento() {
+        return idLocalEvento;
+    }
+
+    public void setIdLocalEvento(Integer idLocalEvento) {
+        this.idLocalEvento = idLocalEvento;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public LocalDateTime getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDateTime dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public boolean isRecorrente() {
+        return recorrente;
+    }
+
+    public void setRecorrente(boolean recorrente) {
+        this.recorrente = recorrente;
+    }
+
+    public int getEstudantes() {
+        return estudantes;
+    }
+
+    public void setEstudantes(int estudantes) {
+        this.estudantes = estudantes;
+    }
+
+    public String getNomeLocal() {
+        return nomeLocal;
+    }
+
+    public void setNomeLocal(String nomeLocal) {
+        this.nomeLocal = nomeLocal;
+    }
+
+    public Integer getCapacidadeLocal() {
+        return capacidadeLocal;
+    }
+
+    public void setCapacidadeLocal(Integer capacidadeLocal) {
+        this.capacidadeLocal = capacidadeLocal;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+}
@@ -101,6 +101,30 @@ public class AvaliacaoPreenchidaDTO {
     public AvaliacaoPreenchidaDTO() {
     }
 
+    /**
+     * Construtor usado pela consulta de projeção do AvaliacaoPreenchidaDAO
+     * (SELECT new ...): os IDs de questionário, aluno e avaliador vêm das
+     * chaves estrangeiras, sem carregar as entidades relacionadas.
+     */
+    public AvaliacaoPreenchidaDTO(Integer idAvaliacaoPreenchida, Integer idQuestionario, Integer idAlunoAvaliado,
+            Integer idAvaliador, String tipoAvaliadorNaoUsuario, String nomeAvaliadorNaoUsuario,
+            LocalDate dataRealizacao, LocalTime horarioInicio, LocalTime horarioFim, String localRealizacao,
+            String feedbackPositivo, String feedbackMelhoria, String contratoAprendizagem) {
+        this.idAvaliacaoPreenchida = idAvaliacaoPreenchida;
+        this.idQuestionario = idQuestionario;
+        this.idAlunoAvaliado = idAlunoAvaliado;
+        this.idAvaliador = idAvaliador;
+        this.tipoAvaliadorNaoUsuario = tipoAvaliadorNaoUsuario;
+        this.nomeAvaliadorNaoUsuario = nomeAvaliadorNaoUsuario;
+        this.dataRealizacao = dataRealizacao;
+        this.horarioInicio = horarioInicio;
+        this.horarioFim = horarioFim;
+        this.localRealizacao = localRealizacao;
+        this.feedbackPositivo = feedbackPositivo;
+        this.feedbackMelhoria = feedbackMelhoria;
+        this.contratoAprendizagem = contratoAprendizagem;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
@@ -0,0 +1,88 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `AvaliacaoResumoDTO`, representa uma linha da listagem de avaliações
+ * (`/avaliacoes`, `avaliacoes/list.jsp`). Contém apenas o que a tabela exibe: nomes do
+ * questionário, do aluno e do avaliador, data e a quantidade de respostas.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Projeção:** É preenchido direto pela consulta do `AvaliacaoPreenchidaDAO`
+ * (`SELECT new ...AvaliacaoResumoDTO(...)`), sem carregar as entidades
+ * `AvaliacaoPreenchida`, `Questionario`, `Usuario` nem a coleção de respostas.
+ * 2.  **Respostas por contagem:** Em vez da lista de respostas (usada antes só para saber
+ * se a avaliação foi realizada), traz o total calculado pelo banco.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.time.LocalDate;
+
+public class AvaliacaoResumoDTO {
+
+    private final Integer idAvaliacaoPreenchida;
+    private final String nomeQuestionario;
+    private final String nomeAlunoAvaliado;
+    private final String nomeAvaliador;
+    private final String nomeAvaliadorNaoUsuario;
+    private final String tipoAvaliadorNaoUsuario;
+    private final LocalDate dataRealizacao;
+    private final long quantidadeRespostas;
+
+    /**
+     * Construtor usado pela consulta de projeção do AvaliacaoPreenchidaDAO.
+     * Os nomes vêm de LEFT JOINs e podem ser nulos (ex: avaliador externo).
+     */
+    public AvaliacaoResumoDTO(Integer idAvaliacaoPreenchida, String nomeQuestionario, String nomeAlunoAvaliado,
+            String nomeAvaliador, String nomeAvaliadorNaoUsuario, String tipoAvaliadorNaoUsuario,
+            LocalDate dataRealizacao, Long quantidadeRespostas) {
+        this.idAvaliacaoPreenchida = idAvaliacaoPreenchida;
+        this.nomeQuestionario = nomeQuestionario;
+        this.nomeAlunoAvaliado = nomeAlunoAvaliado;
+        this.nomeAvaliador = nomeAvaliador;
+        this.nomeAvaliadorNaoUsuario = nomeAvaliadorNaoUsuario;
+        this.tipoAvaliadorNaoUsuario = tipoAvaliadorNaoUsuario;
+        this.dataRealizacao = dataRealizacao;
+        this.quantidadeRespostas = quantidadeRespostas != null ? quantidadeRespostas : 0L;
+    }
+
+    public Integer getIdAvaliacaoPreenchida() {
+        return idAvaliacaoPreenchida;
+    }
+
+    public String getNomeQuestionario() {
+        return nomeQuestionario;
+    }
+
+    public String getNomeAlunoAvaliado() {
+        return nomeAlunoAvaliado;
+    }
+
+    public String getNomeAvaliador() {
+        return nomeAvaliador;
+    }
+
+    public String getNomeAvaliadorNaoUsuario() {
+        return nomeAvaliadorNaoUsuario;
+    }
+
+    public String getTipoAvaliadorNaoUsuario() {
+        return tipoAvaliadorNaoUsuario;
+    }
+
+    public LocalDate getDataRealizacao() {
+        return dataRealizacao;
+    }
+
+    public long getQuantidadeRespostas() {
+        return quantidadeRespostas;
+    }
+
+    /**
+     * @return true se a avaliação já possui respostas (status "Realizada" na listagem)
+     */
+    public boolean isRespondida() {
+        return quantidadeRespostas > 0;
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `BoletimTurmaDTO`, é o boletim de uma turma: uma linha por aluno, uma
+ * coluna por disciplina, com a média de cada aluno em cada disciplina, a situação
+ * (aprovado ou não) e os totais de aprovação por disciplina.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Montagem em uma passada:** É preenchido pelo `NotaDAO.gerarBoletimTurma`, que lê
+ * as notas ativas da turma em uma única consulta, ordenadas por aluno e disciplina, e
+ * calcula todas as médias durante a leitura (ver `BoletimTurmaAcumulador`).
+ * 2.  **Colunas alinhadas:** `alunos[i].medias[j]` corresponde a `disciplinas[j]`; a
+ * posição é nula quando o aluno não tem notas na disciplina. Assim a JSP monta a tabela
+ * com dois `forEach` e o JSON mantém a mesma forma.
+ * 3.  **Regras das médias:** Média do aluno na disciplina = soma(valor × peso) / soma(peso),
+ * a mesma de `NotaDAO.calcularMediaAlunoDisciplina`; aprovado quando essa média é ao
+ * menos `mediaAprovacao`. Média geral do aluno e média da turma na disciplina são médias
+ * simples das notas, como em `calcularMediaGeralAluno` e `calcularMediaTurmaDisciplina`
+ * (aqui restritas às notas da turma).
+ * 4.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class BoletimTurmaDTO {
+
+    private final Integer idTurma;
+    private final String nomeTurma;
+    private final String codigoTurma;
+    private final BigDecimal mediaAprovacao;
+    private final long quantidadeNotas;
+    private final List<DisciplinaResumo> disciplinas;
+    private final List<AlunoLinha> alunos;
+
+    public BoletimTurmaDTO(Integer idTurma, String nomeTurma, String codigoTurma, BigDecimal mediaAprovacao,
+            long quantidadeNotas, List<DisciplinaResumo> disciplinas, List<AlunoLinha> alunos) {
+        this.idTurma = idTurma;
+        this.nomeTurma = nomeTurma;
+        this.codigoTurma = codigoTurma;
+        this.mediaAprovacao = mediaAprovacao;
+        this.quantidadeNotas = quantidadeNotas;
+        this.disciplinas = disciplinas;
+        this.alunos = alunos;
+    }
+
+    public Integer getIdTurma() {
+        return idTurma;
+    }
+
+    public String getNomeTurma() {
+        return nomeTurma;
+    }
+
+    public String getCodigoTurma() {
+        return codigoTurma;
+    }
+
+    public BigDecimal getMediaAprovacao() {
+        return mediaAprovacao;
+    }
+
+    public long getQuantidadeNotas() {
+        return quantidadeNotas;
+    }
+
+    public List<DisciplinaResumo> getDisciplinas() {
+        return disciplinas;
+    }
+
+    public List<AlunoLinha> getAlunos() {
+        return alunos;
+    }
+
+    /**
+     * Coluna do boletim: uma disciplina com notas na turma e seus totais.
+     */
+    public static class DisciplinaResumo {
+
+        private final Integer idDisciplina;
+        private final String nomeDisciplina;
+        private final String codigoDisciplina;
+        private final int quantidadeAlunos;
+        private final int quantidadeAprovados;
+        private final BigDecimal mediaTurma;
+
+        public DisciplinaResumo(Integer idDisciplina, String nomeDisciplina, String codigoDisciplina,
+                int quantidadeAlunos, int quantidadeAprovados, BigDecimal mediaTurma) {
+            this.idDisciplina = idDisciplina;
+            this.nomeDisciplina = nomeDisciplina;
+            this.codigoDisciplina = codigoDisciplina;
+            this.quantidadeAlunos = quantidadeAlunos;
+            this.quantidadeAprovados = quantidadeAprovados;
+            this.mediaTurma = mediaTurma;
+        }
+
+        public Integer getIdDisciplina() {
+            return idDisciplina;
+        }
+
+        public String getNomeDisciplina() {
+            return nomeDisciplina;
+        }
+
+        public String getCodigoDisciplina() {
+            return codigoDisciplina;
+        }
+
+        public int getQuantidadeAlunos() {
+            return quantidadeAlunos;
+        }
+
+        public int getQuantidadeAprovados() {
+            return quantidadeAprovados;
+        }
+
+        public BigDecimal getMediaTurma() {
+            return mediaTurma;
+        }
+    }
+
+    /**
+     * Linha do boletim: um aluno e suas médias, alinhadas com as disciplinas.
+     */
+    public static class AlunoLinha {
+
+        private final Integer idAluno;
+        private final String nomeAluno;
+        private final String matriculaRA;
+        private final int quantidadeNotas;
+        private final BigDecimal mediaGeral;
+        private final int disciplinasAprovadas;
+        private final List<MediaDisciplina> medias;
+
+        public AlunoLinha(Integer idAluno, String nomeAluno, String matriculaRA, int quantidadeNotas,
+                BigDecimal mediaGeral, int disciplinasAprovadas, List<MediaDisciplina> medias) {
+            this.idAluno = idAluno;
+            this.nomeAluno = nomeAluno;
+            this.matriculaRA = matriculaRA;
+            this.quantidadeNotas = quantidadeNotas;
+            this.mediaGeral = mediaGeral;
+            this.disciplinasAprovadas = disciplinasAprovadas;
+            this.medias = medias;
+        }
+
+        public Integer getIdAluno() {
+            return idAluno;
+        }
+
+        public String getNomeAluno() {
+            return nomeAluno;
+        }
+
+        public String getMatriculaRA() {
+            return matriculaRA;
+        }
+
+        public int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+
+        public BigDecimal getMediaGeral() {
+            return mediaGeral;
+        }
+
+        public int getDisciplinasAprovadas() {
+            return disciplinasAprovadas;
+        }
+
+        public List<MediaDisciplina> getMedias() {
+            return medias;
+        }
+    }
+
+    /**
+     * Célula do boletim: média ponderada de um aluno em uma disciplina.
+     */
+    public static class MediaDisciplina {
+
+        private final Integer idDisciplina;
+        private final BigDecimal media;
+        private final int quantidadeNotas;
+        private final boolean aprovado;
+
+        public MediaDisciplina(Integer idDisciplina, BigDecimal media, int quantidadeNotas, boolean aprovado) {
+            this.idDisciplina = idDisciplina;
+            this.media = media;
+            this.quantidadeNotas = quantidadeNotas;
+            this.aprovado = aprovado;
+        }
+
+        public Integer getIdDisciplina() {
+            return idDisciplina;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+
+        public boolean isAprovado() {
+            return aprovado;
+        }
+    }
+}
@@ -30,6 +30,19 @@ public class CompetenciaQuestionarioDTO {
         this.questionarioId = entity.getQuestionario() != null ? entity.getQuestionario().getIdQuestionario() : null;
     }
 
+    // Construtor para a consulta de projeção do DAO (SELECT new ...), sem carregar a entidade
+    public CompetenciaQuestionarioDTO(Integer id, String nomeCompetencia, CompetenciaQuestionario.TipoItem tipoItem,
+            String descricaoPrompt, Integer ordemExibicao, boolean obrigatorio, boolean ativo, Integer questionarioId) {
+        this.id = id;
+        this.nomeCompetencia = nomeCompetencia;
+        this.tipoItem = tipoItem;
+        this.descricaoPrompt = descricaoPrompt;
+        this.ordemExibicao = ordemExibicao;
+        this.obrigatorio = obrigatorio;
+        this.ativo = ativo;
+        this.questionarioId = questionarioId;
+    }
+
     // Getters e Setters para todos os campos...
     public Integer getId() {
         return id;
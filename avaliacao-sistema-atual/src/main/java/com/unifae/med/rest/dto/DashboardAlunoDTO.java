@@ -0,0 +1,214 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `DashboardAlunoDTO`, é o painel de um aluno em uma única resposta
+ * (`GET /alunos/{id}/dashboard`), pensado para o aplicativo `painel_academico`: em vez de
+ * várias chamadas às APIs de notas, agenda e avaliações, cada uma devolvendo tabelas
+ * inteiras, o aplicativo recebe só o que as telas iniciais exibem.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Médias prontas:** `notas` traz a média geral e a média ponderada por disciplina,
+ * lidas de `notas_agregados` (a mesma regra do boletim: aprovado quando a média
+ * ponderada é ao menos `mediaAprovacao`, ver `NotaAgregado.isAprovado`).
+ * 2.  **Listas curtas:** `notasRecentes` (últimas notas ativas, com o nome da disciplina),
+ * `proximosEventos` (eventos das turmas do aluno a partir de agora) e `avaliacoesPendentes`
+ * (avaliações do aluno ainda em rascunho), cada uma com limite definido pela API.
+ * 3.  **Reaproveitamento:** Eventos e avaliações usam as mesmas linhas das listagens web
+ * (`EventoAgendaResumoDTO` e `AvaliacaoResumoDTO`).
+ * 4.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import com.unifae.med.entity.TipoAvaliacao;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class DashboardAlunoDTO {
+
+    private final Integer idAluno;
+    private final String nomeAluno;
+    private final String matriculaRA;
+    private final ResumoNotas notas;
+    private final List<NotaRecente> notasRecentes;
+    private final List<EventoAgendaResumoDTO> proximosEventos;
+    private final List<AvaliacaoResumoDTO> avaliacoesPendentes;
+
+    public DashboardAlunoDTO(Integer idAluno, String nomeAluno, String matriculaRA, ResumoNotas notas,
+            List<NotaRecente> notasRecentes, List<EventoAgendaResumoDTO> proximosEventos,
+            List<AvaliacaoResumoDTO> avaliacoesPendentes) {
+        this.idAluno = idAluno;
+        this.nomeAluno = nomeAluno;
+        this.matriculaRA = matriculaRA;
+        this.notas = notas;
+        this.notasRecentes = notasRecentes;
+        this.proximosEventos = proximosEventos;
+        this.avaliacoesPendentes = avaliacoesPendentes;
+    }
+
+    public Integer getIdAluno() {
+        return idAluno;
+    }
+
+    public String getNomeAluno() {
+        return nomeAluno;
+    }
+
+    public String getMatriculaRA() {
+        return matriculaRA;
+    }
+
+    public ResumoNotas getNotas() {
+        return notas;
+    }
+
+    public List<NotaRecente> getNotasRecentes() {
+        return notasRecentes;
+    }
+
+    public List<EventoAgendaResumoDTO> getProximosEventos() {
+        return proximosEventos;
+    }
+
+    public List<AvaliacaoResumoDTO> getAvaliacoesPendentes() {
+        return avaliacoesPendentes;
+    }
+
+    /**
+     * Média geral e médias por disciplina do aluno (disciplinas em ordem
+     * alfabética).
+     */
+    public static class ResumoNotas {
+
+        private final BigDecimal mediaAprovacao;
+        private final BigDecimal mediaGeral;
+        private final int quantidadeNotas;
+        private final List<MediaDisciplina> disciplinas;
+
+        public ResumoNotas(BigDecimal mediaAprovacao, BigDecimal mediaGeral, int quantidadeNotas,
+                List<MediaDisciplina> disciplinas) {
+            this.mediaAprovacao = mediaAprovacao;
+            this.mediaGeral = mediaGeral;
+            this.quantidadeNotas = quantidadeNotas;
+            this.disciplinas = disciplinas;
+        }
+
+        public BigDecimal getMediaAprovacao() {
+            return mediaAprovacao;
+        }
+
+        public BigDecimal getMediaGeral() {
+            return mediaGeral;
+        }
+
+        public int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+
+        public List<MediaDisciplina> getDisciplinas() {
+            return disciplinas;
+        }
+    }
+
+    /**
+     * Média ponderada do aluno em uma disciplina.
+     */
+    public static class MediaDisciplina {
+
+        private final Integer idDisciplina;
+        private final String nomeDisciplina;
+        private final BigDecimal media;
+        private final int quantidadeNotas;
+        private final boolean aprovado;
+
+        public MediaDisciplina(Integer idDisciplina, String nomeDisciplina, BigDecimal media, int quantidadeNotas,
+                boolean aprovado) {
+            this.idDisciplina = idDisciplina;
+            this.nomeDisciplina = nomeDisciplina;
+            this.media = media;
+            this.quantidadeNotas = quantidadeNotas;
+            this.aprovado = aprovado;
+        }
+
+        public Integer getIdDisciplina() {
+            return idDisciplina;
+        }
+
+        public String getNomeDisciplina() {
+            return nomeDisciplina;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+
+        public boolean isAprovado() {
+            return aprovado;
+        }
+    }
+
+    /**
+     * Nota lançada para o aluno, com o nome da disciplina já resolvido.
+     */
+    public static class NotaRecente {
+
+        private final Integer idNota;
+        private final Integer idDisciplina;
+        private final String nomeDisciplina;
+        private final TipoAvaliacao tipoAvaliacao;
+        private final String descricaoAvaliacao;
+        private final BigDecimal valorNota;
+        private final BigDecimal pesoNota;
+        private final LocalDate dataAvaliacao;
+
+        public NotaRecente(Integer idNota, Integer idDisciplina, String nomeDisciplina, TipoAvaliacao tipoAvaliacao,
+                String descricaoAvaliacao, BigDecimal valorNota, BigDecimal pesoNota, LocalDate dataAvaliacao) {
+            this.idNota = idNota;
+            this.idDisciplina = idDisciplina;
+            this.nomeDisciplina = nomeDisciplina;
+            this.tipoAvaliacao = tipoAvaliacao;
+            this.descricaoAvaliacao = descricaoAvaliacao;
+            this.valorNota = valorNota;
+            this.pesoNota = pesoNota;
+            this.dataAvaliacao = dataAvaliacao;
+        }
+
+        public Integer getIdNota() {
+            return idNota;
+        }
+
+        public Integer getIdDisciplina() {
+            return idDisciplina;
+        }
+
+        public String getNomeDisciplina() {
+            return nomeDisciplina;
+        }
+
+        public TipoAvaliacao getTipoAvaliacao() {
+            return tipoAvaliacao;
+        }
+
+        public String getDescricaoAvaliacao() {
+            return descricaoAvaliacao;
+        }
+
+        public BigDecimal getValorNota() {
+            return valorNota;
+        }
+
+        public BigDecimal getPesoNota() {
+            return pesoNota;
+        }
+
+        public LocalDate getDataAvaliacao() {
+            return dataAvaliacao;
+        }
+    }
+}
@@ -58,6 +58,19 @@ public class DisciplinaDTO {
     public DisciplinaDTO() {
     }
 
+    /**
+     * Construtor com todos os campos, usado pela consulta de projeção do
+     * DisciplinaDAO (SELECT new ...).
+     */
+    public DisciplinaDTO(Integer idDisciplina, String nomeDisciplina, String codigoDisciplina,
+            String siglaDisciplina, Boolean ativa) {
+        this.idDisciplina = idDisciplina;
+        this.nomeDisciplina = nomeDisciplina;
+        this.codigoDisciplina = codigoDisciplina;
+        this.siglaDisciplina = siglaDisciplina;
+        this.ativa = ativa;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
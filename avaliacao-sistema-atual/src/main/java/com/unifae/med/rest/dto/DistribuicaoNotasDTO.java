@@ -0,0 +1,105 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `DistribuicaoNotasDTO`, é a resposta de `GET /notas/distribuicao`: como as
+ * notas ativas de uma disciplina e/ou de um conjunto de turmas se distribuem, para a
+ * coordenação comparar um aluno com a turma ou com a coorte.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Resumo:** `quantidade`, `minimo`, `maximo` e `mediana` (percentil 50; com quantidade
+ * par é o menor dos dois valores centrais, como PERCENTILE_DISC).
+ * 2.  **Percentis pedidos:** `percentis` associa cada percentil pedido (ex: "25", "90") ao
+ * valor da nota.
+ * 3.  **Posição de uma nota:** Quando a consulta informa `valor`, `percentilDoValor` é o
+ * percentual das notas abaixo dele, contando metade das iguais.
+ * 4.  **Erro:** `erroPosicao` é sempre 0: os valores vêm da contagem exata de notas por
+ * valor (`DistribuicaoValores`), não de um sketch aproximado. O campo existe para que os
+ * clientes não precisem supor a precisão.
+ * 5.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import com.unifae.med.util.DistribuicaoValores;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DistribuicaoNotasDTO {
+
+    private final Integer idDisciplina;
+    private final List<Integer> turmas;
+    private final long quantidade;
+    private final BigDecimal minimo;
+    private final BigDecimal maximo;
+    private final BigDecimal mediana;
+    private final Map<String, BigDecimal> percentis;
+    private final BigDecimal valor;
+    private final BigDecimal percentilDoValor;
+    private final BigDecimal erroPosicao = BigDecimal.ZERO;
+
+    /**
+     * @param idDisciplina Disciplina consultada (null para todas)
+     * @param turmas Turmas consultadas (vazio para todas)
+     * @param distribuicao Distribuição lida das notas
+     * @param pedidos Percentis pedidos (entre 0 e 100)
+     * @param valor Nota a posicionar, ou null
+     */
+    public DistribuicaoNotasDTO(Integer idDisciplina, List<Integer> turmas, DistribuicaoValores distribuicao,
+            double[] pedidos, BigDecimal valor) {
+        this.idDisciplina = idDisciplina;
+        this.turmas = turmas;
+        this.quantidade = distribuicao.getQuantidade();
+        this.minimo = distribuicao.getMinimo();
+        this.maximo = distribuicao.getMaximo();
+        this.mediana = distribuicao.percentil(50);
+        this.percentis = new LinkedHashMap<>();
+        for (double p : pedidos) {
+            percentis.put(BigDecimal.valueOf(p).stripTrailingZeros().toPlainString(), distribuicao.percentil(p));
+        }
+        this.valor = valor;
+        this.percentilDoValor = valor == null ? null : distribuicao.percentilDoValor(valor);
+    }
+
+    public Integer getIdDisciplina() {
+        return idDisciplina;
+    }
+
+    public List<Integer> getTurmas() {
+        return turmas;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public BigDecimal getMinimo() {
+        return minimo;
+    }
+
+    public BigDecimal getMaximo() {
+        return maximo;
+    }
+
+    public BigDecimal getMediana() {
+        return mediana;
+    }
+
+    public Map<String, BigDecimal> getPercentis() {
+        return percentis;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public BigDecimal getPercentilDoValor() {
+        return percentilDoValor;
+    }
+
+    public BigDecimal getErroPosicao() {
+        return erroPosicao;
+    }
+}
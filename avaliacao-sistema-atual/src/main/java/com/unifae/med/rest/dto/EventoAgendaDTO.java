@@ -18,6 +18,9 @@
  * 3.  **Desacoplamento:** Ele cria uma camada de abstração entre o modelo de dados
  * interno (a entidade JPA `EventoAgenda`) e a representação externa exposta pela API,
  * permitindo que um evolua sem impactar diretamente o outro.
+ * 4.  **Recorrência:** `regraRecorrencia` (ex: "FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261211")
+ * grava o evento como série. Nas consultas por período cada ocorrência vem como um DTO,
+ * com `dataOcorrencia` (início original, que identifica a ocorrência para alterá-la).
  * =================================================================================================
  */
 package com.unifae.med.rest.dto;
@@ -26,6 +29,7 @@ import com.unifae.med.entity.StatusEvento;
 import com.unifae.med.entity.TipoEvento;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 public class EventoAgendaDTO {
@@ -100,6 +104,18 @@ public class EventoAgendaDTO {
      */
     private StatusEvento statusEvento;
 
+    /**
+     * Regra de recorrência da série (ver RegraRecorrencia), ou nulo para um
+     * evento único.
+     */
+    private String regraRecorrencia;
+
+    /**
+     * Início original da ocorrência, quando o DTO é uma ocorrência de uma
+     * série expandida para um período; nulo nos demais casos.
+     */
+    private LocalDateTime dataOcorrencia;
+
     /**
      * Construtor padrão. Necessário para que frameworks de desserialização
      * JSON, como o Jackson, possam instanciar o objeto ao receber dados pela
@@ -108,6 +124,34 @@ public class EventoAgendaDTO {
     public EventoAgendaDTO() {
     }
 
+    /**
+     * Construtor usado pela consulta de projeção do EventoAgendaDAO
+     * (SELECT new ...). Recebe início e fim como LocalDateTime, como estão na
+     * entidade, e os separa em data e horário, igual ao toDTO() do recurso.
+     */
+    public EventoAgendaDTO(Integer idEvento, String titulo, String descricao, LocalDateTime inicio,
+            LocalDateTime fim, Integer idLocal, Integer idDisciplina, Integer idTurma, Integer idResponsavel,
+            TipoEvento tipoEvento, StatusEvento statusEvento, String regraRecorrencia) {
+        this.idEvento = idEvento;
+        this.titulo = titulo;
+        this.descricao = descricao;
+        if (inicio != null) {
+            this.dataInicio = inicio.toLocalDate();
+            this.horarioInicio = inicio.toLocalTime();
+        }
+        if (fim != null) {
+            this.dataFim = fim.toLocalDate();
+            this.horarioFim = fim.toLocalTime();
+        }
+        this.idLocal = idLocal;
+        this.idDisciplina = idDisciplina;
+        this.idTurma = idTurma;
+        this.idResponsavel = idResponsavel;
+        this.tipoEvento = tipoEvento;
+        this.statusEvento = statusEvento;
+        this.regraRecorrencia = regraRecorrencia;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
@@ -216,4 +260,20 @@ public class EventoAgendaDTO {
     public void setStatusEvento(StatusEvento statusEvento) {
         this.statusEvento = statusEvento;
     }
+
+    public String getRegraRecorrencia() {
+        return regraRecorrencia;
+    }
+
+    public void setRegraRecorrencia(String regraRecorrencia) {
+        this.regraRecorrencia = regraRecorrencia;
+    }
+
+    public LocalDateTime getDataOcorrencia() {
+        return dataOcorrencia;
+    }
+
+    public void setDataOcorrencia(LocalDateTime dataOcorrencia) {
+        this.dataOcorrencia = dataOcorrencia;
+    }
 }
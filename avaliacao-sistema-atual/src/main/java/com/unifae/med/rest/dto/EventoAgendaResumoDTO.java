@@ -0,0 +1,122 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `EventoAgendaResumoDTO`, representa uma linha da listagem de eventos da
+ * agenda (`/agenda`, `agenda/list.jsp`). Diferente do `EventoAgendaDTO` (API REST, que
+ * referencia local, disciplina, turma e responsável por ID), traz os nomes já resolvidos,
+ * que é o que a tabela exibe.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Projeção:** É preenchido direto pela consulta do `EventoAgendaDAO`
+ * (`SELECT new ...EventoAgendaResumoDTO(...)`) com LEFT JOINs, sem carregar as
+ * entidades `EventoAgenda`, `LocalEvento`, `Disciplina`, `Turma` e `Usuario`.
+ * 2.  **Datas completas:** Mantém `dataInicio` e `dataFim` como `LocalDateTime`, no mesmo
+ * formato da entidade, para a JSP formatar data e horário.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * 4.  **Ocorrências:** Nas listagens por período, as séries de eventos recorrentes vêm uma
+ * linha por ocorrência, com `dataOcorrencia` (início original da ocorrência) preenchida.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import com.unifae.med.entity.StatusEvento;
+import com.unifae.med.entity.TipoEvento;
+
+import java.time.LocalDateTime;
+
+public class EventoAgendaResumoDTO {
+
+    private final Integer idEvento;
+    private final String titulo;
+    private final String descricao;
+    private final LocalDateTime dataInicio;
+    private final LocalDateTime dataFim;
+    private final TipoEvento tipoEvento;
+    private final StatusEvento statusEvento;
+    private final String nomeLocal;
+    private final String nomeResponsavel;
+    private final String nomeDisciplina;
+    private final String nomeTurma;
+    private final LocalDateTime dataOcorrencia;
+
+    /**
+     * Construtor usado pela consulta de projeção do EventoAgendaDAO. Os nomes
+     * vêm de LEFT JOINs e são nulos quando o evento não tem a associação.
+     */
+    public EventoAgendaResumoDTO(Integer idEvento, String titulo, String descricao, LocalDateTime dataInicio,
+            LocalDateTime dataFim, TipoEvento tipoEvento, StatusEvento statusEvento, String nomeLocal,
+            String nomeResponsavel, String nomeDisciplina, String nomeTurma) {
+        this(idEvento, titulo, descricao, dataInicio, dataFim, tipoEvento, statusEvento, nomeLocal,
+                nomeResponsavel, nomeDisciplina, nomeTurma, null);
+    }
+
+    /**
+     * Linha de uma ocorrência de evento recorrente, montada pelo
+     * EventoAgendaDAO ao expandir a série.
+     */
+    public EventoAgendaResumoDTO(Integer idEvento, String titulo, String descricao, LocalDateTime dataInicio,
+            LocalDateTime dataFim, TipoEvento tipoEvento, StatusEvento statusEvento, String nomeLocal,
+            String nomeResponsavel, String nomeDisciplina, String nomeTurma, LocalDateTime dataOcorrencia) {
+        this.idEvento = idEvento;
+        this.titulo = titulo;
+        this.descricao = descricao;
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+        this.tipoEvento = tipoEvento;
+        this.statusEvento = statusEvento;
+        this.nomeLocal = nomeLocal;
+        this.nomeResponsavel = nomeResponsavel;
+        this.nomeDisciplina = nomeDisciplina;
+        this.nomeTurma = nomeTurma;
+        this.dataOcorrencia = dataOcorrencia;
+    }
+
+    public Integer getIdEvento() {
+        return idEvento;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public LocalDateTime getDataInicio() {
+        return dataInicio;
+    }
+
+    public LocalDateTime getDataFim() {
+        return dataFim;
+    }
+
+    public TipoEvento getTipoEvento() {
+        return tipoEvento;
+    }
+
+    public StatusEvento getStatusEvento() {
+        return statusEvento;
+    }
+
+    public String getNomeLocal() {
+        return nomeLocal;
+    }
+
+    public String getNomeResponsavel() {
+        return nomeResponsavel;
+    }
+
+    public String getNomeDisciplina() {
+        return nomeDisciplina;
+    }
+
+    public String getNomeTurma() {
+        return nomeTurma;
+    }
+
+    public LocalDateTime getDataOcorrencia() {
+        return dataOcorrencia;
+    }
+}
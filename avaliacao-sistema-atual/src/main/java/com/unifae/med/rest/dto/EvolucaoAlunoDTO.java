@@ -0,0 +1,144 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `EvolucaoAlunoDTO`, é a resposta de `GET /alunos/{id}/evolucao`: como as notas
+ * de um aluno em cada competência do Mini-CEX e da avaliação 360° evoluíram ao longo do
+ * curso, pronta para os gráficos do aplicativo.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Uma série por competência:** `series` traz, para cada competência avaliada, os
+ * pontos por período (`agrupamento`: SEMANA, MES ou SEMESTRE), do mais antigo ao mais
+ * recente. Cada ponto tem o início do período, a quantidade de notas, média, mínima e
+ * máxima do período e `mediaAcumulada` (média de todas as notas desde `de` até o fim do
+ * período).
+ * 2.  **Tamanho limitado:** Nenhuma série passa de `pontosMaximos` pontos; se houver mais
+ * períodos, são escolhidos os que preservam a forma da curva (ver `SerieTemporal`).
+ * `periodos` informa quantos períodos a série tinha antes da redução.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class EvolucaoAlunoDTO {
+
+    private final Integer idAluno;
+    private final String agrupamento;
+    private final int pontosMaximos;
+    private final List<Serie> series;
+
+    public EvolucaoAlunoDTO(Integer idAluno, String agrupamento, int pontosMaximos, List<Serie> series) {
+        this.idAluno = idAluno;
+        this.agrupamento = agrupamento;
+        this.pontosMaximos = pontosMaximos;
+        this.series = series;
+    }
+
+    public Integer getIdAluno() {
+        return idAluno;
+    }
+
+    public String getAgrupamento() {
+        return agrupamento;
+    }
+
+    public int getPontosMaximos() {
+        return pontosMaximos;
+    }
+
+    public List<Serie> getSeries() {
+        return series;
+    }
+
+    /**
+     * Evolução de uma competência de um questionário.
+     */
+    public static class Serie {
+
+        private final Integer idCompetencia;
+        private final String nomeCompetencia;
+        private final String tipoQuestionario;
+        private final int periodos;
+        private final List<Ponto> pontos;
+
+        public Serie(Integer idCompetencia, String nomeCompetencia, String tipoQuestionario, int periodos,
+                List<Ponto> pontos) {
+            this.idCompetencia = idCompetencia;
+            this.nomeCompetencia = nomeCompetencia;
+            this.tipoQuestionario = tipoQuestionario;
+            this.periodos = periodos;
+            this.pontos = pontos;
+        }
+
+        public Integer getIdCompetencia() {
+            return idCompetencia;
+        }
+
+        public String getNomeCompetencia() {
+            return nomeCompetencia;
+        }
+
+        public String getTipoQuestionario() {
+            return tipoQuestionario;
+        }
+
+        public int getPeriodos() {
+            return periodos;
+        }
+
+        public List<Ponto> getPontos() {
+            return pontos;
+        }
+    }
+
+    /**
+     * Notas de um período.
+     */
+    public static class Ponto {
+
+        private final LocalDate inicio;
+        private final long quantidade;
+        private final BigDecimal media;
+        private final BigDecimal minimo;
+        private final BigDecimal maximo;
+        private final BigDecimal mediaAcumulada;
+
+        public Ponto(LocalDate inicio, long quantidade, BigDecimal media, BigDecimal minimo, BigDecimal maximo,
+                BigDecimal mediaAcumulada) {
+            this.inicio = inicio;
+            this.quantidade = quantidade;
+            this.media = media;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.mediaAcumulada = mediaAcumulada;
+        }
+
+        public LocalDate getInicio() {
+            return inicio;
+        }
+
+        public long getQuantidade() {
+            return quantidade;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public BigDecimal getMinimo() {
+            return minimo;
+        }
+
+        public BigDecimal getMaximo() {
+            return maximo;
+        }
+
+        public BigDecimal getMediaAcumulada() {
+            return mediaAcumulada;
+        }
+    }
+}
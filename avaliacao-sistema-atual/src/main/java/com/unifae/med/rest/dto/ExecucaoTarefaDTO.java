@@ -0,0 +1,79 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `ExecucaoTarefaDTO`, é um item de `GET /tarefas/{nome}/execucoes`: uma
+ * execução de tarefa agendada gravada em `execucoes_tarefas` (ver `AgendadorTarefas`).
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Situação:** `status` é EXECUTANDO, SUCESSO, FALHA, TEMPO_ESGOTADO ou INTERROMPIDA;
+ * `mensagem` traz o resultado devolvido pela tarefa ou o erro.
+ * 2.  **Horários:** `execucaoPrevista` é o horário do disparo (null na execução manual);
+ * `duracaoMs` é null enquanto a execução não termina.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class ExecucaoTarefaDTO {
+
+    private final Long id;
+    private final String tarefa;
+    private final String instancia;
+    private final LocalDateTime execucaoPrevista;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+    private final String status;
+    private final String mensagem;
+
+    public ExecucaoTarefaDTO(Long id, String tarefa, String instancia, LocalDateTime execucaoPrevista,
+            LocalDateTime inicio, LocalDateTime fim, String status, String mensagem) {
+        this.id = id;
+        this.tarefa = tarefa;
+        this.instancia = instancia;
+        this.execucaoPrevista = execucaoPrevista;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.status = status;
+        this.mensagem = mensagem;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTarefa() {
+        return tarefa;
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    public LocalDateTime getExecucaoPrevista() {
+        return execucaoPrevista;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public Long getDuracaoMs() {
+        return inicio != null && fim != null ? Duration.between(inicio, fim).toMillis() : null;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `ExportacaoAnaliticaDTO`, é a resposta de `POST /exportacoes/{tabela}`: o que
+ * uma exportação analítica gravou (ver `ExportacaoAnaliticaDAO`).
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Período:** `desde` é o início do período exportado (null = tabela inteira) e
+ * `ultimaAtualizacao` o maior `data_atualizacao` já exportado, de onde a próxima
+ * exportação incremental continua (com uma margem de sobreposição antes dele).
+ * 2.  **Arquivos:** `arquivos` traz um item por partição (`ano_letivo=.../semestre=...`)
+ * com o caminho relativo ao diretório de exportação, linhas e tamanho em bytes.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ExportacaoAnaliticaDTO {
+
+    private final String tabela;
+    private final LocalDateTime desde;
+    private final LocalDateTime ultimaAtualizacao;
+    private final long linhas;
+    private final long duracaoMs;
+    private final List<Arquivo> arquivos;
+
+    public ExportacaoAnaliticaDTO(String tabela, LocalDateTime desde, LocalDateTime ultimaAtualizacao, long linhas,
+            long duracaoMs, List<Arquivo> arquivos) {
+        this.tabela = tabela;
+        this.desde = desde;
+        this.ultimaAtualizacao = ultimaAtualizacao;
+        this.linhas = linhas;
+        this.duracaoMs = duracaoMs;
+        this.arquivos = arquivos;
+    }
+
+    public String getTabela() {
+        return tabela;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getUltimaAtualizacao() {
+        return ultimaAtualizacao;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    public List<Arquivo> getArquivos() {
+        return arquivos;
+    }
+
+    /**
+     * Arquivo gravado em uma partição.
+     */
+    public static class Arquivo {
+
+        private final String particao;
+        private final String caminho;
+        private final long linhas;
+        private final long bytes;
+
+        public Arquivo(String particao, String caminho, long linhas, long bytes) {
+            this.particao = particao;
+            this.caminho = caminho;
+            this.linhas = linhas;
+            this.bytes = bytes;
+        }
+
+        public String getParticao() {
+            return particao;
+        }
+
+        public String getCaminho() {
+            return caminho;
+        }
+
+        public long getLinhas() {
+            return linhas;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -64,6 +64,20 @@ public class LocalEventoDTO {
     public LocalEventoDTO() {
     }
 
+    /**
+     * Construtor com todos os campos, usado pela consulta de projeção do
+     * LocalEventoDAO (SELECT new ...).
+     */
+    public LocalEventoDTO(Integer idLocalEvento, String nomeLocal, String tipoLocal, String endereco,
+            String cidade, String estado) {
+        this.idLocalEvento = idLocalEvento;
+        this.nomeLocal = nomeLocal;
+        this.tipoLocal = tipoLocal;
+        this.endereco = endereco;
+        this.cidade = cidade;
+        this.estado = estado;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
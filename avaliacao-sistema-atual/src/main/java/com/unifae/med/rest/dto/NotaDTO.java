@@ -107,6 +107,29 @@ public class NotaDTO {
     public NotaDTO() {
     }
 
+    /**
+     * Construtor usado pela consulta de projeção do NotaDAO
+     * (SELECT new ...NotaDTO(...)): recebe direto as colunas da tabela, com
+     * os IDs das associações lidos das chaves estrangeiras.
+     */
+    public NotaDTO(Integer idNota, Integer idAluno, Integer idDisciplina, Integer idTurma, Integer idProfessor,
+            BigDecimal valorNota, BigDecimal pesoNota, TipoAvaliacao tipoAvaliacao, String descricaoAvaliacao,
+            LocalDate dataAvaliacao, LocalDate dataLancamento, String observacoes, Boolean ativo) {
+        this.idNota = idNota;
+        this.idAluno = idAluno;
+        this.idDisciplina = idDisciplina;
+        this.idTurma = idTurma;
+        this.idProfessor = idProfessor;
+        this.valorNota = valorNota;
+        this.pesoNota = pesoNota;
+        this.tipoAvaliacao = tipoAvaliacao;
+        this.descricaoAvaliacao = descricaoAvaliacao;
+        this.dataAvaliacao = dataAvaliacao;
+        this.dataLancamento = dataLancamento;
+        this.observacoes = observacoes;
+        this.ativo = ativo;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
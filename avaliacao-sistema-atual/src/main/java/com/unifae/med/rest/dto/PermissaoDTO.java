@@ -50,6 +50,16 @@ public class PermissaoDTO {
     public PermissaoDTO() {
     }
 
+    /**
+     * Construtor com todos os campos, usado pela consulta de projeção do
+     * PermissaoDAO (SELECT new ...).
+     */
+    public PermissaoDTO(Integer idPermissao, String nomePermissao, String descricaoPermissao) {
+        this.idPermissao = idPermissao;
+        this.nomePermissao = nomePermissao;
+        this.descricaoPermissao = descricaoPermissao;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
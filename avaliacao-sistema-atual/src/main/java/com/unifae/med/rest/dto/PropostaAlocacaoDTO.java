@@ -0,0 +1,68 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `PropostaAlocacaoDTO`, é a resposta de `POST /agenda/alocacao-locais/proposta`:
+ * os locais propostos para os eventos sem local de um período, calculados por
+ * `EventoAgendaDAO.proporAlocacaoLocais()`.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Proposta:** `atribuicoes` não tem conflitos de horário com os eventos que já têm local
+ * nem entre si, e cada local comporta a turma do evento. Nada é gravado até a aplicação.
+ * 2.  **Pendências:** `naoAlocados` traz os eventos sem local possível, com o motivo, para
+ * o coordenador resolver à mão.
+ * 3.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PropostaAlocacaoDTO {
+
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+    private final List<AtribuicaoLocalDTO> atribuicoes;
+    private final List<AtribuicaoLocalDTO> naoAlocados;
+    private final int locaisAnalisados;
+    private final long duracaoMs;
+
+    public PropostaAlocacaoDTO(LocalDateTime inicio, LocalDateTime fim, List<AtribuicaoLocalDTO> atribuicoes,
+            List<AtribuicaoLocalDTO> naoAlocados, int locaisAnalisados, long duracaoMs) {
+        this.inicio = inicio;
+        this.fim = fim;
+        this.atribuicoes = List.copyOf(atribuicoes);
+        this.naoAlocados = List.copyOf(naoAlocados);
+        this.locaisAnalisados = locaisAnalisados;
+        this.duracaoMs = duracaoMs;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public List<AtribuicaoLocalDTO> getAtribuicoes() {
+        return atribuicoes;
+    }
+
+    public List<AtribuicaoLocalDTO> getNaoAlocados() {
+        return naoAlocados;
+    }
+
+    public int getEventosAnalisados() {
+        return atribuicoes.size() + naoAlocados.size();
+    }
+
+    public int getLocaisAnalisados() {
+        return locaisAnalisados;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+}
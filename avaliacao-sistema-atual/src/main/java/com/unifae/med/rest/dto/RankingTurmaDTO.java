@@ -0,0 +1,101 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `RankingTurmaDTO`, é a classificação dos alunos de uma turma pela média
+ * ponderada das notas ativas, em uma disciplina ou na turma toda (`idDisciplina` nulo).
+ * Responde `GET /turmas/{id}/ranking` (os primeiros) e
+ * `GET /turmas/{id}/ranking/alunos/{idAluno}` (a posição de um aluno e seus vizinhos).
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Posições:** `posicoes` traz os alunos em ordem, cada um com `posicao` (1 = maior
+ * média), média, quantidade de notas e nome. Alunos com a mesma média dividem a posição
+ * (1, 2, 2, 4).
+ * 2.  **Aluno consultado:** `posicaoAluno` é preenchido apenas na consulta de um aluno;
+ * `posicoes` traz então os vizinhos antes e depois dele, incluindo ele próprio.
+ * 3.  **Total:** `totalAlunos` é a quantidade de alunos com notas ativas no ranking.
+ * 4.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class RankingTurmaDTO {
+
+    private final Integer idTurma;
+    private final Integer idDisciplina;
+    private final int totalAlunos;
+    private final Posicao posicaoAluno;
+    private final List<Posicao> posicoes;
+
+    public RankingTurmaDTO(Integer idTurma, Integer idDisciplina, int totalAlunos, Posicao posicaoAluno,
+            List<Posicao> posicoes) {
+        this.idTurma = idTurma;
+        this.idDisciplina = idDisciplina;
+        this.totalAlunos = totalAlunos;
+        this.posicaoAluno = posicaoAluno;
+        this.posicoes = posicoes;
+    }
+
+    public Integer getIdTurma() {
+        return idTurma;
+    }
+
+    public Integer getIdDisciplina() {
+        return idDisciplina;
+    }
+
+    public int getTotalAlunos() {
+        return totalAlunos;
+    }
+
+    public Posicao getPosicaoAluno() {
+        return posicaoAluno;
+    }
+
+    public List<Posicao> getPosicoes() {
+        return posicoes;
+    }
+
+    /**
+     * Um aluno no ranking.
+     */
+    public static class Posicao {
+
+        private final int posicao;
+        private final Integer idAluno;
+        private final String nomeAluno;
+        private final BigDecimal media;
+        private final int quantidadeNotas;
+
+        public Posicao(int posicao, Integer idAluno, String nomeAluno, BigDecimal media, int quantidadeNotas) {
+            this.posicao = posicao;
+            this.idAluno = idAluno;
+            this.nomeAluno = nomeAluno;
+            this.media = media;
+            this.quantidadeNotas = quantidadeNotas;
+        }
+
+        public int getPosicao() {
+            return posicao;
+        }
+
+        public Integer getIdAluno() {
+            return idAluno;
+        }
+
+        public String getNomeAluno() {
+            return nomeAluno;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public int getQuantidadeNotas() {
+            return quantidadeNotas;
+        }
+    }
+}
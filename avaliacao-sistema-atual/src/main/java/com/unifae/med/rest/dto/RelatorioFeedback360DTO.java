@@ -0,0 +1,238 @@
+/**
+ * =================================================================================================
+ * ENTENDIMENTO DO CÓDIGO
+ * =================================================================================================
+ * Esta classe, `RelatorioFeedback360DTO`, é o relatório consolidado da avaliação 360° de um
+ * aluno (`GET /alunos/{id}/relatorio-360`): tudo o que professores/preceptores, pares,
+ * equipe de saúde e pacientes/familiares registraram sobre ele em um período, já agregado.
+ *
+ * Principais aspectos deste DTO:
+ * 1.  **Por fonte:** `fontes` traz uma entrada por tipo de questionário 360° (PROFESSOR,
+ * PARES, EQUIPE, PACIENTE) com quantidade de avaliações, média geral e, para cada
+ * competência do questionário, média, quantidade de notas e taxa de "não avaliado".
+ * 2.  **Comentários:** `feedbacks` lista as avaliações do período (mais recentes primeiro)
+ * com os textos de feedback positivo, de melhoria, o contrato de aprendizagem e as
+ * respostas em texto livre.
+ * 3.  **Cache:** O relatório é montado uma vez e guardado em cache (ver
+ * `AvaliacaoPreenchidaDAO.gerarRelatorio360`); `geradoEm` informa quando foi montado.
+ * 4.  **Somente leitura:** Não possui setters; não é usado para receber dados.
+ * =================================================================================================
+ */
+package com.unifae.med.rest.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class RelatorioFeedback360DTO {
+
+    private final Integer idAluno;
+    private final LocalDate de;
+    private final LocalDate ate;
+    private final LocalDateTime geradoEm;
+    private final int totalAvaliacoes;
+    private final List<Fonte> fontes;
+    private final List<Feedback> feedbacks;
+
+    public RelatorioFeedback360DTO(Integer idAluno, LocalDate de, LocalDate ate, LocalDateTime geradoEm,
+            int totalAvaliacoes, List<Fonte> fontes, List<Feedback> feedbacks) {
+        this.idAluno = idAluno;
+        this.de = de;
+        this.ate = ate;
+        this.geradoEm = geradoEm;
+        this.totalAvaliacoes = totalAvaliacoes;
+        this.fontes = fontes;
+        this.feedbacks = feedbacks;
+    }
+
+    public Integer getIdAluno() {
+        return idAluno;
+    }
+
+    public LocalDate getDe() {
+        return de;
+    }
+
+    public LocalDate getAte() {
+        return ate;
+    }
+
+    public LocalDateTime getGeradoEm() {
+        return geradoEm;
+    }
+
+    public int getTotalAvaliacoes() {
+        return totalAvaliacoes;
+    }
+
+    public List<Fonte> getFontes() {
+        return fontes;
+    }
+
+    public List<Feedback> getFeedbacks() {
+        return feedbacks;
+    }
+
+    /**
+     * Avaliações de um tipo de avaliador (questionário 360°) e suas
+     * competências, na ordem de exibição do questionário.
+     */
+    public static class Fonte {
+
+        private final String fonte;
+        private final int avaliacoes;
+        private final BigDecimal media;
+        private final long notas;
+        private final long naoAvaliados;
+        private final BigDecimal taxaNaoAvaliado;
+        private final List<Competencia> competencias;
+
+        public Fonte(String fonte, int avaliacoes, BigDecimal media, long notas, long naoAvaliados,
+                BigDecimal taxaNaoAvaliado, List<Competencia> competencias) {
+            this.fonte = fonte;
+            this.avaliacoes = avaliacoes;
+            this.media = media;
+            this.notas = notas;
+            this.naoAvaliados = naoAvaliados;
+            this.taxaNaoAvaliado = taxaNaoAvaliado;
+            this.competencias = competencias;
+        }
+
+        public String getFonte() {
+            return fonte;
+        }
+
+        public int getAvaliacoes() {
+            return avaliacoes;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public long getNotas() {
+            return notas;
+        }
+
+        public long getNaoAvaliados() {
+            return naoAvaliados;
+        }
+
+        public BigDecimal getTaxaNaoAvaliado() {
+            return taxaNaoAvaliado;
+        }
+
+        public List<Competencia> getCompetencias() {
+            return competencias;
+        }
+    }
+
+    /**
+     * Resultado de uma competência: média das notas, quantidade de notas e
+     * percentual das respostas marcadas como não avaliadas.
+     */
+    public static class Competencia {
+
+        private final Integer idCompetencia;
+        private final String nomeCompetencia;
+        private final BigDecimal media;
+        private final long notas;
+        private final long naoAvaliados;
+        private final BigDecimal taxaNaoAvaliado;
+
+        public Competencia(Integer idCompetencia, String nomeCompetencia, BigDecimal media, long notas,
+                long naoAvaliados, BigDecimal taxaNaoAvaliado) {
+            this.idCompetencia = idCompetencia;
+            this.nomeCompetencia = nomeCompetencia;
+            this.media = media;
+            this.notas = notas;
+            this.naoAvaliados = naoAvaliados;
+            this.taxaNaoAvaliado = taxaNaoAvaliado;
+        }
+
+        public Integer getIdCompetencia() {
+            return idCompetencia;
+        }
+
+        public String getNomeCompetencia() {
+            return nomeCompetencia;
+        }
+
+        public BigDecimal getMedia() {
+            return media;
+        }
+
+        public long getNotas() {
+            return notas;
+        }
+
+        public long getNaoAvaliados() {
+            return naoAvaliados;
+        }
+
+        public BigDecimal getTaxaNaoAvaliado() {
+            return taxaNaoAvaliado;
+        }
+    }
+
+    /**
+     * Textos registrados em uma avaliação.
+     */
+    public static class Feedback {
+
+        private final Integer idAvaliacao;
+        private final LocalDate dataRealizacao;
+        private final String fonte;
+        private final String avaliador;
+        private final String feedbackPositivo;
+        private final String feedbackMelhoria;
+        private final String contratoAprendizagem;
+        private final List<String> comentarios;
+
+        public Feedback(Integer idAvaliacao, LocalDate dataRealizacao, String fonte, String avaliador,
+                String feedbackPositivo, String feedbackMelhoria, String contratoAprendizagem,
+                List<String> comentarios) {
+            this.idAvaliacao = idAvaliacao;
+            this.dataRealizacao = dataRealizacao;
+            this.fonte = fonte;
+            this.avaliador = avaliador;
+            this.feedbackPositivo = feedbackPositivo;
+            this.feedbackMelhoria = feedbackMelhoria;
+            this.contratoAprendizagem = contratoAprendizagem;
+            this.comentarios = comentarios;
+        }
+
+        public Integer getIdAvaliacao() {
+            return idAvaliacao;
+        }
+
+        public LocalDate getDataRealizacao() {
+            return dataRealizacao;
+        }
+
+        public String getFonte() {
+            return fonte;
+        }
+
+        public String getAvaliador() {
+            return avaliador;
+        }
+
+        public String getFeedbackPositivo() {
+            return feedbackPositivo;
+        }
+
+        public String getFeedbackMelhoria() {
+            return feedbackMelhoria;
+        }
+
+        public String getContratoAprendizagem() {
+            return contratoAprendizagem;
+        }
+
+        public List<String> getComentarios() {
+            return comentarios;
+        }
+    }
+}
@@ -75,6 +75,22 @@ public class RespostaItemAvaliacaoDTO {
     public RespostaItemAvaliacaoDTO() {
     }
 
+    /**
+     * Construtor usado pela consulta de projeção do RespostaItemAvaliacaoDAO
+     * (SELECT new ...), com os IDs das associações lidos das chaves
+     * estrangeiras.
+     */
+    public RespostaItemAvaliacaoDTO(Integer idRespostaAvaliacao, Integer idAvaliacaoPreenchida,
+            Integer idCompetenciaQuestionario, BigDecimal respostaValorNumerico, String respostaTexto,
+            Boolean naoAvaliado) {
+        this.idRespostaAvaliacao = idRespostaAvaliacao;
+        this.idAvaliacaoPreenchida = idAvaliacaoPreenchida;
+        this.idCompetenciaQuestionario = idCompetenciaQuestionario;
+        this.respostaValorNumerico = respostaValorNumerico;
+        this.respostaTexto = respostaTexto;
+        this.naoAvaliado = naoAvaliado;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
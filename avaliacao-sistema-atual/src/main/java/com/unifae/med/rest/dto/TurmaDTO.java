@@ -67,6 +67,20 @@ public class TurmaDTO {
     public TurmaDTO() {
     }
 
+    /**
+     * Construtor com todos os campos, usado pela consulta de projeção do
+     * TurmaDAO (SELECT new ...).
+     */
+    public TurmaDTO(Integer idTurma, String nomeTurma, String codigoTurma, Integer anoLetivo, Integer semestre,
+            Boolean ativo) {
+        this.idTurma = idTurma;
+        this.nomeTurma = nomeTurma;
+        this.codigoTurma = codigoTurma;
+        this.anoLetivo = anoLetivo;
+        this.semestre = semestre;
+        this.ativo = ativo;
+    }
+
     // ============================================================================================
     // MÉTODOS GETTERS E SETTERS
     // ============================================================================================
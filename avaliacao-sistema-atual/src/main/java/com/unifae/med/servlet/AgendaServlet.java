@@ -17,13 +17,21 @@
  * e a montagem final do objeto `EventoAgenda`.
  *
  * 3.  **Validação de Regras de Negócio:** Contém lógica de negócio específica, como a
- * verificação de conflitos de horário (`hasConflito`) antes de salvar um evento,
- * garantindo a integridade dos agendamentos.
+ * recusa de conflitos de horário no local, feita pelo `EventoAgendaDAO.save` na mesma
+ * transação da gravação, garantindo a integridade dos agendamentos.
  *
  * 4.  **Filtragem de Dados:** A tela de listagem suporta múltiplos filtros (data, tipo,
  * status, etc.), cuja lógica é orquestrada por este servlet antes de consultar o DAO.
  *
- * 5.  **Reutilização de Código:** Utiliza métodos auxiliares como `prepareFormData` e
+ * 5.  **Eventos Recorrentes:** O campo `regraRecorrencia` do formulário grava o evento como
+ * série; a listagem por data e o calendário mostram cada ocorrência, e `cancelOccurrence`
+ * cancela uma única ocorrência (ver `EventoAgendaDAO.cancelarOcorrencia`).
+ *
+ * 6.  **Calendário em Cache:** Os meses do calendário (com os filtros opcionais da listagem)
+ * ficam em cache no `EventoAgendaDAO` (`findCalendarioMes`); gravar, excluir ou mudar o
+ * status de um evento remove só os meses em que ele aparece.
+ *
+ * 7.  **Reutilização de Código:** Utiliza métodos auxiliares como `prepareFormData` e
  * `parseDateTime` para evitar duplicação de código e centralizar lógicas comuns.
  * =================================================================================================
  */
@@ -37,6 +45,8 @@ import com.unifae.med.dao.TurmaDAO;
 import com.unifae.med.dao.UsuarioDAO;
 // Entidades que modelam os dados.
 import com.unifae.med.entity.*;
+// DTO de projeção usado na listagem de eventos.
+import com.unifae.med.rest.dto.EventoAgendaResumoDTO;
 // Classes do Jakarta Servlet para criar a servlet.
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -44,15 +54,19 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+// Consultas de apoio em paralelo.
+import com.unifae.med.util.AsyncQueryExecutor;
+
 // Classes Java para manipulação de I/O, datas e coleções.
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
 
 @WebServlet("/agenda")
 public class AgendaServlet extends HttpServlet {
@@ -107,6 +121,9 @@ public class AgendaServlet extends HttpServlet {
                 case "changeStatus":
                     changeStatus(request, response);
                     break;
+                case "cancelOccurrence":
+                    cancelOccurrence(request, response);
+                    break;
                 default:
                     listEventos(request, response);
                     break;
@@ -138,6 +155,7 @@ public class AgendaServlet extends HttpServlet {
             String responsavelIdStr = request.getParameter("responsavelId");
             String tipoEventoStr = request.getParameter("tipoEvento");
             String statusEventoStr = request.getParameter("statusEvento");
+            String regraRecorrencia = request.getParameter("regraRecorrencia");
 
             // 2. Valida campos obrigatórios.
             if (titulo == null || titulo.trim().isEmpty() || dataInicioStr == null || dataInicioStr.trim().isEmpty()) {
@@ -164,16 +182,7 @@ public class AgendaServlet extends HttpServlet {
                     ? eventoAgendaDAO.findById(Integer.valueOf(idStr)).orElseThrow(() -> new ServletException("Evento não encontrado"))
                     : new EventoAgenda();
 
-            // 6. Aplica a regra de negócio de conflito de horário.
-            if (localEvento != null && dataFim != null) {
-                if (eventoAgendaDAO.hasConflito(localEvento, dataInicio, dataFim, evento.getIdEvento())) {
-                    request.setAttribute("erro", "Conflito de horário: já existe evento agendado para este local no período especificado.");
-                    showFormWithData(request, response, evento); // Retorna ao formulário com erro.
-                    return;
-                }
-            }
-
-            // 7. Popula a entidade com todos os dados processados.
+            // 6. Popula a entidade com todos os dados processados.
             evento.setTitulo(titulo);
             evento.setDescricao(descricao);
             evento.setDataInicio(dataInicio);
@@ -184,11 +193,21 @@ public class AgendaServlet extends HttpServlet {
             evento.setResponsavel(responsavel);
             evento.setTipoEvento(tipoEvento);
             evento.setStatusEvento(statusEvento);
+            evento.setRegraRecorrencia(regraRecorrencia != null && !regraRecorrencia.isBlank() ? regraRecorrencia.trim() : null);
+
+            // 7. Salva a entidade no banco de dados. O save() reserva o local e recusa o
+            // conflito de horário na mesma transação: dois envios simultâneos para o mesmo
+            // local e horário não são gravados ambos. Numa série, vale para todas as ocorrências;
+            // uma regra de recorrência inválida também volta ao formulário.
+            try {
+                eventoAgendaDAO.save(evento);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                request.setAttribute("erro", e.getMessage());
+                showFormWithData(request, response, evento); // Retorna ao formulário com erro.
+                return;
+            }
 
-            // 8. Salva a entidade no banco de dados.
-            eventoAgendaDAO.save(evento);
-
-            // 9. Redireciona o navegador para a página principal da agenda.
+            // 8. Redireciona o navegador para a página principal da agenda.
             response.sendRedirect(request.getContextPath() + "/agenda?success=1");
 
         } catch (Exception e) {
@@ -219,11 +238,12 @@ public class AgendaServlet extends HttpServlet {
         // ... (conversão dos outros filtros) ...
         TipoEvento tipoEvento = (tipoEventoStr != null && !tipoEventoStr.isEmpty()) ? TipoEvento.valueOf(tipoEventoStr) : null;
         StatusEvento statusEvento = (statusEventoStr != null && !statusEventoStr.isEmpty()) ? StatusEvento.valueOf(statusEventoStr) : null;
-        Usuario responsavel = (responsavelIdStr != null && !responsavelIdStr.isEmpty()) ? usuarioDAO.findById(Integer.valueOf(responsavelIdStr)).orElse(null) : null;
-        Disciplina disciplina = (disciplinaIdStr != null && !disciplinaIdStr.isEmpty()) ? disciplinaDAO.findById(Integer.valueOf(disciplinaIdStr)).orElse(null) : null;
-        Turma turma = (turmaIdStr != null && !turmaIdStr.isEmpty()) ? turmaDAO.findById(Integer.valueOf(turmaIdStr)).orElse(null) : null;
+        // Os filtros por responsável, disciplina e turma usam apenas o ID (sem carregar a entidade).
+        Integer responsavelId = (responsavelIdStr != null && !responsavelIdStr.isEmpty()) ? Integer.valueOf(responsavelIdStr) : null;
+        Integer disciplinaId = (disciplinaIdStr != null && !disciplinaIdStr.isEmpty()) ? Integer.valueOf(disciplinaIdStr) : null;
+        Integer turmaId = (turmaIdStr != null && !turmaIdStr.isEmpty()) ? Integer.valueOf(turmaIdStr) : null;
 
-        List<EventoAgenda> eventos = eventoAgendaDAO.findWithFilters(dataInicio, dataFim, tipoEvento, statusEvento, responsavel, disciplina, turma);
+        List<EventoAgendaResumoDTO> eventos = eventoAgendaDAO.findResumosWithFilters(dataInicio, dataFim, tipoEvento, statusEvento, responsavelId, disciplinaId, turmaId);
 
         request.setAttribute("eventos", eventos);
         prepareFormData(request); // Prepara dados para os selects de filtro.
@@ -231,25 +251,58 @@ public class AgendaServlet extends HttpServlet {
     }
 
     /**
-     * Busca os dados e exibe a visualização em formato de calendário.
+     * Busca os dados e exibe a visualização em formato de calendário. Os
+     * eventos do mês já vêm agrupados por dia do cache do DAO
+     * (findCalendarioMes), com os filtros opcionais da listagem (tipo, status,
+     * responsável, disciplina e turma), que são mantidos na navegação entre
+     * os meses.
      */
     private void showCalendar(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         LocalDate hoje = LocalDate.now();
         int mes = (request.getParameter("mes") != null) ? Integer.parseInt(request.getParameter("mes")) : hoje.getMonthValue();
         int ano = (request.getParameter("ano") != null) ? Integer.parseInt(request.getParameter("ano")) : hoje.getYear();
+        String tipoEventoStr = request.getParameter("tipoEvento");
+        String statusEventoStr = request.getParameter("statusEvento");
+        String responsavelIdStr = request.getParameter("responsavelId");
+        String disciplinaIdStr = request.getParameter("disciplinaId");
+        String turmaIdStr = request.getParameter("turmaId");
 
-        LocalDate primeiroDia = LocalDate.of(ano, mes, 1);
-        LocalDate ultimoDia = primeiroDia.withDayOfMonth(primeiroDia.lengthOfMonth());
-
-        List<EventoAgenda> eventosDoMes = eventoAgendaDAO.findByPeriodo(primeiroDia.atStartOfDay(), ultimoDia.atTime(23, 59, 59));
-
-        // Agrupa os eventos por dia para facilitar a renderização no calendário do JSP.
-        Map<LocalDate, List<EventoAgenda>> eventosPorDia = eventosDoMes.stream()
-                .collect(Collectors.groupingBy(evento -> evento.getDataInicio().toLocalDate()));
+        TipoEvento tipoEvento = (tipoEventoStr != null && !tipoEventoStr.isEmpty()) ? TipoEvento.valueOf(tipoEventoStr) : null;
+        StatusEvento statusEvento = (statusEventoStr != null && !statusEventoStr.isEmpty()) ? StatusEvento.valueOf(statusEventoStr) : null;
+        Integer responsavelId = (responsavelIdStr != null && !responsavelIdStr.isEmpty()) ? Integer.valueOf(responsavelIdStr) : null;
+        Integer disciplinaId = (disciplinaIdStr != null && !disciplinaIdStr.isEmpty()) ? Integer.valueOf(disciplinaIdStr) : null;
+        Integer turmaId = (turmaIdStr != null && !turmaIdStr.isEmpty()) ? Integer.valueOf(turmaIdStr) : null;
+
+        YearMonth mesExibido = YearMonth.of(ano, mes);
+        LocalDate primeiroDia = mesExibido.atDay(1);
+        LocalDate ultimoDia = mesExibido.atEndOfMonth();
+
+        // Eventos agrupados por dia para facilitar a renderização no calendário do JSP.
+        Map<LocalDate, List<EventoAgendaResumoDTO>> eventosPorDia = eventoAgendaDAO.findCalendarioMes(mesExibido,
+                tipoEvento, statusEvento, responsavelId, disciplinaId, turmaId);
+
+        // Filtros repassados aos links de mês anterior e seguinte.
+        StringBuilder filtros = new StringBuilder();
+        if (tipoEvento != null) {
+            filtros.append("&tipoEvento=").append(tipoEvento.name());
+        }
+        if (statusEvento != null) {
+            filtros.append("&statusEvento=").append(statusEvento.name());
+        }
+        if (responsavelId != null) {
+            filtros.append("&responsavelId=").append(responsavelId);
+        }
+        if (disciplinaId != null) {
+            filtros.append("&disciplinaId=").append(disciplinaId);
+        }
+        if (turmaId != null) {
+            filtros.append("&turmaId=").append(turmaId);
+        }
 
         request.setAttribute("eventosPorDia", eventosPorDia);
         // ... (outros atributos para controle do calendário) ...
-        request.setAttribute("totalEventos", eventosDoMes.size());
+        request.setAttribute("totalEventos", eventosPorDia.values().stream().mapToInt(List::size).sum());
+        request.setAttribute("filtrosCalendario", filtros.toString());
         request.setAttribute("mes", mes);
         request.setAttribute("ano", ano);
         request.setAttribute("primeiroDia", primeiroDia);
@@ -297,16 +350,35 @@ public class AgendaServlet extends HttpServlet {
         response.sendRedirect(request.getContextPath() + "/agenda?statusChanged=1");
     }
 
+    /**
+     * Cancela uma única ocorrência de um evento recorrente e redireciona.
+     */
+    private void cancelOccurrence(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Integer id = Integer.valueOf(request.getParameter("idEvento"));
+        LocalDateTime dataOcorrencia = LocalDateTime.parse(request.getParameter("dataOcorrencia"));
+        eventoAgendaDAO.cancelarOcorrencia(id, dataOcorrencia);
+        response.sendRedirect(request.getContextPath() + "/agenda?statusChanged=1");
+    }
+
     /**
      * Método utilitário que carrega as listas de dados (locais, disciplinas,
      * etc.) necessárias para popular os campos <select> (dropdowns) nos
-     * formulários.
+     * formulários. As consultas são independentes e rodam em paralelo
+     * (AsyncQueryExecutor): a espera é a da consulta mais lenta.
      */
     private void prepareFormData(HttpServletRequest request) {
-        request.setAttribute("locaisEvento", localEventoDAO.findAll());
-        request.setAttribute("disciplinas", disciplinaDAO.findAll());
-        request.setAttribute("turmas", turmaDAO.findAll());
-        request.setAttribute("usuarios", usuarioDAO.findAtivos()); // Busca apenas usuários ativos
+        try (AsyncQueryExecutor.Batch lote = AsyncQueryExecutor.newBatch()) {
+            Future<List<LocalEvento>> locaisEvento = lote.submit(localEventoDAO::findAll);
+            Future<List<Disciplina>> disciplinas = lote.submit(disciplinaDAO::findAll);
+            Future<List<Turma>> turmas = lote.submit(turmaDAO::findAll);
+            Future<List<Usuario>> usuarios = lote.submit(usuarioDAO::findAtivos); // Busca apenas usuários ativos
+            lote.join();
+
+            request.setAttribute("locaisEvento", locaisEvento.resultNow());
+            request.setAttribute("disciplinas", disciplinas.resultNow());
+            request.setAttribute("turmas", turmas.resultNow());
+            request.setAttribute("usuarios", usuarios.resultNow());
+        }
         request.setAttribute("tiposEvento", TipoEvento.values());
         request.setAttribute("statusEvento", StatusEvento.values());
     }
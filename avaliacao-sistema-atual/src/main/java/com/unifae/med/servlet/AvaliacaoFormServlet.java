@@ -19,20 +19,23 @@
  * modelos de questionário.
  *
  * 3.  **Processamento de Submissões Complexas:** O método `doPost` executa uma
- * transação de múltiplos passos: salva o "cabeçalho" da avaliação, itera sobre as
- * competências esperadas, utiliza um mapeamento (`obterMapeamentoParametros`) para
- * ler corretamente as respostas de diferentes formulários e salva cada resposta
- * individual no banco de dados.
+ * transação única de múltiplos passos: salva o "cabeçalho" da avaliação, itera sobre
+ * as competências esperadas, utiliza um mapeamento (`obterMapeamentoParametros`) para
+ * ler corretamente as respostas de diferentes formulários e grava todas as respostas
+ * de uma vez. Se qualquer passo falhar, nada é gravado.
  *
  * 4.  **Gerenciamento de Modo de Edição:** O servlet distingue entre as ações "new" e
  * "edit", carregando previamente uma avaliação e suas respostas existentes quando
- * o usuário está editando um registro.
+ * o usuário está editando um registro. Ao salvar uma edição, as respostas são
+ * comparadas por competência e apenas as alteradas são atualizadas.
  * =================================================================================================
  */
 package com.unifae.med.servlet;
 
 import com.unifae.med.dao.*;
 import com.unifae.med.entity.*;
+import com.unifae.med.util.AsyncQueryExecutor;
+import com.unifae.med.util.JPAUtil;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -42,9 +45,11 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 @WebServlet("/avaliacao/form")
 public class AvaliacaoFormServlet extends HttpServlet {
@@ -144,49 +149,53 @@ public class AvaliacaoFormServlet extends HttpServlet {
             String feedbackMelhoria = request.getParameter("feedbackMelhoria");
             String contratoAprendizagem = request.getParameter("contratoAprendizagem");
 
-            // 2. Busca as entidades "pai" necessárias.
-            Questionario questionario = questionarioDAO.findById(Integer.parseInt(questionarioIdStr))
-                    .orElseThrow(() -> new RuntimeException("Questionário não encontrado"));
-            Usuario alunoAvaliado = usuarioDAO.findById(Integer.parseInt(alunoAvaliadoIdStr))
-                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
-            Usuario avaliador = null;
-            if (avaliadorIdStr != null && !avaliadorIdStr.isEmpty() && !avaliadorIdStr.equals("0")) {
-                avaliador = usuarioDAO.findById(Integer.parseInt(avaliadorIdStr)).orElse(null);
-            }
+            // 2 a 7 em uma única transação: cabeçalho e respostas são gravados
+            // juntos ou nada é gravado (ver JPAUtil.executeInTransaction).
+            JPAUtil.executeInTransaction(() -> {
+                // 2. Busca as entidades "pai" necessárias.
+                Questionario questionario = questionarioDAO.findById(Integer.parseInt(questionarioIdStr))
+                        .orElseThrow(() -> new RuntimeException("Questionário não encontrado"));
+                Usuario alunoAvaliado = usuarioDAO.findById(Integer.parseInt(alunoAvaliadoIdStr))
+                        .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+                Usuario avaliador = null;
+                if (avaliadorIdStr != null && !avaliadorIdStr.isEmpty() && !avaliadorIdStr.equals("0")) {
+                    avaliador = usuarioDAO.findById(Integer.parseInt(avaliadorIdStr)).orElse(null);
+                }
 
-            // 3. Cria uma nova avaliação ou busca a existente para edição.
-            AvaliacaoPreenchida avaliacao = ("edit".equals(action))
-                    ? avaliacaoDAO.findById(Integer.parseInt(avaliacaoIdStr)).orElseThrow(() -> new RuntimeException("Avaliação não encontrada"))
-                    : new AvaliacaoPreenchida();
-
-            // 4. Popula a entidade AvaliacaoPreenchida.
-            avaliacao.setQuestionario(questionario);
-            avaliacao.setAlunoAvaliado(alunoAvaliado);
-            avaliacao.setAvaliador(avaliador);
-            avaliacao.setTipoAvaliadorNaoUsuario(tipoAvaliadorNaoUsuario);
-            avaliacao.setNomeAvaliadorNaoUsuario(nomeAvaliadorNaoUsuario);
-            avaliacao.setDataRealizacao(LocalDate.parse(dataRealizacaoStr));
-            if (horarioInicioStr != null && !horarioInicioStr.isEmpty()) {
-                avaliacao.setHorarioInicio(LocalTime.parse(horarioInicioStr));
-            }
-            if (horarioFimStr != null && !horarioFimStr.isEmpty()) {
-                avaliacao.setHorarioFim(LocalTime.parse(horarioFimStr));
-            }
-            avaliacao.setLocalRealizacao(localRealizacao);
-            avaliacao.setFeedbackPositivo(feedbackPositivo);
-            avaliacao.setFeedbackMelhoria(feedbackMelhoria);
-            avaliacao.setContratoAprendizagem(contratoAprendizagem);
+                // 3. Cria uma nova avaliação ou busca a existente para edição.
+                AvaliacaoPreenchida avaliacao = ("edit".equals(action))
+                        ? avaliacaoDAO.findById(Integer.parseInt(avaliacaoIdStr)).orElseThrow(() -> new RuntimeException("Avaliação não encontrada"))
+                        : new AvaliacaoPreenchida();
+
+                // 4. Popula a entidade AvaliacaoPreenchida.
+                avaliacao.setQuestionario(questionario);
+                avaliacao.setAlunoAvaliado(alunoAvaliado);
+                avaliacao.setAvaliador(avaliador);
+                avaliacao.setTipoAvaliadorNaoUsuario(tipoAvaliadorNaoUsuario);
+                avaliacao.setNomeAvaliadorNaoUsuario(nomeAvaliadorNaoUsuario);
+                avaliacao.setDataRealizacao(LocalDate.parse(dataRealizacaoStr));
+                if (horarioInicioStr != null && !horarioInicioStr.isEmpty()) {
+                    avaliacao.setHorarioInicio(LocalTime.parse(horarioInicioStr));
+                }
+                if (horarioFimStr != null && !horarioFimStr.isEmpty()) {
+                    avaliacao.setHorarioFim(LocalTime.parse(horarioFimStr));
+                }
+                avaliacao.setLocalRealizacao(localRealizacao);
+                avaliacao.setFeedbackPositivo(feedbackPositivo);
+                avaliacao.setFeedbackMelhoria(feedbackMelhoria);
+                avaliacao.setContratoAprendizagem(contratoAprendizagem);
 
-            // 5. Salva a avaliação (cabeçalho) para obter um ID.
-            avaliacao = avaliacaoDAO.save(avaliacao);
+                // 5. Salva a avaliação (cabeçalho) para obter um ID.
+                avaliacao = avaliacaoDAO.save(avaliacao);
 
-            // 6. Se for uma edição, limpa as respostas antigas antes de inserir as novas.
-            if ("edit".equals(action)) {
-                respostaDAO.deleteByAvaliacaoPreenchida(avaliacao);
-            }
+                // 6. Lê as respostas do formulário, uma por competência.
+                List<RespostaItemAvaliacao> respostas = processarRespostasCompetencias(request, questionario);
 
-            // 7. Processa e salva cada resposta individual do formulário.
-            processarRespostasCompetencias(request, avaliacao, questionario);
+                // 7. Grava as respostas: na edição só as alteradas são atualizadas
+                // (sem apagar e reinserir todas as linhas).
+                respostaDAO.sincronizarRespostas(avaliacao, respostas);
+                return avaliacao;
+            });
 
             // 8. Redireciona para a página de listagem com mensagem de sucesso.
             response.sendRedirect(request.getContextPath() + "/avaliacoes?success=true");
@@ -210,21 +219,33 @@ public class AvaliacaoFormServlet extends HttpServlet {
     /**
      * Método utilitário que carrega as listas de dados (locais, disciplinas,
      * etc.) necessárias para popular os campos <select> (dropdowns) nos
-     * formulários.
+     * formulários. As consultas são independentes e rodam em paralelo
+     * (AsyncQueryExecutor): a espera é a da consulta mais lenta.
      */
     private void prepareFormData(HttpServletRequest request) {
-        request.setAttribute("alunos", usuarioDAO.findByTipoUsuario(TipoUsuario.ESTUDANTE));
-        request.setAttribute("professores", usuarioDAO.findByTipoUsuario(TipoUsuario.PROFESSOR));
-        request.setAttribute("locaisEventos", localEventoDAO.findAll());
-        request.setAttribute("questionarios", questionarioDAO.findAll());
+        try (AsyncQueryExecutor.Batch lote = AsyncQueryExecutor.newBatch()) {
+            Future<List<Usuario>> alunos = lote.submit(() -> usuarioDAO.findByTipoUsuario(TipoUsuario.ESTUDANTE));
+            Future<List<Usuario>> professores = lote.submit(() -> usuarioDAO.findByTipoUsuario(TipoUsuario.PROFESSOR));
+            Future<List<LocalEvento>> locaisEventos = lote.submit(localEventoDAO::findAll);
+            Future<List<Questionario>> questionarios = lote.submit(questionarioDAO::findAll);
+            lote.join();
+
+            request.setAttribute("alunos", alunos.resultNow());
+            request.setAttribute("professores", professores.resultNow());
+            request.setAttribute("locaisEventos", locaisEventos.resultNow());
+            request.setAttribute("questionarios", questionarios.resultNow());
+        }
     }
 
     /**
-     * Processa e salva as respostas para cada competência de um questionário.
+     * Monta as respostas para cada competência de um questionário a partir dos
+     * parâmetros do formulário. Nada é gravado aqui: a gravação é feita em
+     * lote por RespostaItemAvaliacaoDAO.sincronizarRespostas().
      */
-    private void processarRespostasCompetencias(HttpServletRequest request, AvaliacaoPreenchida avaliacao, Questionario questionario) {
+    private List<RespostaItemAvaliacao> processarRespostasCompetencias(HttpServletRequest request, Questionario questionario) {
         List<CompetenciaQuestionario> competencias = competenciaDAO.findByQuestionario(questionario.getIdQuestionario());
         Map<String, String> mapeamentoParametros = obterMapeamentoParametros(questionario);
+        List<RespostaItemAvaliacao> respostas = new ArrayList<>();
 
         for (CompetenciaQuestionario competencia : competencias) {
             String nomeCompetencia = competencia.getNomeCompetencia().toLowerCase().trim();
@@ -235,7 +256,6 @@ public class AvaliacaoFormServlet extends HttpServlet {
                 String naoAvaliadoStr = request.getParameter("nao_avaliado_" + nomeParametro.replace("resposta_", ""));
 
                 RespostaItemAvaliacao resposta = new RespostaItemAvaliacao();
-                resposta.setAvaliacaoPreenchida(avaliacao);
                 resposta.setCompetenciaQuestionario(competencia);
 
                 if ("true".equals(naoAvaliadoStr)) {
@@ -246,9 +266,10 @@ public class AvaliacaoFormServlet extends HttpServlet {
                         resposta.setRespostaValorNumerico(new BigDecimal(respostaValorStr));
                     }
                 }
-                respostaDAO.save(resposta);
+                respostas.add(resposta);
             }
         }
+        return respostas;
     }
 
     /**
@@ -3,10 +3,11 @@ package com.unifae.med.servlet;
 import com.unifae.med.dao.AvaliacaoPreenchidaDAO;
 import com.unifae.med.dao.UsuarioDAO;
 import com.unifae.med.dao.QuestionarioDAO;
-import com.unifae.med.entity.AvaliacaoPreenchida;
 import com.unifae.med.entity.Usuario;
 import com.unifae.med.entity.Questionario;
 import com.unifae.med.entity.TipoUsuario;
+import com.unifae.med.rest.dto.AvaliacaoResumoDTO;
+import com.unifae.med.util.AsyncQueryExecutor;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -14,6 +15,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * AVALIACAOLISTSERVLET - CONTROLADOR PARA LISTAGEM DE AVALIAÇÕES
@@ -31,7 +33,7 @@ import java.util.List;
  * - Gerenciar erros e exceções
  * 
  * PADRÃO MVC:
- * - Model: Entidades (AvaliacaoPreenchida, Usuario, Questionario)
+ * - Model: AvaliacaoResumoDTO (linhas da tabela) e entidades Usuario, Questionario (filtros)
  * - View: JSP (/WEB-INF/views/avaliacoes/list.jsp)
  * - Controller: Esta classe (AvaliacaoListServlet)
  * 
@@ -44,7 +46,9 @@ import java.util.List;
  * 
  * RELACIONAMENTO COM OUTROS ARQUIVOS:
  * - DAOs: AvaliacaoPreenchidaDAO, UsuarioDAO, QuestionarioDAO
- * - Entidades: AvaliacaoPreenchida, Usuario, Questionario, TipoUsuario
+ * - Util: AsyncQueryExecutor (listagem e filtros consultados em paralelo)
+ * - Entidades: Usuario, Questionario, TipoUsuario
+ * - DTO: AvaliacaoResumoDTO (projeção das linhas da listagem)
  * - JSP: /WEB-INF/views/avaliacoes/list.jsp (view principal)
  * - JSP: /WEB-INF/views/error.jsp (view de erro)
  * - web.xml: Configuração de mapeamento de servlets
@@ -133,68 +137,62 @@ public class AvaliacaoListServlet extends HttpServlet {
             String questionarioId = request.getParameter("questionarioId"); // Filtro por questionário
             String avaliadorId = request.getParameter("avaliadorId");   // Filtro por avaliador
 
-            List<AvaliacaoPreenchida> avaliacoes;
-
             // =====================================
             // APLICAÇÃO DE FILTROS DINÂMICOS
             // =====================================
-            // Lógica condicional para aplicar filtros conforme parâmetros
+            // Precedência dos filtros: aluno (com ou sem questionário),
+            // depois avaliador, depois questionário. Os filtros usam apenas
+            // os IDs; as linhas vêm projetadas em AvaliacaoResumoDTO, sem
+            // carregar avaliações, usuários, questionários e respostas.
             
+            Integer alunoFiltro = null;
+            Integer questionarioFiltro = null;
+            Integer avaliadorFiltro = null;
+
             if (alunoId != null && !alunoId.isEmpty()) {
                 // FILTRO POR ALUNO (com possível combinação com questionário)
-                
-                // Busca aluno pelo ID
-                Usuario aluno = usuarioDAO.findById(Integer.parseInt(alunoId))
-                        .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
-
+                alunoFiltro = Integer.parseInt(alunoId);
                 if (questionarioId != null && !questionarioId.isEmpty()) {
-                    // FILTRO COMBINADO: Aluno + Questionário
-                    Questionario questionario = questionarioDAO.findById(Integer.parseInt(questionarioId))
-                            .orElseThrow(() -> new RuntimeException("Questionário não encontrado"));
-                    
-                    // Busca avaliações específicas do aluno e questionário
-                    avaliacoes = avaliacaoDAO.findByAlunoAvaliadoAndQuestionario(aluno, questionario);
-                } else {
-                    // FILTRO SIMPLES: Apenas por aluno
-                    avaliacoes = avaliacaoDAO.findByAlunoAvaliado(aluno);
+                    questionarioFiltro = Integer.parseInt(questionarioId);
                 }
-                
             } else if (avaliadorId != null && !avaliadorId.isEmpty()) {
                 // FILTRO POR AVALIADOR
-                
-                Usuario avaliador = usuarioDAO.findById(Integer.parseInt(avaliadorId))
-                        .orElseThrow(() -> new RuntimeException("Avaliador não encontrado"));
-                
-                // Busca avaliações feitas por este avaliador
-                avaliacoes = avaliacaoDAO.findByAvaliador(avaliador);
-                
+                avaliadorFiltro = Integer.parseInt(avaliadorId);
             } else if (questionarioId != null && !questionarioId.isEmpty()) {
                 // FILTRO POR QUESTIONÁRIO
-                
-                Questionario questionario = questionarioDAO.findById(Integer.parseInt(questionarioId))
-                        .orElseThrow(() -> new RuntimeException("Questionário não encontrado"));
-                
-                // Busca avaliações deste questionário
-                avaliacoes = avaliacaoDAO.findByQuestionario(questionario);
-                
-            } else {
-                // SEM FILTROS: Lista todas as avaliações
-                avaliacoes = avaliacaoDAO.findAll();
+                questionarioFiltro = Integer.parseInt(questionarioId);
             }
+            // Sem filtros: todos os IDs nulos, lista todas as avaliações
 
             // =====================================
-            // BUSCA DE DADOS AUXILIARES
+            // BUSCA DOS DADOS (EM PARALELO)
             // =====================================
-            // Dados necessários para montar filtros na interface
-            
-            // Lista de alunos para filtro dropdown
-            List<Usuario> alunos = usuarioDAO.findByTipoUsuario(TipoUsuario.ESTUDANTE);
+            // A listagem e os dados dos filtros da interface são consultas
+            // independentes: rodam ao mesmo tempo e a página espera apenas
+            // a mais lenta (prazo e cancelamento no AsyncQueryExecutor)
             
-            // Lista de professores para filtro dropdown
-            List<Usuario> professores = usuarioDAO.findByTipoUsuario(TipoUsuario.PROFESSOR);
-            
-            // Lista de questionários para filtro dropdown
-            List<Questionario> questionarios = questionarioDAO.findAll();
+            List<AvaliacaoResumoDTO> avaliacoes;
+            List<Usuario> alunos;
+            List<Usuario> professores;
+            List<Questionario> questionarios;
+            try (AsyncQueryExecutor.Batch lote = AsyncQueryExecutor.newBatch()) {
+                // Cópias finais dos filtros para a consulta em outra thread
+                Integer aluno = alunoFiltro;
+                Integer questionario = questionarioFiltro;
+                Integer avaliador = avaliadorFiltro;
+                Future<List<AvaliacaoResumoDTO>> avaliacoesFuture = lote.submit(() -> avaliacaoDAO.findResumos(aluno, questionario, avaliador));
+                
+                // Listas para os filtros dropdown (alunos, professores e questionários)
+                Future<List<Usuario>> alunosFuture = lote.submit(() -> usuarioDAO.findByTipoUsuario(TipoUsuario.ESTUDANTE));
+                Future<List<Usuario>> professoresFuture = lote.submit(() -> usuarioDAO.findByTipoUsuario(TipoUsuario.PROFESSOR));
+                Future<List<Questionario>> questionariosFuture = lote.submit(questionarioDAO::findAll);
+                lote.join();
+                
+                avaliacoes = avaliacoesFuture.resultNow();
+                alunos = alunosFuture.resultNow();
+                professores = professoresFuture.resultNow();
+                questionarios = questionariosFuture.resultNow();
+            }
 
             // =====================================
             // PREPARAÇÃO DE ATRIBUTOS PARA JSP
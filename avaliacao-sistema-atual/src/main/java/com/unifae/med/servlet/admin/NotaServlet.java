@@ -29,6 +29,10 @@ import java.util.List;
  * CORREÇÃO 2: Adicionado carregamento de Turmas e Professores para o formulário.
  * CORREÇÃO 3: Adicionado processamento dos campos opcionais no doPost.
  *
+ * BOLETIM: action=boletim&turmaId=N exibe o boletim da turma (médias de
+ * todos os alunos em todas as disciplinas), montado com uma única consulta
+ * por NotaDAO.gerarBoletimTurma().
+ *
  * @version 2.0 - Corrigido erro de compilação e erros lógicos
  */
 @WebServlet("/admin/notas")
@@ -68,6 +72,9 @@ public class NotaServlet extends HttpServlet {
                 case "toggle":
                     toggleAtivaNota(request, response);
                     break;
+                case "boletim":
+                    showBoletim(request, response);
+                    break;
                 default:
                     listNotas(request, response);
                     break;
@@ -285,6 +292,23 @@ public class NotaServlet extends HttpServlet {
                .forward(request, response);
     }
 
+    private void showBoletim(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String turmaIdStr = request.getParameter("turmaId");
+        if (turmaIdStr != null && !turmaIdStr.trim().isEmpty()) {
+            Integer turmaId = Integer.parseInt(turmaIdStr);
+            Turma turma = turmaDAO.findById(turmaId)
+                .orElseThrow(() -> new ServletException("Turma não encontrada"));
+            request.setAttribute("boletim", notaDAO.gerarBoletimTurma(turma));
+        }
+
+        request.setAttribute("listTurmas", turmaDAO.findAtivas());
+
+        request.getRequestDispatcher("/WEB-INF/views/admin/notas/boletim.jsp")
+               .forward(request, response);
+    }
+
     private void deleteNota(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
 
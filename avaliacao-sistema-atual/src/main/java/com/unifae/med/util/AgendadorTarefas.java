@@ -0,0 +1,572 @@
+package com.unifae.med.util;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AGENDADORTAREFAS - TAREFAS EM SEGUNDO PLANO
+ * ===========================================
+ *
+ * Executa fora das requisições as tarefas pesadas de manutenção
+ * (recálculo de médias e rankings, exportação analítica, limpeza de
+ * histórico), em horários definidos por expressões cron (ver
+ * ExpressaoCron). Iniciado e encerrado pelo AgendadorListener junto com a
+ * aplicação; as tarefas são registradas lá.
+ *
+ * EXECUÇÃO:
+ * - Um relógio (uma thread) dispara cada tarefa no horário; a tarefa roda
+ *   em uma virtual thread própria, dentro de um escopo de requisição
+ *   (JPAUtil.beginRequestScope) no primário, como uma requisição POST
+ * - No máximo JOBS_MAX_CONCURRENCY tarefas rodam ao mesmo tempo; as
+ *   demais aguardam a vez. Uma tarefa nunca roda duas vezes em paralelo no
+ *   mesmo servidor: o disparo que a encontra em execução é descartado
+ * - Prazo: ao estourar o prazo da tarefa a thread é interrompida (em
+ *   virtual thread, a interrupção fecha o socket da consulta em andamento);
+ *   a execução termina como TEMPO_ESGOTADO
+ * - Horários perdidos (servidor parado, tarefa longa) não são recuperados:
+ *   a tarefa segue para o próximo horário
+ *
+ * VÁRIOS SERVIDORES (TOMCAT EM MAIS DE UM NÓ):
+ * Tarefas de instância única (o padrão) usam uma linha de tarefas_agendadas
+ * como lease: antes de executar, o servidor grava seu nome e a validade do
+ * lease (prazo da tarefa + 1 minuto) com um UPDATE condicional atômico; só
+ * quem alterou a linha executa. O horário executado também é gravado, para
+ * que um servidor atrasado não repita o mesmo horário depois que o lease
+ * for liberado. Se o servidor cair, o lease expira sozinho. Tarefas que
+ * atualizam apenas a memória do próprio servidor (ex: rankings) são
+ * registradas sem instância única e rodam em todos. Todos os servidores
+ * devem usar o mesmo JOBS_TIMEZONE.
+ *
+ * HISTÓRICO E MÉTRICAS:
+ * Cada execução é gravada em execucoes_tarefas (início, fim, situação,
+ * mensagem) pelo RegistroExecucoes; getEstatisticas() traz os contadores
+ * deste servidor (GET /api/tarefas).
+ *
+ * ENCERRAMENTO:
+ * encerrar() para de disparar, espera as tarefas em andamento por até
+ * JOBS_SHUTDOWN_TIMEOUT_MS e então as interrompe (INTERROMPIDA no
+ * histórico). Só depois o listener fecha o EntityManagerFactory.
+ *
+ * CONFIGURAÇÕES (valor padrão entre parênteses):
+ * - JOBS_ENABLED (true): false desliga os disparos automáticos neste
+ *   servidor (a execução manual continua disponível)
+ * - JOBS_MAX_CONCURRENCY (2): Tarefas executando ao mesmo tempo
+ * - JOBS_SHUTDOWN_TIMEOUT_MS (30000): Espera pelas tarefas no encerramento
+ * - JOBS_TIMEZONE (fuso do sistema): Fuso das expressões cron
+ * - JOBS_INSTANCE_ID (pid@host): Nome deste servidor no lease e no histórico
+ * - JOBS_HISTORY_DAYS (90): Dias de histórico mantidos pela limpeza
+ * - JOB_<NOME>_CRON / JOB_<NOME>_TIMEOUT_MS: Horário e prazo de uma tarefa
+ *   (nome em maiúsculas, hífens como "_"; ex: JOB_EXPORTACAO_ANALITICA_CRON).
+ *   "off" no horário desliga os disparos da tarefa
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - ExpressaoCron.java: Horários
+ * - AgendadorListener.java: Registro das tarefas, início e encerramento
+ * - TarefaAgendadaDAO.java: Lease e histórico (implementa RegistroExecucoes)
+ * - TarefaAgendadaResource.java: Métricas, histórico e execução manual
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class AgendadorTarefas {
+
+    /**
+     * Situação de uma execução (coluna status de execucoes_tarefas).
+     */
+    public enum Status {
+        EXECUTANDO, SUCESSO, FALHA, TEMPO_ESGOTADO, INTERROMPIDA
+    }
+
+    /**
+     * Lease e histórico das execuções, gravados no banco pelo
+     * TarefaAgendadaDAO.
+     */
+    public interface RegistroExecucoes {
+
+        /**
+         * Obtém o lease de uma tarefa de instância única.
+         *
+         * @param prevista Horário do disparo, ou null na execução manual
+         * @return true se este servidor deve executar
+         */
+        boolean adquirir(String tarefa, String instancia, LocalDateTime prevista, long segundosLease);
+
+        void liberar(String tarefa, String instancia);
+
+        void iniciada(String tarefa, String instancia, LocalDateTime prevista, LocalDateTime inicio);
+
+        void concluida(String tarefa, String instancia, LocalDateTime inicio, LocalDateTime fim, Status status,
+                String mensagem);
+    }
+
+    private static final boolean DISPAROS_ATIVOS = Boolean.parseBoolean(JPAUtil.setting("JOBS_ENABLED", "true"));
+
+    private static final int MAX_CONCORRENTES = Math.max(1, JPAUtil.intSetting("JOBS_MAX_CONCURRENCY", 2));
+
+    private static final long PRAZO_ENCERRAMENTO_MS = JPAUtil.longSetting("JOBS_SHUTDOWN_TIMEOUT_MS", 30_000L);
+
+    private static final ZoneId FUSO = ZoneId.of(JPAUtil.setting("JOBS_TIMEZONE", ZoneId.systemDefault().getId()));
+
+    private static final String INSTANCIA = JPAUtil.setting("JOBS_INSTANCE_ID",
+            ManagementFactory.getRuntimeMXBean().getName());
+
+    private static final int DIAS_HISTORICO = JPAUtil.intSetting("JOBS_HISTORY_DAYS", 90);
+
+    /**
+     * Validade do lease além do prazo da tarefa.
+     */
+    private static final long FOLGA_LEASE_SEGUNDOS = 60;
+
+    private static final int TAMANHO_MENSAGEM = 1000;
+
+    private static final Semaphore VAGAS = new Semaphore(MAX_CONCORRENTES);
+
+    private static final Map<String, Tarefa> TAREFAS = new LinkedHashMap<>();
+
+    private static ScheduledExecutorService relogio;
+    private static ExecutorService execucoes;
+    private static RegistroExecucoes registro;
+    private static volatile boolean encerrando;
+
+    private AgendadorTarefas() {
+    }
+
+    /**
+     * REGISTRAR TAREFA
+     * ================
+     * Horário e prazo podem ser trocados por JOB_<NOME>_CRON e
+     * JOB_<NOME>_TIMEOUT_MS.
+     *
+     * @param nome Nome único (letras minúsculas e hífens, ex:
+     *        "exportacao-analitica")
+     * @param cronPadrao Horário padrão (ver ExpressaoCron), ou "off"
+     * @param prazoPadraoMs Prazo padrão de cada execução
+     * @param instanciaUnica true para executar em um único servidor por
+     *        horário; false para tarefas que atualizam a memória de cada
+     *        servidor
+     * @param acao Trabalho da tarefa; o texto devolvido vai para o histórico
+     * @throws IllegalArgumentException se o nome já existe ou o horário é
+     *         inválido
+     */
+    public static synchronized void registrar(String nome, String cronPadrao, long prazoPadraoMs,
+            boolean instanciaUnica, Callable<String> acao) {
+        if (TAREFAS.containsKey(nome)) {
+            throw new IllegalArgumentException("Tarefa já registrada: " + nome);
+        }
+        String chave = "JOB_" + nome.toUpperCase(Locale.ROOT).replace('-', '_');
+        String cron = JPAUtil.setting(chave + "_CRON", cronPadrao);
+        Tarefa tarefa = new Tarefa(nome, cron.equalsIgnoreCase("off") ? null : ExpressaoCron.of(cron),
+                JPAUtil.longSetting(chave + "_TIMEOUT_MS", prazoPadraoMs), instanciaUnica, acao);
+        TAREFAS.put(nome, tarefa);
+        if (relogio != null) {
+            agendar(tarefa, agora());
+        }
+    }
+
+    /**
+     * INICIAR
+     * =======
+     * Agenda o primeiro disparo de cada tarefa registrada.
+     *
+     * @param registroExecucoes Lease e histórico (TarefaAgendadaDAO)
+     */
+    public static synchronized void iniciar(RegistroExecucoes registroExecucoes) {
+        if (relogio != null) {
+            return;
+        }
+        registro = registroExecucoes;
+        encerrando = false;
+        relogio = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "agendador-tarefas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        execucoes = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tarefa-", 0).factory());
+        LocalDateTime agora = agora();
+        TAREFAS.values().forEach(tarefa -> agendar(tarefa, agora));
+        System.err.println("Agendador de tarefas iniciado em " + INSTANCIA + " (" + TAREFAS.size() + " tarefas"
+                + (DISPAROS_ATIVOS ? "" : ", disparos automáticos desligados por JOBS_ENABLED") + ")");
+    }
+
+    /**
+     * ENCERRAR
+     * ========
+     * Para os disparos e espera as tarefas em andamento por até
+     * JOBS_SHUTDOWN_TIMEOUT_MS; as que não terminarem são interrompidas.
+     */
+    public static void encerrar() {
+        ExecutorService emAndamento;
+        synchronized (AgendadorTarefas.class) {
+            if (relogio == null) {
+                return;
+            }
+            encerrando = true;
+            relogio.shutdownNow();
+            relogio = null;
+            emAndamento = execucoes;
+            execucoes = null;
+        }
+        emAndamento.shutdown();
+        try {
+            if (!emAndamento.awaitTermination(PRAZO_ENCERRAMENTO_MS, TimeUnit.MILLISECONDS)) {
+                System.err.println("Tarefas ainda em execução após " + PRAZO_ENCERRAMENTO_MS
+                        + " ms, interrompendo: " + emExecucao());
+                emAndamento.shutdownNow();
+                emAndamento.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            emAndamento.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.err.println("Agendador de tarefas encerrado");
+    }
+
+    /**
+     * EXECUTAR AGORA
+     * ==============
+     * Dispara a tarefa fora do horário. Tarefas de instância única ainda
+     * dependem do lease: se outro servidor a estiver executando, nada é
+     * feito (contador emOutraInstancia).
+     *
+     * @param nome Nome da tarefa
+     * @return false se a tarefa já está em execução neste servidor
+     * @throws IllegalArgumentException se a tarefa não existe
+     * @throws IllegalStateException se o agendador não está em execução
+     */
+    public static boolean executarAgora(String nome) {
+        Tarefa tarefa = tarefa(nome);
+        ExecutorService executor;
+        synchronized (AgendadorTarefas.class) {
+            executor = execucoes;
+        }
+        if (executor == null) {
+            throw new IllegalStateException("Agendador de tarefas não está em execução");
+        }
+        if (!tarefa.emExecucao.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> executar(tarefa, null));
+        } catch (RejectedExecutionException e) {
+            tarefa.emExecucao.set(false);
+            throw new IllegalStateException("Agendador de tarefas em encerramento", e);
+        }
+        return true;
+    }
+
+    /**
+     * @param nome Nome da tarefa
+     * @return true se a tarefa está registrada
+     */
+    public static synchronized boolean existe(String nome) {
+        return TAREFAS.containsKey(nome);
+    }
+
+    /**
+     * @return Dias de histórico mantidos (JOBS_HISTORY_DAYS)
+     */
+    public static int getDiasHistorico() {
+        return DIAS_HISTORICO;
+    }
+
+    /**
+     * ESTATÍSTICAS
+     * ============
+     * @return Configuração do agendador e contadores de cada tarefa neste
+     *         servidor desde a inicialização
+     */
+    public static synchronized Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("instancia", INSTANCIA);
+        estatisticas.put("emExecucao", relogio != null);
+        estatisticas.put("disparosAutomaticos", DISPAROS_ATIVOS);
+        estatisticas.put("fuso", FUSO.getId());
+        estatisticas.put("maxConcorrentes", MAX_CONCORRENTES);
+        estatisticas.put("vagasLivres", VAGAS.availablePermits());
+        List<Map<String, Object>> tarefas = new ArrayList<>(TAREFAS.size());
+        TAREFAS.values().forEach(tarefa -> tarefas.add(tarefa.estatisticas()));
+        estatisticas.put("tarefas", tarefas);
+        return estatisticas;
+    }
+
+    private static synchronized Tarefa tarefa(String nome) {
+        Tarefa tarefa = TAREFAS.get(nome);
+        if (tarefa == null) {
+            throw new IllegalArgumentException("Tarefa não encontrada: " + nome);
+        }
+        return tarefa;
+    }
+
+    private static synchronized List<String> emExecucao() {
+        List<String> nomes = new ArrayList<>();
+        TAREFAS.values().stream().filter(tarefa -> tarefa.emExecucao.get()).forEach(tarefa -> nomes.add(tarefa.nome));
+        return nomes;
+    }
+
+    /**
+     * Agenda o disparo seguinte a depois. Chamado com o lock da classe ou
+     * na thread do relógio.
+     */
+    private static void agendar(Tarefa tarefa, LocalDateTime depois) {
+        ScheduledExecutorService atual = relogio;
+        if (tarefa.cron == null || !DISPAROS_ATIVOS || encerrando || atual == null) {
+            return;
+        }
+        LocalDateTime prevista = tarefa.cron.proxima(depois);
+        tarefa.definirProxima(prevista);
+        long atraso = Duration.between(ZonedDateTime.now(FUSO), prevista.atZone(FUSO)).toMillis();
+        try {
+            atual.schedule(() -> disparar(tarefa, prevista), Math.max(0, atraso), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Encerrando
+        }
+    }
+
+    /**
+     * Na thread do relógio: inicia a execução e agenda o próximo horário a
+     * partir do mais tardio entre o previsto e agora (pula horários perdidos).
+     */
+    private static void disparar(Tarefa tarefa, LocalDateTime prevista) {
+        synchronized (AgendadorTarefas.class) {
+            if (encerrando) {
+                return;
+            }
+            if (tarefa.emExecucao.compareAndSet(false, true)) {
+                try {
+                    execucoes.execute(() -> executar(tarefa, prevista));
+                } catch (RejectedExecutionException e) {
+                    tarefa.emExecucao.set(false);
+                }
+            } else {
+                tarefa.contarIgnorada();
+            }
+            LocalDateTime agora = agora();
+            agendar(tarefa, prevista.isAfter(agora) ? prevista : agora);
+        }
+    }
+
+    /**
+     * Em uma virtual thread; tarefa.emExecucao já foi reservado por quem
+     * disparou.
+     */
+    private static void executar(Tarefa tarefa, LocalDateTime prevista) {
+        try {
+            VAGAS.acquire();
+        } catch (InterruptedException e) {
+            tarefa.emExecucao.set(false);
+            return;
+        }
+        try {
+            if (encerrando) {
+                return;
+            }
+            if (tarefa.instanciaUnica && !registro.adquirir(tarefa.nome, INSTANCIA, prevista,
+                    tarefa.prazoMs / 1000 + FOLGA_LEASE_SEGUNDOS)) {
+                tarefa.contarEmOutraInstancia();
+                return;
+            }
+            try {
+                rodar(tarefa, prevista);
+            } finally {
+                if (tarefa.instanciaUnica) {
+                    boolean interrompida = Thread.interrupted();
+                    registro.liberar(tarefa.nome, INSTANCIA);
+                    if (interrompida) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Falha do próprio lease/histórico (ex: banco fora do ar)
+            System.err.println("Erro no agendador ao executar a tarefa " + tarefa.nome + ": " + e.getMessage());
+        } finally {
+            VAGAS.release();
+            tarefa.emExecucao.set(false);
+        }
+    }
+
+    private static void rodar(Tarefa tarefa, LocalDateTime prevista) {
+        Thread thread = Thread.currentThread();
+        AtomicBoolean prazoEsgotado = new AtomicBoolean();
+        LocalDateTime inicio = agora();
+        long relogioInicio = System.nanoTime();
+        registro.iniciada(tarefa.nome, INSTANCIA, prevista, inicio);
+        ScheduledFuture<?> vigia = vigiar(() -> {
+            prazoEsgotado.set(true);
+            thread.interrupt();
+        }, tarefa.prazoMs);
+
+        Status status;
+        String mensagem;
+        try {
+            mensagem = chamarNoEscopo(tarefa.acao);
+            status = Status.SUCESSO;
+        } catch (Exception e) {
+            status = prazoEsgotado.get() ? Status.TEMPO_ESGOTADO : encerrando ? Status.INTERROMPIDA : Status.FALHA;
+            mensagem = (status == Status.TEMPO_ESGOTADO ? "Prazo de " + tarefa.prazoMs + " ms excedido: " : "")
+                    + descrever(e);
+        } finally {
+            if (vigia != null) {
+                vigia.cancel(false);
+            }
+        }
+        // A interrupção fecharia o socket das gravações abaixo (virtual thread)
+        boolean interrompida = Thread.interrupted();
+        long duracaoMs = (System.nanoTime() - relogioInicio) / 1_000_000;
+        mensagem = mensagem != null && mensagem.length() > TAMANHO_MENSAGEM
+                ? mensagem.substring(0, TAMANHO_MENSAGEM) : mensagem;
+        tarefa.contarExecucao(status, inicio, duracaoMs, mensagem);
+        try {
+            registro.concluida(tarefa.nome, INSTANCIA, inicio, inicio.plus(duracaoMs, ChronoUnit.MILLIS), status,
+                    mensagem);
+        } catch (RuntimeException e) {
+            System.err.println("Erro ao gravar o histórico da tarefa " + tarefa.nome + ": " + e.getMessage());
+        }
+        if (status != Status.SUCESSO) {
+            System.err.println("Tarefa " + tarefa.nome + " terminou com " + status + ": " + mensagem);
+        }
+        if (interrompida) {
+            thread.interrupt();
+        }
+    }
+
+    private static String chamarNoEscopo(Callable<String> acao) throws Exception {
+        JPAUtil.beginRequestScope(false);
+        try {
+            return acao.call();
+        } finally {
+            JPAUtil.endRequestScope();
+        }
+    }
+
+    private static synchronized ScheduledFuture<?> vigiar(Runnable interromper, long prazoMs) {
+        if (relogio == null) {
+            return null;
+        }
+        try {
+            return relogio.schedule(interromper, prazoMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static String descrever(Throwable erro) {
+        Throwable causa = erro;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        String mensagem = erro.getMessage() != null ? erro.getMessage() : erro.getClass().getSimpleName();
+        return causa == erro ? mensagem : mensagem + " (causa: " + causa + ")";
+    }
+
+    private static LocalDateTime agora() {
+        return LocalDateTime.now(FUSO).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Tarefa registrada e seus contadores neste servidor.
+     */
+    private static final class Tarefa {
+
+        private final String nome;
+        private final ExpressaoCron cron;
+        private final long prazoMs;
+        private final boolean instanciaUnica;
+        private final Callable<String> acao;
+        private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+        private LocalDateTime proxima;
+        private long execucoes;
+        private long sucessos;
+        private long falhas;
+        private long temposEsgotados;
+        private long interrompidas;
+        private long ignoradas;
+        private long emOutraInstancia;
+        private long duracaoTotalMs;
+        private long duracaoMaximaMs;
+        private LocalDateTime ultimoInicio;
+        private Status ultimoStatus;
+        private long ultimaDuracaoMs;
+        private String ultimaMensagem;
+
+        private Tarefa(String nome, ExpressaoCron cron, long prazoMs, boolean instanciaUnica, Callable<String> acao) {
+            this.nome = nome;
+            this.cron = cron;
+            this.prazoMs = prazoMs;
+            this.instanciaUnica = instanciaUnica;
+            this.acao = acao;
+        }
+
+        private synchronized void definirProxima(LocalDateTime prevista) {
+            proxima = prevista;
+        }
+
+        private synchronized void contarIgnorada() {
+            ignoradas++;
+        }
+
+        private synchronized void contarEmOutraInstancia() {
+            emOutraInstancia++;
+        }
+
+        private synchronized void contarExecucao(Status status, LocalDateTime inicio, long duracaoMs,
+                String mensagem) {
+            execucoes++;
+            switch (status) {
+                case SUCESSO -> sucessos++;
+                case TEMPO_ESGOTADO -> temposEsgotados++;
+                case INTERROMPIDA -> interrompidas++;
+                default -> falhas++;
+            }
+            duracaoTotalMs += duracaoMs;
+            duracaoMaximaMs = Math.max(duracaoMaximaMs, duracaoMs);
+            ultimoInicio = inicio;
+            ultimoStatus = status;
+            ultimaDuracaoMs = duracaoMs;
+            ultimaMensagem = mensagem;
+        }
+
+        private synchronized Map<String, Object> estatisticas() {
+            Map<String, Object> estatisticas = new LinkedHashMap<>();
+            estatisticas.put("nome", nome);
+            estatisticas.put("cron", cron != null ? cron.toString() : "off");
+            estatisticas.put("prazoMs", prazoMs);
+            estatisticas.put("instanciaUnica", instanciaUnica);
+            estatisticas.put("emExecucao", emExecucao.get());
+            estatisticas.put("proximaExecucao", cron != null && DISPAROS_ATIVOS ? String.valueOf(proxima) : null);
+            estatisticas.put("execucoes", execucoes);
+            estatisticas.put("sucessos", sucessos);
+            estatisticas.put("falhas", falhas);
+            estatisticas.put("temposEsgotados", temposEsgotados);
+            estatisticas.put("interrompidas", interrompidas);
+            estatisticas.put("ignoradasEmExecucao", ignoradas);
+            estatisticas.put("emOutraInstancia", emOutraInstancia);
+            estatisticas.put("duracaoMediaMs", execucoes > 0 ? duracaoTotalMs / execucoes : 0);
+            estatisticas.put("duracaoMaximaMs", duracaoMaximaMs);
+            estatisticas.put("ultimoInicio", ultimoInicio != null ? ultimoInicio.toString() : null);
+            estatisticas.put("ultimoStatus", ultimoStatus != null ? ultimoStatus.name() : null);
+            estatisticas.put("ultimaDuracaoMs", ultimaDuracaoMs);
+            estatisticas.put("ultimaMensagem", ultimaMensagem);
+            return estatisticas;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.unifae.med.util;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * ARVOREINTERVALOS - INTERVALOS DE HORÁRIO COM BUSCA POR SOBREPOSIÇÃO
+ * ===================================================================
+ *
+ * Conjunto de intervalos [inicio, fim) que responde "quais intervalos se
+ * sobrepõem a este?" sem percorrer todos. É a estrutura do índice de
+ * conflitos de horário dos locais da agenda: cada evento de uma sala é um
+ * intervalo e cada reserva pergunta se o novo horário encontra algum.
+ *
+ * SOBREPOSIÇÃO:
+ * Intervalos semiabertos: [8h, 10h) e [10h, 12h) não se sobrepõem (um
+ * evento pode começar quando o anterior termina). Dois intervalos se
+ * sobrepõem quando cada um começa antes do fim do outro.
+ *
+ * ESTRUTURA:
+ * Árvore de intervalos aumentada: os nós são ordenados pelo início (e
+ * depois pelo fim e pelo valor) e cada nó guarda o maior fim da sua
+ * subárvore. A busca descarta a subárvore inteira cujo maior fim não passa
+ * do início procurado e, à direita, os nós que começam depois do fim
+ * procurado:
+ * - inserir(), remover(): O(log n)
+ * - sobrepostos(): O(log n + k), k = intervalos encontrados
+ * - existeSobreposto(): O(log n) quando não há conflito
+ *
+ * BALANCEAMENTO:
+ * Treap, como a ArvoreOrdenada: prioridades aleatórias mantêm a altura
+ * esperada em O(log n) mesmo com eventos incluídos em ordem de data.
+ *
+ * O mesmo valor com o mesmo intervalo é um único elemento: o Comparator
+ * de desempate deve distinguir os valores (ex: ID do evento).
+ *
+ * Não é thread-safe: quem compartilha a árvore sincroniza o acesso.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - IndiceConflitosAgenda.java: Uma árvore por local, com os eventos
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class ArvoreIntervalos<T> {
+
+    private final Comparator<? super T> desempate;
+    private final Random prioridades = new Random();
+    private No<T> raiz;
+    private int tamanho;
+
+    public ArvoreIntervalos(Comparator<? super T> desempate) {
+        this.desempate = desempate;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @param inicio Início do intervalo
+     * @param fim Fim do intervalo, depois do início
+     * @param valor Valor associado (ex: ID do evento)
+     * @return true se incluído, false se já existia
+     * @throws IllegalArgumentException se o fim não é posterior ao início
+     */
+    public boolean inserir(LocalDateTime inicio, LocalDateTime fim, T valor) {
+        if (!fim.isAfter(inicio)) {
+            throw new IllegalArgumentException("Intervalo vazio: " + inicio + " a " + fim);
+        }
+        int antes = tamanho;
+        raiz = inserir(raiz, new No<>(inicio, fim, valor, prioridades.nextInt()));
+        return tamanho > antes;
+    }
+
+    /**
+     * @return true se removido, false se não existia
+     */
+    public boolean remover(LocalDateTime inicio, LocalDateTime fim, T valor) {
+        int antes = tamanho;
+        raiz = remover(raiz, inicio, fim, valor);
+        return tamanho < antes;
+    }
+
+    /**
+     * @return Valores dos intervalos que se sobrepõem a [inicio, fim), na
+     *         ordem de início
+     */
+    public List<T> sobrepostos(LocalDateTime inicio, LocalDateTime fim) {
+        List<T> valores = new ArrayList<>();
+        coletar(raiz, inicio, fim, v -> {
+            valores.add(v);
+            return false;
+        });
+        return valores;
+    }
+
+    /**
+     * Para no primeiro intervalo sobreposto aceito pelo filtro.
+     *
+     * @param filtro Valores considerados (ex: todos menos o próprio evento)
+     * @return true se algum intervalo aceito se sobrepõe a [inicio, fim)
+     */
+    public boolean existeSobreposto(LocalDateTime inicio, LocalDateTime fim, Predicate<? super T> filtro) {
+        return coletar(raiz, inicio, fim, filtro);
+    }
+
+    /**
+     * Percorre os sobrepostos em ordem até o visitante devolver true.
+     */
+    private boolean coletar(No<T> no, LocalDateTime inicio, LocalDateTime fim, Predicate<? super T> visitante) {
+        if (no == null || !no.maiorFim.isAfter(inicio)) {
+            return false; // Nada nesta subárvore termina depois do início procurado
+        }
+        if (coletar(no.esquerda, inicio, fim, visitante)) {
+            return true;
+        }
+        if (!no.inicio.isBefore(fim)) {
+            return false; // Este nó e os da direita começam no fim procurado ou depois
+        }
+        if (no.fim.isAfter(inicio) && visitante.test(no.valor)) {
+            return true;
+        }
+        return coletar(no.direita, inicio, fim, visitante);
+    }
+
+    private int comparar(LocalDateTime inicio, LocalDateTime fim, T valor, No<T> no) {
+        int comparacao = inicio.compareTo(no.inicio);
+        if (comparacao == 0) {
+            comparacao = fim.compareTo(no.fim);
+        }
+        return comparacao != 0 ? comparacao : desempate.compare(valor, no.valor);
+    }
+
+    private No<T> inserir(No<T> no, No<T> novo) {
+        if (no == null) {
+            tamanho++;
+            return novo;
+        }
+        int comparacao = comparar(novo.inicio, novo.fim, novo.valor, no);
+        if (comparacao == 0) {
+            return no;
+        }
+        if (comparacao < 0) {
+            no.esquerda = inserir(no.esquerda, novo);
+            if (no.esquerda.prioridade > no.prioridade) {
+                no = girarDireita(no);
+            }
+        } else {
+            no.direita = inserir(no.direita, novo);
+            if (no.direita.prioridade > no.prioridade) {
+                no = girarEsquerda(no);
+            }
+        }
+        no.atualizar();
+        return no;
+    }
+
+    private No<T> remover(No<T> no, LocalDateTime inicio, LocalDateTime fim, T valor) {
+        if (no == null) {
+            return null;
+        }
+        int comparacao = comparar(inicio, fim, valor, no);
+        if (comparacao < 0) {
+            no.esquerda = remover(no.esquerda, inicio, fim, valor);
+        } else if (comparacao > 0) {
+            no.direita = remover(no.direita, inicio, fim, valor);
+        } else if (no.esquerda == null) {
+            tamanho--;
+            return no.direita;
+        } else if (no.direita == null) {
+            tamanho--;
+            return no.esquerda;
+        } else if (no.esquerda.prioridade > no.direita.prioridade) {
+            // Desce o nó pelo lado do filho de maior prioridade até virar folha
+            no = girarDireita(no);
+            no.direita = remover(no.direita, inicio, fim, valor);
+        } else {
+            no = girarEsquerda(no);
+            no.esquerda = remover(no.esquerda, inicio, fim, valor);
+        }
+        no.atualizar();
+        return no;
+    }
+
+    private static <T> No<T> girarDireita(No<T> no) {
+        No<T> novaRaiz = no.esquerda;
+        no.esquerda = novaRaiz.direita;
+        novaRaiz.direita = no;
+        no.atualizar();
+        novaRaiz.atualizar();
+        return novaRaiz;
+    }
+
+    private static <T> No<T> girarEsquerda(No<T> no) {
+        No<T> novaRaiz = no.direita;
+        no.direita = novaRaiz.esquerda;
+        novaRaiz.esquerda = no;
+        no.atualizar();
+        novaRaiz.atualizar();
+        return novaRaiz;
+    }
+
+    private static final class No<T> {
+
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+        private final T valor;
+        private final int prioridade;
+        private LocalDateTime maiorFim;
+        private No<T> esquerda;
+        private No<T> direita;
+
+        private No(LocalDateTime inicio, LocalDateTime fim, T valor, int prioridade) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.valor = valor;
+            this.prioridade = prioridade;
+            this.maiorFim = fim;
+        }
+
+        private void atualizar() {
+            maiorFim = fim;
+            if (esquerda != null && esquerda.maiorFim.isAfter(maiorFim)) {
+                maiorFim = esquerda.maiorFim;
+            }
+            if (direita != null && direita.maiorFim.isAfter(maiorFim)) {
+                maiorFim = direita.maiorFim;
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.unifae.med.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ARVOREORDENADA - CONJUNTO ORDENADO COM CONSULTA POR POSIÇÃO
+ * ===========================================================
+ *
+ * Conjunto ordenado por um Comparator que, além de incluir e remover,
+ * responde "quantos elementos vêm antes deste?" e "qual é o elemento da
+ * posição i?" sem percorrer a lista. É a estrutura dos rankings de notas:
+ * posição de um aluno, os k primeiros e os vizinhos de um aluno.
+ *
+ * POR QUE NÃO TREESET:
+ * O TreeSet inclui e remove em O(log n), mas não sabe a posição de um
+ * elemento: headSet(x).size() conta um a um (O(n)). Aqui cada nó guarda o
+ * tamanho da sua subárvore (árvore de estatística de ordem), e as
+ * consultas por posição descem a árvore uma vez:
+ * - inserir(), remover(), contarAntes(), obter(): O(log n)
+ * - listar(inicio, fim): O(log n + k)
+ *
+ * BALANCEAMENTO:
+ * Treap: cada nó recebe uma prioridade aleatória e a árvore mantém os
+ * nós de maior prioridade acima (rotações na inclusão e na remoção). A
+ * altura esperada é O(log n) qualquer que seja a ordem das inclusões (ex:
+ * notas carregadas já ordenadas).
+ *
+ * Elementos iguais pelo Comparator são o mesmo elemento: o Comparator
+ * deve desempatar até a identidade (ex: média e depois ID do aluno).
+ *
+ * Não é thread-safe: quem compartilha a árvore sincroniza o acesso.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - RankingNotas.java: Um ranking de alunos por média em cada árvore
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class ArvoreOrdenada<T> {
+
+    private final Comparator<? super T> ordem;
+    private final Random prioridades = new Random();
+    private No<T> raiz;
+
+    public ArvoreOrdenada(Comparator<? super T> ordem) {
+        this.ordem = ordem;
+    }
+
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * @return true se incluído, false se já existia um elemento igual
+     */
+    public boolean inserir(T valor) {
+        int antes = tamanho();
+        raiz = inserir(raiz, valor);
+        return tamanho() > antes;
+    }
+
+    /**
+     * @return true se removido, false se não existia
+     */
+    public boolean remover(T valor) {
+        int antes = tamanho();
+        raiz = remover(raiz, valor);
+        return tamanho() < antes;
+    }
+
+    /**
+     * Quantidade de elementos menores que o valor pela ordem da árvore. O
+     * valor não precisa estar na árvore: com um valor "sentinela" (ex: a
+     * média procurada e o menor ID possível) conta os elementos que vêm
+     * antes de todos os empatados com ele.
+     *
+     * @return Posição (0..tamanho) que o valor ocupa ou ocuparia
+     */
+    public int contarAntes(T valor) {
+        int antes = 0;
+        No<T> no = raiz;
+        while (no != null) {
+            if (ordem.compare(valor, no.valor) <= 0) {
+                no = no.esquerda;
+            } else {
+                antes += tamanho(no.esquerda) + 1;
+                no = no.direita;
+            }
+        }
+        return antes;
+    }
+
+    /**
+     * @param indice Posição (0..tamanho - 1)
+     * @return Elemento da posição
+     * @throws IndexOutOfBoundsException se a posição não existe
+     */
+    public T obter(int indice) {
+        if (indice < 0 || indice >= tamanho()) {
+            throw new IndexOutOfBoundsException("Posição " + indice + " em árvore com " + tamanho() + " elementos");
+        }
+        No<T> no = raiz;
+        while (true) {
+            int esquerda = tamanho(no.esquerda);
+            if (indice < esquerda) {
+                no = no.esquerda;
+            } else if (indice == esquerda) {
+                return no.valor;
+            } else {
+                indice -= esquerda + 1;
+                no = no.direita;
+            }
+        }
+    }
+
+    /**
+     * Elementos das posições [inicio, fim), em ordem. Limites fora da
+     * árvore são ajustados.
+     */
+    public List<T> listar(int inicio, int fim) {
+        int de = Math.max(0, inicio);
+        int ate = Math.min(tamanho(), fim);
+        List<T> elementos = new ArrayList<>(Math.max(0, ate - de));
+        if (de < ate) {
+            coletar(raiz, 0, de, ate, elementos);
+        }
+        return elementos;
+    }
+
+    private void coletar(No<T> no, int deslocamento, int inicio, int fim, List<T> elementos) {
+        if (no == null) {
+            return;
+        }
+        int posicao = deslocamento + tamanho(no.esquerda);
+        if (inicio < posicao) {
+            coletar(no.esquerda, deslocamento, inicio, fim, elementos);
+        }
+        if (posicao >= inicio && posicao < fim) {
+            elementos.add(no.valor);
+        }
+        if (fim > posicao + 1) {
+            coletar(no.direita, posicao + 1, inicio, fim, elementos);
+        }
+    }
+
+    private No<T> inserir(No<T> no, T valor) {
+        if (no == null) {
+            return new No<>(valor, prioridades.nextInt());
+        }
+        int comparacao = ordem.compare(valor, no.valor);
+        if (comparacao == 0) {
+            return no;
+        }
+        if (comparacao < 0) {
+            no.esquerda = inserir(no.esquerda, valor);
+            if (no.esquerda.prioridade > no.prioridade) {
+                no = girarDireita(no);
+            }
+        } else {
+            no.direita = inserir(no.direita, valor);
+            if (no.direita.prioridade > no.prioridade) {
+                no = girarEsquerda(no);
+            }
+        }
+        no.atualizar();
+        return no;
+    }
+
+    private No<T> remover(No<T> no, T valor) {
+        if (no == null) {
+            return null;
+        }
+        int comparacao = ordem.compare(valor, no.valor);
+        if (comparacao < 0) {
+            no.esquerda = remover(no.esquerda, valor);
+        } else if (comparacao > 0) {
+            no.direita = remover(no.direita, valor);
+        } else if (no.esquerda == null) {
+            return no.direita;
+        } else if (no.direita == null) {
+            return no.esquerda;
+        } else if (no.esquerda.prioridade > no.direita.prioridade) {
+            // Desce o nó pelo lado do filho de maior prioridade até virar folha
+            no = girarDireita(no);
+            no.direita = remover(no.direita, valor);
+        } else {
+            no = girarEsquerda(no);
+            no.esquerda = remover(no.esquerda, valor);
+        }
+        no.atualizar();
+        return no;
+    }
+
+    private static <T> No<T> girarDireita(No<T> no) {
+        No<T> novaRaiz = no.esquerda;
+        no.esquerda = novaRaiz.direita;
+        novaRaiz.direita = no;
+        no.atualizar();
+        novaRaiz.atualizar();
+        return novaRaiz;
+    }
+
+    private static <T> No<T> girarEsquerda(No<T> no) {
+        No<T> novaRaiz = no.direita;
+        no.direita = novaRaiz.esquerda;
+        novaRaiz.esquerda = no;
+        no.atualizar();
+        novaRaiz.atualizar();
+        return novaRaiz;
+    }
+
+    private static int tamanho(No<?> no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    private static final class No<T> {
+
+        private final T valor;
+        private final int prioridade;
+        private int tamanho = 1;
+        private No<T> esquerda;
+        private No<T> direita;
+
+        private No(T valor, int prioridade) {
+            this.valor = valor;
+            this.prioridade = prioridade;
+        }
+
+        private void atualizar() {
+            tamanho = 1 + tamanho(esquerda) + tamanho(direita);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.unifae.med.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ASYNCQUERYEXECUTOR - CONSULTAS INDEPENDENTES EM PARALELO
+ * ========================================================
+ *
+ * Executa em paralelo, em virtual threads, consultas de DAO que não
+ * dependem umas das outras. O caso típico são os dados de apoio dos
+ * formulários e filtros (alunos, professores, locais, questionários,
+ * disciplinas, turmas): em sequência a página espera a soma das consultas,
+ * em paralelo espera apenas a mais lenta.
+ *
+ * EXEMPLO (um lote por requisição):
+ *   try (AsyncQueryExecutor.Batch lote = AsyncQueryExecutor.newBatch()) {
+ *       Future<List<Usuario>> alunos = lote.submit(() -> usuarioDAO.findByTipoUsuario(TipoUsuario.ESTUDANTE));
+ *       Future<List<Questionario>> questionarios = lote.submit(questionarioDAO::findAll);
+ *       lote.join();
+ *       request.setAttribute("alunos", alunos.resultNow());
+ *       request.setAttribute("questionarios", questionarios.resultNow());
+ *   }
+ *
+ * ENTITYMANAGER DAS TAREFAS:
+ * O EntityManager da requisição não é thread-safe e não pode ser
+ * compartilhado. Cada tarefa abre o próprio escopo de requisição
+ * (JPAUtil.beginRequestScope) na virtual thread e o encerra ao terminar:
+ * - A tarefa segue o roteamento da requisição que criou o lote (réplica de
+ *   leitura em GET, primário após uma escrita)
+ * - As entidades devolvidas chegam DESANEXADAS: servem para listas
+ *   exibidas com atributos simples (id, nome); associações LAZY não
+ *   carregadas lançam LazyInitializationException na JSP
+ * - Use apenas para leituras; escritas continuam na thread da requisição
+ *
+ * LIMITES:
+ * - Concorrência: no máximo DB_ASYNC_MAX_CONCURRENCY tarefas consultam o
+ *   banco ao mesmo tempo em toda a aplicação (padrão: metade de
+ *   DB_POOL_MAX_SIZE), deixando conexões livres para as requisições. As
+ *   demais aguardam a vez, sem ocupar threads de plataforma
+ * - Prazo: cada lote tem um prazo (DB_ASYNC_TIMEOUT_MS, padrão 10000) que
+ *   vale para a espera pela vez, pela conexão e pela consulta. Estourado o
+ *   prazo, ou se uma tarefa falhar, join() cancela as tarefas restantes
+ *   (interrompendo as virtual threads) e lança a exceção
+ * - close() cancela o que ainda estiver pendente (ex: exceção no servlet
+ *   antes do join())
+ *
+ * SEGUNDO PLANO:
+ * submitBackground() executa uma leitura que a requisição não espera (ex:
+ * pré-carga de um cache). Só começa se houver vaga agora no limite de
+ * concorrência; sem vaga é descartada, sem fila.
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class AsyncQueryExecutor {
+
+    /**
+     * Uma virtual thread por tarefa; o limite de concorrência fica no semáforo.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dao-async-", 0).factory());
+
+    private static final Semaphore PERMITS = new Semaphore(JPAUtil.intSetting("DB_ASYNC_MAX_CONCURRENCY",
+            Math.max(1, JPAUtil.intSetting("DB_POOL_MAX_SIZE", 10) / 2)));
+
+    private static final long DEFAULT_TIMEOUT_MS = JPAUtil.longSetting("DB_ASYNC_TIMEOUT_MS", 10_000L);
+
+    private AsyncQueryExecutor() {
+    }
+
+    /**
+     * NOVO LOTE COM O PRAZO PADRÃO
+     * ============================
+     * @return Lote cujo prazo (DB_ASYNC_TIMEOUT_MS) começa a contar agora
+     */
+    public static Batch newBatch() {
+        return newBatch(DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * NOVO LOTE
+     * =========
+     * Deve ser criado na thread da requisição: o roteamento (réplica ou
+     * primário) é lido neste momento.
+     *
+     * @param timeoutMillis Prazo do lote em milissegundos
+     * @return Lote cujo prazo começa a contar agora
+     */
+    public static Batch newBatch(long timeoutMillis) {
+        return new Batch(timeoutMillis, JPAUtil.isReadingFromReplica());
+    }
+
+    /**
+     * CONSULTA EM SEGUNDO PLANO
+     * =========================
+     * Executa a consulta numa virtual thread sem que a requisição espere,
+     * com o roteamento (réplica ou primário) da requisição que a criou.
+     * Falhas são apenas registradas em System.err.
+     *
+     * @param query Leitura cujo resultado não é aguardado
+     * @return false se a consulta foi descartada (sem vaga de concorrência)
+     */
+    public static boolean submitBackground(Runnable query) {
+        if (!PERMITS.tryAcquire()) {
+            return false;
+        }
+        boolean readFromReplica = JPAUtil.isReadingFromReplica();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    JPAUtil.beginRequestScope(readFromReplica);
+                    try {
+                        query.run();
+                    } finally {
+                        JPAUtil.endRequestScope();
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Erro em consulta em segundo plano: " + e.getMessage());
+                } finally {
+                    PERMITS.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            PERMITS.release();
+            return false;
+        }
+    }
+
+    /**
+     * BATCH - CONSULTAS DE UMA REQUISIÇÃO
+     * ===================================
+     * Não é thread-safe: submit(), join() e close() são chamados pela
+     * thread da requisição.
+     */
+    public static final class Batch implements AutoCloseable {
+
+        private final long timeoutMillis;
+        private final long deadlineNanos;
+        private final boolean readFromReplica;
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        private Batch(long timeoutMillis, boolean readFromReplica) {
+            this.timeoutMillis = timeoutMillis;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            this.readFromReplica = readFromReplica;
+        }
+
+        /**
+         * Inicia a consulta em uma virtual thread.
+         *
+         * @param query Consulta (chamada de DAO) sem dependência das demais
+         * @return Resultado, disponível com resultNow() após join()
+         */
+        public <T> Future<T> submit(Callable<T> query) {
+            Future<T> future = EXECUTOR.submit(() -> run(query));
+            futures.add(future);
+            return future;
+        }
+
+        private <T> T run(Callable<T> query) throws Exception {
+            if (!PERMITS.tryAcquire(remainingNanos(), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("Sem vaga para consulta paralela dentro do prazo");
+            }
+            try {
+                JPAUtil.beginRequestScope(readFromReplica);
+                try {
+                    return query.call();
+                } finally {
+                    JPAUtil.endRequestScope();
+                }
+            } finally {
+                PERMITS.release();
+            }
+        }
+
+        /**
+         * AGUARDAR TODAS AS CONSULTAS
+         * ===========================
+         * Espera as consultas até o prazo do lote. Na primeira falha ou ao
+         * estourar o prazo cancela as restantes e lança a exceção.
+         *
+         * @throws RuntimeException exceção da consulta que falhou, ou
+         *         RuntimeException com TimeoutException/InterruptedException
+         *         como causa
+         */
+        public void join() {
+            try {
+                for (Future<?> future : futures) {
+                    future.get(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                cancelPending();
+                throw new RuntimeException("Consultas paralelas excederam o prazo de " + timeoutMillis + " ms", e);
+            } catch (ExecutionException e) {
+                cancelPending();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new RuntimeException("Erro em consulta paralela: " + cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                cancelPending();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Consultas paralelas interrompidas", e);
+            }
+        }
+
+        /**
+         * Cancela as consultas ainda pendentes.
+         */
+        @Override
+        public void close() {
+            cancelPending();
+        }
+
+        private void cancelPending() {
+            for (Future<?> future : futures) {
+                if (!future.isDone()) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.unifae.med.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Synchronization;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * CACHELIMITADO - CACHE LRU DE RESULTADOS MONTADOS PELA APLICAÇÃO
+ * ===============================================================
+ *
+ * Guarda objetos caros de montar (ex: relatórios) até um número máximo de
+ * entradas; ao passar do limite, sai a entrada usada há mais tempo. Não
+ * substitui o cache de segundo nível do Hibernate (entidades e consultas):
+ * aqui ficam resultados já agregados, que o Hibernate não sabe invalidar.
+ *
+ * INVALIDAÇÃO:
+ * Quem grava os dados de origem chama invalidarAposCommit() com o filtro
+ * das chaves afetadas (ex: todos os relatórios de um aluno). As entradas
+ * são removidas na hora e de novo quando a transação termina: uma leitura
+ * que rodou entre a gravação e o commit ainda via os dados antigos.
+ *
+ * VERSÕES (VÁRIOS SERVIDORES):
+ * A invalidação só alcança o cache do servidor que gravou. Com vários
+ * servidores, obter() recebe também a versão atual dos dados de origem,
+ * lida do banco (ver VersoesDados): cada entrada guarda a versão com que
+ * foi montada e, em outra versão, é montada de novo.
+ *
+ * CARGAS CONCORRENTES:
+ * obter() monta o valor fora do bloqueio (consultas ao banco não seguram o
+ * cache). Cada invalidação incrementa uma geração; um valor só é guardado
+ * se nenhuma invalidação aconteceu durante a sua montagem, senão é
+ * devolvido sem ir para o cache (pode ter lido dados antigos).
+ *
+ * CONFIGURAÇÃO:
+ * A capacidade vem da configuração informada no construtor (variável de
+ * ambiente ou propriedade de sistema, ver JPAUtil); 0 desliga o cache.
+ *
+ * Thread-safe.
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class CacheLimitado<K, V> {
+
+    private final String nome;
+    private final int capacidade;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    private long geracao;
+    private long acertos;
+    private long falhas;
+    private long invalidacoes;
+
+    /**
+     * @param nome Nome exibido nas estatísticas
+     * @param configuracao Nome da configuração com a capacidade
+     * @param capacidadePadrao Capacidade quando a configuração não existe
+     */
+    public CacheLimitado(String nome, String configuracao, int capacidadePadrao) {
+        this.nome = nome;
+        this.capacidade = Math.max(0, JPAUtil.intSetting(configuracao, capacidadePadrao));
+        // Ordem de acesso: o primeiro da lista é o usado há mais tempo
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+                return size() > capacidade;
+            }
+        };
+    }
+
+    /**
+     * OBTER (OU MONTAR) UM VALOR
+     * ==========================
+     * @param chave Chave da entrada
+     * @param montar Monta o valor quando não está no cache (fora do bloqueio)
+     * @return Valor do cache ou recém-montado
+     */
+    public V obter(K chave, Supplier<V> montar) {
+        return obter(chave, 0, montar);
+    }
+
+    /**
+     * OBTER (OU MONTAR) UM VALOR DE UMA VERSÃO
+     * ========================================
+     * @param chave Chave da entrada
+     * @param versao Versão atual dos dados de origem, lida antes de montar
+     * @param montar Monta o valor quando não está no cache ou está em outra
+     *        versão (fora do bloqueio)
+     * @return Valor do cache ou recém-montado
+     */
+    public V obter(K chave, long versao, Supplier<V> montar) {
+        long geracaoInicial;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(chave);
+            if (entrada != null && entrada.versao == versao) {
+                acertos++;
+                return entrada.valor;
+            }
+            falhas++;
+            geracaoInicial = geracao;
+        }
+        V valor = montar.get();
+        synchronized (this) {
+            if (valor != null && geracao == geracaoInicial && capacidade > 0) {
+                entradas.put(chave, new Entrada<>(valor, versao));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * @return Capacidade (0: cache desligado)
+     */
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * @return true se a chave está no cache (não conta como acesso)
+     */
+    public synchronized boolean contem(K chave) {
+        return entradas.containsKey(chave);
+    }
+
+    /**
+     * Remove as entradas cujas chaves atendem ao filtro.
+     */
+    public synchronized void invalidar(Predicate<? super K> filtro) {
+        geracao++;
+        invalidacoes++;
+        entradas.keySet().removeIf(filtro);
+    }
+
+    /**
+     * INVALIDAR APÓS A TRANSAÇÃO
+     * ==========================
+     * Remove as entradas agora e, se houver transação ativa no
+     * EntityManager, de novo quando ela terminar (commit ou rollback).
+     *
+     * @param em EntityManager da gravação
+     * @param filtro Chaves afetadas
+     */
+    public void invalidarAposCommit(EntityManager em, Predicate<? super K> filtro) {
+        invalidar(filtro);
+        Transaction transacao = em.unwrap(Session.class).getTransaction();
+        if (transacao.isActive()) {
+            transacao.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    invalidar(filtro);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Nome, capacidade, entradas, acertos, falhas, taxa de acerto (%)
+     *         e invalidações
+     */
+    public synchronized Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        long consultas = acertos + falhas;
+        estatisticas.put("nome", nome);
+        estatisticas.put("capacidade", capacidade);
+        estatisticas.put("entradas", entradas.size());
+        estatisticas.put("acertos", acertos);
+        estatisticas.put("falhas", falhas);
+        estatisticas.put("taxaAcerto", consultas == 0 ? 0.0 : Math.round(1000.0 * acertos / consultas) / 10.0);
+        estatisticas.put("invalidacoes", invalidacoes);
+        return estatisticas;
+    }
+
+    /**
+     * Valor e a versão dos dados com que foi montado.
+     */
+    private static final class Entrada<V> {
+
+        private final V valor;
+        private final long versao;
+
+        private Entrada(V valor, long versao) {
+            this.valor = valor;
+            this.versao = versao;
+        }
+    }
+}
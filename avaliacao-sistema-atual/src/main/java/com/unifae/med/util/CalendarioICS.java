@@ -0,0 +1,204 @@
+package com.unifae.med.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * CALENDARIOICS - ESCRITA DE CALENDÁRIOS ICALENDAR (RFC 5545)
+ * ===========================================================
+ *
+ * Escreve um VCALENDAR com um VEVENT por evento direto em um Writer (a
+ * resposta HTTP), sem montar o arquivo em memória. Usado pelos feeds
+ * ".ics" da agenda, assinados pelos aplicativos de calendário (Google
+ * Agenda, Outlook, Calendário do iPhone).
+ *
+ * FORMATO:
+ * - Linhas terminadas em CRLF e dobradas em 75 bytes (a continuação começa
+ *   com um espaço), sem partir caracteres UTF-8 no meio
+ * - Textos com \, ; , e quebras de linha escapados
+ * - Datas dos eventos em hora local "flutuante" (yyyyMMddTHHmmss, sem
+ *   fuso), como estão gravadas; X-WR-TIMEZONE informa aos aplicativos o
+ *   fuso em que devem ser lidas. DTSTAMP, CREATED e LAST-MODIFIED vão em
+ *   UTC, convertidos do fuso da JVM (o dos timestamps lidos do banco)
+ *
+ * CONFIGURAÇÃO:
+ * - AGENDA_TIMEZONE (fuso da JVM): Fuso dos horários dos eventos
+ * - AGENDA_FEED_PAST_DAYS (180): Dias anteriores a hoje incluídos nos
+ *   feeds (eventos e séries que terminaram antes ficam de fora)
+ *
+ * Não é thread-safe: uma instância por resposta.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - FeedAgenda.java: Eventos de cada feed
+ * - AgendaFeedResource.java: GET /api/agenda/{escopo}/{id}.ics
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class CalendarioICS {
+
+    private static final ZoneId FUSO = ZoneId.of(JPAUtil.setting("AGENDA_TIMEZONE", ZoneId.systemDefault().getId()));
+
+    private static final int DIAS_ANTERIORES = Math.max(0, JPAUtil.intSetting("AGENDA_FEED_PAST_DAYS", 180));
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    /**
+     * Tamanho máximo de uma linha, em bytes, sem o CRLF.
+     */
+    private static final int LIMITE_LINHA = 75;
+
+    private final Writer destino;
+
+    /**
+     * Inicia o calendário (BEGIN:VCALENDAR e cabeçalho).
+     *
+     * @param destino Onde escrever (não é fechado)
+     * @param nome Nome exibido pelos aplicativos (X-WR-CALNAME)
+     * @throws IOException se a escrita falhar
+     */
+    public CalendarioICS(Writer destino, String nome) throws IOException {
+        this.destino = destino;
+        linha("BEGIN:VCALENDAR");
+        linha("VERSION:2.0");
+        linha("PRODID:-//UNIFAE//Sistema de Avaliacao//PT-BR");
+        linha("CALSCALE:GREGORIAN");
+        linha("METHOD:PUBLISH");
+        texto("X-WR-CALNAME", nome);
+        linha("X-WR-TIMEZONE:" + FUSO.getId());
+    }
+
+    /**
+     * @return Fuso dos horários dos eventos
+     */
+    public static ZoneId fuso() {
+        return FUSO;
+    }
+
+    /**
+     * @return Dias anteriores a hoje incluídos nos feeds
+     */
+    public static int diasAnteriores() {
+        return DIAS_ANTERIORES;
+    }
+
+    /**
+     * Abre um VEVENT com UID e DTSTAMP.
+     *
+     * @param uid Identificador do evento, o mesmo em todas as versões do feed
+     * @param atualizacao Última alteração (DTSTAMP), ou null para agora
+     */
+    public void iniciarEvento(String uid, LocalDateTime atualizacao) throws IOException {
+        linha("BEGIN:VEVENT");
+        linha("UID:" + uid);
+        dataHoraUtc("DTSTAMP", atualizacao != null ? atualizacao : LocalDateTime.now());
+    }
+
+    public void terminarEvento() throws IOException {
+        linha("END:VEVENT");
+    }
+
+    /**
+     * Propriedade de texto (SUMMARY, DESCRIPTION, LOCATION...), escapada;
+     * valor nulo ou vazio não é escrito.
+     */
+    public void texto(String propriedade, String valor) throws IOException {
+        if (valor != null && !valor.isBlank()) {
+            linha(propriedade + ":" + escapar(valor));
+        }
+    }
+
+    /**
+     * Propriedade com valor já no formato do iCalendar (RRULE, STATUS),
+     * escrita sem escape.
+     */
+    public void valor(String propriedade, String valor) throws IOException {
+        if (valor != null) {
+            linha(propriedade + ":" + valor);
+        }
+    }
+
+    /**
+     * Data e hora local flutuante (DTSTART, DTEND, RECURRENCE-ID).
+     */
+    public void dataHora(String propriedade, LocalDateTime valor) throws IOException {
+        if (valor != null) {
+            linha(propriedade + ":" + valor.format(LOCAL));
+        }
+    }
+
+    /**
+     * Lista de datas e horas locais numa única propriedade (EXDATE).
+     */
+    public void datasHoras(String propriedade, Collection<LocalDateTime> valores) throws IOException {
+        if (!valores.isEmpty()) {
+            StringJoiner lista = new StringJoiner(",");
+            valores.forEach(valor -> lista.add(valor.format(LOCAL)));
+            linha(propriedade + ":" + lista);
+        }
+    }
+
+    /**
+     * Instante em UTC (DTSTAMP, CREATED, LAST-MODIFIED), a partir de um
+     * timestamp lido do banco no fuso da JVM.
+     */
+    public void dataHoraUtc(String propriedade, LocalDateTime valor) throws IOException {
+        if (valor != null) {
+            linha(propriedade + ":" + valor.atZone(ZoneId.systemDefault())
+                    .withZoneSameInstant(ZoneOffset.UTC).format(UTC));
+        }
+    }
+
+    /**
+     * Fecha o calendário (END:VCALENDAR) e descarrega o Writer.
+     */
+    public void concluir() throws IOException {
+        linha("END:VCALENDAR");
+        destino.flush();
+    }
+
+    private static String escapar(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length() + 16);
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escapado.append('\\').append(c);
+                case '\n' -> escapado.append("\\n");
+                case '\r' -> {
+                    // CRLF vira um único \n
+                }
+                default -> escapado.append(c);
+            }
+        }
+        return escapado.toString();
+    }
+
+    /**
+     * Escreve a linha dobrada a cada 75 bytes UTF-8, sem partir um
+     * caractere: a continuação começa com um espaço, que conta no limite.
+     */
+    private void linha(String conteudo) throws IOException {
+        int bytes = 0;
+        int i = 0;
+        while (i < conteudo.length()) {
+            int codePoint = conteudo.codePointAt(i);
+            int tamanho = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + tamanho > LIMITE_LINHA) {
+                destino.write("\r\n ");
+                bytes = 1;
+            }
+            destino.write(Character.toChars(codePoint));
+            bytes += tamanho;
+            i += Character.charCount(codePoint);
+        }
+        destino.write("\r\n");
+    }
+}
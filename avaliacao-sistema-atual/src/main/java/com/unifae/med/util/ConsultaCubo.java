@@ -0,0 +1,158 @@
+package com.unifae.med.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CONSULTACUBO - CONSULTA DE AGREGADOS NO CUBO DE COMPETÊNCIAS
+ * ============================================================
+ *
+ * Descreve um "fatiamento" do CuboCompetencias: por quais dimensões
+ * agrupar, quais valores de cada dimensão considerar, o período e se o
+ * histograma, os percentis e a posição percentual de uma nota devem ser
+ * calculados.
+ *
+ * EXEMPLO:
+ *   new ConsultaCubo()
+ *       .agrupar(DimensaoCubo.COMPETENCIA, DimensaoCubo.TIPO_AVALIADOR)
+ *       .filtrar(DimensaoCubo.TURMA, List.of(3, 4))
+ *       .periodo(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 30))
+ *       .histograma(BigDecimal.ONE)
+ *       .percentis(25, 50, 75)
+ *       .posicaoDe(new BigDecimal("7.5"))
+ *
+ * Sem agrupamento o resultado é um único grupo com todas as respostas
+ * filtradas. Filtros de COMPETENCIA e TURMA recebem IDs (Integer);
+ * TIPO_AVALIACAO e TIPO_AVALIADOR recebem os nomes. Valores que não
+ * existem no cubo simplesmente não encontram respostas.
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class ConsultaCubo {
+
+    private final Set<DimensaoCubo> agrupamento = new LinkedHashSet<>();
+    private final Map<DimensaoCubo, Set<Object>> filtros = new EnumMap<>(DimensaoCubo.class);
+    private LocalDate de;
+    private LocalDate ate;
+    private BigDecimal larguraFaixa;
+    private double[] percentis = new double[0];
+    private BigDecimal valorPosicao;
+
+    /**
+     * Agrupa pelas dimensões, na ordem informada (repetições são ignoradas).
+     */
+    public ConsultaCubo agrupar(DimensaoCubo... dimensoes) {
+        Collections.addAll(agrupamento, dimensoes);
+        return this;
+    }
+
+    /**
+     * Considera apenas as respostas cujo valor na dimensão está na lista.
+     * Lista nula ou vazia não filtra.
+     *
+     * @throws IllegalArgumentException para as dimensões de período (use
+     *         periodo())
+     */
+    public ConsultaCubo filtrar(DimensaoCubo dimensao, Collection<?> valores) {
+        if (dimensao.isPeriodo()) {
+            throw new IllegalArgumentException("Filtre " + dimensao.getCampo() + " pelo período (de/ate)");
+        }
+        if (valores != null && !valores.isEmpty()) {
+            filtros.computeIfAbsent(dimensao, d -> new LinkedHashSet<>()).addAll(valores);
+        }
+        return this;
+    }
+
+    /**
+     * Considera apenas avaliações realizadas no intervalo (datas inclusivas;
+     * nulo deixa o lado aberto).
+     */
+    public ConsultaCubo periodo(LocalDate de, LocalDate ate) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new IllegalArgumentException("Data inicial posterior à final");
+        }
+        this.de = de;
+        this.ate = ate;
+        return this;
+    }
+
+    /**
+     * Calcula o histograma das notas com faixas da largura informada
+     * (múltiplo de 0.1, a precisão das respostas). Nulo desliga.
+     */
+    public ConsultaCubo histograma(BigDecimal larguraFaixa) {
+        if (larguraFaixa != null && (larguraFaixa.signum() <= 0
+                || larguraFaixa.movePointRight(1).stripTrailingZeros().scale() > 0)) {
+            throw new IllegalArgumentException("Largura da faixa deve ser positiva e múltipla de 0.1");
+        }
+        this.larguraFaixa = larguraFaixa;
+        return this;
+    }
+
+    /**
+     * Calcula os percentis informados (entre 0 e 100; 50 é a mediana) das
+     * notas de cada grupo. Sem valores desliga.
+     */
+    public ConsultaCubo percentis(double... percentis) {
+        for (double p : percentis) {
+            if (Double.isNaN(p) || p < 0 || p > 100) {
+                throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + p);
+            }
+        }
+        this.percentis = percentis.clone();
+        return this;
+    }
+
+    /**
+     * Calcula, em cada grupo, o percentual das notas abaixo do valor
+     * (contando metade das iguais). Nulo desliga.
+     */
+    public ConsultaCubo posicaoDe(BigDecimal valor) {
+        this.valorPosicao = valor;
+        return this;
+    }
+
+    public List<DimensaoCubo> getAgrupamento() {
+        return new ArrayList<>(agrupamento);
+    }
+
+    public Map<DimensaoCubo, Set<Object>> getFiltros() {
+        return Collections.unmodifiableMap(filtros);
+    }
+
+    public LocalDate getDe() {
+        return de;
+    }
+
+    public LocalDate getAte() {
+        return ate;
+    }
+
+    public BigDecimal getLarguraFaixa() {
+        return larguraFaixa;
+    }
+
+    public double[] getPercentis() {
+        return percentis.clone();
+    }
+
+    public BigDecimal getValorPosicao() {
+        return valorPosicao;
+    }
+
+    /**
+     * @return true se os grupos precisam da distribuição completa das notas
+     */
+    public boolean isDistribuicao() {
+        return percentis.length > 0 || valorPosicao != null;
+    }
+}
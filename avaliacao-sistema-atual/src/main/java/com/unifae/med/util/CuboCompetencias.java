@@ -0,0 +1,927 @@
+package com.unifae.med.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+
+/**
+ * CUBOCOMPETENCIAS - ANÁLISE DAS RESPOSTAS POR COMPETÊNCIA EM MEMÓRIA
+ * ===================================================================
+ *
+ * Mantém em memória as respostas de respostas_itens_avaliacao, já unidas
+ * aos dados da avaliação preenchida, para responder em milissegundos a
+ * consultas de distribuição das notas por competência, tipo de
+ * questionário, turma, tipo de avaliador e período (ver ConsultaCubo):
+ * quantidade, média, desvio padrão, mínimo, máximo, histograma,
+ * percentis e posição percentual de uma nota.
+ *
+ * ARMAZENAMENTO COLUNAR:
+ * Cada resposta é uma posição em arrays primitivos, um por atributo, sem
+ * um objeto por linha:
+ * - Dimensões codificadas por dicionário: competência, tipo de avaliação,
+ *   turma e tipo de avaliador viram códigos int (0..n-1); o dicionário
+ *   guarda o ID/nome de cada código
+ * - Data de realização em dias (epochDay) e mês (ano × 12 + mês)
+ * - Nota em décimos (short): decimal(4,1) sem BigDecimal por linha
+ * - nao_avaliado, resposta sem valor numérico e avaliação cancelada são
+ *   BitSets
+ * Uma consulta percorre os arrays uma vez, descarta pelas máscaras de
+ * filtro (boolean[] por código) e soma em um acumulador por grupo; somas
+ * em décimos com long, portanto médias exatas. Percentis e posição usam
+ * uma DistribuicaoValores por grupo (contagem por décimo entre a menor e a
+ * maior nota do cubo), criada só quando a consulta os pede: os valores são
+ * exatos, iguais ao PERCENTILE_DISC do banco.
+ *
+ * ATUALIZAÇÃO INCREMENTAL:
+ * - A primeira consulta carrega tudo (ordenado por id_resposta_avaliacao)
+ * - Depois, a cada ANALYTICS_REFRESH_MS (padrão 60000; 0 desliga), a
+ *   consulta seguinte relê apenas respostas cuja linha ou cuja avaliação
+ *   tenham data_atualizacao a partir da última vista (menos uma margem de
+ *   SOBREPOSICAO_SEGUNDOS para transações que gravaram antes e confirmaram
+ *   depois; reaplicar uma linha é inofensivo)
+ * - Linhas existentes são sobrescritas na mesma posição (busca binária
+ *   pelo id); novas entram no fim
+ * - Exclusões não alteram data_atualizacao: se a quantidade ou a soma dos
+ *   ids das respostas no banco diferir do cubo, ou uma nova resposta tiver
+ *   id menor que o último carregado, a carga é refeita por completo. Como
+ *   os ids só crescem, uma exclusão seguida de inclusão muda a soma
+ * - O tipo do avaliador vem de usuarios: respostas de avaliadores com
+ *   data_atualizacao a partir da marca também são relidas
+ * - Nomes de competências e turmas são relidos a cada atualização
+ * - POST /api/analises/competencias/atualizar força a atualização
+ *
+ * CONCORRÊNCIA:
+ * Os dados são imutáveis depois de montados: a atualização copia os
+ * arrays, aplica as mudanças e publica a nova versão (volatile). Consultas
+ * nunca esperam uma atualização em andamento; apenas a primeira carga é
+ * aguardada. Só uma atualização roda por vez.
+ *
+ * Avaliações CANCELADAS ficam no cubo (para a contagem bater com o banco)
+ * mas não entram nas consultas. Respostas sem valor numérico (texto livre)
+ * só contam em naoAvaliados quando marcadas como não avaliadas.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - ConsultaCubo.java / DimensaoCubo.java: Consulta e dimensões
+ * - AnaliseCompetenciasResource.java: API REST (/api/analises/competencias)
+ * - 01-script_estrutura_dados_banco_unifae.sql: Índices em data_atualizacao
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class CuboCompetencias {
+
+    private static final long INTERVALO_ATUALIZACAO_MS = JPAUtil.longSetting("ANALYTICS_REFRESH_MS", 60_000L);
+
+    /**
+     * Margem relida antes da última data_atualizacao vista.
+     */
+    private static final long SOBREPOSICAO_SEGUNDOS = 120;
+
+    /**
+     * Linhas buscadas por ida ao banco na carga.
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SEM_TIPO_AVALIADOR = "NAO_INFORMADO";
+
+    private static final String SELECT_RESPOSTAS = "SELECT r.id_resposta_avaliacao, r.id_competencia_questionario, "
+            + "q.tipo_avaliacao, a.id_turma, COALESCE(u.tipo_usuario, a.tipo_avaliador_nao_usuario), "
+            + "a.data_realizacao, r.resposta_valor_numerico, r.nao_avaliado, a.status_avaliacao, "
+            + "r.data_atualizacao, a.data_atualizacao, u.data_atualizacao "
+            + "FROM respostas_itens_avaliacao r "
+            + "JOIN avaliacoes_preenchidas a ON a.id_avaliacao_preenchida = r.id_avaliacao_preenchida "
+            + "JOIN questionarios q ON q.id_questionario = a.id_questionario "
+            + "LEFT JOIN usuarios u ON u.id_usuario = a.id_avaliador ";
+
+    private static final String CARGA_COMPLETA_SQL = SELECT_RESPOSTAS + "ORDER BY 1";
+
+    /**
+     * Uma condição por tabela, em UNION, para cada lado usar o seu índice
+     * em data_atualizacao (um OR entre tabelas varreria as respostas). O
+     * lado de usuarios traz as respostas dos avaliadores alterados (tipo
+     * do avaliador).
+     */
+    private static final String CARGA_INCREMENTAL_SQL = SELECT_RESPOSTAS + "WHERE r.data_atualizacao >= ?1 "
+            + "UNION " + SELECT_RESPOSTAS + "WHERE a.data_atualizacao >= ?2 "
+            + "UNION " + SELECT_RESPOSTAS + "WHERE u.data_atualizacao >= ?3 ORDER BY 1";
+
+    /**
+     * Quantidade e soma dos ids: com ids sempre crescentes, uma exclusão
+     * seguida de inclusão mantém a contagem mas não a soma.
+     */
+    private static final String CONFERIR_RESPOSTAS_SQL = "SELECT COUNT(*), COALESCE(SUM(id_resposta_avaliacao), 0) "
+            + "FROM respostas_itens_avaliacao";
+    private static final String NOMES_COMPETENCIAS_SQL = "SELECT id_competencia_questionario, nome_competencia "
+            + "FROM competencias_questionario";
+    private static final String NOMES_TURMAS_SQL = "SELECT id_turma, nome_turma FROM turmas";
+
+    private static final ReentrantLock CARGA = new ReentrantLock();
+    private static volatile Dados dados;
+
+    private CuboCompetencias() {
+    }
+
+    // ========================================
+    // API PÚBLICA
+    // ========================================
+
+    /**
+     * CONSULTAR AGREGADOS
+     * ===================
+     * Agrupa e resume as respostas conforme a consulta. Carrega o cubo na
+     * primeira chamada e o atualiza quando passou o intervalo.
+     *
+     * @param consulta Agrupamento, filtros, período e histograma
+     * @return Mapa com "grupos" (um por combinação dos valores agrupados,
+     *         ordenados pelos rótulos/período) e metadados da consulta
+     */
+    public static Map<String, Object> consultar(ConsultaCubo consulta) {
+        Dados atual = garantirAtualizado();
+        return executar(atual, consulta);
+    }
+
+    /**
+     * ATUALIZAR O CUBO
+     * ================
+     * Aplica as alterações do banco imediatamente, esperando uma
+     * atualização em andamento terminar.
+     *
+     * @param completa true recarrega tudo em vez de só as alterações
+     * @return Estado após a atualização (ver getEstado())
+     */
+    public static Map<String, Object> atualizar(boolean completa) {
+        CARGA.lock();
+        try {
+            dados = carregar(completa ? null : dados);
+            return estado(dados);
+        } finally {
+            CARGA.unlock();
+        }
+    }
+
+    /**
+     * ESTADO DO CUBO
+     * ==============
+     * @return Linhas, tamanho dos dicionários, última data_atualizacao
+     *         aplicada e dados da última carga; "carregado" false se ainda
+     *         não houve consulta
+     */
+    public static Map<String, Object> getEstado() {
+        Dados atual = dados;
+        if (atual == null) {
+            Map<String, Object> vazio = new LinkedHashMap<>();
+            vazio.put("carregado", false);
+            return vazio;
+        }
+        return estado(atual);
+    }
+
+    // ========================================
+    // CARGA E ATUALIZAÇÃO
+    // ========================================
+
+    private static Dados garantirAtualizado() {
+        Dados atual = dados;
+        if (atual == null) {
+            CARGA.lock();
+            try {
+                if (dados == null) {
+                    dados = carregar(null);
+                }
+                return dados;
+            } finally {
+                CARGA.unlock();
+            }
+        }
+        boolean vencido = INTERVALO_ATUALIZACAO_MS > 0
+                && System.currentTimeMillis() - atual.atualizadoEm >= INTERVALO_ATUALIZACAO_MS;
+        if (vencido && CARGA.tryLock()) {
+            try {
+                if (dados == atual) {
+                    dados = carregar(atual);
+                }
+            } finally {
+                CARGA.unlock();
+            }
+        }
+        return dados;
+    }
+
+    /**
+     * Carga incremental sobre a versão atual, ou completa se atual for
+     * nulo ou a incremental não puder ser aplicada.
+     */
+    private static Dados carregar(Dados atual) {
+        long inicio = System.nanoTime();
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            if (atual != null && atual.tamanho > 0) {
+                Construtor incremental = new Construtor(atual);
+                int lidas = ler(em, incremental, atual.marca.minusSeconds(SOBREPOSICAO_SEGUNDOS));
+                if (lidas >= 0 && incremental.confere(em)) {
+                    return incremental.construir(em, "INCREMENTAL", lidas, inicio);
+                }
+            }
+            Construtor completa = new Construtor(null);
+            int lidas = ler(em, completa, null);
+            return completa.construir(em, "COMPLETA", lidas, inicio);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao carregar cubo de competências: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Lê as respostas (todas, ou alteradas a partir de desde) e aplica no
+     * construtor.
+     *
+     * @return Linhas lidas, ou -1 se uma delas exigir a carga completa
+     */
+    private static int ler(EntityManager em, Construtor construtor, LocalDateTime desde) {
+        Query query;
+        if (desde == null) {
+            query = em.createNativeQuery(CARGA_COMPLETA_SQL);
+        } else {
+            query = em.createNativeQuery(CARGA_INCREMENTAL_SQL)
+                    .setParameter(1, desde)
+                    .setParameter(2, desde)
+                    .setParameter(3, desde);
+        }
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+
+        int lidas = 0;
+        try (Stream<?> linhas = query.getResultStream()) {
+            Iterator<?> iterador = linhas.iterator();
+            while (iterador.hasNext()) {
+                if (!construtor.aplicar((Object[]) iterador.next())) {
+                    return -1;
+                }
+                lidas++;
+            }
+        }
+        return lidas;
+    }
+
+    private static Map<Object, String> nomes(EntityManager em, String sql) {
+        Map<Object, String> nomes = new HashMap<>();
+        for (Object linha : em.createNativeQuery(sql).getResultList()) {
+            Object[] colunas = (Object[]) linha;
+            nomes.put(((Number) colunas[0]).intValue(), (String) colunas[1]);
+        }
+        return nomes;
+    }
+
+    private static Map<String, Object> estado(Dados d) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("carregado", true);
+        estado.put("linhas", d.tamanho);
+        estado.put("competencias", d.competencias.tamanho());
+        estado.put("turmas", d.turmas.tamanho());
+        estado.put("marcaAtualizacao", d.marca);
+        estado.put("atualizadoEm", new Timestamp(d.atualizadoEm).toLocalDateTime());
+        estado.put("ultimaCarga", d.tipoCarga);
+        estado.put("linhasLidasUltimaCarga", d.linhasLidas);
+        estado.put("duracaoUltimaCargaMs", d.duracaoCargaMs);
+        estado.put("intervaloAtualizacaoMs", INTERVALO_ATUALIZACAO_MS);
+        return estado;
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    private static Map<String, Object> executar(Dados d, ConsultaCubo consulta) {
+        long inicio = System.nanoTime();
+        List<DimensaoCubo> dimensoes = consulta.getAgrupamento();
+        int k = dimensoes.size();
+
+        // Base de cada dimensão na chave do grupo (número de valores possíveis)
+        int[] bases = new int[k];
+        long combinacoes = 1;
+        for (int j = 0; j < k; j++) {
+            bases[j] = Math.max(1, base(d, dimensoes.get(j)));
+            try {
+                combinacoes = Math.multiplyExact(combinacoes, bases[j]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Agrupamento com dimensões demais", e);
+            }
+        }
+
+        Map<DimensaoCubo, Set<Object>> filtros = consulta.getFiltros();
+        boolean[] competencias = mascara(d.competencias, filtros.get(DimensaoCubo.COMPETENCIA));
+        boolean[] tiposAvaliacao = mascara(d.tiposAvaliacao, filtros.get(DimensaoCubo.TIPO_AVALIACAO));
+        boolean[] turmas = mascara(d.turmas, filtros.get(DimensaoCubo.TURMA));
+        boolean[] tiposAvaliador = mascara(d.tiposAvaliador, filtros.get(DimensaoCubo.TIPO_AVALIADOR));
+        int diaDe = consulta.getDe() == null ? Integer.MIN_VALUE : (int) consulta.getDe().toEpochDay();
+        int diaAte = consulta.getAte() == null ? Integer.MAX_VALUE : (int) consulta.getAte().toEpochDay();
+
+        int largura = consulta.getLarguraFaixa() == null ? 0
+                : consulta.getLarguraFaixa().movePointRight(1).intValueExact();
+        int faixaInicial = largura == 0 ? 0 : Math.floorDiv(d.valorMinimo, largura);
+        int faixas = largura == 0 ? 0 : Math.floorDiv(d.valorMaximo, largura) - faixaInicial + 1;
+
+        boolean distribuicao = consulta.isDistribuicao();
+        Map<Long, Acumulador> grupos = new HashMap<>();
+        long analisadas = 0;
+        for (int i = 0; i < d.tamanho; i++) {
+            if (d.dia[i] < diaDe || d.dia[i] > diaAte || d.cancelada.get(i)
+                    || (competencias != null && !competencias[d.competencia[i]])
+                    || (tiposAvaliacao != null && !tiposAvaliacao[d.tipoAvaliacao[i]])
+                    || (turmas != null && !turmas[d.turma[i]])
+                    || (tiposAvaliador != null && !tiposAvaliador[d.tipoAvaliador[i]])) {
+                continue;
+            }
+            boolean naoAvaliado = d.naoAvaliado.get(i);
+            if (!naoAvaliado && d.semValor.get(i)) {
+                continue;
+            }
+
+            long chave = 0;
+            for (int j = 0; j < k; j++) {
+                chave = chave * bases[j] + codigo(d, dimensoes.get(j), i);
+            }
+            Acumulador acumulador = grupos.get(chave);
+            if (acumulador == null) {
+                acumulador = new Acumulador(faixas,
+                        distribuicao ? new DistribuicaoValores(1, d.valorMinimo, d.valorMaximo) : null);
+                grupos.put(chave, acumulador);
+            }
+            analisadas++;
+            if (naoAvaliado) {
+                acumulador.naoAvaliados++;
+            } else {
+                acumulador.somar(d.valor[i], largura, faixaInicial);
+            }
+        }
+
+        // Decodifica as chaves e ordena pelos valores das dimensões
+        List<Grupo> ordenados = new ArrayList<>(grupos.size());
+        for (Map.Entry<Long, Acumulador> grupo : grupos.entrySet()) {
+            int[] codigos = new int[k];
+            long chave = grupo.getKey();
+            for (int j = k - 1; j >= 0; j--) {
+                codigos[j] = (int) (chave % bases[j]);
+                chave /= bases[j];
+            }
+            ordenados.add(new Grupo(codigos, grupo.getValue()));
+        }
+        ordenados.sort(Comparator.comparing((Grupo g) -> g.codigos, comparador(d, dimensoes)));
+
+        List<Map<String, Object>> resultado = new ArrayList<>(ordenados.size());
+        for (Grupo g : ordenados) {
+            Map<String, Object> grupo = new LinkedHashMap<>();
+            for (int j = 0; j < k; j++) {
+                grupo.put(dimensoes.get(j).getCampo(), rotulo(d, dimensoes.get(j), g.codigos[j]));
+            }
+            g.acumulador.resumir(grupo, largura, faixaInicial, consulta);
+            resultado.add(grupo);
+        }
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("agrupamento", dimensoes.stream().map(DimensaoCubo::getCampo).toList());
+        resposta.put("respostasAnalisadas", analisadas);
+        resposta.put("linhasNoCubo", d.tamanho);
+        resposta.put("atualizadoEm", new Timestamp(d.atualizadoEm).toLocalDateTime());
+        resposta.put("tempoConsultaMs", (System.nanoTime() - inicio) / 1_000_000.0);
+        resposta.put("grupos", resultado);
+        return resposta;
+    }
+
+    /**
+     * Filtro de uma dimensão como máscara por código; nulo se não filtra.
+     */
+    private static boolean[] mascara(Dicionario dicionario, Set<Object> valores) {
+        if (valores == null) {
+            return null;
+        }
+        boolean[] permitidos = new boolean[dicionario.tamanho()];
+        for (Object valor : valores) {
+            Integer codigo = dicionario.procurar(valor instanceof String texto ? normalizar(texto) : valor);
+            if (codigo != null) {
+                permitidos[codigo] = true;
+            }
+        }
+        return permitidos;
+    }
+
+    private static int base(Dados d, DimensaoCubo dimensao) {
+        return switch (dimensao) {
+            case COMPETENCIA -> d.competencias.tamanho();
+            case TIPO_AVALIACAO -> d.tiposAvaliacao.tamanho();
+            case TURMA -> d.turmas.tamanho();
+            case TIPO_AVALIADOR -> d.tiposAvaliador.tamanho();
+            case MES -> d.mesMaximo - d.mesMinimo + 1;
+            case SEMESTRE -> d.mesMaximo / 6 - d.mesMinimo / 6 + 1;
+            case ANO -> d.mesMaximo / 12 - d.mesMinimo / 12 + 1;
+        };
+    }
+
+    /**
+     * Código da linha i na dimensão, de 0 a base - 1. Períodos são contados
+     * a partir do primeiro mês do cubo (ordem cronológica).
+     */
+    private static int codigo(Dados d, DimensaoCubo dimensao, int i) {
+        return switch (dimensao) {
+            case COMPETENCIA -> d.competencia[i];
+            case TIPO_AVALIACAO -> d.tipoAvaliacao[i];
+            case TURMA -> d.turma[i];
+            case TIPO_AVALIADOR -> d.tipoAvaliador[i];
+            case MES -> d.mes[i] - d.mesMinimo;
+            case SEMESTRE -> d.mes[i] / 6 - d.mesMinimo / 6;
+            case ANO -> d.mes[i] / 12 - d.mesMinimo / 12;
+        };
+    }
+
+    private static Object rotulo(Dados d, DimensaoCubo dimensao, int codigo) {
+        return switch (dimensao) {
+            case COMPETENCIA -> idNome(d.competencias, codigo, null);
+            case TURMA -> idNome(d.turmas, codigo, "Sem turma");
+            case TIPO_AVALIACAO -> d.tiposAvaliacao.rotulo(codigo);
+            case TIPO_AVALIADOR -> d.tiposAvaliador.rotulo(codigo);
+            case MES -> {
+                int mes = d.mesMinimo + codigo;
+                yield String.format("%04d-%02d", mes / 12, mes % 12 + 1);
+            }
+            case SEMESTRE -> {
+                int semestre = d.mesMinimo / 6 + codigo;
+                yield (semestre / 2) + "-" + (semestre % 2 + 1);
+            }
+            case ANO -> d.mesMinimo / 12 + codigo;
+        };
+    }
+
+    private static Map<String, Object> idNome(Dicionario dicionario, int codigo, String nomeSemId) {
+        Map<String, Object> valor = new LinkedHashMap<>();
+        Object id = dicionario.chave(codigo);
+        valor.put("id", id);
+        valor.put("nome", id == null ? nomeSemId : dicionario.rotulo(codigo));
+        return valor;
+    }
+
+    /**
+     * Ordem dos grupos: períodos em ordem cronológica, demais dimensões
+     * pelo rótulo.
+     */
+    private static Comparator<int[]> comparador(Dados d, List<DimensaoCubo> dimensoes) {
+        Comparator<int[]> comparador = (a, b) -> 0;
+        for (int j = 0; j < dimensoes.size(); j++) {
+            int posicao = j;
+            DimensaoCubo dimensao = dimensoes.get(j);
+            if (dimensao.isPeriodo()) {
+                comparador = comparador.thenComparingInt(c -> c[posicao]);
+            } else {
+                Dicionario dicionario = switch (dimensao) {
+                    case COMPETENCIA -> d.competencias;
+                    case TIPO_AVALIACAO -> d.tiposAvaliacao;
+                    case TURMA -> d.turmas;
+                    default -> d.tiposAvaliador;
+                };
+                comparador = comparador.thenComparing(c -> dicionario.rotulo(c[posicao]),
+                        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+            }
+        }
+        return comparador;
+    }
+
+    private static String normalizar(String texto) {
+        return texto.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // ========================================
+    // ESTRUTURAS INTERNAS
+    // ========================================
+
+    /**
+     * Versão imutável do cubo: colunas, dicionários e dados da carga.
+     */
+    private static final class Dados {
+
+        private final int tamanho;
+        private final int[] ids;
+        private final int[] competencia;
+        private final int[] tipoAvaliacao;
+        private final int[] turma;
+        private final int[] tipoAvaliador;
+        private final int[] dia;
+        private final int[] mes;
+        private final short[] valor;
+        private final BitSet naoAvaliado;
+        private final BitSet semValor;
+        private final BitSet cancelada;
+        private final Dicionario competencias;
+        private final Dicionario tiposAvaliacao;
+        private final Dicionario turmas;
+        private final Dicionario tiposAvaliador;
+        private final LocalDateTime marca;
+        private final int mesMinimo;
+        private final int mesMaximo;
+        private final int valorMinimo;
+        private final int valorMaximo;
+        private final long atualizadoEm;
+        private final String tipoCarga;
+        private final int linhasLidas;
+        private final long duracaoCargaMs;
+
+        private Dados(Construtor c, String tipoCarga, int linhasLidas, long duracaoCargaMs) {
+            this.tamanho = c.tamanho;
+            this.ids = c.ids;
+            this.competencia = c.competencia;
+            this.tipoAvaliacao = c.tipoAvaliacao;
+            this.turma = c.turma;
+            this.tipoAvaliador = c.tipoAvaliador;
+            this.dia = c.dia;
+            this.mes = c.mes;
+            this.valor = c.valor;
+            this.naoAvaliado = c.naoAvaliado;
+            this.semValor = c.semValor;
+            this.cancelada = c.cancelada;
+            this.competencias = c.competencias;
+            this.tiposAvaliacao = c.tiposAvaliacao;
+            this.turmas = c.turmas;
+            this.tiposAvaliador = c.tiposAvaliador;
+            this.marca = c.marca;
+            this.atualizadoEm = System.currentTimeMillis();
+            this.tipoCarga = tipoCarga;
+            this.linhasLidas = linhasLidas;
+            this.duracaoCargaMs = duracaoCargaMs;
+
+            int mesMin = Integer.MAX_VALUE;
+            int mesMax = Integer.MIN_VALUE;
+            int valorMin = Integer.MAX_VALUE;
+            int valorMax = Integer.MIN_VALUE;
+            for (int i = 0; i < tamanho; i++) {
+                mesMin = Math.min(mesMin, mes[i]);
+                mesMax = Math.max(mesMax, mes[i]);
+                if (!semValor.get(i)) {
+                    valorMin = Math.min(valorMin, valor[i]);
+                    valorMax = Math.max(valorMax, valor[i]);
+                }
+            }
+            this.mesMinimo = tamanho == 0 ? 0 : mesMin;
+            this.mesMaximo = tamanho == 0 ? 0 : mesMax;
+            this.valorMinimo = valorMin > valorMax ? 0 : valorMin;
+            this.valorMaximo = valorMin > valorMax ? 0 : valorMax;
+        }
+    }
+
+    /**
+     * Monta uma nova versão: vazia (carga completa) ou cópia da atual
+     * (incremental), sem alterar a versão publicada.
+     */
+    private static final class Construtor {
+
+        private int tamanho;
+        private int[] ids;
+        private int[] competencia;
+        private int[] tipoAvaliacao;
+        private int[] turma;
+        private int[] tipoAvaliador;
+        private int[] dia;
+        private int[] mes;
+        private short[] valor;
+        private final BitSet naoAvaliado;
+        private final BitSet semValor;
+        private final BitSet cancelada;
+        private final Dicionario competencias;
+        private final Dicionario tiposAvaliacao;
+        private final Dicionario turmas;
+        private final Dicionario tiposAvaliador;
+        private LocalDateTime marca = LocalDateTime.MIN;
+
+        private Construtor(Dados base) {
+            if (base == null) {
+                int capacidade = 1024;
+                ids = new int[capacidade];
+                competencia = new int[capacidade];
+                tipoAvaliacao = new int[capacidade];
+                turma = new int[capacidade];
+                tipoAvaliador = new int[capacidade];
+                dia = new int[capacidade];
+                mes = new int[capacidade];
+                valor = new short[capacidade];
+                naoAvaliado = new BitSet();
+                semValor = new BitSet();
+                cancelada = new BitSet();
+                competencias = new Dicionario();
+                tiposAvaliacao = new Dicionario();
+                turmas = new Dicionario();
+                tiposAvaliador = new Dicionario();
+            } else {
+                tamanho = base.tamanho;
+                ids = base.ids.clone();
+                competencia = base.competencia.clone();
+                tipoAvaliacao = base.tipoAvaliacao.clone();
+                turma = base.turma.clone();
+                tipoAvaliador = base.tipoAvaliador.clone();
+                dia = base.dia.clone();
+                mes = base.mes.clone();
+                valor = base.valor.clone();
+                naoAvaliado = (BitSet) base.naoAvaliado.clone();
+                semValor = (BitSet) base.semValor.clone();
+                cancelada = (BitSet) base.cancelada.clone();
+                competencias = new Dicionario(base.competencias);
+                tiposAvaliacao = new Dicionario(base.tiposAvaliacao);
+                turmas = new Dicionario(base.turmas);
+                tiposAvaliador = new Dicionario(base.tiposAvaliador);
+                marca = base.marca;
+            }
+        }
+
+        /**
+         * Grava uma linha da consulta de carga na posição do seu id.
+         *
+         * @return false se o id não existe e é menor que o último (a
+         *         ordem das posições seria quebrada)
+         */
+        private boolean aplicar(Object[] linha) {
+            int id = ((Number) linha[0]).intValue();
+            int i = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (i < 0) {
+                if (tamanho > 0 && id < ids[tamanho - 1]) {
+                    return false;
+                }
+                i = tamanho++;
+                if (i == ids.length) {
+                    crescer();
+                }
+                ids[i] = id;
+            }
+
+            LocalDate data = data(linha[5]);
+            BigDecimal nota = decimal(linha[6]);
+            String tipoAvaliador = (String) linha[4];
+
+            competencia[i] = competencias.codigo(((Number) linha[1]).intValue());
+            tipoAvaliacao[i] = tiposAvaliacao.codigo(normalizar(String.valueOf(linha[2])));
+            turma[i] = turmas.codigo(linha[3] == null ? null : ((Number) linha[3]).intValue());
+            this.tipoAvaliador[i] = tiposAvaliador.codigo(tipoAvaliador == null || tipoAvaliador.isBlank()
+                    ? SEM_TIPO_AVALIADOR : normalizar(tipoAvaliador));
+            dia[i] = (int) data.toEpochDay();
+            mes[i] = data.getYear() * 12 + data.getMonthValue() - 1;
+            valor[i] = nota == null ? 0 : nota.movePointRight(1).setScale(0, RoundingMode.HALF_UP).shortValueExact();
+            semValor.set(i, nota == null);
+            naoAvaliado.set(i, logico(linha[7]));
+            cancelada.set(i, "CANCELADA".equals(linha[8] == null ? null : String.valueOf(linha[8])));
+
+            LocalDateTime atualizacao = maisRecente(maisRecente(dataHora(linha[9]), dataHora(linha[10])),
+                    dataHora(linha[11]));
+            if (atualizacao != null && atualizacao.isAfter(marca)) {
+                marca = atualizacao;
+            }
+            return true;
+        }
+
+        /**
+         * @return true se o cubo tem as mesmas respostas do banco (mesma
+         *         quantidade e soma dos ids; ver CONFERIR_RESPOSTAS_SQL)
+         */
+        private boolean confere(EntityManager em) {
+            Object[] banco = (Object[]) em.createNativeQuery(CONFERIR_RESPOSTAS_SQL).getSingleResult();
+            long soma = 0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += ids[i];
+            }
+            return tamanho == ((Number) banco[0]).longValue() && soma == ((Number) banco[1]).longValue();
+        }
+
+        private void crescer() {
+            int capacidade = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidade);
+            competencia = Arrays.copyOf(competencia, capacidade);
+            tipoAvaliacao = Arrays.copyOf(tipoAvaliacao, capacidade);
+            turma = Arrays.copyOf(turma, capacidade);
+            tipoAvaliador = Arrays.copyOf(tipoAvaliador, capacidade);
+            dia = Arrays.copyOf(dia, capacidade);
+            mes = Arrays.copyOf(mes, capacidade);
+            valor = Arrays.copyOf(valor, capacidade);
+        }
+
+        private Dados construir(EntityManager em, String tipoCarga, int linhasLidas, long inicioNanos) {
+            competencias.rotular(nomes(em, NOMES_COMPETENCIAS_SQL));
+            turmas.rotular(nomes(em, NOMES_TURMAS_SQL));
+            return new Dados(this, tipoCarga, linhasLidas, (System.nanoTime() - inicioNanos) / 1_000_000);
+        }
+    }
+
+    /**
+     * Codificação de uma dimensão: chave (ID ou nome) ↔ código 0..n-1, com
+     * o rótulo exibido de cada código. Códigos nunca mudam entre versões.
+     */
+    private static final class Dicionario {
+
+        private final List<Object> chaves;
+        private final List<String> rotulos;
+        private final Map<Object, Integer> codigos;
+
+        private Dicionario() {
+            chaves = new ArrayList<>();
+            rotulos = new ArrayList<>();
+            codigos = new HashMap<>();
+        }
+
+        private Dicionario(Dicionario outro) {
+            chaves = new ArrayList<>(outro.chaves);
+            rotulos = new ArrayList<>(outro.rotulos);
+            codigos = new HashMap<>(outro.codigos);
+        }
+
+        private int codigo(Object chave) {
+            Integer codigo = codigos.get(chave);
+            if (codigo == null) {
+                codigo = chaves.size();
+                chaves.add(chave);
+                rotulos.add(chave == null ? null : String.valueOf(chave));
+                codigos.put(chave, codigo);
+            }
+            return codigo;
+        }
+
+        private Integer procurar(Object chave) {
+            return codigos.get(chave);
+        }
+
+        private void rotular(Map<Object, String> nomes) {
+            for (int i = 0; i < chaves.size(); i++) {
+                String nome = nomes.get(chaves.get(i));
+                if (nome != null) {
+                    rotulos.set(i, nome);
+                }
+            }
+        }
+
+        private Object chave(int codigo) {
+            return chaves.get(codigo);
+        }
+
+        private String rotulo(int codigo) {
+            return rotulos.get(codigo);
+        }
+
+        private int tamanho() {
+            return chaves.size();
+        }
+    }
+
+    /**
+     * Grupo do resultado: código em cada dimensão agrupada e suas somas.
+     */
+    private static final class Grupo {
+
+        private final int[] codigos;
+        private final Acumulador acumulador;
+
+        private Grupo(int[] codigos, Acumulador acumulador) {
+            this.codigos = codigos;
+            this.acumulador = acumulador;
+        }
+    }
+
+    /**
+     * Somas de um grupo, em décimos de ponto.
+     */
+    private static final class Acumulador {
+
+        private long quantidade;
+        private long naoAvaliados;
+        private long soma;
+        private long somaQuadrados;
+        private int minimo = Integer.MAX_VALUE;
+        private int maximo = Integer.MIN_VALUE;
+        private final long[] histograma;
+        private final DistribuicaoValores distribuicao;
+
+        private Acumulador(int faixas, DistribuicaoValores distribuicao) {
+            this.histograma = faixas == 0 ? null : new long[faixas];
+            this.distribuicao = distribuicao;
+        }
+
+        private void somar(int valor, int largura, int faixaInicial) {
+            quantidade++;
+            soma += valor;
+            somaQuadrados += (long) valor * valor;
+            minimo = Math.min(minimo, valor);
+            maximo = Math.max(maximo, valor);
+            if (histograma != null) {
+                histograma[Math.floorDiv(valor, largura) - faixaInicial]++;
+            }
+            if (distribuicao != null) {
+                distribuicao.adicionarUnidades(valor, 1);
+            }
+        }
+
+        /**
+         * Acrescenta as estatísticas ao grupo. Desvio padrão amostral (n - 1);
+         * estatísticas nulas quando não há notas.
+         */
+        private void resumir(Map<String, Object> grupo, int largura, int faixaInicial, ConsultaCubo consulta) {
+            grupo.put("quantidade", quantidade);
+            grupo.put("naoAvaliados", naoAvaliados);
+            if (quantidade == 0) {
+                grupo.put("media", null);
+                grupo.put("desvioPadrao", null);
+                grupo.put("minimo", null);
+                grupo.put("maximo", null);
+            } else {
+                grupo.put("media", BigDecimal.valueOf(soma).divide(BigDecimal.valueOf(quantidade * 10), 2,
+                        RoundingMode.HALF_UP));
+                double variancia = quantidade < 2 ? 0
+                        : Math.max(0, (somaQuadrados - (double) soma * soma / quantidade) / (quantidade - 1));
+                grupo.put("desvioPadrao", BigDecimal.valueOf(Math.sqrt(variancia) / 10)
+                        .setScale(2, RoundingMode.HALF_UP));
+                grupo.put("minimo", BigDecimal.valueOf(minimo, 1));
+                grupo.put("maximo", BigDecimal.valueOf(maximo, 1));
+            }
+            if (histograma != null) {
+                Map<String, Long> faixas = new LinkedHashMap<>();
+                for (int f = 0; f < histograma.length; f++) {
+                    if (histograma[f] > 0) {
+                        faixas.put(BigDecimal.valueOf((long) (faixaInicial + f) * largura, 1).toPlainString(),
+                                histograma[f]);
+                    }
+                }
+                grupo.put("histograma", faixas);
+            }
+            if (distribuicao != null) {
+                double[] pedidos = consulta.getPercentis();
+                if (pedidos.length > 0) {
+                    Map<String, BigDecimal> percentis = new LinkedHashMap<>();
+                    for (double p : pedidos) {
+                        percentis.put(BigDecimal.valueOf(p).stripTrailingZeros().toPlainString(),
+                                distribuicao.percentil(p));
+                    }
+                    grupo.put("percentis", percentis);
+                }
+                if (consulta.getValorPosicao() != null) {
+                    grupo.put("percentilDoValor", distribuicao.percentilDoValor(consulta.getValorPosicao()));
+                }
+            }
+        }
+    }
+
+    // ========================================
+    // CONVERSÃO DAS COLUNAS NATIVAS
+    // ========================================
+
+    private static LocalDate data(Object valor) {
+        if (valor instanceof LocalDate data) {
+            return data;
+        }
+        if (valor instanceof java.sql.Date data) {
+            return data.toLocalDate();
+        }
+        return dataHora(valor).toLocalDate();
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        if (valor == null || valor instanceof LocalDateTime) {
+            return (LocalDateTime) valor;
+        }
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (valor instanceof java.time.OffsetDateTime dataHora) {
+            return dataHora.toLocalDateTime();
+        }
+        throw new IllegalStateException("Data/hora inesperada: " + valor.getClass().getName());
+    }
+
+    private static LocalDateTime maisRecente(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor == null || valor instanceof BigDecimal) {
+            return (BigDecimal) valor;
+        }
+        return new BigDecimal(valor.toString());
+    }
+
+    private static boolean logico(Object valor) {
+        if (valor instanceof Boolean logico) {
+            return logico;
+        }
+        return valor instanceof Number numero && numero.intValue() != 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.unifae.med.util;
+
+/**
+ * DIMENSAO CUBO - ENUM PARA AS DIMENSÕES DO CUBO DE COMPETÊNCIAS
+ * ==============================================================
+ *
+ * Define por quais atributos as respostas do CuboCompetencias podem ser
+ * agrupadas e filtradas.
+ *
+ * DIMENSÕES DISPONÍVEIS:
+ * - COMPETENCIA: Competência do questionário respondida (id)
+ * - TIPO_AVALIACAO: Tipo do questionário (MINI_CEX, AVALIACAO_360_PARES...)
+ * - TURMA: Turma da avaliação (id; avaliações sem turma formam um grupo)
+ * - TIPO_AVALIADOR: Tipo de usuário do avaliador, ou o tipo informado para
+ *   avaliadores externos (ex: PACIENTE)
+ * - MES / SEMESTRE / ANO: Período da data de realização
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - CuboCompetencias.java: Cubo que agrupa por estas dimensões
+ * - ConsultaCubo.java: Consulta que escolhe agrupamentos e filtros
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public enum DimensaoCubo {
+
+    COMPETENCIA("competencia"),
+    TIPO_AVALIACAO("tipoAvaliacao"),
+    TURMA("turma"),
+    TIPO_AVALIADOR("tipoAvaliador"),
+    MES("mes"),
+    SEMESTRE("semestre"),
+    ANO("ano");
+
+    private final String campo;
+
+    DimensaoCubo(String campo) {
+        this.campo = campo;
+    }
+
+    /**
+     * Nome do campo no resultado e no parâmetro de filtro da API.
+     */
+    public String getCampo() {
+        return campo;
+    }
+
+    /**
+     * Indica se a dimensão é derivada da data (filtrada por período, não
+     * por valores).
+     */
+    public boolean isPeriodo() {
+        return this == MES || this == SEMESTRE || this == ANO;
+    }
+}
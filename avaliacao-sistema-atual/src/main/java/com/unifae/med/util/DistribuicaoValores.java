@@ -0,0 +1,216 @@
+package com.unifae.med.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * DISTRIBUICAOVALORES - DISTRIBUIÇÃO EXATA DE NOTAS PARA PERCENTIS
+ * ================================================================
+ *
+ * Resumo mesclável de uma coleção de notas para calcular mediana,
+ * percentis e a posição percentual de um valor sem ordenar as notas.
+ *
+ * POR QUE EXATA (E NÃO T-DIGEST/KLL):
+ * As notas do sistema são decimais de precisão fixa em uma faixa curta:
+ * notas.valor_nota é decimal(4,2) entre 0 e 10 (no máximo 1001 valores
+ * distintos) e resposta_valor_numerico é decimal(4,1). Guardar a
+ * quantidade de cada valor possível ocupa menos memória que um sketch
+ * aproximado e não tem erro:
+ * - Erro de posição: zero. Todo percentil devolvido é o mesmo que o
+ *   banco calcularia sobre as linhas (PERCENTILE_DISC)
+ * - Memória: um long por unidade entre o menor e o maior valor vistos
+ *   (ex: 1001 posições para notas de 0.00 a 10.00), qualquer que seja a
+ *   quantidade de notas
+ * - Mesclar: soma posição a posição (ex: turmas de uma disciplina)
+ * - Remoção: basta subtrair a quantidade, o que sketches aproximados não
+ *   permitem (notas são alteradas, inativadas e excluídas)
+ *
+ * DEFINIÇÕES:
+ * - percentil(p): menor valor com ao menos p% das notas menores ou iguais
+ *   a ele (nearest-rank; igual a PERCENTILE_DISC(p / 100) do SQL). A
+ *   mediana é percentil(50); com quantidade par é o menor dos dois
+ *   valores centrais
+ * - percentilDoValor(v): 100 × (notas abaixo de v + metade das iguais a v)
+ *   / total (posição média), com 2 casas
+ *
+ * Não é thread-safe: cada consulta monta a sua instância.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - NotaDistribuicaoDAO.java: Distribuições das notas gravadas no banco
+ * - CuboCompetencias.java: Percentis das respostas por grupo
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class DistribuicaoValores {
+
+    private final int escala;
+    private int base;
+    private long[] contagens = new long[0];
+    private long total;
+
+    /**
+     * @param escala Casas decimais dos valores (2 para notas, 1 para
+     *        respostas); valores com mais casas são rejeitados
+     */
+    public DistribuicaoValores(int escala) {
+        this.escala = escala;
+    }
+
+    /**
+     * Distribuição já dimensionada para a faixa de valores (em unidades da
+     * escala), sem ampliações durante as inclusões.
+     */
+    DistribuicaoValores(int escala, int minimoUnidades, int maximoUnidades) {
+        this.escala = escala;
+        this.base = minimoUnidades;
+        this.contagens = new long[maximoUnidades - minimoUnidades + 1];
+    }
+
+    /**
+     * Acrescenta ocorrências de um valor.
+     *
+     * @throws IllegalArgumentException se o valor tem mais casas decimais
+     *         que a escala ou a quantidade é negativa
+     */
+    public void adicionar(BigDecimal valor, long quantidade) {
+        int unidades;
+        try {
+            unidades = valor.setScale(escala, RoundingMode.UNNECESSARY).unscaledValue().intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor fora da escala de " + escala + " casas: " + valor, e);
+        }
+        adicionarUnidades(unidades, quantidade);
+    }
+
+    /**
+     * Acrescenta ocorrências de um valor já em unidades da escala (ex:
+     * décimos quando a escala é 1).
+     */
+    void adicionarUnidades(int unidades, long quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade negativa: " + quantidade);
+        }
+        if (quantidade == 0) {
+            return;
+        }
+        incluirPosicao(unidades);
+        contagens[unidades - base] += quantidade;
+        total += quantidade;
+    }
+
+    /**
+     * Soma a outra distribuição a esta (a outra não é alterada).
+     *
+     * @throws IllegalArgumentException se as escalas são diferentes
+     */
+    public void mesclar(DistribuicaoValores outra) {
+        if (outra.escala != escala) {
+            throw new IllegalArgumentException("Distribuições com escalas diferentes");
+        }
+        if (outra.total == 0) {
+            return;
+        }
+        incluirPosicao(outra.base);
+        incluirPosicao(outra.base + outra.contagens.length - 1);
+        for (int i = 0; i < outra.contagens.length; i++) {
+            contagens[outra.base + i - base] += outra.contagens[i];
+        }
+        total += outra.total;
+    }
+
+    public long getQuantidade() {
+        return total;
+    }
+
+    /**
+     * @return Menor valor, ou nulo se vazia
+     */
+    public BigDecimal getMinimo() {
+        return total == 0 ? null : percentil(0);
+    }
+
+    /**
+     * @return Maior valor, ou nulo se vazia
+     */
+    public BigDecimal getMaximo() {
+        return total == 0 ? null : percentil(100);
+    }
+
+    /**
+     * @param p Percentil entre 0 e 100 (ex: 50 para a mediana)
+     * @return Valor do percentil (nearest-rank), ou nulo se vazia
+     */
+    public BigDecimal percentil(double p) {
+        if (p < 0 || p > 100 || Double.isNaN(p)) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + p);
+        }
+        if (total == 0) {
+            return null;
+        }
+        // Posição (1..total) do valor na lista ordenada
+        long posicao = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posicao) {
+                return BigDecimal.valueOf(base + i, escala);
+            }
+        }
+        return BigDecimal.valueOf(base + contagens.length - 1L, escala);
+    }
+
+    /**
+     * @param valor Valor a posicionar (não precisa estar na distribuição)
+     * @return Percentual das notas abaixo do valor, contando metade das
+     *         iguais, com 2 casas; nulo se vazia
+     */
+    public BigDecimal percentilDoValor(BigDecimal valor) {
+        if (total == 0) {
+            return null;
+        }
+        // Posições abaixo do valor são as menores que o seu teto em unidades;
+        // só um valor inteiro em unidades pode ser igual a uma posição
+        BigDecimal unidades = valor.movePointRight(escala);
+        boolean inteiro = unidades.signum() == 0 || unidades.stripTrailingZeros().scale() <= 0;
+        long teto = unidades.setScale(0, RoundingMode.CEILING)
+                .max(BigDecimal.valueOf(base - 1L))
+                .min(BigDecimal.valueOf(base + (long) contagens.length))
+                .longValue();
+        long abaixo = 0;
+        long iguais = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            long posicao = base + (long) i;
+            if (posicao < teto) {
+                abaixo += contagens[i];
+            } else {
+                if (inteiro && posicao == teto) {
+                    iguais = contagens[i];
+                }
+                break;
+            }
+        }
+        return BigDecimal.valueOf(200 * abaixo + 100 * iguais)
+                .divide(BigDecimal.valueOf(2 * total), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Amplia o array para representar a posição, mantendo as contagens.
+     */
+    private void incluirPosicao(int unidades) {
+        if (contagens.length == 0) {
+            base = unidades;
+            contagens = new long[1];
+            return;
+        }
+        if (unidades < base) {
+            long[] novas = new long[contagens.length + (base - unidades)];
+            System.arraycopy(contagens, 0, novas, base - unidades, contagens.length);
+            contagens = novas;
+            base = unidades;
+        } else if (unidades >= base + contagens.length) {
+            contagens = Arrays.copyOf(contagens, unidades - base + 1);
+        }
+    }
+}
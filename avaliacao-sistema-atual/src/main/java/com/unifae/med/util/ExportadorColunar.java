@@ -0,0 +1,375 @@
+package com.unifae.med.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * EXPORTADORCOLUNAR - ARQUIVOS ARROW PARTICIONADOS COM MEMÓRIA CONSTANTE
+ * ======================================================================
+ *
+ * Grava linhas (Object[] vindos de uma consulta nativa) em arquivos
+ * colunares Apache Arrow (formato IPC de arquivo, ".arrow", o mesmo do
+ * Feather v2), lidos diretamente por pandas/pyarrow, Polars, DuckDB e R.
+ * Cada partição (ex: "ano_letivo=2025/semestre=1", o layout de partições
+ * do Hive) recebe um arquivo próprio.
+ *
+ * MEMÓRIA:
+ * As linhas não são acumuladas: cada partição tem um lote de no máximo
+ * ANALYTICS_EXPORT_BATCH_ROWS linhas (padrão 8192) em vetores Arrow. Lote
+ * cheio é comprimido (LZ4, blocos independentes por coluna), gravado no
+ * arquivo e os vetores são reaproveitados para o próximo. O consumo
+ * depende do número de partições abertas e do tamanho do lote, não do
+ * tamanho da tabela.
+ *
+ * ARQUIVOS:
+ * Gravados como ".arrow.parcial" e renomeados só em concluir(): um leitor
+ * nunca encontra um arquivo pela metade. close() sem concluir() (falha no
+ * meio da exportação) apaga os parciais.
+ *
+ * JVM:
+ * O Arrow acessa buffers diretos por dentro do java.nio; em JDK 17+ a JVM
+ * precisa de --add-opens=java.base/java.nio=ALL-UNNAMED (ver Dockerfile).
+ *
+ * CONFIGURAÇÃO:
+ * - ANALYTICS_EXPORT_DIR (java.io.tmpdir/unifae-exportacoes): Diretório base
+ * - ANALYTICS_EXPORT_BATCH_ROWS (8192): Linhas por lote
+ *
+ * Não é thread-safe: uma instância por exportação.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - ExportacaoAnaliticaDAO.java: Consultas exportadas e partições
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class ExportadorColunar implements AutoCloseable {
+
+    private static final Path DIRETORIO_PADRAO = Paths.get(JPAUtil.setting("ANALYTICS_EXPORT_DIR",
+            Paths.get(System.getProperty("java.io.tmpdir"), "unifae-exportacoes").toString()));
+
+    private static final int LINHAS_POR_LOTE = Math.max(1, JPAUtil.intSetting("ANALYTICS_EXPORT_BATCH_ROWS", 8192));
+
+    private static final String EXTENSAO = ".arrow";
+    private static final String EXTENSAO_PARCIAL = ".arrow.parcial";
+
+    /**
+     * Tipo lógico de uma coluna.
+     */
+    public enum Tipo {
+        INTEIRO, DECIMAL, TEXTO, DATA, DATA_HORA, LOGICO
+    }
+
+    /**
+     * Coluna do arquivo: nome, tipo e (DECIMAL) casas decimais.
+     */
+    public static final class Coluna {
+
+        private final String nome;
+        private final Tipo tipo;
+        private final int escala;
+
+        private Coluna(String nome, Tipo tipo, int escala) {
+            this.nome = nome;
+            this.tipo = tipo;
+            this.escala = escala;
+        }
+
+        public static Coluna of(String nome, Tipo tipo) {
+            return new Coluna(nome, tipo, 0);
+        }
+
+        public static Coluna decimal(String nome, int escala) {
+            return new Coluna(nome, Tipo.DECIMAL, escala);
+        }
+
+        private Field campo() {
+            ArrowType tipoArrow;
+            switch (tipo) {
+                case INTEIRO:
+                    tipoArrow = new ArrowType.Int(32, true);
+                    break;
+                case DECIMAL:
+                    tipoArrow = new ArrowType.Decimal(10, escala, 128);
+                    break;
+                case TEXTO:
+                    tipoArrow = ArrowType.Utf8.INSTANCE;
+                    break;
+                case DATA:
+                    tipoArrow = new ArrowType.Date(DateUnit.DAY);
+                    break;
+                case DATA_HORA:
+                    // Sem fuso: horário local do banco, como está gravado
+                    tipoArrow = new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+                    break;
+                default:
+                    tipoArrow = ArrowType.Bool.INSTANCE;
+            }
+            return new Field(nome, FieldType.nullable(tipoArrow), null);
+        }
+    }
+
+    /**
+     * Arquivo concluído de uma partição.
+     */
+    public static final class Arquivo {
+
+        private final String particao;
+        private final Path caminho;
+        private final long linhas;
+        private final long bytes;
+
+        private Arquivo(String particao, Path caminho, long linhas, long bytes) {
+            this.particao = particao;
+            this.caminho = caminho;
+            this.linhas = linhas;
+            this.bytes = bytes;
+        }
+
+        public String getParticao() {
+            return particao;
+        }
+
+        public Path getCaminho() {
+            return caminho;
+        }
+
+        public long getLinhas() {
+            return linhas;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final Path diretorio;
+    private final String nomeArquivo;
+    private final List<Coluna> colunas;
+    private final Schema esquema;
+    private final BufferAllocator alocador = new RootAllocator();
+    private final Map<String, Particao> particoes = new LinkedHashMap<>();
+
+    /**
+     * @param diretorio Diretório da tabela (as partições ficam abaixo dele)
+     * @param nomeArquivo Nome dos arquivos, sem extensão (igual em todas as
+     *        partições)
+     * @param colunas Colunas, na ordem dos valores passados a adicionar()
+     * @param metadados Metadados gravados no esquema de cada arquivo
+     */
+    public ExportadorColunar(Path diretorio, String nomeArquivo, List<Coluna> colunas, Map<String, String> metadados) {
+        this.diretorio = diretorio;
+        this.nomeArquivo = nomeArquivo;
+        this.colunas = List.copyOf(colunas);
+        List<Field> campos = new ArrayList<>(colunas.size());
+        for (Coluna coluna : colunas) {
+            campos.add(coluna.campo());
+        }
+        this.esquema = new Schema(campos, metadados);
+    }
+
+    /**
+     * @return Diretório base das exportações (ANALYTICS_EXPORT_DIR)
+     */
+    public static Path diretorioPadrao() {
+        return DIRETORIO_PADRAO;
+    }
+
+    /**
+     * ADICIONAR LINHA
+     * ===============
+     * @param particao Caminho relativo da partição (ex: "ano_letivo=2025/semestre=1")
+     * @param linha Linha da consulta
+     * @param inicio Índice em linha do valor da primeira coluna (colunas
+     *        anteriores, como as chaves da partição, são ignoradas)
+     */
+    public void adicionar(String particao, Object[] linha, int inicio) throws IOException, SQLException {
+        Particao destino = particoes.get(particao);
+        if (destino == null) {
+            destino = new Particao(particao);
+            particoes.put(particao, destino);
+        }
+        destino.adicionar(linha, inicio);
+    }
+
+    /**
+     * CONCLUIR
+     * ========
+     * Grava os lotes pendentes, fecha os arquivos e os torna visíveis
+     * (renomeia de ".arrow.parcial" para ".arrow").
+     *
+     * @return Arquivos gravados, um por partição, na ordem em que as
+     *         partições apareceram
+     */
+    public List<Arquivo> concluir() throws IOException {
+        List<Arquivo> arquivos = new ArrayList<>(particoes.size());
+        for (Particao particao : particoes.values()) {
+            particao.fechar();
+        }
+        for (Particao particao : particoes.values()) {
+            Path destino = particao.parcial.resolveSibling(nomeArquivo + EXTENSAO);
+            Files.move(particao.parcial, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            arquivos.add(new Arquivo(particao.nome, destino, particao.linhas, Files.size(destino)));
+        }
+        particoes.clear();
+        return arquivos;
+    }
+
+    /**
+     * Libera a memória dos vetores; apaga os arquivos de partições não
+     * concluídas.
+     */
+    @Override
+    public void close() {
+        for (Particao particao : particoes.values()) {
+            try {
+                particao.fechar();
+            } catch (IOException e) {
+                // O arquivo parcial é apagado de qualquer forma
+            }
+            try {
+                Files.deleteIfExists(particao.parcial);
+            } catch (IOException e) {
+                // Sobra um .parcial, ignorado pelos leitores
+            }
+        }
+        particoes.clear();
+        alocador.close();
+    }
+
+    /**
+     * Arquivo aberto de uma partição e o lote em montagem.
+     */
+    private final class Particao {
+
+        private final String nome;
+        private final Path parcial;
+        private final FileChannel canal;
+        private final VectorSchemaRoot lote;
+        private final ArrowFileWriter escritor;
+        private int linhasNoLote;
+        private long linhas;
+        private boolean fechada;
+
+        private Particao(String nome) throws IOException {
+            this.nome = nome;
+            Path pasta = diretorio.resolve(nome);
+            Files.createDirectories(pasta);
+            this.parcial = pasta.resolve(nomeArquivo + EXTENSAO_PARCIAL);
+            this.canal = FileChannel.open(parcial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.lote = VectorSchemaRoot.create(esquema, alocador);
+            this.lote.allocateNew();
+            this.escritor = new ArrowFileWriter(lote, null, canal, Map.of(), IpcOption.DEFAULT,
+                    CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.LZ4_FRAME);
+            this.escritor.start();
+        }
+
+        private void adicionar(Object[] linha, int inicio) throws IOException, SQLException {
+            for (int c = 0; c < colunas.size(); c++) {
+                definir(lote.getVector(c), colunas.get(c), linhasNoLote, linha[inicio + c]);
+            }
+            linhasNoLote++;
+            linhas++;
+            if (linhasNoLote == LINHAS_POR_LOTE) {
+                gravarLote();
+            }
+        }
+
+        private void gravarLote() throws IOException {
+            lote.setRowCount(linhasNoLote);
+            escritor.writeBatch();
+            // Mesmos buffers para o próximo lote: a memória não cresce
+            for (FieldVector vetor : lote.getFieldVectors()) {
+                vetor.reset();
+            }
+            linhasNoLote = 0;
+        }
+
+        private void fechar() throws IOException {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            try {
+                if (linhasNoLote > 0) {
+                    gravarLote();
+                }
+                escritor.end();
+            } finally {
+                escritor.close();
+                lote.close();
+                canal.close();
+            }
+        }
+    }
+
+    private static void definir(FieldVector vetor, Coluna coluna, int indice, Object valor) throws SQLException {
+        if (valor == null) {
+            vetor.setNull(indice);
+            return;
+        }
+        switch (coluna.tipo) {
+            case INTEIRO:
+                ((IntVector) vetor).setSafe(indice, ((Number) valor).intValue());
+                break;
+            case DECIMAL:
+                BigDecimal numero = valor instanceof BigDecimal decimal ? decimal : new BigDecimal(valor.toString());
+                ((DecimalVector) vetor).setSafe(indice, numero.setScale(coluna.escala, RoundingMode.HALF_UP));
+                break;
+            case TEXTO:
+                String texto = valor instanceof Clob clob ? clob.getSubString(1, (int) clob.length()) : valor.toString();
+                ((VarCharVector) vetor).setSafe(indice, texto.getBytes(StandardCharsets.UTF_8));
+                break;
+            case DATA:
+                LocalDate data = valor instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) valor;
+                ((DateDayVector) vetor).setSafe(indice, (int) data.toEpochDay());
+                break;
+            case DATA_HORA:
+                LocalDateTime momento = valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime()
+                        : (LocalDateTime) valor;
+                ((TimeStampMilliVector) vetor).setSafe(indice, momento.toInstant(ZoneOffset.UTC).toEpochMilli());
+                break;
+            default:
+                boolean logico = valor instanceof Boolean b ? b : ((Number) valor).intValue() != 0;
+                ((BitVector) vetor).setSafe(indice, logico ? 1 : 0);
+        }
+    }
+}
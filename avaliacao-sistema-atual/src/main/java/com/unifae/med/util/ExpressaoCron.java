@@ -0,0 +1,205 @@
+package com.unifae.med.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EXPRESSAOCRON - HORÁRIOS DAS TAREFAS AGENDADAS
+ * ==============================================
+ *
+ * Expressão no formato do cron do Unix, com cinco campos separados por
+ * espaço:
+ *   minuto (0-59) hora (0-23) dia-do-mês (1-31) mês (1-12) dia-da-semana (0-7)
+ *
+ * Cada campo aceita:
+ * - "*" (qualquer valor), um valor ("5"), uma faixa ("1-5") ou uma lista
+ *   ("1,15,30")
+ * - Passo: "*\/15" (a cada 15), "8-18/2" (de 2 em 2 entre 8 e 18)
+ * - Meses e dias da semana também por nome em inglês (JAN-DEC, SUN-SAT);
+ *   domingo é 0 ou 7
+ * - Atalhos: @hourly, @daily (ou @midnight), @weekly, @monthly, @yearly
+ *
+ * Como no cron, se dia-do-mês e dia-da-semana forem ambos restritos, basta
+ * um dos dois corresponder ("0 3 1 * 1": dia 1 e toda segunda-feira).
+ *
+ * EXEMPLOS:
+ *   "30 2 * * *"    todo dia às 02:30
+ *   "0 4 * * 0"     domingo às 04:00
+ *   "*\/10 7-22 * * 1-5"  a cada 10 minutos, das 7h às 22h59, em dias úteis
+ *
+ * Os horários são LocalDateTime no fuso do agendador (ver AgendadorTarefas).
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - AgendadorTarefas.java: Calcula a próxima execução de cada tarefa
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class ExpressaoCron {
+
+    private static final Map<String, String> ATALHOS = Map.of(
+            "@hourly", "0 * * * *",
+            "@daily", "0 0 * * *",
+            "@midnight", "0 0 * * *",
+            "@weekly", "0 0 * * 0",
+            "@monthly", "0 0 1 * *",
+            "@yearly", "0 0 1 1 *",
+            "@annually", "0 0 1 1 *");
+
+    private static final List<String> MESES = List.of("JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG",
+            "SEP", "OCT", "NOV", "DEC");
+
+    private static final List<String> DIAS_SEMANA = List.of("SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+
+    /**
+     * Busca da próxima execução limitada a alguns anos: cobre o 29 de
+     * fevereiro e recusa expressões que nunca ocorrem (ex: "0 0 30 2 *").
+     */
+    private static final int ANOS_BUSCA = 5;
+
+    private final String expressao;
+    private final BitSet minutos;
+    private final BitSet horas;
+    private final BitSet diasMes;
+    private final BitSet meses;
+    private final BitSet diasSemana;
+    private final boolean diaMesLivre;
+    private final boolean diaSemanaLivre;
+
+    private ExpressaoCron(String expressao, String[] campos) {
+        this.expressao = expressao;
+        this.minutos = campo(campos[0], 0, 59, null);
+        this.horas = campo(campos[1], 0, 23, null);
+        this.diasMes = campo(campos[2], 1, 31, null);
+        this.meses = campo(campos[3], 1, 12, MESES);
+        this.diasSemana = campo(campos[4], 0, 7, DIAS_SEMANA);
+        if (diasSemana.get(7)) {
+            diasSemana.set(0);
+        }
+        this.diaMesLivre = campos[2].startsWith("*");
+        this.diaSemanaLivre = campos[4].startsWith("*");
+    }
+
+    /**
+     * INTERPRETAR EXPRESSÃO
+     * =====================
+     * @param expressao Expressão de cinco campos ou atalho (@daily, ...)
+     * @return Expressão interpretada
+     * @throws IllegalArgumentException se a expressão é inválida ou nunca
+     *         ocorre
+     */
+    public static ExpressaoCron of(String expressao) {
+        if (expressao == null || expressao.isBlank()) {
+            throw new IllegalArgumentException("Expressão cron vazia");
+        }
+        String normalizada = expressao.trim().replaceAll("\\s+", " ");
+        String campos = ATALHOS.getOrDefault(normalizada.toLowerCase(Locale.ROOT), normalizada);
+        String[] partes = campos.toUpperCase(Locale.ROOT).split(" ");
+        if (partes.length != 5) {
+            throw new IllegalArgumentException("Expressão cron deve ter 5 campos (minuto hora dia mês dia-da-semana): "
+                    + expressao);
+        }
+        ExpressaoCron cron;
+        try {
+            cron = new ExpressaoCron(normalizada, partes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Expressão cron inválida '" + expressao + "': " + e.getMessage(), e);
+        }
+        cron.proxima(LocalDateTime.of(2000, 1, 1, 0, 0));
+        return cron;
+    }
+
+    /**
+     * PRÓXIMA EXECUÇÃO
+     * ================
+     * @param depois Momento de referência
+     * @return Primeiro minuto estritamente posterior a depois que corresponde
+     *         à expressão
+     * @throws IllegalArgumentException se a expressão nunca ocorre
+     */
+    public LocalDateTime proxima(LocalDateTime depois) {
+        LocalDateTime momento = depois.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limite = momento.plusYears(ANOS_BUSCA);
+        while (momento.isBefore(limite)) {
+            if (!meses.get(momento.getMonthValue())) {
+                momento = momento.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            } else if (!diaCorresponde(momento.toLocalDate())) {
+                momento = momento.toLocalDate().plusDays(1).atStartOfDay();
+            } else if (!horas.get(momento.getHour())) {
+                momento = momento.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutos.get(momento.getMinute())) {
+                momento = momento.plusMinutes(1);
+            } else {
+                return momento;
+            }
+        }
+        throw new IllegalArgumentException("Expressão cron nunca ocorre: " + expressao);
+    }
+
+    private boolean diaCorresponde(LocalDate data) {
+        boolean diaMes = diasMes.get(data.getDayOfMonth());
+        boolean diaSemana = diasSemana.get(data.getDayOfWeek().getValue() % 7);
+        if (diaMesLivre || diaSemanaLivre) {
+            return diaMes && diaSemana;
+        }
+        return diaMes || diaSemana;
+    }
+
+    private static BitSet campo(String campo, int minimo, int maximo, List<String> nomes) {
+        BitSet valores = new BitSet(maximo + 1);
+        for (String item : campo.split(",", -1)) {
+            int passo = 1;
+            String faixa = item;
+            int barra = item.indexOf('/');
+            if (barra >= 0) {
+                passo = numero(item.substring(barra + 1), 1, maximo, null);
+                faixa = item.substring(0, barra);
+            }
+            int inicio;
+            int fim;
+            if (faixa.equals("*")) {
+                inicio = minimo;
+                fim = maximo;
+            } else {
+                int hifen = faixa.indexOf('-');
+                inicio = numero(hifen >= 0 ? faixa.substring(0, hifen) : faixa, minimo, maximo, nomes);
+                fim = hifen >= 0 ? numero(faixa.substring(hifen + 1), minimo, maximo, nomes)
+                        : barra >= 0 ? maximo : inicio;
+                if (fim < inicio) {
+                    throw new IllegalArgumentException("faixa invertida " + faixa);
+                }
+            }
+            for (int valor = inicio; valor <= fim; valor += passo) {
+                valores.set(valor);
+            }
+        }
+        return valores;
+    }
+
+    private static int numero(String texto, int minimo, int maximo, List<String> nomes) {
+        int indice = nomes != null ? nomes.indexOf(texto) : -1;
+        if (indice >= 0) {
+            return indice + (nomes == MESES ? 1 : 0);
+        }
+        int valor;
+        try {
+            valor = Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("valor inválido '" + texto + "'");
+        }
+        if (valor < minimo || valor > maximo) {
+            throw new IllegalArgumentException("valor " + valor + " fora de " + minimo + "-" + maximo);
+        }
+        return valor;
+    }
+
+    @Override
+    public String toString() {
+        return expressao;
+    }
+}
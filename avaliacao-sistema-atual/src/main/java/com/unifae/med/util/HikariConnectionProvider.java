@@ -0,0 +1,70 @@
+package com.unifae.med.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * HIKARICONNECTIONPROVIDER - POOL DO JPAUTIL ENTREGUE AO HIBERNATE
+ * ================================================================
+ *
+ * Entrega ao Hibernate as conexões de um HikariDataSource criado pelo
+ * JPAUtil (hibernate.connection.provider_class recebe esta instância).
+ *
+ * POR QUE NÃO jakarta.persistence.nonJtaDataSource:
+ * Com um DataSource, o Hibernate pede as conexões com
+ * getConnection(usuario, senha) sempre que o persistence.xml define
+ * jakarta.persistence.jdbc.user/password (mantidos para quem cria a
+ * factory sem pool, ex: TestServlet). O HikariDataSource não suporta essa
+ * variante e lança SQLFeatureNotSupportedException. Aqui as credenciais
+ * ficam só no pool e as conexões são pedidas sempre com getConnection().
+ *
+ * O pool não é fechado por esta classe: JPAUtil fecha a factory e depois o
+ * pool em closeEntityManagerFactory().
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class HikariConnectionProvider implements ConnectionProvider {
+
+    private final HikariDataSource dataSource;
+
+    public HikariConnectionProvider(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // Devolve a conexão ao pool
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isAssignableFrom(HikariConnectionProvider.class)
+                || unwrapType.isAssignableFrom(HikariDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(HikariConnectionProvider.class)) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new IllegalArgumentException("Tipo não suportado: " + unwrapType.getName());
+    }
+}
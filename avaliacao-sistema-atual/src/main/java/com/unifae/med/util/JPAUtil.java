@@ -1,8 +1,17 @@
 package com.unifae.med.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Persistence;
+import org.hibernate.Session;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * JPAUTIL - CLASSE UTILITÁRIA PARA GERENCIAMENTO JPA
@@ -34,8 +43,69 @@ import jakarta.persistence.Persistence;
  * 3. DAO executa operações → fecha EntityManager
  * 4. Aplicação termina → chama closeEntityManagerFactory()
  * 
+ * POOL DE CONEXÕES (HIKARICP):
+ * O EntityManagerFactory é criado sobre um HikariDataSource montado aqui a
+ * partir das mesmas variáveis DB_URL/DB_USER/DB_PASS (propriedade de sistema
+ * -D ou variável de ambiente). O pool interno do Hibernate
+ * (hibernate.connection.pool_size) não é usado: ele não valida conexões,
+ * não tem timeouts, nem detecção de vazamento, nem métricas.
+ * 
+ * CONFIGURAÇÕES DO POOL (valor padrão entre parênteses):
+ * - DB_POOL_MAX_SIZE (10): Máximo de conexões abertas
+ * - DB_POOL_MIN_IDLE (2): Mínimo de conexões ociosas mantidas
+ * - DB_POOL_CONNECTION_TIMEOUT_MS (30000): Espera máxima por uma conexão
+ * - DB_POOL_IDLE_TIMEOUT_MS (600000): Tempo até fechar conexão ociosa excedente
+ * - DB_POOL_MAX_LIFETIME_MS (1800000): Vida máxima de uma conexão (abaixo do wait_timeout do MariaDB)
+ * - DB_POOL_LEAK_DETECTION_MS (60000): Alerta de conexão retida por mais tempo (0 desliga)
+ * - DB_PREP_STMT_CACHE_SIZE (250): Statements preparados em cache por conexão
+ * - DB_USE_SERVER_PREP_STMTS (true): Prepara statements no servidor MariaDB
+ * 
+ * CONSULTAS NOMEADAS:
+ * Logo após criar a factory, o NamedQueryRegistry registra as consultas
+ * genéricas do GenericDAO e compila todas as consultas nomeadas das
+ * entidades. Uma consulta inválida impede a inicialização (falha no deploy)
+ * e os planos já ficam em cache para as primeiras requisições.
+ * 
+ * ESCOPO DE REQUISIÇÃO (UNIT OF WORK):
+ * Quando o EntityManagerFilter abre um escopo com beginRequestScope(), todas
+ * as chamadas a getEntityManager() da mesma thread recebem o MESMO
+ * EntityManager, criado sob demanda na primeira chamada. Assim uma requisição
+ * inteira usa um único contexto de persistência: entidades carregadas por
+ * findById() continuam gerenciadas e associações LAZY podem ser navegadas até
+ * a renderização da JSP. O filtro encerra o escopo com endRequestScope().
+ * Fora de um escopo (ex: TestServlet, threads próprias) o comportamento
+ * antigo é mantido: um EntityManager novo por chamada.
+ * As consultas paralelas do AsyncQueryExecutor abrem um escopo próprio em
+ * cada virtual thread, com o mesmo roteamento da requisição.
+ * 
+ * RÉPLICA DE LEITURA (OPCIONAL):
+ * Com DB_REPLICA_URL configurada, uma segunda factory (com pool próprio,
+ * conexões somente leitura) aponta para a réplica do MariaDB. O roteamento
+ * é feito por requisição:
+ * - Requisições GET/HEAD (páginas, listagens e todos os @GET da API REST)
+ *   abrem o escopo com beginRequestScope(true): as leituras dos DAOs usam o
+ *   EntityManager da réplica
+ * - Escritas usam sempre getWriteEntityManager() (primário). A partir da
+ *   primeira escrita, as leituras seguintes da mesma requisição também vão
+ *   ao primário (ler o que acabou de ser gravado)
+ * - Demais métodos (POST, PUT, DELETE) usam apenas o primário
+ * - Após uma escrita, o EntityManagerFilter mantém as leituras da mesma
+ *   sessão no primário por DB_REPLICA_STICKY_MS, cobrindo o atraso de
+ *   replicação no redirecionamento POST → GET
+ * - A factory da réplica não usa o cache de segundo nível nem o de
+ *   consultas (ver createFactory): o cache é preenchido só pelo primário
+ * Sem DB_REPLICA_URL tudo usa o primário, como antes.
+ * 
+ * CONFIGURAÇÕES DA RÉPLICA (valor padrão entre parênteses):
+ * - DB_REPLICA_URL (vazio): URL JDBC da réplica; vazio desliga a réplica
+ * - DB_REPLICA_USER / DB_REPLICA_PASS (DB_USER / DB_PASS): credenciais
+ * - DB_REPLICA_STICKY_MS (5000): Janela de leitura no primário após escrita
+ * - DB_DRIVER (org.mariadb.jdbc.Driver): Driver JDBC dos dois pools
+ *   (permite testar localmente com outro banco, ex: duas instâncias H2)
+ * Os limites DB_POOL_* valem para cada um dos pools.
+ * 
  * @author Sistema de Avaliação UNIFAE
- * @version 1.0
+ * @version 1.4
  */
 public class JPAUtil {
     
@@ -56,6 +126,73 @@ public class JPAUtil {
      */
     private static EntityManagerFactory entityManagerFactory;
     
+    /**
+     * POOL DE CONEXÕES
+     * ================
+     * Entregue ao Hibernate pelo HikariConnectionProvider (hibernate.connection.provider_class).
+     * Mantido aqui para leitura das estatísticas e fechamento no shutdown.
+     */
+    private static HikariDataSource dataSource;
+    
+    /**
+     * MÉTRICAS DE AQUISIÇÃO DE CONEXÕES
+     * ==================================
+     * Alimentado pelo próprio HikariCP a cada retirada/devolução de conexão.
+     */
+    private static final PoolMetricsTracker poolMetrics = new PoolMetricsTracker();
+    
+    /**
+     * RÉPLICA DE LEITURA
+     * ==================
+     * Factory, pool e métricas da réplica; nulos quando DB_REPLICA_URL não
+     * está configurada (todas as operações usam o primário).
+     */
+    private static EntityManagerFactory replicaEntityManagerFactory;
+    private static HikariDataSource replicaDataSource;
+    private static final PoolMetricsTracker replicaPoolMetrics = new PoolMetricsTracker();
+    
+    /**
+     * JANELA DE LEITURA NO PRIMÁRIO APÓS ESCRITA
+     * ==========================================
+     * Tempo (DB_REPLICA_STICKY_MS) em que uma sessão que acabou de gravar
+     * continua lendo do primário (ver EntityManagerFilter).
+     */
+    private static long replicaStickyMillis;
+    
+    /**
+     * REGISTRO DE CONSULTAS NOMEADAS
+     * ==============================
+     * Montado na inicialização; guarda os tempos de compilação das consultas.
+     */
+    private static NamedQueryRegistry namedQueries;
+    
+    /**
+     * ESCOPO DE REQUISIÇÃO ATIVO NESTA THREAD
+     * ========================================
+     * Marcado pelo EntityManagerFilter no início de cada requisição.
+     * Enquanto verdadeiro, getEntityManager() devolve o EntityManager da requisição.
+     */
+    private static final ThreadLocal<Boolean> requestScopeActive = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    
+    /**
+     * ENTITYMANAGER DA REQUISIÇÃO
+     * ============================
+     * Criado de forma preguiçosa (lazy): requisições que não acessam o banco
+     * (CSS, JS, páginas estáticas) não abrem contexto nem conexão.
+     */
+    private static final ThreadLocal<EntityManager> requestEntityManager = new ThreadLocal<>();
+    
+    /**
+     * ROTEAMENTO DAS LEITURAS DA REQUISIÇÃO
+     * =====================================
+     * readOnlyScope: a requisição pode ler da réplica (GET/HEAD).
+     * wroteInScope: houve escrita no primário; leituras seguintes vão ao primário.
+     * replicaEntityManager: EntityManager da réplica, também criado sob demanda.
+     */
+    private static final ThreadLocal<Boolean> readOnlyScope = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Boolean> wroteInScope = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<EntityManager> replicaEntityManager = new ThreadLocal<>();
+    
     /**
      * BLOCO DE INICIALIZAÇÃO ESTÁTICA
      * ================================
@@ -69,27 +206,185 @@ public class JPAUtil {
      */
     static {
         try {
-            // Cria factory usando configuração do persistence.xml
-            entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+            // Cria o pool e a factory usando o restante da configuração do persistence.xml
+            String user = requiredSetting("DB_USER");
+            String password = setting("DB_PASS", "");
+            dataSource = createDataSource("unifae-med-pool", requiredSetting("DB_URL"), user, password,
+                    false, poolMetrics);
+            
+            long start = System.nanoTime();
+            entityManagerFactory = createFactory(dataSource, false);
+            
+            // Valida e compila as consultas nomeadas; JPQL inválido interrompe o deploy aqui
+            namedQueries = NamedQueryRegistry.register(entityManagerFactory, System.nanoTime() - start);
+            
+            // Réplica de leitura opcional, com as mesmas entidades e consultas nomeadas
+            String replicaUrl = setting("DB_REPLICA_URL", null);
+            if (replicaUrl != null) {
+                replicaDataSource = createDataSource("unifae-med-pool-replica", replicaUrl,
+                        setting("DB_REPLICA_USER", user), setting("DB_REPLICA_PASS", password),
+                        true, replicaPoolMetrics);
+                long replicaStart = System.nanoTime();
+                replicaEntityManagerFactory = createFactory(replicaDataSource, true);
+                NamedQueryRegistry.register(replicaEntityManagerFactory, System.nanoTime() - replicaStart);
+                replicaStickyMillis = longSetting("DB_REPLICA_STICKY_MS", 5_000L);
+            }
         } catch (Exception e) {
             // Log do erro para facilitar debug
             System.err.println("Erro ao criar EntityManagerFactory: " + e.getMessage());
             e.printStackTrace();
             
+            if (replicaEntityManagerFactory != null) {
+                replicaEntityManagerFactory.close();
+            }
+            if (replicaDataSource != null) {
+                replicaDataSource.close();
+            }
+            if (entityManagerFactory != null) {
+                entityManagerFactory.close();
+            }
+            if (dataSource != null) {
+                dataSource.close();
+            }
+            
             // Falha rápida - aplicação não pode funcionar sem JPA
             throw new ExceptionInInitializerError(e);
         }
     }
     
+    /**
+     * CRIAR FACTORY
+     * =============
+     * Cria a factory da unidade de persistência sobre o pool informado; o
+     * restante da configuração vem do persistence.xml.
+     * 
+     * Na réplica o hbm2ddl é desligado: o esquema chega pela replicação e as
+     * conexões são somente leitura.
+     * 
+     * A réplica também não usa o cache de segundo nível nem o de consultas.
+     * As regiões do Ehcache são as mesmas do primário (mesmo ehcache.xml e
+     * CacheManager): uma leitura na réplica atrasada logo após uma escrita
+     * no primário devolveria ao cache a linha antiga que a escrita acabou de
+     * invalidar, e todos passariam a ver o valor antigo até o TTL ou a
+     * próxima escrita. O conteúdo do cache vem apenas do primário.
+     * 
+     * @param pool Pool de conexões (primário ou réplica)
+     * @param replica true para a factory da réplica de leitura
+     * @return Factory pronta para uso
+     */
+    private static EntityManagerFactory createFactory(HikariDataSource pool, boolean replica) {
+        Map<String, Object> properties = new HashMap<>();
+        // Provedor sobre o pool, e não nonJtaDataSource (ver HikariConnectionProvider)
+        properties.put("hibernate.connection.provider_class", new HikariConnectionProvider(pool));
+        // O pool já entrega conexões com autocommit desligado (ver createDataSource)
+        properties.put("hibernate.connection.provider_disables_autocommit", "true");
+        if (replica) {
+            properties.put("hibernate.hbm2ddl.auto", "none");
+            properties.put("hibernate.cache.use_second_level_cache", "false");
+            properties.put("hibernate.cache.use_query_cache", "false");
+        }
+        return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
+    }
+    
+    /**
+     * CRIAR POOL DE CONEXÕES
+     * ======================
+     * Monta o HikariDataSource a partir das variáveis de configuração.
+     * 
+     * DECISÕES:
+     * - autoCommit=false: mesmo comportamento de hibernate.connection.autocommit
+     *   do persistence.xml; o Hibernate não precisa alterar o modo a cada transação
+     * - readOnly=true na réplica: indica ao driver que as conexões são só de
+     *   leitura (a garantia está em GenericDAO.beginTransaction(), que recusa
+     *   transações no EntityManager da réplica)
+     * - Cache de prepared statements repassado ao driver MariaDB
+     * - Validação de conexão via JDBC4 isValid() (padrão do HikariCP)
+     * 
+     * @param poolName Nome do pool (aparece nos logs e no monitoramento)
+     * @param url URL JDBC
+     * @param user Usuário do banco
+     * @param password Senha do banco
+     * @param readOnly true para o pool da réplica
+     * @param metrics Coletor das métricas de aquisição deste pool
+     * @return DataSource com pool pronto para uso
+     */
+    private static HikariDataSource createDataSource(String poolName, String url, String user, String password,
+            boolean readOnly, PoolMetricsTracker metrics) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(setting("DB_DRIVER", "org.mariadb.jdbc.Driver"));
+        
+        // O valor de DB_URL no Dockerfile vem escapado para XML (&amp;)
+        config.setJdbcUrl(url.replace("&amp;", "&"));
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setAutoCommit(false);
+        config.setReadOnly(readOnly);
+        
+        config.setMaximumPoolSize(intSetting("DB_POOL_MAX_SIZE", 10));
+        config.setMinimumIdle(intSetting("DB_POOL_MIN_IDLE", 2));
+        config.setConnectionTimeout(longSetting("DB_POOL_CONNECTION_TIMEOUT_MS", 30_000L));
+        config.setIdleTimeout(longSetting("DB_POOL_IDLE_TIMEOUT_MS", 600_000L));
+        config.setMaxLifetime(longSetting("DB_POOL_MAX_LIFETIME_MS", 1_800_000L));
+        config.setLeakDetectionThreshold(longSetting("DB_POOL_LEAK_DETECTION_MS", 60_000L));
+        
+        // Cache de prepared statements no driver MariaDB
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(intSetting("DB_PREP_STMT_CACHE_SIZE", 250)));
+        config.addDataSourceProperty("useServerPrepStmts", setting("DB_USE_SERVER_PREP_STMTS", "true"));
+        
+        config.setMetricsTrackerFactory((name, poolStats) -> metrics);
+        
+        return new HikariDataSource(config);
+    }
+    
+    /**
+     * LER CONFIGURAÇÃO
+     * ================
+     * Procura primeiro a propriedade de sistema (-DNOME=valor, usada pelo
+     * Dockerfile) e depois a variável de ambiente de mesmo nome.
+     * 
+     * @param name Nome da configuração
+     * @param defaultValue Valor usado quando não definida
+     * @return Valor configurado ou o padrão
+     */
+    static String setting(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(name);
+        }
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+    
+    private static String requiredSetting(String name) {
+        String value = setting(name, null);
+        if (value == null) {
+            throw new IllegalStateException("Configuração obrigatória ausente: " + name);
+        }
+        return value;
+    }
+    
+    static int intSetting(String name, int defaultValue) {
+        return Integer.parseInt(setting(name, String.valueOf(defaultValue)));
+    }
+    
+    static long longSetting(String name, long defaultValue) {
+        return Long.parseLong(setting(name, String.valueOf(defaultValue)));
+    }
+    
     /**
      * OBTER ENTITYMANAGER
      * ===================
      * Método principal usado pelos DAOs para obter acesso ao banco.
      * 
      * IMPORTANTE:
-     * - Cada EntityManager deve ser fechado após uso
+     * - Cada EntityManager deve ser liberado com closeEntityManager() após uso
      * - Não é thread-safe - cada thread deve ter seu próprio EM
      * - Representa uma sessão de trabalho com o banco
+     * - Dentro de um escopo de requisição devolve sempre o mesmo EM
+     * - Em requisições de leitura (beginRequestScope(true)) devolve o EM da
+     *   réplica, se configurada, até a primeira escrita da requisição
+     * - Para escrever, use getWriteEntityManager()
      * 
      * EXEMPLO DE USO:
      * EntityManager em = JPAUtil.getEntityManager();
@@ -98,10 +393,10 @@ public class JPAUtil {
      *     // operações com banco
      *     em.getTransaction().commit();
      * } finally {
-     *     em.close();
+     *     JPAUtil.closeEntityManager(em);
      * }
      * 
-     * @return EntityManager novo para operações de banco
+     * @return EntityManager da requisição ou novo EntityManager para operações de banco
      * @throws IllegalStateException se EntityManagerFactory não foi inicializado
      */
     public static EntityManager getEntityManager() {
@@ -110,8 +405,292 @@ public class JPAUtil {
             throw new IllegalStateException("EntityManagerFactory não foi inicializado");
         }
         
-        // Cria novo EntityManager para esta sessão
-        return entityManagerFactory.createEntityManager();
+        if (routeToReplica()) {
+            EntityManager em = replicaEntityManager.get();
+            if (em == null || !em.isOpen()) {
+                em = replicaEntityManagerFactory.createEntityManager();
+                // Somente leitura: o Hibernate não guarda cópias para dirty checking
+                em.unwrap(Session.class).setDefaultReadOnly(true);
+                replicaEntityManager.set(em);
+            }
+            return em;
+        }
+        return getPrimaryEntityManager();
+    }
+    
+    /**
+     * OBTER ENTITYMANAGER PARA ESCRITA
+     * ================================
+     * Sempre o primário (o EM da requisição, dentro de um escopo). Usado pelos
+     * métodos de escrita do GenericDAO e por executeInTransaction(). Marca a
+     * requisição como "escreveu": as leituras seguintes deixam a réplica e
+     * enxergam o que acabou de ser gravado.
+     * 
+     * @return EntityManager do banco primário
+     * @throws IllegalStateException se EntityManagerFactory não foi inicializado
+     */
+    public static EntityManager getWriteEntityManager() {
+        if (entityManagerFactory == null) {
+            throw new IllegalStateException("EntityManagerFactory não foi inicializado");
+        }
+        if (requestScopeActive.get()) {
+            wroteInScope.set(Boolean.TRUE);
+        }
+        return getPrimaryEntityManager();
+    }
+    
+    /**
+     * OBTER ENTITYMANAGER DE LEITURA NO PRIMÁRIO
+     * ==========================================
+     * O mesmo EntityManager do primário que getWriteEntityManager() devolve,
+     * mas sem marcar a requisição como "escreveu" (as demais leituras seguem
+     * na réplica e a sessão não entra na janela DB_REPLICA_STICKY_MS).
+     * 
+     * Para leituras cujo resultado vai para um cache da aplicação
+     * (CacheLimitado): montado a partir da réplica atrasada, logo após a
+     * invalidação de uma escrita, o cache voltaria a guardar o valor antigo
+     * até a próxima escrita.
+     * 
+     * @return EntityManager do banco primário
+     * @throws IllegalStateException se EntityManagerFactory não foi inicializado
+     */
+    public static EntityManager getPrimaryReadEntityManager() {
+        if (entityManagerFactory == null) {
+            throw new IllegalStateException("EntityManagerFactory não foi inicializado");
+        }
+        return getPrimaryEntityManager();
+    }
+    
+    /**
+     * CRIAR ENTITYMANAGER SOMENTE LEITURA AVULSO
+     * ==========================================
+     * EntityManager novo, fora do escopo da requisição, na réplica (se
+     * configurada) ou no primário. Para leituras longas que não devem
+     * disputar o EntityManager da requisição nem carregar o primário (ex:
+     * exportação analítica). Quem chama fecha com closeEntityManager().
+     *
+     * @return EntityManager somente leitura (sem dirty checking)
+     * @throws IllegalStateException se EntityManagerFactory não foi inicializado
+     */
+    public static EntityManager createReadOnlyEntityManager() {
+        if (entityManagerFactory == null) {
+            throw new IllegalStateException("EntityManagerFactory não foi inicializado");
+        }
+        EntityManager em = replicaEntityManagerFactory != null
+                ? replicaEntityManagerFactory.createEntityManager()
+                : entityManagerFactory.createEntityManager();
+        em.unwrap(Session.class).setDefaultReadOnly(true);
+        return em;
+    }
+
+    /**
+     * Leituras vão à réplica apenas em escopo de leitura, sem escrita anterior
+     * na mesma requisição e com a réplica configurada.
+     */
+    private static boolean routeToReplica() {
+        return replicaEntityManagerFactory != null && requestScopeActive.get()
+                && readOnlyScope.get() && !wroteInScope.get();
+    }
+    
+    private static EntityManager getPrimaryEntityManager() {
+        // Fora de um escopo de requisição: comportamento original, um EM por chamada
+        if (!requestScopeActive.get()) {
+            return entityManagerFactory.createEntityManager();
+        }
+        
+        // Dentro do escopo: reutiliza (ou cria na primeira chamada) o EM da requisição
+        EntityManager em = requestEntityManager.get();
+        if (em == null || !em.isOpen()) {
+            em = entityManagerFactory.createEntityManager();
+            requestEntityManager.set(em);
+        }
+        return em;
+    }
+    
+    /**
+     * LIBERAR ENTITYMANAGER
+     * =====================
+     * Substitui em.close() nos DAOs. Fecha apenas EntityManagers avulsos;
+     * o EntityManager da requisição é mantido aberto e só é fechado pelo
+     * filtro em endRequestScope().
+     * 
+     * @param em EntityManager obtido via getEntityManager()
+     */
+    public static void closeEntityManager(EntityManager em) {
+        if (em != null && em.isOpen() && !isRequestScoped(em)) {
+            em.close();
+        }
+    }
+    
+    /**
+     * VERIFICAR SE ENTITYMANAGER PERTENCE À REQUISIÇÃO
+     * =================================================
+     * @param em EntityManager a verificar
+     * @return true se em é um EntityManager compartilhado da requisição atual
+     *         (primário ou réplica)
+     */
+    public static boolean isRequestScoped(EntityManager em) {
+        return em != null && (em == requestEntityManager.get() || em == replicaEntityManager.get());
+    }
+    
+    /**
+     * VERIFICAR SE ENTITYMANAGER É DA RÉPLICA
+     * =======================================
+     * @param em EntityManager a verificar
+     * @return true se em é o EntityManager da réplica de leitura da requisição
+     */
+    public static boolean isReadReplica(EntityManager em) {
+        return em != null && em == replicaEntityManager.get();
+    }
+    
+    /**
+     * VERIFICAR ROTEAMENTO PARA A RÉPLICA
+     * ===================================
+     * Usado pelo AsyncQueryExecutor para que as consultas paralelas sigam o
+     * roteamento da requisição que as criou.
+     * 
+     * @return true se getEntityManager() devolve hoje o EM da réplica
+     */
+    public static boolean isReadingFromReplica() {
+        return routeToReplica();
+    }
+
+    /**
+     * ABRIR ESCOPO DE REQUISIÇÃO
+     * ==========================
+     * Chamado pelo EntityManagerFilter antes de repassar a requisição.
+     * Não cria o EntityManager: ele só é aberto no primeiro acesso ao banco.
+     * 
+     * @return true se o escopo foi aberto por esta chamada; false se já havia
+     *         um escopo ativo (ex: forward/include) e quem abriu deve encerrá-lo
+     */
+    public static boolean beginRequestScope() {
+        return beginRequestScope(false);
+    }
+    
+    /**
+     * ABRIR ESCOPO DE REQUISIÇÃO (COM ROTEAMENTO)
+     * ===========================================
+     * Igual a beginRequestScope(), indicando se a requisição é de leitura.
+     * Em requisições de leitura getEntityManager() usa a réplica (se
+     * configurada) até a primeira escrita.
+     * 
+     * @param readOnly true para requisições de leitura (GET/HEAD)
+     * @return true se o escopo foi aberto por esta chamada
+     */
+    public static boolean beginRequestScope(boolean readOnly) {
+        if (requestScopeActive.get()) {
+            return false;
+        }
+        requestScopeActive.set(Boolean.TRUE);
+        readOnlyScope.set(readOnly);
+        return true;
+    }
+    
+    /**
+     * VERIFICAR ESCRITA NA REQUISIÇÃO
+     * ===============================
+     * Consultado pelo filtro antes de endRequestScope() para manter a sessão
+     * lendo do primário logo após uma escrita.
+     * 
+     * @return true se a requisição atual obteve o EntityManager de escrita
+     */
+    public static boolean hasWrittenInRequestScope() {
+        return wroteInScope.get();
+    }
+    
+    /**
+     * VERIFICAR ESCOPO DE REQUISIÇÃO
+     * ==============================
+     * @return true se a thread atual está dentro de um escopo de requisição
+     */
+    public static boolean isRequestScopeActive() {
+        return requestScopeActive.get();
+    }
+    
+    /**
+     * ENCERRAR ESCOPO DE REQUISIÇÃO
+     * =============================
+     * Chamado pelo filtro no bloco finally. Transações esquecidas abertas são
+     * desfeitas (nunca confirmadas implicitamente) e os EntityManagers
+     * (primário e réplica) são fechados, devolvendo as conexões aos pools. Os ThreadLocals são sempre limpos, pois as
+     * threads do Tomcat são reaproveitadas entre requisições.
+     */
+    public static void endRequestScope() {
+        EntityManager replica = replicaEntityManager.get();
+        replicaEntityManager.remove();
+        readOnlyScope.remove();
+        wroteInScope.remove();
+        if (replica != null && replica.isOpen()) {
+            replica.close();
+        }
+        
+        EntityManager em = requestEntityManager.get();
+        requestEntityManager.remove();
+        requestScopeActive.remove();
+        
+        if (em == null || !em.isOpen()) {
+            return;
+        }
+        try {
+            EntityTransaction transaction = em.getTransaction();
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } catch (Exception e) {
+            System.err.println("Erro ao desfazer transação pendente da requisição: " + e.getMessage());
+        } finally {
+            em.close();
+        }
+    }
+    
+    /**
+     * EXECUTAR EM UMA ÚNICA TRANSAÇÃO
+     * ===============================
+     * Agrupa várias operações de DAOs em uma transação só. Os métodos de escrita
+     * do GenericDAO detectam a transação ativa no EntityManager da requisição e
+     * participam dela em vez de abrir a sua própria.
+     * 
+     * Fora de um escopo de requisição a ação é executada sem agrupamento,
+     * pois cada chamada de DAO teria seu próprio EntityManager.
+     * 
+     * EXEMPLO DE USO:
+     * JPAUtil.executeInTransaction(() -> {
+     *     avaliacaoDAO.save(avaliacao);
+     *     respostaDAO.save(resposta);
+     *     return null;
+     * });
+     * 
+     * @param action Operações a executar
+     * @return Valor retornado pela ação
+     * @throws RuntimeException se erro na operação (transação desfeita)
+     */
+    public static <T> T executeInTransaction(Supplier<T> action) {
+        if (!requestScopeActive.get()) {
+            return action.get();
+        }
+        
+        EntityManager em = getWriteEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        
+        // Transação externa já ativa: apenas participa dela
+        if (transaction.isActive()) {
+            return action.get();
+        }
+        
+        try {
+            transaction.begin();
+            T result = action.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            // Contexto pode conter estado que não chegou ao banco
+            em.clear();
+            throw e;
+        }
     }
     
     /**
@@ -130,9 +709,18 @@ public class JPAUtil {
      * - Invalida todos os EntityManagers criados
      */
     public static void closeEntityManagerFactory() {
+        if (replicaEntityManagerFactory != null && replicaEntityManagerFactory.isOpen()) {
+            replicaEntityManagerFactory.close();
+        }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
             entityManagerFactory.close();
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
     }
     
     /**
@@ -150,5 +738,100 @@ public class JPAUtil {
     public static boolean isEntityManagerFactoryOpen() {
         return entityManagerFactory != null && entityManagerFactory.isOpen();
     }
+    
+    /**
+     * VERIFICAR RÉPLICA DE LEITURA
+     * ============================
+     * @return true se DB_REPLICA_URL foi configurada e a réplica está aberta
+     */
+    public static boolean isReadReplicaConfigured() {
+        return replicaEntityManagerFactory != null && replicaEntityManagerFactory.isOpen();
+    }
+    
+    /**
+     * JANELA DE LEITURA NO PRIMÁRIO APÓS ESCRITA
+     * ==========================================
+     * @return DB_REPLICA_STICKY_MS em milissegundos
+     */
+    public static long getReplicaStickyMillis() {
+        return replicaStickyMillis;
+    }
+    
+    /**
+     * ESTATÍSTICAS DO POOL DE CONEXÕES
+     * ================================
+     * Fotografia do estado atual do pool para monitoramento
+     * (exposta em GET /api/monitoramento/pool).
+     * 
+     * VALORES:
+     * - conexoesAtivas / conexoesOciosas / conexoesTotais: estado atual
+     * - threadsAguardando: requisições na fila esperando conexão
+     * - aquisicoes / latenciaMediaAquisicaoMs / latenciaMaximaAquisicaoMs:
+     *   acumulados desde a inicialização
+     * - timeoutsAquisicao: esperas que excederam DB_POOL_CONNECTION_TIMEOUT_MS
+     * - replica: as mesmas métricas para o pool da réplica de leitura, ou
+     *   {"configurada": false} sem DB_REPLICA_URL
+     * 
+     * @return Mapa ordenado com as métricas do pool
+     */
+    public static Map<String, Object> getPoolStatistics() {
+        Map<String, Object> stats = poolStatistics(dataSource, poolMetrics);
+        if (stats.get("disponivel") == Boolean.TRUE) {
+            Map<String, Object> replica = replicaDataSource == null
+                    ? new LinkedHashMap<>(Map.of("configurada", false))
+                    : poolStatistics(replicaDataSource, replicaPoolMetrics);
+            stats.put("replica", replica);
+        }
+        return stats;
+    }
+    
+    private static Map<String, Object> poolStatistics(HikariDataSource pool, PoolMetricsTracker metrics) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (pool == null || pool.isClosed()) {
+            stats.put("disponivel", false);
+            return stats;
+        }
+        
+        stats.put("disponivel", true);
+        stats.put("nomePool", pool.getPoolName());
+        stats.put("tamanhoMaximo", pool.getMaximumPoolSize());
+        stats.put("minimoOcioso", pool.getMinimumIdle());
+        
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean != null) {
+            stats.put("conexoesAtivas", mxBean.getActiveConnections());
+            stats.put("conexoesOciosas", mxBean.getIdleConnections());
+            stats.put("conexoesTotais", mxBean.getTotalConnections());
+            stats.put("threadsAguardando", mxBean.getThreadsAwaitingConnection());
+        }
+        
+        stats.put("aquisicoes", metrics.getAcquireCount());
+        stats.put("latenciaMediaAquisicaoMs", metrics.getAcquireAverageMillis());
+        stats.put("latenciaMaximaAquisicaoMs", metrics.getAcquireMaxMillis());
+        stats.put("tempoMedioUsoMs", metrics.getUsageAverageMillis());
+        stats.put("tempoMaximoUsoMs", metrics.getUsageMaxMillis());
+        stats.put("timeoutsAquisicao", metrics.getTimeoutCount());
+        return stats;
+    }
+    
+    /**
+     * ESTATÍSTICAS DAS CONSULTAS NOMEADAS
+     * ===================================
+     * Tempos de criação da factory e de compilação das consultas nomeadas,
+     * e taxa de acerto do cache de planos do Hibernate
+     * (exposta em GET /api/monitoramento/consultas).
+     * 
+     * @return Mapa ordenado com as métricas das consultas
+     */
+    public static Map<String, Object> getQueryStatistics() {
+        if (namedQueries == null || !isEntityManagerFactoryOpen()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("disponivel", false);
+            return stats;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("disponivel", true);
+        stats.putAll(namedQueries.getStatistics());
+        return stats;
+    }
 }
-
@@ -0,0 +1,196 @@
+package com.unifae.med.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NAMEDQUERYREGISTRY - REGISTRO E VALIDAÇÃO DAS CONSULTAS NOMEADAS
+ * ================================================================
+ *
+ * As consultas fixas dos DAOs ficam declaradas nas entidades com
+ * {@code @NamedQuery} (nome no formato "Entidade.metodo") e são executadas
+ * com em.createNamedQuery(). Este registro é montado por JPAUtil logo após
+ * criar o EntityManagerFactory e:
+ *
+ * - Registra as consultas genéricas do GenericDAO para cada entidade do
+ *   metamodelo: "Entidade.findAll" e "Entidade.count"
+ * - Compila todas as consultas nomeadas (as declaradas e as genéricas),
+ *   medindo o tempo de interpretação de cada uma
+ * - Falha a inicialização se alguma consulta for inválida: JPQL com erro
+ *   derruba o deploy, e não a primeira requisição que a usar
+ *
+ * PLANOS PRÉ-COMPILADOS:
+ * Compilar a consulta guarda a interpretação do JPQL no cache de planos do
+ * Hibernate (hibernate.query.plan_cache_*). A primeira requisição após o
+ * deploy já encontra o plano pronto. As consultas com filtros opcionais
+ * (montadas com QueryFilter) continuam fora do registro e entram no mesmo
+ * cache na primeira execução de cada combinação de filtros.
+ *
+ * A validação nativa do Hibernate (hibernate.query.startup_check) fica
+ * desligada no persistence.xml porque este registro faz a mesma verificação
+ * e ainda mede o tempo de cada consulta.
+ *
+ * As estatísticas (tempos e taxa de acerto do cache de planos) são
+ * expostas em GET /api/monitoramento/consultas.
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class NamedQueryRegistry {
+
+    /**
+     * Sufixos dos nomes das consultas genéricas usadas pelo GenericDAO.
+     */
+    public static final String FIND_ALL = ".findAll";
+    public static final String COUNT = ".count";
+
+    /**
+     * Quantidade de consultas listadas como mais lentas nas estatísticas.
+     */
+    private static final int SLOWEST_LIMIT = 5;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final long factoryBuildNanos;
+    private final Map<String, Long> parseNanos = new LinkedHashMap<>();
+    private int declaredCount;
+    private int genericCount;
+
+    private NamedQueryRegistry(EntityManagerFactory entityManagerFactory, long factoryBuildNanos) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.factoryBuildNanos = factoryBuildNanos;
+    }
+
+    /**
+     * REGISTRAR E VALIDAR
+     * ===================
+     * Chamado uma única vez por JPAUtil na inicialização.
+     *
+     * @param emf Factory recém-criada
+     * @param factoryBuildNanos Tempo gasto na criação da factory
+     * @return Registro com os tempos de compilação
+     * @throws IllegalStateException com a lista de todas as consultas inválidas
+     */
+    static NamedQueryRegistry register(EntityManagerFactory emf, long factoryBuildNanos) {
+        NamedQueryRegistry registry = new NamedQueryRegistry(emf, factoryBuildNanos);
+        List<String> errors = new ArrayList<>();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<EntityType<?>> entities = new ArrayList<>(emf.getMetamodel().getEntities());
+            entities.sort(Comparator.comparing(EntityType::getName));
+
+            for (EntityType<?> entity : entities) {
+                String name = entity.getName();
+                registry.registerGeneric(em, name + FIND_ALL, "SELECT e FROM " + name + " e", entity.getJavaType(), errors);
+                registry.registerGeneric(em, name + COUNT, "SELECT COUNT(e) FROM " + name + " e", Long.class, errors);
+
+                for (NamedQuery declared : declaredQueries(entity.getJavaType())) {
+                    registry.compileDeclared(em, declared.name(), errors);
+                }
+            }
+        } finally {
+            em.close();
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Consultas nomeadas inválidas:\n" + String.join("\n", errors));
+        }
+
+        System.err.println("Consultas nomeadas: " + registry.parseNanos.size() + " compiladas em "
+                + toMillis(registry.totalParseNanos()) + " ms (factory criada em "
+                + toMillis(factoryBuildNanos) + " ms)");
+        return registry;
+    }
+
+    private void registerGeneric(EntityManager em, String name, String jpql, Class<?> resultType, List<String> errors) {
+        try {
+            long start = System.nanoTime();
+            Query query = em.createQuery(jpql, resultType);
+            parseNanos.put(name, System.nanoTime() - start);
+            entityManagerFactory.addNamedQuery(name, query);
+            genericCount++;
+        } catch (RuntimeException e) {
+            errors.add(name + ": " + e.getMessage());
+        }
+    }
+
+    private void compileDeclared(EntityManager em, String name, List<String> errors) {
+        try {
+            long start = System.nanoTime();
+            em.createNamedQuery(name);
+            parseNanos.put(name, System.nanoTime() - start);
+            declaredCount++;
+        } catch (RuntimeException e) {
+            errors.add(name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consultas declaradas na entidade, com @NamedQuery avulsa ou dentro de @NamedQueries.
+     */
+    private static List<NamedQuery> declaredQueries(Class<?> entityClass) {
+        List<NamedQuery> declared = new ArrayList<>();
+        NamedQueries group = entityClass.getAnnotation(NamedQueries.class);
+        if (group != null) {
+            declared.addAll(List.of(group.value()));
+        }
+        NamedQuery single = entityClass.getAnnotation(NamedQuery.class);
+        if (single != null) {
+            declared.add(single);
+        }
+        return declared;
+    }
+
+    /**
+     * ESTATÍSTICAS DAS CONSULTAS
+     * ==========================
+     * Tempos medidos na inicialização e contadores do cache de planos do
+     * Hibernate desde então (exigem hibernate.generate_statistics).
+     *
+     * @return Mapa com as métricas (ordem de inserção preservada no JSON)
+     */
+    Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("consultasNomeadas", declaredCount);
+        stats.put("consultasGenericas", genericCount);
+        stats.put("tempoCriacaoFactoryMs", toMillis(factoryBuildNanos));
+        stats.put("tempoCompilacaoMs", toMillis(totalParseNanos()));
+
+        Map<String, Object> slowest = new LinkedHashMap<>();
+        parseNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SLOWEST_LIMIT)
+                .forEach(entry -> slowest.put(entry.getKey(), toMillis(entry.getValue())));
+        stats.put("compilacoesMaisLentasMs", slowest);
+
+        Statistics hibernateStats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.put("estatisticasHabilitadas", hibernateStats.isStatisticsEnabled());
+        if (hibernateStats.isStatisticsEnabled()) {
+            long hits = hibernateStats.getQueryPlanCacheHitCount();
+            long misses = hibernateStats.getQueryPlanCacheMissCount();
+            stats.put("cachePlanosAcertos", hits);
+            stats.put("cachePlanosFalhas", misses);
+            stats.put("cachePlanosTaxaAcerto", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        }
+        return stats;
+    }
+
+    private long totalParseNanos() {
+        return parseNanos.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.unifae.med.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * POOLMETRICSTRACKER - MÉTRICAS DE AQUISIÇÃO DE CONEXÕES DO POOL
+ * ===============================================================
+ *
+ * Recebe do HikariCP os eventos de cada retirada de conexão e acumula
+ * contadores simples, sem dependência de bibliotecas de métricas externas.
+ *
+ * MÉTRICAS COLETADAS:
+ * - Quantidade de conexões obtidas e tempo total/máximo de espera (latência de aquisição)
+ * - Tempo total/máximo que as conexões ficaram emprestadas
+ * - Quantidade de timeouts (requisições que desistiram de esperar por conexão)
+ *
+ * Os contadores são lidos por JPAUtil.getPoolStatistics(), exposto em
+ * GET /api/monitoramento/pool.
+ *
+ * THREAD-SAFETY:
+ * Chamado concorrentemente por todas as threads que usam o pool; usa
+ * LongAdder/AtomicLong em vez de sincronização.
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public class PoolMetricsTracker implements IMetricsTracker {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final AtomicLong acquireMaxNanos = new AtomicLong();
+
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageTotalMillis = new LongAdder();
+    private final AtomicLong usageMaxMillis = new AtomicLong();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireCount.increment();
+        acquireTotalNanos.add(elapsedAcquiredNanos);
+        acquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageCount.increment();
+        usageTotalMillis.add(elapsedBorrowedMillis);
+        usageMaxMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeoutCount.increment();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * @return Latência média de aquisição em milissegundos (0 se nenhuma aquisição)
+     */
+    public double getAcquireAverageMillis() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0.0 : acquireTotalNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getAcquireMaxMillis() {
+        return acquireMaxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return Tempo médio em que uma conexão ficou emprestada, em milissegundos
+     */
+    public double getUsageAverageMillis() {
+        long count = usageCount.sum();
+        return count == 0 ? 0.0 : usageTotalMillis.sum() / (double) count;
+    }
+
+    public long getUsageMaxMillis() {
+        return usageMaxMillis.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+}
@@ -0,0 +1,390 @@
+package com.unifae.med.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+/**
+ * REGRARECORRENCIA - REGRA DE REPETIÇÃO DOS EVENTOS DA AGENDA
+ * ===========================================================
+ *
+ * Regra no formato RRULE do iCalendar (RFC 5545), com as partes usadas
+ * pela agenda, separadas por ";":
+ * - FREQ: DAILY (diária), WEEKLY (semanal) ou MONTHLY (mensal, no mesmo
+ *   dia do mês da primeira ocorrência; meses sem o dia são pulados)
+ * - INTERVAL: a cada quantos dias, semanas ou meses (padrão 1)
+ * - BYDAY: dias da semana das ocorrências semanais (MO,TU,WE,TH,FR,SA,SU);
+ *   sem BYDAY, o dia da semana da primeira ocorrência
+ * - UNTIL: última data (yyyyMMdd, o dia inteiro) ou data e hora
+ *   (yyyyMMddTHHmmss) em que pode começar uma ocorrência
+ * - COUNT: quantidade de ocorrências
+ *
+ * UNTIL ou COUNT é obrigatório (um dos dois): uma série sem fim não
+ * poderia ter todas as ocorrências verificadas contra conflitos de horário.
+ * A série tem no máximo MAX_OCORRENCIAS ocorrências.
+ *
+ * EXEMPLOS:
+ *   "FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261215"   segundas e quartas até 15/12
+ *   "FREQ=WEEKLY;INTERVAL=2;COUNT=8"           8 ocorrências, semana sim, semana não
+ *   "FREQ=DAILY;COUNT=5"                       5 dias seguidos
+ *
+ * A primeira ocorrência é a data de início do evento (o DTSTART do
+ * iCalendar) e todas começam no mesmo horário. Exceções (ocorrências
+ * canceladas ou alteradas) não fazem parte da regra: ficam em
+ * eventos_agenda_excecoes.
+ *
+ * EXPANSÃO SOB DEMANDA:
+ * inicios() gera só as ocorrências da janela pedida. Sem COUNT, a
+ * geração começa no período (dia, semana ou mês) da janela, sem percorrer
+ * a série desde o início; com COUNT (até MAX_OCORRENCIAS) é preciso contar
+ * desde a primeira.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - EventoAgenda.java: Coluna regra_recorrencia
+ * - OcorrenciasAgenda.java: Aplica as exceções sobre as ocorrências
+ * - EventoAgendaDAO.java: Valida a regra ao gravar e expande as séries nas
+ *   consultas por período
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class RegraRecorrencia {
+
+    /**
+     * Máximo de ocorrências de uma série (cerca de dois semestres de aulas
+     * diárias).
+     */
+    public static final int MAX_OCORRENCIAS = 1000;
+
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private static final Map<String, DayOfWeek> DIAS = new LinkedHashMap<>();
+
+    static {
+        DIAS.put("MO", DayOfWeek.MONDAY);
+        DIAS.put("TU", DayOfWeek.TUESDAY);
+        DIAS.put("WE", DayOfWeek.WEDNESDAY);
+        DIAS.put("TH", DayOfWeek.THURSDAY);
+        DIAS.put("FR", DayOfWeek.FRIDAY);
+        DIAS.put("SA", DayOfWeek.SATURDAY);
+        DIAS.put("SU", DayOfWeek.SUNDAY);
+    }
+
+    private enum Frequencia {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    private final Frequencia frequencia;
+    private final int intervalo;
+    private final Set<DayOfWeek> dias;
+    private final LocalDateTime ate;
+    private final Integer quantidade;
+
+    private RegraRecorrencia(Frequencia frequencia, int intervalo, Set<DayOfWeek> dias, LocalDateTime ate,
+            Integer quantidade) {
+        this.frequencia = frequencia;
+        this.intervalo = intervalo;
+        this.dias = dias;
+        this.ate = ate;
+        this.quantidade = quantidade;
+    }
+
+    /**
+     * INTERPRETAR REGRA
+     * =================
+     * @param regra Regra RRULE (com ou sem o prefixo "RRULE:")
+     * @return Regra interpretada
+     * @throws IllegalArgumentException se a regra é inválida, sem fim ou usa
+     *         partes não suportadas
+     */
+    public static RegraRecorrencia of(String regra) {
+        if (regra == null || regra.isBlank()) {
+            throw new IllegalArgumentException("Regra de recorrência vazia");
+        }
+        String texto = regra.trim().toUpperCase(Locale.ROOT);
+        if (texto.startsWith("RRULE:")) {
+            texto = texto.substring("RRULE:".length());
+        }
+        Map<String, String> partes = new LinkedHashMap<>();
+        for (String parte : texto.split(";")) {
+            if (parte.isBlank()) {
+                continue;
+            }
+            int igual = parte.indexOf('=');
+            if (igual <= 0 || partes.put(parte.substring(0, igual).trim(), parte.substring(igual + 1).trim()) != null) {
+                throw new IllegalArgumentException("Regra de recorrência inválida: " + regra);
+            }
+        }
+        try {
+            return interpretar(partes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Regra de recorrência inválida '" + regra + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static RegraRecorrencia interpretar(Map<String, String> partes) {
+        String freq = partes.remove("FREQ");
+        if (freq == null) {
+            throw new IllegalArgumentException("FREQ é obrigatório");
+        }
+        Frequencia frequencia;
+        try {
+            frequencia = Frequencia.valueOf(freq);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("FREQ deve ser DAILY, WEEKLY ou MONTHLY");
+        }
+        int intervalo = inteiro(partes.remove("INTERVAL"), "INTERVAL", 1, 1, 99);
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        String byday = partes.remove("BYDAY");
+        if (byday != null) {
+            if (frequencia != Frequencia.WEEKLY) {
+                throw new IllegalArgumentException("BYDAY só é aceito com FREQ=WEEKLY");
+            }
+            for (String dia : byday.split(",")) {
+                DayOfWeek diaSemana = DIAS.get(dia.trim());
+                if (diaSemana == null) {
+                    throw new IllegalArgumentException("dia da semana desconhecido em BYDAY: " + dia);
+                }
+                dias.add(diaSemana);
+            }
+        }
+        String until = partes.remove("UNTIL");
+        String count = partes.remove("COUNT");
+        if ((until == null) == (count == null)) {
+            throw new IllegalArgumentException("informe UNTIL ou COUNT (um dos dois)");
+        }
+        if (!partes.isEmpty()) {
+            throw new IllegalArgumentException("partes não suportadas: " + partes.keySet());
+        }
+        LocalDateTime ate = until == null ? null : dataLimite(until);
+        Integer quantidade = count == null ? null : inteiro(count, "COUNT", 0, 1, MAX_OCORRENCIAS);
+        return new RegraRecorrencia(frequencia, intervalo, dias, ate, quantidade);
+    }
+
+    private static int inteiro(String valor, String nome, int padrao, int minimo, int maximo) {
+        if (valor == null) {
+            return padrao;
+        }
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero >= minimo && numero <= maximo) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Mensagem abaixo
+        }
+        throw new IllegalArgumentException(nome + " deve estar entre " + minimo + " e " + maximo);
+    }
+
+    private static LocalDateTime dataLimite(String until) {
+        String valor = until.endsWith("Z") ? until.substring(0, until.length() - 1) : until;
+        try {
+            return valor.length() == 8
+                    ? LocalDate.parse(valor, DATA).atTime(LocalTime.MAX)
+                    : LocalDateTime.parse(valor, DATA_HORA);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("UNTIL deve ser yyyyMMdd ou yyyyMMddTHHmmss");
+        }
+    }
+
+    // ========================================
+    // OCORRÊNCIAS
+    // ========================================
+
+    /**
+     * OCORRÊNCIAS DE UMA JANELA
+     * =========================
+     * @param primeiro Início da primeira ocorrência (data de início do evento)
+     * @param de Início da janela (inclusive), ou null desde a primeira
+     * @param ate Fim da janela (exclusivo), ou null até a última
+     * @return Inícios das ocorrências na janela, em ordem
+     */
+    public List<LocalDateTime> inicios(LocalDateTime primeiro, LocalDateTime de, LocalDateTime ate) {
+        List<LocalDateTime> inicios = new ArrayList<>();
+        percorrer(primeiro, de, ate, inicios::add);
+        return inicios;
+    }
+
+    /**
+     * @return true se uma ocorrência da série começa em inicio
+     */
+    public boolean ocorre(LocalDateTime primeiro, LocalDateTime inicio) {
+        return !inicios(primeiro, inicio, inicio.plusNanos(1)).isEmpty();
+    }
+
+    /**
+     * ÚLTIMA OCORRÊNCIA
+     * =================
+     * Valida a série: a primeira ocorrência deve seguir a regra (ex: uma
+     * série às segundas começa numa segunda) e a série não pode passar de
+     * MAX_OCORRENCIAS.
+     *
+     * @param primeiro Início da primeira ocorrência
+     * @return Início da última ocorrência
+     * @throws IllegalArgumentException se a série não é válida
+     */
+    public LocalDateTime ultimoInicio(LocalDateTime primeiro) {
+        List<LocalDateTime> inicios = new ArrayList<>();
+        percorrer(primeiro, null, null, inicio -> inicios.add(inicio) && inicios.size() <= MAX_OCORRENCIAS);
+        if (inicios.isEmpty() || !inicios.get(0).equals(primeiro)) {
+            throw new IllegalArgumentException("A data de início (" + primeiro + ") não é uma ocorrência da regra "
+                    + this + ".");
+        }
+        if (inicios.size() > MAX_OCORRENCIAS) {
+            throw new IllegalArgumentException("A regra " + this + " gera mais de " + MAX_OCORRENCIAS
+                    + " ocorrências.");
+        }
+        return inicios.get(inicios.size() - 1);
+    }
+
+    /**
+     * Gera as ocorrências em ordem, período a período, até o fim da série,
+     * o fim da janela ou o visitante devolver false.
+     */
+    private void percorrer(LocalDateTime primeiro, LocalDateTime de, LocalDateTime ateJanela,
+            Predicate<LocalDateTime> visitante) {
+        LocalDate base = inicioPeriodo(primeiro.toLocalDate());
+        // Com COUNT a posição de cada ocorrência depende das anteriores: conta desde o início
+        long periodo = quantidade == null && de != null ? Math.max(0, periodos(base, de.toLocalDate())) : 0;
+        int geradas = 0;
+        List<LocalDate> datas = new ArrayList<>(7);
+        while (true) {
+            LocalDate inicioPeriodo = avancar(base, periodo);
+            if ((ate != null && inicioPeriodo.atStartOfDay().isAfter(ate))
+                    || (ateJanela != null && !inicioPeriodo.atStartOfDay().isBefore(ateJanela))) {
+                return;
+            }
+            datas.clear();
+            datasDoPeriodo(inicioPeriodo, primeiro.toLocalDate(), datas);
+            for (LocalDate data : datas) {
+                LocalDateTime inicio = data.atTime(primeiro.toLocalTime());
+                if (inicio.isBefore(primeiro)) {
+                    continue;
+                }
+                if ((ate != null && inicio.isAfter(ate)) || (quantidade != null && geradas >= quantidade)
+                        || (ateJanela != null && !inicio.isBefore(ateJanela))) {
+                    return;
+                }
+                geradas++;
+                if ((de == null || !inicio.isBefore(de)) && !visitante.test(inicio)) {
+                    return;
+                }
+            }
+            periodo++;
+        }
+    }
+
+    private LocalDate inicioPeriodo(LocalDate data) {
+        switch (frequencia) {
+            case WEEKLY:
+                return data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY:
+                return data.withDayOfMonth(1);
+            default:
+                return data;
+        }
+    }
+
+    /**
+     * Quantos períodos completos da regra há entre base e data.
+     */
+    private long periodos(LocalDate base, LocalDate data) {
+        switch (frequencia) {
+            case WEEKLY:
+                return ChronoUnit.WEEKS.between(base, data) / intervalo;
+            case MONTHLY:
+                return ChronoUnit.MONTHS.between(base, data.withDayOfMonth(1)) / intervalo;
+            default:
+                return ChronoUnit.DAYS.between(base, data) / intervalo;
+        }
+    }
+
+    private LocalDate avancar(LocalDate base, long periodo) {
+        switch (frequencia) {
+            case WEEKLY:
+                return base.plusWeeks(periodo * intervalo);
+            case MONTHLY:
+                return base.plusMonths(periodo * intervalo);
+            default:
+                return base.plusDays(periodo * intervalo);
+        }
+    }
+
+    private void datasDoPeriodo(LocalDate inicioPeriodo, LocalDate primeiro, List<LocalDate> datas) {
+        switch (frequencia) {
+            case WEEKLY:
+                if (dias.isEmpty()) {
+                    datas.add(inicioPeriodo.with(TemporalAdjusters.nextOrSame(primeiro.getDayOfWeek())));
+                } else {
+                    dias.forEach(dia -> datas.add(inicioPeriodo.with(TemporalAdjusters.nextOrSame(dia))));
+                }
+                break;
+            case MONTHLY:
+                if (primeiro.getDayOfMonth() <= inicioPeriodo.lengthOfMonth()) {
+                    datas.add(inicioPeriodo.withDayOfMonth(primeiro.getDayOfMonth()));
+                }
+                break;
+            default:
+                datas.add(inicioPeriodo);
+                break;
+        }
+    }
+
+    /**
+     * @return A regra na forma canônica (a gravada em regra_recorrencia)
+     */
+    @Override
+    public String toString() {
+        return formatar(false);
+    }
+
+    /**
+     * A regra para a propriedade RRULE de um calendário iCalendar: o UNTIL
+     * vai sempre com data e hora locais, como o DTSTART (RFC 5545).
+     *
+     * @return A regra no formato do iCalendar
+     */
+    public String paraICalendar() {
+        return formatar(true);
+    }
+
+    private String formatar(boolean untilComHora) {
+        StringJoiner regra = new StringJoiner(";");
+        regra.add("FREQ=" + frequencia);
+        if (intervalo != 1) {
+            regra.add("INTERVAL=" + intervalo);
+        }
+        if (!dias.isEmpty()) {
+            StringJoiner byday = new StringJoiner(",");
+            DIAS.forEach((sigla, dia) -> {
+                if (dias.contains(dia)) {
+                    byday.add(sigla);
+                }
+            });
+            regra.add("BYDAY=" + byday);
+        }
+        if (ate != null) {
+            regra.add("UNTIL=" + (ate.toLocalTime().equals(LocalTime.MAX) && !untilComHora
+                    ? ate.format(DATA) : ate.format(DATA_HORA)));
+        }
+        if (quantidade != null) {
+            regra.add("COUNT=" + quantidade);
+        }
+        return regra.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.unifae.med.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * SERIETEMPORAL - PERÍODOS E REDUÇÃO DE PONTOS PARA GRÁFICOS
+ * ==========================================================
+ *
+ * Funções usadas para montar séries de evolução (ex: notas de um aluno por
+ * competência ao longo do curso):
+ *
+ * PERÍODOS:
+ * Periodo.inicio() leva uma data ao primeiro dia do seu período: segunda-
+ * feira da semana (ISO), dia 1 do mês ou 1º de janeiro / 1º de julho do
+ * semestre. Datas com o mesmo início caem no mesmo ponto da série.
+ *
+ * REDUÇÃO (LTTB):
+ * Um gráfico de celular não mostra mais do que algumas dezenas de pontos.
+ * reduzir() escolhe até "limite" pontos da série pelo algoritmo Largest
+ * Triangle Three Buckets (Steinarsson, 2013): mantém o primeiro e o último
+ * ponto e, em cada faixa intermediária, o ponto que forma o maior triângulo
+ * com o ponto escolhido antes e a média da faixa seguinte. Ao contrário de
+ * pegar um ponto a cada n, preserva picos e quedas, que são o que o tutor
+ * procura na evolução. O(n), sem ordenar.
+ *
+ * RELACIONAMENTO COM OUTROS ARQUIVOS:
+ * - AvaliacaoPreenchidaDAO.java: Evolução do aluno por competência
+ *
+ * @author Sistema de Avaliação UNIFAE
+ * @version 1.0
+ */
+public final class SerieTemporal {
+
+    private SerieTemporal() {
+    }
+
+    /**
+     * Agrupamento dos pontos da série.
+     */
+    public enum Periodo {
+        SEMANA, MES, SEMESTRE;
+
+        /**
+         * @return Primeiro dia do período que contém a data
+         */
+        public LocalDate inicio(LocalDate data) {
+            switch (this) {
+                case SEMANA:
+                    return data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MES:
+                    return data.withDayOfMonth(1);
+                default:
+                    return LocalDate.of(data.getYear(), data.getMonthValue() <= 6 ? 1 : 7, 1);
+            }
+        }
+
+        /**
+         * @param valor "semana", "mes" ou "semestre" (sem diferenciar
+         *        maiúsculas)
+         * @throws IllegalArgumentException se o valor não é um período
+         */
+        public static Periodo of(String valor) {
+            String nome = valor.trim().toUpperCase(Locale.ROOT).replace("Ê", "E");
+            for (Periodo periodo : values()) {
+                if (periodo.name().equals(nome)) {
+                    return periodo;
+                }
+            }
+            throw new IllegalArgumentException("Agrupamento inválido: " + valor + " (use semana, mes ou semestre)");
+        }
+    }
+
+    /**
+     * REDUZIR SÉRIE (LTTB)
+     * ====================
+     * @param x Abscissas em ordem crescente (ex: dia do período)
+     * @param y Valores
+     * @param limite Quantidade máxima de pontos (a partir de 3; abaixo disso
+     *        ficam o primeiro e o último)
+     * @return Índices dos pontos mantidos, em ordem crescente (todos se a
+     *         série já cabe no limite)
+     */
+    public static int[] reduzir(double[] x, double[] y, int limite) {
+        int n = x.length;
+        if (n <= limite || n <= 2) {
+            int[] todos = new int[n];
+            for (int i = 0; i < n; i++) {
+                todos[i] = i;
+            }
+            return todos;
+        }
+        if (limite < 3) {
+            return limite <= 1 ? new int[] {n - 1} : new int[] {0, n - 1};
+        }
+
+        int[] escolhidos = new int[limite];
+        int quantidade = 0;
+        escolhidos[quantidade++] = 0;
+        // Pontos entre o primeiro e o último, divididos em limite - 2 faixas
+        double largura = (double) (n - 2) / (limite - 2);
+        int anterior = 0;
+        for (int faixa = 0; faixa < limite - 2; faixa++) {
+            int inicio = (int) Math.floor(faixa * largura) + 1;
+            int fim = Math.min((int) Math.floor((faixa + 1) * largura) + 1, n - 1);
+
+            // Média da faixa seguinte (o último ponto, na última faixa)
+            int inicioSeguinte = fim;
+            int fimSeguinte = Math.min((int) Math.floor((faixa + 2) * largura) + 1, n);
+            if (faixa == limite - 3) {
+                inicioSeguinte = n - 1;
+                fimSeguinte = n;
+            }
+            double mediaX = 0;
+            double mediaY = 0;
+            for (int i = inicioSeguinte; i < fimSeguinte; i++) {
+                mediaX += x[i];
+                mediaY += y[i];
+            }
+            mediaX /= fimSeguinte - inicioSeguinte;
+            mediaY /= fimSeguinte - inicioSeguinte;
+
+            int melhor = inicio;
+            double maiorArea = -1;
+            for (int i = inicio; i < fim; i++) {
+                // Dobro da área do triângulo (anterior, i, média seguinte)
+                double area = Math.abs((x[anterior] - mediaX) * (y[i] - y[anterior])
+                        - (x[anterior] - x[i]) * (mediaY - y[anterior]));
+                if (area > maiorArea) {
+                    maiorArea = area;
+                    melhor = i;
+                }
+            }
+            escolhidos[quantidade++] = melhor;
+            anterior = melhor;
+        }
+        escolhidos[quantidade++] = n - 1;
+        return escolhidos;
+    }
+}
@@ -0,0 +1,247 @@
+<%--
+* =================================================================================
+* NOME DO ARQUIVO: boletim.jsp
+* ---------------------------------------------------------------------------------
+* DESCRIÇÃO:
+* Boletim de uma turma: uma linha por aluno, uma coluna por disciplina, com a média
+* ponderada do aluno na disciplina e a situação (aprovado ou não). O rodapé mostra,
+* por disciplina, a média da turma e quantos alunos estão aprovados.
+* ---------------------------------------------------------------------------------
+* LIGAÇÕES COM OUTROS ARQUIVOS:
+*
+* - CONTROLLER: NotaServlet ("/admin/notas?action=boletim&turmaId=N").
+*
+* - MODEL: Atributos da requisição:
+* - "boletim": BoletimTurmaDTO, montado por NotaDAO.gerarBoletimTurma() com uma
+* única consulta. Ausente enquanto nenhuma turma foi escolhida.
+* - "listTurmas": Turmas ativas para o seletor.
+*
+* Em "boletim.alunos", a lista "medias" de cada aluno está alinhada com
+* "boletim.disciplinas" (mesma posição = mesma disciplina); a posição é nula quando
+* o aluno não tem notas na disciplina.
+* =================================================================================
+--%>
+<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<!DOCTYPE html>
+<html>
+    <head>
+        <title>Boletim da Turma - Sistema UNIFAE</title>
+        <meta charset="UTF-8">
+        <meta name="viewport" content="width=device-width, initial-scale=1.0">
+        <link rel="stylesheet" href="${pageContext.request.contextPath}/css/formularios.css">
+        <style>
+            .page-header {
+                background-color: #28a745;
+                color: white;
+                padding: 20px;
+                margin-bottom: 20px;
+                border-radius: 8px;
+                display: flex;
+                justify-content: space-between;
+                align-items: center;
+            }
+            .btn-back {
+                background-color: #6c757d;
+                color: white;
+                padding: 10px 20px;
+                text-decoration: none;
+                border-radius: 5px;
+                font-weight: 500;
+            }
+            .search-section {
+                background-color: #f8f9fa;
+                padding: 15px;
+                border-radius: 5px;
+                margin-bottom: 20px;
+            }
+            .search-form {
+                display: flex;
+                gap: 10px;
+                align-items: center;
+                flex-wrap: wrap;
+            }
+            .search-input {
+                padding: 8px 12px;
+                border: 1px solid #ddd;
+                border-radius: 4px;
+                min-width: 250px;
+            }
+            .btn-search {
+                background-color: #6f42c1;
+                color: white;
+                padding: 8px 16px;
+                border: none;
+                border-radius: 4px;
+                cursor: pointer;
+            }
+            .table-container {
+                background-color: white;
+                border-radius: 8px;
+                overflow-x: auto;
+                box-shadow: 0 2px 4px rgba(0,0,0,0.1);
+            }
+            .data-table {
+                width: 100%;
+                border-collapse: collapse;
+            }
+            .data-table th {
+                background-color: #f8f9fa;
+                padding: 12px;
+                text-align: left;
+                border-bottom: 2px solid #dee2e6;
+                font-weight: 600;
+            }
+            .data-table td {
+                padding: 12px;
+                border-bottom: 1px solid #dee2e6;
+            }
+            .data-table tr:hover {
+                background-color: #f8f9fa;
+            }
+            .data-table tfoot td {
+                background-color: #f8f9fa;
+                font-weight: 600;
+                border-top: 2px solid #dee2e6;
+            }
+            .nota-badge {
+                padding: 4px 8px;
+                border-radius: 4px;
+                font-size: 14px;
+                font-weight: bold;
+                min-width: 40px;
+                text-align: center;
+                display: inline-block;
+            }
+            .nota-aprovado {
+                background-color: #d4edda;
+                color: #155724;
+            }
+            .nota-reprovado {
+                background-color: #f8d7da;
+                color: #721c24;
+            }
+            .disciplina-codigo, .aluno-matricula {
+                font-size: 11px;
+                color: #6c757d;
+            }
+            .sem-nota {
+                color: #adb5bd;
+            }
+            .empty-state {
+                text-align: center;
+                padding: 40px;
+                color: #6c757d;
+            }
+        </style>
+    </head>
+    <body>
+        <div class="page-header">
+            <div>
+                <h1>📋 Boletim da Turma</h1>
+                <p>
+                    <c:choose>
+                        <c:when test="${not empty boletim}">
+                            <strong>${boletim.nomeTurma}</strong> (${boletim.codigoTurma}) —
+                            ${boletim.alunos.size()} aluno(s), ${boletim.quantidadeNotas} nota(s) ativas,
+                            média para aprovação ${boletim.mediaAprovacao}
+                        </c:when>
+                        <c:otherwise>Escolha uma turma para ver as médias dos alunos</c:otherwise>
+                    </c:choose>
+                </p>
+            </div>
+            <div>
+                <a href="${pageContext.request.contextPath}/admin/notas" class="btn-back">
+                    ⬅️ Voltar para Notas
+                </a>
+            </div>
+        </div>
+
+        <div class="search-section">
+            <form class="search-form" method="get" action="${pageContext.request.contextPath}/admin/notas">
+                <input type="hidden" name="action" value="boletim">
+                <select name="turmaId" class="search-input" required>
+                    <option value="">Selecione a turma</option>
+                    <c:forEach var="turma" items="${listTurmas}">
+                        <option value="${turma.idTurma}" ${param.turmaId == turma.idTurma ? 'selected' : ''}>
+                            ${turma.nomeTurma} (${turma.codigoTurma})
+                        </option>
+                    </c:forEach>
+                </select>
+                <button type="submit" class="btn-search">📋 Gerar Boletim</button>
+            </form>
+        </div>
+
+        <c:if test="${not empty boletim}">
+            <div class="table-container">
+                <c:choose>
+                    <c:when test="${empty boletim.alunos}">
+                        <div class="empty-state">
+                            <h3>📋 Nenhuma nota ativa nesta turma</h3>
+                            <p>Lance notas com a turma informada para que apareçam no boletim.</p>
+                        </div>
+                    </c:when>
+                    <c:otherwise>
+                        <table class="data-table">
+                            <thead>
+                                <tr>
+                                    <th>Aluno</th>
+                                    <c:forEach var="disciplina" items="${boletim.disciplinas}">
+                                        <th>
+                                            ${disciplina.nomeDisciplina}<br>
+                                            <span class="disciplina-codigo">${disciplina.codigoDisciplina}</span>
+                                        </th>
+                                    </c:forEach>
+                                    <th>Média Geral</th>
+                                    <th>Aprovações</th>
+                                </tr>
+                            </thead>
+                            <tbody>
+                                <c:forEach var="aluno" items="${boletim.alunos}">
+                                    <tr>
+                                        <td>
+                                            <strong>${aluno.nomeAluno}</strong><br>
+                                            <span class="aluno-matricula">${aluno.matriculaRA}</span>
+                                        </td>
+                                        <c:forEach var="media" items="${aluno.medias}">
+                                            <td>
+                                                <c:choose>
+                                                    <c:when test="${empty media}">
+                                                        <span class="sem-nota">—</span>
+                                                    </c:when>
+                                                    <c:otherwise>
+                                                        <span class="nota-badge ${media.aprovado ? 'nota-aprovado' : 'nota-reprovado'}"
+                                                              title="${media.quantidadeNotas} nota(s)">
+                                                            ${media.media}
+                                                        </span>
+                                                    </c:otherwise>
+                                                </c:choose>
+                                            </td>
+                                        </c:forEach>
+                                        <td>${aluno.mediaGeral}</td>
+                                        <td>${aluno.disciplinasAprovadas}</td>
+                                    </tr>
+                                </c:forEach>
+                            </tbody>
+                            <tfoot>
+                                <tr>
+                                    <td>Média da turma / aprovados</td>
+                                    <c:forEach var="disciplina" items="${boletim.disciplinas}">
+                                        <td>
+                                            ${disciplina.mediaTurma}<br>
+                                            <span class="disciplina-codigo">
+                                                ${disciplina.quantidadeAprovados} de ${disciplina.quantidadeAlunos}
+                                            </span>
+                                        </td>
+                                    </c:forEach>
+                                    <td></td>
+                                    <td></td>
+                                </tr>
+                            </tfoot>
+                        </table>
+                    </c:otherwise>
+                </c:choose>
+            </div>
+        </c:if>
+    </body>
+</html>
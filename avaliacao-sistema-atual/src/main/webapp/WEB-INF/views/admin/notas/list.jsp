@@ -331,6 +331,9 @@
                 <a href="${pageContext.request.contextPath}/admin/notas?action=new" class="btn-new">
                     ➕ Nova Nota
                 </a>
+                <a href="${pageContext.request.contextPath}/admin/notas?action=boletim" class="btn-relatorio">
+                    📋 Boletim da Turma
+                </a>
             </div>
         </div>
 
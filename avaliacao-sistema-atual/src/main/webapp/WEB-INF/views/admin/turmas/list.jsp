@@ -349,6 +349,9 @@
                                             
                                             <%-- Link para vincular disciplinas e professores na turma escolhida. --%>
                                             <a href="${pageContext.request.contextPath}/admin/gerenciar-disciplinas-turma?idTurma=${turma.idTurma}" class="btn-action" style="background-color: #17a2b8; color: white;" title="Disciplinas da Turma">🔗 Disciplinas</a>
+
+                                            <%-- Link para o boletim: médias dos alunos da turma em todas as disciplinas. --%>
+                                            <a href="${pageContext.request.contextPath}/admin/notas?action=boletim&turmaId=${turma.idTurma}" class="btn-action" style="background-color: #28a745; color: white;" title="Boletim da Turma">📋 Boletim</a>
                                             
                                             <%-- Link para excluir: passa a ação 'delete' e o ID. Um script JS adiciona uma confirmação de segurança. --%>
                                             <a href="turmas?action=delete&id=${turma.idTurma}" class="btn-action btn-delete" title="Excluir">🗑️ Excluir</a>
@@ -26,6 +26,7 @@
 * - "eventosPorDia": Uma estrutura de dados (provavelmente um Map<LocalDate, List<Evento>>) que
 * mapeia cada dia a uma lista de seus eventos.
 * - "totalEventos": Um contador com o total de eventos no mês.
+* - "filtrosCalendario": Filtros da URL (ex: "&turmaId=3"), mantidos nos links de mês.
 *
 * - OUTRAS VIEWS (Outras Visões):
 * - Contém links para a visualização em lista ("/agenda") e para o formulário de
@@ -405,7 +406,7 @@
                 <div class="calendar-header">
                     <div class="calendar-nav">
                         <%-- Link para o mês anterior. A EL calcula o mês e o ano corretos, tratando a virada de ano (Janeiro -> Dezembro do ano anterior). --%>
-                        <a href="?action=calendar&mes=${mes == 1 ? 12 : mes - 1}&ano=${mes == 1 ? ano - 1 : ano}">‹ Anterior</a>
+                        <a href="?action=calendar&mes=${mes == 1 ? 12 : mes - 1}&ano=${mes == 1 ? ano - 1 : ano}${filtrosCalendario}">‹ Anterior</a>
                     </div>
                     <div class="calendar-title">
                         <%-- Converte o número do mês para o nome por extenso. --%>
@@ -419,7 +420,7 @@
                     </div>
                     <div class="calendar-nav">
                         <%-- Link para o próximo mês. A EL trata a virada de ano (Dezembro -> Janeiro do próximo ano). --%>
-                        <a href="?action=calendar&mes=${mes == 12 ? 1 : mes + 1}&ano=${mes == 12 ? ano + 1 : ano}">Próximo ›</a>
+                        <a href="?action=calendar&mes=${mes == 12 ? 1 : mes + 1}&ano=${mes == 12 ? ano + 1 : ano}${filtrosCalendario}">Próximo ›</a>
                     </div>
                 </div>
 
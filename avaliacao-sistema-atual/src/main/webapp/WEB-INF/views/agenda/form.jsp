@@ -310,6 +310,16 @@
                                        value="${evento.dataFim != null ? evento.dataFim.format(DateTimeFormatter.ofPattern('yyyy-MM-dd\'T\'HH:mm')) : ''}">
                             </div>
                         </div>
+                        <%--
+                            Regra de recorrência (opcional): o evento é gravado uma vez e repetido pela regra,
+                            a partir da data de início. Ex: FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261211 (toda
+                            segunda e quarta até 11/12/2026) ou FREQ=DAILY;COUNT=5.
+                        --%>
+                        <div class="form-group">
+                            <label for="regraRecorrencia">Repetição:</label>
+                            <input type="text" id="regraRecorrencia" name="regraRecorrencia" value="${evento.regraRecorrencia}"
+                                   placeholder="Ex: FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261211 (deixe vazio para evento único)">
+                        </div>
                     </div>
 
                     <%-- Cada um destes seletores é populado por uma lista enviada pelo servlet e usa EL para pré-selecionar o valor correto no modo de edição. --%>
@@ -20,7 +20,7 @@
 *
 * - MODEL (Modelo de Dados):
 * Recebe um conjunto rico de dados da servlet através de atributos na requisição:
-* - "eventos": Uma lista de objetos 'Evento' filtrada para popular a tabela.
+* - "eventos": Uma lista de 'EventoAgendaResumoDTO' (projeção com os nomes já resolvidos) filtrada para popular a tabela.
 * - "tiposEvento", "statusEvento": Coleções dos Enums correspondentes para preencher os seletores de filtro.
 * A página também lê parâmetros da URL (usando o objeto implícito 'param') para
 * manter o estado dos filtros e para exibir mensagens de sucesso após uma ação.
@@ -387,12 +387,12 @@
                                     <td><span class="status-badge status-${evento.statusEvento.name().toLowerCase()}">${evento.statusEvento.descricao}</span></td>
                                         <%--
                                             Para campos de relacionamento (Local, Responsável etc.), o <c:choose> verifica
-                                            se o objeto relacionado não é nulo antes de tentar exibir seu nome, evitando erros.
+                                            se o nome veio preenchido (a projeção usa LEFT JOIN: nulo quando não há associação).
                                         --%>
-                                    <td><c:choose><c:when test="${evento.localEvento != null}">${evento.localEvento.nomeLocal}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
-                                    <td><c:choose><c:when test="${evento.responsavel != null}">${evento.responsavel.nomeCompleto}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
-                                    <td><c:choose><c:when test="${evento.disciplina != null}">${evento.disciplina.nomeDisciplina}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
-                                    <td><c:choose><c:when test="${evento.turma != null}">${evento.turma.nomeTurma}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
+                                    <td><c:choose><c:when test="${not empty evento.nomeLocal}">${evento.nomeLocal}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
+                                    <td><c:choose><c:when test="${not empty evento.nomeResponsavel}">${evento.nomeResponsavel}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
+                                    <td><c:choose><c:when test="${not empty evento.nomeDisciplina}">${evento.nomeDisciplina}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
+                                    <td><c:choose><c:when test="${not empty evento.nomeTurma}">${evento.nomeTurma}</c:when><c:otherwise><span style="color: #999;">-</span></c:otherwise></c:choose></td>
                                             <td>
                                         <%--
                                             Ações contextuais: os botões para mudar o status do evento são exibidos
@@ -408,7 +408,15 @@
                                                 <a href="agenda?action=changeStatus&idEvento=${evento.idEvento}&status=CONCLUIDO" class="btn" title="Concluir Evento" onclick="return confirm('Concluir este evento?')">✅</a>
                                             </c:if>
                                             <c:if test="${evento.statusEvento == 'AGENDADO' || evento.statusEvento == 'EM_ANDAMENTO'}">
-                                                <a href="agenda?action=changeStatus&idEvento=${evento.idEvento}&status=CANCELADO" class="btn" title="Cancelar Evento" onclick="return confirm('Cancelar este evento?')">❌</a>
+                                                <%-- Numa série expandida, cancela só a ocorrência da linha. --%>
+                                                <c:choose>
+                                                    <c:when test="${not empty evento.dataOcorrencia}">
+                                                        <a href="agenda?action=cancelOccurrence&idEvento=${evento.idEvento}&dataOcorrencia=${evento.dataOcorrencia}" class="btn" title="Cancelar esta ocorrência" onclick="return confirm('Cancelar apenas esta ocorrência?')">❌</a>
+                                                    </c:when>
+                                                    <c:otherwise>
+                                                        <a href="agenda?action=changeStatus&idEvento=${evento.idEvento}&status=CANCELADO" class="btn" title="Cancelar Evento" onclick="return confirm('Cancelar este evento?')">❌</a>
+                                                    </c:otherwise>
+                                                </c:choose>
                                             </c:if>
                                             <a href="agenda?action=delete&idEvento=${evento.idEvento}" class="btn btn-danger" title="Excluir" onclick="return confirm('Tem certeza que deseja excluir este evento?\n\nEsta ação não pode ser desfeita.')">🗑️</a>
                                         </div>
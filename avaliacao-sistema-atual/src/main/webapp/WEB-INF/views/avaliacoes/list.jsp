@@ -236,34 +236,34 @@
                                     <td>
 
                                         <c:choose>
-                                            <c:when test="${avaliacao.questionario.nomeModelo == 'Mini CEX'}">
+                                            <c:when test="${avaliacao.nomeQuestionario == 'Mini CEX'}">
 
-                                                📝 ${avaliacao.questionario.nomeModelo}
+                                                📝 ${avaliacao.nomeQuestionario}
 
                                             </c:when>
 
-                                            <c:when test="${avaliacao.questionario.nomeModelo.contains('Professor')}">
+                                            <c:when test="${avaliacao.nomeQuestionario.contains('Professor')}">
 
-                                                🎯 ${avaliacao.questionario.nomeModelo}
+                                                🎯 ${avaliacao.nomeQuestionario}
 
                                             </c:when>
-                                            <c:when test="${avaliacao.questionario.nomeModelo.contains('Pares')}">
+                                            <c:when test="${avaliacao.nomeQuestionario.contains('Pares')}">
 
-                                                👥 ${avaliacao.questionario.nomeModelo}
+                                                👥 ${avaliacao.nomeQuestionario}
 
                                             </c:when>
-                                            <c:when test="${avaliacao.questionario.nomeModelo.contains('Equipe')}">
+                                            <c:when test="${avaliacao.nomeQuestionario.contains('Equipe')}">
 
-                                                ⚕️ ${avaliacao.questionario.nomeModelo}
+                                                ⚕️ ${avaliacao.nomeQuestionario}
                                             </c:when>
-                                            <c:when test="${avaliacao.questionario.nomeModelo.contains('Paciente')}">
+                                            <c:when test="${avaliacao.nomeQuestionario.contains('Paciente')}">
 
-                                                🩺 ${avaliacao.questionario.nomeModelo}
+                                                🩺 ${avaliacao.nomeQuestionario}
                                             </c:when>
 
 
                                             <c:otherwise>
-                                                📋 ${avaliacao.questionario.nomeModelo}
+                                                📋 ${avaliacao.nomeQuestionario}
 
 
                                             </c:otherwise>
@@ -271,13 +271,13 @@
                                     </td>
 
 
-                                    <td>${avaliacao.alunoAvaliado.nomeCompleto}</td>
+                                    <td>${avaliacao.nomeAlunoAvaliado}</td>
                                     <td>
                                         <c:choose>
 
 
-                                            <c:when test="${not empty avaliacao.avaliador}">
-                                                ${avaliacao.avaliador.nomeCompleto}
+                                            <c:when test="${not empty avaliacao.nomeAvaliador}">
+                                                ${avaliacao.nomeAvaliador}
 
 
                                             </c:when>
@@ -317,7 +317,7 @@
                                         <c:choose>
 
 
-                                            <c:when test="${not empty avaliacao.respostasItens}">
+                                            <c:when test="${avaliacao.respondida}">
                                                 <span class="status realizada">✅ Realizada</span>
 
 
@@ -0,0 +1,66 @@
+package com.unifae.med.dao;
+
+import com.unifae.med.util.ArvoreIntervalos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários dos conflitos do IndiceConflitosAgenda.
+ * 
+ * Valida a lista de eventos que ocupam um horário a partir da árvore de um
+ * local, sem banco: uma série tem um intervalo por ocorrência, todos com o
+ * mesmo ID.
+ * 
+ * Execute com: mvn test -Dtest="IndiceConflitosAgendaTest"
+ */
+@DisplayName("Testes Unitários: IndiceConflitosAgenda")
+class IndiceConflitosAgendaTest {
+
+    private static final LocalDateTime SEGUNDA = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    private ArvoreIntervalos<Integer> arvore;
+
+    @BeforeEach
+    void setUp() {
+        arvore = new ArvoreIntervalos<>(Comparator.naturalOrder());
+        // Série 1 (duas ocorrências semanais) e evento 2 entre elas
+        arvore.inserir(SEGUNDA.plusHours(8), SEGUNDA.plusHours(10), 1);
+        arvore.inserir(SEGUNDA.plusDays(3).plusHours(14), SEGUNDA.plusDays(3).plusHours(16), 2);
+        arvore.inserir(SEGUNDA.plusWeeks(1).plusHours(8), SEGUNDA.plusWeeks(1).plusHours(10), 1);
+    }
+
+    @Test
+    @DisplayName("Série editada não deve conflitar com as próprias ocorrências")
+    void testConflitos_QuandoDuasOcorrenciasDoEventoEditado_DeveIgnorarTodas() {
+        // Act
+        List<Integer> ids = IndiceConflitosAgenda.conflitos(arvore, SEGUNDA, SEGUNDA.plusWeeks(2), 1);
+
+        // Assert
+        assertEquals(List.of(2), ids);
+    }
+
+    @Test
+    @DisplayName("Série com duas ocorrências no horário deve aparecer uma vez")
+    void testConflitos_QuandoDuasOcorrenciasDeOutroEvento_DeveRetornarUmaVez() {
+        // Act
+        List<Integer> ids = IndiceConflitosAgenda.conflitos(arvore, SEGUNDA, SEGUNDA.plusWeeks(2), 3);
+
+        // Assert
+        assertEquals(List.of(1, 2), ids);
+    }
+
+    @Test
+    @DisplayName("Sem eventos no horário não deve haver conflitos")
+    void testConflitos_QuandoHorarioLivre_DeveRetornarVazio() {
+        // Act & Assert
+        assertTrue(IndiceConflitosAgenda.conflitos(arvore, SEGUNDA.plusHours(10), SEGUNDA.plusHours(12), null).isEmpty());
+    }
+}
@@ -0,0 +1,206 @@
+package com.unifae.med.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários da ArvoreIntervalos.
+ * 
+ * Valida a sobreposição de intervalos semiabertos [inicio, fim), o maior
+ * fim guardado em cada subárvore depois de inclusões e remoções e o filtro
+ * usado pelo índice de conflitos da agenda.
+ * 
+ * Execute com: mvn test -Dtest="ArvoreIntervalosTest"
+ */
+@DisplayName("Testes Unitários: ArvoreIntervalos")
+class ArvoreIntervalosTest {
+
+    private static final LocalDateTime DIA = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    private ArvoreIntervalos<Integer> arvore;
+
+    @BeforeEach
+    void setUp() {
+        arvore = new ArvoreIntervalos<>(Comparator.naturalOrder());
+    }
+
+    private static LocalDateTime hora(int hora) {
+        return DIA.plusHours(hora);
+    }
+
+    // ========================================
+    // TESTES DE INTERVALOS SEMIABERTOS
+    // ========================================
+
+    @Test
+    @DisplayName("Intervalos encostados não devem conflitar")
+    void testSobrepostos_QuandoIntervalosEncostados_NaoDeveConflitar() {
+        // Arrange
+        arvore.inserir(hora(8), hora(10), 1);
+        arvore.inserir(hora(12), hora(14), 2);
+
+        // Act & Assert
+        assertTrue(arvore.sobrepostos(hora(10), hora(12)).isEmpty());
+        assertFalse(arvore.existeSobreposto(hora(10), hora(12), v -> true));
+        assertTrue(arvore.sobrepostos(hora(14), hora(16)).isEmpty());
+        assertTrue(arvore.sobrepostos(hora(6), hora(8)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Um minuto de sobreposição deve conflitar")
+    void testSobrepostos_QuandoUmMinutoDeSobreposicao_DeveConflitar() {
+        // Arrange
+        arvore.inserir(hora(8), hora(10), 1);
+
+        // Act & Assert
+        assertEquals(List.of(1), arvore.sobrepostos(hora(10).minusMinutes(1), hora(12)));
+        assertEquals(List.of(1), arvore.sobrepostos(hora(6), hora(8).plusMinutes(1)));
+        assertEquals(List.of(1), arvore.sobrepostos(hora(8), hora(10)));
+        assertEquals(List.of(1), arvore.sobrepostos(hora(9), hora(9).plusMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("Sobrepostos devem vir na ordem de início")
+    void testSobrepostos_QuandoVarios_DeveRetornarEmOrdemDeInicio() {
+        // Arrange
+        arvore.inserir(hora(11), hora(13), 3);
+        arvore.inserir(hora(7), hora(9), 1);
+        arvore.inserir(hora(9), hora(12), 2);
+        arvore.inserir(hora(13), hora(15), 4);
+
+        // Act
+        List<Integer> valores = arvore.sobrepostos(hora(8), hora(13));
+
+        // Assert
+        assertEquals(List.of(1, 2, 3), valores);
+    }
+
+    @Test
+    @DisplayName("Ocorrências do mesmo valor devem vir uma vez cada")
+    void testSobrepostos_QuandoDuasOcorrenciasDoMesmoValor_DeveRetornarAmbas() {
+        // Arrange
+        arvore.inserir(hora(8), hora(9), 1);
+        arvore.inserir(hora(10), hora(11), 2);
+        arvore.inserir(hora(12), hora(13), 1);
+
+        // Act
+        List<Integer> valores = arvore.sobrepostos(hora(8), hora(14));
+
+        // Assert
+        assertEquals(List.of(1, 2, 1), valores);
+    }
+
+    @Test
+    @DisplayName("Intervalo vazio ou invertido deve lançar exceção")
+    void testInserir_QuandoIntervaloVazio_DeveLancarExcecao() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> arvore.inserir(hora(8), hora(8), 1));
+        assertThrows(IllegalArgumentException.class, () -> arvore.inserir(hora(9), hora(8), 1));
+        assertEquals(0, arvore.tamanho());
+    }
+
+    // ========================================
+    // TESTES DE INCLUSÃO E REMOÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Mesmo valor no mesmo intervalo deve ser um único elemento")
+    void testInserir_QuandoRepetido_DeveRetornarFalse() {
+        // Arrange
+        assertTrue(arvore.inserir(hora(8), hora(10), 1));
+
+        // Act & Assert
+        assertFalse(arvore.inserir(hora(8), hora(10), 1));
+        assertTrue(arvore.inserir(hora(8), hora(10), 2));
+        assertEquals(2, arvore.tamanho());
+    }
+
+    @Test
+    @DisplayName("Remover intervalo longo deve atualizar o maior fim")
+    void testRemover_QuandoIntervaloMaisLongo_DeveAtualizarMaiorFim() {
+        // Arrange
+        arvore.inserir(hora(1), hora(23), 1);
+        for (int h = 2; h <= 8; h++) {
+            arvore.inserir(hora(h), hora(h).plusMinutes(30), h);
+        }
+        assertEquals(List.of(1), arvore.sobrepostos(hora(20), hora(21)));
+
+        // Act
+        assertTrue(arvore.remover(hora(1), hora(23), 1));
+
+        // Assert
+        assertTrue(arvore.sobrepostos(hora(20), hora(21)).isEmpty());
+        assertEquals(List.of(5), arvore.sobrepostos(hora(5), hora(6)));
+        assertFalse(arvore.remover(hora(1), hora(23), 1));
+        assertEquals(7, arvore.tamanho());
+    }
+
+    @Test
+    @DisplayName("Remover com fim diferente não deve remover o intervalo")
+    void testRemover_QuandoFimDiferente_DeveRetornarFalse() {
+        // Arrange
+        arvore.inserir(hora(8), hora(10), 1);
+
+        // Act & Assert
+        assertFalse(arvore.remover(hora(8), hora(11), 1));
+        assertEquals(List.of(1), arvore.sobrepostos(hora(9), hora(10)));
+    }
+
+    @Test
+    @DisplayName("Operações aleatórias devem coincidir com a busca linear")
+    void testOperacoesAleatorias_DevemCoincidirComBuscaLinear() {
+        // Arrange
+        Random aleatorio = new Random(23);
+        List<long[]> referencia = new ArrayList<>();
+
+        // Act & Assert
+        for (int passo = 0; passo < 3000; passo++) {
+            if (!referencia.isEmpty() && aleatorio.nextInt(3) == 0) {
+                long[] removido = referencia.remove(aleatorio.nextInt(referencia.size()));
+                assertTrue(arvore.remover(DIA.plusMinutes(removido[0]), DIA.plusMinutes(removido[1]), (int) removido[2]));
+            } else {
+                long inicio = aleatorio.nextInt(2000);
+                long fim = inicio + 1 + aleatorio.nextInt(aleatorio.nextInt(10) == 0 ? 600 : 60);
+                arvore.inserir(DIA.plusMinutes(inicio), DIA.plusMinutes(fim), passo);
+                referencia.add(new long[]{inicio, fim, passo});
+            }
+            long inicio = aleatorio.nextInt(2000);
+            long fim = inicio + 1 + aleatorio.nextInt(120);
+            List<Integer> esperados = referencia.stream()
+                    .filter(r -> r[0] < fim && inicio < r[1])
+                    .sorted(Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> r[1]).thenComparingLong(r -> r[2]))
+                    .map(r -> (int) r[2])
+                    .toList();
+            assertEquals(esperados, arvore.sobrepostos(DIA.plusMinutes(inicio), DIA.plusMinutes(fim)));
+            assertEquals(referencia.size(), arvore.tamanho());
+        }
+    }
+
+    // ========================================
+    // TESTES DE FILTRO
+    // ========================================
+
+    @Test
+    @DisplayName("Filtro deve ignorar o próprio evento ao remarcar")
+    void testExisteSobreposto_QuandoFiltroExcluiProprioEvento_DeveIgnorar() {
+        // Arrange
+        arvore.inserir(hora(8), hora(10), 1);
+        arvore.inserir(hora(11), hora(12), 2);
+
+        // Act & Assert
+        assertFalse(arvore.existeSobreposto(hora(8).plusMinutes(30), hora(10).plusMinutes(30), v -> v != 1));
+        assertTrue(arvore.existeSobreposto(hora(8).plusMinutes(30), hora(11).plusMinutes(30), v -> v != 1));
+    }
+}
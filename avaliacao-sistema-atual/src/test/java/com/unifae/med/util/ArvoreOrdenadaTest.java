@@ -0,0 +1,222 @@
+package com.unifae.med.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários da ArvoreOrdenada.
+ * 
+ * Valida inclusão e remoção com as rotações do treap, o tamanho das
+ * subárvores (via contarAntes/obter/listar) e a posição com empates usada
+ * pelo ranking de notas.
+ * 
+ * Execute com: mvn test -Dtest="ArvoreOrdenadaTest"
+ */
+@DisplayName("Testes Unitários: ArvoreOrdenada")
+class ArvoreOrdenadaTest {
+
+    /** Entrada de ranking: maior média primeiro, empate desfeito pelo ID. */
+    private record Entrada(int media, int idAluno) {
+    }
+
+    private static final Comparator<Entrada> ORDEM = Comparator
+            .comparingInt(Entrada::media).reversed()
+            .thenComparingInt(Entrada::idAluno);
+
+    private ArvoreOrdenada<Integer> arvore;
+
+    @BeforeEach
+    void setUp() {
+        arvore = new ArvoreOrdenada<>(Comparator.naturalOrder());
+    }
+
+    // ========================================
+    // TESTES DE INCLUSÃO E REMOÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Inserir elemento repetido não deve alterar o tamanho")
+    void testInserir_QuandoRepetido_DeveRetornarFalse() {
+        // Arrange
+        assertTrue(arvore.inserir(5));
+
+        // Act
+        boolean incluido = arvore.inserir(5);
+
+        // Assert
+        assertFalse(incluido);
+        assertEquals(1, arvore.tamanho());
+    }
+
+    @Test
+    @DisplayName("Remover elemento inexistente deve retornar false")
+    void testRemover_QuandoInexistente_DeveRetornarFalse() {
+        // Arrange
+        arvore.inserir(1);
+        arvore.inserir(3);
+
+        // Act
+        boolean removido = arvore.remover(2);
+
+        // Assert
+        assertFalse(removido);
+        assertEquals(2, arvore.tamanho());
+    }
+
+    @Test
+    @DisplayName("Inclusões já ordenadas devem manter posições corretas")
+    void testInserir_QuandoEmOrdemCrescente_DeveManterPosicoes() {
+        // Arrange
+        for (int i = 0; i < 1000; i++) {
+            arvore.inserir(i);
+        }
+
+        // Act & Assert
+        assertEquals(1000, arvore.tamanho());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, arvore.obter(i));
+            assertEquals(i, arvore.contarAntes(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Remover nó com dois filhos deve manter ordem e tamanhos")
+    void testRemover_QuandoNoInterno_DeveManterOrdem() {
+        // Arrange
+        for (int i = 1; i <= 15; i++) {
+            arvore.inserir(i);
+        }
+
+        // Act
+        for (int i = 2; i <= 14; i += 3) {
+            assertTrue(arvore.remover(i));
+        }
+
+        // Assert
+        assertEquals(List.of(1, 3, 4, 6, 7, 9, 10, 12, 13, 15), arvore.listar(0, arvore.tamanho()));
+        assertEquals(10, arvore.tamanho());
+        assertEquals(5, arvore.contarAntes(8));
+    }
+
+    @Test
+    @DisplayName("Operações aleatórias devem coincidir com um TreeSet")
+    void testOperacoesAleatorias_DevemCoincidirComTreeSet() {
+        // Arrange
+        Random aleatorio = new Random(17);
+        TreeSet<Integer> referencia = new TreeSet<>();
+
+        // Act & Assert
+        for (int passo = 0; passo < 5000; passo++) {
+            int valor = aleatorio.nextInt(500);
+            if (aleatorio.nextInt(3) == 0) {
+                assertEquals(referencia.remove(valor), arvore.remover(valor));
+            } else {
+                assertEquals(referencia.add(valor), arvore.inserir(valor));
+            }
+            int consulta = aleatorio.nextInt(500);
+            assertEquals(referencia.size(), arvore.tamanho());
+            assertEquals(referencia.headSet(consulta).size(), arvore.contarAntes(consulta));
+        }
+        assertEquals(new ArrayList<>(referencia), arvore.listar(0, arvore.tamanho()));
+    }
+
+    // ========================================
+    // TESTES DE CONSULTA POR POSIÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Obter posição fora da árvore deve lançar exceção")
+    void testObter_QuandoForaDosLimites_DeveLancarExcecao() {
+        // Arrange
+        arvore.inserir(10);
+
+        // Act & Assert
+        assertThrows(IndexOutOfBoundsException.class, () -> arvore.obter(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> arvore.obter(-1));
+    }
+
+    @Test
+    @DisplayName("Listar com limites fora da árvore deve ajustá-los")
+    void testListar_QuandoLimitesForaDaArvore_DeveAjustar() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            arvore.inserir(i * 10);
+        }
+
+        // Act & Assert
+        assertEquals(List.of(70, 80, 90), arvore.listar(7, 50));
+        assertEquals(List.of(0, 10), arvore.listar(-5, 2));
+        assertTrue(arvore.listar(6, 3).isEmpty());
+        assertTrue(arvore.listar(10, 12).isEmpty());
+    }
+
+    @Test
+    @DisplayName("contarAntes de valor ausente deve retornar posição de inclusão")
+    void testContarAntes_QuandoValorAusente_DeveRetornarPosicaoDeInclusao() {
+        // Arrange
+        arvore.inserir(10);
+        arvore.inserir(20);
+        arvore.inserir(30);
+
+        // Act & Assert
+        assertEquals(0, arvore.contarAntes(5));
+        assertEquals(2, arvore.contarAntes(25));
+        assertEquals(3, arvore.contarAntes(35));
+    }
+
+    // ========================================
+    // TESTES DE POSIÇÃO COM EMPATES
+    // ========================================
+
+    @Test
+    @DisplayName("Médias empatadas devem dividir a posição (1, 2, 2, 4)")
+    void testContarAntes_QuandoMediasEmpatadas_DeveRetornarPosicaoCompartilhada() {
+        // Arrange
+        ArvoreOrdenada<Entrada> ranking = new ArvoreOrdenada<>(ORDEM);
+        ranking.inserir(new Entrada(70, 4));
+        ranking.inserir(new Entrada(80, 3));
+        ranking.inserir(new Entrada(90, 1));
+        ranking.inserir(new Entrada(80, 2));
+
+        // Act
+        List<Integer> posicoes = new ArrayList<>();
+        for (Entrada entrada : ranking.listar(0, ranking.tamanho())) {
+            posicoes.add(ranking.contarAntes(new Entrada(entrada.media(), Integer.MIN_VALUE)) + 1);
+        }
+
+        // Assert
+        assertEquals(List.of(1, 2, 2, 4), posicoes);
+        assertEquals(List.of(new Entrada(80, 2), new Entrada(80, 3)), ranking.listar(1, 3));
+    }
+
+    @Test
+    @DisplayName("Remover um dos empatados deve reposicionar os seguintes")
+    void testRemover_QuandoEmpatado_DeveReposicionarSeguintes() {
+        // Arrange
+        ArvoreOrdenada<Entrada> ranking = new ArvoreOrdenada<>(ORDEM);
+        ranking.inserir(new Entrada(90, 1));
+        ranking.inserir(new Entrada(80, 2));
+        ranking.inserir(new Entrada(80, 3));
+        ranking.inserir(new Entrada(70, 4));
+
+        // Act
+        ranking.remover(new Entrada(80, 2));
+
+        // Assert
+        assertEquals(1, ranking.contarAntes(new Entrada(80, Integer.MIN_VALUE)));
+        assertEquals(2, ranking.contarAntes(new Entrada(70, Integer.MIN_VALUE)));
+        assertEquals(new Entrada(70, 4), ranking.obter(2));
+    }
+}
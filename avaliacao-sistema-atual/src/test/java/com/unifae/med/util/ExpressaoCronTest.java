@@ -0,0 +1,159 @@
+package com.unifae.med.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes unitários da ExpressaoCron.
+ * 
+ * Valida o cálculo da próxima execução (faixas, passos, nomes, atalhos, a
+ * regra "ou" entre dia-do-mês e dia-da-semana, 29 de fevereiro) e o
+ * comportamento nas trocas de horário de verão: a expressão trabalha no
+ * horário local e o AgendadorTarefas converte o resultado com atZone().
+ * 
+ * Execute com: mvn test -Dtest="ExpressaoCronTest"
+ */
+@DisplayName("Testes Unitários: ExpressaoCron")
+class ExpressaoCronTest {
+
+    /** Fuso com horário de verão: 08/03/2026 pula das 2h para as 3h e 01/11/2026 volta das 2h para a 1h. */
+    private static final ZoneId NOVA_YORK = ZoneId.of("America/New_York");
+
+    private static LocalDateTime momento(int mes, int dia, int hora, int minuto) {
+        return LocalDateTime.of(2026, mes, dia, hora, minuto);
+    }
+
+    // ========================================
+    // TESTES DE PRÓXIMA EXECUÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Próxima execução deve ser estritamente posterior à referência")
+    void testProxima_QuandoReferenciaCoincide_DeveRetornarSeguinte() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("30 2 * * *");
+
+        // Act & Assert
+        assertEquals(momento(3, 3, 2, 30), cron.proxima(momento(3, 2, 2, 30)));
+        assertEquals(momento(3, 3, 2, 30), cron.proxima(momento(3, 2, 2, 30).plusSeconds(59)));
+        assertEquals(momento(3, 2, 2, 30), cron.proxima(momento(3, 2, 2, 29).plusSeconds(59)));
+    }
+
+    @Test
+    @DisplayName("Passo em dias úteis deve saltar o fim de semana")
+    void testProxima_QuandoFimDoExpedienteNaSexta_DeveIrParaSegunda() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("*/10 7-22 * * 1-5");
+
+        // Act & Assert
+        assertEquals(momento(3, 6, 22, 0), cron.proxima(momento(3, 6, 21, 55)));
+        assertEquals(momento(3, 9, 7, 0), cron.proxima(momento(3, 6, 22, 50)));
+    }
+
+    @Test
+    @DisplayName("Dia-do-mês e dia-da-semana restritos devem valer com \"ou\"")
+    void testProxima_QuandoDiaMesEDiaSemanaRestritos_DeveAceitarQualquerUm() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("0 3 1 * 1");
+
+        // Act & Assert
+        assertEquals(momento(3, 9, 3, 0), cron.proxima(momento(3, 2, 3, 0)));
+        assertEquals(momento(4, 1, 3, 0), cron.proxima(momento(3, 30, 4, 0)));
+    }
+
+    @Test
+    @DisplayName("Domingo deve aceitar 0, 7 e SUN")
+    void testProxima_QuandoDomingo_DeveAceitarTodasAsFormas() {
+        // Arrange
+        LocalDateTime segunda = momento(3, 2, 12, 0);
+
+        // Act & Assert
+        assertEquals(momento(3, 8, 4, 0), ExpressaoCron.of("0 4 * * 0").proxima(segunda));
+        assertEquals(momento(3, 8, 4, 0), ExpressaoCron.of("0 4 * * 7").proxima(segunda));
+        assertEquals(momento(3, 8, 4, 0), ExpressaoCron.of("0 4 * * sun").proxima(segunda));
+    }
+
+    @Test
+    @DisplayName("Nomes de meses e atalhos devem virar a data correta")
+    void testProxima_QuandoNomesEAtalhos_DeveCalcularData() {
+        // Act & Assert
+        assertEquals(momento(7, 1, 0, 0), ExpressaoCron.of("0 0 1 JAN,JUL *").proxima(momento(3, 2, 0, 0)));
+        assertEquals(LocalDateTime.of(2027, 1, 1, 0, 0), ExpressaoCron.of("@yearly").proxima(momento(12, 31, 23, 59)));
+        assertEquals(momento(3, 2, 10, 0), ExpressaoCron.of("@hourly").proxima(momento(3, 2, 9, 0)));
+    }
+
+    @Test
+    @DisplayName("29 de fevereiro deve esperar o próximo ano bissexto")
+    void testProxima_Quando29DeFevereiro_DeveIrParaAnoBissexto() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("0 12 29 2 *");
+
+        // Act & Assert
+        assertEquals(LocalDateTime.of(2028, 2, 29, 12, 0), cron.proxima(momento(3, 1, 0, 0)));
+    }
+
+    // ========================================
+    // TESTES DE HORÁRIO DE VERÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Horário inexistente na troca de verão deve disparar uma vez, deslocado")
+    void testProxima_QuandoHorarioNoSaltoDoVerao_DeveDispararUmaVez() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("30 2 * * *");
+
+        // Act
+        LocalDateTime prevista = cron.proxima(momento(3, 7, 3, 0));
+        ZonedDateTime disparo = prevista.atZone(NOVA_YORK);
+
+        // Assert
+        assertEquals(momento(3, 8, 2, 30), prevista);
+        assertEquals(momento(3, 8, 3, 30), disparo.toLocalDateTime());
+        assertEquals(ZoneOffset.ofHours(-4), disparo.getOffset());
+        // O agendador segue do mais tardio entre a prevista e o relógio (03:30)
+        assertEquals(momento(3, 9, 2, 30), cron.proxima(disparo.toLocalDateTime()));
+    }
+
+    @Test
+    @DisplayName("Hora repetida no fim do verão não deve disparar duas vezes")
+    void testProxima_QuandoHoraRepetidaNoFimDoVerao_NaoDeveRepetir() {
+        // Arrange
+        ExpressaoCron cron = ExpressaoCron.of("30 1 * * *");
+
+        // Act
+        LocalDateTime prevista = cron.proxima(momento(10, 31, 12, 0));
+        ZonedDateTime disparo = prevista.atZone(NOVA_YORK);
+
+        // Assert
+        assertEquals(momento(11, 1, 1, 30), prevista);
+        assertEquals(ZoneOffset.ofHours(-4), disparo.getOffset());
+        // Na segunda passagem pela 01:30 o relógio local já está em 01:30: a próxima é no dia seguinte
+        LocalDateTime segundaPassagem = disparo.withLaterOffsetAtOverlap().toLocalDateTime();
+        assertEquals(momento(11, 2, 1, 30), cron.proxima(segundaPassagem));
+    }
+
+    // ========================================
+    // TESTES DE VALIDAÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Expressões inválidas ou que nunca ocorrem devem lançar exceção")
+    void testOf_QuandoExpressaoInvalida_DeveLancarExcecao() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("0 0 30 2 *"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("0 0 * *"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("60 0 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("0 18-8 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("0 0 * FOO *"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of("@reboot"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressaoCron.of(""));
+    }
+}
@@ -0,0 +1,196 @@
+package com.unifae.med.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários da RegraRecorrencia.
+ * 
+ * Valida a interpretação das regras RRULE e a expansão das ocorrências com
+ * COUNT, UNTIL (só data ou data e hora), BYDAY e INTERVAL, inclusive em
+ * janelas que começam no meio da série.
+ * 
+ * Execute com: mvn test -Dtest="RegraRecorrenciaTest"
+ */
+@DisplayName("Testes Unitários: RegraRecorrencia")
+class RegraRecorrenciaTest {
+
+    /** Segunda-feira, 02/03/2026, às 9h. */
+    private static final LocalDateTime SEGUNDA = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private static LocalDateTime dia(int mes, int dia) {
+        return LocalDateTime.of(2026, mes, dia, 9, 0);
+    }
+
+    // ========================================
+    // TESTES DE COUNT
+    // ========================================
+
+    @Test
+    @DisplayName("COUNT com BYDAY deve gerar a quantidade pedida nos dias da semana")
+    void testInicios_QuandoCountComByday_DeveGerarQuantidade() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=5");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, null, null);
+
+        // Assert
+        assertEquals(List.of(dia(3, 2), dia(3, 4), dia(3, 9), dia(3, 11), dia(3, 16)), inicios);
+        assertEquals(dia(3, 16), regra.ultimoInicio(SEGUNDA));
+    }
+
+    @Test
+    @DisplayName("Janela no meio da série com COUNT deve contar desde a primeira")
+    void testInicios_QuandoJanelaNoMeioComCount_DeveContarDesdeAPrimeira() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=5");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, dia(3, 10), dia(4, 30));
+
+        // Assert
+        assertEquals(List.of(dia(3, 11), dia(3, 16)), inicios);
+    }
+
+    @Test
+    @DisplayName("Primeira ocorrência no meio da semana não deve gerar dias anteriores")
+    void testInicios_QuandoPrimeiraNaQuarta_DeveIgnorarSegundaAnterior() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=3");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(dia(3, 4), null, null);
+
+        // Assert
+        assertEquals(List.of(dia(3, 4), dia(3, 9), dia(3, 11)), inicios);
+    }
+
+    @Test
+    @DisplayName("INTERVAL=2 semanal deve pular uma semana")
+    void testInicios_QuandoIntervaloDois_DevePularSemana() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;INTERVAL=2;COUNT=3");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, null, null);
+
+        // Assert
+        assertEquals(List.of(dia(3, 2), dia(3, 16), dia(3, 30)), inicios);
+    }
+
+    @Test
+    @DisplayName("Mensal no dia 31 deve pular meses sem o dia")
+    void testInicios_QuandoMensalNoDia31_DevePularMesesCurtos() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=MONTHLY;COUNT=3");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(dia(1, 31), null, null);
+
+        // Assert
+        assertEquals(List.of(dia(1, 31), dia(3, 31), dia(5, 31)), inicios);
+    }
+
+    // ========================================
+    // TESTES DE UNTIL
+    // ========================================
+
+    @Test
+    @DisplayName("UNTIL só com data deve incluir o dia inteiro")
+    void testInicios_QuandoUntilSoComData_DeveIncluirODia() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20260311");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, null, null);
+
+        // Assert
+        assertEquals(List.of(dia(3, 2), dia(3, 4), dia(3, 9), dia(3, 11)), inicios);
+    }
+
+    @Test
+    @DisplayName("UNTIL com hora antes do horário deve excluir a última ocorrência")
+    void testInicios_QuandoUntilAntesDoHorario_DeveExcluirOcorrencia() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20260311T085959");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, null, null);
+
+        // Assert
+        assertEquals(List.of(dia(3, 2), dia(3, 4), dia(3, 9)), inicios);
+    }
+
+    @Test
+    @DisplayName("Janela sem COUNT deve gerar só as ocorrências do período")
+    void testInicios_QuandoJanelaComUntil_DeveRespeitarFimExclusivo() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=DAILY;UNTIL=20261231");
+
+        // Act
+        List<LocalDateTime> inicios = regra.inicios(SEGUNDA, dia(6, 1), dia(6, 4));
+
+        // Assert
+        assertEquals(List.of(dia(6, 1), dia(6, 2), dia(6, 3)), inicios);
+        assertTrue(regra.ocorre(SEGUNDA, dia(12, 31)));
+        assertFalse(regra.ocorre(SEGUNDA, dia(12, 31).plusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Série com mais de MAX_OCORRENCIAS deve ser recusada")
+    void testUltimoInicio_QuandoSerieLongaDemais_DeveLancarExcecao() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=DAILY;UNTIL=20300101");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> regra.ultimoInicio(SEGUNDA));
+    }
+
+    // ========================================
+    // TESTES DE VALIDAÇÃO
+    // ========================================
+
+    @Test
+    @DisplayName("Início fora dos dias do BYDAY deve ser recusado")
+    void testUltimoInicio_QuandoInicioForaDoByday_DeveLancarExcecao() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=MO;COUNT=4");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> regra.ultimoInicio(dia(3, 3)));
+    }
+
+    @Test
+    @DisplayName("Regras inválidas devem lançar IllegalArgumentException")
+    void testOf_QuandoRegraInvalida_DeveLancarExcecao() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=WEEKLY"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=WEEKLY;COUNT=2;UNTIL=20261215"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=DAILY;BYDAY=MO;COUNT=2"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=WEEKLY;BYDAY=XX;COUNT=2"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=YEARLY;COUNT=2"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=DAILY;COUNT=0"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of("FREQ=DAILY;COUNT=2;BYMONTH=3"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.of(" "));
+    }
+
+    @Test
+    @DisplayName("Regra deve ser gravada na forma canônica")
+    void testToString_DeveRetornarFormaCanonica() {
+        // Arrange
+        RegraRecorrencia regra = RegraRecorrencia.of("rrule:freq=weekly;byday=we,mo;until=20261215");
+
+        // Act & Assert
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261215", regra.toString());
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20261215T235959", regra.paraICalendar());
+    }
+}